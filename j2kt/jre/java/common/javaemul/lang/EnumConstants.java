@@ -0,0 +1,47 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package javaemul.lang;
+
+import javaemul.internal.annotations.KtNative;
+import org.jspecify.annotations.NullMarked;
+
+/**
+ * Makes the constants of an enum available to {@link Class#getEnumConstants}, and with that to
+ * {@code EnumSet.allOf}, {@code EnumSet.range} and {@code EnumSet.complementOf}. Kotlin Native has
+ * no reflection over enum classes, so an enum that needs these calls {@link #register} from its
+ * static initializer:
+ *
+ * <pre>{@code
+ * enum Fruit {
+ *   APPLE,
+ *   ORANGE;
+ *
+ *   static {
+ *     EnumConstants.register(Fruit.class, values());
+ *   }
+ * }
+ * }</pre>
+ *
+ * <p>On the JVM this does nothing.
+ */
+@KtNative
+@NullMarked
+public final class EnumConstants {
+  private EnumConstants() {}
+
+  public static native <E extends Enum<E>> void register(Class<E> type, E[] constants);
+}
@@ -45,6 +45,8 @@ public final class Class<T> implements Type {
 
   public native boolean isPrimitive();
 
+  // On j2kt-native, enum constants are only available once they have been registered through
+  // javaemul.lang.EnumConstants.register, since Kotlin Native has no reflection over enum classes.
   public native T @Nullable [] getEnumConstants();
 
   // Supported only in j2kt-web or j2kt-jvm, but not in j2kt-native.
@@ -19,6 +19,7 @@ package java.lang
 
 import java.lang.reflect.Type
 import javaemul.lang.J2ktMonitor
+import kotlin.concurrent.Volatile
 import kotlin.jvm.javaObjectType
 import kotlin.jvm.javaPrimitiveType
 import kotlin.native.ObjCName
@@ -35,6 +36,9 @@ class Class<T : Any>(private val kClass: KClass<T>, private val isPrimitive0: ko
   Type {
   val j2ktMonitor: J2ktMonitor by lazy { J2ktMonitor() }
 
+  /** Constants of this enum class in ordinal order, if registered. */
+  @Volatile private var enumConstants: Array<*>? = null
+
   companion object {
     /**
      * Returns the [Class] object corresponding to the given Objective-C class, or `null` if the
@@ -51,6 +55,31 @@ class Class<T : Any>(private val kClass: KClass<T>, private val isPrimitive0: ko
     @ObjCName("fromObjC")
     fun fromObjCProtocol(@ObjCName("protocol") objCProtocol: ObjCProtocol): Class<*>? =
       getOriginalKotlinClass(objCProtocol)?.javaObjectType
+
+    /**
+     * Registers the constants of an enum class so that they are returned by [getEnumConstants] and
+     * can be used by `EnumSet.allOf`, `EnumSet.range` and `EnumSet.complementOf`. Kotlin Native has
+     * no reflection over enum classes, so this has to happen before any of those are called. Java
+     * enums do this from their static initializer through [javaemul.lang.EnumConstants.register].
+     */
+    fun <T : kotlin.Enum<T>> registerEnumConstants(type: Class<T>, constants: Array<T>) {
+      val copy = constants.copyOf()
+      for (i in copy.indices) {
+        val constant = copy[i]
+        require(constant.ordinal == i) { "Constants must be in ordinal order" }
+        // Constants with a body have their own subclass, which is what getClass() returns.
+        val constantClass = constant::class.javaObjectType
+        if (constantClass != type) {
+          constantClass.enumConstants = copy
+        }
+      }
+      type.enumConstants = copy
+    }
+
+    /** Registers the constants of the enum class [T]; see [registerEnumConstants]. */
+    inline fun <reified T : kotlin.Enum<T>> registerEnumConstants() {
+      registerEnumConstants(T::class.javaObjectType, enumValues<T>())
+    }
   }
 
   fun getName(): kotlin.String = getCanonicalName() ?: ""
@@ -81,8 +110,22 @@ class Class<T : Any>(private val kClass: KClass<T>, private val isPrimitive0: ko
 
   fun isPrimitive(): kotlin.Boolean = isPrimitive0
 
-  // TODO(b/235808937): Implement
-  fun getEnumConstants(): Array<T>? = throw UnsupportedOperationException()
+  /**
+   * Returns a copy of the constants of this enum class, or `null` if this is not an enum class or
+   * its constants have not been passed to [registerEnumConstants]. Unlike on the JVM, the class of
+   * a constant with a body also returns the constants of its enum class.
+   */
+  fun getEnumConstants(): Array<T>? {
+    @Suppress("UNCHECKED_CAST")
+    return enumConstants?.copyOf() as Array<T>?
+  }
+
+  /**
+   * The registered constants of this enum class without copying, so that all users of the same enum
+   * class see the identical array. Callers must not modify it.
+   */
+  internal val sharedEnumConstants: Array<*>?
+    get() = enumConstants
 
   fun cast(obj: Any?): T? =
     if (obj == null || kClass.isInstance(obj)) {
@@ -146,10 +146,9 @@ class Thread internal constructor(private val id: kotlin.Long) {
       when (parked) {
         State.NOT_PARKED -> parked = State.PREUNPARKED
         State.PARKED -> nativeMonitor.notify()
-        else ->
-          throw IllegalStateException(
-            "Invalid parked state for unpark(): $parked; blocker: $blocker"
-          )
+        // Like the JDK, keep at most one permit. Waiters that register a wakeup callback can be
+        // unparked after they already stopped waiting, so this is not an error.
+        State.PREUNPARKED -> {}
       }
       nativeMonitor.unlock()
     }
@@ -13,41 +13,135 @@
  * See the License for the specific language governing permissions and
  * limitations under the License.
  */
+@file:OptIn(ExperimentalAtomicApi::class)
+
 package java.lang
 
 import java.util.function.Supplier
+import kotlin.concurrent.Volatile
+import kotlin.concurrent.atomics.AtomicInt
+import kotlin.concurrent.atomics.AtomicReference
+import kotlin.concurrent.atomics.ExperimentalAtomicApi
+import kotlin.concurrent.atomics.fetchAndIncrement
+import kotlin.concurrent.atomics.incrementAndFetch
+import kotlin.native.ref.createCleaner
+
+// The current thread's values, two slots per ThreadLocal index: the owner's key followed by the
+// value. A slot only belongs to a ThreadLocal if it holds that ThreadLocal's key, so values left
+// behind by a collected ThreadLocal are never returned once its index is reused.
+@kotlin.native.concurrent.ThreadLocal private var threadLocalSlots: Array<Any?> = arrayOfNulls(0)
+
+// Value of releaseCount when the current thread last cleared the slots of collected ThreadLocals.
+@kotlin.native.concurrent.ThreadLocal private var sweptReleaseCount = 0
+
+private const val INITIAL_SLOTS = 16
 
-// Maps ThreadLocal instances to their thread local values
-@kotlin.native.concurrent.ThreadLocal
-private val threadLocalValues: MutableMap<ThreadLocal<*>, Any> = mutableMapOf()
+// Indices of collected ThreadLocals, available for reuse so that the slot arrays stay dense.
+private class FreeIndex(val index: Int, val next: FreeIndex?)
+
+private val freeIndices = AtomicReference<FreeIndex?>(null)
+
+// Number of collected ThreadLocals so far; threads compare it to sweptReleaseCount.
+private val releaseCount = AtomicInt(0)
+
+// The key of a ThreadLocal, which owns the slots at twice its index. It is marked released once
+// the ThreadLocal is collected, so that each thread can clear the slots it left behind.
+private class Key(val index: Int) {
+  @Volatile var released = false
+}
+
+private val nextIndex = AtomicInt(0)
+
+private fun allocateIndex(): Int {
+  while (true) {
+    val head = freeIndices.load() ?: return nextIndex.fetchAndIncrement()
+    if (freeIndices.compareAndSet(head, head.next)) {
+      return head.index
+    }
+  }
+}
+
+private fun release(key: Key) {
+  key.released = true
+  releaseCount.incrementAndFetch()
+  while (true) {
+    val head = freeIndices.load()
+    if (freeIndices.compareAndSet(head, FreeIndex(key.index, head))) {
+      return
+    }
+  }
+}
+
+// Clears the slots of collected ThreadLocals in the current thread, so that their values do not
+// stay reachable until the index is reused. Only scans the slots if there were releases since the
+// last sweep.
+private fun sweepReleasedSlots() {
+  val count = releaseCount.load()
+  if (count == sweptReleaseCount) {
+    return
+  }
+  sweptReleaseCount = count
+  val slots = threadLocalSlots
+  for (i in 0 until slots.size step 2) {
+    if ((slots[i] as Key?)?.released == true) {
+      slots[i] = null
+      slots[i + 1] = null
+    }
+  }
+}
 
 open class ThreadLocal<T> {
+  // Identifies this ThreadLocal's slots. Thread slot arrays reference the key rather than the
+  // ThreadLocal itself, so that they do not keep it reachable.
+  private val key = Key(allocateIndex())
+
+  private val index = key.index
+
+  // Marks the key released and returns the index to the free list once this ThreadLocal is
+  // collected. Each thread clears the stale slots on its next miss or store.
+  @Suppress("unused") private val cleaner = createCleaner(key) { release(it) }
 
   fun get(): T? {
-    val result = threadLocalValues[this]
-    if (result != null) {
+    val slots = threadLocalSlots
+    val i = 2 * index
+    if (i < slots.size && slots[i] === key) {
       @Suppress("UNCHECKED_CAST")
-      return if (result == NULL_VALUE_MARKER) null else result as T
+      return slots[i + 1] as T?
     }
     val value = initialValue()
-    threadLocalValues[this] = value ?: NULL_VALUE_MARKER
+    store(value)
     return value
   }
 
   fun set(value: T) {
-    threadLocalValues[this] = value ?: NULL_VALUE_MARKER
+    store(value)
   }
 
   fun remove() {
-    threadLocalValues.remove(this)
+    val slots = threadLocalSlots
+    val i = 2 * index
+    if (i < slots.size && slots[i] === key) {
+      slots[i] = null
+      slots[i + 1] = null
+    }
   }
 
   protected open fun initialValue(): T? = null
 
-  companion object {
-    // Allows us to avoid a separate contains() lookup and nullable map values.
-    private val NULL_VALUE_MARKER = Any()
+  private fun store(value: T?) {
+    sweepReleasedSlots()
+    // Re-read the slots, initialValue() may have grown them.
+    var slots = threadLocalSlots
+    val i = 2 * index
+    if (i >= slots.size) {
+      slots = slots.copyOf(maxOf(i + 2, 2 * slots.size, INITIAL_SLOTS))
+      threadLocalSlots = slots
+    }
+    slots[i] = key
+    slots[i + 1] = value
+  }
 
+  companion object {
     fun <T> withInitial(supplier: Supplier<T?>) =
       object : ThreadLocal<T>() {
         override fun initialValue() = supplier.get()
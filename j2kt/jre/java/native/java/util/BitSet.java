@@ -17,33 +17,46 @@
 package java.util;
 
 import static javaemul.internal.InternalPreconditions.checkArraySize;
+import static javaemul.internal.InternalPreconditions.checkNotNull;
 
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
 import org.jspecify.annotations.NullMarked;
 import org.jspecify.annotations.Nullable;
 
 /**
- * Not yet implemented: public static BitSet valueOf(ByteBuffer) public static BitSet
+ * Bit set stored in 64-bit words, so that bulk operations, counting and scanning handle 64 bits at
+ * a time.
+ *
+ * <p>Not yet implemented: public static BitSet valueOf(ByteBuffer) public static BitSet
  * valueOf(LongBuffer)
  */
 @NullMarked
 public class BitSet implements Cloneable {
-  private static final int WORD_MASK = 0xffffffff;
-  private static final int BITS_PER_WORD = 32;
+  private static final long WORD_MASK = 0xffffffffffffffffL;
+  private static final int ADDRESS_BITS_PER_WORD = 6;
+  private static final int BITS_PER_WORD = 1 << ADDRESS_BITS_PER_WORD;
+
+  private long[] words;
 
-  private int[] array;
+  /** The number of words in the logical size of this set. All words from there on are zero. */
+  private int wordsInUse;
 
   public BitSet() {
-    array = new int[0];
+    words = new long[1];
   }
 
   public BitSet(int nbits) {
     checkArraySize(nbits);
-    int length = wordIndex(nbits - 1) + 1;
-    array = new int[length];
+    words = new long[wordIndex(nbits - 1) + 1];
   }
 
-  private BitSet(int[] array) {
-    this.array = array;
+  /** Creates a bit set that takes ownership of {@code words}. */
+  private BitSet(long[] words) {
+    this.words = words;
+    this.wordsInUse = words.length;
+    recalculateWordsInUse();
   }
 
   private static void checkIndex(int bitIndex) {
@@ -65,182 +78,49 @@ public class BitSet implements Cloneable {
    * @return The index of the word (array entry) holding that bit.
    */
   private static int wordIndex(int bitIndex) {
-    return bitIndex / BITS_PER_WORD;
+    return bitIndex >> ADDRESS_BITS_PER_WORD;
   }
 
-  /**
-   * Converts from a word index to the lowest index of the bit stored in that word.
-   *
-   * @param wordIndex The word index.
-   * @return The lowest index of the bit stored in that word.
-   */
-  private static int bitIndex(int wordIndex) {
-    return wordIndex * BITS_PER_WORD;
+  /** Sets {@link #wordsInUse} to the index of the last nonzero word plus one. */
+  private void recalculateWordsInUse() {
+    int i = wordsInUse - 1;
+    for (; i >= 0 && words[i] == 0; --i) {}
+    wordsInUse = i + 1;
   }
 
   /**
-   * Computes the offset within a word for a bit index.
-   *
-   * @param bitIndex The bit index.
-   * @return The offset of the bit within a word, counting from right to left.
+   * Ensures that the words array can hold at least {@code wordsRequired} words, growing it
+   * geometrically if needed.
    */
-  private static int bitOffset(int bitIndex) {
-    return bitIndex % BITS_PER_WORD;
-  }
-
-  /**
-   * Sets all bits to true within the given range.
-   *
-   * @param fromIndex The lower bit index.
-   * @param toIndex The upper bit index.
-   */
-  private void setInternal(int fromIndex, int toIndex) {
-    int first = wordIndex(fromIndex);
-    int last = wordIndex(toIndex);
-
-    maybeGrowArrayToIndex(last);
-
-    int startBit = bitOffset(fromIndex);
-    int endBit = bitOffset(toIndex);
-
-    if (first == last) {
-      // Set the bits in between first and last.
-      maskInWord(first, startBit, endBit);
-    } else {
-      // Set the bits from fromIndex to the next 32 bit boundary.
-      maskInWord(first, startBit, BITS_PER_WORD);
-
-      // Set the bits from the last 32 bit boundary to toIndex.
-      maskInWord(last, 0, endBit);
-
-      // Set everything in between.
-      for (int i = first + 1; i < last; i++) {
-        array[i] = WORD_MASK;
-      }
+  private void ensureCapacity(int wordsRequired) {
+    if (words.length < wordsRequired) {
+      words = Arrays.copyOf(words, Math.max(2 * words.length, wordsRequired));
     }
   }
 
-  private void maybeGrowArrayToIndex(int newMaxIndex) {
-    int requiredSize = newMaxIndex + 1;
-    if (requiredSize > array.length) {
-      array = Arrays.copyOf(array, Math.max(2 * array.length, requiredSize));
+  /** Makes the word at {@code wordIndex} part of the logical size of this set. */
+  private void expandTo(int wordIndex) {
+    int wordsRequired = wordIndex + 1;
+    if (wordsInUse < wordsRequired) {
+      ensureCapacity(wordsRequired);
+      wordsInUse = wordsRequired;
     }
   }
 
-  /**
-   * Returns the index of the last word containing a true bit in an array, or -1 if none.
-   *
-   * @param array The array.
-   * @return The index of the last word containing a true bit, or -1 if none.
-   */
-  private static int lastSetWordIndex(int[] array) {
-    int i = array.length - 1;
-    for (; i >= 0 && wordAt(array, i) == 0; --i) { }
-    return i;
-  }
-
-  /**
-   * Flips all bits in a word within the given range.
-   *
-   * @param array The array.
-   * @param index The word index.
-   * @param from The lower bit index.
-   * @param to The upper bit index.
-   */
-  private static void flipMaskedWord(int[] array, int index, int from, int to) {
-    if (from == to) {
-      return;
-    }
-
-    to = 32 - to;
-    int word = wordAt(array, index);
-    word ^= ((0xffffffff >>> from) << (from + to)) >>> to;
-    array[index] = word & WORD_MASK;
-  }
-
-  /**
-   * Sets all bits to true in a word within the given bit range.
-   *
-   * @param index The word index.
-   * @param from The lower bit index.
-   * @param to The upper bit index.
-   */
-  private void maskInWord(int index, int from, int to) {
-    if (from == to) {
-      return;
-    }
-
-    to = 32 - to;
-    int word = wordAt(array, index);
-    word |= ((0xffffffff >>> from) << (from + to)) >>> to;
-    array[index] = word & WORD_MASK;
-  }
-
-  /**
-   * Sets all bits to false in a word within the given bit range.
-   *
-   * @param index The word index.
-   * @param from The lower bit index.
-   * @param to The upper bit index.
-   */
-  private void maskOutWord(int index, int from, int to) {
-    if (from == to) {
-      return;
-    }
-
-    int word = wordAt(array, index);
-    if (word == 0) {
-      return;
-    }
-
-    int mask;
-    if (from != 0) {
-      mask = 0xffffffff >>> (32 - from);
-    } else {
-      mask = 0;
-    }
-    // Shifting by 32 is the same as shifting by 0.
-    if (to != 32) {
-      mask |= 0xffffffff << to;
-    }
-
-    word &= mask;
-    array[index] = word & WORD_MASK;
-  }
-
-  private static int wordAt(int[] array, int index) {
-    return index < array.length ? array[index] : 0;
-  }
-
-  // GWT emulates integer with double and doesn't overflow. Enfore it by a integer mask.
-  private static int enforceOverflow(int value) {
-    return value & 0xffffffff;
-  }
-
   public void and(BitSet set) {
     // a & a is just a.
     if (this == set) {
       return;
     }
 
-    // Truth table
-    //
-    // Case | a     | b     | a & b | Change?
-    // 1    | false | false | false | a is already false
-    // 2    | false | true  | false | a is already false
-    // 3    | true  | false | false | set a to false
-    // 4    | true  | true  | true  | a is already true
-    //
-    // We only need to change something in case 3, so iterate over set a.
-    int limit = Math.min(array.length, set.array.length);
-    int index = 0;
-    for (; index < limit; index++) {
-      int word = wordAt(array, index);
-      if (word != 0) {
-        array[index] = word & wordAt(set.array, index);
-      }
+    // Words past the end of set are false in a & b.
+    while (wordsInUse > set.wordsInUse) {
+      words[--wordsInUse] = 0;
     }
-    Arrays.fill(array, index, array.length, 0);
+    for (int i = 0; i < wordsInUse; i++) {
+      words[i] &= set.words[i];
+    }
+    recalculateWordsInUse();
   }
 
   public void andNot(BitSet set) {
@@ -250,52 +130,35 @@ public class BitSet implements Cloneable {
       return;
     }
 
-    // Truth table
-    //
-    // Case | a     | b     | !b    | a & !b | Change?
-    // 1    | false | false | true  | false  | a is already false
-    // 2    | false | true  | false | false  | a is already false
-    // 3    | true  | false | true  | true   | a is already true
-    // 4    | true  | true  | false | false  | set a to false
-    //
-    // We only need to change something in case 4. Whenever b is true, a should be false, so
-    // iterate over set b.
-    int limit = Math.min(array.length, set.array.length);
-    for (int index = 0; index < limit; index++) {
-      int otherWord = wordAt(set.array, index);
-      if (otherWord != 0) {
-        int word = wordAt(array, index);
-        if (word != 0) {
-          array[index] = word & (~otherWord & WORD_MASK);
-        }
-      }
+    for (int i = Math.min(wordsInUse, set.wordsInUse) - 1; i >= 0; i--) {
+      words[i] &= ~set.words[i];
     }
+    recalculateWordsInUse();
   }
 
   public int cardinality() {
     int count = 0;
-    for (int i = 0; i < array.length; i++) {
-      count += Integer.bitCount(wordAt(array, i));
+    for (int i = 0; i < wordsInUse; i++) {
+      count += Long.bitCount(words[i]);
     }
     return count;
   }
 
   public void clear() {
-    array = new int[0];
+    Arrays.fill(words, 0, wordsInUse, 0L);
+    wordsInUse = 0;
   }
 
   public void clear(int bitIndex) {
     checkIndex(bitIndex);
 
-    int index = wordIndex(bitIndex);
-    if (index >= array.length) {
+    int wordIndex = wordIndex(bitIndex);
+    if (wordIndex >= wordsInUse) {
       return;
     }
 
-    int word = wordAt(array, index);
-    if (word != 0) {
-      array[index] = word & ~(1 << bitOffset(bitIndex)) & WORD_MASK;
-    }
+    words[wordIndex] &= ~(1L << bitIndex);
+    recalculateWordsInUse();
   }
 
   public void clear(int fromIndex, int toIndex) {
@@ -305,37 +168,34 @@ public class BitSet implements Cloneable {
       return;
     }
 
-    int first = wordIndex(fromIndex);
-    if (first >= array.length) {
+    int startWordIndex = wordIndex(fromIndex);
+    if (startWordIndex >= wordsInUse) {
       return;
     }
 
-    int last = wordIndex(toIndex);
-    if (last >= array.length) {
+    int endWordIndex = wordIndex(toIndex - 1);
+    if (endWordIndex >= wordsInUse) {
       toIndex = length();
-      last = wordIndex(toIndex);
+      endWordIndex = wordsInUse - 1;
     }
 
-    int startBit = bitOffset(fromIndex);
-    int endBit = bitOffset(toIndex);
-
-    if (first == last) {
-      // Clear the bits in between first and last.
-      maskOutWord(first, startBit, endBit);
+    // Shifts only use the low six bits of the distance, so these are the masks of the bits from
+    // fromIndex to the end of its word, and from the start of the last word to toIndex.
+    long firstWordMask = WORD_MASK << fromIndex;
+    long lastWordMask = WORD_MASK >>> -toIndex;
+    if (startWordIndex == endWordIndex) {
+      words[startWordIndex] &= ~(firstWordMask & lastWordMask);
     } else {
-      // Clear the bits from fromIndex to the next 32 bit boundary.
-      maskOutWord(first, startBit, BITS_PER_WORD);
-
-      // Clear the bits from the last 32 bit boundary to the toIndex.
-      maskOutWord(last, 0, endBit);
-
-      Arrays.fill(array, first + 1, last, 0);
+      words[startWordIndex] &= ~firstWordMask;
+      Arrays.fill(words, startWordIndex + 1, endWordIndex, 0L);
+      words[endWordIndex] &= ~lastWordMask;
     }
+    recalculateWordsInUse();
   }
 
   @Override
   public Object clone() {
-    return new BitSet(Arrays.copyOf(array, array.length));
+    return new BitSet(Arrays.copyOf(words, words.length));
   }
 
   @Override
@@ -349,14 +209,12 @@ public class BitSet implements Cloneable {
     }
 
     BitSet other = (BitSet) obj;
-
-    int lastIndex = lastSetWordIndex(array);
-    if (lastIndex != lastSetWordIndex(other.array)) {
+    if (wordsInUse != other.wordsInUse) {
       return false;
     }
 
-    for (int index = 0; index <= lastIndex; index++) {
-      if (wordAt(array, index) != wordAt(other.array, index)) {
+    for (int i = 0; i < wordsInUse; i++) {
+      if (words[i] != other.words[i]) {
         return false;
       }
     }
@@ -366,18 +224,10 @@ public class BitSet implements Cloneable {
   public void flip(int bitIndex) {
     checkIndex(bitIndex);
 
-    int index = wordIndex(bitIndex);
-    int offset = bitOffset(bitIndex);
-
-    maybeGrowArrayToIndex(index);
-
-    int word = wordAt(array, index);
-    if (((word >>> offset) & 1) == 1) {
-      word = word & ~(1 << offset);
-    } else {
-      word = (word | (1 << offset));
-    }
-    array[index] = word & WORD_MASK;
+    int wordIndex = wordIndex(bitIndex);
+    expandTo(wordIndex);
+    words[wordIndex] ^= 1L << bitIndex;
+    recalculateWordsInUse();
   }
 
   public void flip(int fromIndex, int toIndex) {
@@ -387,47 +237,29 @@ public class BitSet implements Cloneable {
       return;
     }
 
-    // If we are flipping bits beyond our length, we are setting them to true.
-    int length = length();
-    if (fromIndex >= length) {
-      setInternal(fromIndex, toIndex);
-      return;
-    }
-
-    if (toIndex >= length) {
-      setInternal(length, toIndex);
-      toIndex = length;
-    }
-
-    int first = wordIndex(fromIndex);
-    int last = wordIndex(toIndex);
-    int startBit = bitOffset(fromIndex);
-    int endBit = bitOffset(toIndex);
-
-    if (first == last) {
-      // Flip the bits in between first and last.
-      flipMaskedWord(array, first, startBit, endBit);
+    int startWordIndex = wordIndex(fromIndex);
+    int endWordIndex = wordIndex(toIndex - 1);
+    expandTo(endWordIndex);
 
+    long firstWordMask = WORD_MASK << fromIndex;
+    long lastWordMask = WORD_MASK >>> -toIndex;
+    if (startWordIndex == endWordIndex) {
+      words[startWordIndex] ^= firstWordMask & lastWordMask;
     } else {
-      // Flip the bits from fromIndex to the next 32 bit boundary.
-      flipMaskedWord(array, first, startBit, BITS_PER_WORD);
-
-      // Flip the bits from the last 32 bit boundary to the toIndex.
-      flipMaskedWord(array, last, 0, endBit);
-
-      // Flip everything in between.
-      for (int i = first + 1; i < last; i++) {
-        array[i] = ~wordAt(array, i) & WORD_MASK;
+      words[startWordIndex] ^= firstWordMask;
+      for (int i = startWordIndex + 1; i < endWordIndex; i++) {
+        words[i] = ~words[i];
       }
+      words[endWordIndex] ^= lastWordMask;
     }
+    recalculateWordsInUse();
   }
 
   public boolean get(int bitIndex) {
     checkIndex(bitIndex);
 
-    int index = wordIndex(bitIndex);
-    // Shift and mask the bit out
-    return index < array.length && ((wordAt(array, index) >>> bitOffset(bitIndex)) & 1) == 1;
+    int wordIndex = wordIndex(bitIndex);
+    return wordIndex < wordsInUse && (words[wordIndex] & (1L << bitIndex)) != 0;
   }
 
   public BitSet get(int fromIndex, int toIndex) {
@@ -440,97 +272,41 @@ public class BitSet implements Cloneable {
 
     toIndex = Math.min(toIndex, length);
 
-    // The bit shift offset for each group of bits
-    int rightShift = bitOffset(fromIndex);
+    int targetWords = wordIndex(toIndex - fromIndex - 1) + 1;
+    long[] result = new long[targetWords];
+    int sourceIndex = wordIndex(fromIndex);
+    int rightShift = fromIndex & (BITS_PER_WORD - 1);
 
-    if (rightShift == 0) {
-      int subFrom = wordIndex(fromIndex);
-      int subTo = wordIndex(toIndex + BITS_PER_WORD);
-      int[] subArray = Arrays.copyOfRange(array, subFrom, subTo);
-      int leftOvers = bitOffset(toIndex);
-      BitSet result = new BitSet(subArray);
-      result.maskOutWord(subTo - subFrom - 1, leftOvers, BITS_PER_WORD);
-      return result;
+    // Every target word but the last one takes its low bits from one source word and, unless the
+    // range is word aligned, its high bits from the next one.
+    for (int i = 0; i < targetWords - 1; i++, sourceIndex++) {
+      result[i] =
+          rightShift == 0
+              ? words[sourceIndex]
+              : (words[sourceIndex] >>> rightShift) | (words[sourceIndex + 1] << -rightShift);
     }
 
-    int first = wordIndex(fromIndex);
-    int last = wordIndex(toIndex);
-
-    int[] subArray = new int[last - first + 1];
-    if (first == last) {
-      // Number of bits to cut from the end
-      int end = 32 - bitOffset(toIndex);
-      int word = wordAt(array, first);
-      subArray[0] = (word << end) >>> (rightShift + end);
-    } else {
-      // Fence post, carry over initial bits.
-      int word = wordAt(array, first);
-
-      // This holds the newly packed bits.
-      int current = word >>> rightShift;
-
-      // The raw index into the subset
-      int subIndex = 0;
-
-      // A left shift will be used to shift our bits to the top of "current".
-      int leftShift = BITS_PER_WORD - rightShift;
-
-      // Loop through everything in the middle.
-      for (int i = first + 1; i <= last; i++) {
-        word = wordAt(array, i);
-
-        // Shift out the bits from the top, OR them into current bits.
-        current |= word << leftShift;
-        subArray[subIndex++] = current & WORD_MASK;
-
-        // Carry over the unused bits.
-        current = word >>> rightShift;
-      }
-
-      // Fence post, flush out the extra bits, but don't go past the "end".
-      int end = 32 - bitOffset(toIndex);
-      current = (current << (rightShift + end)) >>> (rightShift + end);
-      subArray[subIndex] = current & WORD_MASK;
-    }
-
-    return new BitSet(subArray);
+    long lastWordMask = WORD_MASK >>> -toIndex;
+    result[targetWords - 1] =
+        ((toIndex - 1) & (BITS_PER_WORD - 1)) < rightShift
+            ? (words[sourceIndex] >>> rightShift)
+                | ((words[sourceIndex + 1] & lastWordMask) << -rightShift)
+            : (words[sourceIndex] & lastWordMask) >>> rightShift;
+    return new BitSet(result);
   }
 
-  /**
-   * This hash is different than the one described in Sun's documentation. The
-   * described hash uses 64 bit integers and that's not practical in JavaScript.
-   */
   @Override
   public int hashCode() {
-    // FNV constants
-    final int fnvOffset = 0x811c9dc5;
-    final int fnvPrime = 0x1000193;
-
-    final int lastIndex = lastSetWordIndex(array);
-    int hash = fnvOffset ^ lastIndex;
-
-    for (int i = 0; i <= lastIndex; i++) {
-      int value = wordAt(array, i);
-      // Hash one byte at a time using FNV1 and make sure we don't overflow 32 bit int.
-      hash = enforceOverflow(hash * fnvPrime) ^ (value & 0xff);
-      hash = enforceOverflow(hash * fnvPrime) ^ ((value >>> 8) & 0xff);
-      hash = enforceOverflow(hash * fnvPrime) ^ ((value >>> 16) & 0xff);
-      hash = enforceOverflow(hash * fnvPrime) ^ (value >>> 24);
+    long hash = 1234;
+    for (int i = wordsInUse; --i >= 0; ) {
+      hash ^= words[i] * (i + 1);
     }
-
-    return hash;
+    return (int) ((hash >> 32) ^ hash);
   }
 
   public boolean intersects(BitSet set) {
-    if (this == set) {
-      // If it has any set bits then it intersects itself.
-      return length() > 0;
-    }
-
-    int limit = Math.min(array.length, set.array.length);
-    for (int index = 0; index < limit; index++) {
-      int word = wordAt(array, index);
-      if (word != 0 && (word & wordAt(set.array, index)) != 0) {
+    for (int i = Math.min(wordsInUse, set.wordsInUse) - 1; i >= 0; i--) {
+      if ((words[i] & set.words[i]) != 0) {
         return true;
       }
     }
@@ -538,59 +314,52 @@ public class BitSet implements Cloneable {
   }
 
   public boolean isEmpty() {
-    return length() == 0;
+    return wordsInUse == 0;
   }
 
   public int length() {
-    int lastIndex = lastSetWordIndex(array);
-    if (lastIndex == -1) {
+    if (wordsInUse == 0) {
       return 0;
     }
 
-    // Compute the bit index of the leftmost bit.
-    int word = wordAt(array, lastIndex);
-    return bitIndex(lastIndex) + (32 - Integer.numberOfLeadingZeros(word));
+    return BITS_PER_WORD * (wordsInUse - 1)
+        + (BITS_PER_WORD - Long.numberOfLeadingZeros(words[wordsInUse - 1]));
   }
 
   public int nextClearBit(int fromIndex) {
     checkIndex(fromIndex);
 
-    int index = wordIndex(fromIndex);
-    int length = array.length;
-    if (index >= length) {
+    int wordIndex = wordIndex(fromIndex);
+    if (wordIndex >= wordsInUse) {
       return fromIndex;
     }
 
-    // Special case for the first word.
-    int word = ~wordAt(array, index) & WORD_MASK;
-    word &= (WORD_MASK << bitOffset(fromIndex));
+    long word = ~words[wordIndex] & (WORD_MASK << fromIndex);
     while (word == 0) {
-      if (++index >= length) {
-        return bitIndex(index);
+      if (++wordIndex == wordsInUse) {
+        return wordsInUse * BITS_PER_WORD;
       }
-      word = ~wordAt(array, index) & WORD_MASK;
+      word = ~words[wordIndex];
     }
-    return bitIndex(index) + Integer.numberOfTrailingZeros(word);
+    return wordIndex * BITS_PER_WORD + Long.numberOfTrailingZeros(word);
   }
 
   public int nextSetBit(int fromIndex) {
     checkIndex(fromIndex);
 
-    int index = wordIndex(fromIndex);
-    int length = array.length;
-    if (index >= length) {
+    int wordIndex = wordIndex(fromIndex);
+    if (wordIndex >= wordsInUse) {
       return -1;
     }
 
-    // Special case for the first word.
-    int word = wordAt(array, index) & (WORD_MASK << bitOffset(fromIndex));
+    long word = words[wordIndex] & (WORD_MASK << fromIndex);
     while (word == 0) {
-      if (++index >= length) {
+      if (++wordIndex == wordsInUse) {
         return -1;
       }
-      word = wordAt(array, index);
+      word = words[wordIndex];
     }
-    return bitIndex(index) + Integer.numberOfTrailingZeros(word);
+    return wordIndex * BITS_PER_WORD + Long.numberOfTrailingZeros(word);
   }
 
   public int previousClearBit(int fromIndex) {
@@ -599,21 +368,19 @@ public class BitSet implements Cloneable {
     }
     checkIndex(fromIndex);
 
-    int index = wordIndex(fromIndex);
-    if (index >= array.length) {
+    int wordIndex = wordIndex(fromIndex);
+    if (wordIndex >= wordsInUse) {
       return fromIndex;
     }
 
-    // Special case for the first word.
-    int word = ~wordAt(array, index) & WORD_MASK;
-    word &= (WORD_MASK >>> (BITS_PER_WORD - bitOffset(fromIndex) - 1));
+    long word = ~words[wordIndex] & (WORD_MASK >>> -(fromIndex + 1));
     while (word == 0) {
-      if (--index < 0) {
+      if (wordIndex-- == 0) {
         return -1;
       }
-      word = ~wordAt(array, index) & WORD_MASK;
+      word = ~words[wordIndex];
     }
-    return bitIndex(index) + (32 - Integer.numberOfLeadingZeros(word)) - 1;
+    return (wordIndex + 1) * BITS_PER_WORD - 1 - Long.numberOfLeadingZeros(word);
   }
 
   public int previousSetBit(int fromIndex) {
@@ -622,20 +389,19 @@ public class BitSet implements Cloneable {
     }
     checkIndex(fromIndex);
 
-    int index = wordIndex(fromIndex);
-    if (index >= array.length) {
+    int wordIndex = wordIndex(fromIndex);
+    if (wordIndex >= wordsInUse) {
       return length() - 1;
     }
 
-    // Special case for the first word.
-    int word = wordAt(array, index) & (WORD_MASK >>> (BITS_PER_WORD - bitOffset(fromIndex) - 1));
+    long word = words[wordIndex] & (WORD_MASK >>> -(fromIndex + 1));
     while (word == 0) {
-      if (--index < 0) {
+      if (wordIndex-- == 0) {
         return -1;
       }
-      word = wordAt(array, index);
+      word = words[wordIndex];
     }
-    return bitIndex(index) + (32 - Integer.numberOfLeadingZeros(word)) - 1;
+    return (wordIndex + 1) * BITS_PER_WORD - 1 - Long.numberOfLeadingZeros(word);
   }
 
   public void or(BitSet set) {
@@ -644,31 +410,27 @@ public class BitSet implements Cloneable {
       return;
     }
 
-    maybeGrowArrayToIndex(set.array.length - 1);
-
-    // Truth table
-    //
-    // Case | a     | b     | a | b | Change?
-    // 1    | false | false | false | a is already false
-    // 2    | false | true  | true  | set a to true
-    // 3    | true  | false | true  | a is already true
-    // 4    | true  | true  | true  | a is already true
-    //
-    // We only need to change something in case 2. Case 2 only happens when b is true, so iterate
-    // over set b
-    for (int index = 0; index < set.array.length; index++) {
-      int word = wordAt(set.array, index);
-      if (word != 0) {
-        array[index] = wordAt(array, index) | word;
-      }
+    int wordsInCommon = Math.min(wordsInUse, set.wordsInUse);
+    if (wordsInUse < set.wordsInUse) {
+      ensureCapacity(set.wordsInUse);
+      wordsInUse = set.wordsInUse;
+    }
+    for (int i = 0; i < wordsInCommon; i++) {
+      words[i] |= set.words[i];
+    }
+    // Past the end of this set, a | b is just b.
+    if (wordsInCommon < set.wordsInUse) {
+      System.arraycopy(
+          set.words, wordsInCommon, words, wordsInCommon, set.wordsInUse - wordsInCommon);
     }
   }
 
   public void set(int bitIndex) {
     checkIndex(bitIndex);
-    int index = wordIndex(bitIndex);
-    maybeGrowArrayToIndex(index);
-    array[index] = wordAt(array, index) | (1 << bitOffset(bitIndex));
+
+    int wordIndex = wordIndex(bitIndex);
+    expandTo(wordIndex);
+    words[wordIndex] |= 1L << bitIndex;
   }
 
   public void set(int bitIndex, boolean value) {
@@ -681,8 +443,23 @@ public class BitSet implements Cloneable {
 
   public void set(int fromIndex, int toIndex) {
     checkRange(fromIndex, toIndex);
-    if (fromIndex != toIndex) {
-      setInternal(fromIndex, toIndex);
+
+    if (fromIndex == toIndex) {
+      return;
+    }
+
+    int startWordIndex = wordIndex(fromIndex);
+    int endWordIndex = wordIndex(toIndex - 1);
+    expandTo(endWordIndex);
+
+    long firstWordMask = WORD_MASK << fromIndex;
+    long lastWordMask = WORD_MASK >>> -toIndex;
+    if (startWordIndex == endWordIndex) {
+      words[startWordIndex] |= firstWordMask & lastWordMask;
+    } else {
+      words[startWordIndex] |= firstWordMask;
+      Arrays.fill(words, startWordIndex + 1, endWordIndex, WORD_MASK);
+      words[endWordIndex] |= lastWordMask;
     }
   }
 
@@ -695,7 +472,37 @@ public class BitSet implements Cloneable {
   }
 
   public int size() {
-    return array.length * 32;
+    return words.length * BITS_PER_WORD;
+  }
+
+  /**
+   * Returns a stream of the indices of the set bits in increasing order. The stream reads this set
+   * as it is consumed.
+   */
+  public IntStream stream() {
+    return StreamSupport.intStream(
+        new Spliterators.AbstractIntSpliterator(
+            cardinality(),
+            Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.SORTED | Spliterator.SIZED) {
+          private int next = nextSetBit(0);
+
+          @Override
+          public boolean tryAdvance(IntConsumer action) {
+            checkNotNull(action);
+            if (next == -1) {
+              return false;
+            }
+            action.accept(next);
+            next = next == Integer.MAX_VALUE ? -1 : nextSetBit(next + 1);
+            return true;
+          }
+
+          @Override
+          public @Nullable Comparator<? super Integer> getComparator() {
+            return null;
+          }
+        },
+        false);
   }
 
   @Override
@@ -708,7 +515,7 @@ public class BitSet implements Cloneable {
     int next = nextSetBit(0);
     sb.append(next);
 
-    while ((next = nextSetBit(next + 1)) != -1) {
+    while (next != Integer.MAX_VALUE && (next = nextSetBit(next + 1)) != -1) {
       sb.append(", ");
       sb.append(next);
     }
@@ -724,148 +531,52 @@ public class BitSet implements Cloneable {
       return;
     }
 
-    maybeGrowArrayToIndex(set.array.length - 1);
-
-    // Truth table
-    //
-    // Case | a     | b     | a ^ b | Change?
-    // 1    | false | false | false | a is already false
-    // 2    | false | true  | true  | set a to true
-    // 3    | true  | false | true  | a is already true
-    // 4    | true  | true  | false | set a to false
-    //
-    // We need to change something in cases 2 and 4. Cases 2 and 4 only happen when b is true,
-    // so iterate over set b.
-    for (int index = 0; index < set.array.length; index++) {
-      int word = wordAt(set.array, index);
-      if (word != 0) {
-        array[index] = wordAt(array, index) ^ word;
-      }
+    int wordsInCommon = Math.min(wordsInUse, set.wordsInUse);
+    if (wordsInUse < set.wordsInUse) {
+      ensureCapacity(set.wordsInUse);
+      wordsInUse = set.wordsInUse;
+    }
+    for (int i = 0; i < wordsInCommon; i++) {
+      words[i] ^= set.words[i];
+    }
+    // Past the end of this set, a ^ b is just b.
+    if (wordsInCommon < set.wordsInUse) {
+      System.arraycopy(
+          set.words, wordsInCommon, words, wordsInCommon, set.wordsInUse - wordsInCommon);
     }
+    recalculateWordsInUse();
   }
 
   public byte[] toByteArray() {
-    int nbits = length();
-    int nbytes = nbits / Byte.SIZE;
-    if (nbits % Byte.SIZE != 0) {
-      nbytes++;
-    }
+    int nbytes = (length() + Byte.SIZE - 1) / Byte.SIZE;
     byte[] bytes = new byte[nbytes];
-    int bitOffset = 0;
     for (int i = 0; i < nbytes; i++) {
-      bytes[i] = getByte(array, bitOffset);
-      bitOffset += Byte.SIZE;
+      bytes[i] = (byte) (words[i / 8] >>> (Byte.SIZE * (i % 8)));
     }
     return bytes;
   }
 
   public long[] toLongArray() {
-    int nbits = length();
-    int nlongs = nbits / Long.SIZE;
-    if (nbits % Long.SIZE != 0) {
-      nlongs++;
-    }
-    long[] longs = new long[nlongs];
-    int bitOffset = 0;
-    for (int i = 0; i < nlongs; i++) {
-      longs[i] = getLong(array, bitOffset);
-      bitOffset += Long.SIZE;
-    }
-    return longs;
+    return Arrays.copyOf(words, wordsInUse);
   }
 
-  private static byte getByte(int[] words, int bitIndex) {
-    int wordIndex = wordIndex(bitIndex);
-    if (wordIndex >= words.length) {
-      return 0;
-    }
-    int bitOffset = bitOffset(bitIndex);
-    int word = wordAt(words, wordIndex);
-    int b = (word >>> bitOffset);
-    int leftBits = Byte.SIZE - BITS_PER_WORD + bitOffset;
-    if (leftBits > 0 && wordIndex + 1 < words.length) {
-      word = wordAt(words, wordIndex + 1);
-      if (word != 0) {
-        word &= ~(WORD_MASK << leftBits);
-        word <<= (Byte.SIZE - leftBits);
-        b |= word;
-      }
-    }
-    return (byte) (b & 0xff);
-  }
-
-  private static int getInt(int[] words, int bitIndex) {
-    byte b1 = getByte(words, bitIndex);
-    byte b2 = getByte(words, bitIndex + 8);
-    byte b3 = getByte(words, bitIndex + 16);
-    byte b4 = getByte(words, bitIndex + 24);
-    return (b1 & 0xff) | ((b2 & 0xff) << 8) | ((b3 & 0xff) << 16) | ((b4 & 0xff) << 24);
-  }
-
-  private static long getLong(int[] words, int bitIndex) {
-    long low = getInt(words, bitIndex) & 0xffff_ffffL;
-    long high = getInt(words, bitIndex + 32);
-    return low | (high << 32);
-  }
-
-  public static BitSet valueOf(byte[] words) {
-    int len = words.length;
-    while (len > 0 && words[len - 1] == 0) {
+  public static BitSet valueOf(byte[] bytes) {
+    int len = bytes.length;
+    while (len > 0 && bytes[len - 1] == 0) {
       len--;
     }
-    int[] array = new int[len * Byte.SIZE];
-    int bitIndex = 0;
+    long[] words = new long[(len + 7) / 8];
     for (int i = 0; i < len; i++) {
-      addByte(array, words[i], bitIndex);
-      bitIndex += Byte.SIZE;
+      words[i / 8] |= (bytes[i] & 0xffL) << (Byte.SIZE * (i % 8));
     }
-    return new BitSet(array);
+    return new BitSet(words);
   }
 
-  public static BitSet valueOf(long[] words) {
-    int len = words.length;
-    while (len > 0 && words[len - 1] == 0) {
+  public static BitSet valueOf(long[] longs) {
+    int len = longs.length;
+    while (len > 0 && longs[len - 1] == 0) {
       len--;
     }
-    int[] array = new int[len * Long.SIZE];
-    int bitIndex = 0;
-    for (int i = 0; i < len; i++) {
-      addLong(array, words[i], bitIndex);
-      bitIndex += Long.SIZE;
-    }
-    return new BitSet(array);
-  }
-
-  private static void addByte(int[] words, byte bits, int bitIndex) {
-    if (bits != 0) {
-      int wordIndex = wordIndex(bitIndex);
-      int bitOffset = bitOffset(bitIndex);
-      int first = ((bits & 0xff) << bitOffset) & WORD_MASK;
-      if (first != 0) {
-        words[wordIndex] = wordAt(words, wordIndex) | first;
-      }
-      int second = bitOffset == 0 ? 0 : (bits & 0xff) >>> (BITS_PER_WORD - bitOffset);
-      if (second != 0) {
-        words[wordIndex + 1] = wordAt(words, wordIndex + 1) | second;
-      }
-    }
-  }
-
-  private static void addInt(int[] words, int bits, int bitIndex) {
-    if (bits != 0) {
-      addByte(words, (byte) (bits & 0xff), bitIndex);
-      addByte(words, (byte) ((bits >> 8) & 0xff), bitIndex + Byte.SIZE);
-      addByte(words, (byte) ((bits >> 16) & 0xff), bitIndex + 2 * Byte.SIZE);
-      addByte(words, (byte) ((bits >> 24) & 0xff), bitIndex + 3 * Byte.SIZE);
-    }
-  }
-
-  private static void addLong(int[] words, long bits, int bitIndex) {
-    if (bits != 0) {
-      int low = (int) bits;
-      addInt(words, low, bitIndex);
-      int high = (int) (bits >>> 32);
-      addInt(words, high, bitIndex + Integer.SIZE);
-    }
+    return new BitSet(Arrays.copyOf(longs, len));
   }
 }
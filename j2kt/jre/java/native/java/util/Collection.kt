@@ -25,7 +25,7 @@ interface Collection<E> : MutableCollection<E>, JavaLangIterable<E> {
 
   fun stream(): Stream<E> = StreamSupport.stream(spliterator(), parallel = false)
 
-  fun parallelStream(): Stream<E> = StreamSupport.stream(spliterator(), parallel = false)
+  fun parallelStream(): Stream<E> = StreamSupport.stream(spliterator(), parallel = true)
 
   fun toArray(): Array<Any?>
 
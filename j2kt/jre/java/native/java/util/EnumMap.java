@@ -16,8 +16,11 @@
 package java.util;
 
 import static javaemul.internal.InternalPreconditions.checkArgument;
+import static javaemul.internal.InternalPreconditions.checkElement;
+import static javaemul.internal.InternalPreconditions.checkNotNull;
 import static javaemul.internal.InternalPreconditions.checkState;
 
+import java.util.function.BiConsumer;
 import org.jspecify.annotations.NullMarked;
 import org.jspecify.annotations.Nullable;
 
@@ -25,6 +28,10 @@ import org.jspecify.annotations.Nullable;
  * A {@link java.util.Map} of {@link Enum}s. <a
  * href="http://java.sun.com/j2se/1.5.0/docs/api/java/util/EnumMap.html">[Sun docs]</a>
  *
+ * <p>Values are stored in an array indexed by the ordinal of their key. As in {@link EnumSet}, the
+ * key constants come from {@link EnumUniverse} if registered, and are otherwise learned as keys are
+ * put.
+ *
  * @param <K> key type
  * @param <V> value type
  */
@@ -32,6 +39,100 @@ import org.jspecify.annotations.Nullable;
 public class EnumMap<K extends Enum<K>, V extends @Nullable Object> extends AbstractMap<K, V>
     implements Cloneable {
 
+  /** Stands in for a null value in {@link #vals}, where null means that the key is absent. */
+  private static final Object NULL = new Object();
+
+  private abstract class EnumMapIterator<T extends @Nullable Object> implements Iterator<T> {
+    private int nextOrdinal;
+    private int lastReturned = -1;
+
+    @Override
+    public boolean hasNext() {
+      while (nextOrdinal < vals.length && vals[nextOrdinal] == null) {
+        nextOrdinal++;
+      }
+      return nextOrdinal < vals.length;
+    }
+
+    @Override
+    public T next() {
+      checkElement(hasNext());
+
+      lastReturned = nextOrdinal++;
+      return element(lastReturned);
+    }
+
+    abstract T element(int ordinal);
+
+    @Override
+    public void remove() {
+      checkState(lastReturned != -1);
+
+      removeAt(lastReturned);
+      lastReturned = -1;
+    }
+  }
+
+  private final class KeySet extends AbstractSet<K> {
+    @Override
+    public void clear() {
+      EnumMap.this.clear();
+    }
+
+    @Override
+    public boolean contains(@Nullable Object o) {
+      return containsKey(o);
+    }
+
+    @Override
+    public Iterator<K> iterator() {
+      return new EnumMapIterator<K>() {
+        @Override
+        K element(int ordinal) {
+          return keyUniverse[ordinal];
+        }
+      };
+    }
+
+    @Override
+    public boolean remove(@Nullable Object o) {
+      int ordinal = ordinalOf(o);
+      return ordinal != -1 && removeAt(ordinal);
+    }
+
+    @Override
+    public int size() {
+      return size;
+    }
+  }
+
+  private final class Values extends AbstractCollection<V> {
+    @Override
+    public void clear() {
+      EnumMap.this.clear();
+    }
+
+    @Override
+    public boolean contains(@Nullable Object o) {
+      return containsValue(o);
+    }
+
+    @Override
+    public Iterator<V> iterator() {
+      return new EnumMapIterator<V>() {
+        @Override
+        V element(int ordinal) {
+          return unmaskNull(vals[ordinal]);
+        }
+      };
+    }
+
+    @Override
+    public int size() {
+      return size;
+    }
+  }
+
   private final class EntrySet extends AbstractSet<Entry<K, V>> {
 
     @Override
@@ -49,7 +150,12 @@ public class EnumMap<K extends Enum<K>, V extends @Nullable Object> extends Abst
 
     @Override
     public Iterator<Entry<K, V>> iterator() {
-      return new EntrySetIterator();
+      return new EnumMapIterator<Entry<K, V>>() {
+        @Override
+        Entry<K, V> element(int ordinal) {
+          return new MapEntry(ordinal);
+        }
+      };
     }
 
     @Override
@@ -64,49 +170,30 @@ public class EnumMap<K extends Enum<K>, V extends @Nullable Object> extends Abst
 
     @Override
     public int size() {
-      return EnumMap.this.size();
-    }
-  }
-
-  private final class EntrySetIterator implements Iterator<Entry<K, V>> {
-    private final Iterator<K> it = keySet.iterator();
-    private @Nullable K key;
-
-    @Override
-    public boolean hasNext() {
-      return it.hasNext();
-    }
-
-    @Override
-    public Entry<K, V> next() {
-      key = it.next();
-      return new MapEntry(key);
-    }
-
-    @Override
-    public void remove() {
-      checkState(key != null);
-
-      EnumMap.this.remove(key);
-      key = null;
+      return size;
     }
   }
 
   private class MapEntry extends AbstractMap.AbstractEntry<K, V> {
+    private final int ordinal;
 
-    public MapEntry(K key) {
+    public MapEntry(int ordinal) {
       // Note: the value is going to be ignored.
-      super(key, values.get(key.ordinal()));
+      super(keyUniverse[ordinal], unmaskNull(vals[ordinal]));
+      this.ordinal = ordinal;
     }
 
     @Override
     public V getValue() {
-      return values.get(getKey().ordinal());
+      return unmaskNull(vals[ordinal]);
     }
 
     @Override
     public V setValue(V value) {
-      return setAt(getKey(), value);
+      checkState(vals[ordinal] != null);
+      V oldValue = unmaskNull(vals[ordinal]);
+      vals[ordinal] = maskNull(value);
+      return oldValue;
     }
 
     @Override
@@ -130,38 +217,58 @@ public class EnumMap<K extends Enum<K>, V extends @Nullable Object> extends Abst
     }
   }
 
-  private final EnumSet<K> keySet;
-  private final ArrayList<@Nullable V> values;
+  /** Key constants indexed by ordinal, as far as they are known. */
+  private @Nullable K[] keyUniverse;
+
+  /** Whether {@link #keyUniverse} holds all constants of the key type. */
+  private final boolean universeComplete;
+
+  /** Values indexed by key ordinal. */
+  private @Nullable Object[] vals;
+
+  private int size;
 
   public EnumMap(Class<K> type) {
-    keySet = new EnumSet<>();
-    values = new ArrayList<>();
+    K @Nullable [] constants = EnumUniverse.of(type);
+    universeComplete = constants != null;
+    keyUniverse = constants != null ? constants : (@Nullable K[]) new Object[0];
+    vals = new Object[keyUniverse.length];
   }
 
-  @SuppressWarnings("unchecked")
   public EnumMap(EnumMap<K, ? extends V> m) {
-    keySet = m.isEmpty() ? new EnumSet<>() : m.keySet.clone();
-    values = new ArrayList<>((Collection<V>) m.values);
+    universeComplete = m.universeComplete;
+    keyUniverse =
+        universeComplete ? m.keyUniverse : Arrays.copyOf(m.keyUniverse, m.keyUniverse.length);
+    vals = Arrays.copyOf(m.vals, m.vals.length);
+    size = m.size;
   }
 
   @SuppressWarnings("unchecked")
   public EnumMap(Map<K, ? extends V> m) {
     if (m instanceof EnumMap) {
-      EnumMap<K, V> enumMap = (EnumMap<K, V>) m;
-      keySet = enumMap.keySet.clone();
-      values = new ArrayList<>((Collection<V>) enumMap.values);
+      EnumMap<K, ? extends V> enumMap = (EnumMap<K, ? extends V>) m;
+      universeComplete = enumMap.universeComplete;
+      keyUniverse =
+          universeComplete
+              ? enumMap.keyUniverse
+              : Arrays.copyOf(enumMap.keyUniverse, enumMap.keyUniverse.length);
+      vals = Arrays.copyOf(enumMap.vals, enumMap.vals.length);
+      size = enumMap.size;
     } else {
       checkArgument(!m.isEmpty(), "Specified map is empty");
-      keySet = new EnumSet<>();
-      values = new ArrayList<>();
+      Class<K> type = (Class<K>) m.keySet().iterator().next().getClass();
+      K @Nullable [] constants = EnumUniverse.of(type);
+      universeComplete = constants != null;
+      keyUniverse = constants != null ? constants : (@Nullable K[]) new Object[0];
+      vals = new Object[keyUniverse.length];
       putAll(m);
     }
   }
 
   @Override
   public void clear() {
-    keySet.clear();
-    values.clear();
+    Arrays.fill(vals, null);
+    size = 0;
   }
 
   @Override
@@ -171,13 +278,15 @@ public class EnumMap<K extends Enum<K>, V extends @Nullable Object> extends Abst
 
   @Override
   public boolean containsKey(@Nullable Object key) {
-    return keySet.contains(key);
+    int ordinal = ordinalOf(key);
+    return ordinal != -1 && vals[ordinal] != null;
   }
 
   @Override
   public boolean containsValue(@Nullable Object value) {
-    for (K key : keySet) {
-      if (Objects.equals(value, values.get(key.ordinal()))) {
+    Object masked = maskNull(value);
+    for (Object val : vals) {
+      if (val != null && masked.equals(val)) {
         return true;
       }
     }
@@ -189,47 +298,107 @@ public class EnumMap<K extends Enum<K>, V extends @Nullable Object> extends Abst
     return new EntrySet();
   }
 
+  @Override
+  public Set<K> keySet() {
+    return new KeySet();
+  }
+
+  @Override
+  public Collection<V> values() {
+    return new Values();
+  }
+
+  @Override
+  public void forEach(BiConsumer<? super K, ? super V> action) {
+    checkNotNull(action);
+    for (int i = 0; i < vals.length; i++) {
+      if (vals[i] != null) {
+        action.accept(keyUniverse[i], unmaskNull(vals[i]));
+      }
+    }
+  }
+
   @Override
   public @Nullable V get(@Nullable Object k) {
-    return keySet.contains(k) ? values.get(asOrdinal(k)) : null;
+    int ordinal = ordinalOf(k);
+    return ordinal != -1 ? unmaskNull(vals[ordinal]) : null;
   }
 
   @Override
   public @Nullable V put(K key, V value) {
-    keySet.add(key);
-    return setAt(key, value);
+    int ordinal = checkKey(key);
+    @Nullable Object oldValue = vals[ordinal];
+    vals[ordinal] = maskNull(value);
+    if (oldValue == null) {
+      size++;
+    }
+    return unmaskNull(oldValue);
   }
 
   @Override
   public @Nullable V remove(@Nullable Object key) {
-    return keySet.remove(key) ? setAt((K) key, null) : null;
+    int ordinal = ordinalOf(key);
+    if (ordinal == -1) {
+      return null;
+    }
+    @Nullable Object oldValue = vals[ordinal];
+    removeAt(ordinal);
+    return unmaskNull(oldValue);
+  }
+
+  private boolean removeAt(int ordinal) {
+    if (vals[ordinal] == null) {
+      return false;
+    }
+    vals[ordinal] = null;
+    size--;
+    return true;
   }
 
   @Override
   public int size() {
-    return keySet.size();
+    return size;
   }
 
   /**
-   * Returns <code>key</code> as <code>K</code>. Only runtime checks that
-   * key is an Enum, not that it's the particular Enum K. Should only be called
-   * when you are sure <code>key</code> is of type <code>K</code>.
+   * Returns the ordinal of {@code key}, learning it if the key constants are not complete. Throws
+   * {@link ClassCastException} if {@code key} is not a constant of the key type.
    */
-  private K asKey(Object key) {
-    return (K) key;
+  private int checkKey(K key) {
+    checkNotNull(key);
+    int ordinal = key.ordinal();
+    if (ordinal >= keyUniverse.length && !universeComplete) {
+      int newLength = Math.max(ordinal + 1, keyUniverse.length * 2);
+      keyUniverse = Arrays.copyOf(keyUniverse, newLength);
+      vals = Arrays.copyOf(vals, newLength);
+    }
+    if (ordinal >= keyUniverse.length) {
+      throw new ClassCastException(key.getClass() + " is not the key type of this map");
+    }
+    @Nullable K known = keyUniverse[ordinal];
+    if (known == null && !universeComplete) {
+      keyUniverse[ordinal] = key;
+    } else if (known != key) {
+      throw new ClassCastException(key.getClass() + " is not the key type of this map");
+    }
+    return ordinal;
   }
 
-  private int asOrdinal(Object key) {
-    return asKey(key).ordinal();
+  /** Returns the ordinal of {@code key} if it is a known constant of the key type, or -1. */
+  private int ordinalOf(@Nullable Object key) {
+    if (!(key instanceof Enum)) {
+      return -1;
+    }
+    int ordinal = ((Enum<?>) key).ordinal();
+    return ordinal < keyUniverse.length && keyUniverse[ordinal] == key ? ordinal : -1;
   }
 
-  private @Nullable V setAt(K key, @Nullable V value) {
-    int index = key.ordinal();
-    while (values.size() <= key.ordinal()) {
-      values.add(null);
-    }
-    V oldValue = values.get(index);
-    values.set(index, value);
-    return oldValue;
+  private static Object maskNull(@Nullable Object value) {
+    return value == null ? NULL : value;
+  }
+
+  @SuppressWarnings("unchecked")
+  private V unmaskNull(@Nullable Object value) {
+    return (V) (value == NULL ? null : value);
   }
 }
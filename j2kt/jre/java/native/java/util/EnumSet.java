@@ -20,83 +20,264 @@ import static javaemul.internal.InternalPreconditions.checkElement;
 import static javaemul.internal.InternalPreconditions.checkNotNull;
 import static javaemul.internal.InternalPreconditions.checkState;
 
+import java.util.function.Consumer;
 import org.jspecify.annotations.NullMarked;
 import org.jspecify.annotations.Nullable;
 
 /**
- * J2CL compatible implementation of EnumSet. Notably, some methods are unsupported since
- * Enum#getDeclaringClass is unsupported for code size reasons.
+ * J2CL compatible implementation of EnumSet, stored as a bit vector of 64-bit words indexed by
+ * {@link Enum#ordinal}.
+ *
+ * <p>Enum#getDeclaringClass is unsupported for code size reasons, so the constants of the element
+ * type come from {@link EnumUniverse}, which hands every set of that type the same array. Sets that
+ * share it combine word by word in bulk operations. If the constants are not registered, the set
+ * learns them as elements are added, and {@link #allOf}, {@link #range} and {@link #complementOf}
+ * throw {@link UnsupportedOperationException}. An enum registers its constants by calling {@link
+ * javaemul.lang.EnumConstants#register} from its static initializer.
  */
 @NullMarked
 public class EnumSet<E extends Enum<E>> extends AbstractSet<E> implements Cloneable {
-  private HashSet<E> set = new HashSet<>();
+  private static final int BITS_PER_WORD = 64;
+
+  /** Constants of the element type indexed by ordinal, as far as they are known. */
+  private @Nullable E[] universe;
+
+  /** Whether {@link #universe} holds all constants of the element type. */
+  private final boolean universeComplete;
+
+  /** Bit {@code i % 64} of word {@code i / 64} is set if the constant with ordinal {@code i} is. */
+  private long[] words;
+
+  private int size;
+
+  private EnumSet(@Nullable E[] universe, boolean universeComplete) {
+    this.universe = universe;
+    this.universeComplete = universeComplete;
+    this.words = new long[wordCount(universe.length)];
+  }
+
+  private static int wordCount(int bitCount) {
+    return (bitCount + BITS_PER_WORD - 1) / BITS_PER_WORD;
+  }
 
-  EnumSet() {}
+  private final class EnumSetIterator implements Iterator<E> {
+    private int wordIndex;
+    /** Bits of the current word that have not been returned yet. */
+    private long unseen;
+
+    private int lastReturned = -1;
+
+    EnumSetIterator() {
+      unseen = words.length == 0 ? 0 : words[0];
+    }
+
+    @Override
+    public boolean hasNext() {
+      while (unseen == 0 && wordIndex < words.length - 1) {
+        unseen = words[++wordIndex];
+      }
+      return unseen != 0;
+    }
+
+    @Override
+    public E next() {
+      checkElement(hasNext());
+
+      long bit = unseen & -unseen;
+      unseen -= bit;
+      lastReturned = wordIndex * BITS_PER_WORD + Long.numberOfTrailingZeros(bit);
+      return universe[lastReturned];
+    }
+
+    @Override
+    public void remove() {
+      checkState(lastReturned != -1);
+
+      clearBit(lastReturned);
+      lastReturned = -1;
+    }
+  }
 
   @Override
   public boolean add(E e) {
     checkNotNull(e);
-    return set.add(e);
+    int ordinal = e.ordinal();
+    if (ordinal >= universe.length && !universeComplete) {
+      growUniverse(ordinal + 1);
+    }
+    if (ordinal >= universe.length) {
+      throw new ClassCastException(e.getClass() + " is not the element type of this set");
+    }
+    @Nullable E known = universe[ordinal];
+    if (known == null && !universeComplete) {
+      universe[ordinal] = e;
+    } else if (known != e) {
+      throw new ClassCastException(e.getClass() + " is not the element type of this set");
+    }
+
+    int wordIndex = ordinal / BITS_PER_WORD;
+    long oldWord = words[wordIndex];
+    long newWord = oldWord | (1L << ordinal);
+    if (newWord == oldWord) {
+      return false;
+    }
+    words[wordIndex] = newWord;
+    size++;
+    return true;
+  }
+
+  private void growUniverse(int minLength) {
+    int newLength = Math.max(minLength, universe.length * 2);
+    universe = Arrays.copyOf(universe, newLength);
+    words = Arrays.copyOf(words, wordCount(newLength));
   }
 
   @Override
   public boolean remove(@Nullable Object o) {
-    return set.remove(o);
+    int ordinal = ordinalOf(o);
+    return ordinal != -1 && clearBit(ordinal);
+  }
+
+  private boolean clearBit(int ordinal) {
+    int wordIndex = ordinal / BITS_PER_WORD;
+    long oldWord = words[wordIndex];
+    long newWord = oldWord & ~(1L << ordinal);
+    if (newWord == oldWord) {
+      return false;
+    }
+    words[wordIndex] = newWord;
+    size--;
+    return true;
   }
 
   @Override
   public boolean contains(@Nullable Object o) {
-    return set.contains(o);
+    int ordinal = ordinalOf(o);
+    return ordinal != -1 && (words[ordinal / BITS_PER_WORD] & (1L << ordinal)) != 0;
+  }
+
+  /** Returns the ordinal of {@code o} if it is a known constant of the element type, or -1. */
+  private int ordinalOf(@Nullable Object o) {
+    if (!(o instanceof Enum)) {
+      return -1;
+    }
+    int ordinal = ((Enum<?>) o).ordinal();
+    return ordinal < universe.length && universe[ordinal] == o ? ordinal : -1;
   }
 
   @Override
   public int size() {
-    return set.size();
+    return size;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return size == 0;
   }
 
   @Override
   public void clear() {
-    set.clear();
+    Arrays.fill(words, 0L);
+    size = 0;
   }
 
   @Override
   public Iterator<E> iterator() {
-    List<E> sortedEnums = new ArrayList<>(this.set);
-    Collections.sort(sortedEnums);
-    return new Iterator<E>() {
-      int i = 0, last = -1;
-
-      @Override
-      public boolean hasNext() {
-        return i < sortedEnums.size();
+    return new EnumSetIterator();
+  }
+
+  @Override
+  public void forEach(Consumer<? super E> action) {
+    checkNotNull(action);
+    for (int i = 0; i < words.length; i++) {
+      for (long word = words[i]; word != 0; word &= word - 1) {
+        action.accept(universe[i * BITS_PER_WORD + Long.numberOfTrailingZeros(word)]);
       }
+    }
+  }
 
-      @Override
-      public E next() {
-        checkElement(hasNext());
+  /** Returns whether {@code c} is an EnumSet whose words can be combined with those of this set. */
+  private boolean sharesUniverse(Collection<?> c) {
+    return c instanceof EnumSet && ((EnumSet<?>) c).universe == universe;
+  }
 
-        last = i++;
-        return sortedEnums.get(last);
+  @Override
+  public boolean containsAll(Collection<?> c) {
+    if (!sharesUniverse(c)) {
+      return super.containsAll(c);
+    }
+    long[] otherWords = ((EnumSet<?>) c).words;
+    for (int i = 0; i < words.length; i++) {
+      if ((otherWords[i] & ~words[i]) != 0) {
+        return false;
       }
+    }
+    return true;
+  }
 
-      @Override
-      public void remove() {
-        checkState(last != -1);
+  @Override
+  public boolean addAll(Collection<? extends E> c) {
+    if (!sharesUniverse(c)) {
+      return super.addAll(c);
+    }
+    long[] otherWords = ((EnumSet<?>) c).words;
+    for (int i = 0; i < words.length; i++) {
+      words[i] |= otherWords[i];
+    }
+    return recalculateSize();
+  }
 
-        EnumSet.this.remove(sortedEnums.get(last));
-        last = -1;
-      }
-    };
+  @Override
+  public boolean removeAll(Collection<?> c) {
+    if (!sharesUniverse(c)) {
+      return super.removeAll(c);
+    }
+    long[] otherWords = ((EnumSet<?>) c).words;
+    for (int i = 0; i < words.length; i++) {
+      words[i] &= ~otherWords[i];
+    }
+    return recalculateSize();
+  }
+
+  @Override
+  public boolean retainAll(Collection<?> c) {
+    if (!sharesUniverse(c)) {
+      return super.retainAll(c);
+    }
+    long[] otherWords = ((EnumSet<?>) c).words;
+    for (int i = 0; i < words.length; i++) {
+      words[i] &= otherWords[i];
+    }
+    return recalculateSize();
+  }
+
+  /** Recomputes {@link #size} after a bulk operation and returns whether it changed. */
+  private boolean recalculateSize() {
+    int oldSize = size;
+    int newSize = 0;
+    for (long word : words) {
+      newSize += Long.bitCount(word);
+    }
+    size = newSize;
+    return newSize != oldSize;
+  }
+
+  @Override
+  public boolean equals(@Nullable Object o) {
+    if (o instanceof EnumSet && ((EnumSet<?>) o).universe == universe) {
+      return Arrays.equals(words, ((EnumSet<?>) o).words);
+    }
+    return super.equals(o);
   }
 
   public static <E extends Enum<E>> EnumSet<E> of(E first) {
-    EnumSet<E> enumSet = new EnumSet();
+    EnumSet<E> enumSet = forElement(first);
     enumSet.add(first);
     return enumSet;
   }
 
   public static <E extends Enum<E>> EnumSet<E> of(E first, E... rest) {
-    EnumSet<E> enumSet = new EnumSet();
+    EnumSet<E> enumSet = forElement(first);
     enumSet.add(first);
     for (E e : rest) {
       enumSet.add(e);
@@ -105,25 +286,92 @@ public class EnumSet<E extends Enum<E>> extends AbstractSet<E> implements Clonea
   }
 
   public static <E extends Enum<E>> EnumSet<E> copyOf(Collection<E> c) {
-    checkArgument(c instanceof EnumSet || !c.isEmpty(), "Collection is empty");
-    EnumSet<E> enumSet = new EnumSet();
-    for (E e : c) {
-      enumSet.add(e);
+    if (c instanceof EnumSet) {
+      return ((EnumSet<E>) c).clone();
     }
+    checkArgument(!c.isEmpty(), "Collection is empty");
+    Iterator<E> it = c.iterator();
+    EnumSet<E> enumSet = forElement(it.next());
+    enumSet.addAll(c);
     return enumSet;
   }
 
   public static <E extends Enum<E>> EnumSet<E> noneOf(Class<E> elementType) {
-    return new EnumSet();
+    E @Nullable [] constants = EnumUniverse.of(elementType);
+    return constants != null
+        ? new EnumSet<>(constants, true)
+        : new EnumSet<>((@Nullable E[]) new Object[0], false);
   }
 
-  @Override
-  public EnumSet<E> clone() {
-    return EnumSet.copyOf(this);
+  public static <E extends Enum<E>> EnumSet<E> allOf(Class<E> elementType) {
+    EnumSet<E> enumSet = new EnumSet<>(universeOf(elementType), true);
+    enumSet.setRange(0, enumSet.universe.length);
+    return enumSet;
+  }
+
+  public static <E extends Enum<E>> EnumSet<E> range(E from, E to) {
+    checkArgument(from.compareTo(to) <= 0, from + " > " + to);
+    EnumSet<E> enumSet = new EnumSet<>(universeOf((Class<E>) from.getClass()), true);
+    enumSet.setRange(from.ordinal(), to.ordinal() + 1);
+    return enumSet;
+  }
+
+  public static <E extends Enum<E>> EnumSet<E> complementOf(EnumSet<E> other) {
+    if (!other.universeComplete) {
+      throw new UnsupportedOperationException(
+          "Enum constants are not registered, see javaemul.lang.EnumConstants");
+    }
+    EnumSet<E> enumSet = new EnumSet<>(other.universe, true);
+    enumSet.setRange(0, other.universe.length);
+    enumSet.removeAll(other);
+    return enumSet;
+  }
+
+  /** Returns an empty set for the element type of {@code e}. */
+  private static <E extends Enum<E>> EnumSet<E> forElement(E e) {
+    return noneOf((Class<E>) e.getClass());
   }
 
-  // Used in EnumMap.
-  int capacity() {
-    return size();
+  private static <E extends Enum<E>> E[] universeOf(Class<E> elementType) {
+    E @Nullable [] constants = EnumUniverse.of(elementType);
+    if (constants == null) {
+      throw new UnsupportedOperationException(
+          "Enum constants of "
+              + elementType.getName()
+              + " are not registered, see javaemul.lang.EnumConstants");
+    }
+    return constants;
+  }
+
+  /** Sets the bits from {@code fromOrdinal} (inclusive) to {@code toOrdinal} (exclusive). */
+  private void setRange(int fromOrdinal, int toOrdinal) {
+    if (fromOrdinal >= toOrdinal) {
+      return;
+    }
+    int fromWord = fromOrdinal / BITS_PER_WORD;
+    int toWord = (toOrdinal - 1) / BITS_PER_WORD;
+    long firstMask = -1L << fromOrdinal;
+    long lastMask = -1L >>> -toOrdinal;
+    if (fromWord == toWord) {
+      words[fromWord] |= firstMask & lastMask;
+    } else {
+      words[fromWord] |= firstMask;
+      for (int i = fromWord + 1; i < toWord; i++) {
+        words[i] = -1L;
+      }
+      words[toWord] |= lastMask;
+    }
+    recalculateSize();
+  }
+
+  @Override
+  public EnumSet<E> clone() {
+    EnumSet<E> enumSet =
+        new EnumSet<>(
+            universeComplete ? universe : Arrays.copyOf(universe, universe.length),
+            universeComplete);
+    System.arraycopy(words, 0, enumSet.words, 0, words.length);
+    enumSet.size = size;
+    return enumSet;
   }
 }
@@ -0,0 +1,37 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package java.util;
+
+import javaemul.internal.annotations.KtNative;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Stub for the canonical constant array of an enum class, shared by {@link EnumSet} and {@link
+ * EnumMap}; see EnumUniverse.kt.
+ */
+@NullMarked
+@KtNative
+final class EnumUniverse {
+
+  /**
+   * Returns the constants of {@code type} in ordinal order, or {@code null} if they are not
+   * registered. Every call for the same enum class returns the same array, which must not be
+   * modified.
+   */
+  static native <E extends Enum<E>> E @Nullable [] of(Class<E> type);
+}
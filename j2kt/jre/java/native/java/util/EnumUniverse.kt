@@ -0,0 +1,30 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package java.util
+
+/**
+ * Canonical constant array of each enum class. Unlike [java.lang.Class.getEnumConstants], which
+ * returns a fresh copy, this hands out the registered array itself, so [EnumSet] and [EnumMap] can
+ * tell by identity whether two instances share a universe.
+ */
+internal class EnumUniverse {
+  companion object {
+    fun <E : Enum<E>> of(type: Class<E>): Array<E>? {
+      @Suppress("UNCHECKED_CAST")
+      return type.sharedEnumConstants as Array<E>?
+    }
+  }
+}
@@ -16,53 +16,621 @@
 package java.util
 
 import java.io.Serializable
+import java.util.function.BiConsumer
+import java.util.function.BiFunction
+import java.util.function.Function
 import kotlin.Cloneable
-import kotlin.collections.HashMap as KotlinHashMap
 import kotlin.collections.Map as KotlinMap
 
-private const val DEFAULT_INITIAL_CAPACITY = 16
-private const val DEFAULT_LOAD_FACTOR = 0.75f
+internal const val DEFAULT_INITIAL_CAPACITY = 16
+internal const val DEFAULT_LOAD_FACTOR = 0.75f
+private const val MAXIMUM_CAPACITY = 1 shl 30
 
-open class HashMap<K, V> private constructor(val ktHashMap: KotlinHashMap<K, V>) :
-  AbstractMap<K, V>(), Cloneable, Serializable {
+/** Spreads the higher bits of the hash code to the lower ones, which select the bucket. */
+private fun hash(key: Any?): Int {
+  val h = key.hashCode()
+  return h xor (h ushr 16)
+}
+
+/** Returns the smallest power of two that is at least [capacity], as on the JVM. */
+private fun tableSizeFor(capacity: Int): Int {
+  val n = -1 ushr (capacity - 1).countLeadingZeroBits()
+  return if (n < 0) 1 else if (n >= MAXIMUM_CAPACITY) MAXIMUM_CAPACITY else n + 1
+}
+
+/**
+ * A hash table of chained nodes, laid out like the JVM's HashMap.
+ *
+ * The table is allocated by the first insertion, with the initial capacity rounded up to a power of
+ * two, and doubles whenever the size exceeds the capacity times the load factor. Lookups, updates
+ * and the `Map` default methods all locate their node with a single probe.
+ *
+ * Subclasses in this package hook into the creation, access, insertion and removal of nodes and
+ * define the iteration order; [LinkedHashMap] uses this to link its entries.
+ */
+open class HashMap<K, V>(
+  initialCapacity: Int = DEFAULT_INITIAL_CAPACITY,
+  internal val loadFactor: Float = DEFAULT_LOAD_FACTOR,
+) : AbstractMap<K, V>(), Cloneable, Serializable {
+
+  /** A mapping in the table, chained to the next node of its bucket. */
+  internal open class Node<K, V>(
+    val hash: Int,
+    override val key: K,
+    override var value: V,
+    var next: Node<K, V>?,
+  ) : MutableMap.MutableEntry<K, V> {
 
-  override fun equals(obj: Any?): Boolean =
-    if (obj is HashMap<*, *>) ktHashMap == obj.ktHashMap else ktHashMap == obj
+    override fun setValue(newValue: V): V {
+      val oldValue = value
+      value = newValue
+      return oldValue
+    }
 
-  constructor(
-    initialCapacity: Int = DEFAULT_INITIAL_CAPACITY,
-    loadFactor: Float = DEFAULT_LOAD_FACTOR,
-  ) : this(KotlinHashMap<K, V>(initialCapacity, loadFactor))
+    override fun equals(other: Any?): Boolean =
+      other is KotlinMap.Entry<*, *> && key == other.key && value == other.value
 
-  constructor(original: KotlinMap<out K, V>) : this(KotlinHashMap(original))
+    override fun hashCode(): Int = key.hashCode() xor value.hashCode()
+
+    override fun toString(): String = "$key=$value"
+  }
+
+  private var table: Array<Node<K, V>?>? = null
+  private var count = 0
+
+  // The initial capacity until the table is allocated.
+  private var threshold: Int
+  internal var modCount = 0
+  private var keysView: MutableSet<K>? = null
+  private var valuesView: MutableCollection<V>? = null
+  private var entriesView: MutableSet<MutableMap.MutableEntry<K, V>>? = null
+
+  init {
+    if (initialCapacity < 0) {
+      throw IllegalArgumentException("Illegal initial capacity: $initialCapacity")
+    }
+    if (!(loadFactor > 0)) {
+      throw IllegalArgumentException("Illegal load factor: $loadFactor")
+    }
+    threshold = tableSizeFor(initialCapacity)
+  }
+
+  constructor(original: KotlinMap<out K, V>) : this() {
+    putMapEntries(original, evict = false)
+  }
 
   override val size: Int
-    get() = ktHashMap.size
+    get() = count
+
+  override fun isEmpty(): Boolean = count == 0
+
+  override fun containsKey(key: K): Boolean = getNode(key) != null
+
+  override fun containsValue(value: V): Boolean {
+    forEachNode { if (it.value == value) return true }
+    return false
+  }
 
-  override fun isEmpty(): Boolean = ktHashMap.isEmpty()
+  override operator fun get(key: K): V? = getNode(key)?.value
 
-  override final fun containsKey(key: K): Boolean = ktHashMap.containsKey(key)
+  override fun getOrDefault(key: K, defaultValue: V): V {
+    val node = getNode(key) ?: return defaultValue
+    return node.value
+  }
 
-  override final fun containsValue(value: V): Boolean = ktHashMap.containsValue(value)
+  override fun put(key: K, value: V): V? = putVal(key, value, onlyIfAbsent = false, evict = true)
 
-  override final operator fun get(key: K): V? = ktHashMap[key]
+  override fun putIfAbsent(key: K, value: V): V? =
+    putVal(key, value, onlyIfAbsent = true, evict = true)
 
-  override fun put(key: K, value: V): V? = ktHashMap.put(key, value)
+  override fun putAll(map: KotlinMap<out K, V>) = putMapEntries(map, evict = true)
 
-  override final fun remove(key: K): V? = ktHashMap.remove(key)
+  override fun remove(key: K): V? = removeNode(key, null, matchValue = false)?.value
 
-  override fun putAll(map: KotlinMap<out K, V>) = ktHashMap.putAll(map)
+  override fun remove(key: K, value: V): Boolean =
+    removeNode(key, value, matchValue = true) != null
 
-  override fun clear() = ktHashMap.clear()
+  override fun replace(key: K, value: V): V? {
+    val node = getNode(key) ?: return null
+    val oldValue = node.value
+    node.value = value
+    afterNodeAccess(node)
+    return oldValue
+  }
+
+  override fun replace(key: K, oldValue: V, newValue: V): Boolean {
+    val node = getNode(key)
+    if (node == null || node.value != oldValue) {
+      return false
+    }
+    node.value = newValue
+    afterNodeAccess(node)
+    return true
+  }
+
+  override fun computeIfAbsent(key: K, mappingFunction: Function<in K, out V>): V {
+    val hash = hash(key)
+    val tab = table ?: resize()
+    val index = hash and (tab.size - 1)
+    val node = findNode(tab[index], hash, key)
+    if (node != null) {
+      val oldValue = node.value
+      if (oldValue != null) {
+        afterNodeAccess(node)
+        return oldValue
+      }
+    }
+    val expectedModCount = modCount
+    val newValue = mappingFunction.apply(key)
+    if (modCount != expectedModCount) {
+      throw ConcurrentModificationException()
+    }
+    if (newValue == null) {
+      return newValue
+    }
+    if (node != null) {
+      node.value = newValue
+      afterNodeAccess(node)
+    } else {
+      addNode(tab, index, hash, key, newValue, evict = true)
+    }
+    return newValue
+  }
+
+  override fun computeIfPresent(
+    key: K,
+    remappingFunction: BiFunction<in K, in V & Any, out V?>,
+  ): V? {
+    val node = getNode(key) ?: return null
+    val oldValue = node.value ?: return null
+    val expectedModCount = modCount
+    val newValue = remappingFunction.apply(key, oldValue)
+    if (modCount != expectedModCount) {
+      throw ConcurrentModificationException()
+    }
+    if (newValue == null) {
+      removeNode(key, null, matchValue = false)
+    } else {
+      node.value = newValue
+      afterNodeAccess(node)
+    }
+    return newValue
+  }
+
+  override fun compute(key: K, remappingFunction: BiFunction<in K, in V?, out V?>): V? {
+    val hash = hash(key)
+    val tab = table ?: resize()
+    val index = hash and (tab.size - 1)
+    val node = findNode(tab[index], hash, key)
+    val expectedModCount = modCount
+    val newValue = remappingFunction.apply(key, node?.value)
+    if (modCount != expectedModCount) {
+      throw ConcurrentModificationException()
+    }
+    if (node != null) {
+      if (newValue == null) {
+        removeNode(key, null, matchValue = false)
+      } else {
+        node.value = newValue
+        afterNodeAccess(node)
+      }
+    } else if (newValue != null) {
+      addNode(tab, index, hash, key, newValue, evict = true)
+    }
+    return newValue
+  }
+
+  override fun merge(
+    key: K,
+    value: V & Any,
+    remap: BiFunction<in V & Any, in V & Any, out V?>,
+  ): V? {
+    val hash = hash(key)
+    val tab = table ?: resize()
+    val index = hash and (tab.size - 1)
+    val node = findNode(tab[index], hash, key)
+    if (node == null) {
+      addNode(tab, index, hash, key, value, evict = true)
+      return value
+    }
+    val oldValue = node.value
+    val newValue: V?
+    if (oldValue == null) {
+      newValue = value
+    } else {
+      val expectedModCount = modCount
+      newValue = remap.apply(oldValue, value)
+      if (modCount != expectedModCount) {
+        throw ConcurrentModificationException()
+      }
+    }
+    if (newValue == null) {
+      removeNode(key, null, matchValue = false)
+    } else {
+      node.value = newValue
+      afterNodeAccess(node)
+    }
+    return newValue
+  }
+
+  override fun clear() {
+    modCount++
+    val tab = table
+    if (tab != null && count > 0) {
+      count = 0
+      tab.fill(null)
+    }
+  }
+
+  override fun forEach(action: BiConsumer<in K, in V>) {
+    val expectedModCount = modCount
+    forEachNode { action.accept(it.key, it.value) }
+    if (modCount != expectedModCount) {
+      throw ConcurrentModificationException()
+    }
+  }
+
+  override fun replaceAll(function: BiFunction<in K, in V, out V>) {
+    val expectedModCount = modCount
+    forEachNode { it.value = function.apply(it.key, it.value) }
+    if (modCount != expectedModCount) {
+      throw ConcurrentModificationException()
+    }
+  }
 
   override val keys: MutableSet<K>
-    get() = ktHashMap.keys
+    get() = keysView ?: KeySet().also { keysView = it }
 
   override val values: MutableCollection<V>
-    get() = ktHashMap.values
+    get() = valuesView ?: Values().also { valuesView = it }
 
   override val entries: MutableSet<MutableMap.MutableEntry<K, V>>
-    get() = ktHashMap.entries
+    get() = entriesView ?: EntrySet().also { entriesView = it }
+
+  override fun equals(obj: Any?): Boolean {
+    if (obj === this) {
+      return true
+    }
+    if (obj !is KotlinMap<*, *> || obj.size != count) {
+      return false
+    }
+    @Suppress("UNCHECKED_CAST") val other = obj as KotlinMap<Any?, Any?>
+    forEachNode {
+      val otherValue = other[it.key]
+      if (otherValue != it.value || (otherValue == null && !other.containsKey(it.key))) {
+        return false
+      }
+    }
+    return true
+  }
+
+  override fun hashCode(): Int {
+    var hashCode = 0
+    forEachNode { hashCode += it.hashCode() }
+    return hashCode
+  }
+
+  /** Returns a copy of this map. The table is copied bucket by bucket, without rehashing. */
+  override fun clone(): Any {
+    val clone = HashMap<K, V>(0, loadFactor)
+    val tab = table
+    if (tab != null) {
+      val cloneTable = arrayOfNulls<Node<K, V>>(tab.size)
+      for (index in tab.indices) {
+        var node = tab[index]
+        var last: Node<K, V>? = null
+        while (node != null) {
+          val copy = Node(node.hash, node.key, node.value, null)
+          if (last == null) {
+            cloneTable[index] = copy
+          } else {
+            last.next = copy
+          }
+          last = copy
+          node = node.next
+        }
+      }
+      clone.table = cloneTable
+      clone.count = count
+      clone.threshold = threshold
+    }
+    return clone
+  }
+
+  /**
+   * Fills the empty map [clone] with copies of the nodes of this map, in a table of the same
+   * capacity. The copies are created by the [newNode] of [clone] in iteration order, without
+   * rehashing or resizing; each is added to the front of its bucket.
+   */
+  internal fun copyNodesTo(clone: HashMap<K, V>) {
+    val tab = table ?: return
+    val cloneTable = arrayOfNulls<Node<K, V>>(tab.size)
+    forEachNode {
+      val index = it.hash and (tab.size - 1)
+      cloneTable[index] = clone.newNode(it.hash, it.key, it.value, cloneTable[index])
+    }
+    clone.table = cloneTable
+    clone.count = count
+    clone.threshold = threshold
+  }
+
+  internal fun getNode(key: K): Node<K, V>? {
+    val tab = table ?: return null
+    val hash = hash(key)
+    return findNode(tab[hash and (tab.size - 1)], hash, key)
+  }
+
+  private fun findNode(first: Node<K, V>?, hash: Int, key: K): Node<K, V>? {
+    var node = first
+    while (node != null) {
+      if (node.hash == hash && (node.key === key || key == node.key)) {
+        return node
+      }
+      node = node.next
+    }
+    return null
+  }
+
+  /**
+   * Maps [key] to [value], unless [onlyIfAbsent] and [key] is mapped to a non-null value. Returns
+   * the previous value, or null if there was no mapping. [evict] is passed to [afterNodeInsertion].
+   */
+  internal fun putVal(key: K, value: V, onlyIfAbsent: Boolean, evict: Boolean): V? {
+    val hash = hash(key)
+    val tab = table ?: resize()
+    val index = hash and (tab.size - 1)
+    val node = findNode(tab[index], hash, key)
+    if (node != null) {
+      val oldValue = node.value
+      if (!onlyIfAbsent || oldValue == null) {
+        node.value = value
+      }
+      afterNodeAccess(node)
+      return oldValue
+    }
+    addNode(tab, index, hash, key, value, evict)
+    return null
+  }
+
+  private fun addNode(
+    tab: Array<Node<K, V>?>,
+    index: Int,
+    hash: Int,
+    key: K,
+    value: V,
+    evict: Boolean,
+  ) {
+    tab[index] = newNode(hash, key, value, tab[index])
+    modCount++
+    if (++count > threshold) {
+      resize()
+    }
+    afterNodeInsertion(evict)
+  }
+
+  internal fun putMapEntries(map: KotlinMap<out K, V>, evict: Boolean) {
+    val size = map.size
+    if (size == 0) {
+      return
+    }
+    // Size the table for the whole map up front, so that it is resized at most once.
+    val capacity = (size / loadFactor + 1.0f).toInt()
+    if (table == null) {
+      if (capacity > threshold) {
+        threshold = tableSizeFor(capacity)
+      }
+    } else {
+      while (size > threshold && table!!.size < MAXIMUM_CAPACITY) {
+        resize()
+      }
+    }
+    for ((key, value) in map) {
+      putVal(key, value, onlyIfAbsent = false, evict)
+    }
+  }
+
+  /**
+   * Removes the node of [key], if it is mapped to [value] or [matchValue] is false. Returns the
+   * removed node, or null.
+   */
+  internal fun removeNode(key: K, value: Any?, matchValue: Boolean): Node<K, V>? {
+    val tab = table ?: return null
+    val hash = hash(key)
+    val index = hash and (tab.size - 1)
+    var previous: Node<K, V>? = null
+    var node = tab[index]
+    while (node != null) {
+      if (node.hash == hash && (node.key === key || key == node.key)) {
+        if (matchValue && node.value != value) {
+          return null
+        }
+        if (previous == null) {
+          tab[index] = node.next
+        } else {
+          previous.next = node.next
+        }
+        modCount++
+        count--
+        afterNodeRemoval(node)
+        return node
+      }
+      previous = node
+      node = node.next
+    }
+    return null
+  }
+
+  /** Allocates the table, or doubles its capacity, keeping the order of each bucket. */
+  private fun resize(): Array<Node<K, V>?> {
+    val oldTable = table
+    val oldCapacity = oldTable?.size ?: 0
+    if (oldCapacity >= MAXIMUM_CAPACITY) {
+      threshold = Int.MAX_VALUE
+      return oldTable!!
+    }
+    val newCapacity = if (oldTable == null) threshold else oldCapacity * 2
+    threshold =
+      if (newCapacity >= MAXIMUM_CAPACITY) Int.MAX_VALUE else (newCapacity * loadFactor).toInt()
+    val newTable = arrayOfNulls<Node<K, V>>(newCapacity)
+    if (oldTable != null) {
+      // Each bucket splits into the same index and the one a whole old capacity higher.
+      for (index in oldTable.indices) {
+        var lowHead: Node<K, V>? = null
+        var lowTail: Node<K, V>? = null
+        var highHead: Node<K, V>? = null
+        var highTail: Node<K, V>? = null
+        var node = oldTable[index]
+        while (node != null) {
+          val next = node.next
+          node.next = null
+          if (node.hash and oldCapacity == 0) {
+            if (lowTail == null) lowHead = node else lowTail.next = node
+            lowTail = node
+          } else {
+            if (highTail == null) highHead = node else highTail.next = node
+            highTail = node
+          }
+          node = next
+        }
+        newTable[index] = lowHead
+        newTable[index + oldCapacity] = highHead
+      }
+    }
+    table = newTable
+    return newTable
+  }
+
+  /** Creates the node for a new mapping. */
+  internal open fun newNode(hash: Int, key: K, value: V, next: Node<K, V>?): Node<K, V> =
+    Node(hash, key, value, next)
+
+  /** Called when the value of [node] is read or written by an operation that counts as access. */
+  internal open fun afterNodeAccess(node: Node<K, V>) {}
+
+  /** Called after a new node was added. [evict] is false while a constructor copies a map. */
+  internal open fun afterNodeInsertion(evict: Boolean) {}
+
+  /** Called after [node] was removed from the table. */
+  internal open fun afterNodeRemoval(node: Node<K, V>) {}
+
+  /** Returns the first node in iteration order. */
+  internal open fun firstNode(): Node<K, V>? {
+    val tab = table ?: return null
+    return firstNodeFrom(tab, 0)
+  }
+
+  /** Returns the node after [node] in iteration order. */
+  internal open fun successor(node: Node<K, V>): Node<K, V>? {
+    val next = node.next
+    if (next != null) {
+      return next
+    }
+    val tab = table ?: return null
+    return firstNodeFrom(tab, (node.hash and (tab.size - 1)) + 1)
+  }
+
+  private fun firstNodeFrom(tab: Array<Node<K, V>?>, start: Int): Node<K, V>? {
+    for (index in start until tab.size) {
+      val node = tab[index]
+      if (node != null) {
+        return node
+      }
+    }
+    return null
+  }
+
+  private inline fun forEachNode(action: (Node<K, V>) -> Unit) {
+    var node = firstNode()
+    while (node != null) {
+      action(node)
+      node = successor(node)
+    }
+  }
+
+  /** Iterates over the nodes in iteration order. */
+  private abstract inner class NodeIterator<T> : MutableIterator<T> {
+    private var next = firstNode()
+    private var lastReturned: Node<K, V>? = null
+    private var expectedModCount = modCount
+
+    override fun hasNext(): Boolean = next != null
+
+    fun nextNode(): Node<K, V> {
+      if (modCount != expectedModCount) {
+        throw ConcurrentModificationException()
+      }
+      val node = next ?: throw NoSuchElementException()
+      next = successor(node)
+      lastReturned = node
+      return node
+    }
+
+    override fun remove() {
+      val node = lastReturned ?: throw IllegalStateException()
+      if (modCount != expectedModCount) {
+        throw ConcurrentModificationException()
+      }
+      lastReturned = null
+      removeNode(node.key, null, matchValue = false)
+      expectedModCount = modCount
+    }
+  }
+
+  private inner class KeySet : AbstractMutableSet<K>() {
+    override val size: Int
+      get() = count
+
+    override fun contains(element: K): Boolean = getNode(element) != null
+
+    override fun iterator(): MutableIterator<K> =
+      object : NodeIterator<K>() {
+        override fun next(): K = nextNode().key
+      }
+
+    override fun add(element: K): Boolean = throw UnsupportedOperationException()
+
+    override fun remove(element: K): Boolean =
+      removeNode(element, null, matchValue = false) != null
+
+    override fun clear() = this@HashMap.clear()
+  }
+
+  private inner class Values : AbstractMutableCollection<V>() {
+    override val size: Int
+      get() = count
+
+    override fun contains(element: V): Boolean = containsValue(element)
+
+    override fun iterator(): MutableIterator<V> =
+      object : NodeIterator<V>() {
+        override fun next(): V = nextNode().value
+      }
+
+    override fun add(element: V): Boolean = throw UnsupportedOperationException()
+
+    override fun clear() = this@HashMap.clear()
+  }
+
+  private inner class EntrySet : AbstractMutableSet<MutableMap.MutableEntry<K, V>>() {
+    override val size: Int
+      get() = count
+
+    override fun contains(element: MutableMap.MutableEntry<K, V>): Boolean {
+      val node = getNode(element.key)
+      return node != null && node.value == element.value
+    }
+
+    override fun iterator(): MutableIterator<MutableMap.MutableEntry<K, V>> =
+      object : NodeIterator<MutableMap.MutableEntry<K, V>>() {
+        override fun next(): MutableMap.MutableEntry<K, V> = nextNode()
+      }
+
+    override fun add(element: MutableMap.MutableEntry<K, V>): Boolean =
+      throw UnsupportedOperationException()
+
+    override fun remove(element: MutableMap.MutableEntry<K, V>): Boolean =
+      removeNode(element.key, element.value, matchValue = true) != null
 
-  override fun clone(): Any = HashMap<K, V>(KotlinHashMap<K, V>(ktHashMap))
+    override fun clear() = this@HashMap.clear()
+  }
 }
@@ -15,6 +15,7 @@
  */
 package java.util;
 
+import java.io.Serializable;
 import javaemul.internal.annotations.KtNative;
 import org.jspecify.annotations.NullMarked;
 import org.jspecify.annotations.Nullable;
@@ -23,9 +24,10 @@ import org.jspecify.annotations.Nullable;
  * See <a href="https://docs.oracle.com/javase/8/docs/api/java/util/HashSet.html">the official Java
  * API doc</a> for details.
  */
-@KtNative(name = "kotlin.collections.HashSet")
+@KtNative
 @NullMarked
-public class HashSet<E extends @Nullable Object> implements Set<E> {
+public class HashSet<E extends @Nullable Object> extends AbstractSet<E>
+    implements Set<E>, Cloneable, Serializable {
 
   public HashSet() {}
 
@@ -73,4 +75,7 @@ public class HashSet<E extends @Nullable Object> implements Set<E> {
 
   @Override
   public native <T extends @Nullable Object> T[] toArray(T[] a);
+
+  @Override
+  public native Object clone();
 }
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package java.util
+
+import java.io.Serializable
+import kotlin.Cloneable
+import kotlin.collections.Collection as KotlinCollection
+
+/**
+ * A set backed by the keys of a [HashMap], so that adding, removing and looking up an element each
+ * take a single probe of its table.
+ */
+open class HashSet<E> private constructor(private val map: HashMap<E, Any>) :
+  AbstractSet<E>(), Cloneable, Serializable {
+
+  constructor(
+    initialCapacity: Int = DEFAULT_INITIAL_CAPACITY,
+    loadFactor: Float = DEFAULT_LOAD_FACTOR,
+  ) : this(HashMap<E, Any>(initialCapacity, loadFactor))
+
+  constructor(
+    c: KotlinCollection<E>
+  ) : this(HashMap<E, Any>(maxOf((c.size / DEFAULT_LOAD_FACTOR).toInt() + 1, 16))) {
+    for (element in c) {
+      map.put(element, PRESENT)
+    }
+  }
+
+  override val size: Int
+    get() = map.size
+
+  override fun isEmpty(): Boolean = map.isEmpty()
+
+  override fun contains(element: E): Boolean = map.containsKey(element)
+
+  override fun add(element: E): Boolean = map.put(element, PRESENT) == null
+
+  override fun remove(element: E): Boolean = map.remove(element) != null
+
+  override fun clear() = map.clear()
+
+  override fun iterator(): MutableIterator<E> = map.keys.iterator()
+
+  @Suppress("UNCHECKED_CAST")
+  override fun clone(): Any = HashSet<E>(map.clone() as HashMap<E, Any>)
+
+  private companion object {
+    val PRESENT = Any()
+  }
+}
@@ -19,15 +19,142 @@ package java.util
 import kotlin.Cloneable
 import kotlin.collections.Map as KotlinMap
 
-// Note: This implementation relies on the fact that Kotlin Native's HashMap is linked.
+/**
+ * A hash map whose entries are linked in insertion order or, if created with `accessOrder`, in the
+ * order in which they were last accessed.
+ *
+ * The nodes of the [HashMap] table also form a doubly linked list, so that moving an accessed
+ * entry to the end of the list takes constant time. After each insertion, the eldest entry is
+ * passed to [removeEldestEntry], which lets subclasses implement bounded LRU caches.
+ */
 open class LinkedHashMap<K, V> : HashMap<K, V>, MutableMap<K, V>, Cloneable {
-  constructor() : super()
 
-  constructor(initialCapacity: Int) : super(initialCapacity)
+  private class Entry<K, V>(hash: Int, key: K, value: V, next: Node<K, V>?) :
+    HashMap.Node<K, V>(hash, key, value, next) {
+    var before: Entry<K, V>? = null
+    var after: Entry<K, V>? = null
+  }
+
+  private val accessOrder: Boolean
+  private var head: Entry<K, V>? = null
+  private var tail: Entry<K, V>? = null
+
+  constructor(
+    initialCapacity: Int = DEFAULT_INITIAL_CAPACITY,
+    loadFactor: Float = DEFAULT_LOAD_FACTOR,
+    accessOrder: Boolean = false,
+  ) : super(initialCapacity, loadFactor) {
+    this.accessOrder = accessOrder
+  }
+
+  constructor(from: KotlinMap<out K, V>) : this() {
+    putMapEntries(from, evict = false)
+  }
+
+  /**
+   * Returns whether [eldest] should be removed after a new entry was inserted. Subclasses override
+   * this to evict entries, for example once the map exceeds a maximum size.
+   */
+  protected open fun removeEldestEntry(eldest: MutableMap.MutableEntry<K, V>): Boolean = false
+
+  override operator fun get(key: K): V? {
+    val node = getNode(key) ?: return null
+    if (accessOrder) {
+      moveToTail(node as Entry<K, V>)
+    }
+    return node.value
+  }
+
+  override fun getOrDefault(key: K, defaultValue: V): V {
+    val node = getNode(key) ?: return defaultValue
+    if (accessOrder) {
+      moveToTail(node as Entry<K, V>)
+    }
+    return node.value
+  }
+
+  override fun clear() {
+    super.clear()
+    head = null
+    tail = null
+  }
+
+  /**
+   * Returns a copy of this map with the same capacity, load factor and order. The table is copied
+   * in a single pass over the linked entries, which also links the copies.
+   */
+  override fun clone(): Any {
+    val clone = LinkedHashMap<K, V>(0, loadFactor, accessOrder)
+    copyNodesTo(clone)
+    return clone
+  }
+
+  override fun newNode(hash: Int, key: K, value: V, next: Node<K, V>?): Node<K, V> {
+    val entry = Entry(hash, key, value, next)
+    val last = tail
+    entry.before = last
+    if (last == null) {
+      head = entry
+    } else {
+      last.after = entry
+    }
+    tail = entry
+    return entry
+  }
+
+  override fun afterNodeAccess(node: Node<K, V>) {
+    if (accessOrder) {
+      moveToTail(node as Entry<K, V>)
+    }
+  }
+
+  override fun afterNodeInsertion(evict: Boolean) {
+    val eldest = head
+    if (evict && eldest != null && removeEldestEntry(eldest)) {
+      removeNode(eldest.key, null, matchValue = false)
+    }
+  }
+
+  override fun afterNodeRemoval(node: Node<K, V>) {
+    val entry = node as Entry<K, V>
+    val before = entry.before
+    val after = entry.after
+    if (before == null) {
+      head = after
+    } else {
+      before.after = after
+    }
+    if (after == null) {
+      tail = before
+    } else {
+      after.before = before
+    }
+    entry.before = null
+    entry.after = null
+  }
 
-  constructor(initialCapacity: Int, loadFactor: Float) : super(initialCapacity, loadFactor)
+  override fun firstNode(): Node<K, V>? = head
 
-  constructor(from: KotlinMap<out K, out V>) : super(from)
+  override fun successor(node: Node<K, V>): Node<K, V>? = (node as Entry<K, V>).after
 
-  override fun clone(): Any = LinkedHashMap(this)
+  private fun moveToTail(entry: Entry<K, V>) {
+    val last = tail
+    if (last === entry) {
+      return
+    }
+    val before = entry.before
+    val after = entry.after!!
+    if (before == null) {
+      head = after
+    } else {
+      before.after = after
+    }
+    after.before = before
+    entry.before = last
+    entry.after = null
+    last!!.after = entry
+    tail = entry
+    // Like on the JVM, accessing an entry is a structural modification in access order.
+    modCount++
+  }
 }
@@ -31,6 +31,10 @@ interface List<E> : MutableList<E>, Collection<E> {
       sortWith(c)
     }
 
+  override fun spliterator(): Spliterator<E> =
+    if (this is RandomAccess) Spliterators.randomAccessSpliterator(this)
+    else Spliterators.spliterator(this, Spliterator.ORDERED)
+
   fun getFirst(): E = if (isEmpty()) throw NoSuchElementException() else get(0)
 
   fun getLast(): E = if (isEmpty()) throw NoSuchElementException() else get(size - 1)
@@ -30,17 +30,26 @@ import org.jspecify.annotations.Nullable;
  * See <a href="https://docs.oracle.com/javase/8/docs/api/java/util/Spliterators.html">the official
  * Java API doc</a> for details.
  *
- * <p>Since it's hard to implement parallel algorithms in the browser environment and to keep code
- * simple, implementation does not provide splitting.
+ * <p>Array spliterators split by halving their range. Iterator based and abstract spliterators
+ * split by buffering a batch of elements into an array spliterator, growing the batch by {@link
+ * #BATCH_UNIT} on each split like the JDK does, so that unknown-size sources still parallelize.
  */
 @NullMarked
 public final class Spliterators {
 
+  /** Increment of the batch size used when splitting iterator based spliterators. */
+  static final int BATCH_UNIT = 1 << 10;
+
+  /** Maximum batch size used when splitting iterator based spliterators. */
+  static final int MAX_BATCH = 1 << 25;
+
   // TODO(b/493533932): Made public to workaround Kotlin visibility restrictions.
   public abstract static class BaseSpliterator<T extends @Nullable Object, S extends Spliterator<T>>
       implements Spliterator<T> {
     private final int characteristics;
     private long sizeEstimate;
+    // Size of the last batch handed out by trySplit.
+    private int batch;
 
     private BaseSpliterator(long size, int characteristics) {
       this.sizeEstimate = size;
@@ -63,6 +72,19 @@ public final class Spliterators {
       // see javadoc for java.util.Spliterator
       return null;
     }
+
+    /** Returns the number of elements to buffer for the next split, or 0 to not split. */
+    final int nextBatchSize() {
+      return Spliterators.nextBatchSize(batch, sizeEstimate);
+    }
+
+    /** Records that {@code trySplit} handed out a batch of {@code size} elements. */
+    final void onBatchSplit(int size) {
+      batch = size;
+      if (sizeEstimate != Long.MAX_VALUE) {
+        sizeEstimate -= size;
+      }
+    }
   }
 
   /**
@@ -76,6 +98,25 @@ public final class Spliterators {
     protected AbstractSpliterator(long size, int characteristics) {
       super(size, characteristics);
     }
+
+    @Override
+    public @Nullable Spliterator<T> trySplit() {
+      int n = nextBatchSize();
+      if (n == 0) {
+        return null;
+      }
+      HoldingConsumer<T> holder = new HoldingConsumer<>();
+      @Nullable Object[] batch = new Object[n];
+      int size = 0;
+      while (size < n && tryAdvance(holder)) {
+        batch[size++] = holder.value;
+      }
+      if (size == 0) {
+        return null;
+      }
+      onBatchSplit(size);
+      return new ArraySpliterator<>(batch, 0, size, characteristics());
+    }
   }
 
   /**
@@ -88,6 +129,23 @@ public final class Spliterators {
     protected AbstractDoubleSpliterator(long size, int characteristics) {
       super(size, characteristics);
     }
+
+    @Override
+    public Spliterator.@Nullable OfDouble trySplit() {
+      int n = nextBatchSize();
+      if (n == 0) {
+        return null;
+      }
+      double[] batch = new double[n];
+      int[] size = {0};
+      DoubleConsumer append = value -> batch[size[0]++] = value;
+      while (size[0] < n && tryAdvance(append)) {}
+      if (size[0] == 0) {
+        return null;
+      }
+      onBatchSplit(size[0]);
+      return new DoubleArraySpliterator(batch, 0, size[0], characteristics());
+    }
   }
 
   /**
@@ -100,6 +158,23 @@ public final class Spliterators {
     protected AbstractIntSpliterator(long size, int characteristics) {
       super(size, characteristics);
     }
+
+    @Override
+    public Spliterator.@Nullable OfInt trySplit() {
+      int n = nextBatchSize();
+      if (n == 0) {
+        return null;
+      }
+      int[] batch = new int[n];
+      int[] size = {0};
+      IntConsumer append = value -> batch[size[0]++] = value;
+      while (size[0] < n && tryAdvance(append)) {}
+      if (size[0] == 0) {
+        return null;
+      }
+      onBatchSplit(size[0]);
+      return new IntArraySpliterator(batch, 0, size[0], characteristics());
+    }
   }
 
   /**
@@ -112,6 +187,23 @@ public final class Spliterators {
     protected AbstractLongSpliterator(long size, int characteristics) {
       super(size, characteristics);
     }
+
+    @Override
+    public Spliterator.@Nullable OfLong trySplit() {
+      int n = nextBatchSize();
+      if (n == 0) {
+        return null;
+      }
+      long[] batch = new long[n];
+      int[] size = {0};
+      LongConsumer append = value -> batch[size[0]++] = value;
+      while (size[0] < n && tryAdvance(append)) {}
+      if (size[0] == 0) {
+        return null;
+      }
+      onBatchSplit(size[0]);
+      return new LongArraySpliterator(batch, 0, size[0], characteristics());
+    }
   }
 
   @SuppressWarnings("unchecked")
@@ -177,6 +269,12 @@ public final class Spliterators {
     return new IteratorSpliterator<>(c, characteristics);
   }
 
+  /** Returns a spliterator that splits {@code list} by index, see {@link List#spliterator()}. */
+  static <T extends @Nullable Object> Spliterator<T> randomAccessSpliterator(
+      List<? extends T> list) {
+    return new RandomAccessListSpliterator<>(list, 0, -1);
+  }
+
   public static <T extends @Nullable Object> Spliterator<T> spliterator(
       Iterator<? extends T> it, long size, int characteristics) {
     return new IteratorSpliterator<>(it, size, characteristics);
@@ -469,6 +567,8 @@ public final class Spliterators {
     private @Nullable Iterator<? extends T> it;
     private final int characteristics;
     private long estimateSize;
+    // Size of the last batch handed out by trySplit.
+    private int batch;
 
     IteratorSpliterator(Collection<? extends T> collection, int characteristics) {
       this.collection = checkNotNull(collection);
@@ -523,8 +623,21 @@ public final class Spliterators {
 
     @Override
     public @Nullable Spliterator<T> trySplit() {
-      // see javadoc for java.util.Spliterator
-      return null;
+      initIterator();
+      int n = nextBatchSize(batch, estimateSize);
+      if (n == 0 || !it.hasNext()) {
+        return null;
+      }
+      @Nullable Object[] elements = new Object[n];
+      int size = 0;
+      do {
+        elements[size++] = it.next();
+      } while (size < n && it.hasNext());
+      batch = size;
+      if (estimateSize != Long.MAX_VALUE) {
+        estimateSize -= size;
+      }
+      return new ArraySpliterator<>(elements, 0, size, characteristics);
     }
 
     private void initIterator() {
@@ -535,6 +648,67 @@ public final class Spliterators {
     }
   }
 
+  private static final class RandomAccessListSpliterator<T extends @Nullable Object>
+      implements Spliterator<T> {
+    private final List<? extends T> list;
+    private int index;
+    // Bound lazily on first use, -1 until then.
+    private int limit;
+
+    RandomAccessListSpliterator(List<? extends T> list, int from, int limit) {
+      this.list = checkNotNull(list);
+      this.index = from;
+      this.limit = limit;
+    }
+
+    private int getLimit() {
+      if (limit < 0) {
+        limit = list.size();
+      }
+      return limit;
+    }
+
+    @Override
+    public int characteristics() {
+      return Spliterator.ORDERED | Spliterator.SIZED | Spliterator.SUBSIZED;
+    }
+
+    @Override
+    public long estimateSize() {
+      return getLimit() - index;
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super T> consumer) {
+      checkNotNull(consumer);
+      int limit = getLimit();
+      while (index < limit) {
+        consumer.accept(list.get(index++));
+      }
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super T> consumer) {
+      checkNotNull(consumer);
+      if (index < getLimit()) {
+        consumer.accept(list.get(index++));
+        return true;
+      }
+      return false;
+    }
+
+    @Override
+    public @Nullable Spliterator<T> trySplit() {
+      int from = index;
+      int mid = (from + getLimit()) >>> 1;
+      if (from >= mid) {
+        return null;
+      }
+      index = mid;
+      return new RandomAccessListSpliterator<>(list, from, mid);
+    }
+  }
+
   private static final class DoubleIteratorSpliterator extends AbstractDoubleSpliterator {
     private final PrimitiveIterator.OfDouble it;
 
@@ -683,11 +857,19 @@ public final class Spliterators {
     }
 
     public @Nullable S trySplit() {
-      // see javadoc for java.util.Spliterator
-      return null;
+      int from = index;
+      int mid = (from + limit) >>> 1;
+      if (from >= mid) {
+        return null;
+      }
+      index = mid;
+      return createSplit(from, mid);
     }
 
     protected abstract void consume(C consumer, int index);
+
+    /** Returns a spliterator over the same array covering {@code [from, limit)}. */
+    protected abstract S createSplit(int from, int limit);
   }
 
   private static final class ArraySpliterator<T extends @Nullable Object>
@@ -705,6 +887,11 @@ public final class Spliterators {
       this.array = array;
     }
 
+    @Override
+    protected Spliterator<T> createSplit(int from, int limit) {
+      return new ArraySpliterator<>(array, from, limit, characteristics());
+    }
+
     @Override
     public void forEachRemaining(Consumer<? super T> consumer) {
       super.forEachRemainingBase(consumer);
@@ -737,6 +924,11 @@ public final class Spliterators {
       this.array = array;
     }
 
+    @Override
+    protected Spliterator.OfDouble createSplit(int from, int limit) {
+      return new DoubleArraySpliterator(array, from, limit, characteristics());
+    }
+
     @Override
     public void forEachRemaining(DoubleConsumer consumer) {
       super.forEachRemainingBase(consumer);
@@ -768,6 +960,11 @@ public final class Spliterators {
       this.array = array;
     }
 
+    @Override
+    protected Spliterator.OfInt createSplit(int from, int limit) {
+      return new IntArraySpliterator(array, from, limit, characteristics());
+    }
+
     @Override
     public void forEachRemaining(IntConsumer consumer) {
       super.forEachRemainingBase(consumer);
@@ -799,6 +996,11 @@ public final class Spliterators {
       this.array = array;
     }
 
+    @Override
+    protected Spliterator.OfLong createSplit(int from, int limit) {
+      return new LongArraySpliterator(array, from, limit, characteristics());
+    }
+
     @Override
     public void forEachRemaining(LongConsumer consumer) {
       super.forEachRemainingBase(consumer);
@@ -815,6 +1017,26 @@ public final class Spliterators {
     }
   }
 
+  private static int nextBatchSize(int lastBatch, long sizeEstimate) {
+    if (sizeEstimate <= 1) {
+      return 0;
+    }
+    int n = lastBatch + BATCH_UNIT;
+    if (n > sizeEstimate) {
+      n = (int) sizeEstimate;
+    }
+    return Math.min(n, MAX_BATCH);
+  }
+
+  private static final class HoldingConsumer<T extends @Nullable Object> implements Consumer<T> {
+    @Nullable T value;
+
+    @Override
+    public void accept(T value) {
+      this.value = value;
+    }
+  }
+
   private static void checkSorted(int characteristics) {
     checkCriticalState((characteristics & Spliterator.SORTED) != 0);
   }
@@ -82,6 +82,22 @@ public class TreeMap<K extends @Nullable Object, V extends @Nullable Object>
     return putInternal(key, value);
   }
 
+  @Override
+  public void putAll(Map<? extends K, ? extends V> map) {
+    int size = map.size();
+    if (map instanceof SortedMap
+        && size >= Math.max(2, mapSize / BULK_MERGE_RATIO)
+        && hasSameOrder((SortedMap<? extends K, ? extends V>) map)) {
+      mergeSorted(map.entrySet().iterator(), size);
+    } else {
+      super.putAll(map);
+    }
+  }
+
+  private boolean hasSameOrder(SortedMap<? extends K, ? extends V> map) {
+    return comparator.equals(Comparators.nullToNaturalOrder(map.comparator()));
+  }
+
   @Override
   public void clear() {
     root = null;
@@ -408,6 +424,126 @@ public class TreeMap<K extends @Nullable Object, V extends @Nullable Object>
     pivot.height = Math.max(root.height, pivotLeft != null ? pivotLeft.height : 0) + 1;
   }
 
+  /*
+   * Bulk construction from sorted input.
+   */
+
+  /**
+   * A sorted map is merged into this one by rebuilding the tree, which takes linear time, if it has
+   * at least 1/BULK_MERGE_RATIO as many entries as this map. Smaller maps are inserted one entry
+   * at a time, which takes O(log n) per entry.
+   */
+  private static final int BULK_MERGE_RATIO = 8;
+
+  /**
+   * Merges {@code entries}, which must be in ascending order of this map's comparator and have no
+   * duplicate keys, into this map in linear time. Existing nodes are kept, so entries handed out
+   * before stay attached to the map.
+   */
+  private void mergeSorted(Iterator<? extends Entry<? extends K, ? extends V>> entries, int size) {
+    List<Node<K, V>> nodes = new ArrayList<>(mapSize + size);
+    @Nullable Node<K, V> node = getFirst();
+    @Nullable Entry<? extends K, ? extends V> entry = entries.hasNext() ? entries.next() : null;
+    while (node != null && entry != null) {
+      int comparison = comparator.compare(node.getKey(), entry.getKey());
+      if (comparison <= 0) {
+        if (comparison == 0) {
+          node.setValue(entry.getValue());
+          entry = entries.hasNext() ? entries.next() : null;
+        }
+        nodes.add(node);
+        node = node.next();
+      } else {
+        nodes.add(newNode(entry.getKey(), entry.getValue()));
+        entry = entries.hasNext() ? entries.next() : null;
+      }
+    }
+    for (; node != null; node = node.next()) {
+      nodes.add(node);
+    }
+    for (; entry != null; entry = entries.hasNext() ? entries.next() : null) {
+      nodes.add(newNode(entry.getKey(), entry.getValue()));
+    }
+    buildFromSorted(nodes);
+  }
+
+  /**
+   * Puts {@code value} for each of {@code keys}. If this map is empty and the keys are in strictly
+   * ascending order, the tree is built in linear time rather than by one insertion per key.
+   *
+   * @return whether the map changed
+   */
+  boolean putAllKeys(Collection<? extends K> keys, V value) {
+    Iterator<? extends K> it = keys.iterator();
+    boolean changed = false;
+    if (mapSize == 0 && keys.size() >= 2) {
+      List<Node<K, V>> nodes = new ArrayList<>(keys.size());
+      while (it.hasNext()) {
+        K key = it.next();
+        if (!nodes.isEmpty()
+            && comparator.compare(nodes.get(nodes.size() - 1).getKey(), key) >= 0) {
+          // Not sorted after all. Keep the ascending prefix and insert the rest one by one.
+          buildFromSorted(nodes);
+          put(key, value);
+          break;
+        }
+        nodes.add(newNode(key, value));
+      }
+      if (mapSize == 0) {
+        buildFromSorted(nodes);
+      }
+      changed = true;
+    }
+    while (it.hasNext()) {
+      changed |= put(it.next(), value) == null;
+    }
+    return changed;
+  }
+
+  private Node<K, V> newNode(K key, V value) {
+    Node<K, V> node = new Node<K, V>(null, key);
+    node.setValue(value);
+    return node;
+  }
+
+  /**
+   * Replaces the tree by a perfectly balanced one made of {@code nodes}, which must be in ascending
+   * key order.
+   */
+  private void buildFromSorted(List<Node<K, V>> nodes) {
+    root = buildSubtree(nodes, 0, nodes.size() - 1);
+    if (root != null) {
+      root.parent = null;
+    }
+    mapSize = nodes.size();
+    structureChanged();
+  }
+
+  /**
+   * Links {@code nodes[from..to]} into a balanced subtree and returns its root. The halves of each
+   * subtree differ in size by at most one, so their heights differ by at most one as well, which
+   * makes the result a valid AVL tree.
+   */
+  private @Nullable Node<K, V> buildSubtree(List<Node<K, V>> nodes, int from, int to) {
+    if (from > to) {
+      return null;
+    }
+    int middle = (from + to) >>> 1;
+    Node<K, V> node = nodes.get(middle);
+    Node<K, V> left = buildSubtree(nodes, from, middle - 1);
+    Node<K, V> right = buildSubtree(nodes, middle + 1, to);
+    node.left = left;
+    node.right = right;
+    if (left != null) {
+      left.parent = node;
+    }
+    if (right != null) {
+      right.parent = node;
+    }
+    node.height = Math.max(left != null ? left.height : 0, right != null ? right.height : 0) + 1;
+    return node;
+  }
+
   /*
    * Navigable methods.
    */
@@ -51,7 +51,6 @@ public class TreeSet<E extends @Nullable Object> extends AbstractSet<E>
 
   public TreeSet(SortedSet<E> s) {
     this(checkNotNull(s).comparator());
-    // TODO(jat): more efficient implementation
     boolean unused = addAll(s);
   }
 
@@ -70,6 +69,15 @@ public class TreeSet<E extends @Nullable Object> extends AbstractSet<E>
     return map.put(o, Boolean.FALSE) == null;
   }
 
+  @Override
+  public boolean addAll(Collection<? extends E> c) {
+    if (map instanceof TreeMap) {
+      // Builds the tree in linear time if this set is empty and c is sorted.
+      return ((TreeMap<E, Boolean>) map).putAllKeys(c, Boolean.FALSE);
+    }
+    return super.addAll(c);
+  }
+
   @Override
   public @Nullable E ceiling(E e) {
     return map.ceilingKey(e);
@@ -0,0 +1,839 @@
+/*
+ * Written by Doug Lea with assistance from members of JCP JSR-166
+ * Expert Group and released to the public domain, as explained at
+ * http://creativecommons.org/publicdomain/zero/1.0/
+ */
+
+package java.util.concurrent;
+
+import java.util.AbstractQueue;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+// J2kt-native: based on the JDK 8 version, with the simpler weakly consistent iterator of JDK 7
+// instead of the shared iterator bookkeeping. Our ReentrantLock has no fairness policy, so the fair
+// constructor parameter is ignored. Bulk operations that free or fill several slots signal the
+// waiting threads once per batch. (De)serialization code removed.
+
+/**
+ * A bounded {@linkplain BlockingQueue blocking queue} backed by an array. This queue orders
+ * elements FIFO (first-in-first-out). The <em>head</em> of the queue is that element that has been
+ * on the queue the longest time. The <em>tail</em> of the queue is that element that has been on
+ * the queue the shortest time. New elements are inserted at the tail of the queue, and the queue
+ * retrieval operations obtain elements at the head of the queue.
+ *
+ * <p>This is a classic &quot;bounded buffer&quot;, in which a fixed-sized array holds elements
+ * inserted by producers and extracted by consumers. Once created, the capacity cannot be changed.
+ * Attempts to {@code put} an element into a full queue will result in the operation blocking;
+ * attempts to {@code take} an element from an empty queue will similarly block. Unlike {@link
+ * LinkedBlockingQueue}, no node is allocated per element.
+ *
+ * <p>This class and its iterator implement all of the <em>optional</em> methods of the {@link
+ * Collection} and {@link Iterator} interfaces.
+ *
+ * @since 1.5
+ * @author Doug Lea
+ * @param <E> the type of elements held in this collection
+ */
+@NullMarked
+public class ArrayBlockingQueue<E> extends AbstractQueue<E>
+    implements BlockingQueue<E>, java.io.Serializable {
+
+  /** The queued items */
+  final @Nullable Object[] items;
+
+  /** items index for next take, poll, peek or remove */
+  int takeIndex;
+
+  /** items index for next put, offer, or add */
+  int putIndex;
+
+  /** Number of elements in the queue */
+  int count;
+
+  /*
+   * Concurrency control uses the classic two-condition algorithm
+   * found in any textbook.
+   */
+
+  /** Main lock guarding all access */
+  final ReentrantLock lock;
+
+  /** Condition for waiting takes */
+  private final Condition notEmpty;
+
+  /** Condition for waiting puts */
+  private final Condition notFull;
+
+  // Internal helper methods
+
+  /** Circularly increments i. */
+  final int inc(int i) {
+    return (++i == items.length) ? 0 : i;
+  }
+
+  /** Circularly decrements i. */
+  final int dec(int i) {
+    return ((i == 0) ? items.length : i) - 1;
+  }
+
+  /** Returns item at index i. */
+  @SuppressWarnings("unchecked")
+  final @Nullable E itemAt(int i) {
+    return (E) items[i];
+  }
+
+  /**
+   * Signals {@code condition} after a bulk operation changed {@code n} slots. A single slot wakes
+   * a single waiter, larger batches wake all of them at once.
+   */
+  private static void signalBatch(Condition condition, int n) {
+    if (n == 1) {
+      condition.signal();
+    } else if (n > 1) {
+      condition.signalAll();
+    }
+  }
+
+  /**
+   * Inserts element at current put position, advances, and signals. Call only when holding lock.
+   */
+  private void enqueue(E x) {
+    // assert lock.getHoldCount() == 1;
+    // assert items[putIndex] == null;
+    final @Nullable Object[] items = this.items;
+    items[putIndex] = x;
+    if (++putIndex == items.length) {
+      putIndex = 0;
+    }
+    count++;
+    notEmpty.signal();
+  }
+
+  /**
+   * Extracts element at current take position, advances, and signals. Call only when holding lock.
+   */
+  @SuppressWarnings("unchecked")
+  private E dequeue() {
+    // assert lock.getHoldCount() == 1;
+    // assert items[takeIndex] != null;
+    final @Nullable Object[] items = this.items;
+    E x = (E) items[takeIndex];
+    items[takeIndex] = null;
+    if (++takeIndex == items.length) {
+      takeIndex = 0;
+    }
+    count--;
+    notFull.signal();
+    return x;
+  }
+
+  /**
+   * Deletes item at array index removeIndex. Utility for remove(Object) and iterator.remove. Call
+   * only when holding lock.
+   */
+  void removeAt(final int removeIndex) {
+    // assert lock.getHoldCount() == 1;
+    // assert items[removeIndex] != null;
+    // assert removeIndex >= 0 && removeIndex < items.length;
+    final @Nullable Object[] items = this.items;
+    if (removeIndex == takeIndex) {
+      // removing front item; just advance
+      items[takeIndex] = null;
+      if (++takeIndex == items.length) {
+        takeIndex = 0;
+      }
+      count--;
+    } else {
+      // an "interior" remove
+
+      // slide over all others up through putIndex.
+      final int putIndex = this.putIndex;
+      for (int i = removeIndex; ; ) {
+        int next = i + 1;
+        if (next == items.length) {
+          next = 0;
+        }
+        if (next != putIndex) {
+          items[i] = items[next];
+          i = next;
+        } else {
+          items[i] = null;
+          this.putIndex = i;
+          break;
+        }
+      }
+      count--;
+    }
+    notFull.signal();
+  }
+
+  /**
+   * Creates an {@code ArrayBlockingQueue} with the given (fixed) capacity.
+   *
+   * @param capacity the capacity of this queue
+   * @throws IllegalArgumentException if {@code capacity < 1}
+   */
+  public ArrayBlockingQueue(int capacity) {
+    this(capacity, false);
+  }
+
+  /**
+   * Creates an {@code ArrayBlockingQueue} with the given (fixed) capacity and the specified access
+   * policy. Fairness is not supported, so {@code fair} is ignored.
+   *
+   * @param capacity the capacity of this queue
+   * @param fair ignored
+   * @throws IllegalArgumentException if {@code capacity < 1}
+   */
+  public ArrayBlockingQueue(int capacity, boolean fair) {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException();
+    }
+    this.items = new Object[capacity];
+    lock = new ReentrantLock();
+    notEmpty = lock.newCondition();
+    notFull = lock.newCondition();
+  }
+
+  /**
+   * Creates an {@code ArrayBlockingQueue} with the given (fixed) capacity, the specified access
+   * policy and initially containing the elements of the given collection, added in traversal order
+   * of the collection's iterator.
+   *
+   * @param capacity the capacity of this queue
+   * @param fair ignored
+   * @param c the collection of elements to initially contain
+   * @throws IllegalArgumentException if {@code capacity} is less than {@code c.size()}, or less
+   *     than 1.
+   * @throws NullPointerException if the specified collection or any of its elements are null
+   */
+  public ArrayBlockingQueue(int capacity, boolean fair, Collection<? extends E> c) {
+    this(capacity, fair);
+
+    final ReentrantLock lock = this.lock;
+    lock.lock(); // Lock only for visibility, not mutual exclusion
+    try {
+      int i = 0;
+      for (E e : c) {
+        if (e == null) {
+          throw new NullPointerException();
+        }
+        if (i == capacity) {
+          throw new IllegalArgumentException();
+        }
+        items[i++] = e;
+      }
+      count = i;
+      putIndex = (i == capacity) ? 0 : i;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Inserts the specified element at the tail of this queue if it is possible to do so immediately
+   * without exceeding the queue's capacity, returning {@code true} upon success and throwing an
+   * {@code IllegalStateException} if this queue is full.
+   *
+   * @param e the element to add
+   * @return {@code true} (as specified by {@link Collection#add})
+   * @throws IllegalStateException if this queue is full
+   * @throws NullPointerException if the specified element is null
+   */
+  @Override
+  public boolean add(E e) {
+    return super.add(e);
+  }
+
+  /**
+   * Adds all of the elements in the specified collection to this queue, taking the lock and
+   * signalling waiting takers once for the whole batch. Elements are added in traversal order of
+   * the collection's iterator until the queue is full.
+   *
+   * @param c collection containing elements to be added to this queue
+   * @return {@code true} if this queue changed as a result of the call
+   * @throws IllegalStateException if not all the elements can be added because this queue is full.
+   *     The elements that fit have been added.
+   * @throws NullPointerException if the specified collection or any of its elements are null
+   * @throws IllegalArgumentException if the collection is this queue
+   */
+  @Override
+  public boolean addAll(Collection<? extends E> c) {
+    if (c == this) {
+      throw new IllegalArgumentException();
+    }
+    // Copy outside of the lock; c may be a concurrent collection.
+    @Nullable Object[] a = c.toArray();
+    for (Object e : a) {
+      if (e == null) {
+        throw new NullPointerException();
+      }
+    }
+    if (a.length == 0) {
+      return false;
+    }
+    int n;
+    final ReentrantLock lock = this.lock;
+    lock.lock();
+    try {
+      final @Nullable Object[] items = this.items;
+      n = Math.min(a.length, items.length - count);
+      int put = putIndex;
+      for (int i = 0; i < n; i++) {
+        items[put] = a[i];
+        if (++put == items.length) {
+          put = 0;
+        }
+      }
+      putIndex = put;
+      count += n;
+      signalBatch(notEmpty, n);
+    } finally {
+      lock.unlock();
+    }
+    if (n < a.length) {
+      throw new IllegalStateException("Queue full");
+    }
+    return true;
+  }
+
+  /**
+   * Inserts the specified element at the tail of this queue if it is possible to do so immediately
+   * without exceeding the queue's capacity, returning {@code true} upon success and {@code false}
+   * if this queue is full. This method is generally preferable to method {@link #add}, which can
+   * fail to insert an element only by throwing an exception.
+   *
+   * @throws NullPointerException if the specified element is null
+   */
+  @Override
+  public boolean offer(E e) {
+    if (e == null) {
+      throw new NullPointerException();
+    }
+    final ReentrantLock lock = this.lock;
+    lock.lock();
+    try {
+      if (count == items.length) {
+        return false;
+      } else {
+        enqueue(e);
+        return true;
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Inserts the specified element at the tail of this queue, waiting for space to become available
+   * if the queue is full.
+   *
+   * @throws InterruptedException {@inheritDoc}
+   * @throws NullPointerException {@inheritDoc}
+   */
+  @Override
+  public void put(E e) throws InterruptedException {
+    if (e == null) {
+      throw new NullPointerException();
+    }
+    final ReentrantLock lock = this.lock;
+    lock.lockInterruptibly();
+    try {
+      while (count == items.length) {
+        notFull.await();
+      }
+      enqueue(e);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Inserts the specified element at the tail of this queue, waiting up to the specified wait time
+   * for space to become available if the queue is full.
+   *
+   * @throws InterruptedException {@inheritDoc}
+   * @throws NullPointerException {@inheritDoc}
+   */
+  @Override
+  public boolean offer(E e, long timeout, TimeUnit unit) throws InterruptedException {
+    if (e == null) {
+      throw new NullPointerException();
+    }
+    long nanos = unit.toNanos(timeout);
+    final ReentrantLock lock = this.lock;
+    lock.lockInterruptibly();
+    try {
+      while (count == items.length) {
+        if (nanos <= 0) {
+          return false;
+        }
+        nanos = notFull.awaitNanos(nanos);
+      }
+      enqueue(e);
+      return true;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public @Nullable E poll() {
+    final ReentrantLock lock = this.lock;
+    lock.lock();
+    try {
+      return (count == 0) ? null : dequeue();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public E take() throws InterruptedException {
+    final ReentrantLock lock = this.lock;
+    lock.lockInterruptibly();
+    try {
+      while (count == 0) {
+        notEmpty.await();
+      }
+      return dequeue();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public @Nullable E poll(long timeout, TimeUnit unit) throws InterruptedException {
+    long nanos = unit.toNanos(timeout);
+    final ReentrantLock lock = this.lock;
+    lock.lockInterruptibly();
+    try {
+      while (count == 0) {
+        if (nanos <= 0) {
+          return null;
+        }
+        nanos = notEmpty.awaitNanos(nanos);
+      }
+      return dequeue();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public @Nullable E peek() {
+    final ReentrantLock lock = this.lock;
+    lock.lock();
+    try {
+      return itemAt(takeIndex); // null when queue is empty
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  // this doc comment is overridden to remove the reference to collections
+  // greater in size than Integer.MAX_VALUE
+  /**
+   * Returns the number of elements in this queue.
+   *
+   * @return the number of elements in this queue
+   */
+  @Override
+  public int size() {
+    final ReentrantLock lock = this.lock;
+    lock.lock();
+    try {
+      return count;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  // this doc comment is a modified copy of the inherited doc comment,
+  // without the reference to unlimited queues.
+  /**
+   * Returns the number of additional elements that this queue can ideally (in the absence of memory
+   * or resource constraints) accept without blocking. This is always equal to the initial capacity
+   * of this queue less the current {@code size} of this queue.
+   *
+   * <p>Note that you <em>cannot</em> always tell if an attempt to insert an element will succeed by
+   * inspecting {@code remainingCapacity} because it may be the case that another thread is about to
+   * insert or remove an element.
+   */
+  @Override
+  public int remainingCapacity() {
+    final ReentrantLock lock = this.lock;
+    lock.lock();
+    try {
+      return items.length - count;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Removes a single instance of the specified element from this queue, if it is present. More
+   * formally, removes an element {@code e} such that {@code o.equals(e)}, if this queue contains
+   * one or more such elements. Returns {@code true} if this queue contained the specified element
+   * (or equivalently, if this queue changed as a result of the call).
+   *
+   * <p>Removal of interior elements in circular array based queues is an intrinsically slow and
+   * disruptive operation, so should be undertaken only in exceptional circumstances, ideally only
+   * when the queue is known not to be accessible by other threads.
+   *
+   * @param o element to be removed from this queue, if present
+   * @return {@code true} if this queue changed as a result of the call
+   */
+  @Override
+  public boolean remove(@Nullable Object o) {
+    if (o == null) {
+      return false;
+    }
+    final @Nullable Object[] items = this.items;
+    final ReentrantLock lock = this.lock;
+    lock.lock();
+    try {
+      if (count > 0) {
+        final int putIndex = this.putIndex;
+        int i = takeIndex;
+        do {
+          if (o.equals(items[i])) {
+            removeAt(i);
+            return true;
+          }
+          if (++i == items.length) {
+            i = 0;
+          }
+        } while (i != putIndex);
+      }
+      return false;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Returns {@code true} if this queue contains the specified element. More formally, returns
+   * {@code true} if and only if this queue contains at least one element {@code e} such that {@code
+   * o.equals(e)}.
+   *
+   * @param o object to be checked for containment in this queue
+   * @return {@code true} if this queue contains the specified element
+   */
+  @Override
+  public boolean contains(@Nullable Object o) {
+    if (o == null) {
+      return false;
+    }
+    final @Nullable Object[] items = this.items;
+    final ReentrantLock lock = this.lock;
+    lock.lock();
+    try {
+      if (count > 0) {
+        final int putIndex = this.putIndex;
+        int i = takeIndex;
+        do {
+          if (o.equals(items[i])) {
+            return true;
+          }
+          if (++i == items.length) {
+            i = 0;
+          }
+        } while (i != putIndex);
+      }
+      return false;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Returns an array containing all of the elements in this queue, in proper sequence.
+   *
+   * <p>The returned array will be "safe" in that no references to it are maintained by this queue.
+   * (In other words, this method must allocate a new array). The caller is thus free to modify the
+   * returned array.
+   *
+   * <p>This method acts as bridge between array-based and collection-based APIs.
+   *
+   * @return an array containing all of the elements in this queue
+   */
+  @Override
+  public @Nullable Object[] toArray() {
+    final ReentrantLock lock = this.lock;
+    lock.lock();
+    try {
+      @Nullable Object[] a = new Object[count];
+      copyTo(a);
+      return a;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Returns an array containing all of the elements in this queue, in proper sequence; the runtime
+   * type of the returned array is that of the specified array. If the queue fits in the specified
+   * array, it is returned therein. Otherwise, a new array is allocated with the runtime type of the
+   * specified array and the size of this queue.
+   *
+   * <p>If this queue fits in the specified array with room to spare (i.e., the array has more
+   * elements than this queue), the element in the array immediately following the end of the queue
+   * is set to {@code null}.
+   *
+   * @param a the array into which the elements of the queue are to be stored, if it is big enough;
+   *     otherwise, a new array of the same runtime type is allocated for this purpose
+   * @return an array containing all of the elements in this queue
+   * @throws ArrayStoreException if the runtime type of the specified array is not a supertype of
+   *     the runtime type of every element in this queue
+   * @throws NullPointerException if the specified array is null
+   */
+  @Override
+  @SuppressWarnings("unchecked")
+  public <T extends @Nullable Object> T[] toArray(T[] a) {
+    final ReentrantLock lock = this.lock;
+    lock.lock();
+    try {
+      final int count = this.count;
+      final int len = a.length;
+      if (len < count) {
+        a = (T[]) java.lang.reflect.Array.newInstance(a.getClass().getComponentType(), count);
+      }
+      copyTo(a);
+      if (len > count) {
+        a[count] = null;
+      }
+      return a;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** Copies the elements in proper sequence to the start of {@code a}. Call only holding lock. */
+  private void copyTo(@Nullable Object[] a) {
+    final @Nullable Object[] items = this.items;
+    int n = items.length - takeIndex;
+    if (count <= n) {
+      System.arraycopy(items, takeIndex, a, 0, count);
+    } else {
+      System.arraycopy(items, takeIndex, a, 0, n);
+      System.arraycopy(items, 0, a, n, count - n);
+    }
+  }
+
+  @Override
+  public String toString() {
+    final ReentrantLock lock = this.lock;
+    lock.lock();
+    try {
+      int k = count;
+      if (k == 0) {
+        return "[]";
+      }
+
+      final @Nullable Object[] items = this.items;
+      StringBuilder sb = new StringBuilder();
+      sb.append('[');
+      for (int i = takeIndex; ; ) {
+        Object e = items[i];
+        sb.append(e == this ? "(this Collection)" : e);
+        if (--k == 0) {
+          return sb.append(']').toString();
+        }
+        sb.append(',').append(' ');
+        if (++i == items.length) {
+          i = 0;
+        }
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Atomically removes all of the elements from this queue. The queue will be empty after this call
+   * returns.
+   */
+  @Override
+  public void clear() {
+    final @Nullable Object[] items = this.items;
+    final ReentrantLock lock = this.lock;
+    lock.lock();
+    try {
+      int k = count;
+      if (k > 0) {
+        final int putIndex = this.putIndex;
+        int i = takeIndex;
+        do {
+          items[i] = null;
+          if (++i == items.length) {
+            i = 0;
+          }
+        } while (i != putIndex);
+        takeIndex = putIndex;
+        count = 0;
+        signalBatch(notFull, k);
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * @throws UnsupportedOperationException {@inheritDoc}
+   * @throws ClassCastException {@inheritDoc}
+   * @throws NullPointerException {@inheritDoc}
+   * @throws IllegalArgumentException {@inheritDoc}
+   */
+  @Override
+  public int drainTo(Collection<? super E> c) {
+    return drainTo(c, Integer.MAX_VALUE);
+  }
+
+  /**
+   * Removes at most the given number of available elements from this queue and adds them to the
+   * given collection, taking the lock and signalling waiting putters once for the whole batch.
+   *
+   * @throws UnsupportedOperationException {@inheritDoc}
+   * @throws ClassCastException {@inheritDoc}
+   * @throws NullPointerException {@inheritDoc}
+   * @throws IllegalArgumentException {@inheritDoc}
+   */
+  @Override
+  public int drainTo(Collection<? super E> c, int maxElements) {
+    if (c == this) {
+      throw new IllegalArgumentException();
+    }
+    if (maxElements <= 0) {
+      return 0;
+    }
+    final @Nullable Object[] items = this.items;
+    final ReentrantLock lock = this.lock;
+    lock.lock();
+    try {
+      int n = Math.min(maxElements, count);
+      int take = takeIndex;
+      int i = 0;
+      try {
+        while (i < n) {
+          @SuppressWarnings("unchecked")
+          E x = (E) items[take];
+          c.add(x);
+          items[take] = null;
+          if (++take == items.length) {
+            take = 0;
+          }
+          i++;
+        }
+        return n;
+      } finally {
+        // Restore invariants even if c.add() threw
+        if (i > 0) {
+          count -= i;
+          takeIndex = take;
+          signalBatch(notFull, i);
+        }
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Returns an iterator over the elements in this queue in proper sequence. The elements will be
+   * returned in order from first (head) to last (tail).
+   *
+   * <p>The returned iterator is a "weakly consistent" iterator that will never throw {@link
+   * java.util.ConcurrentModificationException ConcurrentModificationException}, and guarantees to
+   * traverse elements as they existed upon construction of the iterator, and may (but is not
+   * guaranteed to) reflect any modifications subsequent to construction.
+   *
+   * @return an iterator over the elements in this queue in proper sequence
+   */
+  @Override
+  public Iterator<E> iterator() {
+    return new Itr();
+  }
+
+  /** Iterator for ArrayBlockingQueue. */
+  private class Itr implements Iterator<E> {
+    private int remaining; // Number of elements yet to be returned
+    private int nextIndex; // Index of element to be returned by next
+    private @Nullable E nextItem; // Element to be returned by next call to next
+    private @Nullable E lastItem; // Element returned by last call to next
+    private int lastRet; // Index of last element returned, or -1 if none
+
+    Itr() {
+      final ReentrantLock lock = ArrayBlockingQueue.this.lock;
+      lock.lock();
+      try {
+        lastRet = -1;
+        if ((remaining = count) > 0) {
+          nextItem = itemAt(nextIndex = takeIndex);
+        }
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    @Override
+    public boolean hasNext() {
+      return remaining > 0;
+    }
+
+    @Override
+    public E next() {
+      final ReentrantLock lock = ArrayBlockingQueue.this.lock;
+      lock.lock();
+      try {
+        if (remaining <= 0) {
+          throw new NoSuchElementException();
+        }
+        lastRet = nextIndex;
+        E x = itemAt(nextIndex); // check for fresher value
+        if (x == null) {
+          x = nextItem; // we are forced to report old value
+          lastItem = null; // but ensure remove fails
+        } else {
+          lastItem = x;
+        }
+        while (--remaining > 0 // skip over nulls
+            && (nextItem = itemAt(nextIndex = inc(nextIndex))) == null) {}
+        return x;
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    @Override
+    public void remove() {
+      final ReentrantLock lock = ArrayBlockingQueue.this.lock;
+      lock.lock();
+      try {
+        int i = lastRet;
+        if (i == -1) {
+          throw new IllegalStateException();
+        }
+        lastRet = -1;
+        E x = lastItem;
+        lastItem = null;
+        // only remove if item still at index
+        if (x != null && x == items[i]) {
+          boolean removingHead = (i == takeIndex);
+          removeAt(i);
+          if (!removingHead) {
+            nextIndex = dec(nextIndex);
+          }
+        }
+      } finally {
+        lock.unlock();
+      }
+    }
+  }
+}
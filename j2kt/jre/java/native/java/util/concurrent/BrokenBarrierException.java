@@ -0,0 +1,33 @@
+/*
+ * Written by Doug Lea with assistance from members of JCP JSR-166
+ * Expert Group and released to the public domain, as explained at
+ * http://creativecommons.org/publicdomain/zero/1.0/
+ */
+
+package java.util.concurrent;
+
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Exception thrown when a thread tries to wait upon a barrier that is in a broken state, or which
+ * enters the broken state while the thread is waiting.
+ *
+ * @see CyclicBarrier
+ * @since 1.5
+ * @author Doug Lea
+ */
+@NullMarked
+public class BrokenBarrierException extends Exception {
+  /** Constructs a {@code BrokenBarrierException} with no specified detail message. */
+  public BrokenBarrierException() {}
+
+  /**
+   * Constructs a {@code BrokenBarrierException} with the specified detail message.
+   *
+   * @param message the detail message
+   */
+  public BrokenBarrierException(@Nullable String message) {
+    super(message);
+  }
+}
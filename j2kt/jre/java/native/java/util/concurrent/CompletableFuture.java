@@ -0,0 +1,1112 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package java.util.concurrent;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * A {@link Future} that may be explicitly completed, and may be used as a {@link CompletionStage}.
+ *
+ * <p>Dependent stages are recorded as actions on a lock-free Treiber stack and are run by the
+ * thread that completes this future, or by the thread that adds them if this future is already
+ * complete. No thread is parked for a stage that has not completed yet; only {@link #get} and
+ * {@link #join} block. Async stages without an explicit executor run on the {@link
+ * ForkJoinPool#commonPool()}, and timeouts are scheduled on a single shared {@link KotlinExecutor}.
+ *
+ * @param <T> the result type returned by this future's {@code join} and {@code get} methods
+ */
+@NullMarked
+public class CompletableFuture<T extends @Nullable Object>
+    implements Future<T>, CompletionStage<T> {
+
+  /** Null values and exceptional results are encoded as AltResults. */
+  private static final class AltResult {
+    final @Nullable Throwable ex; // null only for NIL
+
+    AltResult(@Nullable Throwable ex) {
+      this.ex = ex;
+    }
+  }
+
+  /** The encoding of the null value. */
+  private static final AltResult NIL = new AltResult(null);
+
+  /** Default executor for async stages. */
+  private static final Executor ASYNC_POOL = ForkJoinPool.commonPool();
+
+  /**
+   * Upper bound for a single park of a pool worker blocked in get or join, after which it looks
+   * for tasks to help with again.
+   */
+  private static final long HELP_RESCAN_NANOS = 100_000L;
+
+  /** Either null while incomplete, the result value, or an AltResult. */
+  private final AtomicReference<@Nullable Object> result = new AtomicReference<>();
+
+  /** Treiber stack of actions to run once complete. */
+  private final AtomicReference<@Nullable Completion> stack = new AtomicReference<>();
+
+  /**
+   * Whether a completion of this future is being fired in nested mode, in which case the thread
+   * that fires it runs the dependents of this future instead of the thread that completes it.
+   */
+  private volatile boolean deferPostComplete;
+
+  /** Creates a new incomplete CompletableFuture. */
+  public CompletableFuture() {}
+
+  private CompletableFuture(Object r) {
+    result.set(r);
+  }
+
+  // Static factories.
+
+  /**
+   * Returns a new CompletableFuture that is asynchronously completed by a task running in the
+   * {@link ForkJoinPool#commonPool()} with the value obtained by calling the given Supplier.
+   */
+  public static <U extends @Nullable Object> CompletableFuture<U> supplyAsync(
+      Supplier<U> supplier) {
+    return supplyAsync(supplier, ASYNC_POOL);
+  }
+
+  /**
+   * Returns a new CompletableFuture that is asynchronously completed by a task running in the given
+   * executor with the value obtained by calling the given Supplier.
+   */
+  public static <U extends @Nullable Object> CompletableFuture<U> supplyAsync(
+      Supplier<U> supplier, Executor executor) {
+    CompletableFuture<U> d = new CompletableFuture<>();
+    fire(d, executor, () -> d.completeValue(supplier.get()));
+    return d;
+  }
+
+  /**
+   * Returns a new CompletableFuture that is asynchronously completed by a task running in the
+   * {@link ForkJoinPool#commonPool()} after it runs the given action.
+   */
+  public static CompletableFuture<@Nullable Void> runAsync(Runnable runnable) {
+    return runAsync(runnable, ASYNC_POOL);
+  }
+
+  /**
+   * Returns a new CompletableFuture that is asynchronously completed by a task running in the given
+   * executor after it runs the given action.
+   */
+  public static CompletableFuture<@Nullable Void> runAsync(Runnable runnable, Executor executor) {
+    return supplyAsync(
+        () -> {
+          runnable.run();
+          return null;
+        },
+        executor);
+  }
+
+  /** Returns a new CompletableFuture that is already completed with the given value. */
+  public static <U extends @Nullable Object> CompletableFuture<U> completedFuture(U value) {
+    return new CompletableFuture<U>(value == null ? NIL : value);
+  }
+
+  /** Returns a new CompletionStage that is already completed with the given value. */
+  public static <U extends @Nullable Object> CompletionStage<U> completedStage(U value) {
+    return completedFuture(value);
+  }
+
+  /**
+   * Returns a new CompletableFuture that is already completed exceptionally with the given
+   * exception.
+   */
+  public static <U extends @Nullable Object> CompletableFuture<U> failedFuture(Throwable ex) {
+    return new CompletableFuture<U>(new AltResult(ex));
+  }
+
+  /**
+   * Returns a new CompletionStage that is already completed exceptionally with the given exception.
+   */
+  public static <U extends @Nullable Object> CompletionStage<U> failedStage(Throwable ex) {
+    return failedFuture(ex);
+  }
+
+  /**
+   * Returns a new CompletableFuture that is completed when all of the given CompletableFutures
+   * complete. If any of them completed exceptionally, the returned future does so as well, with a
+   * CompletionException holding the first such exception in argument order as its cause.
+   */
+  public static CompletableFuture<@Nullable Void> allOf(CompletableFuture<?>... cfs) {
+    CompletableFuture<@Nullable Void> d = new CompletableFuture<>();
+    if (cfs.length == 0) {
+      d.completeValue(null);
+      return d;
+    }
+    AtomicInteger remaining = new AtomicInteger(cfs.length);
+    Runnable onEach =
+        () -> {
+          if (remaining.decrementAndGet() == 0) {
+            for (CompletableFuture<?> cf : cfs) {
+              Object r = cf.encodedResult();
+              if (exception(r) != null) {
+                d.completeRelay(r);
+                return;
+              }
+            }
+            d.completeValue(null);
+          }
+        };
+    for (CompletableFuture<?> cf : cfs) {
+      cf.addCompletion(d, onEach);
+    }
+    return d;
+  }
+
+  /**
+   * Returns a new CompletableFuture that is completed when any of the given CompletableFutures
+   * complete, with the same result. With no arguments, the returned future never completes.
+   */
+  public static CompletableFuture<@Nullable Object> anyOf(CompletableFuture<?>... cfs) {
+    CompletableFuture<@Nullable Object> d = new CompletableFuture<>();
+    for (CompletableFuture<?> cf : cfs) {
+      cf.addCompletion(d, () -> d.completeRelay(cf.encodedResult()));
+    }
+    return d;
+  }
+
+  /**
+   * Returns a new Executor that submits a task to the given base executor after the given delay.
+   */
+  public static Executor delayedExecutor(long delay, TimeUnit unit, Executor executor) {
+    return command -> Delayer.delay(() -> executor.execute(command), delay, unit);
+  }
+
+  /**
+   * Returns a new Executor that submits a task to the default executor after the given delay.
+   */
+  public static Executor delayedExecutor(long delay, TimeUnit unit) {
+    return delayedExecutor(delay, unit, ASYNC_POOL);
+  }
+
+  // Future and explicit completion.
+
+  @Override
+  public T get() throws InterruptedException, ExecutionException {
+    Object r = result.get();
+    return reportGet(r != null ? r : waitingGet(false, 0L));
+  }
+
+  @Override
+  public T get(long timeout, TimeUnit unit)
+      throws InterruptedException, ExecutionException, TimeoutException {
+    Object r = result.get();
+    if (r == null) {
+      r = waitingGet(true, unit.toNanos(timeout));
+      if (r == null) {
+        throw new TimeoutException();
+      }
+    }
+    return reportGet(r);
+  }
+
+  /**
+   * Returns the result value when complete, or throws an (unchecked) exception if completed
+   * exceptionally: a {@link CancellationException} if cancelled, and otherwise a {@link
+   * CompletionException} with the underlying exception as its cause.
+   */
+  public T join() {
+    Object r = result.get();
+    return reportJoin(r != null ? r : waitingGet(false, 0L));
+  }
+
+  /**
+   * Returns the result value (or throws any encountered exception) if completed, else returns the
+   * given valueIfAbsent.
+   */
+  public T getNow(T valueIfAbsent) {
+    Object r = result.get();
+    return r == null ? valueIfAbsent : reportJoin(r);
+  }
+
+  /**
+   * If not already completed, sets the value returned by {@link #get()} and related methods to the
+   * given value.
+   *
+   * @return {@code true} if this invocation caused this CompletableFuture to transition to a
+   *     completed state, else {@code false}
+   */
+  public boolean complete(T value) {
+    return completeValue(value);
+  }
+
+  /**
+   * If not already completed, causes invocations of {@link #get()} and related methods to throw
+   * the given exception.
+   *
+   * @return {@code true} if this invocation caused this CompletableFuture to transition to a
+   *     completed state, else {@code false}
+   */
+  public boolean completeExceptionally(Throwable ex) {
+    return completeEncoded(new AltResult(ex));
+  }
+
+  /**
+   * If not already completed, completes this CompletableFuture with a {@link
+   * CancellationException}. Dependent CompletableFutures that have not already completed will also
+   * complete exceptionally, with a {@link CompletionException} caused by this {@code
+   * CancellationException}.
+   */
+  @Override
+  public boolean cancel(boolean mayInterruptIfRunning) {
+    boolean cancelled = completeEncoded(new AltResult(new CancellationException()));
+    return cancelled || isCancelled();
+  }
+
+  @Override
+  public boolean isCancelled() {
+    return exception(result.get()) instanceof CancellationException;
+  }
+
+  @Override
+  public boolean isDone() {
+    return result.get() != null;
+  }
+
+  /** Returns {@code true} if this CompletableFuture completed exceptionally, in any way. */
+  public boolean isCompletedExceptionally() {
+    return exception(result.get()) != null;
+  }
+
+  /**
+   * Forcibly sets or resets the value subsequently returned by method {@link #get()} and related
+   * methods, whether or not already completed.
+   */
+  public void obtrudeValue(T value) {
+    result.set(value == null ? NIL : value);
+    postComplete();
+  }
+
+  /**
+   * Forcibly causes subsequent invocations of method {@link #get()} and related methods to throw
+   * the given exception, whether or not already completed.
+   */
+  public void obtrudeException(Throwable ex) {
+    result.set(new AltResult(ex));
+    postComplete();
+  }
+
+  /** Returns the estimated number of CompletableFutures whose completions are awaiting this one. */
+  public int getNumberOfDependents() {
+    int count = 0;
+    for (Completion p = stack.get(); p != null; p = p.next) {
+      count++;
+    }
+    return count;
+  }
+
+  /**
+   * Exceptionally completes this CompletableFuture with a {@link TimeoutException} if not otherwise
+   * completed before the given timeout.
+   *
+   * @return this CompletableFuture
+   */
+  public CompletableFuture<T> orTimeout(long timeout, TimeUnit unit) {
+    if (result.get() == null) {
+      ScheduledFuture<?> timer =
+          Delayer.delay(() -> completeExceptionally(new TimeoutException()), timeout, unit);
+      addCompletion(null, () -> timer.cancel(false));
+    }
+    return this;
+  }
+
+  /**
+   * Completes this CompletableFuture with the given value if not otherwise completed before the
+   * given timeout.
+   *
+   * @return this CompletableFuture
+   */
+  public CompletableFuture<T> completeOnTimeout(T value, long timeout, TimeUnit unit) {
+    if (result.get() == null) {
+      ScheduledFuture<?> timer = Delayer.delay(() -> completeValue(value), timeout, unit);
+      addCompletion(null, () -> timer.cancel(false));
+    }
+    return this;
+  }
+
+  /**
+   * Completes this CompletableFuture with the result of the given Supplier function invoked from
+   * an asynchronous task using the given executor.
+   *
+   * @return this CompletableFuture
+   */
+  public CompletableFuture<T> completeAsync(Supplier<? extends T> supplier, Executor executor) {
+    fire(this, executor, () -> completeValue(supplier.get()));
+    return this;
+  }
+
+  /**
+   * Completes this CompletableFuture with the result of the given Supplier function invoked from
+   * an asynchronous task using the default executor.
+   *
+   * @return this CompletableFuture
+   */
+  public CompletableFuture<T> completeAsync(Supplier<? extends T> supplier) {
+    return completeAsync(supplier, defaultExecutor());
+  }
+
+  /**
+   * Returns a new incomplete CompletableFuture of the type to be returned by a CompletionStage
+   * method. Subclasses should normally override this method to return an instance of the same
+   * class as this CompletableFuture.
+   */
+  public <U extends @Nullable Object> CompletableFuture<U> newIncompleteFuture() {
+    return new CompletableFuture<U>();
+  }
+
+  /**
+   * Returns the default Executor used for async methods that do not specify an Executor, which is
+   * the {@link ForkJoinPool#commonPool()}.
+   */
+  public Executor defaultExecutor() {
+    return ASYNC_POOL;
+  }
+
+  /**
+   * Returns a new CompletableFuture that is completed normally with the same value as this
+   * CompletableFuture when it completes normally, and exceptionally with a CompletionException
+   * otherwise.
+   */
+  public CompletableFuture<T> copy() {
+    CompletableFuture<T> d = newIncompleteFuture();
+    addCompletion(d, () -> d.completeRelay(encodedResult()));
+    return d;
+  }
+
+  @Override
+  public CompletableFuture<T> toCompletableFuture() {
+    return this;
+  }
+
+  @Override
+  public String toString() {
+    Object r = result.get();
+    String status;
+    if (r == null) {
+      int count = getNumberOfDependents();
+      status = count == 0 ? "[Incomplete]" : "[Not completed, " + count + " dependents]";
+    } else {
+      Throwable x = exception(r);
+      status = x != null ? "[Completed exceptionally: " + x + "]" : "[Completed normally]";
+    }
+    return super.toString() + status;
+  }
+
+  // CompletionStage.
+
+  @Override
+  public <U extends @Nullable Object> CompletableFuture<U> thenApply(
+      Function<? super T, ? extends U> fn) {
+    return uniApplyStage(null, fn);
+  }
+
+  @Override
+  public <U extends @Nullable Object> CompletableFuture<U> thenApplyAsync(
+      Function<? super T, ? extends U> fn) {
+    return uniApplyStage(defaultExecutor(), fn);
+  }
+
+  @Override
+  public <U extends @Nullable Object> CompletableFuture<U> thenApplyAsync(
+      Function<? super T, ? extends U> fn, Executor executor) {
+    return uniApplyStage(executor, fn);
+  }
+
+  @Override
+  public CompletableFuture<@Nullable Void> thenAccept(Consumer<? super T> action) {
+    return uniApplyStage(null, acceptAsFunction(action));
+  }
+
+  @Override
+  public CompletableFuture<@Nullable Void> thenAcceptAsync(Consumer<? super T> action) {
+    return uniApplyStage(defaultExecutor(), acceptAsFunction(action));
+  }
+
+  @Override
+  public CompletableFuture<@Nullable Void> thenAcceptAsync(
+      Consumer<? super T> action, Executor executor) {
+    return uniApplyStage(executor, acceptAsFunction(action));
+  }
+
+  @Override
+  public CompletableFuture<@Nullable Void> thenRun(Runnable action) {
+    return uniApplyStage(null, runAsFunction(action));
+  }
+
+  @Override
+  public CompletableFuture<@Nullable Void> thenRunAsync(Runnable action) {
+    return uniApplyStage(defaultExecutor(), runAsFunction(action));
+  }
+
+  @Override
+  public CompletableFuture<@Nullable Void> thenRunAsync(Runnable action, Executor executor) {
+    return uniApplyStage(executor, runAsFunction(action));
+  }
+
+  @Override
+  public <U extends @Nullable Object, V extends @Nullable Object> CompletableFuture<V> thenCombine(
+      CompletionStage<? extends U> other, BiFunction<? super T, ? super U, ? extends V> fn) {
+    return biApplyStage(null, other, fn);
+  }
+
+  @Override
+  public <U extends @Nullable Object, V extends @Nullable Object>
+      CompletableFuture<V> thenCombineAsync(
+          CompletionStage<? extends U> other, BiFunction<? super T, ? super U, ? extends V> fn) {
+    return biApplyStage(defaultExecutor(), other, fn);
+  }
+
+  @Override
+  public <U extends @Nullable Object, V extends @Nullable Object>
+      CompletableFuture<V> thenCombineAsync(
+          CompletionStage<? extends U> other,
+          BiFunction<? super T, ? super U, ? extends V> fn,
+          Executor executor) {
+    return biApplyStage(executor, other, fn);
+  }
+
+  @Override
+  public <U extends @Nullable Object> CompletableFuture<@Nullable Void> thenAcceptBoth(
+      CompletionStage<? extends U> other, BiConsumer<? super T, ? super U> action) {
+    return biApplyStage(null, other, acceptBothAsFunction(action));
+  }
+
+  @Override
+  public <U extends @Nullable Object> CompletableFuture<@Nullable Void> thenAcceptBothAsync(
+      CompletionStage<? extends U> other, BiConsumer<? super T, ? super U> action) {
+    return biApplyStage(defaultExecutor(), other, acceptBothAsFunction(action));
+  }
+
+  @Override
+  public <U extends @Nullable Object> CompletableFuture<@Nullable Void> thenAcceptBothAsync(
+      CompletionStage<? extends U> other,
+      BiConsumer<? super T, ? super U> action,
+      Executor executor) {
+    return biApplyStage(executor, other, acceptBothAsFunction(action));
+  }
+
+  @Override
+  public CompletableFuture<@Nullable Void> runAfterBoth(CompletionStage<?> other, Runnable action) {
+    return biApplyStage(null, other, runBothAsFunction(action));
+  }
+
+  @Override
+  public CompletableFuture<@Nullable Void> runAfterBothAsync(
+      CompletionStage<?> other, Runnable action) {
+    return biApplyStage(defaultExecutor(), other, runBothAsFunction(action));
+  }
+
+  @Override
+  public CompletableFuture<@Nullable Void> runAfterBothAsync(
+      CompletionStage<?> other, Runnable action, Executor executor) {
+    return biApplyStage(executor, other, runBothAsFunction(action));
+  }
+
+  @Override
+  public <U extends @Nullable Object> CompletableFuture<U> applyToEither(
+      CompletionStage<? extends T> other, Function<? super T, U> fn) {
+    return orApplyStage(this, null, other, fn);
+  }
+
+  @Override
+  public <U extends @Nullable Object> CompletableFuture<U> applyToEitherAsync(
+      CompletionStage<? extends T> other, Function<? super T, U> fn) {
+    return orApplyStage(this, defaultExecutor(), other, fn);
+  }
+
+  @Override
+  public <U extends @Nullable Object> CompletableFuture<U> applyToEitherAsync(
+      CompletionStage<? extends T> other, Function<? super T, U> fn, Executor executor) {
+    return orApplyStage(this, executor, other, fn);
+  }
+
+  @Override
+  public CompletableFuture<@Nullable Void> acceptEither(
+      CompletionStage<? extends T> other, Consumer<? super T> action) {
+    return orApplyStage(this, null, other, acceptAsFunction(action));
+  }
+
+  @Override
+  public CompletableFuture<@Nullable Void> acceptEitherAsync(
+      CompletionStage<? extends T> other, Consumer<? super T> action) {
+    return orApplyStage(this, defaultExecutor(), other, acceptAsFunction(action));
+  }
+
+  @Override
+  public CompletableFuture<@Nullable Void> acceptEitherAsync(
+      CompletionStage<? extends T> other, Consumer<? super T> action, Executor executor) {
+    return orApplyStage(this, executor, other, acceptAsFunction(action));
+  }
+
+  @Override
+  public CompletableFuture<@Nullable Void> runAfterEither(
+      CompletionStage<?> other, Runnable action) {
+    return CompletableFuture.<@Nullable Object, @Nullable Void>orApplyStage(
+        this, null, other, runAsFunction(action));
+  }
+
+  @Override
+  public CompletableFuture<@Nullable Void> runAfterEitherAsync(
+      CompletionStage<?> other, Runnable action) {
+    return CompletableFuture.<@Nullable Object, @Nullable Void>orApplyStage(
+        this, defaultExecutor(), other, runAsFunction(action));
+  }
+
+  @Override
+  public CompletableFuture<@Nullable Void> runAfterEitherAsync(
+      CompletionStage<?> other, Runnable action, Executor executor) {
+    return CompletableFuture.<@Nullable Object, @Nullable Void>orApplyStage(
+        this, executor, other, runAsFunction(action));
+  }
+
+  @Override
+  public <U extends @Nullable Object> CompletableFuture<U> thenCompose(
+      Function<? super T, ? extends CompletionStage<U>> fn) {
+    return uniComposeStage(null, fn);
+  }
+
+  @Override
+  public <U extends @Nullable Object> CompletableFuture<U> thenComposeAsync(
+      Function<? super T, ? extends CompletionStage<U>> fn) {
+    return uniComposeStage(defaultExecutor(), fn);
+  }
+
+  @Override
+  public <U extends @Nullable Object> CompletableFuture<U> thenComposeAsync(
+      Function<? super T, ? extends CompletionStage<U>> fn, Executor executor) {
+    return uniComposeStage(executor, fn);
+  }
+
+  @Override
+  public <U extends @Nullable Object> CompletableFuture<U> handle(
+      BiFunction<? super @Nullable T, @Nullable Throwable, ? extends U> fn) {
+    return uniHandleStage(null, fn);
+  }
+
+  @Override
+  public <U extends @Nullable Object> CompletableFuture<U> handleAsync(
+      BiFunction<? super @Nullable T, @Nullable Throwable, ? extends U> fn) {
+    return uniHandleStage(defaultExecutor(), fn);
+  }
+
+  @Override
+  public <U extends @Nullable Object> CompletableFuture<U> handleAsync(
+      BiFunction<? super @Nullable T, @Nullable Throwable, ? extends U> fn, Executor executor) {
+    return uniHandleStage(executor, fn);
+  }
+
+  @Override
+  public CompletableFuture<T> whenComplete(
+      BiConsumer<? super @Nullable T, ? super @Nullable Throwable> action) {
+    return uniWhenCompleteStage(null, action);
+  }
+
+  @Override
+  public CompletableFuture<T> whenCompleteAsync(
+      BiConsumer<? super @Nullable T, ? super @Nullable Throwable> action) {
+    return uniWhenCompleteStage(defaultExecutor(), action);
+  }
+
+  @Override
+  public CompletableFuture<T> whenCompleteAsync(
+      BiConsumer<? super @Nullable T, ? super @Nullable Throwable> action, Executor executor) {
+    return uniWhenCompleteStage(executor, action);
+  }
+
+  @Override
+  public CompletableFuture<T> exceptionally(Function<Throwable, ? extends T> fn) {
+    CompletableFuture<T> d = newIncompleteFuture();
+    addCompletion(
+        d,
+        () -> {
+          Object r = encodedResult();
+          Throwable x = exception(r);
+          if (x == null) {
+            d.completeRelay(r);
+          } else {
+            fire(d, null, () -> d.completeValue(fn.apply(x)));
+          }
+        });
+    return d;
+  }
+
+  // Stage implementations. Accepting and running variants are expressed as functions returning
+  // null, so that each kind of dependency has a single implementation.
+
+  private <U extends @Nullable Object> CompletableFuture<U> uniApplyStage(
+      @Nullable Executor executor, Function<? super T, ? extends U> fn) {
+    CompletableFuture<U> d = newIncompleteFuture();
+    addCompletion(
+        d,
+        () -> {
+          Object r = encodedResult();
+          if (exception(r) != null) {
+            d.completeRelay(r);
+          } else {
+            fire(d, executor, () -> d.completeValue(fn.apply(CompletableFuture.<T>value(r))));
+          }
+        });
+    return d;
+  }
+
+  private <U extends @Nullable Object, V extends @Nullable Object>
+      CompletableFuture<V> biApplyStage(
+      @Nullable Executor executor,
+      CompletionStage<? extends U> other,
+      BiFunction<? super T, ? super U, ? extends V> fn) {
+    CompletableFuture<? extends U> b = other.toCompletableFuture();
+    CompletableFuture<V> d = newIncompleteFuture();
+    addCompletion(
+        d,
+        () ->
+            b.addCompletion(
+                d,
+                () -> {
+                  Object r = encodedResult();
+                  Object s = b.encodedResult();
+                  if (exception(r) != null) {
+                    d.completeRelay(r);
+                  } else if (exception(s) != null) {
+                    d.completeRelay(s);
+                  } else {
+                    T t = value(r);
+                    U u = value(s);
+                    fire(d, executor, () -> d.completeValue(fn.apply(t, u)));
+                  }
+                }));
+    return d;
+  }
+
+  /**
+   * Applies {@code fn} to the result of whichever of {@code a} and {@code other} completes first.
+   * Static, so that the run variants can accept sources of unrelated types.
+   */
+  private static <S extends @Nullable Object, U extends @Nullable Object>
+      CompletableFuture<U> orApplyStage(
+          CompletableFuture<? extends S> a,
+          @Nullable Executor executor,
+          CompletionStage<? extends S> other,
+          Function<? super S, U> fn) {
+    CompletableFuture<? extends S> b = other.toCompletableFuture();
+    CompletableFuture<U> d = a.newIncompleteFuture();
+    // Only the first of the two sources to complete runs the function.
+    AtomicBoolean claimed = new AtomicBoolean();
+    Consumer<CompletableFuture<? extends S>> onEither =
+        source -> {
+          if (claimed.compareAndSet(false, true)) {
+            Object r = source.encodedResult();
+            if (exception(r) != null) {
+              d.completeRelay(r);
+            } else {
+              S value = value(r);
+              fire(d, executor, () -> d.completeValue(fn.apply(value)));
+            }
+          }
+        };
+    a.addCompletion(d, () -> onEither.accept(a));
+    b.addCompletion(d, () -> onEither.accept(b));
+    return d;
+  }
+
+  private <U extends @Nullable Object> CompletableFuture<U> uniComposeStage(
+      @Nullable Executor executor, Function<? super T, ? extends CompletionStage<U>> fn) {
+    CompletableFuture<U> d = newIncompleteFuture();
+    addCompletion(
+        d,
+        () -> {
+          Object r = encodedResult();
+          if (exception(r) != null) {
+            d.completeRelay(r);
+          } else {
+            fire(
+                d,
+                executor,
+                () -> {
+                  CompletableFuture<U> g =
+                      fn.apply(CompletableFuture.<T>value(r)).toCompletableFuture();
+                  g.addCompletion(d, () -> d.completeRelay(g.encodedResult()));
+                });
+          }
+        });
+    return d;
+  }
+
+  private <U extends @Nullable Object> CompletableFuture<U> uniHandleStage(
+      @Nullable Executor executor,
+      BiFunction<? super @Nullable T, @Nullable Throwable, ? extends U> fn) {
+    CompletableFuture<U> d = newIncompleteFuture();
+    addCompletion(
+        d,
+        () -> {
+          Object r = encodedResult();
+          fire(
+              d,
+              executor,
+              () -> d.completeValue(fn.apply(CompletableFuture.<T>value(r), exception(r))));
+        });
+    return d;
+  }
+
+  private CompletableFuture<T> uniWhenCompleteStage(
+      @Nullable Executor executor,
+      BiConsumer<? super @Nullable T, ? super @Nullable Throwable> action) {
+    CompletableFuture<T> d = newIncompleteFuture();
+    addCompletion(
+        d,
+        () -> {
+          Object r = encodedResult();
+          fire(
+              d,
+              executor,
+              () -> {
+                Throwable x = exception(r);
+                try {
+                  action.accept(CompletableFuture.<T>value(r), x);
+                } catch (Throwable ex) {
+                  if (x == null) {
+                    throw ex;
+                  }
+                  if (x != ex) {
+                    x.addSuppressed(ex);
+                  }
+                }
+                d.completeRelay(r);
+              });
+        });
+    return d;
+  }
+
+  private static <T extends @Nullable Object> Function<T, @Nullable Void> acceptAsFunction(
+      Consumer<? super T> action) {
+    return t -> {
+      action.accept(t);
+      return null;
+    };
+  }
+
+  private static <T extends @Nullable Object> Function<T, @Nullable Void> runAsFunction(
+      Runnable action) {
+    return t -> {
+      action.run();
+      return null;
+    };
+  }
+
+  private static <T extends @Nullable Object, U extends @Nullable Object>
+      BiFunction<T, U, @Nullable Void> acceptBothAsFunction(
+          BiConsumer<? super T, ? super U> action) {
+    return (t, u) -> {
+      action.accept(t, u);
+      return null;
+    };
+  }
+
+  private static <T extends @Nullable Object, U extends @Nullable Object>
+      BiFunction<T, U, @Nullable Void> runBothAsFunction(Runnable action) {
+    return (t, u) -> {
+      action.run();
+      return null;
+    };
+  }
+
+  /**
+   * Runs {@code body}, which is expected to complete {@code d}, either directly or on the given
+   * executor. If {@code body} throws or the executor rejects it, {@code d} completes exceptionally.
+   */
+  private static void fire(CompletableFuture<?> d, @Nullable Executor executor, Runnable body) {
+    if (executor == null) {
+      runBody(d, body);
+      return;
+    }
+    try {
+      executor.execute(() -> runBody(d, body));
+    } catch (Throwable ex) {
+      d.completeThrowable(ex);
+    }
+  }
+
+  private static void runBody(CompletableFuture<?> d, Runnable body) {
+    if (d.result.get() == null) {
+      try {
+        body.run();
+      } catch (Throwable ex) {
+        d.completeThrowable(ex);
+      }
+    }
+  }
+
+  // Completion internals.
+
+  /** A node of the Treiber stack of actions to run on completion. */
+  private static final class Completion {
+    /** The future that the action may complete, or null if it completes none. */
+    final @Nullable CompletableFuture<?> dep;
+
+    final Runnable action;
+    @Nullable Completion next;
+
+    Completion(@Nullable CompletableFuture<?> dep, Runnable action) {
+      this.dep = dep;
+      this.action = action;
+    }
+
+    /**
+     * Runs the action. In nested mode, that is from {@link #postComplete}, completing {@link #dep}
+     * does not run its dependents; instead the dependent is returned if it is complete, so that the
+     * caller runs them without growing the stack.
+     */
+    @Nullable CompletableFuture<?> tryFire(boolean nested) {
+      CompletableFuture<?> d = dep;
+      if (!nested || d == null) {
+        action.run();
+        return null;
+      }
+      d.deferPostComplete = true;
+      try {
+        action.run();
+      } finally {
+        d.deferPostComplete = false;
+      }
+      // A completion that skipped postComplete while the flag was set is seen here.
+      return d.result.get() != null ? d : null;
+    }
+  }
+
+  /**
+   * Runs the given action, which may complete {@code dep}, once this future completes: right away
+   * if it is already complete, and otherwise from the thread that completes it.
+   */
+  private void addCompletion(@Nullable CompletableFuture<?> dep, Runnable action) {
+    Completion c = new Completion(dep, action);
+    if (result.get() != null || !tryPushCompletion(c)) {
+      c.tryFire(false);
+    }
+  }
+
+  /** Pushes the given completion unless already complete. Returns whether it was pushed. */
+  private boolean tryPushCompletion(Completion c) {
+    for (; ; ) {
+      if (result.get() != null) {
+        return false;
+      }
+      Completion h = stack.get();
+      c.next = h;
+      if (stack.compareAndSet(h, c)) {
+        break;
+      }
+    }
+    // The result may have been set while pushing, after the completing thread drained the stack.
+    if (result.get() != null) {
+      postComplete();
+    }
+    return true;
+  }
+
+  /** Unconditionally pushes the given completion, which was popped from a dependent's stack. */
+  private void pushStack(Completion c) {
+    Completion h;
+    do {
+      h = stack.get();
+      c.next = h;
+    } while (!stack.compareAndSet(h, c));
+  }
+
+  /**
+   * Pops and runs all actions, and then those of the dependents they complete. Each action is
+   * popped, and therefore run, exactly once. To keep the call stack flat on long chains of stages,
+   * actions of a completed dependent are moved onto this stack, except for the last one, which is
+   * run directly.
+   */
+  private void postComplete() {
+    CompletableFuture<?> f = this;
+    Completion h;
+    while ((h = f.stack.get()) != null || (f != this && (h = (f = this).stack.get()) != null)) {
+      Completion t = h.next;
+      if (f.stack.compareAndSet(h, t)) {
+        if (t != null) {
+          if (f != this) {
+            pushStack(h);
+            continue;
+          }
+          h.next = null; // unlink to help gc
+        }
+        CompletableFuture<?> d = h.tryFire(true);
+        f = d == null ? this : d;
+      }
+    }
+  }
+
+  private boolean completeEncoded(Object r) {
+    if (result.compareAndSet(null, r)) {
+      if (!deferPostComplete) {
+        postComplete();
+      }
+      return true;
+    }
+    return false;
+  }
+
+  private boolean completeValue(T value) {
+    return completeEncoded(value == null ? NIL : value);
+  }
+
+  private boolean completeThrowable(Throwable x) {
+    return completeEncoded(
+        new AltResult(x instanceof CompletionException ? x : new CompletionException(x)));
+  }
+
+  /**
+   * Completes with the result of a source future. Exceptions are wrapped in a CompletionException,
+   * unless they already are one.
+   */
+  private boolean completeRelay(Object r) {
+    Throwable x = exception(r);
+    if (x != null && !(x instanceof CompletionException)) {
+      r = new AltResult(new CompletionException(x));
+    }
+    return completeEncoded(r);
+  }
+
+  /** Returns the encoded result of a completed future. */
+  private Object encodedResult() {
+    Object r = result.get();
+    if (r == null) {
+      throw new IllegalStateException();
+    }
+    return r;
+  }
+
+  private static @Nullable Throwable exception(@Nullable Object r) {
+    return r instanceof AltResult ? ((AltResult) r).ex : null;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <T extends @Nullable Object> T value(Object r) {
+    return (T) (r instanceof AltResult ? null : r);
+  }
+
+  private static <T extends @Nullable Object> T reportGet(Object r)
+      throws ExecutionException {
+    Throwable x = exception(r);
+    if (x == null) {
+      return value(r);
+    }
+    if (x instanceof CancellationException) {
+      throw (CancellationException) x;
+    }
+    if (x instanceof CompletionException && x.getCause() != null) {
+      x = x.getCause();
+    }
+    throw new ExecutionException(x);
+  }
+
+  private static <T extends @Nullable Object> T reportJoin(Object r) {
+    Throwable x = exception(r);
+    if (x == null) {
+      return value(r);
+    }
+    if (x instanceof CancellationException) {
+      throw (CancellationException) x;
+    }
+    if (x instanceof CompletionException) {
+      throw (CompletionException) x;
+    }
+    throw new CompletionException(x);
+  }
+
+  /**
+   * Blocks until complete or timed out, and returns the encoded result, or null on timeout. A
+   * {@link ForkJoinPool} worker runs queued tasks of its pool while waiting, since the stage it
+   * waits for may be one of them.
+   */
+  private @Nullable Object waitingGet(boolean timed, long nanos) {
+    long deadline = timed ? System.nanoTime() + nanos : 0L;
+    ForkJoinPool.WorkQueue q = ForkJoinPool.currentQueue();
+    Signaller signaller = null;
+    Object r;
+    while ((r = result.get()) == null) {
+      if (q != null) {
+        ForkJoinTask<?> t = q.pool.nextTask(q);
+        if (t != null) {
+          t.doExec();
+          continue;
+        }
+      }
+      long remaining = 0L;
+      if (timed && (remaining = deadline - System.nanoTime()) <= 0L) {
+        break;
+      }
+      if (signaller == null) {
+        signaller = new Signaller();
+        if (!tryPushCompletion(new Completion(null, signaller))) {
+          continue;
+        }
+      }
+      if (q != null) {
+        LockSupport.parkNanos(
+            this, timed ? Math.min(remaining, HELP_RESCAN_NANOS) : HELP_RESCAN_NANOS);
+      } else if (timed) {
+        LockSupport.parkNanos(this, remaining);
+      } else {
+        LockSupport.park(this);
+      }
+    }
+    if (signaller != null) {
+      signaller.thread = null;
+    }
+    return r;
+  }
+
+  /** Completion action that unparks a thread blocked in get or join. */
+  private static final class Signaller implements Runnable {
+    volatile @Nullable Thread thread = Thread.currentThread();
+
+    @Override
+    public void run() {
+      Thread t = thread;
+      if (t != null) {
+        thread = null;
+        LockSupport.unpark(t);
+      }
+    }
+  }
+
+  /** Holder of the scheduler for timeouts and delayed executors, created on first use. */
+  private static final class Delayer {
+    static final ScheduledExecutorService delayer =
+        KotlinExecutor.createSingleThreadScheduledExecutor();
+
+    static ScheduledFuture<?> delay(Runnable command, long delay, TimeUnit unit) {
+      return delayer.schedule(command, delay, unit);
+    }
+  }
+}
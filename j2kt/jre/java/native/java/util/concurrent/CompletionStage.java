@@ -0,0 +1,138 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package java.util.concurrent;
+
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Emulation of CompletionStage.
+ *
+ * @param <T> the type of values the stage produces or consumes
+ */
+@NullMarked
+public interface CompletionStage<T extends @Nullable Object> {
+
+  <U extends @Nullable Object> CompletionStage<U> thenApply(Function<? super T, ? extends U> fn);
+
+  <U extends @Nullable Object> CompletionStage<U> thenApplyAsync(
+      Function<? super T, ? extends U> fn);
+
+  <U extends @Nullable Object> CompletionStage<U> thenApplyAsync(
+      Function<? super T, ? extends U> fn, Executor executor);
+
+  CompletionStage<@Nullable Void> thenAccept(Consumer<? super T> action);
+
+  CompletionStage<@Nullable Void> thenAcceptAsync(Consumer<? super T> action);
+
+  CompletionStage<@Nullable Void> thenAcceptAsync(Consumer<? super T> action, Executor executor);
+
+  CompletionStage<@Nullable Void> thenRun(Runnable action);
+
+  CompletionStage<@Nullable Void> thenRunAsync(Runnable action);
+
+  CompletionStage<@Nullable Void> thenRunAsync(Runnable action, Executor executor);
+
+  <U extends @Nullable Object, V extends @Nullable Object> CompletionStage<V> thenCombine(
+      CompletionStage<? extends U> other, BiFunction<? super T, ? super U, ? extends V> fn);
+
+  <U extends @Nullable Object, V extends @Nullable Object> CompletionStage<V> thenCombineAsync(
+      CompletionStage<? extends U> other, BiFunction<? super T, ? super U, ? extends V> fn);
+
+  <U extends @Nullable Object, V extends @Nullable Object> CompletionStage<V> thenCombineAsync(
+      CompletionStage<? extends U> other,
+      BiFunction<? super T, ? super U, ? extends V> fn,
+      Executor executor);
+
+  <U extends @Nullable Object> CompletionStage<@Nullable Void> thenAcceptBoth(
+      CompletionStage<? extends U> other, BiConsumer<? super T, ? super U> action);
+
+  <U extends @Nullable Object> CompletionStage<@Nullable Void> thenAcceptBothAsync(
+      CompletionStage<? extends U> other, BiConsumer<? super T, ? super U> action);
+
+  <U extends @Nullable Object> CompletionStage<@Nullable Void> thenAcceptBothAsync(
+      CompletionStage<? extends U> other,
+      BiConsumer<? super T, ? super U> action,
+      Executor executor);
+
+  CompletionStage<@Nullable Void> runAfterBoth(CompletionStage<?> other, Runnable action);
+
+  CompletionStage<@Nullable Void> runAfterBothAsync(CompletionStage<?> other, Runnable action);
+
+  CompletionStage<@Nullable Void> runAfterBothAsync(
+      CompletionStage<?> other, Runnable action, Executor executor);
+
+  <U extends @Nullable Object> CompletionStage<U> applyToEither(
+      CompletionStage<? extends T> other, Function<? super T, U> fn);
+
+  <U extends @Nullable Object> CompletionStage<U> applyToEitherAsync(
+      CompletionStage<? extends T> other, Function<? super T, U> fn);
+
+  <U extends @Nullable Object> CompletionStage<U> applyToEitherAsync(
+      CompletionStage<? extends T> other, Function<? super T, U> fn, Executor executor);
+
+  CompletionStage<@Nullable Void> acceptEither(
+      CompletionStage<? extends T> other, Consumer<? super T> action);
+
+  CompletionStage<@Nullable Void> acceptEitherAsync(
+      CompletionStage<? extends T> other, Consumer<? super T> action);
+
+  CompletionStage<@Nullable Void> acceptEitherAsync(
+      CompletionStage<? extends T> other, Consumer<? super T> action, Executor executor);
+
+  CompletionStage<@Nullable Void> runAfterEither(CompletionStage<?> other, Runnable action);
+
+  CompletionStage<@Nullable Void> runAfterEitherAsync(CompletionStage<?> other, Runnable action);
+
+  CompletionStage<@Nullable Void> runAfterEitherAsync(
+      CompletionStage<?> other, Runnable action, Executor executor);
+
+  <U extends @Nullable Object> CompletionStage<U> thenCompose(
+      Function<? super T, ? extends CompletionStage<U>> fn);
+
+  <U extends @Nullable Object> CompletionStage<U> thenComposeAsync(
+      Function<? super T, ? extends CompletionStage<U>> fn);
+
+  <U extends @Nullable Object> CompletionStage<U> thenComposeAsync(
+      Function<? super T, ? extends CompletionStage<U>> fn, Executor executor);
+
+  <U extends @Nullable Object> CompletionStage<U> handle(
+      BiFunction<? super @Nullable T, @Nullable Throwable, ? extends U> fn);
+
+  <U extends @Nullable Object> CompletionStage<U> handleAsync(
+      BiFunction<? super @Nullable T, @Nullable Throwable, ? extends U> fn);
+
+  <U extends @Nullable Object> CompletionStage<U> handleAsync(
+      BiFunction<? super @Nullable T, @Nullable Throwable, ? extends U> fn, Executor executor);
+
+  CompletionStage<T> whenComplete(
+      BiConsumer<? super @Nullable T, ? super @Nullable Throwable> action);
+
+  CompletionStage<T> whenCompleteAsync(
+      BiConsumer<? super @Nullable T, ? super @Nullable Throwable> action);
+
+  CompletionStage<T> whenCompleteAsync(
+      BiConsumer<? super @Nullable T, ? super @Nullable Throwable> action, Executor executor);
+
+  CompletionStage<T> exceptionally(Function<Throwable, ? extends T> fn);
+
+  CompletableFuture<T> toCompletableFuture();
+}
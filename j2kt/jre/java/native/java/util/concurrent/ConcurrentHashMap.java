@@ -20,10 +20,27 @@ import java.util.NoSuchElementException;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.concurrent.locks.LockSupport;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.Function;
+import java.util.function.IntBinaryOperator;
+import java.util.function.LongBinaryOperator;
+import java.util.function.ToDoubleBiFunction;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntBiFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongBiFunction;
+import java.util.function.ToLongFunction;
+import javaemul.internal.ParallelTasks;
 import javaemul.lang.J2ktMonitor;
+import org.jspecify.annotations.NonNull;
 import org.jspecify.annotations.NullMarked;
 import org.jspecify.annotations.Nullable;
 
@@ -91,6 +108,14 @@ import org.jspecify.annotations.Nullable;
 // - Switched "unsafe" atomic array access to AtomicReferenceArrays
 // - NullMarked
 // - Limited comparableClassFor() to a set of known comparable classes.
+// - Replaced locking on bin head nodes with a small array of striped bin locks, so that nodes do
+//   not need to be monitors.
+// - Added the JDK 8 atomic compute(), computeIfAbsent(), computeIfPresent() and merge() overrides,
+//   which reserve empty bins with a ReservationNode while the mapping function runs.
+// - Counted contended updates in a LongAdder instead of private CounterCells, so that the striping
+//   and per-thread probes of Striped64 are shared.
+// - Added the JDK 8 parallel bulk operations, which split the table into ranges run through
+//   ParallelTasks instead of CountedCompleter tasks.
 @NullMarked
 public class ConcurrentHashMap<K extends @Nullable Object, V extends @Nullable Object>
     extends AbstractMap<K, V> implements ConcurrentMap<K, V>, Serializable {
@@ -156,6 +181,20 @@ public class ConcurrentHashMap<K extends @Nullable Object, V extends @Nullable O
    * a lock. Locking support for these locks relies on builtin
    * "synchronized" monitors.
    *
+   * (J2KT note: Monitors are not free on Kotlin Native, so making
+   * every node a monitor would add a monitor to every mapping.
+   * Instead, bins share a small power-of-two array of monitors
+   * (see binLock). Bin i of a table of size n is guarded by
+   * binLocks[i & (min(n, MAX_BIN_LOCKS) - 1)], so a small table
+   * only needs as many monitors as it has bins. The array is grown
+   * before a larger table is published, keeping the monitors it
+   * already has at their indices, so all threads working on the
+   * same table agree on its locks whichever version of the array
+   * they read. Since bin operations never hold more than one bin
+   * lock, sharing stripes cannot deadlock; it only adds the
+   * occasional false conflict between bins mapped to the same
+   * stripe.)
+   *
    * Using the first node of a list as a lock does not by itself
    * suffice though: When a node is locked, any update must first
    * validate that it is still the first node after locking it, and
@@ -268,11 +307,11 @@ public class ConcurrentHashMap<K extends @Nullable Object, V extends @Nullable O
    * These cases attempt to override the initial capacity settings,
    * but harmlessly fail to take effect in cases of races.
    *
-   * The element count is maintained using a specialization of
-   * LongAdder. We need to incorporate a specialization rather than
-   * just use a LongAdder in order to access implicit
-   * contention-sensing that leads to creation of multiple
-   * CounterCells.  The counter mechanics avoid contention on
+   * The element count is maintained in a base count, plus a
+   * LongAdder that is created upon the first failed CAS of the
+   * base count. Sensing contention this way, rather than just
+   * using a LongAdder, tells addCount when the count has become
+   * costly to read. The counter mechanics avoid contention on
    * updates but can encounter cache thrashing if read too
    * frequently during concurrent access. To avoid reading so often,
    * resizing under contention is attempted only upon adding to a
@@ -421,6 +460,12 @@ public class ConcurrentHashMap<K extends @Nullable Object, V extends @Nullable O
   /** Number of CPUS, to place bounds on some sizings */
   static final int NCPU = Runtime.getRuntime().availableProcessors();
 
+  /**
+   * The maximum number of bin locks. Enough stripes to make false conflicts between concurrently
+   * updating threads unlikely; smaller tables use one lock per bin.
+   */
+  private static final int MAX_BIN_LOCKS = tableSizeFor(NCPU << 3);
+
   /* ---------------- Nodes -------------- */
 
   /**
@@ -429,7 +474,7 @@ public class ConcurrentHashMap<K extends @Nullable Object, V extends @Nullable O
    * tasks. Subclasses of Node with a negative hash field are special, and contain null keys and
    * values (but are never exported). Otherwise, keys and vals are never null.
    */
-  static class Node<K, V> extends J2ktMonitor implements Map.Entry<K, V> {
+  static class Node<K, V> implements Map.Entry<K, V> {
     final int hash;
     final @Nullable K key;
     volatile @Nullable V val;
@@ -554,7 +599,7 @@ public class ConcurrentHashMap<K extends @Nullable Object, V extends @Nullable O
   @SuppressWarnings("unchecked")
   static final <K, V> @Nullable Node<K, V> tabAt(
       AtomicReferenceArray<@Nullable Node<K, V>> tab, int i) {
-    return tab.get(i);
+    return tab.getAcquire(i);
   }
 
   static final <K, V> boolean casTabAt(
@@ -567,7 +612,7 @@ public class ConcurrentHashMap<K extends @Nullable Object, V extends @Nullable O
 
   static final <K, V> void setTabAt(
       AtomicReferenceArray<@Nullable Node<K, V>> tab, int i, @Nullable Node<K, V> v) {
-    tab.set(i, v);
+    tab.setRelease(i, v);
   }
 
   /* ---------------- Fields -------------- */
@@ -581,6 +626,14 @@ public class ConcurrentHashMap<K extends @Nullable Object, V extends @Nullable O
   /** The next table to use; non-null only while resizing. */
   private transient volatile @Nullable AtomicReferenceArray<@Nullable Node<K, V>> nextTable;
 
+  /**
+   * Striped locks guarding updates of bins. Created before the first table is published, so it is
+   * non-null whenever table is, and replaced by a longer copy before a larger table is published.
+   * Size is always a power of two, and at least min(n, MAX_BIN_LOCKS) for any published table of
+   * size n.
+   */
+  private transient volatile J2ktMonitor @Nullable [] binLocks;
+
   /**
    * Base counter value, used mainly when there is no contention, but also as a fallback during
    * table initialization races. Updated via CAS.
@@ -598,11 +651,12 @@ public class ConcurrentHashMap<K extends @Nullable Object, V extends @Nullable O
   /** The next table index (plus one) to split while resizing. */
   private final AtomicInteger transferIndex = new AtomicInteger();
 
-  /** Spinlock (locked via CAS) used when resizing and/or creating CounterCells. */
-  private final AtomicInteger cellsBusy = new AtomicInteger();
-
-  /** Table of counter cells. When non-null, size is a power of 2. */
-  private transient volatile CounterCell @Nullable [] counterCells;
+  /**
+   * Striped counter for updates after the base count was contended, created upon the first failed
+   * CAS of baseCount. Its cells and per-thread probes are those of Striped64.
+   */
+  private final AtomicReference<@Nullable LongAdder> contendedCount =
+      new AtomicReference<@Nullable LongAdder>();
 
   // views
   private transient @Nullable KeySetView<K, V> keySet;
@@ -787,7 +841,7 @@ public class ConcurrentHashMap<K extends @Nullable Object, V extends @Nullable O
       } else if ((fh = f.hash) == MOVED) tab = helpTransfer(tab, f);
       else {
         V oldVal = null;
-        synchronized (f) {
+        synchronized (binLock(tab, i)) {
           if (tabAt(tab, i) == f) {
             if (fh >= 0) {
               binCount = 1;
@@ -811,6 +865,8 @@ public class ConcurrentHashMap<K extends @Nullable Object, V extends @Nullable O
                 oldVal = p.val;
                 if (!onlyIfAbsent) p.val = value;
               }
+            } else if (f instanceof ReservationNode) {
+              throw new IllegalStateException("Recursive update");
             }
           }
         }
@@ -865,7 +921,7 @@ public class ConcurrentHashMap<K extends @Nullable Object, V extends @Nullable O
       else {
         V oldVal = null;
         boolean validated = false;
-        synchronized (f) {
+        synchronized (binLock(tab, i)) {
           if (tabAt(tab, i) == f) {
             if (fh >= 0) {
               validated = true;
@@ -896,6 +952,8 @@ public class ConcurrentHashMap<K extends @Nullable Object, V extends @Nullable O
                   else if (t.removeTreeNode(p)) setTabAt(tab, i, untreeify(t.first));
                 }
               }
+            } else if (f instanceof ReservationNode) {
+              throw new IllegalStateException("Recursive update");
             }
           }
         }
@@ -924,7 +982,7 @@ public class ConcurrentHashMap<K extends @Nullable Object, V extends @Nullable O
         tab = helpTransfer(tab, f);
         i = 0; // restart
       } else {
-        synchronized (f) {
+        synchronized (binLock(tab, i)) {
           if (tabAt(tab, i) == f) {
             Node<K, V> p =
                 (fh >= 0 ? f : (f instanceof TreeBin) ? ((TreeBin<K, V>) f).first : null);
@@ -1136,6 +1194,392 @@ public class ConcurrentHashMap<K extends @Nullable Object, V extends @Nullable O
     return replaceNode(key, value, null);
   }
 
+  // Overrides of JDK8+ Map extension method defaults
+
+  /**
+   * Returns the value to which the specified key is mapped, or the given default value if this map
+   * contains no mapping for the key.
+   *
+   * @param key the key whose associated value is to be returned
+   * @param defaultValue the value to return if this map contains no mapping for the given key
+   * @return the mapping for the key, if present; else the default value
+   * @throws NullPointerException if the specified key is null
+   */
+  public @Nullable V getOrDefault(@Nullable Object key, @Nullable V defaultValue) {
+    V v;
+    return (v = get(key)) == null ? defaultValue : v;
+  }
+
+  /**
+   * If the specified key is not already associated with a value, attempts to compute its value
+   * using the given mapping function and enters it into this map unless {@code null}. The entire
+   * method invocation is performed atomically, so the function is applied at most once per key.
+   * Some attempted update operations on this map by other threads may be blocked while computation
+   * is in progress, so the computation should be short and simple, and must not attempt to update
+   * any other mappings of this map.
+   *
+   * @param key key with which the specified value is to be associated
+   * @param mappingFunction the function to compute a value
+   * @return the current (existing or computed) value associated with the specified key, or null if
+   *     the computed value is null
+   * @throws NullPointerException if the specified key or mappingFunction is null
+   * @throws IllegalStateException if the computation detectably attempts a recursive update to
+   *     this map that would otherwise never complete
+   * @throws RuntimeException or Error if the mappingFunction does so, in which case the mapping is
+   *     left unestablished
+   */
+  public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+    if (key == null || mappingFunction == null) throw new NullPointerException();
+    int h = spread(key.hashCode());
+    V val = null;
+    int binCount = 0;
+    for (AtomicReferenceArray<@Nullable Node<K, V>> tab = table; ; ) {
+      Node<K, V> f;
+      int n, i, fh;
+      K fk;
+      V fv;
+      if (tab == null || (n = tab.length()) == 0) tab = initTable();
+      else if ((f = tabAt(tab, i = (n - 1) & h)) == null) {
+        Node<K, V> r = new ReservationNode<K, V>();
+        synchronized (binLock(tab, i)) {
+          if (casTabAt(tab, i, null, r)) {
+            binCount = 1;
+            Node<K, V> node = null;
+            try {
+              if ((val = mappingFunction.apply(key)) != null)
+                node = new Node<K, V>(h, key, val, null);
+            } finally {
+              setTabAt(tab, i, node);
+            }
+          }
+        }
+        if (binCount != 0) break;
+      } else if ((fh = f.hash) == MOVED) tab = helpTransfer(tab, f);
+      else if (fh == h // check first node without acquiring lock
+          && ((fk = f.key) == key || (fk != null && key.equals(fk)))
+          && (fv = f.val) != null) return fv;
+      else {
+        boolean added = false;
+        synchronized (binLock(tab, i)) {
+          if (tabAt(tab, i) == f) {
+            if (fh >= 0) {
+              binCount = 1;
+              for (Node<K, V> e = f; ; ++binCount) {
+                K ek;
+                if (e.hash == h && ((ek = e.key) == key || (ek != null && key.equals(ek)))) {
+                  val = e.val;
+                  break;
+                }
+                Node<K, V> pred = e;
+                if ((e = e.next) == null) {
+                  if ((val = mappingFunction.apply(key)) != null) {
+                    if (pred.next != null) throw new IllegalStateException("Recursive update");
+                    added = true;
+                    pred.next = new Node<K, V>(h, key, val, null);
+                  }
+                  break;
+                }
+              }
+            } else if (f instanceof TreeBin) {
+              binCount = 2;
+              TreeBin<K, V> t = (TreeBin<K, V>) f;
+              TreeNode<K, V> r, p;
+              if ((r = t.root) != null && (p = r.findTreeNode(h, key, null)) != null) val = p.val;
+              else if ((val = mappingFunction.apply(key)) != null) {
+                added = true;
+                t.putTreeVal(h, key, val);
+              }
+            } else if (f instanceof ReservationNode) {
+              throw new IllegalStateException("Recursive update");
+            }
+          }
+        }
+        if (binCount != 0) {
+          if (binCount >= TREEIFY_THRESHOLD) treeifyBin(tab, i);
+          if (!added) return val;
+          break;
+        }
+      }
+    }
+    if (val != null) addCount(1L, binCount);
+    return val;
+  }
+
+  /**
+   * If the value for the specified key is present, attempts to compute a new mapping given the key
+   * and its current mapped value. The entire method invocation is performed atomically. Some
+   * attempted update operations on this map by other threads may be blocked while computation is
+   * in progress, so the computation should be short and simple, and must not attempt to update any
+   * other mappings of this map.
+   *
+   * @param key key with which a value may be associated
+   * @param remappingFunction the function to compute a value
+   * @return the new value associated with the specified key, or null if none
+   * @throws NullPointerException if the specified key or remappingFunction is null
+   * @throws IllegalStateException if the computation detectably attempts a recursive update to
+   *     this map that would otherwise never complete
+   * @throws RuntimeException or Error if the remappingFunction does so, in which case the mapping
+   *     is unchanged
+   */
+  public @Nullable V computeIfPresent(
+      K key, BiFunction<? super K, ? super @NonNull V, ? extends @Nullable V> remappingFunction) {
+    if (key == null || remappingFunction == null) throw new NullPointerException();
+    int h = spread(key.hashCode());
+    V val = null;
+    int delta = 0;
+    int binCount = 0;
+    for (AtomicReferenceArray<@Nullable Node<K, V>> tab = table; ; ) {
+      Node<K, V> f;
+      int n, i, fh;
+      if (tab == null || (n = tab.length()) == 0) tab = initTable();
+      else if ((f = tabAt(tab, i = (n - 1) & h)) == null) break;
+      else if ((fh = f.hash) == MOVED) tab = helpTransfer(tab, f);
+      else {
+        synchronized (binLock(tab, i)) {
+          if (tabAt(tab, i) == f) {
+            if (fh >= 0) {
+              binCount = 1;
+              for (Node<K, V> e = f, pred = null; ; ++binCount) {
+                K ek;
+                if (e.hash == h && ((ek = e.key) == key || (ek != null && key.equals(ek)))) {
+                  val = remappingFunction.apply(key, e.val);
+                  if (val != null) e.val = val;
+                  else {
+                    delta = -1;
+                    Node<K, V> en = e.next;
+                    if (pred != null) pred.next = en;
+                    else setTabAt(tab, i, en);
+                  }
+                  break;
+                }
+                pred = e;
+                if ((e = e.next) == null) break;
+              }
+            } else if (f instanceof TreeBin) {
+              binCount = 2;
+              TreeBin<K, V> t = (TreeBin<K, V>) f;
+              TreeNode<K, V> r, p;
+              if ((r = t.root) != null && (p = r.findTreeNode(h, key, null)) != null) {
+                val = remappingFunction.apply(key, p.val);
+                if (val != null) p.val = val;
+                else {
+                  delta = -1;
+                  if (t.removeTreeNode(p)) setTabAt(tab, i, untreeify(t.first));
+                }
+              }
+            } else if (f instanceof ReservationNode) {
+              throw new IllegalStateException("Recursive update");
+            }
+          }
+        }
+        if (binCount != 0) break;
+      }
+    }
+    if (delta != 0) addCount((long) delta, binCount);
+    return val;
+  }
+
+  /**
+   * Attempts to compute a mapping for the specified key and its current mapped value (or {@code
+   * null} if there is no current mapping). The entire method invocation is performed atomically.
+   * Some attempted update operations on this map by other threads may be blocked while computation
+   * is in progress, so the computation should be short and simple, and must not attempt to update
+   * any other mappings of this Map.
+   *
+   * @param key key with which the specified value is to be associated
+   * @param remappingFunction the function to compute a value
+   * @return the new value associated with the specified key, or null if none
+   * @throws NullPointerException if the specified key or remappingFunction is null
+   * @throws IllegalStateException if the computation detectably attempts a recursive update to
+   *     this map that would otherwise never complete
+   * @throws RuntimeException or Error if the remappingFunction does so, in which case the mapping
+   *     is unchanged
+   */
+  public @Nullable V compute(
+      K key, BiFunction<? super K, ? super @Nullable V, ? extends @Nullable V> remappingFunction) {
+    if (key == null || remappingFunction == null) throw new NullPointerException();
+    int h = spread(key.hashCode());
+    V val = null;
+    int delta = 0;
+    int binCount = 0;
+    for (AtomicReferenceArray<@Nullable Node<K, V>> tab = table; ; ) {
+      Node<K, V> f;
+      int n, i, fh;
+      if (tab == null || (n = tab.length()) == 0) tab = initTable();
+      else if ((f = tabAt(tab, i = (n - 1) & h)) == null) {
+        Node<K, V> r = new ReservationNode<K, V>();
+        synchronized (binLock(tab, i)) {
+          if (casTabAt(tab, i, null, r)) {
+            binCount = 1;
+            Node<K, V> node = null;
+            try {
+              if ((val = remappingFunction.apply(key, null)) != null) {
+                delta = 1;
+                node = new Node<K, V>(h, key, val, null);
+              }
+            } finally {
+              setTabAt(tab, i, node);
+            }
+          }
+        }
+        if (binCount != 0) break;
+      } else if ((fh = f.hash) == MOVED) tab = helpTransfer(tab, f);
+      else {
+        synchronized (binLock(tab, i)) {
+          if (tabAt(tab, i) == f) {
+            if (fh >= 0) {
+              binCount = 1;
+              for (Node<K, V> e = f, pred = null; ; ++binCount) {
+                K ek;
+                if (e.hash == h && ((ek = e.key) == key || (ek != null && key.equals(ek)))) {
+                  val = remappingFunction.apply(key, e.val);
+                  if (val != null) e.val = val;
+                  else {
+                    delta = -1;
+                    Node<K, V> en = e.next;
+                    if (pred != null) pred.next = en;
+                    else setTabAt(tab, i, en);
+                  }
+                  break;
+                }
+                pred = e;
+                if ((e = e.next) == null) {
+                  val = remappingFunction.apply(key, null);
+                  if (val != null) {
+                    if (pred.next != null) throw new IllegalStateException("Recursive update");
+                    delta = 1;
+                    pred.next = new Node<K, V>(h, key, val, null);
+                  }
+                  break;
+                }
+              }
+            } else if (f instanceof TreeBin) {
+              binCount = 1;
+              TreeBin<K, V> t = (TreeBin<K, V>) f;
+              TreeNode<K, V> r, p;
+              if ((r = t.root) != null) p = r.findTreeNode(h, key, null);
+              else p = null;
+              V pv = (p == null) ? null : p.val;
+              val = remappingFunction.apply(key, pv);
+              if (val != null) {
+                if (p != null) p.val = val;
+                else {
+                  delta = 1;
+                  t.putTreeVal(h, key, val);
+                }
+              } else if (p != null) {
+                delta = -1;
+                if (t.removeTreeNode(p)) setTabAt(tab, i, untreeify(t.first));
+              }
+            } else if (f instanceof ReservationNode) {
+              throw new IllegalStateException("Recursive update");
+            }
+          }
+        }
+        if (binCount != 0) {
+          if (binCount >= TREEIFY_THRESHOLD) treeifyBin(tab, i);
+          break;
+        }
+      }
+    }
+    if (delta != 0) addCount((long) delta, binCount);
+    return val;
+  }
+
+  /**
+   * If the specified key is not already associated with a (non-null) value, associates it with the
+   * given value. Otherwise, replaces the value with the results of the given remapping function, or
+   * removes if {@code null}. The entire method invocation is performed atomically. Some attempted
+   * update operations on this map by other threads may be blocked while computation is in
+   * progress, so the computation should be short and simple, and must not attempt to update any
+   * other mappings of this Map.
+   *
+   * @param key key with which the specified value is to be associated
+   * @param value the value to use if absent
+   * @param remappingFunction the function to recompute a value if present
+   * @return the new value associated with the specified key, or null if none
+   * @throws NullPointerException if the specified key or the remappingFunction is null
+   * @throws RuntimeException or Error if the remappingFunction does so, in which case the mapping
+   *     is unchanged
+   */
+  public @Nullable V merge(
+      K key,
+      @NonNull V value,
+      BiFunction<? super @NonNull V, ? super @NonNull V, ? extends @Nullable V> remappingFunction) {
+    if (key == null || value == null || remappingFunction == null)
+      throw new NullPointerException();
+    int h = spread(key.hashCode());
+    V val = null;
+    int delta = 0;
+    int binCount = 0;
+    for (AtomicReferenceArray<@Nullable Node<K, V>> tab = table; ; ) {
+      Node<K, V> f;
+      int n, i, fh;
+      if (tab == null || (n = tab.length()) == 0) tab = initTable();
+      else if ((f = tabAt(tab, i = (n - 1) & h)) == null) {
+        if (casTabAt(tab, i, null, new Node<K, V>(h, key, value, null))) {
+          delta = 1;
+          val = value;
+          break;
+        }
+      } else if ((fh = f.hash) == MOVED) tab = helpTransfer(tab, f);
+      else {
+        synchronized (binLock(tab, i)) {
+          if (tabAt(tab, i) == f) {
+            if (fh >= 0) {
+              binCount = 1;
+              for (Node<K, V> e = f, pred = null; ; ++binCount) {
+                K ek;
+                if (e.hash == h && ((ek = e.key) == key || (ek != null && key.equals(ek)))) {
+                  val = remappingFunction.apply(e.val, value);
+                  if (val != null) e.val = val;
+                  else {
+                    delta = -1;
+                    Node<K, V> en = e.next;
+                    if (pred != null) pred.next = en;
+                    else setTabAt(tab, i, en);
+                  }
+                  break;
+                }
+                pred = e;
+                if ((e = e.next) == null) {
+                  delta = 1;
+                  val = value;
+                  pred.next = new Node<K, V>(h, key, val, null);
+                  break;
+                }
+              }
+            } else if (f instanceof TreeBin) {
+              binCount = 2;
+              TreeBin<K, V> t = (TreeBin<K, V>) f;
+              TreeNode<K, V> r = t.root;
+              TreeNode<K, V> p = (r == null) ? null : r.findTreeNode(h, key, null);
+              val = (p == null) ? value : remappingFunction.apply(p.val, value);
+              if (val != null) {
+                if (p != null) p.val = val;
+                else {
+                  delta = 1;
+                  t.putTreeVal(h, key, val);
+                }
+              } else if (p != null) {
+                delta = -1;
+                if (t.removeTreeNode(p)) setTabAt(tab, i, untreeify(t.first));
+              }
+            } else if (f instanceof ReservationNode) {
+              throw new IllegalStateException("Recursive update");
+            }
+          }
+        }
+        if (binCount != 0) {
+          if (binCount >= TREEIFY_THRESHOLD) treeifyBin(tab, i);
+          break;
+        }
+      }
+    }
+    if (delta != 0) addCount((long) delta, binCount);
+    return val;
+  }
+
   // Hashtable legacy methods
 
   /**
@@ -1309,6 +1753,7 @@ public class ConcurrentHashMap<K extends @Nullable Object, V extends @Nullable O
             @SuppressWarnings("unchecked")
             AtomicReferenceArray<@Nullable Node<K, V>> nt =
                 new AtomicReferenceArray<@Nullable Node<K, V>>(n);
+            growBinLocks(n);
             table = tab = nt;
             sc = n - (n >>> 2);
           }
@@ -1321,6 +1766,32 @@ public class ConcurrentHashMap<K extends @Nullable Object, V extends @Nullable O
     return tab;
   }
 
+  /**
+   * Creates or grows the bin locks to cover a table of size n. Existing monitors keep their
+   * indices, so threads still holding the previous array lock the same monitors. Must be called
+   * before publishing the table, either while holding the table initialization lock (sizeCtl ==
+   * -1) or by the thread creating the next table of a resize, so there is only one writer.
+   *
+   * @param n the size of the table being created
+   */
+  private final void growBinLocks(int n) {
+    J2ktMonitor[] locks = binLocks;
+    int size = Math.min(n, MAX_BIN_LOCKS);
+    int have = (locks == null) ? 0 : locks.length;
+    if (have < size) {
+      J2ktMonitor[] grown = new J2ktMonitor[size];
+      if (locks != null) System.arraycopy(locks, 0, grown, 0, have);
+      for (int i = have; i < size; ++i) grown[i] = new J2ktMonitor();
+      binLocks = grown;
+    }
+  }
+
+  /** Returns the lock guarding bin i of tab. Only valid once tab has been published. */
+  private final J2ktMonitor binLock(AtomicReferenceArray<@Nullable Node<K, V>> tab, int i) {
+    J2ktMonitor[] locks = binLocks;
+    return locks[i & (Math.min(tab.length(), MAX_BIN_LOCKS) - 1)];
+  }
+
   /**
    * Adds to count, and if table is too small and not already resizing, initiates transfer. If
    * already resizing, helps perform transfer if work is available. Rechecks occupancy after a
@@ -1330,22 +1801,12 @@ public class ConcurrentHashMap<K extends @Nullable Object, V extends @Nullable O
    * @param check if <0, don't check resize, if <= 1 only check if uncontended
    */
   private final void addCount(long x, int check) {
-    CounterCell[] as;
+    LongAdder c;
     long b, s;
-    if ((as = counterCells) != null || !baseCount.compareAndSet(b = baseCount.get(), s = b + x)) {
-      CounterHashCode hc;
-      CounterCell a;
-      long v;
-      int m;
-      boolean uncontended = true;
-      if ((hc = threadCounterHashCode.get()) == null
-          || as == null
-          || (m = as.length - 1) < 0
-          || (a = as[m & hc.code]) == null
-          || !(uncontended = a.value.compareAndSet(v = a.value.get(), v + x))) {
-        fullAddCount(x, hc, uncontended);
-        return;
-      }
+    if ((c = contendedCount.get()) != null
+        || !baseCount.compareAndSet(b = baseCount.get(), s = b + x)) {
+      if (c == null) c = contendedCounter();
+      c.add(x);
       if (check <= 1) return;
       s = sumCount();
     }
@@ -1415,6 +1876,7 @@ public class ConcurrentHashMap<K extends @Nullable Object, V extends @Nullable O
               @SuppressWarnings("unchecked")
               AtomicReferenceArray<@Nullable Node<K, V>> nt =
                   new AtomicReferenceArray<@Nullable Node<K, V>>(n);
+              growBinLocks(n);
               table = nt;
               sc = n - (n >>> 2);
             }
@@ -1449,6 +1911,7 @@ public class ConcurrentHashMap<K extends @Nullable Object, V extends @Nullable O
       try {
         @SuppressWarnings("unchecked")
         AtomicReferenceArray<@Nullable Node<K, V>> nt = new AtomicReferenceArray<>(n << 1);
+        growBinLocks(n << 1);
         nextTab = nt;
       } catch (Throwable ex) { // try to cope with OOME
         sizeCtl.set(Integer.MAX_VALUE);
@@ -1493,7 +1956,7 @@ public class ConcurrentHashMap<K extends @Nullable Object, V extends @Nullable O
       } else if ((f = tabAt(tab, i)) == null) advance = casTabAt(tab, i, null, fwd);
       else if ((fh = f.hash) == MOVED) advance = true; // already processed
       else {
-        synchronized (f) {
+        synchronized (binLock(tab, i)) {
           if (tabAt(tab, i) == f) {
             Node<K, V> ln, hn;
             if (fh >= 0) {
@@ -1556,6 +2019,8 @@ public class ConcurrentHashMap<K extends @Nullable Object, V extends @Nullable O
               setTabAt(nextTab, i + n, hn);
               setTabAt(tab, i, fwd);
               advance = true;
+            } else if (f instanceof ReservationNode) {
+              throw new IllegalStateException("Recursive update");
             }
           }
         }
@@ -1575,7 +2040,7 @@ public class ConcurrentHashMap<K extends @Nullable Object, V extends @Nullable O
     if (tab != null) {
       if ((n = tab.length()) < MIN_TREEIFY_CAPACITY) tryPresize(n << 1);
       else if ((b = tabAt(tab, index)) != null && b.hash >= 0) {
-        synchronized (b) {
+        synchronized (binLock(tab, index)) {
           if (tabAt(tab, index) == b) {
             TreeNode<K, V> hd = null, tl = null;
             for (Node<K, V> e = b; e != null; e = e.next) {
@@ -2726,125 +3191,831 @@ public class ConcurrentHashMap<K extends @Nullable Object, V extends @Nullable O
 
   /* ---------------- Counters -------------- */
 
-  // Adapted from LongAdder and Striped64.
-  // See their internal docs for explanation.
-
-  // A padded cell for distributing counts
-  static final class CounterCell {
-    volatile long p0, p1, p2, p3, p4, p5, p6;
-    final AtomicLong value;
-    volatile long q0, q1, q2, q3, q4, q5, q6;
-
-    CounterCell(long x) {
-      value = new AtomicLong(x);
+  /** Returns the striped counter for contended updates, creating it if needed. */
+  private LongAdder contendedCounter() {
+    @Nullable LongAdder c;
+    while ((c = contendedCount.get()) == null) {
+      contendedCount.compareAndSet(null, new LongAdder());
     }
+    return c;
   }
 
+  final long sumCount() {
+    LongAdder c = contendedCount.get();
+    long sum = baseCount.get();
+    return (c == null) ? sum : sum + c.sum();
+  }
+
+  /* ---------------- Parallel bulk operations -------------- */
+
+  // J2kt note: Upstream runs these on ForkJoinPool.commonPool() using CountedCompleter tasks. Here
+  // the table is cut into up to batchFor() ranges of bins, which the caller and the helper tasks of
+  // ParallelTasks claim and traverse until none are left.
+
   /**
-   * Holder for the thread-local hash code determining which CounterCell to use. The code is
-   * initialized via the counterHashCodeGenerator, but may be moved upon collisions.
+   * Computes the number of ranges to split a bulk operation into: zero or one runs it sequentially
+   * in the calling thread.
    */
-  static final class CounterHashCode {
-    int code;
+  final int batchFor(long b) {
+    long n;
+    if (b == Long.MAX_VALUE || (n = sumCount()) <= 1L || n < b) return 0;
+    int sp = NCPU << 2; // slack of 4
+    return (b <= 0L || (n /= b) >= sp) ? sp : (int) n;
   }
 
-  /** Generates initial value for per-thread CounterHashCodes. */
-  static final AtomicInteger counterHashCodeGenerator = new AtomicInteger();
+  /**
+   * Applies {@code action} to traversers over disjoint ranges of the current table, possibly in
+   * parallel, and combines the non-null results with {@code reducer}.
+   */
+  private <U> @Nullable U bulk(
+      long parallelismThreshold,
+      RangeAction<K, V, U> action,
+      @Nullable BiFunction<? super U, ? super U, ? extends U> reducer) {
+    AtomicReferenceArray<@Nullable Node<K, V>> tab = table;
+    int n = (tab == null) ? 0 : tab.length();
+    int batches = Math.min(batchFor(parallelismThreshold), n);
+    if (batches <= 1) return action.apply(new Traverser<K, V>(tab, n, 0, n));
+    AtomicReferenceArray<@Nullable U> results = new AtomicReferenceArray<@Nullable U>(batches);
+    ParallelTasks.run(
+        batches,
+        b -> {
+          int lo = (int) ((long) n * b / batches);
+          int hi = (int) ((long) n * (b + 1) / batches);
+          results.set(b, action.apply(new Traverser<K, V>(tab, n, lo, hi)));
+        });
+    // Combine the non-null range results in table order.
+    U r = null;
+    for (int i = 0; i < batches; ++i) {
+      U u = results.get(i);
+      if (u != null) r = (r == null || reducer == null) ? u : reducer.apply(r, u);
+    }
+    return r;
+  }
 
-  /** Increment for counterHashCodeGenerator. See class ThreadLocal for explanation. */
-  static final int SEED_INCREMENT = 0x61c88647;
+  /**
+   * Performs the given action for each (key, value).
+   *
+   * @param parallelismThreshold the (estimated) number of elements needed for this operation to be
+   *     executed in parallel
+   * @param action the action
+   * @since 1.8
+   */
+  public void forEach(long parallelismThreshold, BiConsumer<? super K, ? super V> action) {
+    if (action == null) throw new NullPointerException();
+    bulk(
+        parallelismThreshold,
+        it -> {
+          for (Node<K, V> p; (p = it.advance()) != null; ) action.accept(p.key, p.val);
+          return null;
+        },
+        null);
+  }
 
-  /** Per-thread counter hash codes. Shared across all instances. */
-  static final ThreadLocal<CounterHashCode> threadCounterHashCode =
-      new ThreadLocal<CounterHashCode>();
+  /**
+   * Performs the given action for each non-null transformation of each (key, value).
+   *
+   * @param parallelismThreshold the (estimated) number of elements needed for this operation to be
+   *     executed in parallel
+   * @param transformer a function returning the transformation for an element, or null if there is
+   *     no transformation (in which case the action is not applied)
+   * @param action the action
+   * @param <U> the return type of the transformer
+   * @since 1.8
+   */
+  public <U> void forEach(
+      long parallelismThreshold,
+      BiFunction<? super K, ? super V, ? extends @Nullable U> transformer,
+      Consumer<? super U> action) {
+    if (transformer == null || action == null) throw new NullPointerException();
+    bulk(
+        parallelismThreshold,
+        it -> {
+          for (Node<K, V> p; (p = it.advance()) != null; ) {
+            U u;
+            if ((u = transformer.apply(p.key, p.val)) != null) action.accept(u);
+          }
+          return null;
+        },
+        null);
+  }
 
-  final long sumCount() {
-    CounterCell[] as = counterCells;
-    CounterCell a;
-    long sum = baseCount.get();
-    if (as != null) {
-      for (int i = 0; i < as.length; ++i) {
-        if ((a = as[i]) != null) sum += a.value.get();
-      }
-    }
-    return sum;
-  }
-
-  // See LongAdder version for explanation
-  private final void fullAddCount(long x, CounterHashCode hc, boolean wasUncontended) {
-    int h;
-    if (hc == null) {
-      hc = new CounterHashCode();
-      int s = counterHashCodeGenerator.addAndGet(SEED_INCREMENT);
-      h = hc.code = (s == 0) ? 1 : s; // Avoid zero
-      threadCounterHashCode.set(hc);
-    } else h = hc.code;
-    boolean collide = false; // True if last slot nonempty
-    for (; ; ) {
-      CounterCell[] as;
-      CounterCell a;
-      int n;
-      long v;
-      if ((as = counterCells) != null && (n = as.length) > 0) {
-        if ((a = as[(n - 1) & h]) == null) {
-          if (cellsBusy.get() == 0) { // Try to attach new Cell
-            CounterCell r = new CounterCell(x); // Optimistic create
-            if (cellsBusy.get() == 0 && cellsBusy.compareAndSet(0, 1)) {
-              boolean created = false;
-              try { // Recheck under lock
-                CounterCell[] rs;
-                int m, j;
-                if ((rs = counterCells) != null
-                    && (m = rs.length) > 0
-                    && rs[j = (m - 1) & h] == null) {
-                  rs[j] = r;
-                  created = true;
-                }
-              } finally {
-                cellsBusy.set(0);
-              }
-              if (created) break;
-              continue; // Slot is now non-empty
+  /**
+   * Returns a non-null result from applying the given search function on each (key, value), or
+   * null if none. Upon success, further element processing is suppressed and the results of any
+   * other parallel invocations of the search function are ignored.
+   *
+   * @param parallelismThreshold the (estimated) number of elements needed for this operation to be
+   *     executed in parallel
+   * @param searchFunction a function returning a non-null result on success, else null
+   * @param <U> the return type of the search function
+   * @return a non-null result from applying the given search function on each (key, value), or
+   *     null if none
+   * @since 1.8
+   */
+  public <U> @Nullable U search(
+      long parallelismThreshold,
+      BiFunction<? super K, ? super V, ? extends @Nullable U> searchFunction) {
+    if (searchFunction == null) throw new NullPointerException();
+    AtomicReference<@Nullable U> result = new AtomicReference<@Nullable U>();
+    bulk(
+        parallelismThreshold,
+        it -> {
+          for (Node<K, V> p; result.get() == null && (p = it.advance()) != null; ) {
+            U u;
+            if ((u = searchFunction.apply(p.key, p.val)) != null) {
+              result.compareAndSet(null, u);
+              break;
             }
           }
-          collide = false;
-        } else if (!wasUncontended) // CAS already known to fail
-        wasUncontended = true; // Continue after rehash
-        else if (a.value.compareAndSet(v = a.value.get(), v + x)) break;
-        else if (counterCells != as || n >= NCPU) collide = false; // At max size or stale
-        else if (!collide) collide = true;
-        else if (cellsBusy.get() == 0 && cellsBusy.compareAndSet(0, 1)) {
-          try {
-            if (counterCells == as) { // Expand table unless stale
-              CounterCell[] rs = new CounterCell[n << 1];
-              for (int i = 0; i < n; ++i) rs[i] = as[i];
-              counterCells = rs;
+          return null;
+        },
+        null);
+    return result.get();
+  }
+
+  /**
+   * Returns the result of accumulating the given transformation of all (key, value) pairs using
+   * the given reducer to combine values, or null if none.
+   *
+   * @param parallelismThreshold the (estimated) number of elements needed for this operation to be
+   *     executed in parallel
+   * @param transformer a function returning the transformation for an element, or null if there is
+   *     no transformation (in which case it is not combined)
+   * @param reducer a commutative associative combining function
+   * @param <U> the return type of the transformer
+   * @return the result of accumulating the given transformation of all (key, value) pairs
+   * @since 1.8
+   */
+  public <U> @Nullable U reduce(
+      long parallelismThreshold,
+      BiFunction<? super K, ? super V, ? extends @Nullable U> transformer,
+      BiFunction<? super U, ? super U, ? extends U> reducer) {
+    if (transformer == null || reducer == null) throw new NullPointerException();
+    return bulk(
+        parallelismThreshold,
+        it -> {
+          U r = null;
+          for (Node<K, V> p; (p = it.advance()) != null; ) {
+            U u;
+            if ((u = transformer.apply(p.key, p.val)) != null)
+              r = (r == null) ? u : reducer.apply(r, u);
+          }
+          return r;
+        },
+        reducer);
+  }
+
+  /**
+   * Returns the result of accumulating the given transformation of all (key, value) pairs using
+   * the given reducer to combine values, and the given basis as an identity value.
+   *
+   * @param parallelismThreshold the (estimated) number of elements needed for this operation to be
+   *     executed in parallel
+   * @param transformer a function returning the transformation for an element
+   * @param basis the identity (initial default value) for the reduction
+   * @param reducer a commutative associative combining function
+   * @return the result of accumulating the given transformation of all (key, value) pairs
+   * @since 1.8
+   */
+  public double reduceToDouble(
+      long parallelismThreshold,
+      ToDoubleBiFunction<? super K, ? super V> transformer,
+      double basis,
+      DoubleBinaryOperator reducer) {
+    if (transformer == null || reducer == null) throw new NullPointerException();
+    Double result =
+        bulk(
+            parallelismThreshold,
+            it -> {
+              double r = basis;
+              for (Node<K, V> p; (p = it.advance()) != null; )
+                r = reducer.applyAsDouble(r, transformer.applyAsDouble(p.key, p.val));
+              return r;
+            },
+            (a, b) -> reducer.applyAsDouble(a, b));
+    return (result == null) ? basis : result;
+  }
+
+  /**
+   * Returns the result of accumulating the given transformation of all (key, value) pairs using
+   * the given reducer to combine values, and the given basis as an identity value.
+   *
+   * @param parallelismThreshold the (estimated) number of elements needed for this operation to be
+   *     executed in parallel
+   * @param transformer a function returning the transformation for an element
+   * @param basis the identity (initial default value) for the reduction
+   * @param reducer a commutative associative combining function
+   * @return the result of accumulating the given transformation of all (key, value) pairs
+   * @since 1.8
+   */
+  public long reduceToLong(
+      long parallelismThreshold,
+      ToLongBiFunction<? super K, ? super V> transformer,
+      long basis,
+      LongBinaryOperator reducer) {
+    if (transformer == null || reducer == null) throw new NullPointerException();
+    Long result =
+        bulk(
+            parallelismThreshold,
+            it -> {
+              long r = basis;
+              for (Node<K, V> p; (p = it.advance()) != null; )
+                r = reducer.applyAsLong(r, transformer.applyAsLong(p.key, p.val));
+              return r;
+            },
+            (a, b) -> reducer.applyAsLong(a, b));
+    return (result == null) ? basis : result;
+  }
+
+  /**
+   * Returns the result of accumulating the given transformation of all (key, value) pairs using
+   * the given reducer to combine values, and the given basis as an identity value.
+   *
+   * @param parallelismThreshold the (estimated) number of elements needed for this operation to be
+   *     executed in parallel
+   * @param transformer a function returning the transformation for an element
+   * @param basis the identity (initial default value) for the reduction
+   * @param reducer a commutative associative combining function
+   * @return the result of accumulating the given transformation of all (key, value) pairs
+   * @since 1.8
+   */
+  public int reduceToInt(
+      long parallelismThreshold,
+      ToIntBiFunction<? super K, ? super V> transformer,
+      int basis,
+      IntBinaryOperator reducer) {
+    if (transformer == null || reducer == null) throw new NullPointerException();
+    Integer result =
+        bulk(
+            parallelismThreshold,
+            it -> {
+              int r = basis;
+              for (Node<K, V> p; (p = it.advance()) != null; )
+                r = reducer.applyAsInt(r, transformer.applyAsInt(p.key, p.val));
+              return r;
+            },
+            (a, b) -> reducer.applyAsInt(a, b));
+    return (result == null) ? basis : result;
+  }
+
+  /**
+   * Performs the given action for each key.
+   *
+   * @param parallelismThreshold the (estimated) number of elements needed for this operation to be
+   *     executed in parallel
+   * @param action the action
+   * @since 1.8
+   */
+  public void forEachKey(long parallelismThreshold, Consumer<? super K> action) {
+    if (action == null) throw new NullPointerException();
+    bulk(
+        parallelismThreshold,
+        it -> {
+          for (Node<K, V> p; (p = it.advance()) != null; ) action.accept(p.key);
+          return null;
+        },
+        null);
+  }
+
+  /**
+   * Performs the given action for each non-null transformation of each key.
+   *
+   * @param parallelismThreshold the (estimated) number of elements needed for this operation to be
+   *     executed in parallel
+   * @param transformer a function returning the transformation for an element, or null if there is
+   *     no transformation (in which case the action is not applied)
+   * @param action the action
+   * @param <U> the return type of the transformer
+   * @since 1.8
+   */
+  public <U> void forEachKey(
+      long parallelismThreshold,
+      Function<? super K, ? extends @Nullable U> transformer,
+      Consumer<? super U> action) {
+    if (transformer == null || action == null) throw new NullPointerException();
+    bulk(
+        parallelismThreshold,
+        it -> {
+          for (Node<K, V> p; (p = it.advance()) != null; ) {
+            U u;
+            if ((u = transformer.apply(p.key)) != null) action.accept(u);
+          }
+          return null;
+        },
+        null);
+  }
+
+  /**
+   * Returns a non-null result from applying the given search function on each key, or null if
+   * none. Upon success, further element processing is suppressed and the results of any other
+   * parallel invocations of the search function are ignored.
+   *
+   * @param parallelismThreshold the (estimated) number of elements needed for this operation to be
+   *     executed in parallel
+   * @param searchFunction a function returning a non-null result on success, else null
+   * @param <U> the return type of the search function
+   * @return a non-null result from applying the given search function on each key, or null if none
+   * @since 1.8
+   */
+  public <U> @Nullable U searchKeys(
+      long parallelismThreshold, Function<? super K, ? extends @Nullable U> searchFunction) {
+    if (searchFunction == null) throw new NullPointerException();
+    return search(parallelismThreshold, (k, v) -> searchFunction.apply(k));
+  }
+
+  /**
+   * Returns the result of accumulating all keys using the given reducer to combine values, or null
+   * if none.
+   *
+   * @param parallelismThreshold the (estimated) number of elements needed for this operation to be
+   *     executed in parallel
+   * @param reducer a commutative associative combining function
+   * @return the result of accumulating all keys using the given reducer to combine values, or null
+   *     if none
+   * @since 1.8
+   */
+  public @Nullable K reduceKeys(
+      long parallelismThreshold, BiFunction<? super K, ? super K, ? extends K> reducer) {
+    if (reducer == null) throw new NullPointerException();
+    return reduce(parallelismThreshold, (k, v) -> k, reducer);
+  }
+
+  /**
+   * Returns the result of accumulating the given transformation of all keys using the given reducer
+   * to combine values, or null if none.
+   *
+   * @param parallelismThreshold the (estimated) number of elements needed for this operation to be
+   *     executed in parallel
+   * @param transformer a function returning the transformation for an element, or null if there is
+   *     no transformation (in which case it is not combined)
+   * @param reducer a commutative associative combining function
+   * @param <U> the return type of the transformer
+   * @return the result of accumulating the given transformation of all keys
+   * @since 1.8
+   */
+  public <U> @Nullable U reduceKeys(
+      long parallelismThreshold,
+      Function<? super K, ? extends @Nullable U> transformer,
+      BiFunction<? super U, ? super U, ? extends U> reducer) {
+    if (transformer == null || reducer == null) throw new NullPointerException();
+    return reduce(parallelismThreshold, (k, v) -> transformer.apply(k), reducer);
+  }
+
+  /**
+   * Returns the result of accumulating the given transformation of all keys using the given reducer
+   * to combine values, and the given basis as an identity value.
+   *
+   * @param parallelismThreshold the (estimated) number of elements needed for this operation to be
+   *     executed in parallel
+   * @param transformer a function returning the transformation for an element
+   * @param basis the identity (initial default value) for the reduction
+   * @param reducer a commutative associative combining function
+   * @return the result of accumulating the given transformation of all keys
+   * @since 1.8
+   */
+  public double reduceKeysToDouble(
+      long parallelismThreshold,
+      ToDoubleFunction<? super K> transformer,
+      double basis,
+      DoubleBinaryOperator reducer) {
+    if (transformer == null || reducer == null) throw new NullPointerException();
+    return reduceToDouble(
+        parallelismThreshold, (k, v) -> transformer.applyAsDouble(k), basis, reducer);
+  }
+
+  /**
+   * Returns the result of accumulating the given transformation of all keys using the given reducer
+   * to combine values, and the given basis as an identity value.
+   *
+   * @param parallelismThreshold the (estimated) number of elements needed for this operation to be
+   *     executed in parallel
+   * @param transformer a function returning the transformation for an element
+   * @param basis the identity (initial default value) for the reduction
+   * @param reducer a commutative associative combining function
+   * @return the result of accumulating the given transformation of all keys
+   * @since 1.8
+   */
+  public long reduceKeysToLong(
+      long parallelismThreshold,
+      ToLongFunction<? super K> transformer,
+      long basis,
+      LongBinaryOperator reducer) {
+    if (transformer == null || reducer == null) throw new NullPointerException();
+    return reduceToLong(parallelismThreshold, (k, v) -> transformer.applyAsLong(k), basis, reducer);
+  }
+
+  /**
+   * Returns the result of accumulating the given transformation of all keys using the given reducer
+   * to combine values, and the given basis as an identity value.
+   *
+   * @param parallelismThreshold the (estimated) number of elements needed for this operation to be
+   *     executed in parallel
+   * @param transformer a function returning the transformation for an element
+   * @param basis the identity (initial default value) for the reduction
+   * @param reducer a commutative associative combining function
+   * @return the result of accumulating the given transformation of all keys
+   * @since 1.8
+   */
+  public int reduceKeysToInt(
+      long parallelismThreshold,
+      ToIntFunction<? super K> transformer,
+      int basis,
+      IntBinaryOperator reducer) {
+    if (transformer == null || reducer == null) throw new NullPointerException();
+    return reduceToInt(parallelismThreshold, (k, v) -> transformer.applyAsInt(k), basis, reducer);
+  }
+
+  /**
+   * Performs the given action for each value.
+   *
+   * @param parallelismThreshold the (estimated) number of elements needed for this operation to be
+   *     executed in parallel
+   * @param action the action
+   * @since 1.8
+   */
+  public void forEachValue(long parallelismThreshold, Consumer<? super V> action) {
+    if (action == null) throw new NullPointerException();
+    bulk(
+        parallelismThreshold,
+        it -> {
+          for (Node<K, V> p; (p = it.advance()) != null; ) action.accept(p.val);
+          return null;
+        },
+        null);
+  }
+
+  /**
+   * Performs the given action for each non-null transformation of each value.
+   *
+   * @param parallelismThreshold the (estimated) number of elements needed for this operation to be
+   *     executed in parallel
+   * @param transformer a function returning the transformation for an element, or null if there is
+   *     no transformation (in which case the action is not applied)
+   * @param action the action
+   * @param <U> the return type of the transformer
+   * @since 1.8
+   */
+  public <U> void forEachValue(
+      long parallelismThreshold,
+      Function<? super V, ? extends @Nullable U> transformer,
+      Consumer<? super U> action) {
+    if (transformer == null || action == null) throw new NullPointerException();
+    forEach(parallelismThreshold, (k, v) -> transformer.apply(v), action);
+  }
+
+  /**
+   * Returns a non-null result from applying the given search function on each value, or null if
+   * none. Upon success, further element processing is suppressed and the results of any other
+   * parallel invocations of the search function are ignored.
+   *
+   * @param parallelismThreshold the (estimated) number of elements needed for this operation to be
+   *     executed in parallel
+   * @param searchFunction a function returning a non-null result on success, else null
+   * @param <U> the return type of the search function
+   * @return a non-null result from applying the given search function on each value, or null if
+   *     none
+   * @since 1.8
+   */
+  public <U> @Nullable U searchValues(
+      long parallelismThreshold, Function<? super V, ? extends @Nullable U> searchFunction) {
+    if (searchFunction == null) throw new NullPointerException();
+    return search(parallelismThreshold, (k, v) -> searchFunction.apply(v));
+  }
+
+  /**
+   * Returns the result of accumulating all values using the given reducer to combine values, or
+   * null if none.
+   *
+   * @param parallelismThreshold the (estimated) number of elements needed for this operation to be
+   *     executed in parallel
+   * @param reducer a commutative associative combining function
+   * @return the result of accumulating all values
+   * @since 1.8
+   */
+  public @Nullable V reduceValues(
+      long parallelismThreshold, BiFunction<? super V, ? super V, ? extends V> reducer) {
+    if (reducer == null) throw new NullPointerException();
+    return reduce(parallelismThreshold, (k, v) -> v, reducer);
+  }
+
+  /**
+   * Returns the result of accumulating the given transformation of all values using the given
+   * reducer to combine values, or null if none.
+   *
+   * @param parallelismThreshold the (estimated) number of elements needed for this operation to be
+   *     executed in parallel
+   * @param transformer a function returning the transformation for an element, or null if there is
+   *     no transformation (in which case it is not combined)
+   * @param reducer a commutative associative combining function
+   * @param <U> the return type of the transformer
+   * @return the result of accumulating the given transformation of all values
+   * @since 1.8
+   */
+  public <U> @Nullable U reduceValues(
+      long parallelismThreshold,
+      Function<? super V, ? extends @Nullable U> transformer,
+      BiFunction<? super U, ? super U, ? extends U> reducer) {
+    if (transformer == null || reducer == null) throw new NullPointerException();
+    return reduce(parallelismThreshold, (k, v) -> transformer.apply(v), reducer);
+  }
+
+  /**
+   * Returns the result of accumulating the given transformation of all values using the given
+   * reducer to combine values, and the given basis as an identity value.
+   *
+   * @param parallelismThreshold the (estimated) number of elements needed for this operation to be
+   *     executed in parallel
+   * @param transformer a function returning the transformation for an element
+   * @param basis the identity (initial default value) for the reduction
+   * @param reducer a commutative associative combining function
+   * @return the result of accumulating the given transformation of all values
+   * @since 1.8
+   */
+  public double reduceValuesToDouble(
+      long parallelismThreshold,
+      ToDoubleFunction<? super V> transformer,
+      double basis,
+      DoubleBinaryOperator reducer) {
+    if (transformer == null || reducer == null) throw new NullPointerException();
+    return reduceToDouble(
+        parallelismThreshold, (k, v) -> transformer.applyAsDouble(v), basis, reducer);
+  }
+
+  /**
+   * Returns the result of accumulating the given transformation of all values using the given
+   * reducer to combine values, and the given basis as an identity value.
+   *
+   * @param parallelismThreshold the (estimated) number of elements needed for this operation to be
+   *     executed in parallel
+   * @param transformer a function returning the transformation for an element
+   * @param basis the identity (initial default value) for the reduction
+   * @param reducer a commutative associative combining function
+   * @return the result of accumulating the given transformation of all values
+   * @since 1.8
+   */
+  public long reduceValuesToLong(
+      long parallelismThreshold,
+      ToLongFunction<? super V> transformer,
+      long basis,
+      LongBinaryOperator reducer) {
+    if (transformer == null || reducer == null) throw new NullPointerException();
+    return reduceToLong(parallelismThreshold, (k, v) -> transformer.applyAsLong(v), basis, reducer);
+  }
+
+  /**
+   * Returns the result of accumulating the given transformation of all values using the given
+   * reducer to combine values, and the given basis as an identity value.
+   *
+   * @param parallelismThreshold the (estimated) number of elements needed for this operation to be
+   *     executed in parallel
+   * @param transformer a function returning the transformation for an element
+   * @param basis the identity (initial default value) for the reduction
+   * @param reducer a commutative associative combining function
+   * @return the result of accumulating the given transformation of all values
+   * @since 1.8
+   */
+  public int reduceValuesToInt(
+      long parallelismThreshold,
+      ToIntFunction<? super V> transformer,
+      int basis,
+      IntBinaryOperator reducer) {
+    if (transformer == null || reducer == null) throw new NullPointerException();
+    return reduceToInt(parallelismThreshold, (k, v) -> transformer.applyAsInt(v), basis, reducer);
+  }
+
+  /**
+   * Performs the given action for each entry.
+   *
+   * @param parallelismThreshold the (estimated) number of elements needed for this operation to be
+   *     executed in parallel
+   * @param action the action
+   * @since 1.8
+   */
+  public void forEachEntry(long parallelismThreshold, Consumer<? super Map.Entry<K, V>> action) {
+    if (action == null) throw new NullPointerException();
+    bulk(
+        parallelismThreshold,
+        it -> {
+          for (Node<K, V> p; (p = it.advance()) != null; ) action.accept(p);
+          return null;
+        },
+        null);
+  }
+
+  /**
+   * Performs the given action for each non-null transformation of each entry.
+   *
+   * @param parallelismThreshold the (estimated) number of elements needed for this operation to be
+   *     executed in parallel
+   * @param transformer a function returning the transformation for an element, or null if there is
+   *     no transformation (in which case the action is not applied)
+   * @param action the action
+   * @param <U> the return type of the transformer
+   * @since 1.8
+   */
+  public <U> void forEachEntry(
+      long parallelismThreshold,
+      Function<Map.Entry<K, V>, ? extends @Nullable U> transformer,
+      Consumer<? super U> action) {
+    if (transformer == null || action == null) throw new NullPointerException();
+    bulk(
+        parallelismThreshold,
+        it -> {
+          for (Node<K, V> p; (p = it.advance()) != null; ) {
+            U u;
+            if ((u = transformer.apply(p)) != null) action.accept(u);
+          }
+          return null;
+        },
+        null);
+  }
+
+  /**
+   * Returns a non-null result from applying the given search function on each entry, or null if
+   * none. Upon success, further element processing is suppressed and the results of any other
+   * parallel invocations of the search function are ignored.
+   *
+   * @param parallelismThreshold the (estimated) number of elements needed for this operation to be
+   *     executed in parallel
+   * @param searchFunction a function returning a non-null result on success, else null
+   * @param <U> the return type of the search function
+   * @return a non-null result from applying the given search function on each entry, or null if
+   *     none
+   * @since 1.8
+   */
+  public <U> @Nullable U searchEntries(
+      long parallelismThreshold, Function<Map.Entry<K, V>, ? extends @Nullable U> searchFunction) {
+    if (searchFunction == null) throw new NullPointerException();
+    AtomicReference<@Nullable U> result = new AtomicReference<@Nullable U>();
+    bulk(
+        parallelismThreshold,
+        it -> {
+          for (Node<K, V> p; result.get() == null && (p = it.advance()) != null; ) {
+            U u;
+            if ((u = searchFunction.apply(p)) != null) {
+              result.compareAndSet(null, u);
+              break;
             }
-          } finally {
-            cellsBusy.set(0);
           }
-          collide = false;
-          continue; // Retry with expanded table
-        }
-        h ^= h << 13; // Rehash
-        h ^= h >>> 17;
-        h ^= h << 5;
-      } else if (cellsBusy.get() == 0 && counterCells == as && cellsBusy.compareAndSet(0, 1)) {
-        boolean init = false;
-        try { // Initialize table
-          if (counterCells == as) {
-            CounterCell[] rs = new CounterCell[2];
-            rs[h & 1] = new CounterCell(x);
-            counterCells = rs;
-            init = true;
+          return null;
+        },
+        null);
+    return result.get();
+  }
+
+  /**
+   * Returns the result of accumulating all entries using the given reducer to combine values, or
+   * null if none.
+   *
+   * @param parallelismThreshold the (estimated) number of elements needed for this operation to be
+   *     executed in parallel
+   * @param reducer a commutative associative combining function
+   * @return the result of accumulating all entries
+   * @since 1.8
+   */
+  public Map.@Nullable Entry<K, V> reduceEntries(
+      long parallelismThreshold,
+      BiFunction<Map.Entry<K, V>, Map.Entry<K, V>, ? extends Map.Entry<K, V>> reducer) {
+    if (reducer == null) throw new NullPointerException();
+    return this.<Map.Entry<K, V>>bulk(
+        parallelismThreshold,
+        it -> {
+          Map.Entry<K, V> r = null;
+          for (Node<K, V> p; (p = it.advance()) != null; )
+            r = (r == null) ? p : reducer.apply(r, p);
+          return r;
+        },
+        reducer);
+  }
+
+  /**
+   * Returns the result of accumulating the given transformation of all entries using the given
+   * reducer to combine values, or null if none.
+   *
+   * @param parallelismThreshold the (estimated) number of elements needed for this operation to be
+   *     executed in parallel
+   * @param transformer a function returning the transformation for an element, or null if there is
+   *     no transformation (in which case it is not combined)
+   * @param reducer a commutative associative combining function
+   * @param <U> the return type of the transformer
+   * @return the result of accumulating the given transformation of all entries
+   * @since 1.8
+   */
+  public <U> @Nullable U reduceEntries(
+      long parallelismThreshold,
+      Function<Map.Entry<K, V>, ? extends @Nullable U> transformer,
+      BiFunction<? super U, ? super U, ? extends U> reducer) {
+    if (transformer == null || reducer == null) throw new NullPointerException();
+    return bulk(
+        parallelismThreshold,
+        it -> {
+          U r = null;
+          for (Node<K, V> p; (p = it.advance()) != null; ) {
+            U u;
+            if ((u = transformer.apply(p)) != null) r = (r == null) ? u : reducer.apply(r, u);
           }
-        } finally {
-          cellsBusy.set(0);
-        }
-        if (init) break;
-      } else if (baseCount.compareAndSet(v = baseCount.get(), v + x))
-        break; // Fall back on using base
-    }
-    hc.code = h; // Record index for next time
+          return r;
+        },
+        reducer);
+  }
+
+  /**
+   * Returns the result of accumulating the given transformation of all entries using the given
+   * reducer to combine values, and the given basis as an identity value.
+   *
+   * @param parallelismThreshold the (estimated) number of elements needed for this operation to be
+   *     executed in parallel
+   * @param transformer a function returning the transformation for an element
+   * @param basis the identity (initial default value) for the reduction
+   * @param reducer a commutative associative combining function
+   * @return the result of accumulating the given transformation of all entries
+   * @since 1.8
+   */
+  public double reduceEntriesToDouble(
+      long parallelismThreshold,
+      ToDoubleFunction<Map.Entry<K, V>> transformer,
+      double basis,
+      DoubleBinaryOperator reducer) {
+    if (transformer == null || reducer == null) throw new NullPointerException();
+    Double result =
+        bulk(
+            parallelismThreshold,
+            it -> {
+              double r = basis;
+              for (Node<K, V> p; (p = it.advance()) != null; )
+                r = reducer.applyAsDouble(r, transformer.applyAsDouble(p));
+              return r;
+            },
+            (a, b) -> reducer.applyAsDouble(a, b));
+    return (result == null) ? basis : result;
+  }
+
+  /**
+   * Returns the result of accumulating the given transformation of all entries using the given
+   * reducer to combine values, and the given basis as an identity value.
+   *
+   * @param parallelismThreshold the (estimated) number of elements needed for this operation to be
+   *     executed in parallel
+   * @param transformer a function returning the transformation for an element
+   * @param basis the identity (initial default value) for the reduction
+   * @param reducer a commutative associative combining function
+   * @return the result of accumulating the given transformation of all entries
+   * @since 1.8
+   */
+  public long reduceEntriesToLong(
+      long parallelismThreshold,
+      ToLongFunction<Map.Entry<K, V>> transformer,
+      long basis,
+      LongBinaryOperator reducer) {
+    if (transformer == null || reducer == null) throw new NullPointerException();
+    Long result =
+        bulk(
+            parallelismThreshold,
+            it -> {
+              long r = basis;
+              for (Node<K, V> p; (p = it.advance()) != null; )
+                r = reducer.applyAsLong(r, transformer.applyAsLong(p));
+              return r;
+            },
+            (a, b) -> reducer.applyAsLong(a, b));
+    return (result == null) ? basis : result;
+  }
+
+  /**
+   * Returns the result of accumulating the given transformation of all entries using the given
+   * reducer to combine values, and the given basis as an identity value.
+   *
+   * @param parallelismThreshold the (estimated) number of elements needed for this operation to be
+   *     executed in parallel
+   * @param transformer a function returning the transformation for an element
+   * @param basis the identity (initial default value) for the reduction
+   * @param reducer a commutative associative combining function
+   * @return the result of accumulating the given transformation of all entries
+   * @since 1.8
+   */
+  public int reduceEntriesToInt(
+      long parallelismThreshold,
+      ToIntFunction<Map.Entry<K, V>> transformer,
+      int basis,
+      IntBinaryOperator reducer) {
+    if (transformer == null || reducer == null) throw new NullPointerException();
+    Integer result =
+        bulk(
+            parallelismThreshold,
+            it -> {
+              int r = basis;
+              for (Node<K, V> p; (p = it.advance()) != null; )
+                r = reducer.applyAsInt(r, transformer.applyAsInt(p));
+              return r;
+            },
+            (a, b) -> reducer.applyAsInt(a, b));
+    return (result == null) ? basis : result;
+  }
+
+  /* ---------------- Bulk tasks -------------- */
+
+  /** A computation over the bins visited by one range traverser. */
+  interface RangeAction<K, V, U> {
+    @Nullable U apply(Traverser<K, V> it);
   }
 }
@@ -0,0 +1,1133 @@
+/*
+ * Written by Doug Lea and Martin Buchholz with assistance from members of
+ * JCP JSR-166 Expert Group and released to the public domain, as explained
+ * at http://creativecommons.org/publicdomain/zero/1.0/
+ */
+
+package java.util.concurrent;
+
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicReference;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+// J2kt-native: (de)serialization code and spliterator removed. Nodes are implemented in Kotlin
+// (ConcurrentLinkedDequeNode.kt) so that their fields are atomics without extra allocations.
+
+/**
+ * An unbounded concurrent {@linkplain Deque deque} based on linked nodes. Concurrent insertion,
+ * removal, and access operations execute safely across multiple threads. A {@code
+ * ConcurrentLinkedDeque} is an appropriate choice when many threads will share access to a common
+ * collection. Like most other concurrent collection implementations, this class does not permit
+ * the use of {@code null} elements.
+ *
+ * <p>Iterators are <i>weakly consistent</i>, returning elements reflecting the state of the deque
+ * at some point at or since the creation of the iterator. They do <em>not</em> throw {@link
+ * java.util.ConcurrentModificationException}, and may proceed concurrently with other operations.
+ *
+ * <p>Beware that, unlike in most collections, the {@code size} method is <em>NOT</em> a
+ * constant-time operation. Because of the asynchronous nature of these deques, determining the
+ * current number of elements requires a traversal of the elements, and so may report inaccurate
+ * results if this collection is modified during traversal.
+ *
+ * @since 1.7
+ * @author Doug Lea
+ * @author Martin Buchholz
+ * @param <E> the type of elements held in this collection
+ */
+@NullMarked
+public class ConcurrentLinkedDeque<E> extends AbstractCollection<E> implements Deque<E> {
+
+  /*
+   * This is an implementation of a concurrent lock-free deque supporting interior removes but not
+   * interior insertions, as required to support the entire Deque interface.
+   *
+   * A node contains the expected E ("item") and links to predecessor ("prev") and successor
+   * ("next") nodes. A node with a null item has been logically deleted. The first node has a null
+   * prev link, the last node a null next link. Nodes are appended with a CAS on the next link of
+   * the last node, and prepended with a CAS on the prev link of the first node.
+   *
+   * Deleted nodes are unlinked in three stages: their item is CASed to null ("logical deletion"),
+   * then they are skipped over by their live neighbours ("unlinking"), and finally their own links
+   * are redirected to themselves or to the PREV_TERMINATOR/NEXT_TERMINATOR sentinels
+   * ("gc-unlinking"), once they can no longer be reached from head or tail. Traversals that reach
+   * a self-linked node restart from the corresponding end.
+   *
+   * Like in ConcurrentLinkedQueue, head and tail are allowed to lag behind the first and last
+   * nodes, and are only updated once they are at least HOPS nodes away.
+   */
+
+  private static final int HOPS = 2;
+
+  private static final ConcurrentLinkedDequeNode<Object> PREV_TERMINATOR =
+      new ConcurrentLinkedDequeNode<Object>(null);
+  private static final ConcurrentLinkedDequeNode<Object> NEXT_TERMINATOR =
+      new ConcurrentLinkedDequeNode<Object>(null);
+
+  static {
+    PREV_TERMINATOR.lazySetNext(PREV_TERMINATOR);
+    NEXT_TERMINATOR.lazySetPrev(NEXT_TERMINATOR);
+  }
+
+  /**
+   * A node from which the first node on list (that is, the unique node p with p.prev == null &&
+   * p.next != p) can be reached in O(1) time.
+   */
+  private final AtomicReference<ConcurrentLinkedDequeNode<E>> head;
+
+  /**
+   * A node from which the last node on list (that is, the unique node p with p.next == null &&
+   * p.prev != p) can be reached in O(1) time.
+   */
+  private final AtomicReference<ConcurrentLinkedDequeNode<E>> tail;
+
+  /** Constructs an empty deque. */
+  public ConcurrentLinkedDeque() {
+    ConcurrentLinkedDequeNode<E> dummy = new ConcurrentLinkedDequeNode<E>(null);
+    head = new AtomicReference<>(dummy);
+    tail = new AtomicReference<>(dummy);
+  }
+
+  /**
+   * Constructs a deque initially containing the elements of the given collection, added in
+   * traversal order of the collection's iterator.
+   *
+   * @throws NullPointerException if the specified collection or any of its elements are null
+   */
+  public ConcurrentLinkedDeque(Collection<? extends E> c) {
+    this();
+    addAll(c);
+  }
+
+  @SuppressWarnings("unchecked")
+  private ConcurrentLinkedDequeNode<E> prevTerminator() {
+    return (ConcurrentLinkedDequeNode<E>) (ConcurrentLinkedDequeNode<?>) PREV_TERMINATOR;
+  }
+
+  @SuppressWarnings("unchecked")
+  private ConcurrentLinkedDequeNode<E> nextTerminator() {
+    return (ConcurrentLinkedDequeNode<E>) (ConcurrentLinkedDequeNode<?>) NEXT_TERMINATOR;
+  }
+
+  /** Links e as first element. */
+  private void linkFirst(E e) {
+    checkNotNull(e);
+    ConcurrentLinkedDequeNode<E> newNode = new ConcurrentLinkedDequeNode<E>(e);
+
+    restartFromHead:
+    for (; ; ) {
+      ConcurrentLinkedDequeNode<E> h = head.get();
+      ConcurrentLinkedDequeNode<E> p = h;
+      for (; ; ) {
+        ConcurrentLinkedDequeNode<E> q = p.getPrev();
+        if (q != null && (q = (p = q).getPrev()) != null) {
+          // Check for head updates every other hop. If p == q, we are sure to follow head instead.
+          ConcurrentLinkedDequeNode<E> newHead = head.get();
+          if (h != newHead) {
+            h = newHead;
+            p = h;
+          } else {
+            p = q;
+          }
+        } else if (p.getNext() == p) {
+          // PREV_TERMINATOR
+          continue restartFromHead;
+        } else {
+          // p is first node
+          newNode.lazySetNext(p); // CAS piggyback
+          if (p.casPrev(null, newNode)) {
+            // Successful CAS is the linearization point for e to become an element of this deque,
+            // and for newNode to become "live".
+            if (p != h) {
+              // hop two nodes at a time; failure is OK
+              head.compareAndSet(h, newNode);
+            }
+            return;
+          }
+          // Lost CAS race to another thread; re-read prev
+        }
+      }
+    }
+  }
+
+  /** Links e as last element. */
+  private void linkLast(E e) {
+    checkNotNull(e);
+    ConcurrentLinkedDequeNode<E> newNode = new ConcurrentLinkedDequeNode<E>(e);
+
+    restartFromTail:
+    for (; ; ) {
+      ConcurrentLinkedDequeNode<E> t = tail.get();
+      ConcurrentLinkedDequeNode<E> p = t;
+      for (; ; ) {
+        ConcurrentLinkedDequeNode<E> q = p.getNext();
+        if (q != null && (q = (p = q).getNext()) != null) {
+          // Check for tail updates every other hop. If p == q, we are sure to follow tail instead.
+          ConcurrentLinkedDequeNode<E> newTail = tail.get();
+          if (t != newTail) {
+            t = newTail;
+            p = t;
+          } else {
+            p = q;
+          }
+        } else if (p.getPrev() == p) {
+          // NEXT_TERMINATOR
+          continue restartFromTail;
+        } else {
+          // p is last node
+          newNode.lazySetPrev(p); // CAS piggyback
+          if (p.casNext(null, newNode)) {
+            // Successful CAS is the linearization point for e to become an element of this deque,
+            // and for newNode to become "live".
+            if (p != t) {
+              // hop two nodes at a time; failure is OK
+              tail.compareAndSet(t, newNode);
+            }
+            return;
+          }
+          // Lost CAS race to another thread; re-read next
+        }
+      }
+    }
+  }
+
+  /** Unlinks non-null node x. */
+  void unlink(ConcurrentLinkedDequeNode<E> x) {
+    // assert x.getItem() == null;
+    // assert x != PREV_TERMINATOR && x != NEXT_TERMINATOR;
+
+    ConcurrentLinkedDequeNode<E> prev = x.getPrev();
+    ConcurrentLinkedDequeNode<E> next = x.getNext();
+    if (prev == null) {
+      unlinkFirst(x, next);
+    } else if (next == null) {
+      unlinkLast(x, prev);
+    } else {
+      // Unlink interior node.
+      //
+      // This is the common case, since a series of polls at the same end will be "interior"
+      // removes, except perhaps for the first one, since end nodes cannot be unlinked.
+      //
+      // At any time, all active nodes are mutually reachable by following a sequence of either
+      // next or prev pointers.
+      //
+      // Our strategy is to find the unique active predecessor and successor of x. Try to fix up
+      // their links so that they point to each other, leaving x unreachable from active nodes. If
+      // successful, and if x has no live predecessor/successor, we additionally try to gc-unlink,
+      // leaving x unreachable from head and tail.
+      ConcurrentLinkedDequeNode<E> activePred;
+      ConcurrentLinkedDequeNode<E> activeSucc;
+      boolean isFirst;
+      boolean isLast;
+      int hops = 1;
+
+      // Find active predecessor
+      for (ConcurrentLinkedDequeNode<E> p = prev; ; ++hops) {
+        if (p.getItem() != null) {
+          activePred = p;
+          isFirst = false;
+          break;
+        }
+        ConcurrentLinkedDequeNode<E> q = p.getPrev();
+        if (q == null) {
+          if (p.getNext() == p) {
+            return;
+          }
+          activePred = p;
+          isFirst = true;
+          break;
+        } else if (p == q) {
+          return;
+        } else {
+          p = q;
+        }
+      }
+
+      // Find active successor
+      for (ConcurrentLinkedDequeNode<E> p = next; ; ++hops) {
+        if (p.getItem() != null) {
+          activeSucc = p;
+          isLast = false;
+          break;
+        }
+        ConcurrentLinkedDequeNode<E> q = p.getNext();
+        if (q == null) {
+          if (p.getPrev() == p) {
+            return;
+          }
+          activeSucc = p;
+          isLast = true;
+          break;
+        } else if (p == q) {
+          return;
+        } else {
+          p = q;
+        }
+      }
+
+      // Always squeeze out interior deleted nodes; nodes next to an end only every HOPS hops.
+      if (hops < HOPS && (isFirst || isLast)) {
+        return;
+      }
+
+      // Squeeze out deleted nodes between activePred and activeSucc, including x.
+      skipDeletedSuccessors(activePred);
+      skipDeletedPredecessors(activeSucc);
+
+      // Try to gc-unlink, if possible
+      if ((isFirst || isLast)
+          // Recheck expected state of predecessor and successor
+          && (activePred.getNext() == activeSucc)
+          && (activeSucc.getPrev() == activePred)
+          && (isFirst ? activePred.getPrev() == null : activePred.getItem() != null)
+          && (isLast ? activeSucc.getNext() == null : activeSucc.getItem() != null)) {
+
+        updateHead(); // Ensure x is not reachable from head
+        updateTail(); // Ensure x is not reachable from tail
+
+        // Finally, actually gc-unlink
+        x.lazySetPrev(isFirst ? prevTerminator() : x);
+        x.lazySetNext(isLast ? nextTerminator() : x);
+      }
+    }
+  }
+
+  /** Unlinks non-null first node. */
+  private void unlinkFirst(
+      ConcurrentLinkedDequeNode<E> first, @Nullable ConcurrentLinkedDequeNode<E> next) {
+    ConcurrentLinkedDequeNode<E> o = null;
+    ConcurrentLinkedDequeNode<E> p = next;
+    while (p != null) {
+      ConcurrentLinkedDequeNode<E> q = null;
+      if (p.getItem() != null || (q = p.getNext()) == null) {
+        if (o != null && p.getPrev() != p && first.casNext(next, p)) {
+          skipDeletedPredecessors(p);
+          if (first.getPrev() == null
+              && (p.getNext() == null || p.getItem() != null)
+              && p.getPrev() == first) {
+
+            updateHead(); // Ensure o is not reachable from head
+            updateTail(); // Ensure o is not reachable from tail
+
+            // Finally, actually gc-unlink
+            o.lazySetNext(o);
+            o.lazySetPrev(prevTerminator());
+          }
+        }
+        return;
+      } else if (p == q) {
+        return;
+      } else {
+        o = p;
+        p = q;
+      }
+    }
+  }
+
+  /** Unlinks non-null last node. */
+  private void unlinkLast(
+      ConcurrentLinkedDequeNode<E> last, @Nullable ConcurrentLinkedDequeNode<E> prev) {
+    ConcurrentLinkedDequeNode<E> o = null;
+    ConcurrentLinkedDequeNode<E> p = prev;
+    while (p != null) {
+      ConcurrentLinkedDequeNode<E> q = null;
+      if (p.getItem() != null || (q = p.getPrev()) == null) {
+        if (o != null && p.getNext() != p && last.casPrev(prev, p)) {
+          skipDeletedSuccessors(p);
+          if (last.getNext() == null
+              && (p.getPrev() == null || p.getItem() != null)
+              && p.getNext() == last) {
+
+            updateHead(); // Ensure o is not reachable from head
+            updateTail(); // Ensure o is not reachable from tail
+
+            // Finally, actually gc-unlink
+            o.lazySetPrev(o);
+            o.lazySetNext(nextTerminator());
+          }
+        }
+        return;
+      } else if (p == q) {
+        return;
+      } else {
+        o = p;
+        p = q;
+      }
+    }
+  }
+
+  /**
+   * Guarantees that any node which was unlinked before a call to this method will be unreachable
+   * from head after it returns. Does not guarantee to eliminate slack, only that head will point to
+   * a node that was active while this method was running.
+   */
+  private void updateHead() {
+    // Either head already points to an active node, or we keep trying to cas it to the first node
+    // until it does.
+    restartFromHead:
+    for (; ; ) {
+      ConcurrentLinkedDequeNode<E> h = head.get();
+      ConcurrentLinkedDequeNode<E> p;
+      if (h.getItem() != null || (p = h.getPrev()) == null) {
+        return;
+      }
+      for (; ; ) {
+        ConcurrentLinkedDequeNode<E> q = p.getPrev();
+        if (q == null || (q = (p = q).getPrev()) == null) {
+          // It is possible that p is PREV_TERMINATOR, but if so, the CAS is guaranteed to fail.
+          if (head.compareAndSet(h, p)) {
+            return;
+          }
+          continue restartFromHead;
+        } else if (h != head.get()) {
+          continue restartFromHead;
+        } else {
+          p = q;
+        }
+      }
+    }
+  }
+
+  /**
+   * Guarantees that any node which was unlinked before a call to this method will be unreachable
+   * from tail after it returns. Does not guarantee to eliminate slack, only that tail will point to
+   * a node that was active while this method was running.
+   */
+  private void updateTail() {
+    // Either tail already points to an active node, or we keep trying to cas it to the last node
+    // until it does.
+    restartFromTail:
+    for (; ; ) {
+      ConcurrentLinkedDequeNode<E> t = tail.get();
+      ConcurrentLinkedDequeNode<E> p;
+      if (t.getItem() != null || (p = t.getNext()) == null) {
+        return;
+      }
+      for (; ; ) {
+        ConcurrentLinkedDequeNode<E> q = p.getNext();
+        if (q == null || (q = (p = q).getNext()) == null) {
+          // It is possible that p is NEXT_TERMINATOR, but if so, the CAS is guaranteed to fail.
+          if (tail.compareAndSet(t, p)) {
+            return;
+          }
+          continue restartFromTail;
+        } else if (t != tail.get()) {
+          continue restartFromTail;
+        } else {
+          p = q;
+        }
+      }
+    }
+  }
+
+  private void skipDeletedPredecessors(ConcurrentLinkedDequeNode<E> x) {
+    whileActive:
+    do {
+      ConcurrentLinkedDequeNode<E> prev = x.getPrev();
+      // assert prev != null;
+      // assert x != NEXT_TERMINATOR;
+      // assert x != PREV_TERMINATOR;
+      ConcurrentLinkedDequeNode<E> p = prev;
+      findActive:
+      for (; ; ) {
+        if (p.getItem() != null) {
+          break findActive;
+        }
+        ConcurrentLinkedDequeNode<E> q = p.getPrev();
+        if (q == null) {
+          if (p.getNext() == p) {
+            continue whileActive;
+          }
+          break findActive;
+        } else if (p == q) {
+          continue whileActive;
+        } else {
+          p = q;
+        }
+      }
+
+      // found active CAS target
+      if (prev == p || x.casPrev(prev, p)) {
+        return;
+      }
+    } while (x.getItem() != null || x.getNext() == null);
+  }
+
+  private void skipDeletedSuccessors(ConcurrentLinkedDequeNode<E> x) {
+    whileActive:
+    do {
+      ConcurrentLinkedDequeNode<E> next = x.getNext();
+      // assert next != null;
+      // assert x != NEXT_TERMINATOR;
+      // assert x != PREV_TERMINATOR;
+      ConcurrentLinkedDequeNode<E> p = next;
+      findActive:
+      for (; ; ) {
+        if (p.getItem() != null) {
+          break findActive;
+        }
+        ConcurrentLinkedDequeNode<E> q = p.getNext();
+        if (q == null) {
+          if (p.getPrev() == p) {
+            continue whileActive;
+          }
+          break findActive;
+        } else if (p == q) {
+          continue whileActive;
+        } else {
+          p = q;
+        }
+      }
+
+      // found active CAS target
+      if (next == p || x.casNext(next, p)) {
+        return;
+      }
+    } while (x.getItem() != null || x.getPrev() == null);
+  }
+
+  /**
+   * Returns the successor of p, or the first node if p.next has been linked to self, which will
+   * only be true if traversing with a stale pointer that is now off the list.
+   */
+  final @Nullable ConcurrentLinkedDequeNode<E> succ(ConcurrentLinkedDequeNode<E> p) {
+    ConcurrentLinkedDequeNode<E> q = p.getNext();
+    return (p == q) ? first() : q;
+  }
+
+  /**
+   * Returns the predecessor of p, or the last node if p.prev has been linked to self, which will
+   * only be true if traversing with a stale pointer that is now off the list.
+   */
+  final @Nullable ConcurrentLinkedDequeNode<E> pred(ConcurrentLinkedDequeNode<E> p) {
+    ConcurrentLinkedDequeNode<E> q = p.getPrev();
+    return (p == q) ? last() : q;
+  }
+
+  /**
+   * Returns the first node, the unique node p for which: p.prev == null && p.next != p. The
+   * returned node may or may not be logically deleted. Guarantees that head is set to the returned
+   * node.
+   */
+  ConcurrentLinkedDequeNode<E> first() {
+    restartFromHead:
+    for (; ; ) {
+      ConcurrentLinkedDequeNode<E> h = head.get();
+      ConcurrentLinkedDequeNode<E> p = h;
+      for (; ; ) {
+        ConcurrentLinkedDequeNode<E> q = p.getPrev();
+        if (q != null && (q = (p = q).getPrev()) != null) {
+          // Check for head updates every other hop. If p == q, we are sure to follow head instead.
+          ConcurrentLinkedDequeNode<E> newHead = head.get();
+          if (h != newHead) {
+            h = newHead;
+            p = h;
+          } else {
+            p = q;
+          }
+        } else if (p == h
+            // It is possible that p is PREV_TERMINATOR, but if so, the CAS is guaranteed to fail.
+            || head.compareAndSet(h, p)) {
+          return p;
+        } else {
+          continue restartFromHead;
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns the last node, the unique node p for which: p.next == null && p.prev != p. The returned
+   * node may or may not be logically deleted. Guarantees that tail is set to the returned node.
+   */
+  ConcurrentLinkedDequeNode<E> last() {
+    restartFromTail:
+    for (; ; ) {
+      ConcurrentLinkedDequeNode<E> t = tail.get();
+      ConcurrentLinkedDequeNode<E> p = t;
+      for (; ; ) {
+        ConcurrentLinkedDequeNode<E> q = p.getNext();
+        if (q != null && (q = (p = q).getNext()) != null) {
+          // Check for tail updates every other hop. If p == q, we are sure to follow tail instead.
+          ConcurrentLinkedDequeNode<E> newTail = tail.get();
+          if (t != newTail) {
+            t = newTail;
+            p = t;
+          } else {
+            p = q;
+          }
+        } else if (p == t
+            // It is possible that p is NEXT_TERMINATOR, but if so, the CAS is guaranteed to fail.
+            || tail.compareAndSet(t, p)) {
+          return p;
+        } else {
+          continue restartFromTail;
+        }
+      }
+    }
+  }
+
+  // Minor convenience utilities
+
+  /**
+   * Throws NullPointerException if argument is null.
+   *
+   * @param v the element
+   */
+  private static void checkNotNull(@Nullable Object v) {
+    if (v == null) {
+      throw new NullPointerException();
+    }
+  }
+
+  /**
+   * Returns element unless it is null, in which case throws NoSuchElementException.
+   *
+   * @param v the element
+   * @return the element
+   */
+  private E screenNullResult(@Nullable E v) {
+    if (v == null) {
+      throw new NoSuchElementException();
+    }
+    return v;
+  }
+
+  /**
+   * Inserts the specified element at the front of this deque. As the deque is unbounded, this
+   * method will never throw {@link IllegalStateException}.
+   *
+   * @throws NullPointerException if the specified element is null
+   */
+  @Override
+  public void addFirst(E e) {
+    linkFirst(e);
+  }
+
+  /**
+   * Inserts the specified element at the end of this deque. As the deque is unbounded, this method
+   * will never throw {@link IllegalStateException}.
+   *
+   * <p>This method is equivalent to {@link #add}.
+   *
+   * @throws NullPointerException if the specified element is null
+   */
+  @Override
+  public void addLast(E e) {
+    linkLast(e);
+  }
+
+  /**
+   * Inserts the specified element at the front of this deque. As the deque is unbounded, this
+   * method will never return {@code false}.
+   *
+   * @return {@code true} (as specified by {@link Deque#offerFirst})
+   * @throws NullPointerException if the specified element is null
+   */
+  @Override
+  public boolean offerFirst(E e) {
+    linkFirst(e);
+    return true;
+  }
+
+  /**
+   * Inserts the specified element at the end of this deque. As the deque is unbounded, this method
+   * will never return {@code false}.
+   *
+   * <p>This method is equivalent to {@link #add}.
+   *
+   * @return {@code true} (as specified by {@link Deque#offerLast})
+   * @throws NullPointerException if the specified element is null
+   */
+  @Override
+  public boolean offerLast(E e) {
+    linkLast(e);
+    return true;
+  }
+
+  @Override
+  public @Nullable E peekFirst() {
+    for (ConcurrentLinkedDequeNode<E> p = first(); p != null; p = succ(p)) {
+      E item = p.getItem();
+      if (item != null) {
+        return item;
+      }
+    }
+    return null;
+  }
+
+  @Override
+  public @Nullable E peekLast() {
+    for (ConcurrentLinkedDequeNode<E> p = last(); p != null; p = pred(p)) {
+      E item = p.getItem();
+      if (item != null) {
+        return item;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * @throws NoSuchElementException {@inheritDoc}
+   */
+  @Override
+  public E getFirst() {
+    return screenNullResult(peekFirst());
+  }
+
+  /**
+   * @throws NoSuchElementException {@inheritDoc}
+   */
+  @Override
+  public E getLast() {
+    return screenNullResult(peekLast());
+  }
+
+  @Override
+  public @Nullable E pollFirst() {
+    for (ConcurrentLinkedDequeNode<E> p = first(); p != null; p = succ(p)) {
+      E item = p.getItem();
+      if (item != null && p.casItem(item, null)) {
+        unlink(p);
+        return item;
+      }
+    }
+    return null;
+  }
+
+  @Override
+  public @Nullable E pollLast() {
+    for (ConcurrentLinkedDequeNode<E> p = last(); p != null; p = pred(p)) {
+      E item = p.getItem();
+      if (item != null && p.casItem(item, null)) {
+        unlink(p);
+        return item;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * @throws NoSuchElementException {@inheritDoc}
+   */
+  @Override
+  public E removeFirst() {
+    return screenNullResult(pollFirst());
+  }
+
+  /**
+   * @throws NoSuchElementException {@inheritDoc}
+   */
+  @Override
+  public E removeLast() {
+    return screenNullResult(pollLast());
+  }
+
+  // *** Queue and stack methods ***
+
+  /**
+   * Inserts the specified element at the tail of this deque. As the deque is unbounded, this method
+   * will never return {@code false}.
+   *
+   * @return {@code true} (as specified by {@link java.util.Queue#offer})
+   * @throws NullPointerException if the specified element is null
+   */
+  @Override
+  public boolean offer(E e) {
+    return offerLast(e);
+  }
+
+  /**
+   * Inserts the specified element at the tail of this deque. As the deque is unbounded, this method
+   * will never throw {@link IllegalStateException} or return {@code false}.
+   *
+   * @return {@code true} (as specified by {@link Collection#add})
+   * @throws NullPointerException if the specified element is null
+   */
+  @Override
+  public boolean add(E e) {
+    return offerLast(e);
+  }
+
+  @Override
+  public @Nullable E poll() {
+    return pollFirst();
+  }
+
+  @Override
+  public @Nullable E peek() {
+    return peekFirst();
+  }
+
+  /**
+   * @throws NoSuchElementException {@inheritDoc}
+   */
+  @Override
+  public E remove() {
+    return removeFirst();
+  }
+
+  /**
+   * @throws NoSuchElementException {@inheritDoc}
+   */
+  @Override
+  public E pop() {
+    return removeFirst();
+  }
+
+  /**
+   * @throws NoSuchElementException {@inheritDoc}
+   */
+  @Override
+  public E element() {
+    return getFirst();
+  }
+
+  /**
+   * @throws NullPointerException {@inheritDoc}
+   */
+  @Override
+  public void push(E e) {
+    addFirst(e);
+  }
+
+  /**
+   * Removes the first element {@code e} such that {@code o.equals(e)}, if such an element exists in
+   * this deque. If the deque does not contain the element, it is unchanged.
+   *
+   * @param o element to be removed from this deque, if present
+   * @return {@code true} if the deque contained the specified element
+   * @throws NullPointerException if the specified element is null
+   */
+  @Override
+  public boolean removeFirstOccurrence(@Nullable Object o) {
+    checkNotNull(o);
+    for (ConcurrentLinkedDequeNode<E> p = first(); p != null; p = succ(p)) {
+      E item = p.getItem();
+      if (item != null && o.equals(item) && p.casItem(item, null)) {
+        unlink(p);
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Removes the last element {@code e} such that {@code o.equals(e)}, if such an element exists in
+   * this deque. If the deque does not contain the element, it is unchanged.
+   *
+   * @param o element to be removed from this deque, if present
+   * @return {@code true} if the deque contained the specified element
+   * @throws NullPointerException if the specified element is null
+   */
+  @Override
+  public boolean removeLastOccurrence(@Nullable Object o) {
+    checkNotNull(o);
+    for (ConcurrentLinkedDequeNode<E> p = last(); p != null; p = pred(p)) {
+      E item = p.getItem();
+      if (item != null && o.equals(item) && p.casItem(item, null)) {
+        unlink(p);
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Returns {@code true} if this deque contains at least one element {@code e} such that {@code
+   * o.equals(e)}.
+   *
+   * @param o element whose presence in this deque is to be tested
+   * @return {@code true} if this deque contains the specified element
+   */
+  @Override
+  public boolean contains(@Nullable Object o) {
+    if (o == null) {
+      return false;
+    }
+    for (ConcurrentLinkedDequeNode<E> p = first(); p != null; p = succ(p)) {
+      E item = p.getItem();
+      if (item != null && o.equals(item)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Returns {@code true} if this collection contains no elements.
+   *
+   * @return {@code true} if this collection contains no elements
+   */
+  @Override
+  public boolean isEmpty() {
+    return peekFirst() == null;
+  }
+
+  /**
+   * Returns the number of elements in this deque. If this deque contains more than {@code
+   * Integer.MAX_VALUE} elements, it returns {@code Integer.MAX_VALUE}.
+   *
+   * <p>Beware that, unlike in most collections, this method is <em>NOT</em> a constant-time
+   * operation.
+   *
+   * @return the number of elements in this deque
+   */
+  @Override
+  public int size() {
+    int count = 0;
+    for (ConcurrentLinkedDequeNode<E> p = first(); p != null; p = succ(p)) {
+      if (p.getItem() != null) {
+        // Collection.size() spec says to max out
+        if (++count == Integer.MAX_VALUE) {
+          break;
+        }
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Removes the first element {@code e} such that {@code o.equals(e)}, if such an element exists in
+   * this deque. If the deque does not contain the element, it is unchanged.
+   *
+   * @param o element to be removed from this deque, if present
+   * @return {@code true} if the deque contained the specified element
+   * @throws NullPointerException if the specified element is null
+   */
+  @Override
+  public boolean remove(@Nullable Object o) {
+    return removeFirstOccurrence(o);
+  }
+
+  /**
+   * Appends all of the elements in the specified collection to the end of this deque, in the order
+   * that they are returned by the specified collection's iterator. The elements are linked into a
+   * private chain first, which is then appended with a single CAS.
+   *
+   * @param c the elements to be inserted into this deque
+   * @return {@code true} if this deque changed as a result of the call
+   * @throws NullPointerException if the specified collection or any of its elements are null
+   * @throws IllegalArgumentException if the collection is this deque
+   */
+  @Override
+  public boolean addAll(Collection<? extends E> c) {
+    if (c == this) {
+      // As historically specified in AbstractQueue#addAll
+      throw new IllegalArgumentException();
+    }
+
+    // Copy c into a private chain of Nodes
+    ConcurrentLinkedDequeNode<E> beginningOfTheEnd = null;
+    ConcurrentLinkedDequeNode<E> last = null;
+    for (E e : c) {
+      checkNotNull(e);
+      ConcurrentLinkedDequeNode<E> newNode = new ConcurrentLinkedDequeNode<E>(e);
+      if (last == null) {
+        beginningOfTheEnd = newNode;
+      } else {
+        last.lazySetNext(newNode);
+        newNode.lazySetPrev(last);
+      }
+      last = newNode;
+    }
+    if (beginningOfTheEnd == null || last == null) {
+      return false;
+    }
+
+    // Atomically append the chain at the tail of this collection
+    restartFromTail:
+    for (; ; ) {
+      ConcurrentLinkedDequeNode<E> t = tail.get();
+      ConcurrentLinkedDequeNode<E> p = t;
+      for (; ; ) {
+        ConcurrentLinkedDequeNode<E> q = p.getNext();
+        if (q != null && (q = (p = q).getNext()) != null) {
+          // Check for tail updates every other hop. If p == q, we are sure to follow tail instead.
+          ConcurrentLinkedDequeNode<E> newTail = tail.get();
+          if (t != newTail) {
+            t = newTail;
+            p = t;
+          } else {
+            p = q;
+          }
+        } else if (p.getPrev() == p) {
+          // NEXT_TERMINATOR
+          continue restartFromTail;
+        } else {
+          // p is last node
+          beginningOfTheEnd.lazySetPrev(p); // CAS piggyback
+          if (p.casNext(null, beginningOfTheEnd)) {
+            // Successful CAS is the linearization point for all elements to be added to this deque.
+            if (!tail.compareAndSet(t, last)) {
+              // Try a little harder to update tail, since we may be adding many elements.
+              t = tail.get();
+              if (last.getNext() == null) {
+                tail.compareAndSet(t, last);
+              }
+            }
+            return true;
+          }
+          // Lost CAS race to another thread; re-read next
+        }
+      }
+    }
+  }
+
+  /** Removes all of the elements from this deque. */
+  @Override
+  public void clear() {
+    while (pollFirst() != null) {}
+  }
+
+  @Override
+  public @Nullable Object[] toArray() {
+    return toArrayList().toArray();
+  }
+
+  @Override
+  public <T extends @Nullable Object> T[] toArray(T[] a) {
+    return toArrayList().toArray(a);
+  }
+
+  private ArrayList<E> toArrayList() {
+    ArrayList<E> list = new ArrayList<E>();
+    for (ConcurrentLinkedDequeNode<E> p = first(); p != null; p = succ(p)) {
+      E item = p.getItem();
+      if (item != null) {
+        list.add(item);
+      }
+    }
+    return list;
+  }
+
+  /**
+   * Returns an iterator over the elements in this deque in proper sequence. The elements will be
+   * returned in order from first (head) to last (tail).
+   *
+   * <p>The returned iterator is <i>weakly consistent</i>.
+   *
+   * @return an iterator over the elements in this deque in proper sequence
+   */
+  @Override
+  public Iterator<E> iterator() {
+    return new Itr();
+  }
+
+  /**
+   * Returns an iterator over the elements in this deque in reverse sequential order. The elements
+   * will be returned in order from last (tail) to first (head).
+   *
+   * <p>The returned iterator is <i>weakly consistent</i>.
+   *
+   * @return an iterator over the elements in this deque in reverse order
+   */
+  @Override
+  public Iterator<E> descendingIterator() {
+    return new DescendingItr();
+  }
+
+  private abstract class AbstractItr implements Iterator<E> {
+    /** Next node to return item for. */
+    private @Nullable ConcurrentLinkedDequeNode<E> nextNode;
+
+    /**
+     * nextItem holds on to item fields because once we claim that an element exists in hasNext(),
+     * we must return it in the following next() call even if it was in the process of being
+     * removed when hasNext() was called.
+     */
+    private @Nullable E nextItem;
+
+    /**
+     * Node returned by most recent call to next. Needed by remove. Reset to null if this element is
+     * deleted by a call to remove.
+     */
+    private @Nullable ConcurrentLinkedDequeNode<E> lastRet;
+
+    abstract @Nullable ConcurrentLinkedDequeNode<E> startNode();
+
+    abstract @Nullable ConcurrentLinkedDequeNode<E> nextNode(ConcurrentLinkedDequeNode<E> p);
+
+    AbstractItr() {
+      advance();
+    }
+
+    /** Sets nextNode and nextItem to next valid node, or to null if no such. */
+    private void advance() {
+      lastRet = nextNode;
+
+      ConcurrentLinkedDequeNode<E> p = (nextNode == null) ? startNode() : nextNode(nextNode);
+      for (; ; p = nextNode(p)) {
+        if (p == null) {
+          // might be at active end or TERMINATOR node; both are OK
+          nextNode = null;
+          nextItem = null;
+          break;
+        }
+        E item = p.getItem();
+        if (item != null) {
+          nextNode = p;
+          nextItem = item;
+          break;
+        }
+      }
+    }
+
+    @Override
+    public boolean hasNext() {
+      return nextItem != null;
+    }
+
+    @Override
+    public E next() {
+      E item = nextItem;
+      if (item == null) {
+        throw new NoSuchElementException();
+      }
+      advance();
+      return item;
+    }
+
+    @Override
+    public void remove() {
+      ConcurrentLinkedDequeNode<E> l = lastRet;
+      if (l == null) {
+        throw new IllegalStateException();
+      }
+      l.lazySetItem(null);
+      unlink(l);
+      lastRet = null;
+    }
+  }
+
+  /** Forward iterator */
+  private class Itr extends AbstractItr {
+    @Override
+    @Nullable ConcurrentLinkedDequeNode<E> startNode() {
+      return first();
+    }
+
+    @Override
+    @Nullable ConcurrentLinkedDequeNode<E> nextNode(ConcurrentLinkedDequeNode<E> p) {
+      return succ(p);
+    }
+  }
+
+  /** Descending iterator */
+  private class DescendingItr extends AbstractItr {
+    @Override
+    @Nullable ConcurrentLinkedDequeNode<E> startNode() {
+      return last();
+    }
+
+    @Override
+    @Nullable ConcurrentLinkedDequeNode<E> nextNode(ConcurrentLinkedDequeNode<E> p) {
+      return pred(p);
+    }
+  }
+}
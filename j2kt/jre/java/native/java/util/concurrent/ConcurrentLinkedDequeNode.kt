@@ -0,0 +1,56 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package java.util.concurrent
+
+import kotlinx.atomicfu.atomic
+
+/**
+ * A node of [ConcurrentLinkedDeque]. The item and links are atomics declared directly on the node,
+ * rather than [java.util.concurrent.atomic.AtomicReference] wrappers, so that linking a node does
+ * not allocate additional objects.
+ *
+ * A null item marks a node whose element has been removed. Self-links and the deque's terminator
+ * nodes mark nodes that have been unlinked from the deque.
+ */
+internal class ConcurrentLinkedDequeNode<E : Any>(item: E?) {
+  private val item = atomic(item)
+  private val prev = atomic<ConcurrentLinkedDequeNode<E>?>(null)
+  private val next = atomic<ConcurrentLinkedDequeNode<E>?>(null)
+
+  fun getItem(): E? = item.value
+
+  fun casItem(expect: E?, update: E?): Boolean = item.compareAndSet(expect, update)
+
+  fun lazySetItem(update: E?) = item.lazySet(update)
+
+  fun getPrev(): ConcurrentLinkedDequeNode<E>? = prev.value
+
+  fun casPrev(
+    expect: ConcurrentLinkedDequeNode<E>?,
+    update: ConcurrentLinkedDequeNode<E>?,
+  ): Boolean = prev.compareAndSet(expect, update)
+
+  fun lazySetPrev(update: ConcurrentLinkedDequeNode<E>?) = prev.lazySet(update)
+
+  fun getNext(): ConcurrentLinkedDequeNode<E>? = next.value
+
+  fun casNext(
+    expect: ConcurrentLinkedDequeNode<E>?,
+    update: ConcurrentLinkedDequeNode<E>?,
+  ): Boolean = next.compareAndSet(expect, update)
+
+  fun lazySetNext(update: ConcurrentLinkedDequeNode<E>?) = next.lazySet(update)
+}
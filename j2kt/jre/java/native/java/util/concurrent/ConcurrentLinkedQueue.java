@@ -0,0 +1,524 @@
+/*
+ * Written by Doug Lea and Martin Buchholz with assistance from members of
+ * JCP JSR-166 Expert Group and released to the public domain, as explained
+ * at http://creativecommons.org/publicdomain/zero/1.0/
+ */
+
+package java.util.concurrent;
+
+import java.util.AbstractQueue;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Queue;
+import java.util.concurrent.atomic.AtomicReference;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+// J2kt-native: (de)serialization code and spliterator removed. Nodes are implemented in Kotlin
+// (ConcurrentLinkedQueueNode.kt) so that their fields are atomics without extra allocations.
+
+/**
+ * An unbounded thread-safe {@linkplain Queue queue} based on linked nodes. This queue orders
+ * elements FIFO (first-in-first-out). The <em>head</em> of the queue is that element that has been
+ * on the queue the longest time. The <em>tail</em> of the queue is that element that has been on
+ * the queue the shortest time. New elements are inserted at the tail of the queue, and the queue
+ * retrieval operations obtain elements at the head of the queue. A {@code ConcurrentLinkedQueue} is
+ * an appropriate choice when many threads will share access to a common collection. Like most
+ * other concurrent collection implementations, this class does not permit the use of {@code null}
+ * elements.
+ *
+ * <p>This implementation employs an efficient <em>non-blocking</em> algorithm based on one
+ * described in <a href="http://www.cs.rochester.edu/u/michael/PODC96.html">Simple, Fast, and
+ * Practical Non-Blocking and Blocking Concurrent Queue Algorithms</a> by Maged M. Michael and
+ * Michael L. Scott.
+ *
+ * <p>Iterators are <i>weakly consistent</i>, returning elements reflecting the state of the queue
+ * at some point at or since the creation of the iterator. They do <em>not</em> throw {@link
+ * java.util.ConcurrentModificationException}, and may proceed concurrently with other operations.
+ *
+ * <p>Beware that, unlike in most collections, the {@code size} method is <em>NOT</em> a
+ * constant-time operation. Because of the asynchronous nature of these queues, determining the
+ * current number of elements requires a traversal of the elements, and so may report inaccurate
+ * results if this collection is modified during traversal.
+ *
+ * @since 1.5
+ * @author Doug Lea
+ * @param <E> the type of elements held in this collection
+ */
+@NullMarked
+public class ConcurrentLinkedQueue<E> extends AbstractQueue<E> implements Queue<E> {
+
+  /*
+   * This is a modification of the Michael & Scott algorithm, adapted for a garbage-collected
+   * environment, with support for interior node deletion (to support remove(Object)).
+   *
+   * A node whose item is null has been logically removed. A node whose next link points to itself
+   * has been unlinked, and traversals that reach it restart from head.
+   *
+   * Both head and tail are permitted to lag. In fact, failing to update them every time one could
+   * is a significant optimization (fewer CASes). We update them when they are at least two hops
+   * away from the first/last node, which keeps the number of CASes per operation close to one.
+   *
+   * Invariants:
+   *  - all live nodes are reachable from head via succ()
+   *  - head and tail are never null
+   *  - tail may lag behind head, so it is not always reachable from head
+   */
+
+  /** A node from which the first live (non-deleted) node (if any) can be reached in O(1) time. */
+  private final AtomicReference<ConcurrentLinkedQueueNode<E>> head;
+
+  /**
+   * A node from which the last node on list (that is, the unique node with null next) can be
+   * reached in O(1) time.
+   */
+  private final AtomicReference<ConcurrentLinkedQueueNode<E>> tail;
+
+  /** Creates a {@code ConcurrentLinkedQueue} that is initially empty. */
+  public ConcurrentLinkedQueue() {
+    ConcurrentLinkedQueueNode<E> dummy = new ConcurrentLinkedQueueNode<E>(null);
+    head = new AtomicReference<>(dummy);
+    tail = new AtomicReference<>(dummy);
+  }
+
+  /**
+   * Creates a {@code ConcurrentLinkedQueue} initially containing the elements of the given
+   * collection, added in traversal order of the collection's iterator.
+   *
+   * @throws NullPointerException if the specified collection or any of its elements are null
+   */
+  public ConcurrentLinkedQueue(Collection<? extends E> c) {
+    this();
+    addAll(c);
+  }
+
+  /**
+   * Inserts the specified element at the tail of this queue. As the queue is unbounded, this method
+   * will never throw {@link IllegalStateException} or return {@code false}.
+   *
+   * @return {@code true} (as specified by {@link Collection#add})
+   * @throws NullPointerException if the specified element is null
+   */
+  @Override
+  public boolean add(E e) {
+    return offer(e);
+  }
+
+  /**
+   * Tries to CAS head to p. If successful, repoint old head to itself as sentinel for succ(),
+   * below.
+   */
+  final void updateHead(ConcurrentLinkedQueueNode<E> h, ConcurrentLinkedQueueNode<E> p) {
+    if (h != p && head.compareAndSet(h, p)) {
+      h.lazySetNext(h);
+    }
+  }
+
+  /**
+   * Returns the successor of p, or the head node if p.next has been linked to self, which will
+   * only be true if traversing with a stale pointer that is now off the list.
+   */
+  final @Nullable ConcurrentLinkedQueueNode<E> succ(ConcurrentLinkedQueueNode<E> p) {
+    ConcurrentLinkedQueueNode<E> next = p.getNext();
+    return (p == next) ? head.get() : next;
+  }
+
+  /**
+   * Inserts the specified element at the tail of this queue. As the queue is unbounded, this method
+   * will never return {@code false}.
+   *
+   * @return {@code true} (as specified by {@link Queue#offer})
+   * @throws NullPointerException if the specified element is null
+   */
+  @Override
+  public boolean offer(E e) {
+    checkNotNull(e);
+    ConcurrentLinkedQueueNode<E> newNode = new ConcurrentLinkedQueueNode<E>(e);
+
+    ConcurrentLinkedQueueNode<E> t = tail.get();
+    ConcurrentLinkedQueueNode<E> p = t;
+    for (; ; ) {
+      ConcurrentLinkedQueueNode<E> q = p.getNext();
+      if (q == null) {
+        // p is last node
+        if (p.casNext(null, newNode)) {
+          // Successful CAS is the linearization point for e to become an element of this queue,
+          // and for newNode to become "live".
+          if (p != t) {
+            // hop two nodes at a time; failure is OK
+            tail.compareAndSet(t, newNode);
+          }
+          return true;
+        }
+        // Lost CAS race to another thread; re-read next
+      } else if (p == q) {
+        // We have fallen off list. If tail is unchanged, it will also be off-list, in which case
+        // we need to jump to head, from which all live nodes are always reachable. Else the new
+        // tail is a better bet.
+        ConcurrentLinkedQueueNode<E> newTail = tail.get();
+        if (t != newTail) {
+          t = newTail;
+          p = t;
+        } else {
+          p = head.get();
+        }
+      } else {
+        // Check for tail updates after two hops.
+        if (p != t) {
+          ConcurrentLinkedQueueNode<E> newTail = tail.get();
+          if (t != newTail) {
+            t = newTail;
+            p = t;
+            continue;
+          }
+        }
+        p = q;
+      }
+    }
+  }
+
+  @Override
+  public @Nullable E poll() {
+    restartFromHead:
+    for (; ; ) {
+      ConcurrentLinkedQueueNode<E> h = head.get();
+      ConcurrentLinkedQueueNode<E> p = h;
+      for (; ; ) {
+        E item = p.getItem();
+        ConcurrentLinkedQueueNode<E> q;
+        if (item != null && p.casItem(item, null)) {
+          // Successful CAS is the linearization point for item to be removed from this queue.
+          if (p != h) {
+            // hop two nodes at a time
+            q = p.getNext();
+            updateHead(h, (q != null) ? q : p);
+          }
+          return item;
+        } else if ((q = p.getNext()) == null) {
+          updateHead(h, p);
+          return null;
+        } else if (p == q) {
+          continue restartFromHead;
+        } else {
+          p = q;
+        }
+      }
+    }
+  }
+
+  @Override
+  public @Nullable E peek() {
+    ConcurrentLinkedQueueNode<E> p = first();
+    return (p == null) ? null : p.getItem();
+  }
+
+  /**
+   * Returns the first live (non-deleted) node on list, or null if none. This is yet another
+   * variant of poll/peek; here returning the first node, not element.
+   */
+  @Nullable ConcurrentLinkedQueueNode<E> first() {
+    restartFromHead:
+    for (; ; ) {
+      ConcurrentLinkedQueueNode<E> h = head.get();
+      ConcurrentLinkedQueueNode<E> p = h;
+      for (; ; ) {
+        boolean hasItem = (p.getItem() != null);
+        ConcurrentLinkedQueueNode<E> q;
+        if (hasItem || (q = p.getNext()) == null) {
+          updateHead(h, p);
+          return hasItem ? p : null;
+        } else if (p == q) {
+          continue restartFromHead;
+        } else {
+          p = q;
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns {@code true} if this queue contains no elements.
+   *
+   * @return {@code true} if this queue contains no elements
+   */
+  @Override
+  public boolean isEmpty() {
+    return first() == null;
+  }
+
+  /**
+   * Returns the number of elements in this queue. If this queue contains more than {@code
+   * Integer.MAX_VALUE} elements, returns {@code Integer.MAX_VALUE}.
+   *
+   * <p>Beware that, unlike in most collections, this method is <em>NOT</em> a constant-time
+   * operation.
+   *
+   * @return the number of elements in this queue
+   */
+  @Override
+  public int size() {
+    int count = 0;
+    for (ConcurrentLinkedQueueNode<E> p = first(); p != null; p = succ(p)) {
+      if (p.getItem() != null) {
+        // Collection.size() spec says to max out
+        if (++count == Integer.MAX_VALUE) {
+          break;
+        }
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Returns {@code true} if this queue contains the specified element.
+   *
+   * @param o object to be checked for containment in this queue
+   * @return {@code true} if this queue contains the specified element
+   */
+  @Override
+  public boolean contains(@Nullable Object o) {
+    if (o == null) {
+      return false;
+    }
+    for (ConcurrentLinkedQueueNode<E> p = first(); p != null; p = succ(p)) {
+      E item = p.getItem();
+      if (item != null && o.equals(item)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Removes a single instance of the specified element from this queue, if it is present.
+   *
+   * @param o element to be removed from this queue, if present
+   * @return {@code true} if this queue changed as a result of the call
+   */
+  @Override
+  public boolean remove(@Nullable Object o) {
+    if (o == null) {
+      return false;
+    }
+    ConcurrentLinkedQueueNode<E> pred = null;
+    for (ConcurrentLinkedQueueNode<E> p = first(); p != null; p = succ(p)) {
+      E item = p.getItem();
+      if (item != null && o.equals(item) && p.casItem(item, null)) {
+        ConcurrentLinkedQueueNode<E> next = succ(p);
+        if (pred != null && next != null) {
+          pred.casNext(p, next);
+        }
+        return true;
+      }
+      pred = p;
+    }
+    return false;
+  }
+
+  /**
+   * Appends all of the elements in the specified collection to the end of this queue, in the order
+   * that they are returned by the specified collection's iterator. The elements are linked into a
+   * private chain first, which is then appended with a single CAS.
+   *
+   * @param c the elements to be inserted into this queue
+   * @return {@code true} if this queue changed as a result of the call
+   * @throws NullPointerException if the specified collection or any of its elements are null
+   * @throws IllegalArgumentException if the collection is this queue
+   */
+  @Override
+  public boolean addAll(Collection<? extends E> c) {
+    if (c == this) {
+      // As historically specified in AbstractQueue#addAll
+      throw new IllegalArgumentException();
+    }
+
+    // Copy c into a private chain of Nodes
+    ConcurrentLinkedQueueNode<E> beginningOfTheEnd = null;
+    ConcurrentLinkedQueueNode<E> last = null;
+    for (E e : c) {
+      checkNotNull(e);
+      ConcurrentLinkedQueueNode<E> newNode = new ConcurrentLinkedQueueNode<E>(e);
+      if (last == null) {
+        beginningOfTheEnd = newNode;
+      } else {
+        last.lazySetNext(newNode);
+      }
+      last = newNode;
+    }
+    if (beginningOfTheEnd == null || last == null) {
+      return false;
+    }
+
+    // Atomically append the chain at the tail of this collection
+    ConcurrentLinkedQueueNode<E> t = tail.get();
+    ConcurrentLinkedQueueNode<E> p = t;
+    for (; ; ) {
+      ConcurrentLinkedQueueNode<E> q = p.getNext();
+      if (q == null) {
+        // p is last node
+        if (p.casNext(null, beginningOfTheEnd)) {
+          // Successful CAS is the linearization point for all elements to be added to this queue.
+          if (!tail.compareAndSet(t, last)) {
+            // Try a little harder to update tail, since we may be adding many elements.
+            t = tail.get();
+            if (last.getNext() == null) {
+              tail.compareAndSet(t, last);
+            }
+          }
+          return true;
+        }
+        // Lost CAS race to another thread; re-read next
+      } else if (p == q) {
+        ConcurrentLinkedQueueNode<E> newTail = tail.get();
+        if (t != newTail) {
+          t = newTail;
+          p = t;
+        } else {
+          p = head.get();
+        }
+      } else {
+        if (p != t) {
+          ConcurrentLinkedQueueNode<E> newTail = tail.get();
+          if (t != newTail) {
+            t = newTail;
+            p = t;
+            continue;
+          }
+        }
+        p = q;
+      }
+    }
+  }
+
+  @Override
+  public @Nullable Object[] toArray() {
+    // Use ArrayList to deal with resizing.
+    ArrayList<E> al = new ArrayList<E>();
+    for (ConcurrentLinkedQueueNode<E> p = first(); p != null; p = succ(p)) {
+      E item = p.getItem();
+      if (item != null) {
+        al.add(item);
+      }
+    }
+    return al.toArray();
+  }
+
+  @Override
+  public <T extends @Nullable Object> T[] toArray(T[] a) {
+    ArrayList<E> al = new ArrayList<E>();
+    for (ConcurrentLinkedQueueNode<E> p = first(); p != null; p = succ(p)) {
+      E item = p.getItem();
+      if (item != null) {
+        al.add(item);
+      }
+    }
+    return al.toArray(a);
+  }
+
+  /**
+   * Returns an iterator over the elements in this queue in proper sequence. The elements will be
+   * returned in order from first (head) to last (tail).
+   *
+   * <p>The returned iterator is <i>weakly consistent</i>.
+   *
+   * @return an iterator over the elements in this queue in proper sequence
+   */
+  @Override
+  public Iterator<E> iterator() {
+    return new Itr();
+  }
+
+  private class Itr implements Iterator<E> {
+    /** Next node to return item for. */
+    private @Nullable ConcurrentLinkedQueueNode<E> nextNode;
+
+    /**
+     * nextItem holds on to item fields because once we claim that an element exists in hasNext(),
+     * we must return it in the following next() call even if it was in the process of being
+     * removed when hasNext() was called.
+     */
+    private @Nullable E nextItem;
+
+    /** Node of the last returned item, to support remove. */
+    private @Nullable ConcurrentLinkedQueueNode<E> lastRet;
+
+    Itr() {
+      advance();
+    }
+
+    /** Moves to next valid node, or to null if no such. */
+    private void advance() {
+      lastRet = nextNode;
+
+      ConcurrentLinkedQueueNode<E> pred;
+      ConcurrentLinkedQueueNode<E> p;
+      if (nextNode == null) {
+        p = first();
+        pred = null;
+      } else {
+        pred = nextNode;
+        p = succ(nextNode);
+      }
+
+      for (; ; ) {
+        if (p == null) {
+          nextNode = null;
+          nextItem = null;
+          return;
+        }
+        E item = p.getItem();
+        if (item != null) {
+          nextNode = p;
+          nextItem = item;
+          return;
+        } else {
+          // skip over nulls
+          ConcurrentLinkedQueueNode<E> next = succ(p);
+          if (pred != null && next != null) {
+            pred.casNext(p, next);
+          }
+          p = next;
+        }
+      }
+    }
+
+    @Override
+    public boolean hasNext() {
+      return nextNode != null;
+    }
+
+    @Override
+    public E next() {
+      E x = nextItem;
+      if (nextNode == null || x == null) {
+        throw new NoSuchElementException();
+      }
+      advance();
+      return x;
+    }
+
+    @Override
+    public void remove() {
+      ConcurrentLinkedQueueNode<E> l = lastRet;
+      if (l == null) {
+        throw new IllegalStateException();
+      }
+      // rely on a future traversal to relink.
+      l.lazySetItem(null);
+      lastRet = null;
+    }
+  }
+
+  /**
+   * Throws NullPointerException if argument is null.
+   *
+   * @param v the element
+   */
+  private static void checkNotNull(@Nullable Object v) {
+    if (v == null) {
+      throw new NullPointerException();
+    }
+  }
+}
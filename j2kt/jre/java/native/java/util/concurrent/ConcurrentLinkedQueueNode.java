@@ -0,0 +1,43 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package java.util.concurrent;
+
+import javaemul.internal.annotations.KtNative;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+/** Stub for the node of {@link ConcurrentLinkedQueue}; see ConcurrentLinkedQueueNode.kt. */
+@NullMarked
+@KtNative
+final class ConcurrentLinkedQueueNode<E> {
+
+  ConcurrentLinkedQueueNode(@Nullable E item) {}
+
+  native @Nullable E getItem();
+
+  native boolean casItem(@Nullable E expect, @Nullable E update);
+
+  native void lazySetItem(@Nullable E update);
+
+  native @Nullable ConcurrentLinkedQueueNode<E> getNext();
+
+  native boolean casNext(
+      @Nullable ConcurrentLinkedQueueNode<E> expect, @Nullable ConcurrentLinkedQueueNode<E> update);
+
+  native void lazySetNext(@Nullable ConcurrentLinkedQueueNode<E> update);
+}
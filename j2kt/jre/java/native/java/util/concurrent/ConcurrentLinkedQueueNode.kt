@@ -0,0 +1,46 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package java.util.concurrent
+
+import kotlinx.atomicfu.atomic
+
+/**
+ * A node of [ConcurrentLinkedQueue]. The item and link are atomics declared directly on the node,
+ * rather than [java.util.concurrent.atomic.AtomicReference] wrappers, so that linking a node does
+ * not allocate additional objects.
+ *
+ * A null item marks a node whose element has been removed. A node whose next link points to itself
+ * has been unlinked from the queue.
+ */
+internal class ConcurrentLinkedQueueNode<E : Any>(item: E?) {
+  private val item = atomic(item)
+  private val next = atomic<ConcurrentLinkedQueueNode<E>?>(null)
+
+  fun getItem(): E? = item.value
+
+  fun casItem(expect: E?, update: E?): Boolean = item.compareAndSet(expect, update)
+
+  fun lazySetItem(update: E?) = item.lazySet(update)
+
+  fun getNext(): ConcurrentLinkedQueueNode<E>? = next.value
+
+  fun casNext(
+    expect: ConcurrentLinkedQueueNode<E>?,
+    update: ConcurrentLinkedQueueNode<E>?,
+  ): Boolean = next.compareAndSet(expect, update)
+
+  fun lazySetNext(update: ConcurrentLinkedQueueNode<E>?) = next.lazySet(update)
+}
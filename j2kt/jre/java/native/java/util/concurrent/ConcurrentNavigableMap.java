@@ -0,0 +1,106 @@
+/*
+ * Written by Doug Lea with assistance from members of JCP JSR-166
+ * Expert Group and released to the public domain, as explained at
+ * http://creativecommons.org/publicdomain/zero/1.0/
+ */
+
+package java.util.concurrent;
+
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+// J2kt-native: keySet() keeps the Set<K> return type of Map, use navigableKeySet() instead.
+
+/**
+ * A {@link ConcurrentMap} supporting {@link NavigableMap} operations, and recursively so for its
+ * navigable sub-maps.
+ *
+ * @since 1.6
+ * @author Doug Lea
+ * @param <K> the type of keys maintained by this map
+ * @param <V> the type of mapped values
+ */
+@NullMarked
+public interface ConcurrentNavigableMap<K extends @Nullable Object, V extends @Nullable Object>
+    extends ConcurrentMap<K, V>, NavigableMap<K, V> {
+
+  /**
+   * @throws ClassCastException {@inheritDoc}
+   * @throws NullPointerException {@inheritDoc}
+   * @throws IllegalArgumentException {@inheritDoc}
+   */
+  @Override
+  ConcurrentNavigableMap<K, V> subMap(
+      K fromKey, boolean fromInclusive, K toKey, boolean toInclusive);
+
+  /**
+   * @throws ClassCastException {@inheritDoc}
+   * @throws NullPointerException {@inheritDoc}
+   * @throws IllegalArgumentException {@inheritDoc}
+   */
+  @Override
+  ConcurrentNavigableMap<K, V> headMap(K toKey, boolean inclusive);
+
+  /**
+   * @throws ClassCastException {@inheritDoc}
+   * @throws NullPointerException {@inheritDoc}
+   * @throws IllegalArgumentException {@inheritDoc}
+   */
+  @Override
+  ConcurrentNavigableMap<K, V> tailMap(K fromKey, boolean inclusive);
+
+  /**
+   * @throws ClassCastException {@inheritDoc}
+   * @throws NullPointerException {@inheritDoc}
+   * @throws IllegalArgumentException {@inheritDoc}
+   */
+  @Override
+  ConcurrentNavigableMap<K, V> subMap(K fromKey, K toKey);
+
+  /**
+   * @throws ClassCastException {@inheritDoc}
+   * @throws NullPointerException {@inheritDoc}
+   * @throws IllegalArgumentException {@inheritDoc}
+   */
+  @Override
+  ConcurrentNavigableMap<K, V> headMap(K toKey);
+
+  /**
+   * @throws ClassCastException {@inheritDoc}
+   * @throws NullPointerException {@inheritDoc}
+   * @throws IllegalArgumentException {@inheritDoc}
+   */
+  @Override
+  ConcurrentNavigableMap<K, V> tailMap(K fromKey);
+
+  /**
+   * Returns a reverse order view of the mappings contained in this map. The descending map is
+   * backed by this map, so changes to the map are reflected in the descending map, and vice-versa.
+   *
+   * @return a reverse order view of this map
+   */
+  @Override
+  ConcurrentNavigableMap<K, V> descendingMap();
+
+  /**
+   * Returns a {@link NavigableSet} view of the keys contained in this map. The set's iterator
+   * returns the keys in ascending order. The set is backed by the map, so changes to the map are
+   * reflected in the set, and vice-versa. The view's iterators are <i>weakly consistent</i>.
+   *
+   * @return a navigable set view of the keys in this map
+   */
+  @Override
+  NavigableSet<K> navigableKeySet();
+
+  /**
+   * Returns a reverse order {@link NavigableSet} view of the keys contained in this map. The set's
+   * iterator returns the keys in descending order. The view's iterators are <i>weakly
+   * consistent</i>.
+   *
+   * @return a reverse order navigable set view of the keys in this map
+   */
+  @Override
+  NavigableSet<K> descendingKeySet();
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package java.util.concurrent;
+
+import javaemul.internal.annotations.KtNative;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+/** Stub for the index node of {@link ConcurrentSkipListMap}; see ConcurrentSkipListIndex.kt. */
+@NullMarked
+@KtNative
+class ConcurrentSkipListIndex<K, V> {
+
+  ConcurrentSkipListIndex(
+      ConcurrentSkipListNode<K, V> node,
+      @Nullable ConcurrentSkipListIndex<K, V> down,
+      @Nullable ConcurrentSkipListIndex<K, V> right) {}
+
+  final native ConcurrentSkipListNode<K, V> getNode();
+
+  final native @Nullable ConcurrentSkipListIndex<K, V> getDown();
+
+  final native @Nullable ConcurrentSkipListIndex<K, V> getRight();
+
+  final native boolean casRight(
+      @Nullable ConcurrentSkipListIndex<K, V> expect,
+      @Nullable ConcurrentSkipListIndex<K, V> update);
+
+  final native void lazySetRight(@Nullable ConcurrentSkipListIndex<K, V> update);
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package java.util.concurrent
+
+import kotlinx.atomicfu.atomic
+
+/**
+ * An index node of [ConcurrentSkipListMap]. The right link is an atomic declared directly on the
+ * index, so that linking an index does not allocate additional objects. Open so that the map's
+ * head index can add its level.
+ */
+internal open class ConcurrentSkipListIndex<K : Any, V : Any>(
+  private val node: ConcurrentSkipListNode<K, V>,
+  private val down: ConcurrentSkipListIndex<K, V>?,
+  right: ConcurrentSkipListIndex<K, V>?,
+) {
+  private val right = atomic(right)
+
+  fun getNode(): ConcurrentSkipListNode<K, V> = node
+
+  fun getDown(): ConcurrentSkipListIndex<K, V>? = down
+
+  fun getRight(): ConcurrentSkipListIndex<K, V>? = right.value
+
+  fun casRight(
+    expect: ConcurrentSkipListIndex<K, V>?,
+    update: ConcurrentSkipListIndex<K, V>?,
+  ): Boolean = right.compareAndSet(expect, update)
+
+  fun lazySetRight(update: ConcurrentSkipListIndex<K, V>?) = right.lazySet(update)
+}
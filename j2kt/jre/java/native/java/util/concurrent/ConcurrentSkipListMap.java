@@ -0,0 +1,2984 @@
+/*
+ * Written by Doug Lea with assistance from members of JCP JSR-166
+ * Expert Group and released to the public domain, as explained at
+ * http://creativecommons.org/publicdomain/zero/1.0/
+ */
+
+package java.util.concurrent;
+
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Random;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+// J2kt-native: based on the JDK 8 version. (De)serialization, clone() and spliterators removed.
+// Nodes and indices are implemented in Kotlin (ConcurrentSkipListNode.kt and
+// ConcurrentSkipListIndex.kt) so that their links are atomics without extra allocations. Random
+// levels come from a racy per-map xorshift seed instead of ThreadLocalRandom. The SortedMap
+// constructor inserts the entries one by one instead of building the index levels in bulk.
+
+/**
+ * A scalable concurrent {@link ConcurrentNavigableMap} implementation. The map is sorted according
+ * to the {@linkplain Comparable natural ordering} of its keys, or by a {@link Comparator} provided
+ * at map creation time, depending on which constructor is used.
+ *
+ * <p>This class implements a concurrent variant of <a
+ * href="http://en.wikipedia.org/wiki/Skip_list" target="_top">SkipLists</a> providing expected
+ * average <i>log(n)</i> time cost for the {@code containsKey}, {@code get}, {@code put} and {@code
+ * remove} operations and their variants. Insertion, removal, update, and access operations safely
+ * execute concurrently by multiple threads.
+ *
+ * <p>Iterators are <i>weakly consistent</i>, returning elements reflecting the state of the map at
+ * some point at or since the creation of the iterator. They do <em>not</em> throw {@link
+ * java.util.ConcurrentModificationException}, and may proceed concurrently with other operations.
+ * Ascending key ordered views and their iterators are faster than descending ones.
+ *
+ * <p>All {@code Map.Entry} pairs returned by methods in this class and its views represent
+ * snapshots of mappings at the time they were produced. They do <em>not</em> support the {@code
+ * Entry.setValue} method.
+ *
+ * <p>Beware that, unlike in most collections, the {@code size} method is <em>not</em> a
+ * constant-time operation. Because of the asynchronous nature of these maps, determining the
+ * current number of elements requires a traversal of the elements, and so may report inaccurate
+ * results if this collection is modified during traversal. Additionally, the bulk operations
+ * {@code putAll}, {@code equals}, {@code toArray}, {@code containsValue}, and {@code clear} are
+ * <em>not</em> guaranteed to be performed atomically.
+ *
+ * <p>Like most other concurrent collections, this class does <em>not</em> permit the use of {@code
+ * null} keys or values because some null return values cannot be reliably distinguished from the
+ * absence of elements.
+ *
+ * @author Doug Lea
+ * @param <K> the type of keys maintained by this map
+ * @param <V> the type of mapped values
+ * @since 1.6
+ */
+@NullMarked
+public class ConcurrentSkipListMap<K, V> extends AbstractMap<K, V>
+    implements ConcurrentNavigableMap<K, V> {
+
+  /*
+   * This class implements a tree-like two-dimensionally linked skip list in which the index levels
+   * are represented in separate nodes from the base nodes holding data. The base lists use a
+   * variant of the HM linked ordered set algorithm (Harris, "A pragmatic implementation of
+   * non-blocking linked lists", 2001; Michael, "High Performance Dynamic Lock-Free Hash Tables and
+   * List-Based Sets", 2002):
+   *
+   * Head nodes          Index nodes
+   * +-+    right        +-+                      +-+
+   * |2|---------------->| |--------------------->| |->null
+   * +-+                 +-+                      +-+
+   *  | down              |                        |
+   *  v                   v                        v
+   * +-+            +-+  +-+       +-+            +-+       +-+
+   * |1|----------->| |->| |------>| |----------->| |------>| |->null
+   * +-+            +-+  +-+       +-+            +-+       +-+
+   *  v              |    |         |              |         |
+   * Nodes  next     v    v         v              v         v
+   * +-+  +-+  +-+  +-+  +-+  +-+  +-+  +-+  +-+  +-+  +-+  +-+
+   * | |->|A|->|B|->|C|->|D|->|E|->|F|->|G|->|H|->|I|->|J|->|K|->null
+   * +-+  +-+  +-+  +-+  +-+  +-+  +-+  +-+  +-+  +-+  +-+  +-+
+   *
+   * Deletion of a node n is done in three steps: (1) CAS n's value from non-null to null, so that
+   * readers treat it as absent, (2) CAS n's next link to point to a marker node (a node whose value
+   * is the node itself), so that no insertion can sneak in after n, and (3) CAS the predecessor's
+   * next link past both n and its marker. Failures in steps (2) and (3) are repaired by later
+   * traversals that encounter the half-deleted node (see helpDelete). Indices that point to deleted
+   * nodes are unlinked lazily by traversals as well.
+   *
+   * The head index level is raised by CAS'ing a taller HeadIndex into place, and lowered again
+   * (tryReduceLevel) when the top three levels look empty, with a recheck to undo the reduction if
+   * an insertion raced with it.
+   *
+   * Index levels are chosen with a random number generator that has probability 1/4 of producing
+   * an index at all, and 1/2 for each further level, giving on average about one index per four
+   * nodes.
+   */
+
+  /** Special value used to identify base-level header. */
+  private static final Object BASE_HEADER = new Object();
+
+  /** The topmost head index of the skiplist. */
+  private final AtomicReference<HeadIndex<K, V>> head = new AtomicReference<>(newHead());
+
+  /**
+   * The comparator used to maintain order in this map, or null if using natural ordering.
+   *
+   * @serial
+   */
+  private final @Nullable Comparator<? super K> comparator;
+
+  /** Seed for the level generator. Races on updates are harmless. */
+  private int randomSeed = new Random().nextInt() | 0x0100;
+
+  /** Lazily initialized key set */
+  private @Nullable KeySet<K> keySet;
+
+  /** Lazily initialized entry set */
+  private @Nullable EntrySet<K, V> entrySet;
+
+  /** Lazily initialized values collection */
+  private @Nullable Values<V> values;
+
+  /** Lazily initialized descending key set */
+  private @Nullable ConcurrentNavigableMap<K, V> descendingMap;
+
+  /** Creates a new empty base header and its head index. */
+  private static <K, V> HeadIndex<K, V> newHead() {
+    return new HeadIndex<K, V>(
+        new ConcurrentSkipListNode<K, V>(null, BASE_HEADER, null), null, null, 1);
+  }
+
+  /* ---------------- Nodes -------------- */
+
+  /** Returns true if this node is a marker node. */
+  private static boolean isMarker(ConcurrentSkipListNode<?, ?> n) {
+    return n.getValue() == n;
+  }
+
+  /** Returns true if this node is the header of base-level list. */
+  private static boolean isBaseHeader(ConcurrentSkipListNode<?, ?> n) {
+    return n.getValue() == BASE_HEADER;
+  }
+
+  /**
+   * Tries to append a deletion marker to node {@code n}.
+   *
+   * @param f the assumed current successor of n
+   * @return true if successful
+   */
+  private static <K, V> boolean appendMarker(
+      ConcurrentSkipListNode<K, V> n, @Nullable ConcurrentSkipListNode<K, V> f) {
+    ConcurrentSkipListNode<K, V> marker = new ConcurrentSkipListNode<>(null, null, f);
+    marker.lazySetValue(marker);
+    return n.casNext(f, marker);
+  }
+
+  /**
+   * Helps out a deletion of node {@code n} by appending a marker or unlinking from predecessor.
+   * This is called during traversals when value field seen to be null.
+   *
+   * @param n the node being deleted
+   * @param b predecessor
+   * @param f successor
+   */
+  private static <K, V> void helpDelete(
+      ConcurrentSkipListNode<K, V> n,
+      ConcurrentSkipListNode<K, V> b,
+      @Nullable ConcurrentSkipListNode<K, V> f) {
+    /*
+     * Rechecking links and then doing only one of the help-out stages per call tends to minimize
+     * CAS interference among helping threads.
+     */
+    if (f == n.getNext() && n == b.getNext()) {
+      if (f == null || f.getValue() != f) { // not already marked
+        appendMarker(n, f);
+      } else {
+        b.casNext(n, f.getNext());
+      }
+    }
+  }
+
+  /**
+   * Returns value if this node contains a valid key-value pair, else null.
+   *
+   * @return this node's value if it isn't a marker or header or is deleted, else null
+   */
+  @SuppressWarnings("unchecked")
+  private static <V> @Nullable V getValidValue(ConcurrentSkipListNode<?, V> n) {
+    Object v = n.getValue();
+    if (v == n || v == BASE_HEADER) {
+      return null;
+    }
+    return (V) v;
+  }
+
+  /**
+   * Creates and returns a new SimpleImmutableEntry holding current mapping if this node holds a
+   * valid value, else null.
+   *
+   * @return new entry or null
+   */
+  private static <K, V> AbstractMap.@Nullable SimpleImmutableEntry<K, V> createSnapshot(
+      ConcurrentSkipListNode<K, V> n) {
+    V v = getValidValue(n);
+    if (v == null) {
+      return null;
+    }
+    return new AbstractMap.SimpleImmutableEntry<K, V>(key(n), v);
+  }
+
+  /** Returns the key of a data node, which is never null. */
+  private static <K> K key(ConcurrentSkipListNode<K, ?> n) {
+    // Only the base header and markers have null keys, and neither are returned as data nodes.
+    return Objects.requireNonNull(n.getKey());
+  }
+
+  /* ---------------- Indexing -------------- */
+
+  /** Nodes heading each level keep track of their level. */
+  static final class HeadIndex<K, V> extends ConcurrentSkipListIndex<K, V> {
+    final int level;
+
+    HeadIndex(
+        ConcurrentSkipListNode<K, V> node,
+        @Nullable ConcurrentSkipListIndex<K, V> down,
+        @Nullable ConcurrentSkipListIndex<K, V> right,
+        int level) {
+      super(node, down, right);
+      this.level = level;
+    }
+  }
+
+  /**
+   * Tries to CAS newSucc as successor of q. To minimize races with unlink that may lose this
+   * index node, if the node being indexed is known to be deleted, it doesn't try to link in.
+   *
+   * @param succ the expected current successor
+   * @param newSucc the new successor
+   * @return true if successful
+   */
+  private static <K, V> boolean linkIndex(
+      ConcurrentSkipListIndex<K, V> q,
+      @Nullable ConcurrentSkipListIndex<K, V> succ,
+      ConcurrentSkipListIndex<K, V> newSucc) {
+    newSucc.lazySetRight(succ);
+    return q.getNode().getValue() != null && q.casRight(succ, newSucc);
+  }
+
+  /**
+   * Tries to CAS right field of q to skip over apparent successor succ. Fails (forcing a
+   * retraversal by caller) if this node is known to be deleted.
+   *
+   * @param succ the expected current successor
+   * @return true if successful
+   */
+  private static <K, V> boolean unlinkIndex(
+      ConcurrentSkipListIndex<K, V> q, ConcurrentSkipListIndex<K, V> succ) {
+    return q.getNode().getValue() != null && q.casRight(succ, succ.getRight());
+  }
+
+  /* ---------------- Comparison utilities -------------- */
+
+  /**
+   * Compares using comparator or natural ordering if null. Called only by methods that have
+   * performed required type checks.
+   */
+  @SuppressWarnings({"rawtypes", "unchecked"})
+  static int cpr(@Nullable Comparator c, Object x, Object y) {
+    return (c != null) ? c.compare(x, y) : ((Comparable) x).compareTo(y);
+  }
+
+  /* ---------------- Traversal -------------- */
+
+  /**
+   * Returns a base-level node with key strictly less than given key, or the base-level header if
+   * there is no such node. Also unlinks indexes to deleted nodes found along the way. Callers rely
+   * on this side-effect of clearing indices to deleted nodes.
+   *
+   * @param key the key
+   * @return a predecessor of key
+   */
+  private ConcurrentSkipListNode<K, V> findPredecessor(
+      Object key, @Nullable Comparator<? super K> cmp) {
+    if (key == null) {
+      throw new NullPointerException(); // don't postpone errors
+    }
+    for (; ; ) {
+      ConcurrentSkipListIndex<K, V> q = head.get();
+      ConcurrentSkipListIndex<K, V> r = q.getRight();
+      for (; ; ) {
+        if (r != null) {
+          ConcurrentSkipListNode<K, V> n = r.getNode();
+          if (n.getValue() == null) {
+            if (!unlinkIndex(q, r)) {
+              break; // restart
+            }
+            r = q.getRight(); // reread r
+            continue;
+          }
+          if (cpr(cmp, key, key(n)) > 0) {
+            q = r;
+            r = r.getRight();
+            continue;
+          }
+        }
+        ConcurrentSkipListIndex<K, V> d = q.getDown();
+        if (d == null) {
+          return q.getNode();
+        }
+        q = d;
+        r = d.getRight();
+      }
+    }
+  }
+
+  /**
+   * Returns node holding key or null if no such, clearing out any deleted nodes seen along the way.
+   * Repeatedly traverses at base-level looking for key starting at predecessor returned from
+   * findPredecessor, processing base-level deletions as encountered. Some callers rely on this
+   * side-effect of clearing deleted nodes.
+   *
+   * <p>Restarts occur, at traversal step centered on node n, if:
+   *
+   * <p>(1) After reading n's next field, n is no longer assumed predecessor b's current successor,
+   * which means that we don't have a consistent 3-node snapshot and so cannot unlink any subsequent
+   * deleted nodes encountered.
+   *
+   * <p>(2) n's value field is null, indicating n is deleted, in which case we help out an ongoing
+   * structural deletion before retrying.
+   *
+   * <p>(3) n is a marker or n's predecessor's value field is null, indicating (among other
+   * possibilities) that findPredecessor returned a deleted node. We can't unlink the node because
+   * we don't know its predecessor, so rely on another call to findPredecessor to notice and return
+   * some earlier predecessor, which it will do.
+   *
+   * @param key the key
+   * @return node holding key, or null if no such
+   */
+  private @Nullable ConcurrentSkipListNode<K, V> findNode(Object key) {
+    if (key == null) {
+      throw new NullPointerException(); // don't postpone errors
+    }
+    Comparator<? super K> cmp = comparator;
+    outer:
+    for (; ; ) {
+      ConcurrentSkipListNode<K, V> b = findPredecessor(key, cmp);
+      ConcurrentSkipListNode<K, V> n = b.getNext();
+      for (; ; ) {
+        if (n == null) {
+          break outer;
+        }
+        ConcurrentSkipListNode<K, V> f = n.getNext();
+        if (n != b.getNext()) { // inconsistent read
+          break;
+        }
+        Object v = n.getValue();
+        if (v == null) { // n is deleted
+          helpDelete(n, b, f);
+          break;
+        }
+        if (b.getValue() == null || v == n) { // b is deleted
+          break;
+        }
+        int c = cpr(cmp, key, key(n));
+        if (c == 0) {
+          return n;
+        }
+        if (c < 0) {
+          break outer;
+        }
+        b = n;
+        n = f;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Gets value for key. Almost the same as findNode, but returns the found value (to avoid retries
+   * during re-reads)
+   *
+   * @param key the key
+   * @return the value, or null if absent
+   */
+  @SuppressWarnings("unchecked")
+  private @Nullable V doGet(@Nullable Object key) {
+    if (key == null) {
+      throw new NullPointerException();
+    }
+    Comparator<? super K> cmp = comparator;
+    outer:
+    for (; ; ) {
+      ConcurrentSkipListNode<K, V> b = findPredecessor(key, cmp);
+      ConcurrentSkipListNode<K, V> n = b.getNext();
+      for (; ; ) {
+        if (n == null) {
+          break outer;
+        }
+        ConcurrentSkipListNode<K, V> f = n.getNext();
+        if (n != b.getNext()) { // inconsistent read
+          break;
+        }
+        Object v = n.getValue();
+        if (v == null) { // n is deleted
+          helpDelete(n, b, f);
+          break;
+        }
+        if (b.getValue() == null || v == n) { // b is deleted
+          break;
+        }
+        int c = cpr(cmp, key, key(n));
+        if (c == 0) {
+          return (V) v;
+        }
+        if (c < 0) {
+          break outer;
+        }
+        b = n;
+        n = f;
+      }
+    }
+    return null;
+  }
+
+  /* ---------------- Insertion -------------- */
+
+  /** Returns the next random level bits, using a xorshift generator. */
+  private int nextSeed() {
+    int x = randomSeed;
+    x ^= x << 13;
+    x ^= x >>> 17;
+    x ^= x << 5;
+    randomSeed = x;
+    return x;
+  }
+
+  /**
+   * Main insertion method. Adds element if not present, or replaces value if present and
+   * onlyIfAbsent is false.
+   *
+   * @param key the key
+   * @param value the value that must be associated with key
+   * @param onlyIfAbsent if should not insert if already present
+   * @return the old value, or null if newly inserted
+   */
+  @SuppressWarnings("unchecked")
+  private @Nullable V doPut(K key, V value, boolean onlyIfAbsent) {
+    if (key == null || value == null) {
+      throw new NullPointerException();
+    }
+    Comparator<? super K> cmp = comparator;
+    ConcurrentSkipListNode<K, V> z; // added node
+    outer:
+    for (; ; ) {
+      ConcurrentSkipListNode<K, V> b = findPredecessor(key, cmp);
+      ConcurrentSkipListNode<K, V> n = b.getNext();
+      for (; ; ) {
+        if (n != null) {
+          ConcurrentSkipListNode<K, V> f = n.getNext();
+          if (n != b.getNext()) { // inconsistent read
+            break;
+          }
+          Object v = n.getValue();
+          if (v == null) { // n is deleted
+            helpDelete(n, b, f);
+            break;
+          }
+          if (b.getValue() == null || v == n) { // b is deleted
+            break;
+          }
+          int c = cpr(cmp, key, key(n));
+          if (c > 0) {
+            b = n;
+            n = f;
+            continue;
+          }
+          if (c == 0) {
+            if (onlyIfAbsent || n.casValue(v, value)) {
+              return (V) v;
+            }
+            break; // restart if lost race to replace value
+          }
+          // else c < 0; fall through
+        }
+
+        z = new ConcurrentSkipListNode<K, V>(key, value, n);
+        if (!b.casNext(n, z)) {
+          break; // restart if lost race to append to b
+        }
+        break outer;
+      }
+    }
+
+    int rnd = nextSeed();
+    if ((rnd & 0x80000001) == 0) { // test highest and lowest bits
+      int level = 1;
+      while (((rnd >>>= 1) & 1) != 0) {
+        ++level;
+      }
+      ConcurrentSkipListIndex<K, V> idx = null;
+      HeadIndex<K, V> h = head.get();
+      int max = h.level;
+      if (level <= max) {
+        for (int i = 1; i <= level; ++i) {
+          idx = new ConcurrentSkipListIndex<K, V>(z, idx, null);
+        }
+      } else { // try to grow by one level
+        level = max + 1; // hold in array and later pick the one to use
+        @SuppressWarnings("rawtypes")
+        ConcurrentSkipListIndex[] idxs = new ConcurrentSkipListIndex[level + 1];
+        for (int i = 1; i <= level; ++i) {
+          idx = new ConcurrentSkipListIndex<K, V>(z, idx, null);
+          idxs[i] = idx;
+        }
+        for (; ; ) {
+          h = head.get();
+          int oldLevel = h.level;
+          if (level <= oldLevel) { // lost race to add level
+            break;
+          }
+          HeadIndex<K, V> newh = h;
+          ConcurrentSkipListNode<K, V> oldbase = h.getNode();
+          for (int j = oldLevel + 1; j <= level; ++j) {
+            newh = new HeadIndex<K, V>(oldbase, newh, idxs[j], j);
+          }
+          if (head.compareAndSet(h, newh)) {
+            h = newh;
+            level = oldLevel;
+            idx = idxs[level];
+            break;
+          }
+        }
+      }
+      // find insertion points and splice in
+      splice:
+      for (int insertionLevel = level; ; ) {
+        int j = h.level;
+        ConcurrentSkipListIndex<K, V> q = h;
+        ConcurrentSkipListIndex<K, V> r = q.getRight();
+        ConcurrentSkipListIndex<K, V> t = idx;
+        for (; ; ) {
+          if (q == null || t == null) {
+            break splice;
+          }
+          if (r != null) {
+            ConcurrentSkipListNode<K, V> n = r.getNode();
+            // compare before deletion check avoids needing recheck
+            int c = cpr(cmp, key, key(n));
+            if (n.getValue() == null) {
+              if (!unlinkIndex(q, r)) {
+                break;
+              }
+              r = q.getRight();
+              continue;
+            }
+            if (c > 0) {
+              q = r;
+              r = r.getRight();
+              continue;
+            }
+          }
+
+          if (j == insertionLevel) {
+            if (!linkIndex(q, r, t)) {
+              break; // restart
+            }
+            if (t.getNode().getValue() == null) {
+              findNode(key);
+              break splice;
+            }
+            if (--insertionLevel == 0) {
+              break splice;
+            }
+          }
+
+          if (--j >= insertionLevel && j < level) {
+            t = t.getDown();
+          }
+          q = q.getDown();
+          r = q == null ? null : q.getRight();
+        }
+      }
+    }
+    return null;
+  }
+
+  /* ---------------- Deletion -------------- */
+
+  /**
+   * Main deletion method. Locates node, nulls value, appends a deletion marker, unlinks
+   * predecessor, removes associated index nodes, and possibly reduces head index level.
+   *
+   * <p>Index nodes are cleared out simply by calling findPredecessor. which unlinks indexes to
+   * deleted nodes found along path to key, which will include the indexes to this node. This is
+   * done unconditionally. We can't check beforehand whether there are index nodes because it might
+   * be the case that some or all indexes hadn't been inserted yet for this node during initial
+   * search for it, and we'd like to ensure lack of garbage retention, so must call to be sure.
+   *
+   * @param key the key
+   * @param value if non-null, the value that must be associated with key
+   * @return the node, or null if not found
+   */
+  @SuppressWarnings("unchecked")
+  final @Nullable V doRemove(@Nullable Object key, @Nullable Object value) {
+    if (key == null) {
+      throw new NullPointerException();
+    }
+    Comparator<? super K> cmp = comparator;
+    outer:
+    for (; ; ) {
+      ConcurrentSkipListNode<K, V> b = findPredecessor(key, cmp);
+      ConcurrentSkipListNode<K, V> n = b.getNext();
+      for (; ; ) {
+        if (n == null) {
+          break outer;
+        }
+        ConcurrentSkipListNode<K, V> f = n.getNext();
+        if (n != b.getNext()) { // inconsistent read
+          break;
+        }
+        Object v = n.getValue();
+        if (v == null) { // n is deleted
+          helpDelete(n, b, f);
+          break;
+        }
+        if (b.getValue() == null || v == n) { // b is deleted
+          break;
+        }
+        int c = cpr(cmp, key, key(n));
+        if (c < 0) {
+          break outer;
+        }
+        if (c > 0) {
+          b = n;
+          n = f;
+          continue;
+        }
+        if (value != null && !value.equals(v)) {
+          break outer;
+        }
+        if (!n.casValue(v, null)) {
+          break;
+        }
+        if (!appendMarker(n, f) || !b.casNext(n, f)) {
+          findNode(key); // retry via findNode
+        } else {
+          findPredecessor(key, cmp); // clean index
+          if (head.get().getRight() == null) {
+            tryReduceLevel();
+          }
+        }
+        return (V) v;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Possibly reduce head level if it has no nodes. This method can (rarely) make mistakes, in which
+   * case levels can disappear even though they are about to contain index nodes. This impacts
+   * performance, not correctness. To minimize mistakes as well as to reduce hysteresis, the level
+   * is reduced by one only if the topmost three levels look empty. Also, if the removed level looks
+   * non-empty after CAS, we try to change it back quick before anyone notices our mistake! (This
+   * trick works pretty well because this method will practically never make mistakes unless
+   * current thread stalls immediately before first CAS, in which case it is very unlikely to stall
+   * again immediately afterwards, so will recover.)
+   */
+  private void tryReduceLevel() {
+    HeadIndex<K, V> h = head.get();
+    if (h.level <= 3) {
+      return;
+    }
+    HeadIndex<K, V> d = (HeadIndex<K, V>) h.getDown();
+    if (d == null) {
+      return;
+    }
+    HeadIndex<K, V> e = (HeadIndex<K, V>) d.getDown();
+    if (e != null
+        && e.getRight() == null
+        && d.getRight() == null
+        && h.getRight() == null
+        && head.compareAndSet(h, d) // try to set
+        && h.getRight() != null) { // recheck
+      head.compareAndSet(d, h); // try to backout
+    }
+  }
+
+  /* ---------------- Finding and removing first element -------------- */
+
+  /**
+   * Specialized variant of findNode to get first valid node.
+   *
+   * @return first node or null if empty
+   */
+  final @Nullable ConcurrentSkipListNode<K, V> findFirst() {
+    for (; ; ) {
+      ConcurrentSkipListNode<K, V> b = head.get().getNode();
+      ConcurrentSkipListNode<K, V> n = b.getNext();
+      if (n == null) {
+        return null;
+      }
+      if (n.getValue() != null) {
+        return n;
+      }
+      helpDelete(n, b, n.getNext());
+    }
+  }
+
+  /**
+   * Removes first entry; returns its snapshot.
+   *
+   * @return null if empty, else snapshot of first entry
+   */
+  @SuppressWarnings("unchecked")
+  private Map.@Nullable Entry<K, V> doRemoveFirstEntry() {
+    for (; ; ) {
+      ConcurrentSkipListNode<K, V> b = head.get().getNode();
+      ConcurrentSkipListNode<K, V> n = b.getNext();
+      if (n == null) {
+        return null;
+      }
+      ConcurrentSkipListNode<K, V> f = n.getNext();
+      if (n != b.getNext()) {
+        continue;
+      }
+      Object v = n.getValue();
+      if (v == null) {
+        helpDelete(n, b, f);
+        continue;
+      }
+      if (!n.casValue(v, null)) {
+        continue;
+      }
+      if (!appendMarker(n, f) || !b.casNext(n, f)) {
+        findFirst(); // retry
+      }
+      clearIndexToFirst();
+      return new AbstractMap.SimpleImmutableEntry<K, V>(key(n), (V) v);
+    }
+  }
+
+  /** Clears out index nodes associated with deleted first entry. */
+  private void clearIndexToFirst() {
+    for (; ; ) {
+      ConcurrentSkipListIndex<K, V> q = head.get();
+      for (; ; ) {
+        ConcurrentSkipListIndex<K, V> r = q.getRight();
+        if (r != null && r.getNode().getValue() == null && !unlinkIndex(q, r)) {
+          break;
+        }
+        q = q.getDown();
+        if (q == null) {
+          if (head.get().getRight() == null) {
+            tryReduceLevel();
+          }
+          return;
+        }
+      }
+    }
+  }
+
+  /**
+   * Removes last entry; returns its snapshot. Specialized variant of doRemove.
+   *
+   * @return null if empty, else snapshot of last entry
+   */
+  @SuppressWarnings("unchecked")
+  private Map.@Nullable Entry<K, V> doRemoveLastEntry() {
+    for (; ; ) {
+      ConcurrentSkipListNode<K, V> b = findPredecessorOfLast();
+      ConcurrentSkipListNode<K, V> n = b.getNext();
+      if (n == null) {
+        if (isBaseHeader(b)) { // empty
+          return null;
+        }
+        continue; // all b's successors are deleted; retry
+      }
+      for (; ; ) {
+        ConcurrentSkipListNode<K, V> f = n.getNext();
+        if (n != b.getNext()) { // inconsistent read
+          break;
+        }
+        Object v = n.getValue();
+        if (v == null) { // n is deleted
+          helpDelete(n, b, f);
+          break;
+        }
+        if (b.getValue() == null || v == n) { // b is deleted
+          break;
+        }
+        if (f != null) {
+          b = n;
+          n = f;
+          continue;
+        }
+        if (!n.casValue(v, null)) {
+          break;
+        }
+        K key = key(n);
+        if (!appendMarker(n, f) || !b.casNext(n, f)) {
+          findNode(key); // retry via findNode
+        } else { // clean index
+          findPredecessor(key, comparator);
+          if (head.get().getRight() == null) {
+            tryReduceLevel();
+          }
+        }
+        return new AbstractMap.SimpleImmutableEntry<K, V>(key, (V) v);
+      }
+    }
+  }
+
+  /* ---------------- Finding and removing last element -------------- */
+
+  /**
+   * Specialized version of find to get last valid node.
+   *
+   * @return last node or null if empty
+   */
+  final @Nullable ConcurrentSkipListNode<K, V> findLast() {
+    /*
+     * findPredecessor can't be used to traverse index level because this doesn't use comparisons.
+     * So traversals of both levels are folded together.
+     */
+    ConcurrentSkipListIndex<K, V> q = head.get();
+    for (; ; ) {
+      ConcurrentSkipListIndex<K, V> r = q.getRight();
+      if (r != null) {
+        if (r.getNode().getValue() == null) {
+          unlinkIndex(q, r);
+          q = head.get(); // restart
+        } else {
+          q = r;
+        }
+        continue;
+      }
+      ConcurrentSkipListIndex<K, V> d = q.getDown();
+      if (d != null) {
+        q = d;
+        continue;
+      }
+      ConcurrentSkipListNode<K, V> b = q.getNode();
+      ConcurrentSkipListNode<K, V> n = b.getNext();
+      for (; ; ) {
+        if (n == null) {
+          return isBaseHeader(b) ? null : b;
+        }
+        ConcurrentSkipListNode<K, V> f = n.getNext(); // inconsistent read
+        if (n != b.getNext()) {
+          break;
+        }
+        Object v = n.getValue();
+        if (v == null) { // n is deleted
+          helpDelete(n, b, f);
+          break;
+        }
+        if (b.getValue() == null || v == n) { // b is deleted
+          break;
+        }
+        b = n;
+        n = f;
+      }
+      q = head.get(); // restart
+    }
+  }
+
+  /**
+   * Specialized variant of findPredecessor to get predecessor of last valid node. Needed when
+   * removing the last entry. It is possible that all successors of returned node will have been
+   * deleted upon return, in which case this method can be retried.
+   *
+   * @return likely predecessor of last node
+   */
+  private ConcurrentSkipListNode<K, V> findPredecessorOfLast() {
+    for (; ; ) {
+      ConcurrentSkipListIndex<K, V> q = head.get();
+      for (; ; ) {
+        ConcurrentSkipListIndex<K, V> r = q.getRight();
+        if (r != null) {
+          if (r.getNode().getValue() == null) {
+            unlinkIndex(q, r);
+            break; // must restart
+          }
+          // proceed as far across as possible without overshooting
+          if (r.getNode().getNext() != null) {
+            q = r;
+            continue;
+          }
+        }
+        ConcurrentSkipListIndex<K, V> d = q.getDown();
+        if (d == null) {
+          return q.getNode();
+        }
+        q = d;
+      }
+    }
+  }
+
+  /* ---------------- Relational operations -------------- */
+
+  // Control values OR'ed as arguments to findNear
+
+  private static final int EQ = 1;
+  private static final int LT = 2;
+  private static final int GT = 0; // Actually checked as !LT
+
+  /**
+   * Utility for ceiling, floor, lower, higher methods.
+   *
+   * @param key the key
+   * @param rel the relation -- OR'ed combination of EQ, LT, GT
+   * @return nearest node fitting relation, or null if no such
+   */
+  final @Nullable ConcurrentSkipListNode<K, V> findNear(
+      Object key, int rel, @Nullable Comparator<? super K> cmp) {
+    if (key == null) {
+      throw new NullPointerException();
+    }
+    for (; ; ) {
+      ConcurrentSkipListNode<K, V> b = findPredecessor(key, cmp);
+      ConcurrentSkipListNode<K, V> n = b.getNext();
+      for (; ; ) {
+        if (n == null) {
+          return ((rel & LT) == 0 || isBaseHeader(b)) ? null : b;
+        }
+        ConcurrentSkipListNode<K, V> f = n.getNext();
+        if (n != b.getNext()) { // inconsistent read
+          break;
+        }
+        Object v = n.getValue();
+        if (v == null) { // n is deleted
+          helpDelete(n, b, f);
+          break;
+        }
+        if (b.getValue() == null || v == n) { // b is deleted
+          break;
+        }
+        int c = cpr(cmp, key, key(n));
+        if ((c == 0 && (rel & EQ) != 0) || (c < 0 && (rel & LT) == 0)) {
+          return n;
+        }
+        if (c <= 0 && (rel & LT) != 0) {
+          return isBaseHeader(b) ? null : b;
+        }
+        b = n;
+        n = f;
+      }
+    }
+  }
+
+  /**
+   * Returns SimpleImmutableEntry for results of findNear.
+   *
+   * @param key the key
+   * @param rel the relation -- OR'ed combination of EQ, LT, GT
+   * @return Entry fitting relation, or null if no such
+   */
+  final AbstractMap.@Nullable SimpleImmutableEntry<K, V> getNear(K key, int rel) {
+    Comparator<? super K> cmp = comparator;
+    for (; ; ) {
+      ConcurrentSkipListNode<K, V> n = findNear(key, rel, cmp);
+      if (n == null) {
+        return null;
+      }
+      AbstractMap.SimpleImmutableEntry<K, V> e = createSnapshot(n);
+      if (e != null) {
+        return e;
+      }
+    }
+  }
+
+  /* ---------------- Constructors -------------- */
+
+  /** Constructs a new, empty map, sorted according to the natural ordering of the keys. */
+  public ConcurrentSkipListMap() {
+    this.comparator = null;
+  }
+
+  /**
+   * Constructs a new, empty map, sorted according to the specified comparator.
+   *
+   * @param comparator the comparator that will be used to order this map. If {@code null}, the
+   *     natural ordering of the keys will be used.
+   */
+  public ConcurrentSkipListMap(@Nullable Comparator<? super K> comparator) {
+    this.comparator = comparator;
+  }
+
+  /**
+   * Constructs a new map containing the same mappings as the given map, sorted according to the
+   * natural ordering of the keys.
+   *
+   * @param m the map whose mappings are to be placed in this map
+   * @throws ClassCastException if the keys in {@code m} are not {@link Comparable}, or are not
+   *     mutually comparable
+   * @throws NullPointerException if the specified map or any of its keys or values are null
+   */
+  public ConcurrentSkipListMap(Map<? extends K, ? extends V> m) {
+    this.comparator = null;
+    putAll(m);
+  }
+
+  /**
+   * Constructs a new map containing the same mappings and using the same ordering as the specified
+   * sorted map.
+   *
+   * @param m the sorted map whose mappings are to be placed in this map, and whose comparator is to
+   *     be used to sort this map
+   * @throws NullPointerException if the specified sorted map or any of its keys or values are null
+   */
+  public ConcurrentSkipListMap(SortedMap<K, ? extends V> m) {
+    this.comparator = m.comparator();
+    putAll(m);
+  }
+
+  /* ------ Map API methods ------ */
+
+  /**
+   * Returns {@code true} if this map contains a mapping for the specified key.
+   *
+   * @param key key whose presence in this map is to be tested
+   * @return {@code true} if this map contains a mapping for the specified key
+   * @throws ClassCastException if the specified key cannot be compared with the keys currently in
+   *     the map
+   * @throws NullPointerException if the specified key is null
+   */
+  @Override
+  public boolean containsKey(@Nullable Object key) {
+    return doGet(key) != null;
+  }
+
+  /**
+   * Returns the value to which the specified key is mapped, or {@code null} if this map contains no
+   * mapping for the key.
+   *
+   * @throws ClassCastException if the specified key cannot be compared with the keys currently in
+   *     the map
+   * @throws NullPointerException if the specified key is null
+   */
+  @Override
+  public @Nullable V get(@Nullable Object key) {
+    return doGet(key);
+  }
+
+  /**
+   * Returns the value to which the specified key is mapped, or the given defaultValue if this map
+   * contains no mapping for the key.
+   *
+   * @param key the key
+   * @param defaultValue the value to return if this map contains no mapping for the given key
+   * @return the mapping for the key, if present; else the defaultValue
+   * @throws NullPointerException if the specified key is null
+   */
+  @Override
+  public @Nullable V getOrDefault(@Nullable Object key, @Nullable V defaultValue) {
+    V v = doGet(key);
+    return v == null ? defaultValue : v;
+  }
+
+  /**
+   * Associates the specified value with the specified key in this map. If the map previously
+   * contained a mapping for the key, the old value is replaced.
+   *
+   * @param key key with which the specified value is to be associated
+   * @param value value to be associated with the specified key
+   * @return the previous value associated with the specified key, or {@code null} if there was no
+   *     mapping for the key
+   * @throws ClassCastException if the specified key cannot be compared with the keys currently in
+   *     the map
+   * @throws NullPointerException if the specified key or value is null
+   */
+  @Override
+  public @Nullable V put(K key, V value) {
+    return doPut(key, value, false);
+  }
+
+  /**
+   * Removes the mapping for the specified key from this map if present.
+   *
+   * @param key key for which mapping should be removed
+   * @return the previous value associated with the specified key, or {@code null} if there was no
+   *     mapping for the key
+   * @throws ClassCastException if the specified key cannot be compared with the keys currently in
+   *     the map
+   * @throws NullPointerException if the specified key is null
+   */
+  @Override
+  public @Nullable V remove(@Nullable Object key) {
+    return doRemove(key, null);
+  }
+
+  /**
+   * Returns {@code true} if this map maps one or more keys to the specified value. This operation
+   * requires time linear in the map size. Additionally, it is possible for the map to change during
+   * execution of this method, in which case the returned result may be inaccurate.
+   *
+   * @param value value whose presence in this map is to be tested
+   * @return {@code true} if a mapping to {@code value} exists; {@code false} otherwise
+   * @throws NullPointerException if the specified value is null
+   */
+  @Override
+  public boolean containsValue(@Nullable Object value) {
+    if (value == null) {
+      throw new NullPointerException();
+    }
+    for (ConcurrentSkipListNode<K, V> n = findFirst(); n != null; n = n.getNext()) {
+      V v = getValidValue(n);
+      if (v != null && value.equals(v)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Returns the number of key-value mappings in this map. If this map contains more than {@code
+   * Integer.MAX_VALUE} elements, it returns {@code Integer.MAX_VALUE}.
+   *
+   * <p>Beware that, unlike in most collections, this method is <em>NOT</em> a constant-time
+   * operation. Because of the asynchronous nature of these maps, determining the current number of
+   * elements requires traversing them all to count them.
+   *
+   * @return the number of elements in this map
+   */
+  @Override
+  public int size() {
+    long count = 0;
+    for (ConcurrentSkipListNode<K, V> n = findFirst(); n != null; n = n.getNext()) {
+      if (getValidValue(n) != null) {
+        ++count;
+      }
+    }
+    return (count >= Integer.MAX_VALUE) ? Integer.MAX_VALUE : (int) count;
+  }
+
+  /**
+   * Returns {@code true} if this map contains no key-value mappings.
+   *
+   * @return {@code true} if this map contains no key-value mappings
+   */
+  @Override
+  public boolean isEmpty() {
+    return findFirst() == null;
+  }
+
+  /**
+   * Removes all of the mappings from this map. Mappings are removed one by one from the front, so
+   * that insertions racing with the clear are never lost.
+   */
+  @Override
+  public void clear() {
+    Map.Entry<K, V> e;
+    do {
+      e = doRemoveFirstEntry();
+    } while (e != null);
+  }
+
+  /**
+   * If the specified key is not already associated with a value, attempts to compute its value
+   * using the given mapping function and enters it into this map unless {@code null}. The function
+   * is <em>NOT</em> guaranteed to be applied once atomically only if the value is not present.
+   *
+   * @param key key with which the specified value is to be associated
+   * @param mappingFunction the function to compute a value
+   * @return the current (existing or computed) value associated with the specified key, or null if
+   *     the computed value is null
+   * @throws NullPointerException if the specified key is null or the mappingFunction is null
+   */
+  @Override
+  public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+    if (key == null || mappingFunction == null) {
+      throw new NullPointerException();
+    }
+    V v = doGet(key);
+    if (v == null) {
+      V r = mappingFunction.apply(key);
+      if (r != null) {
+        V p = doPut(key, r, true);
+        v = (p == null) ? r : p;
+      }
+    }
+    return v;
+  }
+
+  /**
+   * If the value for the specified key is present, attempts to compute a new mapping given the key
+   * and its current mapped value. The function is <em>NOT</em> guaranteed to be applied once
+   * atomically.
+   *
+   * @param key key with which a value may be associated
+   * @param remappingFunction the function to compute a value
+   * @return the new value associated with the specified key, or null if none
+   * @throws NullPointerException if the specified key is null or the remappingFunction is null
+   */
+  @Override
+  @SuppressWarnings("unchecked")
+  public @Nullable V computeIfPresent(
+      K key, BiFunction<? super K, ? super @NonNull V, ? extends @Nullable V> remappingFunction) {
+    if (key == null || remappingFunction == null) {
+      throw new NullPointerException();
+    }
+    ConcurrentSkipListNode<K, V> n;
+    while ((n = findNode(key)) != null) {
+      Object v = n.getValue();
+      if (v != null) {
+        V vv = (V) v;
+        V r = remappingFunction.apply(key, vv);
+        if (r != null) {
+          if (n.casValue(vv, r)) {
+            return r;
+          }
+        } else if (doRemove(key, vv) != null) {
+          break;
+        }
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Attempts to compute a mapping for the specified key and its current mapped value (or {@code
+   * null} if there is no current mapping). The function is <em>NOT</em> guaranteed to be applied
+   * once atomically.
+   *
+   * @param key key with which the specified value is to be associated
+   * @param remappingFunction the function to compute a value
+   * @return the new value associated with the specified key, or null if none
+   * @throws NullPointerException if the specified key is null or the remappingFunction is null
+   */
+  @Override
+  @SuppressWarnings("unchecked")
+  public @Nullable V compute(
+      K key, BiFunction<? super K, ? super @Nullable V, ? extends @Nullable V> remappingFunction) {
+    if (key == null || remappingFunction == null) {
+      throw new NullPointerException();
+    }
+    for (; ; ) {
+      ConcurrentSkipListNode<K, V> n = findNode(key);
+      if (n == null) {
+        V r = remappingFunction.apply(key, null);
+        if (r == null) {
+          break;
+        }
+        if (doPut(key, r, true) == null) {
+          return r;
+        }
+      } else {
+        Object v = n.getValue();
+        if (v != null) {
+          V vv = (V) v;
+          V r = remappingFunction.apply(key, vv);
+          if (r != null) {
+            if (n.casValue(vv, r)) {
+              return r;
+            }
+          } else if (doRemove(key, vv) != null) {
+            break;
+          }
+        }
+      }
+    }
+    return null;
+  }
+
+  /**
+   * If the specified key is not already associated with a value, associates it with the given
+   * value. Otherwise, replaces the value with the results of the given remapping function, or
+   * removes if {@code null}. The function is <em>NOT</em> guaranteed to be applied once atomically.
+   *
+   * @param key key with which the specified value is to be associated
+   * @param value the value to use if absent
+   * @param remappingFunction the function to recompute a value if present
+   * @return the new value associated with the specified key, or null if none
+   * @throws NullPointerException if the specified key or value is null or the remappingFunction is
+   *     null
+   */
+  @Override
+  @SuppressWarnings("unchecked")
+  public @Nullable V merge(
+      K key,
+      @NonNull V value,
+      BiFunction<? super @NonNull V, ? super @NonNull V, ? extends @Nullable V> remappingFunction) {
+    if (key == null || value == null || remappingFunction == null) {
+      throw new NullPointerException();
+    }
+    for (; ; ) {
+      ConcurrentSkipListNode<K, V> n = findNode(key);
+      if (n == null) {
+        if (doPut(key, value, true) == null) {
+          return value;
+        }
+      } else {
+        Object v = n.getValue();
+        if (v != null) {
+          V vv = (V) v;
+          V r = remappingFunction.apply(vv, value);
+          if (r != null) {
+            if (n.casValue(vv, r)) {
+              return r;
+            }
+          } else if (doRemove(key, vv) != null) {
+            return null;
+          }
+        }
+      }
+    }
+  }
+
+  /* ---------------- View methods -------------- */
+
+  /**
+   * Returns a {@link NavigableSet} view of the keys contained in this map.
+   *
+   * <p>The set's iterator returns the keys in ascending order. The set is backed by the map, so
+   * changes to the map are reflected in the set, and vice-versa. The set supports element removal,
+   * which removes the corresponding mapping from the map. It does not support the {@code add} or
+   * {@code addAll} operations.
+   *
+   * <p>The view's iterators are <i>weakly consistent</i>.
+   *
+   * @return a navigable set view of the keys in this map
+   */
+  @Override
+  public Set<K> keySet() {
+    return navigableKeySet();
+  }
+
+  @Override
+  public NavigableSet<K> navigableKeySet() {
+    KeySet<K> ks = keySet;
+    if (ks == null) {
+      ks = new KeySet<K>(this);
+      keySet = ks;
+    }
+    return ks;
+  }
+
+  /**
+   * Returns a {@link Collection} view of the values contained in this map.
+   *
+   * <p>The collection's iterator returns the values in ascending order of the corresponding keys.
+   * The collection is backed by the map, so changes to the map are reflected in the collection,
+   * and vice-versa. The collection supports element removal, which removes the corresponding
+   * mapping from the map. It does not support the {@code add} or {@code addAll} operations.
+   *
+   * <p>The view's iterators are <i>weakly consistent</i>.
+   */
+  @Override
+  public Collection<V> values() {
+    Values<V> vs = values;
+    if (vs == null) {
+      vs = new Values<V>(this);
+      values = vs;
+    }
+    return vs;
+  }
+
+  /**
+   * Returns a {@link Set} view of the mappings contained in this map.
+   *
+   * <p>The set's iterator returns the entries in ascending key order. The set is backed by the map,
+   * so changes to the map are reflected in the set, and vice-versa. The set supports element
+   * removal, which removes the corresponding mapping from the map. It does not support the {@code
+   * add} or {@code addAll} operations.
+   *
+   * <p>The view's iterators are <i>weakly consistent</i>.
+   *
+   * <p>The {@code Map.Entry} elements traversed by the {@code iterator} do <em>not</em> support the
+   * {@code setValue} operation.
+   *
+   * @return a set view of the mappings contained in this map, sorted in ascending key order
+   */
+  @Override
+  public Set<Map.Entry<K, V>> entrySet() {
+    EntrySet<K, V> es = entrySet;
+    if (es == null) {
+      es = new EntrySet<K, V>(this);
+      entrySet = es;
+    }
+    return es;
+  }
+
+  @Override
+  public ConcurrentNavigableMap<K, V> descendingMap() {
+    ConcurrentNavigableMap<K, V> dm = descendingMap;
+    if (dm == null) {
+      dm = new SubMap<K, V>(this, null, false, null, false, true);
+      descendingMap = dm;
+    }
+    return dm;
+  }
+
+  @Override
+  public NavigableSet<K> descendingKeySet() {
+    return descendingMap().navigableKeySet();
+  }
+
+  /* ---------------- AbstractMap Overrides -------------- */
+
+  /**
+   * Compares the specified object with this map for equality. Returns {@code true} if the given
+   * object is also a map and the two maps represent the same mappings. This operation may return
+   * misleading results if either map is concurrently modified during execution of this method.
+   *
+   * @param o object to be compared for equality with this map
+   * @return {@code true} if the specified object is equal to this map
+   */
+  @Override
+  public boolean equals(@Nullable Object o) {
+    if (o == this) {
+      return true;
+    }
+    if (!(o instanceof Map)) {
+      return false;
+    }
+    Map<?, ?> m = (Map<?, ?>) o;
+    try {
+      for (Map.Entry<K, V> e : this.entrySet()) {
+        if (!e.getValue().equals(m.get(e.getKey()))) {
+          return false;
+        }
+      }
+      for (Map.Entry<?, ?> e : m.entrySet()) {
+        Object k = e.getKey();
+        Object v = e.getValue();
+        if (k == null || v == null || !v.equals(get(k))) {
+          return false;
+        }
+      }
+      return true;
+    } catch (ClassCastException | NullPointerException unused) {
+      return false;
+    }
+  }
+
+  @Override
+  public int hashCode() {
+    return super.hashCode();
+  }
+
+  /* ------ ConcurrentMap API methods ------ */
+
+  /**
+   * {@inheritDoc}
+   *
+   * @return the previous value associated with the specified key, or {@code null} if there was no
+   *     mapping for the key
+   * @throws ClassCastException if the specified key cannot be compared with the keys currently in
+   *     the map
+   * @throws NullPointerException if the specified key or value is null
+   */
+  @Override
+  public @Nullable V putIfAbsent(K key, V value) {
+    return doPut(key, value, true);
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @throws ClassCastException if the specified key cannot be compared with the keys currently in
+   *     the map
+   * @throws NullPointerException if the specified key is null
+   */
+  @Override
+  public boolean remove(@Nullable Object key, @Nullable Object value) {
+    if (key == null) {
+      throw new NullPointerException();
+    }
+    return value != null && doRemove(key, value) != null;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @throws ClassCastException if the specified key cannot be compared with the keys currently in
+   *     the map
+   * @throws NullPointerException if any of the arguments are null
+   */
+  @Override
+  @SuppressWarnings("unchecked")
+  public boolean replace(K key, V oldValue, V newValue) {
+    if (key == null || oldValue == null || newValue == null) {
+      throw new NullPointerException();
+    }
+    for (; ; ) {
+      ConcurrentSkipListNode<K, V> n = findNode(key);
+      if (n == null) {
+        return false;
+      }
+      Object v = n.getValue();
+      if (v != null) {
+        if (!oldValue.equals(v)) {
+          return false;
+        }
+        if (n.casValue(v, newValue)) {
+          return true;
+        }
+      }
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @return the previous value associated with the specified key, or {@code null} if there was no
+   *     mapping for the key
+   * @throws ClassCastException if the specified key cannot be compared with the keys currently in
+   *     the map
+   * @throws NullPointerException if the specified key or value is null
+   */
+  @Override
+  @SuppressWarnings("unchecked")
+  public @Nullable V replace(K key, V value) {
+    if (key == null || value == null) {
+      throw new NullPointerException();
+    }
+    for (; ; ) {
+      ConcurrentSkipListNode<K, V> n = findNode(key);
+      if (n == null) {
+        return null;
+      }
+      Object v = n.getValue();
+      if (v != null && n.casValue(v, value)) {
+        return (V) v;
+      }
+    }
+  }
+
+  /* ------ SortedMap API methods ------ */
+
+  @Override
+  public @Nullable Comparator<? super K> comparator() {
+    return comparator;
+  }
+
+  /** @throws NoSuchElementException {@inheritDoc} */
+  @Override
+  public K firstKey() {
+    ConcurrentSkipListNode<K, V> n = findFirst();
+    if (n == null) {
+      throw new NoSuchElementException();
+    }
+    return key(n);
+  }
+
+  /** @throws NoSuchElementException {@inheritDoc} */
+  @Override
+  public K lastKey() {
+    ConcurrentSkipListNode<K, V> n = findLast();
+    if (n == null) {
+      throw new NoSuchElementException();
+    }
+    return key(n);
+  }
+
+  /**
+   * @throws ClassCastException {@inheritDoc}
+   * @throws NullPointerException if {@code fromKey} or {@code toKey} is null
+   * @throws IllegalArgumentException {@inheritDoc}
+   */
+  @Override
+  public ConcurrentNavigableMap<K, V> subMap(
+      K fromKey, boolean fromInclusive, K toKey, boolean toInclusive) {
+    if (fromKey == null || toKey == null) {
+      throw new NullPointerException();
+    }
+    return new SubMap<K, V>(this, fromKey, fromInclusive, toKey, toInclusive, false);
+  }
+
+  /**
+   * @throws ClassCastException {@inheritDoc}
+   * @throws NullPointerException if {@code toKey} is null
+   * @throws IllegalArgumentException {@inheritDoc}
+   */
+  @Override
+  public ConcurrentNavigableMap<K, V> headMap(K toKey, boolean inclusive) {
+    if (toKey == null) {
+      throw new NullPointerException();
+    }
+    return new SubMap<K, V>(this, null, false, toKey, inclusive, false);
+  }
+
+  /**
+   * @throws ClassCastException {@inheritDoc}
+   * @throws NullPointerException if {@code fromKey} is null
+   * @throws IllegalArgumentException {@inheritDoc}
+   */
+  @Override
+  public ConcurrentNavigableMap<K, V> tailMap(K fromKey, boolean inclusive) {
+    if (fromKey == null) {
+      throw new NullPointerException();
+    }
+    return new SubMap<K, V>(this, fromKey, inclusive, null, false, false);
+  }
+
+  /**
+   * @throws ClassCastException {@inheritDoc}
+   * @throws NullPointerException if {@code fromKey} or {@code toKey} is null
+   * @throws IllegalArgumentException {@inheritDoc}
+   */
+  @Override
+  public ConcurrentNavigableMap<K, V> subMap(K fromKey, K toKey) {
+    return subMap(fromKey, true, toKey, false);
+  }
+
+  /**
+   * @throws ClassCastException {@inheritDoc}
+   * @throws NullPointerException if {@code toKey} is null
+   * @throws IllegalArgumentException {@inheritDoc}
+   */
+  @Override
+  public ConcurrentNavigableMap<K, V> headMap(K toKey) {
+    return headMap(toKey, false);
+  }
+
+  /**
+   * @throws ClassCastException {@inheritDoc}
+   * @throws NullPointerException if {@code fromKey} is null
+   * @throws IllegalArgumentException {@inheritDoc}
+   */
+  @Override
+  public ConcurrentNavigableMap<K, V> tailMap(K fromKey) {
+    return tailMap(fromKey, true);
+  }
+
+  /* ---------------- Relational operations -------------- */
+
+  /**
+   * Returns a key-value mapping associated with the greatest key strictly less than the given key,
+   * or {@code null} if there is no such key. The returned entry does <em>not</em> support the
+   * {@code Entry.setValue} method.
+   *
+   * @throws ClassCastException {@inheritDoc}
+   * @throws NullPointerException if the specified key is null
+   */
+  @Override
+  public Map.@Nullable Entry<K, V> lowerEntry(K key) {
+    return getNear(key, LT);
+  }
+
+  /**
+   * @throws ClassCastException {@inheritDoc}
+   * @throws NullPointerException if the specified key is null
+   */
+  @Override
+  public @Nullable K lowerKey(K key) {
+    ConcurrentSkipListNode<K, V> n = findNear(key, LT, comparator);
+    return (n == null) ? null : n.getKey();
+  }
+
+  /**
+   * Returns a key-value mapping associated with the greatest key less than or equal to the given
+   * key, or {@code null} if there is no such key. The returned entry does <em>not</em> support the
+   * {@code Entry.setValue} method.
+   *
+   * @param key the key
+   * @throws ClassCastException {@inheritDoc}
+   * @throws NullPointerException if the specified key is null
+   */
+  @Override
+  public Map.@Nullable Entry<K, V> floorEntry(K key) {
+    return getNear(key, LT | EQ);
+  }
+
+  /**
+   * @param key the key
+   * @throws ClassCastException {@inheritDoc}
+   * @throws NullPointerException if the specified key is null
+   */
+  @Override
+  public @Nullable K floorKey(K key) {
+    ConcurrentSkipListNode<K, V> n = findNear(key, LT | EQ, comparator);
+    return (n == null) ? null : n.getKey();
+  }
+
+  /**
+   * Returns a key-value mapping associated with the least key greater than or equal to the given
+   * key, or {@code null} if there is no such entry. The returned entry does <em>not</em> support
+   * the {@code Entry.setValue} method.
+   *
+   * @throws ClassCastException {@inheritDoc}
+   * @throws NullPointerException if the specified key is null
+   */
+  @Override
+  public Map.@Nullable Entry<K, V> ceilingEntry(K key) {
+    return getNear(key, GT | EQ);
+  }
+
+  /**
+   * @throws ClassCastException {@inheritDoc}
+   * @throws NullPointerException if the specified key is null
+   */
+  @Override
+  public @Nullable K ceilingKey(K key) {
+    ConcurrentSkipListNode<K, V> n = findNear(key, GT | EQ, comparator);
+    return (n == null) ? null : n.getKey();
+  }
+
+  /**
+   * Returns a key-value mapping associated with the least key strictly greater than the given key,
+   * or {@code null} if there is no such key. The returned entry does <em>not</em> support the
+   * {@code Entry.setValue} method.
+   *
+   * @param key the key
+   * @throws ClassCastException {@inheritDoc}
+   * @throws NullPointerException if the specified key is null
+   */
+  @Override
+  public Map.@Nullable Entry<K, V> higherEntry(K key) {
+    return getNear(key, GT);
+  }
+
+  /**
+   * @param key the key
+   * @throws ClassCastException {@inheritDoc}
+   * @throws NullPointerException if the specified key is null
+   */
+  @Override
+  public @Nullable K higherKey(K key) {
+    ConcurrentSkipListNode<K, V> n = findNear(key, GT, comparator);
+    return (n == null) ? null : n.getKey();
+  }
+
+  /**
+   * Returns a key-value mapping associated with the least key in this map, or {@code null} if the
+   * map is empty. The returned entry does <em>not</em> support the {@code Entry.setValue} method.
+   */
+  @Override
+  public Map.@Nullable Entry<K, V> firstEntry() {
+    for (; ; ) {
+      ConcurrentSkipListNode<K, V> n = findFirst();
+      if (n == null) {
+        return null;
+      }
+      AbstractMap.SimpleImmutableEntry<K, V> e = createSnapshot(n);
+      if (e != null) {
+        return e;
+      }
+    }
+  }
+
+  /**
+   * Returns a key-value mapping associated with the greatest key in this map, or {@code null} if
+   * the map is empty. The returned entry does <em>not</em> support the {@code Entry.setValue}
+   * method.
+   */
+  @Override
+  public Map.@Nullable Entry<K, V> lastEntry() {
+    for (; ; ) {
+      ConcurrentSkipListNode<K, V> n = findLast();
+      if (n == null) {
+        return null;
+      }
+      AbstractMap.SimpleImmutableEntry<K, V> e = createSnapshot(n);
+      if (e != null) {
+        return e;
+      }
+    }
+  }
+
+  /**
+   * Removes and returns a key-value mapping associated with the least key in this map, or {@code
+   * null} if the map is empty. The returned entry does <em>not</em> support the {@code
+   * Entry.setValue} method.
+   */
+  @Override
+  public Map.@Nullable Entry<K, V> pollFirstEntry() {
+    return doRemoveFirstEntry();
+  }
+
+  /**
+   * Removes and returns a key-value mapping associated with the greatest key in this map, or {@code
+   * null} if the map is empty. The returned entry does <em>not</em> support the {@code
+   * Entry.setValue} method.
+   */
+  @Override
+  public Map.@Nullable Entry<K, V> pollLastEntry() {
+    return doRemoveLastEntry();
+  }
+
+  @Override
+  public void forEach(BiConsumer<? super K, ? super V> action) {
+    if (action == null) {
+      throw new NullPointerException();
+    }
+    for (ConcurrentSkipListNode<K, V> n = findFirst(); n != null; n = n.getNext()) {
+      V v = getValidValue(n);
+      if (v != null) {
+        action.accept(key(n), v);
+      }
+    }
+  }
+
+  @Override
+  public void replaceAll(BiFunction<? super K, ? super V, ? extends V> function) {
+    if (function == null) {
+      throw new NullPointerException();
+    }
+    for (ConcurrentSkipListNode<K, V> n = findFirst(); n != null; n = n.getNext()) {
+      V v;
+      while ((v = getValidValue(n)) != null) {
+        V r = function.apply(key(n), v);
+        if (r == null) {
+          throw new NullPointerException();
+        }
+        if (n.casValue(v, r)) {
+          break;
+        }
+      }
+    }
+  }
+
+  /* ---------------- Iterators -------------- */
+
+  /** Base of iterator classes: */
+  abstract class Iter<T> implements Iterator<T> {
+    /** the last node returned by next() */
+    @Nullable ConcurrentSkipListNode<K, V> lastReturned;
+
+    /** the next node to return from next(); */
+    @Nullable ConcurrentSkipListNode<K, V> next;
+
+    /** Cache of next value field to maintain weak consistency */
+    @Nullable V nextValue;
+
+    /** Initializes ascending iterator for entire range. */
+    Iter() {
+      while ((next = findFirst()) != null) {
+        V x = getValidValue(next);
+        if (x != null) {
+          nextValue = x;
+          break;
+        }
+      }
+    }
+
+    @Override
+    public final boolean hasNext() {
+      return next != null;
+    }
+
+    /** Advances next to higher entry. */
+    final void advance() {
+      ConcurrentSkipListNode<K, V> n = next;
+      if (n == null) {
+        throw new NoSuchElementException();
+      }
+      lastReturned = n;
+      while ((next = n.getNext()) != null) {
+        n = next;
+        V x = getValidValue(n);
+        if (x != null) {
+          nextValue = x;
+          break;
+        }
+      }
+    }
+
+    @Override
+    public void remove() {
+      ConcurrentSkipListNode<K, V> l = lastReturned;
+      if (l == null) {
+        throw new IllegalStateException();
+      }
+      // It would not be worth all of the overhead to directly unlink from here. Using remove is
+      // fast enough.
+      ConcurrentSkipListMap.this.remove(key(l));
+      lastReturned = null;
+    }
+  }
+
+  final class ValueIterator extends Iter<V> {
+    @Override
+    public V next() {
+      V v = Objects.requireNonNull(nextValue);
+      advance();
+      return v;
+    }
+  }
+
+  final class KeyIterator extends Iter<K> {
+    @Override
+    public K next() {
+      ConcurrentSkipListNode<K, V> n = next;
+      advance();
+      return key(Objects.requireNonNull(n));
+    }
+  }
+
+  final class EntryIterator extends Iter<Map.Entry<K, V>> {
+    @Override
+    public Map.Entry<K, V> next() {
+      ConcurrentSkipListNode<K, V> n = next;
+      V v = nextValue;
+      advance();
+      return new AbstractMap.SimpleImmutableEntry<K, V>(
+          key(Objects.requireNonNull(n)), Objects.requireNonNull(v));
+    }
+  }
+
+  // Factory methods for iterators needed by ConcurrentSkipListSet etc
+
+  Iterator<K> keyIterator() {
+    return new KeyIterator();
+  }
+
+  Iterator<V> valueIterator() {
+    return new ValueIterator();
+  }
+
+  Iterator<Map.Entry<K, V>> entryIterator() {
+    return new EntryIterator();
+  }
+
+  /* ---------------- View Classes -------------- */
+
+  /*
+   * View classes are static, delegating to a ConcurrentNavigableMap to allow use by SubMaps, which
+   * outweighs the ugliness of needing type-tests for iterator methods.
+   */
+
+  static final <E> List<E> toList(Collection<E> c) {
+    // Using size() here would be a pessimization.
+    ArrayList<E> list = new ArrayList<E>();
+    for (E e : c) {
+      list.add(e);
+    }
+    return list;
+  }
+
+  static final class KeySet<E> extends AbstractSet<E> implements NavigableSet<E> {
+    final ConcurrentNavigableMap<E, ?> m;
+
+    KeySet(ConcurrentNavigableMap<E, ?> map) {
+      m = map;
+    }
+
+    @Override
+    public int size() {
+      return m.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+      return m.isEmpty();
+    }
+
+    @Override
+    public boolean contains(@Nullable Object o) {
+      return m.containsKey(o);
+    }
+
+    @Override
+    public boolean remove(@Nullable Object o) {
+      return m.remove(o) != null;
+    }
+
+    @Override
+    public void clear() {
+      m.clear();
+    }
+
+    @Override
+    public @Nullable E lower(E e) {
+      return m.lowerKey(e);
+    }
+
+    @Override
+    public @Nullable E floor(E e) {
+      return m.floorKey(e);
+    }
+
+    @Override
+    public @Nullable E ceiling(E e) {
+      return m.ceilingKey(e);
+    }
+
+    @Override
+    public @Nullable E higher(E e) {
+      return m.higherKey(e);
+    }
+
+    @Override
+    public @Nullable Comparator<? super E> comparator() {
+      return m.comparator();
+    }
+
+    @Override
+    public E first() {
+      return m.firstKey();
+    }
+
+    @Override
+    public E last() {
+      return m.lastKey();
+    }
+
+    @Override
+    public @Nullable E pollFirst() {
+      Map.Entry<E, ?> e = m.pollFirstEntry();
+      return (e == null) ? null : e.getKey();
+    }
+
+    @Override
+    public @Nullable E pollLast() {
+      Map.Entry<E, ?> e = m.pollLastEntry();
+      return (e == null) ? null : e.getKey();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Iterator<E> iterator() {
+      if (m instanceof ConcurrentSkipListMap) {
+        return ((ConcurrentSkipListMap<E, Object>) m).keyIterator();
+      } else {
+        return ((ConcurrentSkipListMap.SubMap<E, Object>) m).keyIterator();
+      }
+    }
+
+    @Override
+    public boolean equals(@Nullable Object o) {
+      if (o == this) {
+        return true;
+      }
+      if (!(o instanceof Set)) {
+        return false;
+      }
+      Collection<?> c = (Collection<?>) o;
+      try {
+        return containsAll(c) && c.containsAll(this);
+      } catch (ClassCastException | NullPointerException unused) {
+        return false;
+      }
+    }
+
+    @Override
+    public int hashCode() {
+      return super.hashCode();
+    }
+
+    @Override
+    public Object[] toArray() {
+      return toList(this).toArray();
+    }
+
+    @Override
+    public <T extends @Nullable Object> T[] toArray(T[] a) {
+      return toList(this).toArray(a);
+    }
+
+    @Override
+    public Iterator<E> descendingIterator() {
+      return descendingSet().iterator();
+    }
+
+    @Override
+    public NavigableSet<E> subSet(
+        E fromElement, boolean fromInclusive, E toElement, boolean toInclusive) {
+      return new KeySet<E>(m.subMap(fromElement, fromInclusive, toElement, toInclusive));
+    }
+
+    @Override
+    public NavigableSet<E> headSet(E toElement, boolean inclusive) {
+      return new KeySet<E>(m.headMap(toElement, inclusive));
+    }
+
+    @Override
+    public NavigableSet<E> tailSet(E fromElement, boolean inclusive) {
+      return new KeySet<E>(m.tailMap(fromElement, inclusive));
+    }
+
+    @Override
+    public NavigableSet<E> subSet(E fromElement, E toElement) {
+      return subSet(fromElement, true, toElement, false);
+    }
+
+    @Override
+    public NavigableSet<E> headSet(E toElement) {
+      return headSet(toElement, false);
+    }
+
+    @Override
+    public NavigableSet<E> tailSet(E fromElement) {
+      return tailSet(fromElement, true);
+    }
+
+    @Override
+    public NavigableSet<E> descendingSet() {
+      return new KeySet<E>(m.descendingMap());
+    }
+  }
+
+  static final class Values<E> extends AbstractCollection<E> {
+    final ConcurrentNavigableMap<?, E> m;
+
+    Values(ConcurrentNavigableMap<?, E> map) {
+      m = map;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Iterator<E> iterator() {
+      if (m instanceof ConcurrentSkipListMap) {
+        return ((ConcurrentSkipListMap<?, E>) m).valueIterator();
+      } else {
+        return ((SubMap<?, E>) m).valueIterator();
+      }
+    }
+
+    @Override
+    public boolean isEmpty() {
+      return m.isEmpty();
+    }
+
+    @Override
+    public int size() {
+      return m.size();
+    }
+
+    @Override
+    public boolean contains(@Nullable Object o) {
+      return m.containsValue(o);
+    }
+
+    @Override
+    public void clear() {
+      m.clear();
+    }
+
+    @Override
+    public Object[] toArray() {
+      return toList(this).toArray();
+    }
+
+    @Override
+    public <T extends @Nullable Object> T[] toArray(T[] a) {
+      return toList(this).toArray(a);
+    }
+  }
+
+  static final class EntrySet<K1, V1> extends AbstractSet<Map.Entry<K1, V1>> {
+    final ConcurrentNavigableMap<K1, V1> m;
+
+    EntrySet(ConcurrentNavigableMap<K1, V1> map) {
+      m = map;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Iterator<Map.Entry<K1, V1>> iterator() {
+      if (m instanceof ConcurrentSkipListMap) {
+        return ((ConcurrentSkipListMap<K1, V1>) m).entryIterator();
+      } else {
+        return ((SubMap<K1, V1>) m).entryIterator();
+      }
+    }
+
+    @Override
+    public boolean contains(@Nullable Object o) {
+      if (!(o instanceof Map.Entry)) {
+        return false;
+      }
+      Map.Entry<?, ?> e = (Map.Entry<?, ?>) o;
+      V1 v = m.get(e.getKey());
+      return v != null && v.equals(e.getValue());
+    }
+
+    @Override
+    public boolean remove(@Nullable Object o) {
+      if (!(o instanceof Map.Entry)) {
+        return false;
+      }
+      Map.Entry<?, ?> e = (Map.Entry<?, ?>) o;
+      return m.remove(e.getKey(), e.getValue());
+    }
+
+    @Override
+    public boolean isEmpty() {
+      return m.isEmpty();
+    }
+
+    @Override
+    public int size() {
+      return m.size();
+    }
+
+    @Override
+    public void clear() {
+      m.clear();
+    }
+
+    @Override
+    public boolean equals(@Nullable Object o) {
+      if (o == this) {
+        return true;
+      }
+      if (!(o instanceof Set)) {
+        return false;
+      }
+      Collection<?> c = (Collection<?>) o;
+      try {
+        return containsAll(c) && c.containsAll(this);
+      } catch (ClassCastException | NullPointerException unused) {
+        return false;
+      }
+    }
+
+    @Override
+    public int hashCode() {
+      return super.hashCode();
+    }
+
+    @Override
+    public Object[] toArray() {
+      return toList(this).toArray();
+    }
+
+    @Override
+    public <T extends @Nullable Object> T[] toArray(T[] a) {
+      return toList(this).toArray(a);
+    }
+  }
+
+  /**
+   * Submaps returned by {@link ConcurrentSkipListMap} submap operations represent a subrange of
+   * mappings of their underlying maps. Instances of this class support all methods of their
+   * underlying maps, differing in that mappings outside their range are ignored, and attempts to
+   * add mappings outside their ranges result in {@link IllegalArgumentException}. Instances of this
+   * class are constructed only using the {@code subMap}, {@code headMap}, and {@code tailMap}
+   * methods of their underlying maps.
+   */
+  static final class SubMap<K, V> extends AbstractMap<K, V>
+      implements ConcurrentNavigableMap<K, V> {
+    /** Underlying map */
+    private final ConcurrentSkipListMap<K, V> m;
+
+    /** lower bound key, or null if from start */
+    private final @Nullable K lo;
+
+    /** upper bound key, or null if to end */
+    private final @Nullable K hi;
+
+    /** inclusion flag for lo */
+    private final boolean loInclusive;
+
+    /** inclusion flag for hi */
+    private final boolean hiInclusive;
+
+    /** direction */
+    private final boolean isDescending;
+
+    // Lazily initialized view holders
+    private @Nullable KeySet<K> keySetView;
+    private @Nullable Set<Map.Entry<K, V>> entrySetView;
+    private @Nullable Collection<V> valuesView;
+
+    /** Creates a new submap, initializing all fields. */
+    SubMap(
+        ConcurrentSkipListMap<K, V> map,
+        @Nullable K fromKey,
+        boolean fromInclusive,
+        @Nullable K toKey,
+        boolean toInclusive,
+        boolean isDescending) {
+      Comparator<? super K> cmp = map.comparator;
+      if (fromKey != null && toKey != null && cpr(cmp, fromKey, toKey) > 0) {
+        throw new IllegalArgumentException("inconsistent range");
+      }
+      this.m = map;
+      this.lo = fromKey;
+      this.hi = toKey;
+      this.loInclusive = fromInclusive;
+      this.hiInclusive = toInclusive;
+      this.isDescending = isDescending;
+    }
+
+    /* ----------------  Utilities -------------- */
+
+    boolean tooLow(Object key, @Nullable Comparator<? super K> cmp) {
+      if (lo != null) {
+        int c = cpr(cmp, key, lo);
+        if (c < 0 || (c == 0 && !loInclusive)) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    boolean tooHigh(Object key, @Nullable Comparator<? super K> cmp) {
+      if (hi != null) {
+        int c = cpr(cmp, key, hi);
+        if (c > 0 || (c == 0 && !hiInclusive)) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    boolean inBounds(Object key, @Nullable Comparator<? super K> cmp) {
+      return !tooLow(key, cmp) && !tooHigh(key, cmp);
+    }
+
+    void checkKeyBounds(K key, @Nullable Comparator<? super K> cmp) {
+      if (key == null) {
+        throw new NullPointerException();
+      }
+      if (!inBounds(key, cmp)) {
+        throw new IllegalArgumentException("key out of range");
+      }
+    }
+
+    /** Returns true if node key is less than upper bound of range. */
+    boolean isBeforeEnd(
+        @Nullable ConcurrentSkipListNode<K, V> n, @Nullable Comparator<? super K> cmp) {
+      if (n == null) {
+        return false;
+      }
+      if (hi == null) {
+        return true;
+      }
+      K k = n.getKey();
+      if (k == null) { // pass by markers and headers
+        return true;
+      }
+      int c = cpr(cmp, k, hi);
+      return !(c > 0 || (c == 0 && !hiInclusive));
+    }
+
+    /**
+     * Returns lowest node. This node might not be in range, so most usages need to check bounds.
+     */
+    @Nullable ConcurrentSkipListNode<K, V> loNode(@Nullable Comparator<? super K> cmp) {
+      if (lo == null) {
+        return m.findFirst();
+      } else if (loInclusive) {
+        return m.findNear(lo, GT | EQ, cmp);
+      } else {
+        return m.findNear(lo, GT, cmp);
+      }
+    }
+
+    /**
+     * Returns highest node. This node might not be in range, so most usages need to check bounds.
+     */
+    @Nullable ConcurrentSkipListNode<K, V> hiNode(@Nullable Comparator<? super K> cmp) {
+      if (hi == null) {
+        return m.findLast();
+      } else if (hiInclusive) {
+        return m.findNear(hi, LT | EQ, cmp);
+      } else {
+        return m.findNear(hi, LT, cmp);
+      }
+    }
+
+    /** Returns lowest absolute key (ignoring directionality). */
+    K lowestKey() {
+      Comparator<? super K> cmp = m.comparator;
+      ConcurrentSkipListNode<K, V> n = loNode(cmp);
+      if (isBeforeEnd(n, cmp)) {
+        return key(Objects.requireNonNull(n));
+      }
+      throw new NoSuchElementException();
+    }
+
+    /** Returns highest absolute key (ignoring directionality). */
+    K highestKey() {
+      Comparator<? super K> cmp = m.comparator;
+      ConcurrentSkipListNode<K, V> n = hiNode(cmp);
+      if (n != null) {
+        K last = key(n);
+        if (inBounds(last, cmp)) {
+          return last;
+        }
+      }
+      throw new NoSuchElementException();
+    }
+
+    Map.@Nullable Entry<K, V> lowestEntry() {
+      Comparator<? super K> cmp = m.comparator;
+      for (; ; ) {
+        ConcurrentSkipListNode<K, V> n = loNode(cmp);
+        if (!isBeforeEnd(n, cmp)) {
+          return null;
+        }
+        Map.Entry<K, V> e = createSnapshot(Objects.requireNonNull(n));
+        if (e != null) {
+          return e;
+        }
+      }
+    }
+
+    Map.@Nullable Entry<K, V> highestEntry() {
+      Comparator<? super K> cmp = m.comparator;
+      for (; ; ) {
+        ConcurrentSkipListNode<K, V> n = hiNode(cmp);
+        if (n == null || !inBounds(key(n), cmp)) {
+          return null;
+        }
+        Map.Entry<K, V> e = createSnapshot(n);
+        if (e != null) {
+          return e;
+        }
+      }
+    }
+
+    Map.@Nullable Entry<K, V> removeLowest() {
+      Comparator<? super K> cmp = m.comparator;
+      for (; ; ) {
+        ConcurrentSkipListNode<K, V> n = loNode(cmp);
+        if (n == null) {
+          return null;
+        }
+        K k = key(n);
+        if (!inBounds(k, cmp)) {
+          return null;
+        }
+        V v = m.doRemove(k, null);
+        if (v != null) {
+          return new AbstractMap.SimpleImmutableEntry<K, V>(k, v);
+        }
+      }
+    }
+
+    Map.@Nullable Entry<K, V> removeHighest() {
+      Comparator<? super K> cmp = m.comparator;
+      for (; ; ) {
+        ConcurrentSkipListNode<K, V> n = hiNode(cmp);
+        if (n == null) {
+          return null;
+        }
+        K k = key(n);
+        if (!inBounds(k, cmp)) {
+          return null;
+        }
+        V v = m.doRemove(k, null);
+        if (v != null) {
+          return new AbstractMap.SimpleImmutableEntry<K, V>(k, v);
+        }
+      }
+    }
+
+    /** Submap version of ConcurrentSkipListMap.getNearEntry. */
+    Map.@Nullable Entry<K, V> getNearEntry(K key, int rel) {
+      Comparator<? super K> cmp = m.comparator;
+      if (isDescending) { // adjust relation for direction
+        if ((rel & LT) == 0) {
+          rel |= LT;
+        } else {
+          rel &= ~LT;
+        }
+      }
+      if (tooLow(key, cmp)) {
+        return ((rel & LT) != 0) ? null : lowestEntry();
+      }
+      if (tooHigh(key, cmp)) {
+        return ((rel & LT) != 0) ? highestEntry() : null;
+      }
+      for (; ; ) {
+        ConcurrentSkipListNode<K, V> n = m.findNear(key, rel, cmp);
+        if (n == null || !inBounds(key(n), cmp)) {
+          return null;
+        }
+        Map.Entry<K, V> e = createSnapshot(n);
+        if (e != null) {
+          return e;
+        }
+      }
+    }
+
+    // Almost the same as getNearEntry, except for keys
+    @Nullable K getNearKey(K key, int rel) {
+      Comparator<? super K> cmp = m.comparator;
+      if (isDescending) { // adjust relation for direction
+        if ((rel & LT) == 0) {
+          rel |= LT;
+        } else {
+          rel &= ~LT;
+        }
+      }
+      if (tooLow(key, cmp)) {
+        if ((rel & LT) == 0) {
+          ConcurrentSkipListNode<K, V> n = loNode(cmp);
+          if (isBeforeEnd(n, cmp)) {
+            return key(Objects.requireNonNull(n));
+          }
+        }
+        return null;
+      }
+      if (tooHigh(key, cmp)) {
+        if ((rel & LT) != 0) {
+          ConcurrentSkipListNode<K, V> n = hiNode(cmp);
+          if (n != null) {
+            K last = key(n);
+            if (inBounds(last, cmp)) {
+              return last;
+            }
+          }
+        }
+        return null;
+      }
+      for (; ; ) {
+        ConcurrentSkipListNode<K, V> n = m.findNear(key, rel, cmp);
+        if (n == null || !inBounds(key(n), cmp)) {
+          return null;
+        }
+        if (getValidValue(n) != null) {
+          return key(n);
+        }
+      }
+    }
+
+    /* ----------------  Map API methods -------------- */
+
+    @Override
+    public boolean containsKey(@Nullable Object key) {
+      if (key == null) {
+        throw new NullPointerException();
+      }
+      return inBounds(key, m.comparator) && m.containsKey(key);
+    }
+
+    @Override
+    public @Nullable V get(@Nullable Object key) {
+      if (key == null) {
+        throw new NullPointerException();
+      }
+      return (!inBounds(key, m.comparator)) ? null : m.get(key);
+    }
+
+    @Override
+    public @Nullable V put(K key, V value) {
+      checkKeyBounds(key, m.comparator);
+      return m.put(key, value);
+    }
+
+    @Override
+    public @Nullable V remove(@Nullable Object key) {
+      if (key == null) {
+        throw new NullPointerException();
+      }
+      return (!inBounds(key, m.comparator)) ? null : m.remove(key);
+    }
+
+    @Override
+    public int size() {
+      Comparator<? super K> cmp = m.comparator;
+      long count = 0;
+      for (ConcurrentSkipListNode<K, V> n = loNode(cmp); isBeforeEnd(n, cmp); n = n.getNext()) {
+        if (getValidValue(n) != null) {
+          ++count;
+        }
+      }
+      return count >= Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) count;
+    }
+
+    @Override
+    public boolean isEmpty() {
+      Comparator<? super K> cmp = m.comparator;
+      return !isBeforeEnd(loNode(cmp), cmp);
+    }
+
+    @Override
+    public boolean containsValue(@Nullable Object value) {
+      if (value == null) {
+        throw new NullPointerException();
+      }
+      Comparator<? super K> cmp = m.comparator;
+      for (ConcurrentSkipListNode<K, V> n = loNode(cmp); isBeforeEnd(n, cmp); n = n.getNext()) {
+        V v = getValidValue(n);
+        if (v != null && value.equals(v)) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    @Override
+    public void clear() {
+      Comparator<? super K> cmp = m.comparator;
+      for (ConcurrentSkipListNode<K, V> n = loNode(cmp); isBeforeEnd(n, cmp); n = n.getNext()) {
+        if (getValidValue(n) != null) {
+          m.remove(key(n));
+        }
+      }
+    }
+
+    /* ----------------  ConcurrentMap API methods -------------- */
+
+    @Override
+    public @Nullable V putIfAbsent(K key, V value) {
+      checkKeyBounds(key, m.comparator);
+      return m.putIfAbsent(key, value);
+    }
+
+    @Override
+    public boolean remove(@Nullable Object key, @Nullable Object value) {
+      if (key == null) {
+        throw new NullPointerException();
+      }
+      return inBounds(key, m.comparator) && m.remove(key, value);
+    }
+
+    @Override
+    public boolean replace(K key, V oldValue, V newValue) {
+      checkKeyBounds(key, m.comparator);
+      return m.replace(key, oldValue, newValue);
+    }
+
+    @Override
+    public @Nullable V replace(K key, V value) {
+      checkKeyBounds(key, m.comparator);
+      return m.replace(key, value);
+    }
+
+    /* ----------------  SortedMap API methods -------------- */
+
+    @Override
+    public @Nullable Comparator<? super K> comparator() {
+      Comparator<? super K> cmp = m.comparator();
+      if (isDescending) {
+        return Collections.reverseOrder(cmp);
+      } else {
+        return cmp;
+      }
+    }
+
+    /**
+     * Utility to create submaps, where given bounds override unbounded(null) ones and/or are
+     * checked against bounded ones.
+     */
+    SubMap<K, V> newSubMap(
+        @Nullable K fromKey, boolean fromInclusive, @Nullable K toKey, boolean toInclusive) {
+      Comparator<? super K> cmp = m.comparator;
+      if (isDescending) { // flip senses
+        K tk = fromKey;
+        fromKey = toKey;
+        toKey = tk;
+        boolean ti = fromInclusive;
+        fromInclusive = toInclusive;
+        toInclusive = ti;
+      }
+      if (lo != null) {
+        if (fromKey == null) {
+          fromKey = lo;
+          fromInclusive = loInclusive;
+        } else {
+          int c = cpr(cmp, fromKey, lo);
+          if (c < 0 || (c == 0 && !loInclusive && fromInclusive)) {
+            throw new IllegalArgumentException("key out of range");
+          }
+        }
+      }
+      if (hi != null) {
+        if (toKey == null) {
+          toKey = hi;
+          toInclusive = hiInclusive;
+        } else {
+          int c = cpr(cmp, toKey, hi);
+          if (c > 0 || (c == 0 && !hiInclusive && toInclusive)) {
+            throw new IllegalArgumentException("key out of range");
+          }
+        }
+      }
+      return new SubMap<K, V>(m, fromKey, fromInclusive, toKey, toInclusive, isDescending);
+    }
+
+    @Override
+    public SubMap<K, V> subMap(K fromKey, boolean fromInclusive, K toKey, boolean toInclusive) {
+      if (fromKey == null || toKey == null) {
+        throw new NullPointerException();
+      }
+      return newSubMap(fromKey, fromInclusive, toKey, toInclusive);
+    }
+
+    @Override
+    public SubMap<K, V> headMap(K toKey, boolean inclusive) {
+      if (toKey == null) {
+        throw new NullPointerException();
+      }
+      return newSubMap(null, false, toKey, inclusive);
+    }
+
+    @Override
+    public SubMap<K, V> tailMap(K fromKey, boolean inclusive) {
+      if (fromKey == null) {
+        throw new NullPointerException();
+      }
+      return newSubMap(fromKey, inclusive, null, false);
+    }
+
+    @Override
+    public SubMap<K, V> subMap(K fromKey, K toKey) {
+      return subMap(fromKey, true, toKey, false);
+    }
+
+    @Override
+    public SubMap<K, V> headMap(K toKey) {
+      return headMap(toKey, false);
+    }
+
+    @Override
+    public SubMap<K, V> tailMap(K fromKey) {
+      return tailMap(fromKey, true);
+    }
+
+    @Override
+    public SubMap<K, V> descendingMap() {
+      return new SubMap<K, V>(m, lo, loInclusive, hi, hiInclusive, !isDescending);
+    }
+
+    /* ----------------  Relational methods -------------- */
+
+    @Override
+    public Map.@Nullable Entry<K, V> ceilingEntry(K key) {
+      return getNearEntry(key, GT | EQ);
+    }
+
+    @Override
+    public @Nullable K ceilingKey(K key) {
+      return getNearKey(key, GT | EQ);
+    }
+
+    @Override
+    public Map.@Nullable Entry<K, V> lowerEntry(K key) {
+      return getNearEntry(key, LT);
+    }
+
+    @Override
+    public @Nullable K lowerKey(K key) {
+      return getNearKey(key, LT);
+    }
+
+    @Override
+    public Map.@Nullable Entry<K, V> floorEntry(K key) {
+      return getNearEntry(key, LT | EQ);
+    }
+
+    @Override
+    public @Nullable K floorKey(K key) {
+      return getNearKey(key, LT | EQ);
+    }
+
+    @Override
+    public Map.@Nullable Entry<K, V> higherEntry(K key) {
+      return getNearEntry(key, GT);
+    }
+
+    @Override
+    public @Nullable K higherKey(K key) {
+      return getNearKey(key, GT);
+    }
+
+    @Override
+    public K firstKey() {
+      return isDescending ? highestKey() : lowestKey();
+    }
+
+    @Override
+    public K lastKey() {
+      return isDescending ? lowestKey() : highestKey();
+    }
+
+    @Override
+    public Map.@Nullable Entry<K, V> firstEntry() {
+      return isDescending ? highestEntry() : lowestEntry();
+    }
+
+    @Override
+    public Map.@Nullable Entry<K, V> lastEntry() {
+      return isDescending ? lowestEntry() : highestEntry();
+    }
+
+    @Override
+    public Map.@Nullable Entry<K, V> pollFirstEntry() {
+      return isDescending ? removeHighest() : removeLowest();
+    }
+
+    @Override
+    public Map.@Nullable Entry<K, V> pollLastEntry() {
+      return isDescending ? removeLowest() : removeHighest();
+    }
+
+    /* ---------------- Submap Views -------------- */
+
+    @Override
+    public Set<K> keySet() {
+      return navigableKeySet();
+    }
+
+    @Override
+    public NavigableSet<K> navigableKeySet() {
+      KeySet<K> ks = keySetView;
+      if (ks == null) {
+        ks = new KeySet<K>(this);
+        keySetView = ks;
+      }
+      return ks;
+    }
+
+    @Override
+    public Collection<V> values() {
+      Collection<V> vs = valuesView;
+      if (vs == null) {
+        vs = new Values<V>(this);
+        valuesView = vs;
+      }
+      return vs;
+    }
+
+    @Override
+    public Set<Map.Entry<K, V>> entrySet() {
+      Set<Map.Entry<K, V>> es = entrySetView;
+      if (es == null) {
+        es = new EntrySet<K, V>(this);
+        entrySetView = es;
+      }
+      return es;
+    }
+
+    @Override
+    public NavigableSet<K> descendingKeySet() {
+      return descendingMap().navigableKeySet();
+    }
+
+    Iterator<K> keyIterator() {
+      return new SubMapKeyIterator();
+    }
+
+    Iterator<V> valueIterator() {
+      return new SubMapValueIterator();
+    }
+
+    Iterator<Map.Entry<K, V>> entryIterator() {
+      return new SubMapEntryIterator();
+    }
+
+    /** Variant of main Iter class to traverse through submaps. */
+    abstract class SubMapIter<T> implements Iterator<T> {
+      /** the last node returned by next() */
+      @Nullable ConcurrentSkipListNode<K, V> lastReturned;
+
+      /** the next node to return from next(); */
+      @Nullable ConcurrentSkipListNode<K, V> next;
+
+      /** Cache of next value field to maintain weak consistency */
+      @Nullable V nextValue;
+
+      SubMapIter() {
+        Comparator<? super K> cmp = m.comparator;
+        for (; ; ) {
+          next = isDescending ? hiNode(cmp) : loNode(cmp);
+          if (next == null) {
+            break;
+          }
+          V x = getValidValue(next);
+          if (x != null) {
+            if (!inBounds(key(next), cmp)) {
+              next = null;
+            } else {
+              nextValue = x;
+            }
+            break;
+          }
+        }
+      }
+
+      @Override
+      public final boolean hasNext() {
+        return next != null;
+      }
+
+      final void advance() {
+        ConcurrentSkipListNode<K, V> n = next;
+        if (n == null) {
+          throw new NoSuchElementException();
+        }
+        lastReturned = n;
+        if (isDescending) {
+          descend(n);
+        } else {
+          ascend(n);
+        }
+      }
+
+      private void ascend(ConcurrentSkipListNode<K, V> n) {
+        Comparator<? super K> cmp = m.comparator;
+        for (; ; ) {
+          next = n.getNext();
+          if (next == null) {
+            break;
+          }
+          n = next;
+          V x = getValidValue(n);
+          if (x != null) {
+            if (tooHigh(key(n), cmp)) {
+              next = null;
+            } else {
+              nextValue = x;
+            }
+            break;
+          }
+        }
+      }
+
+      private void descend(ConcurrentSkipListNode<K, V> n) {
+        Comparator<? super K> cmp = m.comparator;
+        for (; ; ) {
+          next = m.findNear(key(n), LT, cmp);
+          if (next == null) {
+            break;
+          }
+          n = next;
+          V x = getValidValue(n);
+          if (x != null) {
+            if (tooLow(key(n), cmp)) {
+              next = null;
+            } else {
+              nextValue = x;
+            }
+            break;
+          }
+        }
+      }
+
+      @Override
+      public void remove() {
+        ConcurrentSkipListNode<K, V> l = lastReturned;
+        if (l == null) {
+          throw new IllegalStateException();
+        }
+        m.remove(key(l));
+        lastReturned = null;
+      }
+    }
+
+    final class SubMapValueIterator extends SubMapIter<V> {
+      @Override
+      public V next() {
+        V v = Objects.requireNonNull(nextValue);
+        advance();
+        return v;
+      }
+    }
+
+    final class SubMapKeyIterator extends SubMapIter<K> {
+      @Override
+      public K next() {
+        ConcurrentSkipListNode<K, V> n = next;
+        advance();
+        return key(Objects.requireNonNull(n));
+      }
+    }
+
+    final class SubMapEntryIterator extends SubMapIter<Map.Entry<K, V>> {
+      @Override
+      public Map.Entry<K, V> next() {
+        ConcurrentSkipListNode<K, V> n = next;
+        V v = nextValue;
+        advance();
+        return new AbstractMap.SimpleImmutableEntry<K, V>(
+            key(Objects.requireNonNull(n)), Objects.requireNonNull(v));
+      }
+    }
+  }
+}
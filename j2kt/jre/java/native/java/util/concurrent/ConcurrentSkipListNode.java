@@ -0,0 +1,44 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package java.util.concurrent;
+
+import javaemul.internal.annotations.KtNative;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+/** Stub for the base-level node of {@link ConcurrentSkipListMap}; see ConcurrentSkipListNode.kt. */
+@NullMarked
+@KtNative
+final class ConcurrentSkipListNode<K, V> {
+
+  ConcurrentSkipListNode(
+      @Nullable K key, @Nullable Object value, @Nullable ConcurrentSkipListNode<K, V> next) {}
+
+  native @Nullable K getKey();
+
+  native @Nullable Object getValue();
+
+  native boolean casValue(@Nullable Object expect, @Nullable Object update);
+
+  native void lazySetValue(@Nullable Object update);
+
+  native @Nullable ConcurrentSkipListNode<K, V> getNext();
+
+  native boolean casNext(
+      @Nullable ConcurrentSkipListNode<K, V> expect, @Nullable ConcurrentSkipListNode<K, V> update);
+}
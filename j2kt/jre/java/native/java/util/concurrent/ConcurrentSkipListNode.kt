@@ -0,0 +1,50 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package java.util.concurrent
+
+import kotlinx.atomicfu.atomic
+
+/**
+ * A node of the base level of [ConcurrentSkipListMap]. The value and link are atomics declared
+ * directly on the node, rather than [java.util.concurrent.atomic.AtomicReference] wrappers, so that
+ * linking a node does not allocate additional objects.
+ *
+ * The value is the mapped value, null once the mapping has been deleted, the node itself for the
+ * marker nodes that are appended to deleted nodes, and a sentinel for the base header.
+ */
+internal class ConcurrentSkipListNode<K : Any, V : Any>(
+  private val key: K?,
+  value: Any?,
+  next: ConcurrentSkipListNode<K, V>?,
+) {
+  private val value = atomic(value)
+  private val next = atomic(next)
+
+  fun getKey(): K? = key
+
+  fun getValue(): Any? = value.value
+
+  fun casValue(expect: Any?, update: Any?): Boolean = value.compareAndSet(expect, update)
+
+  fun lazySetValue(update: Any?) = value.lazySet(update)
+
+  fun getNext(): ConcurrentSkipListNode<K, V>? = next.value
+
+  fun casNext(
+    expect: ConcurrentSkipListNode<K, V>?,
+    update: ConcurrentSkipListNode<K, V>?,
+  ): Boolean = next.compareAndSet(expect, update)
+}
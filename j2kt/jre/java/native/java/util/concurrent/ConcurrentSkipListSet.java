@@ -0,0 +1,396 @@
+/*
+ * Written by Doug Lea with assistance from members of JCP JSR-166
+ * Expert Group and released to the public domain, as explained at
+ * http://creativecommons.org/publicdomain/zero/1.0/
+ */
+
+package java.util.concurrent;
+
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.SortedSet;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+// J2kt-native: (de)serialization code, clone() and spliterator removed.
+
+/**
+ * A scalable concurrent {@link NavigableSet} implementation based on a {@link
+ * ConcurrentSkipListMap}. The elements of the set are kept sorted according to their {@linkplain
+ * Comparable natural ordering}, or by a {@link Comparator} provided at set creation time, depending
+ * on which constructor is used.
+ *
+ * <p>This implementation provides expected average <i>log(n)</i> time cost for the {@code
+ * contains}, {@code add}, and {@code remove} operations and their variants. Insertion, removal, and
+ * access operations safely execute concurrently by multiple threads.
+ *
+ * <p>Iterators are <i>weakly consistent</i>, returning elements reflecting the state of the set at
+ * some point at or since the creation of the iterator. They do <em>not</em> throw {@link
+ * java.util.ConcurrentModificationException}, and may proceed concurrently with other operations.
+ * Ascending ordered views and their iterators are faster than descending ones.
+ *
+ * <p>Beware that, unlike in most collections, the {@code size} method is <em>not</em> a
+ * constant-time operation. Additionally, the bulk operations {@code addAll}, {@code removeAll},
+ * {@code retainAll}, {@code containsAll}, {@code equals}, and {@code toArray} are <em>not</em>
+ * guaranteed to be performed atomically.
+ *
+ * <p>Like most other concurrent collection implementations, this class does not permit the use of
+ * {@code null} elements.
+ *
+ * @author Doug Lea
+ * @param <E> the type of elements maintained by this set
+ * @since 1.6
+ */
+@NullMarked
+public class ConcurrentSkipListSet<E> extends AbstractSet<E> implements NavigableSet<E> {
+
+  /**
+   * The underlying map. Uses Boolean.TRUE as value for each element. This field is declared final
+   * for the sake of thread-safety.
+   */
+  private final ConcurrentNavigableMap<E, Object> m;
+
+  /** Constructs a new, empty set that orders its elements according to their natural ordering. */
+  public ConcurrentSkipListSet() {
+    m = new ConcurrentSkipListMap<E, Object>();
+  }
+
+  /**
+   * Constructs a new, empty set that orders its elements according to the specified comparator.
+   *
+   * @param comparator the comparator that will be used to order this set. If {@code null}, the
+   *     natural ordering of the elements will be used.
+   */
+  public ConcurrentSkipListSet(@Nullable Comparator<? super E> comparator) {
+    m = new ConcurrentSkipListMap<E, Object>(comparator);
+  }
+
+  /**
+   * Constructs a new set containing the elements in the specified collection, that orders its
+   * elements according to their natural ordering.
+   *
+   * @param c The elements that will comprise the new set
+   * @throws ClassCastException if the elements in {@code c} are not {@link Comparable}, or are not
+   *     mutually comparable
+   * @throws NullPointerException if the specified collection or any of its elements are null
+   */
+  public ConcurrentSkipListSet(Collection<? extends E> c) {
+    m = new ConcurrentSkipListMap<E, Object>();
+    addAll(c);
+  }
+
+  /**
+   * Constructs a new set containing the same elements and using the same ordering as the specified
+   * sorted set.
+   *
+   * @param s sorted set whose elements will comprise the new set
+   * @throws NullPointerException if the specified sorted set or any of its elements are null
+   */
+  public ConcurrentSkipListSet(SortedSet<E> s) {
+    m = new ConcurrentSkipListMap<E, Object>(s.comparator());
+    addAll(s);
+  }
+
+  /** For use by submaps. */
+  ConcurrentSkipListSet(ConcurrentNavigableMap<E, Object> m) {
+    this.m = m;
+  }
+
+  /* ---------------- Set operations -------------- */
+
+  /**
+   * Returns the number of elements in this set. If this set contains more than {@code
+   * Integer.MAX_VALUE} elements, it returns {@code Integer.MAX_VALUE}.
+   *
+   * <p>Beware that, unlike in most collections, this method is <em>NOT</em> a constant-time
+   * operation. Because of the asynchronous nature of these sets, determining the current number of
+   * elements requires traversing them all to count them.
+   *
+   * @return the number of elements in this set
+   */
+  @Override
+  public int size() {
+    return m.size();
+  }
+
+  /**
+   * Returns {@code true} if this set contains no elements.
+   *
+   * @return {@code true} if this set contains no elements
+   */
+  @Override
+  public boolean isEmpty() {
+    return m.isEmpty();
+  }
+
+  /**
+   * Returns {@code true} if this set contains the specified element.
+   *
+   * @param o object to be checked for containment in this set
+   * @return {@code true} if this set contains the specified element
+   * @throws ClassCastException if the specified element cannot be compared with the elements
+   *     currently in this set
+   * @throws NullPointerException if the specified element is null
+   */
+  @Override
+  public boolean contains(@Nullable Object o) {
+    return m.containsKey(o);
+  }
+
+  /**
+   * Adds the specified element to this set if it is not already present.
+   *
+   * @param e element to be added to this set
+   * @return {@code true} if this set did not already contain the specified element
+   * @throws ClassCastException if {@code e} cannot be compared with the elements currently in this
+   *     set
+   * @throws NullPointerException if the specified element is null
+   */
+  @Override
+  public boolean add(E e) {
+    return m.putIfAbsent(e, Boolean.TRUE) == null;
+  }
+
+  /**
+   * Removes the specified element from this set if it is present.
+   *
+   * @param o object to be removed from this set, if present
+   * @return {@code true} if this set contained the specified element
+   * @throws ClassCastException if {@code o} cannot be compared with the elements currently in this
+   *     set
+   * @throws NullPointerException if the specified element is null
+   */
+  @Override
+  public boolean remove(@Nullable Object o) {
+    return m.remove(o, Boolean.TRUE);
+  }
+
+  /** Removes all of the elements from this set. */
+  @Override
+  public void clear() {
+    m.clear();
+  }
+
+  /**
+   * Returns an iterator over the elements in this set in ascending order.
+   *
+   * @return an iterator over the elements in this set in ascending order
+   */
+  @Override
+  public Iterator<E> iterator() {
+    return m.navigableKeySet().iterator();
+  }
+
+  /**
+   * Returns an iterator over the elements in this set in descending order.
+   *
+   * @return an iterator over the elements in this set in descending order
+   */
+  @Override
+  public Iterator<E> descendingIterator() {
+    return m.descendingKeySet().iterator();
+  }
+
+  /* ---------------- AbstractSet Overrides -------------- */
+
+  /**
+   * Compares the specified object with this set for equality. Returns {@code true} if the specified
+   * object is also a set, the two sets have the same size, and every member of the specified set is
+   * contained in this set (or equivalently, every member of this set is contained in the specified
+   * set).
+   *
+   * @param o the object to be compared for equality with this set
+   * @return {@code true} if the specified object is equal to this set
+   */
+  @Override
+  public boolean equals(@Nullable Object o) {
+    // Override AbstractSet version to avoid calling size()
+    if (o == this) {
+      return true;
+    }
+    if (!(o instanceof Set)) {
+      return false;
+    }
+    Collection<?> c = (Collection<?>) o;
+    try {
+      return containsAll(c) && c.containsAll(this);
+    } catch (ClassCastException | NullPointerException unused) {
+      return false;
+    }
+  }
+
+  @Override
+  public int hashCode() {
+    return super.hashCode();
+  }
+
+  /**
+   * Removes from this set all of its elements that are contained in the specified collection. If
+   * the specified collection is also a set, this operation effectively modifies this set so that
+   * its value is the <i>asymmetric set difference</i> of the two sets.
+   *
+   * @param c collection containing elements to be removed from this set
+   * @return {@code true} if this set changed as a result of the call
+   * @throws ClassCastException if the class of an element of this set is incompatible with the
+   *     specified collection
+   * @throws NullPointerException if the specified collection or any of its elements are null
+   */
+  @Override
+  public boolean removeAll(Collection<?> c) {
+    // Override AbstractSet version to avoid unnecessary call to size()
+    boolean modified = false;
+    for (Object e : c) {
+      if (remove(e)) {
+        modified = true;
+      }
+    }
+    return modified;
+  }
+
+  /* ---------------- Relational operations -------------- */
+
+  /**
+   * @throws ClassCastException {@inheritDoc}
+   * @throws NullPointerException if the specified element is null
+   */
+  @Override
+  public @Nullable E lower(E e) {
+    return m.lowerKey(e);
+  }
+
+  /**
+   * @throws ClassCastException {@inheritDoc}
+   * @throws NullPointerException if the specified element is null
+   */
+  @Override
+  public @Nullable E floor(E e) {
+    return m.floorKey(e);
+  }
+
+  /**
+   * @throws ClassCastException {@inheritDoc}
+   * @throws NullPointerException if the specified element is null
+   */
+  @Override
+  public @Nullable E ceiling(E e) {
+    return m.ceilingKey(e);
+  }
+
+  /**
+   * @throws ClassCastException {@inheritDoc}
+   * @throws NullPointerException if the specified element is null
+   */
+  @Override
+  public @Nullable E higher(E e) {
+    return m.higherKey(e);
+  }
+
+  @Override
+  public @Nullable E pollFirst() {
+    Map.Entry<E, Object> e = m.pollFirstEntry();
+    return (e == null) ? null : e.getKey();
+  }
+
+  @Override
+  public @Nullable E pollLast() {
+    Map.Entry<E, Object> e = m.pollLastEntry();
+    return (e == null) ? null : e.getKey();
+  }
+
+  /* ---------------- SortedSet operations -------------- */
+
+  @Override
+  public @Nullable Comparator<? super E> comparator() {
+    return m.comparator();
+  }
+
+  /** @throws java.util.NoSuchElementException {@inheritDoc} */
+  @Override
+  public E first() {
+    return m.firstKey();
+  }
+
+  /** @throws java.util.NoSuchElementException {@inheritDoc} */
+  @Override
+  public E last() {
+    return m.lastKey();
+  }
+
+  /**
+   * @throws ClassCastException {@inheritDoc}
+   * @throws NullPointerException if {@code fromElement} or {@code toElement} is null
+   * @throws IllegalArgumentException {@inheritDoc}
+   */
+  @Override
+  public NavigableSet<E> subSet(
+      E fromElement, boolean fromInclusive, E toElement, boolean toInclusive) {
+    return new ConcurrentSkipListSet<E>(
+        m.subMap(fromElement, fromInclusive, toElement, toInclusive));
+  }
+
+  /**
+   * @throws ClassCastException {@inheritDoc}
+   * @throws NullPointerException if {@code toElement} is null
+   * @throws IllegalArgumentException {@inheritDoc}
+   */
+  @Override
+  public NavigableSet<E> headSet(E toElement, boolean inclusive) {
+    return new ConcurrentSkipListSet<E>(m.headMap(toElement, inclusive));
+  }
+
+  /**
+   * @throws ClassCastException {@inheritDoc}
+   * @throws NullPointerException if {@code fromElement} is null
+   * @throws IllegalArgumentException {@inheritDoc}
+   */
+  @Override
+  public NavigableSet<E> tailSet(E fromElement, boolean inclusive) {
+    return new ConcurrentSkipListSet<E>(m.tailMap(fromElement, inclusive));
+  }
+
+  /**
+   * @throws ClassCastException {@inheritDoc}
+   * @throws NullPointerException if {@code fromElement} or {@code toElement} is null
+   * @throws IllegalArgumentException {@inheritDoc}
+   */
+  @Override
+  public NavigableSet<E> subSet(E fromElement, E toElement) {
+    return subSet(fromElement, true, toElement, false);
+  }
+
+  /**
+   * @throws ClassCastException {@inheritDoc}
+   * @throws NullPointerException if {@code toElement} is null
+   * @throws IllegalArgumentException {@inheritDoc}
+   */
+  @Override
+  public NavigableSet<E> headSet(E toElement) {
+    return headSet(toElement, false);
+  }
+
+  /**
+   * @throws ClassCastException {@inheritDoc}
+   * @throws NullPointerException if {@code fromElement} is null
+   * @throws IllegalArgumentException {@inheritDoc}
+   */
+  @Override
+  public NavigableSet<E> tailSet(E fromElement) {
+    return tailSet(fromElement, true);
+  }
+
+  /**
+   * Returns a reverse order view of the elements contained in this set. The descending set is
+   * backed by this set, so changes to the set are reflected in the descending set, and vice-versa.
+   *
+   * @return a reverse order view of this set
+   */
+  @Override
+  public NavigableSet<E> descendingSet() {
+    return new ConcurrentSkipListSet<E>(m.descendingMap());
+  }
+}
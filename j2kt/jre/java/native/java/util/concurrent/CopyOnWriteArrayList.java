@@ -0,0 +1,1192 @@
+/*
+ * Written by Doug Lea with assistance from members of JCP JSR-166
+ * Expert Group.  Adapted and released, under explicit permission,
+ * from JDK ArrayList.java which carries the following copyright:
+ *
+ * Copyright 1997 by Sun Microsystems, Inc.,
+ * 901 San Antonio Road, Palo Alto, California, 94303, U.S.A.
+ * All rights reserved.
+ */
+
+package java.util.concurrent;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+import javaemul.lang.J2ktMonitor;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+// J2kt-native: (de)serialization code, clone() and spliterator removed. Mutators synchronize on a
+// J2ktMonitor instead of a ReentrantLock. Bulk removals build the surviving elements in a single
+// pass instead of using a bitmap.
+
+/**
+ * A thread-safe variant of {@link java.util.ArrayList} in which all mutative operations ({@code
+ * add}, {@code set}, and so on) are implemented by making a fresh copy of the underlying array.
+ *
+ * <p>This is ordinarily too costly, but may be <em>more</em> efficient than alternatives when
+ * traversal operations vastly outnumber mutations, and is useful when you cannot or don't want to
+ * synchronize traversals, yet need to preclude interference among concurrent threads. The
+ * "snapshot" style iterator method uses a reference to the state of the array at the point that
+ * the iterator was created. This array never changes during the lifetime of the iterator, so
+ * interference is impossible and the iterator is guaranteed not to throw {@code
+ * ConcurrentModificationException}. The iterator will not reflect additions, removals, or changes
+ * to the list since the iterator was created. Element-changing operations on iterators themselves
+ * ({@code remove}, {@code set}, and {@code add}) are not supported. These methods throw {@code
+ * UnsupportedOperationException}.
+ *
+ * <p>All elements are permitted, including {@code null}.
+ *
+ * <p>Memory consistency effects: As with other concurrent collections, actions in a thread prior
+ * to placing an object into a {@code CopyOnWriteArrayList} <i>happen-before</i> actions
+ * subsequent to the access or removal of that element from the {@code CopyOnWriteArrayList} in
+ * another thread.
+ *
+ * @since 1.5
+ * @author Doug Lea
+ * @param <E> the type of elements held in this list
+ */
+@NullMarked
+public class CopyOnWriteArrayList<E extends @Nullable Object> implements List<E>, RandomAccess {
+
+  /** The lock protecting all mutators. */
+  final transient J2ktMonitor lock = new J2ktMonitor();
+
+  /** The array, accessed only via getArray/setArray. */
+  private transient volatile @Nullable Object[] array;
+
+  /** Gets the array. Non-private so as to also be accessible from CopyOnWriteArraySet class. */
+  final @Nullable Object[] getArray() {
+    return array;
+  }
+
+  /** Sets the array. */
+  final void setArray(@Nullable Object[] a) {
+    array = a;
+  }
+
+  /** Creates an empty list. */
+  public CopyOnWriteArrayList() {
+    setArray(new Object[0]);
+  }
+
+  /**
+   * Creates a list containing the elements of the specified collection, in the order they are
+   * returned by the collection's iterator.
+   *
+   * @param c the collection of initially held elements
+   * @throws NullPointerException if the specified collection is null
+   */
+  public CopyOnWriteArrayList(Collection<? extends E> c) {
+    @Nullable Object[] es;
+    if (c instanceof CopyOnWriteArrayList) {
+      es = ((CopyOnWriteArrayList<?>) c).getArray();
+    } else {
+      // Copy defensively in case the collection keeps a reference to the array it returned.
+      es = c.toArray();
+      es = Arrays.copyOf(es, es.length);
+    }
+    setArray(es);
+  }
+
+  /**
+   * Creates a list holding a copy of the given array.
+   *
+   * @param toCopyIn the array (a copy of this array is used as the internal array)
+   * @throws NullPointerException if the specified array is null
+   */
+  public CopyOnWriteArrayList(E[] toCopyIn) {
+    setArray(Arrays.copyOf(toCopyIn, toCopyIn.length));
+  }
+
+  /**
+   * Returns the number of elements in this list.
+   *
+   * @return the number of elements in this list
+   */
+  @Override
+  public int size() {
+    return getArray().length;
+  }
+
+  /**
+   * Returns {@code true} if this list contains no elements.
+   *
+   * @return {@code true} if this list contains no elements
+   */
+  @Override
+  public boolean isEmpty() {
+    return size() == 0;
+  }
+
+  /**
+   * static version of indexOf, to allow repeated calls without needing to re-acquire array each
+   * time.
+   *
+   * @param o element to search for
+   * @param es the array
+   * @param from first index to search
+   * @param to one past last index to search
+   * @return index of element, or -1 if absent
+   */
+  private static int indexOf(@Nullable Object o, @Nullable Object[] es, int from, int to) {
+    if (o == null) {
+      for (int i = from; i < to; i++) {
+        if (es[i] == null) {
+          return i;
+        }
+      }
+    } else {
+      for (int i = from; i < to; i++) {
+        if (o.equals(es[i])) {
+          return i;
+        }
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * static version of lastIndexOf.
+   *
+   * @param o element to search for
+   * @param es the array
+   * @param from index to start searching at
+   * @return index of element, or -1 if absent
+   */
+  private static int lastIndexOf(@Nullable Object o, @Nullable Object[] es, int from) {
+    if (o == null) {
+      for (int i = from; i >= 0; i--) {
+        if (es[i] == null) {
+          return i;
+        }
+      }
+    } else {
+      for (int i = from; i >= 0; i--) {
+        if (o.equals(es[i])) {
+          return i;
+        }
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Returns {@code true} if this list contains the specified element.
+   *
+   * @param o element whose presence in this list is to be tested
+   * @return {@code true} if this list contains the specified element
+   */
+  @Override
+  public boolean contains(@Nullable Object o) {
+    return indexOf(o) >= 0;
+  }
+
+  @Override
+  public int indexOf(@Nullable Object o) {
+    @Nullable Object[] es = getArray();
+    return indexOf(o, es, 0, es.length);
+  }
+
+  /**
+   * Returns the index of the first occurrence of the specified element in this list, searching
+   * forwards from {@code index}, or returns -1 if the element is not found.
+   *
+   * @param e element to search for
+   * @param index index to start searching from
+   * @return the index of the first occurrence of the element in this list at position {@code
+   *     index} or later in the list; {@code -1} if the element is not found.
+   * @throws IndexOutOfBoundsException if the specified index is negative
+   */
+  public int indexOf(E e, int index) {
+    @Nullable Object[] es = getArray();
+    return indexOf(e, es, index, es.length);
+  }
+
+  @Override
+  public int lastIndexOf(@Nullable Object o) {
+    @Nullable Object[] es = getArray();
+    return lastIndexOf(o, es, es.length - 1);
+  }
+
+  /**
+   * Returns the index of the last occurrence of the specified element in this list, searching
+   * backwards from {@code index}, or returns -1 if the element is not found.
+   *
+   * @param e element to search for
+   * @param index index to start searching backwards from
+   * @return the index of the last occurrence of the element at position less than or equal to
+   *     {@code index} in this list; -1 if the element is not found.
+   * @throws IndexOutOfBoundsException if the specified index is greater than or equal to the
+   *     current size of this list
+   */
+  public int lastIndexOf(E e, int index) {
+    return lastIndexOf(e, getArray(), index);
+  }
+
+  /**
+   * Returns an array containing all of the elements in this list in proper sequence (from first to
+   * last element).
+   *
+   * <p>The returned array will be "safe" in that no references to it are maintained by this list.
+   * (In other words, this method must allocate a new array). The caller is thus free to modify the
+   * returned array.
+   *
+   * @return an array containing all the elements in this list
+   */
+  @Override
+  public @Nullable Object[] toArray() {
+    @Nullable Object[] es = getArray();
+    return Arrays.copyOf(es, es.length);
+  }
+
+  /**
+   * Returns an array containing all of the elements in this list in proper sequence (from first to
+   * last element); the runtime type of the returned array is that of the specified array. If the
+   * list fits in the specified array, it is returned therein. Otherwise, a new array is allocated
+   * with the runtime type of the specified array and the size of this list.
+   *
+   * <p>If this list fits in the specified array with room to spare (i.e., the array has more
+   * elements than this list), the element in the array immediately following the end of the list
+   * is set to {@code null}.
+   *
+   * @param a the array into which the elements of the list are to be stored, if it is big enough;
+   *     otherwise, a new array of the same runtime type is allocated for this purpose.
+   * @return an array containing all the elements in this list
+   * @throws ArrayStoreException if the runtime type of the specified array is not a supertype of
+   *     the runtime type of every element in this list
+   * @throws NullPointerException if the specified array is null
+   */
+  @Override
+  @SuppressWarnings("unchecked")
+  public <T extends @Nullable Object> T[] toArray(T[] a) {
+    @Nullable Object[] es = getArray();
+    int len = es.length;
+    if (a.length < len) {
+      return (T[]) Arrays.copyOf(es, len, a.getClass());
+    } else {
+      System.arraycopy(es, 0, a, 0, len);
+      if (a.length > len) {
+        a[len] = null;
+      }
+      return a;
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  static <E extends @Nullable Object> E elementAt(@Nullable Object[] a, int index) {
+    return (E) a[index];
+  }
+
+  static String outOfBounds(int index, int size) {
+    return "Index: " + index + ", Size: " + size;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @throws IndexOutOfBoundsException {@inheritDoc}
+   */
+  @Override
+  public E get(int index) {
+    return elementAt(getArray(), index);
+  }
+
+  /**
+   * Replaces the element at the specified position in this list with the specified element.
+   *
+   * @throws IndexOutOfBoundsException {@inheritDoc}
+   */
+  @Override
+  public E set(int index, E element) {
+    synchronized (lock) {
+      @Nullable Object[] es = getArray();
+      E oldValue = elementAt(es, index);
+
+      if (oldValue != element) {
+        es = Arrays.copyOf(es, es.length);
+        es[index] = element;
+      }
+      // Ensure volatile write semantics even when oldvalue == element
+      setArray(es);
+      return oldValue;
+    }
+  }
+
+  /**
+   * Appends the specified element to the end of this list.
+   *
+   * @param e element to be appended to this list
+   * @return {@code true} (as specified by {@link Collection#add})
+   */
+  @Override
+  public boolean add(E e) {
+    synchronized (lock) {
+      @Nullable Object[] es = getArray();
+      int len = es.length;
+      es = Arrays.copyOf(es, len + 1);
+      es[len] = e;
+      setArray(es);
+      return true;
+    }
+  }
+
+  /**
+   * Inserts the specified element at the specified position in this list. Shifts the element
+   * currently at that position (if any) and any subsequent elements to the right (adds one to
+   * their indices).
+   *
+   * @throws IndexOutOfBoundsException {@inheritDoc}
+   */
+  @Override
+  public void add(int index, E element) {
+    synchronized (lock) {
+      @Nullable Object[] es = getArray();
+      int len = es.length;
+      if (index > len || index < 0) {
+        throw new IndexOutOfBoundsException(outOfBounds(index, len));
+      }
+      @Nullable Object[] newElements;
+      int numMoved = len - index;
+      if (numMoved == 0) {
+        newElements = Arrays.copyOf(es, len + 1);
+      } else {
+        newElements = new Object[len + 1];
+        System.arraycopy(es, 0, newElements, 0, index);
+        System.arraycopy(es, index, newElements, index + 1, numMoved);
+      }
+      newElements[index] = element;
+      setArray(newElements);
+    }
+  }
+
+  /**
+   * Removes the element at the specified position in this list. Shifts any subsequent elements to
+   * the left (subtracts one from their indices). Returns the element that was removed from the
+   * list.
+   *
+   * @throws IndexOutOfBoundsException {@inheritDoc}
+   */
+  @Override
+  public E remove(int index) {
+    synchronized (lock) {
+      @Nullable Object[] es = getArray();
+      int len = es.length;
+      E oldValue = elementAt(es, index);
+      int numMoved = len - index - 1;
+      @Nullable Object[] newElements;
+      if (numMoved == 0) {
+        newElements = Arrays.copyOf(es, len - 1);
+      } else {
+        newElements = new Object[len - 1];
+        System.arraycopy(es, 0, newElements, 0, index);
+        System.arraycopy(es, index + 1, newElements, index, numMoved);
+      }
+      setArray(newElements);
+      return oldValue;
+    }
+  }
+
+  /**
+   * Removes the first occurrence of the specified element from this list, if it is present. If
+   * this list does not contain the element, it is unchanged. More formally, removes the element
+   * with the lowest index {@code i} such that {@code Objects.equals(o, get(i))} (if such an
+   * element exists). Returns {@code true} if this list contained the specified element (or
+   * equivalently, if this list changed as a result of the call).
+   *
+   * @param o element to be removed from this list, if present
+   * @return {@code true} if this list contained the specified element
+   */
+  @Override
+  public boolean remove(@Nullable Object o) {
+    @Nullable Object[] snapshot = getArray();
+    int index = indexOf(o, snapshot, 0, snapshot.length);
+    return index >= 0 && remove(o, snapshot, index);
+  }
+
+  /**
+   * A version of remove(Object) using the strong hint that given recent snapshot contains o at
+   * the given index.
+   */
+  private boolean remove(@Nullable Object o, @Nullable Object[] snapshot, int index) {
+    synchronized (lock) {
+      @Nullable Object[] current = getArray();
+      int len = current.length;
+      if (snapshot != current) {
+        // Look for an equal element that another thread moved into the prefix.
+        int prefix = Math.min(index, len);
+        int i = 0;
+        while (i < prefix && (current[i] == snapshot[i] || !Objects.equals(o, current[i]))) {
+          i++;
+        }
+        if (i < prefix) {
+          index = i;
+        } else if (index >= len) {
+          return false;
+        } else if (current[index] != o) {
+          index = indexOf(o, current, index, len);
+          if (index < 0) {
+            return false;
+          }
+        }
+      }
+      @Nullable Object[] newElements = new Object[len - 1];
+      System.arraycopy(current, 0, newElements, 0, index);
+      System.arraycopy(current, index + 1, newElements, index, len - index - 1);
+      setArray(newElements);
+      return true;
+    }
+  }
+
+  /**
+   * Removes from this list all of the elements whose index is between {@code fromIndex},
+   * inclusive, and {@code toIndex}, exclusive. Shifts any succeeding elements to the left (reduces
+   * their index). This call shortens the list by {@code (toIndex - fromIndex)} elements. (If
+   * {@code toIndex==fromIndex}, this operation has no effect.)
+   *
+   * @param fromIndex index of first element to be removed
+   * @param toIndex index after last element to be removed
+   * @throws IndexOutOfBoundsException if fromIndex or toIndex out of range ({@code fromIndex < 0
+   *     || toIndex > size() || toIndex < fromIndex})
+   */
+  void removeRange(int fromIndex, int toIndex) {
+    synchronized (lock) {
+      @Nullable Object[] es = getArray();
+      int len = es.length;
+
+      if (fromIndex < 0 || toIndex > len || toIndex < fromIndex) {
+        throw new IndexOutOfBoundsException();
+      }
+      int newlen = len - (toIndex - fromIndex);
+      int numMoved = len - toIndex;
+      if (numMoved == 0) {
+        setArray(Arrays.copyOf(es, newlen));
+      } else {
+        @Nullable Object[] newElements = new Object[newlen];
+        System.arraycopy(es, 0, newElements, 0, fromIndex);
+        System.arraycopy(es, toIndex, newElements, fromIndex, numMoved);
+        setArray(newElements);
+      }
+    }
+  }
+
+  /**
+   * Appends the element, if not present.
+   *
+   * @param e element to be added to this list, if absent
+   * @return {@code true} if the element was added
+   */
+  public boolean addIfAbsent(E e) {
+    @Nullable Object[] snapshot = getArray();
+    return indexOf(e, snapshot, 0, snapshot.length) < 0 && addIfAbsent(e, snapshot);
+  }
+
+  /**
+   * A version of addIfAbsent using the strong hint that given recent snapshot does not contain e.
+   */
+  private boolean addIfAbsent(E e, @Nullable Object[] snapshot) {
+    synchronized (lock) {
+      @Nullable Object[] current = getArray();
+      int len = current.length;
+      if (snapshot != current) {
+        // Optimize for lost race to another addXXX operation
+        int common = Math.min(snapshot.length, len);
+        for (int i = 0; i < common; i++) {
+          if (current[i] != snapshot[i] && Objects.equals(e, current[i])) {
+            return false;
+          }
+        }
+        if (indexOf(e, current, common, len) >= 0) {
+          return false;
+        }
+      }
+      @Nullable Object[] newElements = Arrays.copyOf(current, len + 1);
+      newElements[len] = e;
+      setArray(newElements);
+      return true;
+    }
+  }
+
+  /**
+   * Returns {@code true} if this list contains all of the elements of the specified collection.
+   *
+   * @param c collection to be checked for containment in this list
+   * @return {@code true} if this list contains all of the elements of the specified collection
+   * @throws NullPointerException if the specified collection is null
+   * @see #contains(Object)
+   */
+  @Override
+  public boolean containsAll(Collection<?> c) {
+    @Nullable Object[] es = getArray();
+    int len = es.length;
+    for (@Nullable Object e : c) {
+      if (indexOf(e, es, 0, len) < 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Removes from this list all of its elements that are contained in the specified collection.
+   * This is a particularly expensive operation in this class because of the need for an internal
+   * temporary array.
+   *
+   * @param c collection containing elements to be removed from this list
+   * @return {@code true} if this list changed as a result of the call
+   * @throws NullPointerException if the specified collection is null
+   * @see #remove(Object)
+   */
+  @Override
+  public boolean removeAll(Collection<?> c) {
+    return bulkRemove(e -> c.contains(e));
+  }
+
+  /**
+   * Retains only the elements in this list that are contained in the specified collection. In
+   * other words, removes from this list all of its elements that are not contained in the
+   * specified collection.
+   *
+   * @param c collection containing elements to be retained in this list
+   * @return {@code true} if this list changed as a result of the call
+   * @throws NullPointerException if the specified collection is null
+   * @see #remove(Object)
+   */
+  @Override
+  public boolean retainAll(Collection<?> c) {
+    return bulkRemove(e -> !c.contains(e));
+  }
+
+  /**
+   * Appends all of the elements in the specified collection that are not already contained in this
+   * list, to the end of this list, in the order that they are returned by the specified
+   * collection's iterator.
+   *
+   * @param c collection containing elements to be added to this list
+   * @return the number of elements added
+   * @throws NullPointerException if the specified collection is null
+   * @see #addIfAbsent(Object)
+   */
+  public int addAllAbsent(Collection<? extends E> c) {
+    @Nullable Object[] cs = c.toArray();
+    if (cs.length == 0) {
+      return 0;
+    }
+    synchronized (lock) {
+      @Nullable Object[] es = getArray();
+      int len = es.length;
+      int added = 0;
+      // uniquify and compact elements in cs
+      for (int i = 0; i < cs.length; ++i) {
+        @Nullable Object e = cs[i];
+        if (indexOf(e, es, 0, len) < 0 && indexOf(e, cs, 0, added) < 0) {
+          cs[added++] = e;
+        }
+      }
+      if (added > 0) {
+        @Nullable Object[] newElements = Arrays.copyOf(es, len + added);
+        System.arraycopy(cs, 0, newElements, len, added);
+        setArray(newElements);
+      }
+      return added;
+    }
+  }
+
+  /** Removes all of the elements from this list. The list will be empty after this call returns. */
+  @Override
+  public void clear() {
+    synchronized (lock) {
+      setArray(new Object[0]);
+    }
+  }
+
+  /**
+   * Appends all of the elements in the specified collection to the end of this list, in the order
+   * that they are returned by the specified collection's iterator.
+   *
+   * @param c collection containing elements to be added to this list
+   * @return {@code true} if this list changed as a result of the call
+   * @throws NullPointerException if the specified collection is null
+   * @see #add(Object)
+   */
+  @Override
+  public boolean addAll(Collection<? extends E> c) {
+    @Nullable Object[] cs =
+        (c instanceof CopyOnWriteArrayList)
+            ? ((CopyOnWriteArrayList<?>) c).getArray()
+            : c.toArray();
+    if (cs.length == 0) {
+      return false;
+    }
+    synchronized (lock) {
+      @Nullable Object[] es = getArray();
+      int len = es.length;
+      @Nullable Object[] newElements;
+      if (len == 0) {
+        newElements = Arrays.copyOf(cs, cs.length);
+      } else {
+        newElements = Arrays.copyOf(es, len + cs.length);
+        System.arraycopy(cs, 0, newElements, len, cs.length);
+      }
+      setArray(newElements);
+      return true;
+    }
+  }
+
+  /**
+   * Inserts all of the elements in the specified collection into this list, starting at the
+   * specified position. Shifts the element currently at that position (if any) and any subsequent
+   * elements to the right (increases their indices). The new elements will appear in this list in
+   * the order that they are returned by the specified collection's iterator.
+   *
+   * @param index index at which to insert the first element from the specified collection
+   * @param c collection containing elements to be added to this list
+   * @return {@code true} if this list changed as a result of the call
+   * @throws IndexOutOfBoundsException {@inheritDoc}
+   * @throws NullPointerException if the specified collection is null
+   * @see #add(int,Object)
+   */
+  @Override
+  public boolean addAll(int index, Collection<? extends E> c) {
+    @Nullable Object[] cs = c.toArray();
+    synchronized (lock) {
+      @Nullable Object[] es = getArray();
+      int len = es.length;
+      if (index > len || index < 0) {
+        throw new IndexOutOfBoundsException(outOfBounds(index, len));
+      }
+      if (cs.length == 0) {
+        return false;
+      }
+      int numMoved = len - index;
+      @Nullable Object[] newElements;
+      if (numMoved == 0) {
+        newElements = Arrays.copyOf(es, len + cs.length);
+      } else {
+        newElements = new Object[len + cs.length];
+        System.arraycopy(es, 0, newElements, 0, index);
+        System.arraycopy(es, index, newElements, index + cs.length, numMoved);
+      }
+      System.arraycopy(cs, 0, newElements, index, cs.length);
+      setArray(newElements);
+      return true;
+    }
+  }
+
+  /**
+   * @throws NullPointerException {@inheritDoc}
+   */
+  @Override
+  public void forEach(Consumer<? super E> action) {
+    for (@Nullable Object x : getArray()) {
+      @SuppressWarnings("unchecked")
+      E e = (E) x;
+      action.accept(e);
+    }
+  }
+
+  /**
+   * @throws NullPointerException {@inheritDoc}
+   */
+  @Override
+  public boolean removeIf(Predicate<? super E> filter) {
+    return bulkRemove(filter);
+  }
+
+  /**
+   * Removes the elements matching {@code filter}, copying the survivors once under the lock. The
+   * filter is evaluated while holding the lock, so it must not modify this list.
+   */
+  private boolean bulkRemove(Predicate<? super E> filter) {
+    synchronized (lock) {
+      @Nullable Object[] es = getArray();
+      int len = es.length;
+      @Nullable Object[] kept = null;
+      int newlen = 0;
+      for (int i = 0; i < len; i++) {
+        E e = elementAt(es, i);
+        if (filter.test(e)) {
+          if (kept == null) {
+            // Everything before the first match survives.
+            kept = Arrays.copyOf(es, len);
+            newlen = i;
+          }
+        } else if (kept != null) {
+          kept[newlen++] = e;
+        }
+      }
+      if (kept == null) {
+        return false;
+      }
+      setArray(Arrays.copyOf(kept, newlen));
+      return true;
+    }
+  }
+
+  @Override
+  public void replaceAll(UnaryOperator<E> operator) {
+    synchronized (lock) {
+      @Nullable Object[] es = getArray();
+      es = Arrays.copyOf(es, es.length);
+      for (int i = 0; i < es.length; i++) {
+        es[i] = operator.apply(elementAt(es, i));
+      }
+      setArray(es);
+    }
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public void sort(@Nullable Comparator<? super E> c) {
+    synchronized (lock) {
+      @Nullable Object[] es = getArray();
+      E[] newElements = (E[]) Arrays.copyOf(es, es.length);
+      Arrays.sort(newElements, c);
+      setArray(newElements);
+    }
+  }
+
+  /**
+   * Returns a string representation of this list. The string representation consists of the
+   * string representations of the list's elements in the order they are returned by its iterator,
+   * enclosed in square brackets ({@code "[]"}). Adjacent elements are separated by the characters
+   * {@code ", "} (comma and space). Elements are converted to strings as by {@link
+   * String#valueOf(Object)}.
+   *
+   * @return a string representation of this list
+   */
+  @Override
+  public String toString() {
+    return Arrays.toString(getArray());
+  }
+
+  /**
+   * Compares the specified object with this list for equality. Returns {@code true} if the
+   * specified object is the same object as this object, or if it is also a {@link List} and the
+   * sequence of elements returned by an {@linkplain List#iterator() iterator} over the specified
+   * list is the same as the sequence returned by an iterator over this list. The two sequences are
+   * considered to be the same if they have the same length and corresponding elements at the same
+   * position in the sequence are <em>equal</em>.
+   *
+   * @param o the object to be compared for equality with this list
+   * @return {@code true} if the specified object is equal to this list
+   */
+  @Override
+  public boolean equals(@Nullable Object o) {
+    if (o == this) {
+      return true;
+    }
+    if (!(o instanceof List)) {
+      return false;
+    }
+
+    List<?> list = (List<?>) o;
+    Iterator<?> it = list.iterator();
+    for (@Nullable Object element : getArray()) {
+      if (!it.hasNext() || !Objects.equals(element, it.next())) {
+        return false;
+      }
+    }
+    return !it.hasNext();
+  }
+
+  /**
+   * Returns the hash code value for this list.
+   *
+   * <p>This implementation uses the definition in {@link List#hashCode}.
+   *
+   * @return the hash code value for this list
+   */
+  @Override
+  public int hashCode() {
+    int hashCode = 1;
+    for (@Nullable Object x : getArray()) {
+      hashCode = 31 * hashCode + (x == null ? 0 : x.hashCode());
+    }
+    return hashCode;
+  }
+
+  /**
+   * Returns an iterator over the elements in this list in proper sequence.
+   *
+   * <p>The returned iterator provides a snapshot of the state of the list when the iterator was
+   * constructed. No synchronization is needed while traversing the iterator. The iterator does
+   * <em>NOT</em> support the {@code remove} method.
+   *
+   * @return an iterator over the elements in this list in proper sequence
+   */
+  @Override
+  public Iterator<E> iterator() {
+    return new COWIterator<E>(getArray(), 0);
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>The returned iterator provides a snapshot of the state of the list when the iterator was
+   * constructed. No synchronization is needed while traversing the iterator. The iterator does
+   * <em>NOT</em> support the {@code remove}, {@code set} or {@code add} methods.
+   */
+  @Override
+  public ListIterator<E> listIterator() {
+    return new COWIterator<E>(getArray(), 0);
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>The returned iterator provides a snapshot of the state of the list when the iterator was
+   * constructed. No synchronization is needed while traversing the iterator. The iterator does
+   * <em>NOT</em> support the {@code remove}, {@code set} or {@code add} methods.
+   *
+   * @throws IndexOutOfBoundsException {@inheritDoc}
+   */
+  @Override
+  public ListIterator<E> listIterator(int index) {
+    @Nullable Object[] es = getArray();
+    int len = es.length;
+    if (index < 0 || index > len) {
+      throw new IndexOutOfBoundsException(outOfBounds(index, len));
+    }
+
+    return new COWIterator<E>(es, index);
+  }
+
+  static final class COWIterator<E extends @Nullable Object> implements ListIterator<E> {
+    /** Snapshot of the array */
+    private final @Nullable Object[] snapshot;
+
+    /** Index of element to be returned by subsequent call to next. */
+    private int cursor;
+
+    COWIterator(@Nullable Object[] es, int initialCursor) {
+      cursor = initialCursor;
+      snapshot = es;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return cursor < snapshot.length;
+    }
+
+    @Override
+    public boolean hasPrevious() {
+      return cursor > 0;
+    }
+
+    @Override
+    public E next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      return elementAt(snapshot, cursor++);
+    }
+
+    @Override
+    public E previous() {
+      if (!hasPrevious()) {
+        throw new NoSuchElementException();
+      }
+      return elementAt(snapshot, --cursor);
+    }
+
+    @Override
+    public int nextIndex() {
+      return cursor;
+    }
+
+    @Override
+    public int previousIndex() {
+      return cursor - 1;
+    }
+
+    /**
+     * Not supported. Always throws UnsupportedOperationException.
+     *
+     * @throws UnsupportedOperationException always; {@code remove} is not supported by this
+     *     iterator.
+     */
+    @Override
+    public void remove() {
+      throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Not supported. Always throws UnsupportedOperationException.
+     *
+     * @throws UnsupportedOperationException always; {@code set} is not supported by this iterator.
+     */
+    @Override
+    public void set(E e) {
+      throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Not supported. Always throws UnsupportedOperationException.
+     *
+     * @throws UnsupportedOperationException always; {@code add} is not supported by this iterator.
+     */
+    @Override
+    public void add(E e) {
+      throw new UnsupportedOperationException();
+    }
+  }
+
+  /**
+   * Returns a view of the portion of this list between {@code fromIndex}, inclusive, and {@code
+   * toIndex}, exclusive. The returned list is backed by this list, so changes in the returned list
+   * are reflected in this list.
+   *
+   * <p>The semantics of the list returned by this method become undefined if the backing list
+   * (i.e., this list) is modified in any way other than via the returned list.
+   *
+   * @param fromIndex low endpoint (inclusive) of the subList
+   * @param toIndex high endpoint (exclusive) of the subList
+   * @return a view of the specified range within this list
+   * @throws IndexOutOfBoundsException {@inheritDoc}
+   */
+  @Override
+  public List<E> subList(int fromIndex, int toIndex) {
+    synchronized (lock) {
+      @Nullable Object[] es = getArray();
+      int len = es.length;
+      if (fromIndex < 0 || toIndex > len || fromIndex > toIndex) {
+        throw new IndexOutOfBoundsException();
+      }
+      return new COWSubList<E>(this, fromIndex, toIndex);
+    }
+  }
+
+  /**
+   * Sublist for CopyOnWriteArrayList. This class extends AbstractList merely for convenience, to
+   * avoid having to define addAll, etc. This doesn't hurt, but is wasteful. This class does not
+   * need or use modCount mechanics in AbstractList, but does need to check for concurrent
+   * modification using similar mechanics. On each operation, the array that we expect the backing
+   * list to use is checked and updated. Since we do this for all of the base operations invoked by
+   * those defined in AbstractList, all is well. While inefficient, this is not worth improving.
+   * The kinds of list operations inherited from AbstractList are already so slow on COW sublists
+   * that adding a bit more space/time doesn't seem even noticeable.
+   */
+  private static class COWSubList<E extends @Nullable Object> extends AbstractList<E>
+      implements RandomAccess {
+    private final CopyOnWriteArrayList<E> l;
+    private final int offset;
+    private int size;
+    private @Nullable Object[] expectedArray;
+
+    // only call this holding l's lock
+    COWSubList(CopyOnWriteArrayList<E> list, int fromIndex, int toIndex) {
+      l = list;
+      expectedArray = l.getArray();
+      offset = fromIndex;
+      size = toIndex - fromIndex;
+    }
+
+    // only call this holding l's lock
+    private void checkForComodification() {
+      if (l.getArray() != expectedArray) {
+        throw new ConcurrentModificationException();
+      }
+    }
+
+    // only call this holding l's lock
+    private void rangeCheck(int index) {
+      if (index < 0 || index >= size) {
+        throw new IndexOutOfBoundsException(outOfBounds(index, size));
+      }
+    }
+
+    @Override
+    public E set(int index, E element) {
+      synchronized (l.lock) {
+        rangeCheck(index);
+        checkForComodification();
+        E x = l.set(index + offset, element);
+        expectedArray = l.getArray();
+        return x;
+      }
+    }
+
+    @Override
+    public E get(int index) {
+      synchronized (l.lock) {
+        rangeCheck(index);
+        checkForComodification();
+        return l.get(index + offset);
+      }
+    }
+
+    @Override
+    public int size() {
+      synchronized (l.lock) {
+        checkForComodification();
+        return size;
+      }
+    }
+
+    @Override
+    public boolean add(E element) {
+      synchronized (l.lock) {
+        checkForComodification();
+        l.add(offset + size, element);
+        expectedArray = l.getArray();
+        size++;
+      }
+      return true;
+    }
+
+    @Override
+    public void add(int index, E element) {
+      synchronized (l.lock) {
+        checkForComodification();
+        if (index < 0 || index > size) {
+          throw new IndexOutOfBoundsException(outOfBounds(index, size));
+        }
+        l.add(index + offset, element);
+        expectedArray = l.getArray();
+        size++;
+      }
+    }
+
+    @Override
+    public void clear() {
+      synchronized (l.lock) {
+        checkForComodification();
+        l.removeRange(offset, offset + size);
+        expectedArray = l.getArray();
+        size = 0;
+      }
+    }
+
+    @Override
+    public E remove(int index) {
+      synchronized (l.lock) {
+        rangeCheck(index);
+        checkForComodification();
+        E result = l.remove(index + offset);
+        expectedArray = l.getArray();
+        size--;
+        return result;
+      }
+    }
+
+    @Override
+    public boolean remove(@Nullable Object o) {
+      synchronized (l.lock) {
+        checkForComodification();
+        int index = indexOf(o, expectedArray, offset, offset + size);
+        if (index < 0) {
+          return false;
+        }
+        l.remove(index);
+        expectedArray = l.getArray();
+        size--;
+        return true;
+      }
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+      return listIterator(0);
+    }
+
+    @Override
+    public ListIterator<E> listIterator(int index) {
+      synchronized (l.lock) {
+        checkForComodification();
+        if (index < 0 || index > size) {
+          throw new IndexOutOfBoundsException(outOfBounds(index, size));
+        }
+        return new COWSubListIterator<E>(l, index, offset, size);
+      }
+    }
+
+    @Override
+    public List<E> subList(int fromIndex, int toIndex) {
+      synchronized (l.lock) {
+        checkForComodification();
+        if (fromIndex < 0 || toIndex > size || fromIndex > toIndex) {
+          throw new IndexOutOfBoundsException();
+        }
+        return new COWSubList<E>(l, fromIndex + offset, toIndex + offset);
+      }
+    }
+  }
+
+  private static class COWSubListIterator<E extends @Nullable Object> implements ListIterator<E> {
+    private final ListIterator<E> it;
+    private final int offset;
+    private final int size;
+
+    COWSubListIterator(List<E> l, int index, int offset, int size) {
+      this.offset = offset;
+      this.size = size;
+      it = l.listIterator(index + offset);
+    }
+
+    @Override
+    public boolean hasNext() {
+      return nextIndex() < size;
+    }
+
+    @Override
+    public E next() {
+      if (hasNext()) {
+        return it.next();
+      } else {
+        throw new NoSuchElementException();
+      }
+    }
+
+    @Override
+    public boolean hasPrevious() {
+      return previousIndex() >= 0;
+    }
+
+    @Override
+    public E previous() {
+      if (hasPrevious()) {
+        return it.previous();
+      } else {
+        throw new NoSuchElementException();
+      }
+    }
+
+    @Override
+    public int nextIndex() {
+      return it.nextIndex() - offset;
+    }
+
+    @Override
+    public int previousIndex() {
+      return it.previousIndex() - offset;
+    }
+
+    @Override
+    public void remove() {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void set(E e) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void add(E e) {
+      throw new UnsupportedOperationException();
+    }
+  }
+}
@@ -0,0 +1,310 @@
+/*
+ * Written by Doug Lea with assistance from members of JCP JSR-166
+ * Expert Group and released to the public domain, as explained at
+ * http://creativecommons.org/publicdomain/zero/1.0/
+ */
+
+package java.util.concurrent;
+
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+// J2kt-native: (de)serialization code and spliterator removed.
+
+/**
+ * A {@link Set} that uses an internal {@link CopyOnWriteArrayList} for all of its operations.
+ * Thus, it shares the same basic properties:
+ *
+ * <ul>
+ *   <li>It is best suited for applications in which set sizes generally stay small, read-only
+ *       operations vastly outnumber mutative operations, and you need to prevent interference
+ *       among threads during traversal.
+ *   <li>It is thread-safe.
+ *   <li>Mutative operations ({@code add}, {@code set}, {@code remove}, etc.) are expensive since
+ *       they usually entail copying the entire underlying array.
+ *   <li>Iterators do not support the mutative {@code remove} operation.
+ *   <li>Traversal via iterators is fast and cannot encounter interference from other threads.
+ *       Iterators rely on unchanging snapshots of the array at the time the iterators were
+ *       constructed.
+ * </ul>
+ *
+ * @see CopyOnWriteArrayList
+ * @since 1.5
+ * @author Doug Lea
+ * @param <E> the type of elements held in this set
+ */
+@NullMarked
+public class CopyOnWriteArraySet<E extends @Nullable Object> extends AbstractSet<E> {
+
+  private final CopyOnWriteArrayList<E> al;
+
+  /** Creates an empty set. */
+  public CopyOnWriteArraySet() {
+    al = new CopyOnWriteArrayList<E>();
+  }
+
+  /**
+   * Creates a set containing all of the elements of the specified collection.
+   *
+   * @param c the collection of elements to initially contain
+   * @throws NullPointerException if the specified collection is null
+   */
+  public CopyOnWriteArraySet(Collection<? extends E> c) {
+    if (c instanceof CopyOnWriteArraySet) {
+      @SuppressWarnings("unchecked")
+      CopyOnWriteArraySet<E> cc = (CopyOnWriteArraySet<E>) c;
+      al = new CopyOnWriteArrayList<E>(cc.al);
+    } else {
+      al = new CopyOnWriteArrayList<E>();
+      al.addAllAbsent(c);
+    }
+  }
+
+  /**
+   * Returns the number of elements in this set.
+   *
+   * @return the number of elements in this set
+   */
+  @Override
+  public int size() {
+    return al.size();
+  }
+
+  /**
+   * Returns {@code true} if this set contains no elements.
+   *
+   * @return {@code true} if this set contains no elements
+   */
+  @Override
+  public boolean isEmpty() {
+    return al.isEmpty();
+  }
+
+  /**
+   * Returns {@code true} if this set contains the specified element.
+   *
+   * @param o element whose presence in this set is to be tested
+   * @return {@code true} if this set contains the specified element
+   */
+  @Override
+  public boolean contains(@Nullable Object o) {
+    return al.contains(o);
+  }
+
+  /**
+   * Returns an array containing all of the elements in this set. If this set makes any guarantees
+   * as to what order its elements are returned by its iterator, this method must return the
+   * elements in the same order.
+   *
+   * @return an array containing all the elements in this set
+   */
+  @Override
+  public @Nullable Object[] toArray() {
+    return al.toArray();
+  }
+
+  /**
+   * Returns an array containing all of the elements in this set; the runtime type of the returned
+   * array is that of the specified array.
+   *
+   * @param a the array into which the elements of this set are to be stored, if it is big enough;
+   *     otherwise, a new array of the same runtime type is allocated for this purpose.
+   * @return an array containing all the elements in this set
+   * @throws ArrayStoreException if the runtime type of the specified array is not a supertype of
+   *     the runtime type of every element in this set
+   * @throws NullPointerException if the specified array is null
+   */
+  @Override
+  public <T extends @Nullable Object> T[] toArray(T[] a) {
+    return al.toArray(a);
+  }
+
+  /** Removes all of the elements from this set. The set will be empty after this call returns. */
+  @Override
+  public void clear() {
+    al.clear();
+  }
+
+  /**
+   * Removes the specified element from this set if it is present.
+   *
+   * @param o object to be removed from this set, if present
+   * @return {@code true} if this set contained the specified element
+   */
+  @Override
+  public boolean remove(@Nullable Object o) {
+    return al.remove(o);
+  }
+
+  /**
+   * Adds the specified element to this set if it is not already present.
+   *
+   * @param e element to be added to this set
+   * @return {@code true} if this set did not already contain the specified element
+   */
+  @Override
+  public boolean add(E e) {
+    return al.addIfAbsent(e);
+  }
+
+  /**
+   * Returns {@code true} if this set contains all of the elements of the specified collection. If
+   * the specified collection is also a set, this method returns {@code true} if it is a
+   * <i>subset</i> of this set.
+   *
+   * @param c collection to be checked for containment in this set
+   * @return {@code true} if this set contains all of the elements of the specified collection
+   * @throws NullPointerException if the specified collection is null
+   * @see #contains(Object)
+   */
+  @Override
+  public boolean containsAll(Collection<?> c) {
+    return (c instanceof Set) ? compareSets(al.getArray(), (Set<?>) c) >= 0 : al.containsAll(c);
+  }
+
+  /**
+   * Tells whether the objects in snapshot (regarded as a set) are a superset of the given set.
+   *
+   * @return -1 if snapshot is not a superset, 0 if the two sets contain precisely the same
+   *     elements, and 1 if snapshot is a proper superset of the given set
+   */
+  private static int compareSets(@Nullable Object[] snapshot, Set<?> set) {
+    // Uses O(n^2) algorithm, that is only appropriate for small sets, which CopyOnWriteArraySets
+    // should be.
+    //
+    // Optimize up to O(n) if the two sets share a long common prefix, as might happen if one set
+    // was created as a copy of the other set.
+
+    final int len = snapshot.length;
+    // Mark matched elements to avoid re-checking
+    final boolean[] matched = new boolean[len];
+
+    // j is the largest int with matched[i] true for { i | 0 <= i < j }
+    int j = 0;
+    for (@Nullable Object x : set) {
+      int i = j;
+      while (i < len) {
+        if (!matched[i] && Objects.equals(x, snapshot[i])) {
+          matched[i] = true;
+          if (i == j) {
+            do {
+              j++;
+            } while (j < len && matched[j]);
+          }
+          break;
+        }
+        i++;
+      }
+      if (i == len) {
+        return -1;
+      }
+    }
+    return (j == len) ? 0 : 1;
+  }
+
+  /**
+   * Adds all of the elements in the specified collection to this set if they're not already
+   * present.
+   *
+   * @param c collection containing elements to be added to this set
+   * @return {@code true} if this set changed as a result of the call
+   * @throws NullPointerException if the specified collection is null
+   * @see #add(Object)
+   */
+  @Override
+  public boolean addAll(Collection<? extends E> c) {
+    return al.addAllAbsent(c) > 0;
+  }
+
+  /**
+   * Removes from this set all of its elements that are contained in the specified collection.
+   *
+   * @param c collection containing elements to be removed from this set
+   * @return {@code true} if this set changed as a result of the call
+   * @throws NullPointerException if the specified collection is null
+   * @see #remove(Object)
+   */
+  @Override
+  public boolean removeAll(Collection<?> c) {
+    return al.removeAll(c);
+  }
+
+  /**
+   * Retains only the elements in this set that are contained in the specified collection.
+   *
+   * @param c collection containing elements to be retained in this set
+   * @return {@code true} if this set changed as a result of the call
+   * @throws NullPointerException if the specified collection is null
+   * @see #remove(Object)
+   */
+  @Override
+  public boolean retainAll(Collection<?> c) {
+    return al.retainAll(c);
+  }
+
+  /**
+   * Returns an iterator over the elements contained in this set in the order in which these
+   * elements were added.
+   *
+   * <p>The returned iterator provides a snapshot of the state of the set when the iterator was
+   * constructed. No synchronization is needed while traversing the iterator. The iterator does
+   * <em>NOT</em> support the {@code remove} method.
+   *
+   * @return an iterator over the elements in this set
+   */
+  @Override
+  public Iterator<E> iterator() {
+    return al.iterator();
+  }
+
+  /**
+   * Compares the specified object with this set for equality. Returns {@code true} if the
+   * specified object is the same object as this object, or if it is also a {@link Set} and the
+   * elements returned by an {@linkplain Set#iterator() iterator} over the specified set are the
+   * same as the elements returned by an iterator over this set.
+   *
+   * @param o object to be compared for equality with this set
+   * @return {@code true} if the specified object is equal to this set
+   */
+  @Override
+  public boolean equals(@Nullable Object o) {
+    return (o == this) || ((o instanceof Set) && compareSets(al.getArray(), (Set<?>) o) == 0);
+  }
+
+  @Override
+  public int hashCode() {
+    int h = 0;
+    for (@Nullable Object x : al.getArray()) {
+      h += (x == null) ? 0 : x.hashCode();
+    }
+    return h;
+  }
+
+  /**
+   * @throws NullPointerException {@inheritDoc}
+   */
+  @Override
+  public boolean removeIf(Predicate<? super E> filter) {
+    return al.removeIf(filter);
+  }
+
+  /**
+   * @throws NullPointerException {@inheritDoc}
+   */
+  @Override
+  public void forEach(Consumer<? super E> action) {
+    al.forEach(action);
+  }
+
+  @Override
+  public String toString() {
+    return al.toString();
+  }
+}
@@ -15,76 +15,75 @@
  */
 package java.util.concurrent;
 
-import java.util.concurrent.locks.Condition;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.AbstractQueuedSynchronizer;
+import org.jspecify.annotations.NullMarked;
 
-/** Minimum implementation of count-down latch. */
+/**
+ * Count-down latch built on {@link AbstractQueuedSynchronizer}. The synchronizer state is the
+ * count, so an uncontended {@link #countDown} is a single compare-and-set, and {@link #getCount}
+ * is a plain read.
+ */
+@NullMarked
 public class CountDownLatch {
 
-  private final Lock lock = new ReentrantLock();
-  private final Condition condition = lock.newCondition();
-  private int count;
+  /** Synchronization control for CountDownLatch. Uses AQS state to represent count. */
+  private static final class Sync extends AbstractQueuedSynchronizer {
+    Sync(int count) {
+      setState(count);
+    }
+
+    int getCount() {
+      return getState();
+    }
+
+    @Override
+    protected int tryAcquireShared(int acquires) {
+      return (getState() == 0) ? 1 : -1;
+    }
+
+    @Override
+    protected boolean tryReleaseShared(int releases) {
+      // Decrement count; signal when transition to zero
+      for (; ; ) {
+        int c = getState();
+        if (c == 0) {
+          return false;
+        }
+        int nextc = c - 1;
+        if (compareAndSetState(c, nextc)) {
+          return nextc == 0;
+        }
+      }
+    }
+  }
+
+  private final Sync sync;
 
   public CountDownLatch(int count) {
     if (count < 0) {
       throw new IllegalArgumentException("Count must be non-negative");
     }
-    this.count = count;
+    this.sync = new Sync(count);
   }
 
   public void await() throws InterruptedException {
-    lock.lock();
-    try {
-      while (count > 0) {
-        condition.await(); // Releases the lock, waits, and reacquires on wake-up
-      }
-    } finally {
-      lock.unlock();
-    }
+    sync.acquireSharedInterruptibly(1);
   }
 
   public boolean await(long timeout, TimeUnit unit) throws InterruptedException {
-    long remaningNanos = unit.toNanos(timeout);
-    lock.lock();
-    try {
-      while (count > 0) {
-        remaningNanos = condition.awaitNanos(remaningNanos);
-        if (remaningNanos <= 0) {
-          return false;
-        }
-      }
-    } finally {
-      lock.unlock();
-    }
-    return true;
+    return sync.tryAcquireSharedNanos(1, unit.toNanos(timeout));
   }
 
   public void countDown() {
-    lock.lock();
-    try {
-      if (count > 0) {
-        count--;
-        if (count == 0) {
-          condition.signalAll(); // Wake up all threads waiting on this condition
-        }
-      }
-    } finally {
-      lock.unlock();
-    }
+    sync.releaseShared(1);
   }
 
-  public int getCount() {
-    lock.lock();
-    try {
-      return count;
-    } finally {
-      lock.unlock();
-    }
+  public long getCount() {
+    return sync.getCount();
   }
 
   @Override
   public String toString() {
-    return super.toString() + "[Count = " + count + "]";
+    return super.toString() + "[Count = " + sync.getCount() + "]";
   }
 }
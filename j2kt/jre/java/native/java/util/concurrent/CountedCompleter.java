@@ -0,0 +1,263 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package java.util.concurrent;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * A {@link ForkJoinTask} with a completion action performed when triggered and there are no
+ * remaining pending actions.
+ *
+ * <p>Unlike other tasks, a completer does not complete when {@link #compute} returns. It completes
+ * when {@link #tryComplete} is invoked with a pending count of zero, after which its own completer,
+ * if any, is tried in turn. An exception thrown by a task is propagated to its completers for which
+ * {@link #onExceptionalCompletion} returns {@code true}.
+ *
+ * @param <T> the type of the result of the task
+ */
+@NullMarked
+public abstract class CountedCompleter<T extends @Nullable Object> extends ForkJoinTask<T> {
+
+  /** This task's completer, or null if none. */
+  final @Nullable CountedCompleter<?> completer;
+
+  /** The number of pending tasks until completion. */
+  private final AtomicInteger pending;
+
+  /** Creates a new CountedCompleter with the given completer and initial pending count. */
+  protected CountedCompleter(@Nullable CountedCompleter<?> completer, int initialPendingCount) {
+    this.completer = completer;
+    this.pending = new AtomicInteger(initialPendingCount);
+  }
+
+  /**
+   * Creates a new CountedCompleter with the given completer and an initial pending count of zero.
+   */
+  protected CountedCompleter(@Nullable CountedCompleter<?> completer) {
+    this(completer, 0);
+  }
+
+  /** Creates a new CountedCompleter with no completer and an initial pending count of zero. */
+  protected CountedCompleter() {
+    this(null, 0);
+  }
+
+  /** The main computation performed by this task. */
+  public abstract void compute();
+
+  /**
+   * Performs an action when method {@link #tryComplete} is invoked and the pending count is zero,
+   * or when the unconditional method {@link #complete} is invoked. By default, does nothing.
+   *
+   * @param caller the task invoking this method (which may be this task itself)
+   */
+  public void onCompletion(CountedCompleter<?> caller) {}
+
+  /**
+   * Performs an action when {@link #completeExceptionally} is invoked or method {@link #compute}
+   * throws an exception, and this task has not already otherwise completed normally. By default,
+   * does nothing and returns {@code true}.
+   *
+   * @return {@code true} if this exception should be propagated to this task's completer, if one
+   *     exists
+   */
+  public boolean onExceptionalCompletion(Throwable ex, CountedCompleter<?> caller) {
+    return true;
+  }
+
+  /** Returns the completer established in this task's constructor, or {@code null} if none. */
+  public final @Nullable CountedCompleter<?> getCompleter() {
+    return completer;
+  }
+
+  /** Returns the current pending count. */
+  public final int getPendingCount() {
+    return pending.get();
+  }
+
+  /** Sets the pending count to the given value. */
+  public final void setPendingCount(int count) {
+    pending.set(count);
+  }
+
+  /** Adds (atomically) the given value to the pending count. */
+  public final void addToPendingCount(int delta) {
+    pending.addAndGet(delta);
+  }
+
+  /**
+   * Sets (atomically) the pending count to the given count only if it currently holds the given
+   * expected value.
+   */
+  public final boolean compareAndSetPendingCount(int expected, int count) {
+    return pending.compareAndSet(expected, count);
+  }
+
+  /**
+   * If the pending count is nonzero, (atomically) decrements it.
+   *
+   * @return the initial (undecremented) pending count holding on entry to this method
+   */
+  public final int decrementPendingCountUnlessZero() {
+    for (int c; ; ) {
+      if ((c = pending.get()) == 0 || pending.compareAndSet(c, c - 1)) {
+        return c;
+      }
+    }
+  }
+
+  /** Returns the root of the current computation, that is, this task if it has no completer. */
+  public final CountedCompleter<?> getRoot() {
+    CountedCompleter<?> a = this;
+    for (CountedCompleter<?> p; (p = a.completer) != null; ) {
+      a = p;
+    }
+    return a;
+  }
+
+  /**
+   * If the pending count is nonzero, decrements the count; otherwise invokes {@link #onCompletion}
+   * and then similarly tries to complete this task's completer, if one exists, else marks this
+   * task as complete.
+   */
+  public final void tryComplete() {
+    CountedCompleter<?> a = this;
+    CountedCompleter<?> s = a;
+    for (int c; ; ) {
+      if ((c = a.pending.get()) == 0) {
+        a.onCompletion(s);
+        CountedCompleter<?> p = a.completer;
+        if (p == null) {
+          a.quietlyComplete();
+          return;
+        }
+        s = a;
+        a = p;
+      } else if (a.pending.compareAndSet(c, c - 1)) {
+        return;
+      }
+    }
+  }
+
+  /**
+   * Equivalent to {@link #tryComplete} but does not invoke {@link #onCompletion} along the
+   * completion path.
+   */
+  public final void propagateCompletion() {
+    CountedCompleter<?> a = this;
+    for (int c; ; ) {
+      if ((c = a.pending.get()) == 0) {
+        CountedCompleter<?> p = a.completer;
+        if (p == null) {
+          a.quietlyComplete();
+          return;
+        }
+        a = p;
+      } else if (a.pending.compareAndSet(c, c - 1)) {
+        return;
+      }
+    }
+  }
+
+  /**
+   * Regardless of pending count, invokes {@link #onCompletion}, marks this task as complete and
+   * further triggers {@link #tryComplete} on this task's completer, if one exists.
+   */
+  @Override
+  public void complete(T rawResult) {
+    setRawResult(rawResult);
+    onCompletion(this);
+    quietlyComplete();
+    CountedCompleter<?> p = completer;
+    if (p != null) {
+      p.tryComplete();
+    }
+  }
+
+  /**
+   * If this task's pending count is zero, returns this task; otherwise decrements its pending count
+   * and returns {@code null}.
+   */
+  public final @Nullable CountedCompleter<?> firstComplete() {
+    for (int c; ; ) {
+      if ((c = pending.get()) == 0) {
+        return this;
+      } else if (pending.compareAndSet(c, c - 1)) {
+        return null;
+      }
+    }
+  }
+
+  /**
+   * If this task does not have a completer, invokes {@link #quietlyComplete} and returns {@code
+   * null}. Otherwise, if the completer's pending count is non-zero, decrements that pending count
+   * and returns {@code null}. Otherwise, returns the completer.
+   */
+  public final @Nullable CountedCompleter<?> nextComplete() {
+    CountedCompleter<?> p = completer;
+    if (p != null) {
+      return p.firstComplete();
+    }
+    quietlyComplete();
+    return null;
+  }
+
+  /** Equivalent to {@code getRoot().quietlyComplete()}. */
+  public final void quietlyCompleteRoot() {
+    getRoot().quietlyComplete();
+  }
+
+  /** Supports ForkJoinTask exception propagation. */
+  @Override
+  void internalPropagateException(Throwable ex) {
+    CountedCompleter<?> a = this;
+    CountedCompleter<?> s = a;
+    while (a.onExceptionalCompletion(ex, s)) {
+      CountedCompleter<?> p = a.completer;
+      if (p == null || !p.trySetExceptionalCompletion(ex)) {
+        return;
+      }
+      s = a;
+      a = p;
+    }
+  }
+
+  /** Implements execution conventions for CountedCompleters. */
+  @Override
+  protected final boolean exec() {
+    compute();
+    return false;
+  }
+
+  /**
+   * Returns the result of the computation. By default, returns {@code null}, which is appropriate
+   * for {@code Void} actions, but in other cases should be overridden.
+   */
+  @Override
+  public @Nullable T getRawResult() {
+    return null;
+  }
+
+  /**
+   * A method that result-bearing CountedCompleters may optionally use to help maintain result
+   * data. By default, does nothing.
+   */
+  @Override
+  protected void setRawResult(T t) {}
+}
@@ -0,0 +1,288 @@
+/*
+ * Written by Doug Lea with assistance from members of JCP JSR-166
+ * Expert Group and released to the public domain, as explained at
+ * http://creativecommons.org/publicdomain/zero/1.0/
+ */
+
+package java.util.concurrent;
+
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+// J2kt-native: based on the JDK 8 version. J2KT threads cannot be interrupted, so a barrier is
+// only broken by a timeout, a reset, or an exception thrown by the barrier action.
+
+/**
+ * A synchronization aid that allows a set of threads to all wait for each other to reach a common
+ * barrier point. CyclicBarriers are useful in programs involving a fixed sized party of threads
+ * that must occasionally wait for each other. The barrier is called <em>cyclic</em> because it can
+ * be re-used after the waiting threads are released.
+ *
+ * <p>A {@code CyclicBarrier} supports an optional {@link Runnable} command that is run once per
+ * barrier point, after the last thread in the party arrives, but before any threads are released.
+ * This <em>barrier action</em> is useful for updating shared-state before any of the parties
+ * continue.
+ *
+ * <p>The {@code CyclicBarrier} uses an all-or-none breakage model for failed synchronization
+ * attempts: If a thread leaves a barrier point prematurely because of timeout, all other threads
+ * waiting at that barrier point will also leave abnormally via {@link BrokenBarrierException}.
+ *
+ * @since 1.5
+ * @see CountDownLatch
+ * @author Doug Lea
+ */
+@NullMarked
+public class CyclicBarrier {
+  /**
+   * Each use of the barrier is represented as a generation instance. The generation changes
+   * whenever the barrier is tripped, or is reset. There can be many generations associated with
+   * threads using the barrier - due to the non-deterministic way the lock may be allocated to
+   * waiting threads - but only one of these can be active at a time (the one to which {@code count}
+   * applies) and all the rest are either broken or tripped. There need not be an active generation
+   * if there has been a break but no subsequent reset.
+   */
+  private static class Generation {
+    boolean broken = false;
+  }
+
+  /** The lock for guarding barrier entry */
+  private final ReentrantLock lock = new ReentrantLock();
+
+  /** Condition to wait on until tripped */
+  private final Condition trip = lock.newCondition();
+
+  /** The number of parties */
+  private final int parties;
+
+  /** The command to run when tripped */
+  private final @Nullable Runnable barrierCommand;
+
+  /** The current generation */
+  private Generation generation = new Generation();
+
+  /**
+   * Number of parties still waiting. Counts down from parties to 0 on each generation. It is reset
+   * to parties on each new generation or when broken.
+   */
+  private int count;
+
+  /**
+   * Updates state on barrier trip and wakes up everyone. Called only while holding lock.
+   */
+  private void nextGeneration() {
+    // signal completion of last generation
+    trip.signalAll();
+    // set up next generation
+    count = parties;
+    generation = new Generation();
+  }
+
+  /**
+   * Sets current barrier generation as broken and wakes up everyone. Called only while holding
+   * lock.
+   */
+  private void breakBarrier() {
+    generation.broken = true;
+    count = parties;
+    trip.signalAll();
+  }
+
+  /** Main barrier code, covering the various policies. */
+  private int dowait(boolean timed, long nanos)
+      throws InterruptedException, BrokenBarrierException, TimeoutException {
+    final ReentrantLock lock = this.lock;
+    lock.lock();
+    try {
+      final Generation g = generation;
+
+      if (g.broken) {
+        throw new BrokenBarrierException();
+      }
+
+      int index = --count;
+      if (index == 0) { // tripped
+        boolean ranAction = false;
+        try {
+          final Runnable command = barrierCommand;
+          if (command != null) {
+            command.run();
+          }
+          ranAction = true;
+          nextGeneration();
+          return 0;
+        } finally {
+          if (!ranAction) {
+            breakBarrier();
+          }
+        }
+      }
+
+      // loop until tripped, broken, or timed out
+      for (; ; ) {
+        if (!timed) {
+          trip.await();
+        } else if (nanos > 0L) {
+          nanos = trip.awaitNanos(nanos);
+        }
+
+        if (g.broken) {
+          throw new BrokenBarrierException();
+        }
+
+        if (g != generation) {
+          return index;
+        }
+
+        if (timed && nanos <= 0L) {
+          breakBarrier();
+          throw new TimeoutException();
+        }
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Creates a new {@code CyclicBarrier} that will trip when the given number of parties (threads)
+   * are waiting upon it, and which will execute the given barrier action when the barrier is
+   * tripped, performed by the last thread entering the barrier.
+   *
+   * @param parties the number of threads that must invoke {@link #await} before the barrier is
+   *     tripped
+   * @param barrierAction the command to execute when the barrier is tripped, or {@code null} if
+   *     there is no action
+   * @throws IllegalArgumentException if {@code parties} is less than 1
+   */
+  public CyclicBarrier(int parties, @Nullable Runnable barrierAction) {
+    if (parties <= 0) {
+      throw new IllegalArgumentException();
+    }
+    this.parties = parties;
+    this.count = parties;
+    this.barrierCommand = barrierAction;
+  }
+
+  /**
+   * Creates a new {@code CyclicBarrier} that will trip when the given number of parties (threads)
+   * are waiting upon it, and does not perform a predefined action when the barrier is tripped.
+   *
+   * @param parties the number of threads that must invoke {@link #await} before the barrier is
+   *     tripped
+   * @throws IllegalArgumentException if {@code parties} is less than 1
+   */
+  public CyclicBarrier(int parties) {
+    this(parties, null);
+  }
+
+  /**
+   * Returns the number of parties required to trip this barrier.
+   *
+   * @return the number of parties required to trip this barrier
+   */
+  public int getParties() {
+    return parties;
+  }
+
+  /**
+   * Waits until all {@linkplain #getParties parties} have invoked {@code await} on this barrier.
+   *
+   * <p>If the current thread is not the last to arrive then it is disabled for thread scheduling
+   * purposes and lies dormant until the last thread arrives, or some other thread invokes {@link
+   * #reset} or times out while waiting. If the barrier is {@link #reset} while any thread is
+   * waiting, or if the barrier {@linkplain #isBroken is broken} when {@code await} is invoked, or
+   * while any thread is waiting, then {@link BrokenBarrierException} is thrown.
+   *
+   * <p>If the current thread is the last thread to arrive, and a non-null barrier action was
+   * supplied in the constructor, then the current thread runs the action before allowing the other
+   * threads to continue. If an exception occurs during the barrier action then that exception will
+   * be propagated in the current thread and the barrier is placed in the broken state.
+   *
+   * @return the arrival index of the current thread, where index {@code getParties() - 1} indicates
+   *     the first to arrive and zero indicates the last to arrive
+   * @throws InterruptedException never thrown; J2KT threads cannot be interrupted
+   * @throws BrokenBarrierException if <em>another</em> thread timed out while the current thread
+   *     was waiting, or the barrier was reset, or the barrier was broken when {@code await} was
+   *     called, or the barrier action failed due to an exception
+   */
+  public int await() throws InterruptedException, BrokenBarrierException {
+    try {
+      return dowait(false, 0L);
+    } catch (TimeoutException toe) {
+      throw new Error(toe); // cannot happen
+    }
+  }
+
+  /**
+   * Waits until all {@linkplain #getParties parties} have invoked {@code await} on this barrier,
+   * or the specified waiting time elapses.
+   *
+   * <p>If the specified waiting time elapses then {@link TimeoutException} is thrown. If the time
+   * is less than or equal to zero, the method will not wait at all.
+   *
+   * @param timeout the time to wait for the barrier
+   * @param unit the time unit of the timeout parameter
+   * @return the arrival index of the current thread, where index {@code getParties() - 1} indicates
+   *     the first to arrive and zero indicates the last to arrive
+   * @throws InterruptedException never thrown; J2KT threads cannot be interrupted
+   * @throws TimeoutException if the specified timeout elapses. In this case the barrier will be
+   *     broken.
+   * @throws BrokenBarrierException if <em>another</em> thread timed out while the current thread
+   *     was waiting, or the barrier was reset, or the barrier was broken when {@code await} was
+   *     called, or the barrier action failed due to an exception
+   */
+  public int await(long timeout, TimeUnit unit)
+      throws InterruptedException, BrokenBarrierException, TimeoutException {
+    return dowait(true, unit.toNanos(timeout));
+  }
+
+  /**
+   * Queries if this barrier is in a broken state.
+   *
+   * @return {@code true} if one or more parties broke out of this barrier due to timeout since
+   *     construction or the last reset, or a barrier action failed due to an exception; {@code
+   *     false} otherwise.
+   */
+  public boolean isBroken() {
+    final ReentrantLock lock = this.lock;
+    lock.lock();
+    try {
+      return generation.broken;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Resets the barrier to its initial state. If any parties are currently waiting at the barrier,
+   * they will return with a {@link BrokenBarrierException}.
+   */
+  public void reset() {
+    final ReentrantLock lock = this.lock;
+    lock.lock();
+    try {
+      breakBarrier(); // break the current generation
+      nextGeneration(); // start a new generation
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Returns the number of parties currently waiting at the barrier. This method is primarily
+   * useful for debugging and assertions.
+   *
+   * @return the number of parties currently blocked in {@link #await}
+   */
+  public int getNumberWaiting() {
+    final ReentrantLock lock = this.lock;
+    lock.lock();
+    try {
+      return parties - count;
+    } finally {
+      lock.unlock();
+    }
+  }
+}
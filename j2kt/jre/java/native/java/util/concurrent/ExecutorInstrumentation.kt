@@ -0,0 +1,218 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+@file:OptIn(ExperimentalAtomicApi::class)
+
+package java.util.concurrent
+
+import kotlin.concurrent.atomics.AtomicBoolean
+import kotlin.concurrent.atomics.AtomicLong
+import kotlin.concurrent.atomics.AtomicLongArray
+import kotlin.concurrent.atomics.ExperimentalAtomicApi
+import kotlin.coroutines.cancellation.CancellationException
+import kotlin.math.ceil
+import kotlin.time.ComparableTimeMark
+import kotlin.time.TimeSource
+
+/**
+ * Statistics of a [KotlinExecutor] created with instrumentation, as returned by
+ * [KotlinExecutor.stats].
+ *
+ * A task is counted once it is handed to the dispatcher: right away for submitted tasks, and at
+ * each due time for scheduled tasks. The counters are read one at a time while tasks keep running,
+ * so a snapshot is not atomic as a whole.
+ *
+ * @property submitted the number of tasks handed to the dispatcher.
+ * @property rejected the number of tasks rejected because the executor was shut down.
+ * @property cancelled the number of tasks that were canceled, or that failed with a
+ *   [CancellationException].
+ * @property completed the number of tasks that completed normally.
+ * @property failed the number of tasks that threw an exception.
+ * @property queued the number of tasks waiting for the dispatcher to start them.
+ * @property running the number of tasks currently running.
+ * @property queueDepth the number of queued tasks, sampled whenever a task is submitted.
+ * @property queueWaitNanos the time from submission to the start of each task, in nanoseconds.
+ * @property runTimeNanos the execution time of each task, in nanoseconds.
+ */
+class ExecutorStats
+internal constructor(
+  val submitted: Long,
+  val rejected: Long,
+  val cancelled: Long,
+  val completed: Long,
+  val failed: Long,
+  val queued: Long,
+  val running: Long,
+  val queueDepth: HistogramSnapshot,
+  val queueWaitNanos: HistogramSnapshot,
+  val runTimeNanos: HistogramSnapshot,
+) {
+  override fun toString(): String =
+    "ExecutorStats[submitted=$submitted, rejected=$rejected, cancelled=$cancelled, " +
+      "completed=$completed, failed=$failed, queued=$queued, running=$running, " +
+      "queueDepth=$queueDepth, queueWaitNanos=$queueWaitNanos, runTimeNanos=$runTimeNanos]"
+}
+
+/**
+ * A copy of a histogram of non-negative values. Bucket `0` counts the value `0`, and bucket `i > 0`
+ * counts the values from `2^(i-1)` to `2^i - 1`.
+ */
+class HistogramSnapshot
+internal constructor(private val buckets: LongArray, val sum: Long, val max: Long) {
+
+  /** The number of recorded values. */
+  val count: Long = buckets.sum()
+
+  /** The mean of the recorded values, or `0` if there are none. */
+  val mean: Double
+    get() = if (count == 0L) 0.0 else sum.toDouble() / count
+
+  /** Returns the number of recorded values in [bucket]. */
+  fun bucketCount(bucket: Int): Long = buckets[bucket]
+
+  /**
+   * Returns an upper bound of the value at [quantile], which must be between `0` and `1`: the upper
+   * bound of the bucket holding that value, or [max] if it is lower. Returns `0` if there are no
+   * values.
+   */
+  fun valueAtQuantile(quantile: Double): Long {
+    require(quantile in 0.0..1.0) { "Quantile must be between 0 and 1: $quantile" }
+    val rank = maxOf(ceil(quantile * count).toLong(), 1L)
+    var seen = 0L
+    for (bucket in buckets.indices) {
+      seen += buckets[bucket]
+      if (seen >= rank) {
+        return minOf(bucketUpperBound(bucket), max)
+      }
+    }
+    return 0L
+  }
+
+  override fun toString(): String =
+    "[count=$count, mean=$mean, p50=${valueAtQuantile(0.5)}, p99=${valueAtQuantile(0.99)}, " +
+      "max=$max]"
+
+  companion object {
+    /** The number of buckets of a histogram. */
+    const val BUCKET_COUNT = 64
+
+    /** Returns the largest value counted in [bucket]. */
+    fun bucketUpperBound(bucket: Int): Long = (1L shl bucket) - 1
+
+    internal fun bucketIndex(value: Long): Int = Long.SIZE_BITS - value.countLeadingZeroBits()
+  }
+}
+
+/** A lock-free histogram of non-negative values, with one bucket per power of two. */
+internal class Histogram {
+  private val buckets = AtomicLongArray(HistogramSnapshot.BUCKET_COUNT)
+  private val sum = AtomicLong(0)
+  private val max = AtomicLong(0)
+
+  /** Records [value], treating negative values as `0`. */
+  fun record(value: Long) {
+    val sample = maxOf(value, 0L)
+    buckets.fetchAndAddAt(HistogramSnapshot.bucketIndex(sample), 1)
+    sum.fetchAndAdd(sample)
+    var currentMax = max.load()
+    while (sample > currentMax && !max.compareAndSet(currentMax, sample)) {
+      currentMax = max.load()
+    }
+  }
+
+  fun snapshot(): HistogramSnapshot =
+    HistogramSnapshot(
+      LongArray(HistogramSnapshot.BUCKET_COUNT) { buckets.loadAt(it) },
+      sum.load(),
+      max.load(),
+    )
+}
+
+/**
+ * Records the tasks of an instrumented [KotlinExecutor]. All counters are atomics, so that
+ * recording never blocks the tasks being measured.
+ */
+internal class ExecutorInstrumentation(private val timeSource: TimeSource.WithComparableMarks) {
+  private val submitted = AtomicLong(0)
+  private val rejected = AtomicLong(0)
+  private val cancelled = AtomicLong(0)
+  private val completed = AtomicLong(0)
+  private val failed = AtomicLong(0)
+  private val queued = AtomicLong(0)
+  private val running = AtomicLong(0)
+  private val queueDepth = Histogram()
+  private val queueWait = Histogram()
+  private val runTime = Histogram()
+
+  fun recordRejected() {
+    rejected.fetchAndAdd(1)
+  }
+
+  /** Records a task handed to the dispatcher. */
+  fun recordSubmitted(): Task {
+    submitted.fetchAndAdd(1)
+    queueDepth.record(queued.addAndFetch(1))
+    return Task(timeSource.markNow())
+  }
+
+  fun snapshot(): ExecutorStats =
+    ExecutorStats(
+      submitted = submitted.load(),
+      rejected = rejected.load(),
+      cancelled = cancelled.load(),
+      completed = completed.load(),
+      failed = failed.load(),
+      queued = queued.load(),
+      running = running.load(),
+      queueDepth = queueDepth.snapshot(),
+      queueWaitNanos = queueWait.snapshot(),
+      runTimeNanos = runTime.snapshot(),
+    )
+
+  /** A submitted task. Either [run] is called, or [onCompletion] counts it as canceled. */
+  inner class Task(private val submitTime: ComparableTimeMark) {
+    private val started = AtomicBoolean(false)
+
+    fun <T> run(block: () -> T): T {
+      started.store(true)
+      queued.fetchAndAdd(-1)
+      running.fetchAndAdd(1)
+      val startTime = timeSource.markNow()
+      queueWait.record((startTime - submitTime).inWholeNanoseconds)
+      try {
+        val result = block()
+        completed.fetchAndAdd(1)
+        return result
+      } catch (e: CancellationException) {
+        cancelled.fetchAndAdd(1)
+        throw e
+      } catch (e: Throwable) {
+        failed.fetchAndAdd(1)
+        throw e
+      } finally {
+        running.fetchAndAdd(-1)
+        runTime.record(startTime.elapsedNow().inWholeNanoseconds)
+      }
+    }
+
+    /** Called when the coroutine of the task completes, whether or not it ran. */
+    fun onCompletion() {
+      if (started.compareAndSet(false, true)) {
+        queued.fetchAndAdd(-1)
+        cancelled.fetchAndAdd(1)
+      }
+    }
+  }
+}
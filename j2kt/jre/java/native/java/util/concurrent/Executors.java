@@ -45,6 +45,40 @@ public class Executors {
     return KotlinExecutor.createScheduledExecutor(corePoolSize);
   }
 
+  /**
+   * Creates a thread pool that reuses a fixed number of workers operating off a shared unbounded
+   * queue.
+   *
+   * @throws IllegalArgumentException if {@code nThreads <= 0}
+   */
+  public static ExecutorService newFixedThreadPool(int nThreads) {
+    return new ThreadPoolExecutor(
+        nThreads, nThreads, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<Runnable>());
+  }
+
+  /**
+   * Creates a thread pool that starts new workers as needed and reuses idle ones. Workers that have
+   * not been used for sixty seconds exit.
+   */
+  public static ExecutorService newCachedThreadPool() {
+    return new ThreadPoolExecutor(
+        0, Integer.MAX_VALUE, 60L, TimeUnit.SECONDS, new SynchronousQueue<Runnable>());
+  }
+
+  /**
+   * Creates a work-stealing pool with the given parallelism.
+   *
+   * @throws IllegalArgumentException if {@code parallelism <= 0}
+   */
+  public static ExecutorService newWorkStealingPool(int parallelism) {
+    return new ForkJoinPool(parallelism);
+  }
+
+  /** Creates a work-stealing pool using the number of available processors as its parallelism. */
+  public static ExecutorService newWorkStealingPool() {
+    return new ForkJoinPool();
+  }
+
   private static final class RunnableAdapter<T extends @Nullable Object> implements Callable<T> {
 
     final Runnable task;
@@ -0,0 +1,564 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package java.util.concurrent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import javaemul.lang.J2ktMonitor;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * An {@link ExecutorService} for running {@link ForkJoinTask}s.
+ *
+ * <p>Each worker owns a deque of tasks: tasks forked by a worker are pushed onto and popped from
+ * the top of its own deque, while idle workers steal the oldest tasks from the base of other
+ * workers' deques. Tasks submitted from outside of the pool go to a shared submission queue.
+ *
+ * <p>Workers run on the coroutine dispatcher behind {@link KotlinExecutor}, limited to the pool's
+ * parallelism. They are started on demand when work is pushed and give their slot back once they
+ * have been unable to find work for a while. Each deque is guarded by its own monitor, which is
+ * only contended when a task is stolen.
+ */
+@NullMarked
+public class ForkJoinPool extends AbstractExecutorService {
+
+  /** Number of empty scans, separated by yields, after which an idle worker exits. */
+  private static final int IDLE_SCANS = 64;
+
+  private static final int INITIAL_QUEUE_CAPACITY = 1 << 5;
+
+  private static final int MAX_PARALLELISM = 0x7fff;
+
+  /** Queue of the pool worker running on the current thread, if any. */
+  private static final ThreadLocal<@Nullable WorkQueue> currentWorkerQueue =
+      new ThreadLocal<>();
+
+  static final ForkJoinPool common =
+      new ForkJoinPool(Runtime.getRuntime().availableProcessors(), /* isCommon= */ true);
+
+  private final int parallelism;
+  private final boolean isCommon;
+
+  /** One queue per worker slot; a slot is taken by at most one running worker at a time. */
+  private final WorkQueue[] workQueues;
+
+  /** Queue for tasks pushed by threads that are not workers of this pool. */
+  private final WorkQueue submissions;
+
+  private final ExecutorService executor;
+
+  /** Number of workers currently holding a slot. */
+  private final AtomicInteger activeWorkers = new AtomicInteger();
+
+  private final AtomicBoolean shutdown = new AtomicBoolean();
+  private final CountDownLatch termination = new CountDownLatch(1);
+
+  /** Creates a pool with parallelism equal to the number of available processors. */
+  public ForkJoinPool() {
+    this(Runtime.getRuntime().availableProcessors());
+  }
+
+  /**
+   * Creates a pool with the given parallelism level.
+   *
+   * @throws IllegalArgumentException if parallelism is less than or equal to zero, or greater than
+   *     implementation limit
+   */
+  public ForkJoinPool(int parallelism) {
+    this(parallelism, false);
+  }
+
+  private ForkJoinPool(int parallelism, boolean isCommon) {
+    if (parallelism <= 0 || parallelism > MAX_PARALLELISM) {
+      throw new IllegalArgumentException();
+    }
+    this.parallelism = parallelism;
+    this.isCommon = isCommon;
+    this.workQueues = new WorkQueue[parallelism];
+    for (int i = 0; i < parallelism; i++) {
+      workQueues[i] = new WorkQueue(this, i);
+    }
+    this.submissions = new WorkQueue(this, -1);
+    this.executor = KotlinExecutor.createScheduledExecutor(parallelism);
+  }
+
+  /**
+   * Returns the common pool instance. Its parallelism is the number of available processors. The
+   * common pool is not affected by {@link #shutdown} or {@link #shutdownNow}.
+   */
+  public static ForkJoinPool commonPool() {
+    return common;
+  }
+
+  /** Returns the targeted parallelism level of the common pool. */
+  public static int getCommonPoolParallelism() {
+    return common.parallelism;
+  }
+
+  /**
+   * Performs the given task, returning its result upon completion. Exceptions thrown by the task
+   * are rethrown as by {@link ForkJoinTask#invoke}.
+   */
+  public <T extends @Nullable Object> T invoke(ForkJoinTask<T> task) {
+    WorkQueue q = currentWorkerQueue.get();
+    if (q != null && q.pool == this) {
+      return task.invoke();
+    }
+    externalPush(task);
+    return task.join();
+  }
+
+  /** Arranges for asynchronous execution of the given task. */
+  public void execute(ForkJoinTask<?> task) {
+    push(task);
+  }
+
+  @Override
+  public void execute(Runnable task) {
+    push(
+        task instanceof ForkJoinTask<?>
+            ? (ForkJoinTask<?>) task
+            : new ForkJoinTask.AdaptedRunnable<@Nullable Void>(task, null));
+  }
+
+  /**
+   * Submits a ForkJoinTask for execution.
+   *
+   * @return the task
+   */
+  public <T extends @Nullable Object> ForkJoinTask<T> submit(ForkJoinTask<T> task) {
+    push(task);
+    return task;
+  }
+
+  @Override
+  public <T extends @Nullable Object> ForkJoinTask<T> submit(Callable<T> task) {
+    return submit(ForkJoinTask.adapt(task));
+  }
+
+  @Override
+  public <T extends @Nullable Object> ForkJoinTask<T> submit(Runnable task, T result) {
+    return submit(ForkJoinTask.adapt(task, result));
+  }
+
+  @Override
+  public ForkJoinTask<?> submit(Runnable task) {
+    return submit(
+        task instanceof ForkJoinTask<?>
+            ? (ForkJoinTask<?>) task
+            : new ForkJoinTask.AdaptedRunnable<@Nullable Void>(task, null));
+  }
+
+  /** Returns the targeted parallelism level of this pool. */
+  public int getParallelism() {
+    return parallelism;
+  }
+
+  /** Returns the number of workers that have started but not yet terminated. */
+  public int getPoolSize() {
+    return activeWorkers.get();
+  }
+
+  /** Returns an estimate of the number of workers that are currently running or helping tasks. */
+  public int getActiveThreadCount() {
+    return activeWorkers.get();
+  }
+
+  /**
+   * Returns {@code true} if all worker threads are currently idle, meaning that no worker is
+   * running and no task is queued.
+   */
+  public boolean isQuiescent() {
+    return activeWorkers.get() == 0 && !hasQueuedTasks();
+  }
+
+  /** Returns an estimate of the total number of tasks currently held in queues by workers. */
+  public long getQueuedTaskCount() {
+    long count = 0;
+    for (WorkQueue q : workQueues) {
+      count += q.queueSize();
+    }
+    return count;
+  }
+
+  /** Returns an estimate of the number of tasks submitted to this pool that have not yet begun. */
+  public int getQueuedSubmissionCount() {
+    return submissions.queueSize();
+  }
+
+  /** Returns {@code true} if there are any tasks submitted to this pool that have not yet begun. */
+  public boolean hasQueuedSubmissions() {
+    return !submissions.isEmpty();
+  }
+
+  /**
+   * Initiates an orderly shutdown in which previously submitted tasks are executed, but no new
+   * tasks will be accepted. Has no effect on the {@link #commonPool()}.
+   */
+  @Override
+  public void shutdown() {
+    if (!isCommon) {
+      shutdown.set(true);
+      tryTerminate();
+    }
+  }
+
+  /**
+   * Cancels all queued tasks and rejects subsequently submitted tasks. Tasks that are running are
+   * not interrupted. Has no effect on the {@link #commonPool()}.
+   *
+   * @return an empty list
+   */
+  @Override
+  public List<Runnable> shutdownNow() {
+    if (!isCommon) {
+      shutdown.set(true);
+      List<ForkJoinTask<?>> tasks = new ArrayList<>();
+      submissions.drainTo(tasks);
+      for (WorkQueue q : workQueues) {
+        q.drainTo(tasks);
+      }
+      for (ForkJoinTask<?> task : tasks) {
+        task.cancel(false);
+      }
+      tryTerminate();
+    }
+    return new ArrayList<>();
+  }
+
+  @Override
+  public boolean isShutdown() {
+    return shutdown.get();
+  }
+
+  @Override
+  public boolean isTerminated() {
+    return termination.getCount() == 0;
+  }
+
+  /**
+   * Blocks until all tasks have completed execution after a shutdown request, or the timeout
+   * occurs. For the {@link #commonPool()}, which never terminates, this is equivalent to {@link
+   * #awaitQuiescence} and returns {@code false}.
+   */
+  @Override
+  public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+    if (isCommon) {
+      awaitQuiescence(timeout, unit);
+      return false;
+    }
+    return termination.await(timeout, unit);
+  }
+
+  /**
+   * Waits until the pool is quiescent or the timeout elapses. When called from a worker of this
+   * pool, queued tasks are run by the caller while waiting.
+   *
+   * @return {@code true} if quiescent; {@code false} if the timeout elapsed
+   */
+  public boolean awaitQuiescence(long timeout, TimeUnit unit) {
+    long deadline = System.nanoTime() + unit.toNanos(timeout);
+    WorkQueue q = currentWorkerQueue.get();
+    if (q != null && q.pool == this) {
+      ForkJoinTask.helpQuiesce();
+      // The caller itself counts as active; it is quiescent once nothing else is running.
+      while (activeWorkers.get() > 1 || hasQueuedTasks()) {
+        if (System.nanoTime() - deadline >= 0L) {
+          return false;
+        }
+        ForkJoinTask.helpQuiesce();
+        Thread.yield();
+      }
+      return true;
+    }
+    while (!isQuiescent()) {
+      if (System.nanoTime() - deadline >= 0L) {
+        return false;
+      }
+      Thread.yield();
+    }
+    return true;
+  }
+
+  // Internal scheduling.
+
+  static @Nullable WorkQueue currentQueue() {
+    return currentWorkerQueue.get();
+  }
+
+  private void push(ForkJoinTask<?> task) {
+    WorkQueue q = currentWorkerQueue.get();
+    if (q != null && q.pool == this) {
+      q.push(task);
+    } else {
+      externalPush(task);
+    }
+  }
+
+  final void externalPush(ForkJoinTask<?> task) {
+    if (shutdown.get()) {
+      throw new RejectedExecutionException();
+    }
+    submissions.push(task);
+  }
+
+  /** Removes the given task from the submission queue if it has not been taken yet. */
+  final boolean tryExternalRemove(ForkJoinTask<?> task) {
+    return submissions.tryRemove(task);
+  }
+
+  /** Starts another worker if there is a free slot. */
+  final void signalWork() {
+    if (activeWorkers.get() >= parallelism) {
+      return;
+    }
+    for (WorkQueue q : workQueues) {
+      if (!q.owned.get() && q.owned.compareAndSet(false, true)) {
+        activeWorkers.incrementAndGet();
+        try {
+          executor.execute(q);
+        } catch (RuntimeException e) {
+          activeWorkers.decrementAndGet();
+          q.owned.set(false);
+          throw e;
+        }
+        return;
+      }
+    }
+  }
+
+  /** Returns the next task for the worker owning {@code q}: its own newest, or a stolen oldest. */
+  final @Nullable ForkJoinTask<?> nextTask(WorkQueue q) {
+    ForkJoinTask<?> task = q.pop();
+    return task != null ? task : steal(q.index);
+  }
+
+  private @Nullable ForkJoinTask<?> steal(int origin) {
+    int n = workQueues.length;
+    for (int i = 1; i < n; i++) {
+      WorkQueue victim = workQueues[(origin + i) % n];
+      if (!victim.isEmpty()) {
+        ForkJoinTask<?> task = victim.poll();
+        if (task != null) {
+          return task;
+        }
+      }
+    }
+    return submissions.isEmpty() ? null : submissions.poll();
+  }
+
+  private boolean hasQueuedTasks() {
+    if (!submissions.isEmpty()) {
+      return true;
+    }
+    for (WorkQueue q : workQueues) {
+      if (!q.isEmpty()) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  final int getIdleWorkerCount() {
+    return parallelism - activeWorkers.get();
+  }
+
+  final void runWorker(WorkQueue q) {
+    currentWorkerQueue.set(q);
+    try {
+      int idleScans = 0;
+      for (; ; ) {
+        ForkJoinTask<?> task = nextTask(q);
+        if (task != null) {
+          task.doExec();
+          idleScans = 0;
+        } else if (++idleScans < IDLE_SCANS) {
+          Thread.yield();
+        } else {
+          q.owned.set(false);
+          activeWorkers.decrementAndGet();
+          // A task pushed while all slots were taken did not start a worker. Releasing the slot
+          // before this check guarantees that either the pusher saw the free slot or we see the
+          // task.
+          if (!hasQueuedTasks() || !q.owned.compareAndSet(false, true)) {
+            break;
+          }
+          activeWorkers.incrementAndGet();
+          idleScans = 0;
+        }
+      }
+    } finally {
+      currentWorkerQueue.remove();
+      tryTerminate();
+    }
+  }
+
+  private void tryTerminate() {
+    if (shutdown.get()
+        && termination.getCount() > 0
+        && activeWorkers.get() == 0
+        && !hasQueuedTasks()) {
+      termination.countDown();
+      executor.shutdown();
+    }
+  }
+
+  /**
+   * A deque of tasks, and the runnable that works it. The owning worker pushes and pops at the top
+   * while other workers poll at the base. Indexes grow monotonically and are masked by the array
+   * length, which is a power of two.
+   */
+  static final class WorkQueue extends J2ktMonitor implements Runnable {
+    final ForkJoinPool pool;
+
+    /** Index of this queue in the pool, or -1 for the submission queue. */
+    final int index;
+
+    /** Whether a worker currently runs this queue. Unused for the submission queue. */
+    final AtomicBoolean owned = new AtomicBoolean();
+
+    private @Nullable ForkJoinTask<?>[] array = new ForkJoinTask<?>[INITIAL_QUEUE_CAPACITY];
+
+    // Written under the monitor; read without it for emptiness checks.
+    private volatile int base;
+    private volatile int top;
+
+    WorkQueue(ForkJoinPool pool, int index) {
+      this.pool = pool;
+      this.index = index;
+    }
+
+    @Override
+    public void run() {
+      pool.runWorker(this);
+    }
+
+    boolean isEmpty() {
+      return top - base <= 0;
+    }
+
+    int queueSize() {
+      int n = top - base;
+      return n >= 0 ? n : 0;
+    }
+
+    void push(ForkJoinTask<?> task) {
+      synchronized (this) {
+        int t = top;
+        if (t - base == array.length) {
+          grow();
+        }
+        array[t & (array.length - 1)] = task;
+        top = t + 1;
+      }
+      pool.signalWork();
+    }
+
+    /** Takes the newest task. */
+    @Nullable ForkJoinTask<?> pop() {
+      if (isEmpty()) {
+        return null;
+      }
+      synchronized (this) {
+        int t = top - 1;
+        if (t - base < 0) {
+          return null;
+        }
+        int i = t & (array.length - 1);
+        ForkJoinTask<?> task = array[i];
+        array[i] = null;
+        top = t;
+        return task;
+      }
+    }
+
+    /** Takes the oldest task. */
+    @Nullable ForkJoinTask<?> poll() {
+      synchronized (this) {
+        int b = base;
+        if (top - b <= 0) {
+          return null;
+        }
+        int i = b & (array.length - 1);
+        ForkJoinTask<?> task = array[i];
+        array[i] = null;
+        base = b + 1;
+        return task;
+      }
+    }
+
+    /** Removes the given task if it is the newest one. */
+    boolean tryUnpush(ForkJoinTask<?> task) {
+      synchronized (this) {
+        int t = top - 1;
+        int i = t & (array.length - 1);
+        if (t - base < 0 || array[i] != task) {
+          return false;
+        }
+        array[i] = null;
+        top = t;
+        return true;
+      }
+    }
+
+    /**
+     * Removes the given task wherever it is in the queue. The search starts at the top, where a
+     * task that is joined by the worker that forked it usually is.
+     */
+    boolean tryRemove(ForkJoinTask<?> task) {
+      if (isEmpty()) {
+        return false;
+      }
+      synchronized (this) {
+        int mask = array.length - 1;
+        int b = base;
+        for (int t = top - 1; t - b >= 0; t--) {
+          if (array[t & mask] == task) {
+            int last = top - 1;
+            for (int j = t; j != last; j++) {
+              array[j & mask] = array[(j + 1) & mask];
+            }
+            array[last & mask] = null;
+            top = last;
+            return true;
+          }
+        }
+        return false;
+      }
+    }
+
+    void drainTo(List<ForkJoinTask<?>> tasks) {
+      for (ForkJoinTask<?> task; (task = poll()) != null; ) {
+        tasks.add(task);
+      }
+    }
+
+    private void grow() {
+      @Nullable ForkJoinTask<?>[] oldArray = array;
+      int oldMask = oldArray.length - 1;
+      @Nullable ForkJoinTask<?>[] newArray = new ForkJoinTask<?>[oldArray.length << 1];
+      int newMask = newArray.length - 1;
+      for (int i = base; i != top; i++) {
+        newArray[i & newMask] = oldArray[i & oldMask];
+      }
+      array = newArray;
+    }
+  }
+}
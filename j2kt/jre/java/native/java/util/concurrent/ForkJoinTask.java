@@ -0,0 +1,628 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package java.util.concurrent;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Abstract base class for tasks that run within a {@link ForkJoinPool}.
+ *
+ * <p>A task that is joined from a worker of its pool does not simply block: the joining worker
+ * first tries to run the task itself if it is still in its own queue, and otherwise keeps running
+ * other queued tasks until the joined task completes. Only when there is nothing left to help with
+ * does it park, re-scanning for new work periodically. Joins from threads outside of any pool run
+ * the task directly if it is still queued in the common pool, and otherwise block.
+ *
+ * @param <V> the type of the result of the task
+ */
+@NullMarked
+public abstract class ForkJoinTask<V extends @Nullable Object> implements Future<V> {
+
+  /*
+   * Run state transitions:
+   *   PENDING -> NORMAL
+   *   PENDING -> COMPLETING -> EXCEPTIONAL
+   *   PENDING -> CANCELLED
+   * A normal completion has no outcome of its own to publish (the result is held by subclasses),
+   * so only exceptional completion goes through the transient COMPLETING state.
+   */
+  private static final int PENDING = 0;
+  private static final int COMPLETING = 1;
+  private static final int NORMAL = 2;
+  private static final int EXCEPTIONAL = 3;
+  private static final int CANCELLED = 4;
+
+  /**
+   * Upper bound for a single park of a joining worker, after which it looks for tasks to help with
+   * again.
+   */
+  private static final long HELP_RESCAN_NANOS = 100_000L;
+
+  private final AtomicInteger status = new AtomicInteger(PENDING);
+
+  /** Exception thrown by the computation; protected by status reads/writes. */
+  private @Nullable Throwable exception;
+
+  /** Treiber stack of threads blocked in a join. */
+  private final AtomicReference<@Nullable WaitNode> waiters = new AtomicReference<>();
+
+  public ForkJoinTask() {}
+
+  /**
+   * Arranges to asynchronously execute this task in the pool the current task is running in, if
+   * applicable, or using the {@link ForkJoinPool#commonPool()} if not {@link #inForkJoinPool}.
+   *
+   * @return {@code this}, to simplify usage
+   */
+  public final ForkJoinTask<V> fork() {
+    ForkJoinPool.WorkQueue q = ForkJoinPool.currentQueue();
+    if (q != null) {
+      q.push(this);
+    } else {
+      ForkJoinPool.common.externalPush(this);
+    }
+    return this;
+  }
+
+  /**
+   * Returns the result of the computation when it is done. Abnormal completion results in a {@code
+   * RuntimeException} or {@code Error}, not an {@code ExecutionException}.
+   */
+  public final V join() {
+    int s = doJoin();
+    if (s != NORMAL) {
+      throw reportException(s);
+    }
+    return result();
+  }
+
+  /** Commences performing this task, awaits its completion if necessary, and returns its result. */
+  public final V invoke() {
+    int s = doInvoke();
+    if (s != NORMAL) {
+      throw reportException(s);
+    }
+    return result();
+  }
+
+  /**
+   * Forks the given tasks, returning when {@code isDone} holds for each task or an exception is
+   * encountered, in which case the exception is rethrown.
+   */
+  public static void invokeAll(ForkJoinTask<?> t1, ForkJoinTask<?> t2) {
+    t2.fork();
+    int s1 = t1.doInvoke();
+    if (s1 != NORMAL) {
+      t2.cancelIgnoringExceptions();
+      throw t1.reportException(s1);
+    }
+    int s2 = t2.doJoin();
+    if (s2 != NORMAL) {
+      throw t2.reportException(s2);
+    }
+  }
+
+  /**
+   * Forks the given tasks, returning when {@code isDone} holds for each task or an exception is
+   * encountered, in which case the exception is rethrown and the remaining tasks are cancelled.
+   */
+  public static void invokeAll(ForkJoinTask<?>... tasks) {
+    invokeAllInternal(Arrays.asList(tasks));
+  }
+
+  /**
+   * Forks all tasks in the specified collection, returning when {@code isDone} holds for each task
+   * or an exception is encountered.
+   *
+   * @return the tasks argument, to simplify usage
+   */
+  public static <T extends ForkJoinTask<?>> Collection<T> invokeAll(Collection<T> tasks) {
+    invokeAllInternal(tasks instanceof List ? (List<T>) tasks : new ArrayList<>(tasks));
+    return tasks;
+  }
+
+  private static void invokeAllInternal(List<? extends ForkJoinTask<?>> tasks) {
+    int last = tasks.size() - 1;
+    if (last < 0) {
+      return;
+    }
+    // Fork in reverse so that the tasks joined first are the ones at the top of the local queue.
+    for (int i = last; i > 0; i--) {
+      tasks.get(i).fork();
+    }
+    ForkJoinTask<?> first = tasks.get(0);
+    int s = first.doInvoke();
+    if (s != NORMAL) {
+      cancelAll(tasks, 1);
+      throw first.reportException(s);
+    }
+    for (int i = 1; i <= last; i++) {
+      ForkJoinTask<?> t = tasks.get(i);
+      s = t.doJoin();
+      if (s != NORMAL) {
+        cancelAll(tasks, i + 1);
+        throw t.reportException(s);
+      }
+    }
+  }
+
+  private static void cancelAll(List<? extends ForkJoinTask<?>> tasks, int from) {
+    for (int i = from; i < tasks.size(); i++) {
+      tasks.get(i).cancelIgnoringExceptions();
+    }
+  }
+
+  /**
+   * Attempts to cancel execution of this task. This fails if the task has already completed or
+   * started running; a running task is never interrupted.
+   */
+  @Override
+  public boolean cancel(boolean mayInterruptIfRunning) {
+    if (status.compareAndSet(PENDING, CANCELLED)) {
+      signalWaiters();
+    }
+    return status.get() == CANCELLED;
+  }
+
+  private void cancelIgnoringExceptions() {
+    try {
+      cancel(false);
+    } catch (Throwable ignored) {
+      // Cancellation is best effort when another task already failed.
+    }
+  }
+
+  @Override
+  public final boolean isDone() {
+    return status.get() > COMPLETING;
+  }
+
+  @Override
+  public final boolean isCancelled() {
+    return status.get() == CANCELLED;
+  }
+
+  /** Returns {@code true} if this task threw an exception or was cancelled. */
+  public final boolean isCompletedAbnormally() {
+    int s = status.get();
+    return s == EXCEPTIONAL || s == CANCELLED;
+  }
+
+  /**
+   * Returns {@code true} if this task completed without throwing an exception and was not
+   * cancelled.
+   */
+  public final boolean isCompletedNormally() {
+    return status.get() == NORMAL;
+  }
+
+  /**
+   * Returns the exception thrown by the base computation, or a {@code CancellationException} if
+   * cancelled, or {@code null} if none or if the method has not yet completed.
+   */
+  public final @Nullable Throwable getException() {
+    int s = status.get();
+    if (s == CANCELLED) {
+      return new CancellationException();
+    }
+    return s == EXCEPTIONAL ? exception : null;
+  }
+
+  /**
+   * Completes this task abnormally. Exceptions that are not unchecked are wrapped in a {@code
+   * RuntimeException}.
+   */
+  public void completeExceptionally(Throwable ex) {
+    setExceptionalCompletion(
+        (ex instanceof RuntimeException) || (ex instanceof Error) ? ex : new RuntimeException(ex));
+  }
+
+  /**
+   * Completes this task, and if not already aborted or cancelled, returning the given value as the
+   * result of subsequent invocations of {@code join} and related operations.
+   */
+  public void complete(V value) {
+    try {
+      setRawResult(value);
+    } catch (Throwable rex) {
+      setExceptionalCompletion(rex);
+      return;
+    }
+    setNormalCompletion();
+  }
+
+  /** Completes this task normally without setting a value. */
+  public final void quietlyComplete() {
+    setNormalCompletion();
+  }
+
+  @Override
+  public final V get() throws InterruptedException, ExecutionException {
+    int s = doJoin();
+    return reportGet(s);
+  }
+
+  @Override
+  public final V get(long timeout, TimeUnit unit)
+      throws InterruptedException, ExecutionException, TimeoutException {
+    long nanos = unit.toNanos(timeout);
+    int s = status.get();
+    if (s <= COMPLETING) {
+      s = awaitDone(ForkJoinPool.currentQueue(), true, nanos);
+    }
+    if (s <= COMPLETING) {
+      throw new TimeoutException();
+    }
+    return reportGet(s);
+  }
+
+  /** Joins this task, without returning its result or throwing its exception. */
+  public final void quietlyJoin() {
+    doJoin();
+  }
+
+  /**
+   * Commences performing this task and awaits its completion if necessary, without returning its
+   * result or throwing its exception.
+   */
+  public final void quietlyInvoke() {
+    doInvoke();
+  }
+
+  /**
+   * Tries to unschedule this task for execution. This succeeds if the task is the most recently
+   * forked task of the current worker and has not commenced executing.
+   */
+  public boolean tryUnfork() {
+    ForkJoinPool.WorkQueue q = ForkJoinPool.currentQueue();
+    return q != null && q.tryUnpush(this);
+  }
+
+  /**
+   * Possibly executes tasks until the pool hosting the current task is quiescent, that is, until
+   * no queued task is left for the current worker to run.
+   */
+  public static void helpQuiesce() {
+    ForkJoinPool.WorkQueue q = ForkJoinPool.currentQueue();
+    if (q != null) {
+      for (ForkJoinTask<?> t; (t = q.pool.nextTask(q)) != null; ) {
+        t.doExec();
+      }
+    }
+  }
+
+  /** Returns the pool hosting the current thread, or {@code null} if not in a pool. */
+  public static @Nullable ForkJoinPool getPool() {
+    ForkJoinPool.WorkQueue q = ForkJoinPool.currentQueue();
+    return q != null ? q.pool : null;
+  }
+
+  /** Returns {@code true} if the current thread is running as a {@link ForkJoinPool} worker. */
+  public static boolean inForkJoinPool() {
+    return ForkJoinPool.currentQueue() != null;
+  }
+
+  /**
+   * Returns an estimate of the number of tasks that have been forked by the current worker but not
+   * yet executed, or zero if not in a pool.
+   */
+  public static int getQueuedTaskCount() {
+    ForkJoinPool.WorkQueue q = ForkJoinPool.currentQueue();
+    return q != null ? q.queueSize() : 0;
+  }
+
+  /**
+   * Returns an estimate of how many more tasks are locally queued by the current worker than there
+   * are idle workers that might steal them, or zero if not in a pool.
+   */
+  public static int getSurplusQueuedTaskCount() {
+    ForkJoinPool.WorkQueue q = ForkJoinPool.currentQueue();
+    return q != null ? q.queueSize() - q.pool.getIdleWorkerCount() : 0;
+  }
+
+  /** Returns the result that would be returned by {@link #join}, or {@code null} if not done. */
+  public abstract @Nullable V getRawResult();
+
+  /** Forces the given value to be returned as a result. */
+  protected abstract void setRawResult(V value);
+
+  /**
+   * Immediately performs the base action of this task and returns {@code true} if, upon return
+   * from this method, this task is guaranteed to have completed normally.
+   */
+  protected abstract boolean exec();
+
+  /**
+   * Returns a new {@code ForkJoinTask} that performs the {@code run} method of the given action.
+   */
+  public static ForkJoinTask<?> adapt(Runnable runnable) {
+    return new AdaptedRunnable<@Nullable Void>(runnable, null);
+  }
+
+  /**
+   * Returns a new {@code ForkJoinTask} that performs the {@code run} method of the given action and
+   * returns the given result upon {@link #join}.
+   */
+  public static <T extends @Nullable Object> ForkJoinTask<T> adapt(Runnable runnable, T result) {
+    return new AdaptedRunnable<T>(runnable, result);
+  }
+
+  /**
+   * Returns a new {@code ForkJoinTask} that performs the {@code call} method of the given action
+   * and returns its result upon {@link #join}, translating checked exceptions into {@code
+   * RuntimeException}.
+   */
+  public static <T extends @Nullable Object> ForkJoinTask<T> adapt(Callable<? extends T> callable) {
+    return new AdaptedCallable<T>(callable);
+  }
+
+  // Internal execution and completion.
+
+  /** Runs this task if it is still pending and returns the resulting status. */
+  final int doExec() {
+    int s = status.get();
+    if (s == PENDING) {
+      boolean completed;
+      try {
+        completed = exec();
+      } catch (Throwable rex) {
+        return setExceptionalCompletion(rex);
+      }
+      if (completed) {
+        return setNormalCompletion();
+      }
+      s = status.get();
+    }
+    return s;
+  }
+
+  private int doInvoke() {
+    int s = doExec();
+    return s > COMPLETING ? s : awaitDone(ForkJoinPool.currentQueue(), false, 0L);
+  }
+
+  private int doJoin() {
+    int s = status.get();
+    if (s > COMPLETING) {
+      return s;
+    }
+    ForkJoinPool.WorkQueue q = ForkJoinPool.currentQueue();
+    if (q != null ? q.tryRemove(this) : ForkJoinPool.common.tryExternalRemove(this)) {
+      s = doExec();
+      if (s > COMPLETING) {
+        return s;
+      }
+    }
+    return awaitDone(q, false, 0L);
+  }
+
+  private int setNormalCompletion() {
+    if (status.compareAndSet(PENDING, NORMAL)) {
+      signalWaiters();
+      return NORMAL;
+    }
+    return awaitSettled();
+  }
+
+  private int setExceptionalCompletion(Throwable ex) {
+    if (trySetExceptionalCompletion(ex)) {
+      internalPropagateException(ex);
+      return EXCEPTIONAL;
+    }
+    return awaitSettled();
+  }
+
+  /** Completes this task with the given exception, without propagating it to completers. */
+  final boolean trySetExceptionalCompletion(Throwable ex) {
+    if (status.compareAndSet(PENDING, COMPLETING)) {
+      exception = ex;
+      status.set(EXCEPTIONAL);
+      signalWaiters();
+      return true;
+    }
+    return false;
+  }
+
+  /** Hook for exception propagation support for tasks with completers. */
+  void internalPropagateException(Throwable ex) {}
+
+  /** Returns the final status of a task that another thread is completing. */
+  private int awaitSettled() {
+    int s;
+    while ((s = status.get()) == COMPLETING) {
+      Thread.yield();
+    }
+    return s;
+  }
+
+  /**
+   * Awaits completion of this task. A worker keeps running tasks from its own queue and stolen ones
+   * while waiting; it parks only when it found nothing to do, and then only briefly, so that it
+   * notices work forked by the task it is waiting for.
+   *
+   * @param q the queue of the current worker, or {@code null} if not in a pool
+   * @return status upon completion or at timeout
+   */
+  private int awaitDone(ForkJoinPool.@Nullable WorkQueue q, boolean timed, long nanos) {
+    long deadline = timed ? System.nanoTime() + nanos : 0L;
+    WaitNode node = null;
+    boolean queued = false;
+    for (; ; ) {
+      int s = status.get();
+      if (s > COMPLETING) {
+        if (node != null) {
+          node.thread = null;
+        }
+        return s;
+      } else if (s == COMPLETING) {
+        Thread.yield();
+        continue;
+      }
+      if (q != null) {
+        ForkJoinTask<?> t = q.pool.nextTask(q);
+        if (t != null) {
+          t.doExec();
+          continue;
+        }
+      }
+      long remaining = 0L;
+      if (timed && (remaining = deadline - System.nanoTime()) <= 0L) {
+        if (node != null) {
+          node.thread = null;
+        }
+        return status.get();
+      }
+      if (node == null) {
+        node = new WaitNode();
+      } else if (!queued) {
+        queued = waiters.compareAndSet(node.next = waiters.get(), node);
+      } else if (q != null) {
+        LockSupport.parkNanos(
+            this, timed ? Math.min(remaining, HELP_RESCAN_NANOS) : HELP_RESCAN_NANOS);
+      } else if (timed) {
+        LockSupport.parkNanos(this, remaining);
+      } else {
+        LockSupport.park(this);
+      }
+    }
+  }
+
+  /** Removes and signals all waiting threads. */
+  private void signalWaiters() {
+    for (WaitNode q; (q = waiters.get()) != null; ) {
+      if (waiters.compareAndSet(q, null)) {
+        for (; ; ) {
+          Thread t = q.thread;
+          if (t != null) {
+            q.thread = null;
+            LockSupport.unpark(t);
+          }
+          WaitNode next = q.next;
+          if (next == null) {
+            break;
+          }
+          q.next = null; // unlink to help gc
+          q = next;
+        }
+        break;
+      }
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private V result() {
+    return (V) getRawResult();
+  }
+
+  private RuntimeException reportException(int s) {
+    if (s == CANCELLED) {
+      throw new CancellationException();
+    }
+    Throwable ex = exception;
+    if (ex instanceof Error) {
+      throw (Error) ex;
+    }
+    return ex instanceof RuntimeException ? (RuntimeException) ex : new RuntimeException(ex);
+  }
+
+  private V reportGet(int s) throws ExecutionException {
+    if (s == CANCELLED) {
+      throw new CancellationException();
+    }
+    if (s == EXCEPTIONAL) {
+      throw new ExecutionException(exception);
+    }
+    return result();
+  }
+
+  /** Simple linked list node to record waiting threads in a Treiber stack. */
+  private static final class WaitNode {
+    volatile @Nullable Thread thread;
+    volatile @Nullable WaitNode next;
+
+    WaitNode() {
+      thread = Thread.currentThread();
+    }
+  }
+
+  /** Adapter for Runnables, also used for tasks submitted through {@link Executor#execute}. */
+  static final class AdaptedRunnable<T extends @Nullable Object> extends ForkJoinTask<T> {
+    private final Runnable runnable;
+    private T result;
+
+    AdaptedRunnable(Runnable runnable, T result) {
+      this.runnable = runnable;
+      this.result = result;
+    }
+
+    @Override
+    public T getRawResult() {
+      return result;
+    }
+
+    @Override
+    protected void setRawResult(T value) {
+      result = value;
+    }
+
+    @Override
+    protected boolean exec() {
+      runnable.run();
+      return true;
+    }
+  }
+
+  /** Adapter for Callables. */
+  static final class AdaptedCallable<T extends @Nullable Object> extends ForkJoinTask<T> {
+    private final Callable<? extends T> callable;
+    private @Nullable T result;
+
+    AdaptedCallable(Callable<? extends T> callable) {
+      this.callable = callable;
+    }
+
+    @Override
+    public @Nullable T getRawResult() {
+      return result;
+    }
+
+    @Override
+    protected void setRawResult(T value) {
+      result = value;
+    }
+
+    @Override
+    protected boolean exec() {
+      try {
+        result = callable.call();
+        return true;
+      } catch (RuntimeException | Error e) {
+        throw e;
+      } catch (Exception e) {
+        throw new RuntimeException(e);
+      }
+    }
+  }
+}
@@ -36,6 +36,8 @@ public class KotlinExecutor implements ScheduledExecutorService {
 
   static native ScheduledExecutorService createScheduledExecutor(int threads);
 
+  static native ExecutorService createBlockingExecutor();
+
   @Override
   public native ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit);
 
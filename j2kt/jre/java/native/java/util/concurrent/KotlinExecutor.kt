@@ -13,6 +13,8 @@
  * License for the specific language governing permissions and limitations under
  * the License.
  */
+@file:OptIn(ExperimentalCoroutinesApi::class)
+
 package java.util.concurrent
 
 import java.lang.InterruptedException
@@ -21,40 +23,65 @@ import kotlin.concurrent.AtomicInt
 import kotlin.concurrent.AtomicReference
 import kotlin.jvm.Throws
 import kotlin.time.ComparableTimeMark
+import kotlin.time.Duration
 import kotlin.time.Duration.Companion.milliseconds
+import kotlin.time.Duration.Companion.nanoseconds
 import kotlin.time.TimeSource
 import kotlinx.coroutines.CompletableDeferred
 import kotlinx.coroutines.CoroutineDispatcher
 import kotlinx.coroutines.CoroutineScope
+import kotlinx.coroutines.Deferred
 import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.ExperimentalCoroutinesApi
+import kotlinx.coroutines.IO
+import kotlinx.coroutines.Job
 import kotlinx.coroutines.SupervisorJob
-import kotlinx.coroutines.TimeoutCancellationException
 import kotlinx.coroutines.async
 import kotlinx.coroutines.cancel
-import kotlinx.coroutines.delay
+import kotlinx.coroutines.channels.Channel
 import kotlinx.coroutines.launch
-import kotlinx.coroutines.runBlocking
-import kotlinx.coroutines.withTimeout
 import kotlinx.coroutines.withTimeoutOrNull
-import kotlinx.coroutines.yield
 
 /**
  * A [ScheduledExecutorService] that executes tasks on a [CoroutineDispatcher].
  *
  * @param dispatcher the dispatcher to execute tasks on.
+ * @param instrumented whether to record the statistics returned by [stats]. Executors without
+ *   instrumentation run tasks without wrapping them.
  */
 open class KotlinExecutor(
   private val dispatcher: CoroutineDispatcher,
   private val timeSource: TimeSource.WithComparableMarks = TimeSource.Monotonic,
+  instrumented: Boolean = false,
 ) : ScheduledExecutorService {
 
   private var isShutdown = AtomicReference(false)
+  private val instrumentation = if (instrumented) ExecutorInstrumentation(timeSource) else null
   private val supervisorJob = SupervisorJob()
   private val scope: CoroutineScope = CoroutineScope(dispatcher + supervisorJob)
 
+  // Scheduled tasks wait in a timing wheel driven by a single ticker coroutine, which is started by
+  // the first scheduled task. The ticker is not a child of the supervisor job, so that it does not
+  // keep the executor from terminating, and is canceled once the executor has terminated.
+  private val startTime = timeSource.markNow()
+  private val timingWheel = TimingWheel()
+  private val tickerWakeUp = Channel<Unit>(Channel.CONFLATED)
+  private val tickerJob = Job()
+  private val ticker: Job by lazy { CoroutineScope(dispatcher + tickerJob).launch { runTicker() } }
+
+  init {
+    supervisorJob.invokeOnCompletion { tickerJob.cancel() }
+  }
+
+  /**
+   * Returns a snapshot of the task counters and histograms of this executor, or null if it was
+   * created without instrumentation.
+   */
+  fun stats(): ExecutorStats? = instrumentation?.snapshot()
+
   override fun execute(command: Runnable) {
     checkNotShutdown()
-    scope.launch { command.run() }
+    launchTask { command.run() }
   }
 
   override fun <T> invokeAll(tasks: Collection<Callable<T>>): List<Future<T>> {
@@ -97,24 +124,20 @@ open class KotlinExecutor(
     val taskCount = AtomicInt(tasks.size)
     val allCompleted = CompletableDeferred<Boolean>()
     val list = tasks.map {
-      val task = scope.async { it.call() }
+      val task = asyncTask { it.call() }
       task.invokeOnCompletion({ if (taskCount.decrementAndGet() == 0) allCompleted.complete(true) })
       task
     }
-    return runBlocking {
-      if (timeout > 0) {
-        try {
-          withTimeout(unit.toMillis(timeout)) { allCompleted.await() }
-        } catch (e: TimeoutCancellationException) {
-          // Cancel all tasks, this has no effect if the task is already completed.
-          list.forEach { it.cancel() }
-        }
-      } else {
-        allCompleted.await()
+    if (timeout > 0) {
+      if (!allCompleted.parkUntilCompleted(unit.toNanos(timeout))) {
+        // Cancel all tasks, this has no effect if the task is already completed.
+        list.forEach { it.cancel() }
       }
-      // Return all completed tasks.
-      list.map { KotlinFuture(it) }
+    } else {
+      allCompleted.parkUntilCompleted()
     }
+    // Return all completed tasks.
+    return list.map { KotlinFuture(it) }
   }
 
   @Throws(ExecutionException::class)
@@ -159,35 +182,28 @@ open class KotlinExecutor(
     val taskCount = AtomicInt(tasks.size)
     val firstCompleted = CompletableDeferred<T>()
     val list = tasks.map {
-      scope.async {
+      asyncTask {
         try {
           firstCompleted.complete(it.call())
         } catch (e: Exception) {
           if (taskCount.decrementAndGet() == 0) {
             firstCompleted.completeExceptionally(ExecutionException(e))
           }
+          // Rethrow so that the failure is recorded. Nothing else observes this task.
+          throw e
         }
       }
     }
-    return runBlocking {
-      if (timeout > 0) {
-        try {
-          withTimeout(unit.toMillis(timeout)) {
-            val result = firstCompleted.await()
-            list.forEach { it.cancel() }
-            result
-          }
-        } catch (e: TimeoutCancellationException) {
-          list.forEach { it.cancel() }
-          throw TimeoutException("No task succeeded within timeout")
-        }
-      } else {
-        yield()
-        val result = firstCompleted.await()
+    if (timeout > 0) {
+      if (!firstCompleted.parkUntilCompleted(unit.toNanos(timeout))) {
         list.forEach { it.cancel() }
-        result
+        throw TimeoutException("No task succeeded within timeout")
       }
+    } else {
+      firstCompleted.parkUntilCompleted()
     }
+    list.forEach { it.cancel() }
+    return firstCompleted.getCompleted()
   }
 
   override fun isShutdown(): Boolean {
@@ -196,17 +212,11 @@ open class KotlinExecutor(
 
   @Throws(InterruptedException::class)
   override fun awaitTermination(timeout: Long, unit: TimeUnit): Boolean {
-    return runBlocking {
-      if (timeout <= 0) {
-        supervisorJob.join()
-        true
-      } else {
-        withTimeoutOrNull(unit.toMillis(timeout)) {
-          supervisorJob.join()
-          true
-        } ?: false
-      }
+    if (timeout <= 0) {
+      supervisorJob.parkUntilCompleted()
+      return true
     }
+    return supervisorJob.parkUntilCompleted(unit.toNanos(timeout))
   }
 
   override fun isTerminated(): Boolean {
@@ -242,13 +252,13 @@ open class KotlinExecutor(
 
   override fun submit(task: Runnable): Future<*> {
     checkNotShutdown()
-    return KotlinFuture<Unit>(scope.async { task.run() })
+    return KotlinFuture<Unit>(asyncTask { task.run() })
   }
 
   override fun <T> submit(task: Runnable, result: T): Future<T> {
     checkNotShutdown()
     return KotlinFuture<T>(
-      scope.async {
+      asyncTask {
         task.run()
         result
       }
@@ -257,7 +267,7 @@ open class KotlinExecutor(
 
   override fun <T> submit(task: Callable<T>): Future<T> {
     checkNotShutdown()
-    return KotlinFuture<T>(scope.async { task.call() })
+    return KotlinFuture<T>(asyncTask { task.call() })
   }
 
   override fun schedule(command: Runnable, delay: Long, unit: TimeUnit): ScheduledFuture<*> {
@@ -281,7 +291,7 @@ open class KotlinExecutor(
     if (period <= 0) {
       throw IllegalArgumentException("Period must be >= 0")
     }
-    return scheduleInternal(initialDelay, period, unit) { launch { command.run() } }
+    return scheduleInternal(initialDelay, period, unit, fixedRate = true) { command.run() }
   }
 
   override fun scheduleWithFixedDelay(
@@ -297,14 +307,17 @@ open class KotlinExecutor(
   }
 
   /**
-   * Schedules a task to run on the executor either once or periodically. Note that the block is
-   * executed in a coroutine, so if you add a delay in the block, it will delay the coroutine and
-   * induce lag before the next execution. This can be prevented by launching a new coroutine in the
-   * block.
+   * Schedules a task to run on the executor either once or periodically.
+   *
+   * Fixed-rate tasks are scheduled relative to the previous scheduled execution time, so they do
+   * not drift. If an execution takes longer than the period, the next one starts as soon as it
+   * completes. Executions of the same task never overlap.
    *
    * @param initialDelay the initial delay before the first execution of the task.
    * @param period the period between executions of the task (if 0, the task will only run once)
    * @param unit the time unit of the delay and period.
+   * @param fixedRate whether the period is measured between the starts of executions, rather than
+   *   from the end of one execution to the start of the next.
    * @param block the task to execute.
    * @return a [ScheduledFuture] representing pending completion of the task.
    */
@@ -312,32 +325,112 @@ open class KotlinExecutor(
     initialDelay: Long,
     period: Long,
     unit: TimeUnit,
-    block: suspend CoroutineScope.() -> T,
+    fixedRate: Boolean = false,
+    block: () -> T,
   ): ScheduledFuture<T> {
     checkNotShutdown()
-    val scheduledExecutionTime: AtomicReference<ComparableTimeMark> =
-      AtomicReference(timeSource.markNow() + unit.toMillis(initialDelay).milliseconds)
-    val task = scope.async {
-      if (initialDelay > 0L) {
-        delay(unit.toMillis(initialDelay))
+    val task =
+      ScheduledTask(
+        block,
+        unit.toNanos(period).nanoseconds,
+        fixedRate,
+        AtomicReference(timeSource.markNow() + unit.toMillis(initialDelay).milliseconds),
+      )
+    enqueue(task)
+    return KotlinDelayedFuture<T>(task.deferred, task.scheduledExecutionTime)
+  }
+
+  /**
+   * A task waiting in the [timingWheel]. Its [deferred] is a child of the supervisor job, so that
+   * pending tasks keep the executor from terminating and are canceled by [shutdownNow]. Each
+   * execution runs in a child coroutine of the [deferred], so a failing execution completes the
+   * task exceptionally.
+   */
+  private inner class ScheduledTask<T>(
+    private val block: () -> T,
+    private val period: Duration,
+    private val fixedRate: Boolean,
+    val scheduledExecutionTime: AtomicReference<ComparableTimeMark>,
+  ) : TimingWheel.Entry() {
+    val deferred = CompletableDeferred<T>(supervisorJob)
+
+    init {
+      // Canceling the future removes the task from the wheel right away.
+      deferred.invokeOnCompletion { timingWheel.remove(this) }
+    }
+
+    fun run() {
+      val record = instrumentation?.recordSubmitted()
+      val execution = CoroutineScope(dispatcher + deferred).launch {
+        if (isShutdown.value) {
+          // Accepted tasks that are still pending at shutdown are canceled, not rejected.
+          throw RejectedExecutionException("Executor is shutdown")
+        }
+        val result = if (record == null) block() else record.run(block)
+        if (period == Duration.ZERO) {
+          deferred.complete(result)
+        } else if (deferred.isActive) {
+          val previous = scheduledExecutionTime.value
+          scheduledExecutionTime.value =
+            (if (fixedRate) previous else timeSource.markNow()) + period
+          enqueue(this@ScheduledTask)
+        }
+      }
+      record?.let { execution.invokeOnCompletion { _ -> it.onCompletion() } }
+    }
+  }
+
+  /** Adds [task] to the timing wheel, or runs it right away if it is already due. */
+  private fun enqueue(task: ScheduledTask<*>) {
+    val delay = task.scheduledExecutionTime.value - startTime
+    // Round up so that tasks never run early.
+    val millis = delay.inWholeMilliseconds
+    task.deadline = if (delay > millis.milliseconds) millis + 1 else millis
+    when (timingWheel.add(task, nowMillis())) {
+      TimingWheel.AddResult.DUE -> task.run()
+      TimingWheel.AddResult.QUEUED_FIRST -> {
+        // Accessing the ticker starts it for the first task.
+        ticker.start()
+        tickerWakeUp.trySend(Unit)
       }
-      var result: T? = null
-      while (true) {
-        checkNotShutdown()
-        result = block()
-        if (period == 0L) {
-          // If period is 0, we should only run once.
-          break
+      TimingWheel.AddResult.QUEUED -> {}
+    }
+  }
+
+  /** Runs due tasks, sleeping until the next bucket of the wheel expires or a task is added. */
+  private suspend fun runTicker() {
+    val due = ArrayList<TimingWheel.Entry>()
+    while (true) {
+      val nextExpiration = timingWheel.poll(nowMillis(), due)
+      if (due.isNotEmpty()) {
+        due.forEach { (it as ScheduledTask<*>).run() }
+        due.clear()
+      } else if (nextExpiration == Long.MAX_VALUE) {
+        tickerWakeUp.receive()
+      } else {
+        withTimeoutOrNull(-(startTime + nextExpiration.milliseconds).elapsedNow()) {
+          tickerWakeUp.receive()
         }
-        scheduledExecutionTime.compareAndSet(
-          scheduledExecutionTime.value,
-          timeSource.markNow() + unit.toMillis(period).milliseconds,
-        )
-        delay(unit.toMillis(period))
       }
-      return@async result
     }
-    return KotlinDelayedFuture<T>(task, scheduledExecutionTime)
+  }
+
+  private fun nowMillis(): Long = startTime.elapsedNow().inWholeMilliseconds
+
+  /** Launches [block] in the executor's scope, recording it if the executor is instrumented. */
+  private inline fun launchTask(crossinline block: () -> Unit): Job {
+    val record = instrumentation?.recordSubmitted() ?: return scope.launch { block() }
+    val job = scope.launch { record.run { block() } }
+    job.invokeOnCompletion { record.onCompletion() }
+    return job
+  }
+
+  /** Like [launchTask], for tasks with a result. */
+  private inline fun <T> asyncTask(crossinline block: () -> T): Deferred<T> {
+    val record = instrumentation?.recordSubmitted() ?: return scope.async { block() }
+    val deferred = scope.async { record.run { block() } }
+    deferred.invokeOnCompletion { record.onCompletion() }
+    return deferred
   }
 
   /**
@@ -347,6 +440,7 @@ open class KotlinExecutor(
    */
   private fun checkNotShutdown() {
     if (isShutdown.value) {
+      instrumentation?.recordRejected()
       throw RejectedExecutionException("Executor is shutdown")
     }
   }
@@ -358,6 +452,13 @@ open class KotlinExecutor(
     internal fun createScheduledExecutor(threads: Int): ScheduledExecutorService =
       KotlinExecutor(Dispatchers.Default.limitedParallelism(threads))
 
+    /**
+     * Creates an executor for tasks that block, such as pool workers waiting on a queue. It is
+     * backed by an unbounded view of [Dispatchers.IO], so blocked tasks never starve each other.
+     */
+    internal fun createBlockingExecutor(): ExecutorService =
+      KotlinExecutor(Dispatchers.IO.limitedParallelism(Int.MAX_VALUE))
+
     fun createMainThreadExecutor(): ScheduledExecutorService = KotlinExecutor(Dispatchers.Main)
   }
 }
@@ -13,14 +13,19 @@
  * License for the specific language governing permissions and limitations under
  * the License.
  */
+@file:OptIn(ExperimentalCoroutinesApi::class)
 
 package java.util.concurrent
 
+import java.lang.Thread
+import java.util.concurrent.locks.LockSupport
 import kotlin.concurrent.AtomicReference
 import kotlin.coroutines.cancellation.CancellationException
+import kotlin.time.Duration.Companion.nanoseconds
+import kotlin.time.TimeSource
 import kotlinx.coroutines.Deferred
-import kotlinx.coroutines.runBlocking
-import kotlinx.coroutines.withTimeout
+import kotlinx.coroutines.ExperimentalCoroutinesApi
+import kotlinx.coroutines.Job
 
 /** A [Future] that wraps a [Deferred]. */
 internal open class KotlinFuture<T>(private val deferred: Deferred<T>) : Future<T> {
@@ -61,10 +66,50 @@ internal open class KotlinFuture<T>(private val deferred: Deferred<T>) : Future<
   }
 
   override fun get(): T {
-    return runBlocking { deferred.await() }
+    deferred.parkUntilCompleted()
+    return deferred.getCompleted()
   }
 
   override fun get(timeout: Long, unit: TimeUnit): T {
-    return runBlocking { withTimeout(unit.toMillis(timeout)) { deferred.await() } }
+    if (!deferred.parkUntilCompleted(unit.toNanos(timeout))) {
+      throw TimeoutException()
+    }
+    return deferred.getCompleted()
+  }
+}
+
+/**
+ * Blocks the current thread until this job is complete, or until [timeoutNanos] have elapsed if
+ * given. Returns whether the job completed.
+ *
+ * The thread is parked and unparked by a completion handler. This is much cheaper than starting a
+ * `runBlocking` event loop just to await the job.
+ */
+internal fun Job.parkUntilCompleted(timeoutNanos: Long? = null): Boolean {
+  if (isCompleted) {
+    return true
+  }
+  val thread = Thread.currentThread()
+  // The handler may still run after we stopped waiting; the stray permit only causes a spurious
+  // return from a later park, which callers of park must tolerate anyway.
+  val handle = invokeOnCompletion { LockSupport.unpark(thread) }
+  try {
+    if (timeoutNanos == null) {
+      while (!isCompleted) {
+        LockSupport.park(this)
+      }
+      return true
+    }
+    val deadline = TimeSource.Monotonic.markNow() + timeoutNanos.nanoseconds
+    while (!isCompleted) {
+      val remaining = -deadline.elapsedNow()
+      if (!remaining.isPositive()) {
+        return false
+      }
+      LockSupport.parkNanos(this, remaining.inWholeNanoseconds)
+    }
+    return true
+  } finally {
+    handle.dispose()
   }
 }
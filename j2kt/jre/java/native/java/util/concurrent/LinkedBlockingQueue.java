@@ -357,6 +357,59 @@ public class LinkedBlockingQueue<E> extends AbstractQueue<E>
     return c >= 0;
   }
 
+  /**
+   * Adds all of the elements in the specified collection to this queue, in traversal order of the
+   * collection's iterator. The nodes are linked before taking the put lock, which is then taken
+   * once for the whole batch, and waiting takers are signalled at most once.
+   *
+   * @param c collection containing elements to be added to this queue
+   * @return {@code true} if this queue changed as a result of the call
+   * @throws IllegalStateException if not all the elements can be added due to capacity
+   *     restrictions. The elements that fit have been added.
+   * @throws NullPointerException if the specified collection or any of its elements are null
+   * @throws IllegalArgumentException if the collection is this queue
+   */
+  public boolean addAll(Collection<? extends E> c) {
+    if (c == this) throw new IllegalArgumentException();
+    Node<E> first = null;
+    Node<E> tail = null;
+    int n = 0;
+    for (E e : c) {
+      if (e == null) throw new NullPointerException();
+      Node<E> node = new Node<E>(e);
+      if (tail == null) first = node;
+      else tail.next = node;
+      tail = node;
+      ++n;
+    }
+    if (n == 0) return false;
+    int added = 0;
+    int oldCount = -1;
+    final ReentrantLock putLock = this.putLock;
+    final AtomicInteger count = this.count;
+    putLock.lock();
+    try {
+      added = Math.min(n, capacity - count.get());
+      if (added > 0) {
+        if (added < n) {
+          // Cut the chain after the last node that fits.
+          tail = first;
+          for (int i = 1; i < added; i++) tail = tail.next;
+          tail.next = null;
+        }
+        last.next = first;
+        last = tail;
+        oldCount = count.getAndAdd(added);
+        if (oldCount + added < capacity) notFull.signal();
+      }
+    } finally {
+      putLock.unlock();
+    }
+    if (oldCount == 0) signalNotEmpty();
+    if (added < n) throw new IllegalStateException("Queue full");
+    return true;
+  }
+
   public E take() throws InterruptedException {
     E x;
     int c = -1;
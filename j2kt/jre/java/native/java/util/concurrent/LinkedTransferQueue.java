@@ -0,0 +1,906 @@
+/*
+ * Written by Doug Lea with assistance from members of JCP JSR-166
+ * Expert Group and released to the public domain, as explained at
+ * http://creativecommons.org/publicdomain/zero/1.0/
+ */
+
+package java.util.concurrent;
+
+import java.util.AbstractQueue;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+// J2kt-native: based on the JDK 8 version. Fields updated with Unsafe in the JDK are atomics here,
+// and spinning waiters yield periodically instead of at random. J2KT threads cannot be interrupted,
+// so blocking operations only end by being matched or by timing out. Serialization and spliterator
+// support are omitted.
+
+/**
+ * An unbounded {@link TransferQueue} based on linked nodes. This queue orders elements FIFO
+ * (first-in-first-out) with respect to any given producer. The <em>head</em> of the queue is that
+ * element that has been on the queue the longest time for some producer. The <em>tail</em> of the
+ * queue is that element that has been on the queue the shortest time for some producer.
+ *
+ * <p>Beware that, unlike in most collections, the {@code size} method is <em>NOT</em> a
+ * constant-time operation. Because of the asynchronous nature of these queues, determining the
+ * current number of elements requires a traversal of the elements, and so may report inaccurate
+ * results if this collection is modified during traversal. Additionally, the bulk operations
+ * {@code addAll}, {@code removeAll}, {@code retainAll}, {@code containsAll}, {@code equals}, and
+ * {@code toArray} are <em>not</em> guaranteed to be performed atomically.
+ *
+ * <p>Memory consistency effects: As with other concurrent collections, actions in a thread prior
+ * to placing an object into a {@code LinkedTransferQueue} <i>happen-before</i> actions subsequent
+ * to the access or removal of that element from the {@code LinkedTransferQueue} in another thread.
+ *
+ * @since 1.7
+ * @author Doug Lea
+ * @param <E> the type of elements held in this collection
+ */
+@NullMarked
+public class LinkedTransferQueue<E> extends AbstractQueue<E>
+    implements TransferQueue<E>, java.io.Serializable {
+
+  /*
+   * *** Overview of Dual Queues with Slack ***
+   *
+   * Dual Queues, introduced by Scherer and Scott
+   * (http://www.cs.rice.edu/~wns1/papers/2004-DISC-DDS.pdf) are
+   * (linked) queues in which nodes may represent either data or
+   * requests.  When a thread tries to enqueue a data node, but
+   * encounters a request node, it instead "matches" and removes it;
+   * and vice versa for enqueuing requests. Blocking Dual Queues
+   * arrange that threads enqueuing unmatched requests block until
+   * other threads provide the match. Dual Synchronous Queues (see
+   * Scherer, Lea, & Scott
+   * http://www.cs.rochester.edu/u/scott/papers/2009_Scherer_CACM_SSQ.pdf)
+   * additionally arrange that threads enqueuing unmatched data also
+   * block.  Dual Transfer Queues support all of these modes, as
+   * dictated by callers.
+   *
+   * A FIFO dual queue may be implemented using a variation of the
+   * Michael & Scott (M&S) lock-free queue algorithm. It maintains
+   * two pointer fields, "head", pointing to a (matched) node that in
+   * turn points to the first actual (unmatched) queue node (or null
+   * if empty); and "tail" that points to the last node on the queue
+   * (or again null if empty).
+   *
+   * Unlike the M&S algorithm, the head and tail are allowed to lag
+   * behind the first and last unmatched nodes ("slack"), so that not
+   * every operation has to CAS them. A slack threshold of two is
+   * used: head and tail are updated only when they are two or more
+   * nodes away from the first/last node.
+   *
+   * Matched nodes are removed from the list by self-linking their
+   * next field ("forgetNext"). Cancelled or removed interior nodes
+   * are unspliced by their predecessors, and a periodic sweep cleans
+   * up nodes that could not be unspliced at the time.
+   *
+   * Waiting threads spin for a while near the front of the queue
+   * before parking, since a match is likely to arrive soon there.
+   */
+
+  /** True if on multiprocessor */
+  private static final boolean MP = Runtime.getRuntime().availableProcessors() > 1;
+
+  /**
+   * The number of times to spin (with periodic yields) before blocking when a node is apparently
+   * the first waiter in the queue.
+   */
+  private static final int FRONT_SPINS = 1 << 7;
+
+  /**
+   * The number of times to spin before blocking when a node is preceded by another node that is
+   * apparently spinning. Also serves as an increment to FRONT_SPINS on phase changes, and as the
+   * interval between yields while spinning.
+   */
+  private static final int CHAINED_SPINS = FRONT_SPINS >>> 1;
+
+  /**
+   * The maximum number of estimated removal failures (sweepVotes) to tolerate before sweeping
+   * through the queue unlinking cancelled nodes that were not unlinked upon initial removal.
+   */
+  static final int SWEEP_THRESHOLD = 32;
+
+  /**
+   * Queue nodes. Uses Object, not E, for items to allow forgetting them after use. Relies heavily
+   * on atomics for the item and next fields, and on volatile writes for the waiter.
+   */
+  static final class Node {
+    final boolean isData; // false if this is a request node
+
+    /** Initially non-null if isData; CASed to match, and to this node when cancelled. */
+    final AtomicReference<@Nullable Object> item;
+
+    final AtomicReference<@Nullable Node> next = new AtomicReference<>();
+
+    volatile @Nullable Thread waiter; // null until waiting
+
+    /** Constructs a new node. */
+    Node(@Nullable Object item, boolean isData) {
+      this.item = new AtomicReference<>(item);
+      this.isData = isData;
+    }
+
+    boolean casNext(@Nullable Node cmp, @Nullable Node val) {
+      return next.compareAndSet(cmp, val);
+    }
+
+    boolean casItem(@Nullable Object cmp, @Nullable Object val) {
+      return item.compareAndSet(cmp, val);
+    }
+
+    /** Links node to itself to avoid garbage retention. Called only after CASing head field. */
+    void forgetNext() {
+      next.lazySet(this);
+    }
+
+    /**
+     * Sets item to self and waiter to null, to avoid garbage retention after matching or
+     * cancelling.
+     */
+    void forgetContents() {
+      item.lazySet(this);
+      waiter = null;
+    }
+
+    /**
+     * Returns true if this node has been matched, including the case of artificial matches due to
+     * cancellation.
+     */
+    boolean isMatched() {
+      Object x = item.get();
+      return (x == this) || ((x == null) == isData);
+    }
+
+    /**
+     * Returns true if a node with the given mode cannot be appended to this node because this node
+     * is unmatched and has opposite data mode.
+     */
+    boolean cannotPrecede(boolean haveData) {
+      boolean d = isData;
+      Object x;
+      return d != haveData && (x = item.get()) != this && (x != null) == d;
+    }
+
+    /**
+     * Tries to artificially match a data node -- used by remove.
+     *
+     * @return true if successful
+     */
+    boolean tryMatchData() {
+      // assert isData;
+      Object x = item.get();
+      if (x != null && x != this && casItem(x, null)) {
+        LockSupport.unpark(waiter);
+        return true;
+      }
+      return false;
+    }
+  }
+
+  /** head of the queue; null until first enqueue */
+  final AtomicReference<@Nullable Node> head = new AtomicReference<>();
+
+  /** tail of the queue; null until first append */
+  private final AtomicReference<@Nullable Node> tail = new AtomicReference<>();
+
+  /** The number of apparent failures to unsplice removed nodes */
+  private final AtomicInteger sweepVotes = new AtomicInteger();
+
+  /*
+   * Possible values for "how" argument in xfer method.
+   */
+  private static final int NOW = 0; // for untimed poll, tryTransfer
+  private static final int ASYNC = 1; // for offer, put, add
+  private static final int SYNC = 2; // for transfer, take
+  private static final int TIMED = 3; // for timed poll, tryTransfer
+
+  @SuppressWarnings("unchecked")
+  static <E> @Nullable E cast(@Nullable Object item) {
+    // assert item == null || item.getClass() != Node.class;
+    return (E) item;
+  }
+
+  /**
+   * Implements all queuing methods. See above for explanation.
+   *
+   * @param e the item or null for take
+   * @param haveData true if this is a put, else a take
+   * @param how NOW, ASYNC, SYNC, or TIMED
+   * @param nanos timeout in nanosecs, used only if mode is TIMED
+   * @return an item if matched, else e
+   * @throws NullPointerException if haveData mode but e is null
+   */
+  private @Nullable E xfer(@Nullable E e, boolean haveData, int how, long nanos) {
+    if (haveData && (e == null)) {
+      throw new NullPointerException();
+    }
+    Node s = null; // the node to append, if needed
+
+    for (; ; ) { // restart on append race
+
+      for (Node h = head.get(), p = h; p != null; ) { // find & match first node
+        boolean isData = p.isData;
+        Object item = p.item.get();
+        if (item != p && (item != null) == isData) { // unmatched
+          if (isData == haveData) { // can't match
+            break;
+          }
+          if (p.casItem(item, e)) { // match
+            for (Node q = p; q != h; ) {
+              Node n = q.next.get(); // update by 2 unless singleton
+              if (head.get() == h && head.compareAndSet(h, n == null ? q : n)) {
+                h.forgetNext();
+                break;
+              } // advance and retry
+              if ((h = head.get()) == null || (q = h.next.get()) == null || !q.isMatched()) {
+                break; // unless slack < 2
+              }
+            }
+            LockSupport.unpark(p.waiter);
+            return LinkedTransferQueue.<E>cast(item);
+          }
+        }
+        Node n = p.next.get();
+        p = (p != n) ? n : (h = head.get()); // Use head if p offlist
+      }
+
+      if (how != NOW) { // No matches available
+        if (s == null) {
+          s = new Node(e, haveData);
+        }
+        Node pred = tryAppend(s, haveData);
+        if (pred == null) {
+          continue; // lost race vs opposite mode
+        }
+        if (how != ASYNC) {
+          return awaitMatch(s, pred, e, (how == TIMED), nanos);
+        }
+      }
+      return e; // not waiting
+    }
+  }
+
+  /**
+   * Tries to append node s as tail.
+   *
+   * @param s the node to append
+   * @param haveData true if appending in data mode
+   * @return null on failure due to losing race with append in different mode, else s's
+   *     predecessor, or s itself if no predecessor
+   */
+  private @Nullable Node tryAppend(Node s, boolean haveData) {
+    for (Node t = tail.get(), p = t; ; ) { // move p to last node and append
+      Node n; // temps for reads of next & tail
+      Node u;
+      if (p == null && (p = head.get()) == null) {
+        if (head.compareAndSet(null, s)) {
+          return s; // initialize
+        }
+      } else if (p.cannotPrecede(haveData)) {
+        return null; // lost race vs opposite mode
+      } else if ((n = p.next.get()) != null) { // not last; keep traversing
+        p =
+            p != t && t != (u = tail.get())
+                ? (t = u) // stale tail
+                : (p != n) ? n : null; // restart if off list
+      } else if (!p.casNext(null, s)) {
+        p = p.next.get(); // re-read on CAS failure
+      } else {
+        if (p != t) { // update if slack now >= 2
+          Node q = s;
+          while ((tail.get() != t || !tail.compareAndSet(t, q))
+              && (t = tail.get()) != null
+              && (q = t.next.get()) != null // advance and retry
+              && (q = q.next.get()) != null
+              && q != t) {}
+        }
+        return p;
+      }
+    }
+  }
+
+  /**
+   * Spins/yields/blocks until node s is matched or caller gives up.
+   *
+   * @param s the waiting node
+   * @param pred the predecessor of s, or s itself if it has no predecessor, or null if unknown (the
+   *     null case does not occur in any current calls but may in possible future extensions)
+   * @param e the comparison value for checking match
+   * @param timed if true, wait only until timeout elapses
+   * @param nanos timeout in nanosecs, used only if timed is true
+   * @return matched item, or e if unmatched on timeout
+   */
+  private @Nullable E awaitMatch(
+      Node s, @Nullable Node pred, @Nullable E e, boolean timed, long nanos) {
+    final long deadline = timed ? System.nanoTime() + nanos : 0L;
+    Thread w = Thread.currentThread();
+    int spins = -1; // initialized after first item and cancel checks
+
+    for (; ; ) {
+      Object item = s.item.get();
+      if (item != e) { // matched
+        // assert item != s;
+        s.forgetContents(); // avoid garbage
+        return LinkedTransferQueue.<E>cast(item);
+      }
+      if (timed && nanos <= 0 && s.casItem(e, s)) { // cancel
+        unsplice(pred, s);
+        return e;
+      }
+
+      if (spins < 0) { // establish spins at/near front
+        spins = spinsFor(pred, s.isData);
+      } else if (spins > 0) { // spin
+        --spins;
+        if ((spins & (CHAINED_SPINS - 1)) == 0) {
+          Thread.yield(); // occasionally yield
+        }
+      } else if (s.waiter == null) {
+        s.waiter = w; // request unpark then recheck
+      } else if (timed) {
+        nanos = deadline - System.nanoTime();
+        if (nanos > 0L) {
+          LockSupport.parkNanos(this, nanos);
+        }
+      } else {
+        LockSupport.park(this);
+      }
+    }
+  }
+
+  /** Returns spin/yield value for a node with given predecessor and data mode. */
+  private static int spinsFor(@Nullable Node pred, boolean haveData) {
+    if (MP && pred != null) {
+      if (pred.isData != haveData) { // phase change
+        return FRONT_SPINS + CHAINED_SPINS;
+      }
+      if (pred.isMatched()) { // probably at front
+        return FRONT_SPINS;
+      }
+      if (pred.waiter == null) { // pred apparently spinning
+        return CHAINED_SPINS;
+      }
+    }
+    return 0;
+  }
+
+  /* -------------- Traversal methods -------------- */
+
+  /**
+   * Returns the successor of p, or the head node if p.next has been linked to self, which will
+   * only be true if traversing with a stale pointer that is now off the list.
+   */
+  final @Nullable Node succ(Node p) {
+    Node next = p.next.get();
+    return (p == next) ? head.get() : next;
+  }
+
+  /**
+   * Returns the first unmatched node of the given mode, or null if none. Used by methods
+   * isEmpty, hasWaitingConsumer.
+   */
+  private @Nullable Node firstOfMode(boolean isData) {
+    for (Node p = head.get(); p != null; p = succ(p)) {
+      if (!p.isMatched()) {
+        return (p.isData == isData) ? p : null;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Returns the item in the first unmatched node with isData; or null if none. Used by peek.
+   */
+  private @Nullable E firstDataItem() {
+    for (Node p = head.get(); p != null; p = succ(p)) {
+      Object item = p.item.get();
+      if (p.isData) {
+        if (item != null && item != p) {
+          return LinkedTransferQueue.<E>cast(item);
+        }
+      } else if (item == null) {
+        return null;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Traverses and counts unmatched nodes of the given mode. Used by methods size and
+   * getWaitingConsumerCount.
+   */
+  private int countOfMode(boolean data) {
+    int count = 0;
+    for (Node p = head.get(); p != null; ) {
+      if (!p.isMatched()) {
+        if (p.isData != data) {
+          return 0;
+        }
+        if (++count == Integer.MAX_VALUE) { // saturated
+          break;
+        }
+      }
+      Node n = p.next.get();
+      if (n != p) {
+        p = n;
+      } else {
+        count = 0;
+        p = head.get();
+      }
+    }
+    return count;
+  }
+
+  final class Itr implements Iterator<E> {
+    private @Nullable Node nextNode; // next node to return item for
+    private @Nullable E nextItem; // the corresponding item
+    private @Nullable Node lastRet; // last returned node, to support remove
+    private @Nullable Node lastPred; // predecessor to unlink lastRet
+
+    /** Moves to next node after prev, or first node if prev null. */
+    private void advance(@Nullable Node prev) {
+      /*
+       * To track and avoid buildup of deleted nodes in the face
+       * of calls to both Queue.remove and Itr.remove, we must
+       * include variants of unsplice and sweep upon each
+       * advance: Upon Itr.remove, we may need to catch up links
+       * from lastPred, and upon other removes, we might need to
+       * skip ahead from stale nodes and unsplice deleted ones
+       * found while advancing.
+       */
+
+      Node r;
+      Node b; // reset lastPred upon possible deletion of lastRet
+      if ((r = lastRet) != null && !r.isMatched()) {
+        lastPred = r; // next lastPred is old lastRet
+      } else if ((b = lastPred) == null || b.isMatched()) {
+        lastPred = null; // at start of list
+      } else {
+        Node s;
+        Node n; // help with removal of lastPred.next
+        while ((s = b.next.get()) != null
+            && s != b
+            && s.isMatched()
+            && (n = s.next.get()) != null
+            && n != s) {
+          b.casNext(s, n);
+        }
+      }
+
+      this.lastRet = prev;
+
+      for (Node p = prev, s, n; ; ) {
+        s = (p == null) ? head.get() : p.next.get();
+        if (s == null) {
+          break;
+        } else if (s == p) {
+          p = null;
+          continue;
+        }
+        Object item = s.item.get();
+        if (s.isData) {
+          if (item != null && item != s) {
+            nextItem = LinkedTransferQueue.<E>cast(item);
+            nextNode = s;
+            return;
+          }
+        } else if (item == null) {
+          break;
+        }
+        // assert s.isMatched();
+        if (p == null) {
+          p = s;
+        } else if ((n = s.next.get()) == null) {
+          break;
+        } else if (s == n) {
+          p = null;
+        } else {
+          p.casNext(s, n);
+        }
+      }
+      nextNode = null;
+      nextItem = null;
+    }
+
+    Itr() {
+      advance(null);
+    }
+
+    @Override
+    public final boolean hasNext() {
+      return nextNode != null;
+    }
+
+    @Override
+    public final E next() {
+      Node p = nextNode;
+      if (p == null) {
+        throw new NoSuchElementException();
+      }
+      E e = nextItem;
+      advance(p);
+      return e;
+    }
+
+    @Override
+    public final void remove() {
+      final Node lastRet = this.lastRet;
+      if (lastRet == null) {
+        throw new IllegalStateException();
+      }
+      this.lastRet = null;
+      if (lastRet.tryMatchData()) {
+        unsplice(lastPred, lastRet);
+      }
+    }
+  }
+
+  /* -------------- Removal methods -------------- */
+
+  /**
+   * Unsplices (now or later) the given deleted/cancelled node with the given predecessor.
+   *
+   * @param pred a node that was at one time known to be the predecessor of s, or null or s itself
+   *     if s is/was at head
+   * @param s the node to be unspliced
+   */
+  final void unsplice(@Nullable Node pred, Node s) {
+    s.waiter = null; // disable signals
+    /*
+     * See above for rationale. Briefly: if pred still points to
+     * s, try to unlink s.  If s cannot be unlinked, because it is
+     * trailing node or pred might be unlinked, and neither pred
+     * nor s are head or offlist, add to sweepVotes, and if enough
+     * votes have accumulated, sweep.
+     */
+    if (pred != null && pred != s && pred.next.get() == s) {
+      Node n = s.next.get();
+      if (n == null || (n != s && pred.casNext(s, n) && pred.isMatched())) {
+        for (; ; ) { // check if at, or could be, head
+          Node h = head.get();
+          if (h == pred || h == s || h == null) {
+            return; // at head or list empty
+          }
+          if (!h.isMatched()) {
+            break;
+          }
+          Node hn = h.next.get();
+          if (hn == null) {
+            return; // now empty
+          }
+          if (hn != h && head.compareAndSet(h, hn)) {
+            h.forgetNext(); // advance head
+          }
+        }
+        if (pred.next.get() != pred && s.next.get() != s) { // recheck if offlist
+          for (; ; ) { // sweep now if enough votes
+            int v = sweepVotes.get();
+            if (v < SWEEP_THRESHOLD) {
+              if (sweepVotes.compareAndSet(v, v + 1)) {
+                break;
+              }
+            } else if (sweepVotes.compareAndSet(v, 0)) {
+              sweep();
+              break;
+            }
+          }
+        }
+      }
+    }
+  }
+
+  /** Unlinks matched (typically cancelled) nodes encountered in a traversal from head. */
+  private void sweep() {
+    for (Node p = head.get(), s, n; p != null && (s = p.next.get()) != null; ) {
+      if (!s.isMatched()) {
+        // Unmatched nodes are never self-linked
+        p = s;
+      } else if ((n = s.next.get()) == null) { // trailing node is pinned
+        break;
+      } else if (s == n) { // stale
+        // No need to also check for p == s, since that implies s == n
+        p = head.get();
+      } else {
+        p.casNext(s, n);
+      }
+    }
+  }
+
+  /** Main implementation of remove(Object) */
+  private boolean findAndRemove(@Nullable Object e) {
+    if (e != null) {
+      for (Node pred = null, p = head.get(); p != null; ) {
+        Object item = p.item.get();
+        if (p.isData) {
+          if (item != null && item != p && e.equals(item) && p.tryMatchData()) {
+            unsplice(pred, p);
+            return true;
+          }
+        } else if (item == null) {
+          break;
+        }
+        pred = p;
+        if ((p = p.next.get()) == pred) { // stale
+          pred = null;
+          p = head.get();
+        }
+      }
+    }
+    return false;
+  }
+
+  /** Creates an initially empty {@code LinkedTransferQueue}. */
+  public LinkedTransferQueue() {}
+
+  /**
+   * Creates a {@code LinkedTransferQueue} initially containing the elements of the given
+   * collection, added in traversal order of the collection's iterator.
+   *
+   * @param c the collection of elements to initially contain
+   * @throws NullPointerException if the specified collection or any of its elements are null
+   */
+  public LinkedTransferQueue(Collection<? extends E> c) {
+    this();
+    addAll(c);
+  }
+
+  /**
+   * Inserts the specified element at the tail of this queue. As the queue is unbounded, this
+   * method will never block.
+   *
+   * @throws NullPointerException if the specified element is null
+   */
+  @Override
+  public void put(E e) {
+    xfer(e, true, ASYNC, 0);
+  }
+
+  /**
+   * Inserts the specified element at the tail of this queue. As the queue is unbounded, this
+   * method will never block or return {@code false}.
+   *
+   * @return {@code true} (as specified by {@link BlockingQueue#offer(Object,long,TimeUnit)
+   *     BlockingQueue.offer})
+   * @throws NullPointerException if the specified element is null
+   */
+  @Override
+  public boolean offer(E e, long timeout, TimeUnit unit) {
+    xfer(e, true, ASYNC, 0);
+    return true;
+  }
+
+  /**
+   * Inserts the specified element at the tail of this queue. As the queue is unbounded, this
+   * method will never return {@code false}.
+   *
+   * @return {@code true} (as specified by {@link Queue#offer})
+   * @throws NullPointerException if the specified element is null
+   */
+  @Override
+  public boolean offer(E e) {
+    xfer(e, true, ASYNC, 0);
+    return true;
+  }
+
+  /**
+   * Inserts the specified element at the tail of this queue. As the queue is unbounded, this
+   * method will never throw {@link IllegalStateException} or return {@code false}.
+   *
+   * @return {@code true} (as specified by {@link Collection#add})
+   * @throws NullPointerException if the specified element is null
+   */
+  @Override
+  public boolean add(E e) {
+    xfer(e, true, ASYNC, 0);
+    return true;
+  }
+
+  /**
+   * Transfers the element to a waiting consumer immediately, if possible.
+   *
+   * <p>More precisely, transfers the specified element immediately if there exists a consumer
+   * already waiting to receive it (in {@link #take} or timed {@link #poll(long,TimeUnit) poll}),
+   * otherwise returning {@code false} without enqueuing the element.
+   *
+   * @throws NullPointerException if the specified element is null
+   */
+  @Override
+  public boolean tryTransfer(E e) {
+    return xfer(e, true, NOW, 0) == null;
+  }
+
+  /**
+   * Transfers the element to a consumer, waiting if necessary to do so.
+   *
+   * <p>More precisely, transfers the specified element immediately if there exists a consumer
+   * already waiting to receive it (in {@link #take} or timed {@link #poll(long,TimeUnit) poll}),
+   * else inserts the specified element at the tail of this queue and waits until the element is
+   * received by a consumer.
+   *
+   * @throws NullPointerException if the specified element is null
+   */
+  @Override
+  public void transfer(E e) throws InterruptedException {
+    if (xfer(e, true, SYNC, 0) != null) {
+      throw new AssertionError(); // untimed transfers only return once matched
+    }
+  }
+
+  /**
+   * Transfers the element to a consumer if it is possible to do so before the timeout elapses.
+   *
+   * <p>More precisely, transfers the specified element immediately if there exists a consumer
+   * already waiting to receive it (in {@link #take} or timed {@link #poll(long,TimeUnit) poll}),
+   * else inserts the specified element at the tail of this queue and waits until the element is
+   * received by a consumer, returning {@code false} if the specified wait time elapses before the
+   * element can be transferred.
+   *
+   * @throws NullPointerException if the specified element is null
+   */
+  @Override
+  public boolean tryTransfer(E e, long timeout, TimeUnit unit) throws InterruptedException {
+    return xfer(e, true, TIMED, unit.toNanos(timeout)) == null;
+  }
+
+  @Override
+  public E take() throws InterruptedException {
+    E e = xfer(null, false, SYNC, 0);
+    if (e == null) {
+      throw new AssertionError(); // untimed takes only return once matched
+    }
+    return e;
+  }
+
+  @Override
+  public @Nullable E poll(long timeout, TimeUnit unit) throws InterruptedException {
+    return xfer(null, false, TIMED, unit.toNanos(timeout));
+  }
+
+  @Override
+  public @Nullable E poll() {
+    return xfer(null, false, NOW, 0);
+  }
+
+  /**
+   * @throws NullPointerException {@inheritDoc}
+   * @throws IllegalArgumentException {@inheritDoc}
+   */
+  @Override
+  public int drainTo(Collection<? super E> c) {
+    return drainTo(c, Integer.MAX_VALUE);
+  }
+
+  /**
+   * @throws NullPointerException {@inheritDoc}
+   * @throws IllegalArgumentException {@inheritDoc}
+   */
+  @Override
+  public int drainTo(Collection<? super E> c, int maxElements) {
+    if (c == this) {
+      throw new IllegalArgumentException();
+    }
+    int n = 0;
+    for (E e; n < maxElements && (e = poll()) != null; ) {
+      c.add(e);
+      ++n;
+    }
+    return n;
+  }
+
+  /**
+   * Returns an iterator over the elements in this queue in proper sequence. The elements will be
+   * returned in order from first (head) to last (tail).
+   *
+   * <p>The returned iterator is weakly consistent.
+   *
+   * @return an iterator over the elements in this queue in proper sequence
+   */
+  @Override
+  public Iterator<E> iterator() {
+    return new Itr();
+  }
+
+  @Override
+  public @Nullable E peek() {
+    return firstDataItem();
+  }
+
+  /**
+   * Returns {@code true} if this queue contains no elements.
+   *
+   * @return {@code true} if this queue contains no elements
+   */
+  @Override
+  public boolean isEmpty() {
+    for (Node p = head.get(); p != null; p = succ(p)) {
+      if (!p.isMatched()) {
+        return !p.isData;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public boolean hasWaitingConsumer() {
+    return firstOfMode(false) != null;
+  }
+
+  /**
+   * Returns the number of elements in this queue. If this queue contains more than {@code
+   * Integer.MAX_VALUE} elements, returns {@code Integer.MAX_VALUE}.
+   *
+   * <p>Beware that, unlike in most collections, this method is <em>NOT</em> a constant-time
+   * operation. Because of the asynchronous nature of these queues, determining the current number
+   * of elements requires an O(n) traversal.
+   *
+   * @return the number of elements in this queue
+   */
+  @Override
+  public int size() {
+    return countOfMode(true);
+  }
+
+  @Override
+  public int getWaitingConsumerCount() {
+    return countOfMode(false);
+  }
+
+  /**
+   * Removes a single instance of the specified element from this queue, if it is present. More
+   * formally, removes an element {@code e} such that {@code o.equals(e)}, if this queue contains
+   * one or more such elements. Returns {@code true} if this queue contained the specified element
+   * (or equivalently, if this queue changed as a result of the call).
+   *
+   * @param o element to be removed from this queue, if present
+   * @return {@code true} if this queue changed as a result of the call
+   */
+  @Override
+  public boolean remove(@Nullable Object o) {
+    return findAndRemove(o);
+  }
+
+  /**
+   * Returns {@code true} if this queue contains the specified element. More formally, returns
+   * {@code true} if and only if this queue contains at least one element {@code e} such that {@code
+   * o.equals(e)}.
+   *
+   * @param o object to be checked for containment in this queue
+   * @return {@code true} if this queue contains the specified element
+   */
+  @Override
+  public boolean contains(@Nullable Object o) {
+    if (o == null) {
+      return false;
+    }
+    for (Node p = head.get(); p != null; p = succ(p)) {
+      Object item = p.item.get();
+      if (p.isData) {
+        if (item != null && item != p && o.equals(item)) {
+          return true;
+        }
+      } else if (item == null) {
+        break;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Always returns {@code Integer.MAX_VALUE} because a {@code LinkedTransferQueue} is not capacity
+   * constrained.
+   *
+   * @return {@code Integer.MAX_VALUE} (as specified by {@link BlockingQueue#remainingCapacity()
+   *     BlockingQueue.remainingCapacity})
+   */
+  @Override
+  public int remainingCapacity() {
+    return Integer.MAX_VALUE;
+  }
+}
@@ -0,0 +1,824 @@
+/*
+ * Written by Doug Lea with assistance from members of JCP JSR-166
+ * Expert Group and released to the public domain, as explained at
+ * http://creativecommons.org/publicdomain/zero/1.0/
+ */
+
+package java.util.concurrent;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+import javaemul.lang.J2ktMonitor;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+// J2kt-native: based on the JDK 8 version. The state word is an AtomicLong, registration of a
+// subphaser's first party synchronizes on a J2ktMonitor instead of the phaser itself, and waiting
+// nodes block with LockSupport directly since there is no ForkJoinPool.managedBlock. J2KT threads
+// cannot be interrupted, so the interruptible await methods only differ in that they can time out.
+
+/**
+ * A reusable synchronization barrier, similar in functionality to {@link CyclicBarrier} and {@link
+ * CountDownLatch} but supporting more flexible usage.
+ *
+ * <p><b>Registration.</b> Unlike the case for other barriers, the number of parties
+ * <em>registered</em> to synchronize on a phaser may vary over time. Tasks may be registered at
+ * any time (using methods {@link #register}, {@link #bulkRegister}, or forms of constructors
+ * establishing initial numbers of parties), and optionally deregistered upon any arrival (using
+ * {@link #arriveAndDeregister}).
+ *
+ * <p><b>Synchronization.</b> Like a {@code CyclicBarrier}, a {@code Phaser} may be repeatedly
+ * awaited. Method {@link #arriveAndAwaitAdvance} has effect analogous to {@link
+ * CyclicBarrier#await CyclicBarrier.await}. Each generation of a phaser has an associated phase
+ * number. The phase number starts at zero, and advances when all parties arrive at the phaser,
+ * wrapping around to zero after reaching {@code Integer.MAX_VALUE}.
+ *
+ * <p><b>Termination.</b> A phaser may enter a <em>termination</em> state, that may be checked
+ * using method {@link #isTerminated}. Upon termination, all synchronization methods immediately
+ * return without waiting for advance, as indicated by a negative return value. Termination is
+ * triggered when an invocation of {@code onAdvance} returns {@code true}, or by {@link
+ * #forceTermination}.
+ *
+ * <p><b>Tiering.</b> Phasers may be <em>tiered</em> (i.e., constructed in tree structures) to
+ * reduce contention. Phasers with large numbers of parties that would otherwise experience heavy
+ * synchronization contention costs may instead be set up so that groups of sub-phasers share a
+ * common parent.
+ *
+ * <p><b>Implementation notes</b>: This implementation restricts the maximum number of parties to
+ * 65535. Attempts to register additional parties result in {@code IllegalStateException}.
+ *
+ * @since 1.7
+ * @author Doug Lea
+ */
+@NullMarked
+public class Phaser {
+  /*
+   * Primary state representation, holding four bit-fields:
+   *
+   * unarrived  -- the number of parties yet to hit barrier (bits  0-15)
+   * parties    -- the number of parties to wait            (bits 16-31)
+   * phase      -- the generation of the barrier            (bits 32-62)
+   * terminated -- set if barrier is terminated             (bit  63 / sign)
+   *
+   * Except that a phaser with no registered parties is distinguished by the otherwise illegal
+   * state of having zero parties and one unarrived parties (encoded as EMPTY below).
+   *
+   * To efficiently maintain atomicity, these values are packed into a single (atomic) long. Good
+   * performance relies on keeping state decoding and encoding simple, and keeping race windows
+   * short.
+   *
+   * All state updates are performed via CAS except initial registration of a sub-phaser (i.e.,
+   * one with a non-null parent). In this (relatively rare) case, we use built-in synchronization
+   * to lock while first registering with its parent.
+   *
+   * The phase of a subphaser is allowed to lag that of its ancestors until it is actually
+   * accessed -- see method reconcileState.
+   */
+  private final AtomicLong state;
+
+  private static final int MAX_PARTIES = 0xffff;
+  private static final int MAX_PHASE = Integer.MAX_VALUE;
+  private static final int PARTIES_SHIFT = 16;
+  private static final int PHASE_SHIFT = 32;
+  private static final int UNARRIVED_MASK = 0xffff; // to mask ints
+  private static final long PARTIES_MASK = 0xffff0000L; // to mask longs
+  private static final long COUNTS_MASK = 0xffffffffL;
+  private static final long TERMINATION_BIT = 1L << 63;
+
+  // some special values
+  private static final int ONE_ARRIVAL = 1;
+  private static final int ONE_PARTY = 1 << PARTIES_SHIFT;
+  private static final int ONE_DEREGISTER = ONE_ARRIVAL | ONE_PARTY;
+  private static final int EMPTY = 1;
+
+  // The following unpacking methods are usually manually inlined
+
+  private static int unarrivedOf(long s) {
+    int counts = (int) s;
+    return (counts == EMPTY) ? 0 : (counts & UNARRIVED_MASK);
+  }
+
+  private static int partiesOf(long s) {
+    return (int) s >>> PARTIES_SHIFT;
+  }
+
+  private static int phaseOf(long s) {
+    return (int) (s >>> PHASE_SHIFT);
+  }
+
+  private static int arrivedOf(long s) {
+    int counts = (int) s;
+    return (counts == EMPTY) ? 0 : (counts >>> PARTIES_SHIFT) - (counts & UNARRIVED_MASK);
+  }
+
+  /** The parent of this phaser, or null if none */
+  private final @Nullable Phaser parent;
+
+  /** The root of phaser tree. Equals this if not in a tree. */
+  private final Phaser root;
+
+  /**
+   * Heads of Treiber stacks for waiting threads. To eliminate contention when releasing some
+   * threads while adding others, we use two of them, alternating across even and odd phases.
+   * Subphasers share queues with root to speed up releases.
+   */
+  private final AtomicReference<@Nullable QNode> evenQ;
+
+  private final AtomicReference<@Nullable QNode> oddQ;
+
+  /** Guards the first registration of a subphaser with its parent. */
+  private final J2ktMonitor registrationLock = new J2ktMonitor();
+
+  private AtomicReference<@Nullable QNode> queueFor(int phase) {
+    return ((phase & 1) == 0) ? evenQ : oddQ;
+  }
+
+  /** Returns message string for bounds exceptions on arrival. */
+  private String badArrive(long s) {
+    return "Attempted arrival of unregistered party for " + stateToString(s);
+  }
+
+  /** Returns message string for bounds exceptions on registration. */
+  private String badRegister(long s) {
+    return "Attempt to register more than " + MAX_PARTIES + " parties for " + stateToString(s);
+  }
+
+  /**
+   * Main implementation for methods arrive and arriveAndDeregister. Manually tuned to speed up and
+   * minimize race windows for the common case of just decrementing unarrived field.
+   *
+   * @param adjust value to subtract from state; ONE_ARRIVAL for arrive, ONE_DEREGISTER for
+   *     arriveAndDeregister
+   */
+  private int doArrive(int adjust) {
+    final Phaser root = this.root;
+    for (; ; ) {
+      long s = (root == this) ? state.get() : reconcileState();
+      int phase = (int) (s >>> PHASE_SHIFT);
+      if (phase < 0) {
+        return phase;
+      }
+      int counts = (int) s;
+      int unarrived = (counts == EMPTY) ? 0 : (counts & UNARRIVED_MASK);
+      if (unarrived <= 0) {
+        throw new IllegalStateException(badArrive(s));
+      }
+      if (state.compareAndSet(s, s -= adjust)) {
+        if (unarrived == 1) {
+          long n = s & PARTIES_MASK; // base of next state
+          int nextUnarrived = (int) n >>> PARTIES_SHIFT;
+          if (root == this) {
+            if (onAdvance(phase, nextUnarrived)) {
+              n |= TERMINATION_BIT;
+            } else if (nextUnarrived == 0) {
+              n |= EMPTY;
+            } else {
+              n |= nextUnarrived;
+            }
+            int nextPhase = (phase + 1) & MAX_PHASE;
+            n |= (long) nextPhase << PHASE_SHIFT;
+            state.compareAndSet(s, n);
+            releaseWaiters(phase);
+          } else if (nextUnarrived == 0) { // propagate deregistration
+            phase = parentOf().doArrive(ONE_DEREGISTER);
+            state.compareAndSet(s, s | EMPTY);
+          } else {
+            phase = parentOf().doArrive(ONE_ARRIVAL);
+          }
+        }
+        return phase;
+      }
+    }
+  }
+
+  /**
+   * Implementation of register, bulkRegister
+   *
+   * @param registrations number to add to both parties and unarrived fields. Must be greater than
+   *     zero.
+   */
+  private int doRegister(int registrations) {
+    // adjustment to state
+    long adjust = ((long) registrations << PARTIES_SHIFT) | registrations;
+    final Phaser parent = this.parent;
+    int phase;
+    for (; ; ) {
+      long s = (parent == null) ? state.get() : reconcileState();
+      int counts = (int) s;
+      int parties = counts >>> PARTIES_SHIFT;
+      int unarrived = counts & UNARRIVED_MASK;
+      if (registrations > MAX_PARTIES - parties) {
+        throw new IllegalStateException(badRegister(s));
+      }
+      phase = (int) (s >>> PHASE_SHIFT);
+      if (phase < 0) {
+        break;
+      }
+      if (counts != EMPTY) { // not 1st registration
+        if (parent == null || reconcileState() == s) {
+          if (unarrived == 0) { // wait out advance
+            root.internalAwaitAdvance(phase, null);
+          } else if (state.compareAndSet(s, s + adjust)) {
+            break;
+          }
+        }
+      } else if (parent == null) { // 1st root registration
+        long next = ((long) phase << PHASE_SHIFT) | adjust;
+        if (state.compareAndSet(s, next)) {
+          break;
+        }
+      } else {
+        synchronized (registrationLock) { // 1st sub registration
+          if (state.get() == s) { // recheck under lock
+            phase = parent.doRegister(1);
+            if (phase < 0) {
+              break;
+            }
+            // finish registration whenever parent registration succeeded, even when racing with
+            // termination, since these are part of the same "transaction".
+            while (!state.compareAndSet(s, ((long) phase << PHASE_SHIFT) | adjust)) {
+              s = state.get();
+              phase = (int) (root.state.get() >>> PHASE_SHIFT);
+              // assert (int)s == EMPTY;
+            }
+            break;
+          }
+        }
+      }
+    }
+    return phase;
+  }
+
+  /**
+   * Resolves lagged phase propagation from root if necessary. Reconciliation normally occurs when
+   * root has advanced but subphasers have not yet done so, in which case they must finish their
+   * own advance by setting unarrived to parties (or if parties is zero, resetting to unregistered
+   * EMPTY state).
+   *
+   * @return reconciled state
+   */
+  private long reconcileState() {
+    final Phaser root = this.root;
+    long s = state.get();
+    if (root != this) {
+      int phase;
+      // CAS to root phase with current parties, tripping unarrived
+      while ((phase = (int) (root.state.get() >>> PHASE_SHIFT)) != (int) (s >>> PHASE_SHIFT)) {
+        int p;
+        long next =
+            ((long) phase << PHASE_SHIFT)
+                | ((phase < 0)
+                    ? (s & COUNTS_MASK)
+                    : (((p = (int) s >>> PARTIES_SHIFT) == 0) ? EMPTY : ((s & PARTIES_MASK) | p)));
+        if (state.compareAndSet(s, next)) {
+          s = next;
+          break;
+        }
+        s = state.get();
+      }
+    }
+    return s;
+  }
+
+  private Phaser parentOf() {
+    Phaser parent = this.parent;
+    if (parent == null) {
+      throw new AssertionError();
+    }
+    return parent;
+  }
+
+  /**
+   * Creates a new phaser with no initially registered parties, no parent, and initial phase number
+   * 0. Any thread using this phaser will need to first register for it.
+   */
+  public Phaser() {
+    this(null, 0);
+  }
+
+  /**
+   * Creates a new phaser with the given number of registered unarrived parties, no parent, and
+   * initial phase number 0.
+   *
+   * @param parties the number of parties required to advance to the next phase
+   * @throws IllegalArgumentException if parties less than zero or greater than the maximum number
+   *     of parties supported
+   */
+  public Phaser(int parties) {
+    this(null, parties);
+  }
+
+  /**
+   * Equivalent to {@link #Phaser(Phaser, int) Phaser(parent, 0)}.
+   *
+   * @param parent the parent phaser
+   */
+  public Phaser(@Nullable Phaser parent) {
+    this(parent, 0);
+  }
+
+  /**
+   * Creates a new phaser with the given parent and number of registered unarrived parties. When
+   * the given parent is non-null and the given number of parties is greater than zero, this child
+   * phaser is registered with its parent.
+   *
+   * @param parent the parent phaser
+   * @param parties the number of parties required to advance to the next phase
+   * @throws IllegalArgumentException if parties less than zero or greater than the maximum number
+   *     of parties supported
+   */
+  public Phaser(@Nullable Phaser parent, int parties) {
+    if (parties >>> PARTIES_SHIFT != 0) {
+      throw new IllegalArgumentException("Illegal number of parties");
+    }
+    int phase = 0;
+    this.parent = parent;
+    if (parent != null) {
+      final Phaser root = parent.root;
+      this.root = root;
+      this.evenQ = root.evenQ;
+      this.oddQ = root.oddQ;
+      if (parties != 0) {
+        phase = parent.doRegister(1);
+      }
+    } else {
+      this.root = this;
+      this.evenQ = new AtomicReference<>();
+      this.oddQ = new AtomicReference<>();
+    }
+    this.state =
+        new AtomicLong(
+            (parties == 0)
+                ? (long) EMPTY
+                : ((long) phase << PHASE_SHIFT)
+                    | ((long) parties << PARTIES_SHIFT)
+                    | ((long) parties));
+  }
+
+  /**
+   * Adds a new unarrived party to this phaser. If an ongoing invocation of {@link #onAdvance} is
+   * in progress, this method may await its completion before returning. If this phaser has a
+   * parent, and this phaser previously had no registered parties, this child phaser is also
+   * registered with its parent. If this phaser is terminated, the attempt to register has no
+   * effect, and a negative value is returned.
+   *
+   * @return the arrival phase number to which this registration applied. If this value is
+   *     negative, then this phaser has terminated, in which case registration has no effect.
+   * @throws IllegalStateException if attempting to register more than the maximum supported number
+   *     of parties
+   */
+  public int register() {
+    return doRegister(1);
+  }
+
+  /**
+   * Adds the given number of new unarrived parties to this phaser.
+   *
+   * @param parties the number of additional parties required to advance to the next phase
+   * @return the arrival phase number to which this registration applied. If this value is
+   *     negative, then this phaser has terminated, in which case registration has no effect.
+   * @throws IllegalStateException if attempting to register more than the maximum supported number
+   *     of parties
+   * @throws IllegalArgumentException if {@code parties < 0}
+   */
+  public int bulkRegister(int parties) {
+    if (parties < 0) {
+      throw new IllegalArgumentException();
+    }
+    if (parties == 0) {
+      return getPhase();
+    }
+    return doRegister(parties);
+  }
+
+  /**
+   * Arrives at this phaser, without waiting for others to arrive.
+   *
+   * @return the arrival phase number, or a negative value if terminated
+   * @throws IllegalStateException if not terminated and the number of unarrived parties would
+   *     become negative
+   */
+  public int arrive() {
+    return doArrive(ONE_ARRIVAL);
+  }
+
+  /**
+   * Arrives at this phaser and deregisters from it without waiting for others to arrive.
+   * Deregistration reduces the number of parties required to advance in future phases. If this
+   * phaser has a parent, and deregistration causes this phaser to have zero parties, this phaser
+   * is also deregistered from its parent.
+   *
+   * @return the arrival phase number, or a negative value if terminated
+   * @throws IllegalStateException if not terminated and the number of registered or unarrived
+   *     parties would become negative
+   */
+  public int arriveAndDeregister() {
+    return doArrive(ONE_DEREGISTER);
+  }
+
+  /**
+   * Arrives at this phaser and awaits others. Equivalent in effect to {@code
+   * awaitAdvance(arrive())}.
+   *
+   * @return the arrival phase number, or the (negative) {@linkplain #getPhase() current phase} if
+   *     terminated
+   * @throws IllegalStateException if not terminated and the number of unarrived parties would
+   *     become negative
+   */
+  public int arriveAndAwaitAdvance() {
+    // Specialization of doArrive+awaitAdvance eliminating some reads/paths
+    final Phaser root = this.root;
+    for (; ; ) {
+      long s = (root == this) ? state.get() : reconcileState();
+      int phase = (int) (s >>> PHASE_SHIFT);
+      if (phase < 0) {
+        return phase;
+      }
+      int counts = (int) s;
+      int unarrived = (counts == EMPTY) ? 0 : (counts & UNARRIVED_MASK);
+      if (unarrived <= 0) {
+        throw new IllegalStateException(badArrive(s));
+      }
+      if (state.compareAndSet(s, s -= ONE_ARRIVAL)) {
+        if (unarrived > 1) {
+          return root.internalAwaitAdvance(phase, null);
+        }
+        if (root != this) {
+          return parentOf().arriveAndAwaitAdvance();
+        }
+        long n = s & PARTIES_MASK; // base of next state
+        int nextUnarrived = (int) n >>> PARTIES_SHIFT;
+        if (onAdvance(phase, nextUnarrived)) {
+          n |= TERMINATION_BIT;
+        } else if (nextUnarrived == 0) {
+          n |= EMPTY;
+        } else {
+          n |= nextUnarrived;
+        }
+        int nextPhase = (phase + 1) & MAX_PHASE;
+        n |= (long) nextPhase << PHASE_SHIFT;
+        if (!state.compareAndSet(s, n)) {
+          return (int) (state.get() >>> PHASE_SHIFT); // terminated
+        }
+        releaseWaiters(phase);
+        return nextPhase;
+      }
+    }
+  }
+
+  /**
+   * Awaits the phase of this phaser to advance from the given phase value, returning immediately
+   * if the current phase is not equal to the given phase value or this phaser is terminated.
+   *
+   * @param phase an arrival phase number, or negative value if terminated; this argument is
+   *     normally the value returned by a previous call to {@code arrive} or {@code
+   *     arriveAndDeregister}.
+   * @return the next arrival phase number, or the argument if it is negative, or the (negative)
+   *     {@linkplain #getPhase() current phase} if terminated
+   */
+  public int awaitAdvance(int phase) {
+    final Phaser root = this.root;
+    long s = (root == this) ? state.get() : reconcileState();
+    int p = (int) (s >>> PHASE_SHIFT);
+    if (phase < 0) {
+      return phase;
+    }
+    if (p == phase) {
+      return root.internalAwaitAdvance(phase, null);
+    }
+    return p;
+  }
+
+  /**
+   * Awaits the phase of this phaser to advance from the given phase value. Equivalent to {@link
+   * #awaitAdvance} since J2KT threads cannot be interrupted.
+   *
+   * @param phase an arrival phase number, or negative value if terminated
+   * @return the next arrival phase number, or the argument if it is negative, or the (negative)
+   *     {@linkplain #getPhase() current phase} if terminated
+   * @throws InterruptedException never thrown; J2KT threads cannot be interrupted
+   */
+  public int awaitAdvanceInterruptibly(int phase) throws InterruptedException {
+    return awaitAdvance(phase);
+  }
+
+  /**
+   * Awaits the phase of this phaser to advance from the given phase value or the given timeout to
+   * elapse, returning immediately if the current phase is not equal to the given phase value or
+   * this phaser is terminated.
+   *
+   * @param phase an arrival phase number, or negative value if terminated
+   * @param timeout how long to wait before giving up, in units of {@code unit}
+   * @param unit a {@code TimeUnit} determining how to interpret the {@code timeout} parameter
+   * @return the next arrival phase number, or the argument if it is negative, or the (negative)
+   *     {@linkplain #getPhase() current phase} if terminated
+   * @throws InterruptedException never thrown; J2KT threads cannot be interrupted
+   * @throws TimeoutException if timed out while waiting
+   */
+  public int awaitAdvanceInterruptibly(int phase, long timeout, TimeUnit unit)
+      throws InterruptedException, TimeoutException {
+    long nanos = unit.toNanos(timeout);
+    final Phaser root = this.root;
+    long s = (root == this) ? state.get() : reconcileState();
+    int p = (int) (s >>> PHASE_SHIFT);
+    if (phase < 0) {
+      return phase;
+    }
+    if (p == phase) {
+      QNode node = new QNode(this, phase, true, nanos);
+      p = root.internalAwaitAdvance(phase, node);
+      if (p == phase) {
+        throw new TimeoutException();
+      }
+    }
+    return p;
+  }
+
+  /**
+   * Forces this phaser to enter termination state. Counts of registered parties are unaffected. If
+   * this phaser is a member of a tiered set of phasers, then all of the phasers in the set are
+   * terminated. If this phaser is already terminated, this method has no effect.
+   */
+  public void forceTermination() {
+    // Only need to change root state
+    final Phaser root = this.root;
+    long s;
+    while ((s = root.state.get()) >= 0) {
+      if (root.state.compareAndSet(s, s | TERMINATION_BIT)) {
+        // signal all threads
+        releaseWaiters(0); // Waiters on evenQ
+        releaseWaiters(1); // Waiters on oddQ
+        return;
+      }
+    }
+  }
+
+  /**
+   * Returns the current phase number. The maximum phase number is {@code Integer.MAX_VALUE}, after
+   * which it restarts at zero. Upon termination, the phase number is negative, in which case the
+   * prevailing phase prior to termination may be obtained via {@code getPhase() +
+   * Integer.MIN_VALUE}.
+   *
+   * @return the phase number, or a negative value if terminated
+   */
+  public final int getPhase() {
+    return (int) (root.state.get() >>> PHASE_SHIFT);
+  }
+
+  /**
+   * Returns the number of parties registered at this phaser.
+   *
+   * @return the number of parties
+   */
+  public int getRegisteredParties() {
+    return partiesOf(state.get());
+  }
+
+  /**
+   * Returns the number of registered parties that have arrived at the current phase of this
+   * phaser. If this phaser has terminated, the returned value is meaningless and arbitrary.
+   *
+   * @return the number of arrived parties
+   */
+  public int getArrivedParties() {
+    return arrivedOf(reconcileState());
+  }
+
+  /**
+   * Returns the number of registered parties that have not yet arrived at the current phase of
+   * this phaser. If this phaser has terminated, the returned value is meaningless and arbitrary.
+   *
+   * @return the number of unarrived parties
+   */
+  public int getUnarrivedParties() {
+    return unarrivedOf(reconcileState());
+  }
+
+  /**
+   * Returns the parent of this phaser, or {@code null} if none.
+   *
+   * @return the parent of this phaser, or {@code null} if none
+   */
+  public @Nullable Phaser getParent() {
+    return parent;
+  }
+
+  /**
+   * Returns the root ancestor of this phaser, which is the same as this phaser if it has no
+   * parent.
+   *
+   * @return the root ancestor of this phaser
+   */
+  public Phaser getRoot() {
+    return root;
+  }
+
+  /**
+   * Returns {@code true} if this phaser has been terminated.
+   *
+   * @return {@code true} if this phaser has been terminated
+   */
+  public boolean isTerminated() {
+    return root.state.get() < 0L;
+  }
+
+  /**
+   * Overridable method to perform an action upon impending phase advance, and to control
+   * termination. This method is invoked upon arrival of the party advancing this phaser (when all
+   * other waiting parties are dormant). If this method returns {@code true}, this phaser will be
+   * set to a final termination state upon advance.
+   *
+   * <p>The default version returns {@code true} when the number of registered parties has become
+   * zero as the result of an {@link #arriveAndDeregister}.
+   *
+   * @param phase the current phase number on entry to this method, before this phaser is advanced
+   * @param registeredParties the current number of registered parties
+   * @return {@code true} if this phaser should terminate
+   */
+  protected boolean onAdvance(int phase, int registeredParties) {
+    return registeredParties == 0;
+  }
+
+  /**
+   * Returns a string identifying this phaser, as well as its state. The state, in brackets,
+   * includes the String {@code "phase = "} followed by the phase number, {@code "parties = "}
+   * followed by the number of registered parties, and {@code "arrived = "} followed by the number
+   * of arrived parties.
+   *
+   * @return a string identifying this phaser, as well as its state
+   */
+  @Override
+  public String toString() {
+    return stateToString(reconcileState());
+  }
+
+  /** Implementation of toString and string-based error messages */
+  private String stateToString(long s) {
+    return super.toString()
+        + "[phase = "
+        + phaseOf(s)
+        + " parties = "
+        + partiesOf(s)
+        + " arrived = "
+        + arrivedOf(s)
+        + "]";
+  }
+
+  // Waiting mechanics
+
+  /**
+   * Removes and signals threads from queue for phase.
+   *
+   * @param phase the phase whose waiters are released
+   */
+  private void releaseWaiters(int phase) {
+    QNode q; // first element of queue
+    Thread t; // its thread
+    AtomicReference<@Nullable QNode> head = queueFor(phase);
+    while ((q = head.get()) != null && q.phase != (int) (root.state.get() >>> PHASE_SHIFT)) {
+      if (head.compareAndSet(q, q.next) && (t = q.thread) != null) {
+        q.thread = null;
+        LockSupport.unpark(t);
+      }
+    }
+  }
+
+  /**
+   * Variant of releaseWaiters that additionally tries to remove any nodes no longer waiting for
+   * advance due to timeout. This is invoked only upon a timeout, which would not otherwise be
+   * noticed until the phaser advances.
+   *
+   * @param phase current phase
+   * @return current phase
+   */
+  private int abortWait(int phase) {
+    AtomicReference<@Nullable QNode> head = queueFor(phase);
+    for (; ; ) {
+      Thread t;
+      QNode q = head.get();
+      int p = (int) (root.state.get() >>> PHASE_SHIFT);
+      if (q == null || ((t = q.thread) != null && q.phase == p)) {
+        return p;
+      }
+      if (head.compareAndSet(q, q.next) && t != null) {
+        q.thread = null;
+        LockSupport.unpark(t);
+      }
+    }
+  }
+
+  /** The number of CPUs, for spin control */
+  private static final int NCPU = Runtime.getRuntime().availableProcessors();
+
+  /**
+   * The number of times to spin before blocking while waiting for advance, per arrival while
+   * waiting. On multiprocessors, fully blocking and waking up a large number of threads all at
+   * once is usually a very slow process, so we instead use rechargeable spins to avoid it when
+   * threads regularly arrive: When a thread in internalAwaitAdvance notices another arrival before
+   * blocking, and there appear to be enough CPUs available, it spins SPINS_PER_ARRIVAL more times
+   * before blocking.
+   */
+  static final int SPINS_PER_ARRIVAL = (NCPU < 2) ? 1 : 1 << 8;
+
+  /**
+   * Possibly blocks and waits for phase to advance unless aborted. Call only on root phaser.
+   *
+   * @param phase current phase
+   * @param node if non-null, the wait node to track timeout; if null, denotes untimed wait
+   * @return current phase
+   */
+  private int internalAwaitAdvance(int phase, @Nullable QNode node) {
+    // assert root == this;
+    releaseWaiters(phase - 1); // ensure old queue clean
+    boolean queued = false; // true when node is enqueued
+    int lastUnarrived = 0; // to increase spins upon change
+    int spins = SPINS_PER_ARRIVAL;
+    long s;
+    int p;
+    while ((p = (int) ((s = state.get()) >>> PHASE_SHIFT)) == phase) {
+      if (node == null) { // spinning in untimed mode
+        int unarrived = (int) s & UNARRIVED_MASK;
+        if (unarrived != lastUnarrived && (lastUnarrived = unarrived) < NCPU) {
+          spins += SPINS_PER_ARRIVAL;
+        }
+        if (--spins < 0) {
+          node = new QNode(this, phase, false, 0L);
+        }
+      } else if (node.isReleasable()) { // done or aborted
+        break;
+      } else if (!queued) { // push onto queue
+        AtomicReference<@Nullable QNode> head = queueFor(phase);
+        @Nullable QNode q = node.next = head.get();
+        if ((q == null || q.phase == phase)
+            && (int) (state.get() >>> PHASE_SHIFT) == phase) { // avoid stale enq
+          queued = head.compareAndSet(q, node);
+        }
+      } else {
+        node.block();
+      }
+    }
+
+    if (node != null) {
+      if (node.thread != null) {
+        node.thread = null; // avoid need for unpark()
+      }
+      if (p == phase && (p = (int) (state.get() >>> PHASE_SHIFT)) == phase) {
+        return abortWait(phase); // possibly clean up on abort
+      }
+    }
+    releaseWaiters(phase);
+    return p;
+  }
+
+  /** Wait nodes for Treiber stack representing wait queue */
+  static final class QNode {
+    final Phaser phaser;
+    final int phase;
+    final boolean timed;
+    long nanos;
+    final long deadline;
+    volatile @Nullable Thread thread; // nulled to cancel wait
+    @Nullable QNode next;
+
+    QNode(Phaser phaser, int phase, boolean timed, long nanos) {
+      this.phaser = phaser;
+      this.phase = phase;
+      this.nanos = nanos;
+      this.timed = timed;
+      this.deadline = timed ? System.nanoTime() + nanos : 0L;
+      thread = Thread.currentThread();
+    }
+
+    boolean isReleasable() {
+      if (thread == null) {
+        return true;
+      }
+      if (phaser.getPhase() != phase) {
+        thread = null;
+        return true;
+      }
+      if (timed) {
+        if (nanos > 0L) {
+          nanos = deadline - System.nanoTime();
+        }
+        if (nanos <= 0L) {
+          thread = null;
+          return true;
+        }
+      }
+      return false;
+    }
+
+    /** Parks until released, timed out or spuriously woken; the caller rechecks its state. */
+    void block() {
+      if (!isReleasable()) {
+        if (!timed) {
+          LockSupport.park(this);
+        } else if (nanos > 0L) {
+          LockSupport.parkNanos(this, nanos);
+        }
+      }
+    }
+  }
+}
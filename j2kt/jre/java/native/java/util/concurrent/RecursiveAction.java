@@ -0,0 +1,47 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package java.util.concurrent;
+
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+/** A recursive resultless {@link ForkJoinTask}. */
+@NullMarked
+public abstract class RecursiveAction extends ForkJoinTask<@Nullable Void> {
+
+  public RecursiveAction() {}
+
+  /** The main computation performed by this task. */
+  protected abstract void compute();
+
+  /** Always returns {@code null}. */
+  @Override
+  public final @Nullable Void getRawResult() {
+    return null;
+  }
+
+  /** Requires null completion value. */
+  @Override
+  protected final void setRawResult(@Nullable Void mustBeNull) {}
+
+  /** Implements execution conventions for RecursiveActions. */
+  @Override
+  protected final boolean exec() {
+    compute();
+    return true;
+  }
+}
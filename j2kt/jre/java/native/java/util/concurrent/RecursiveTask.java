@@ -0,0 +1,54 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package java.util.concurrent;
+
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * A recursive result-bearing {@link ForkJoinTask}.
+ *
+ * @param <V> the type of the result of the task
+ */
+@NullMarked
+public abstract class RecursiveTask<V extends @Nullable Object> extends ForkJoinTask<V> {
+
+  /** The result of the computation. */
+  private @Nullable V result;
+
+  public RecursiveTask() {}
+
+  /** The main computation performed by this task. */
+  protected abstract V compute();
+
+  @Override
+  public final @Nullable V getRawResult() {
+    return result;
+  }
+
+  @Override
+  protected final void setRawResult(V value) {
+    result = value;
+  }
+
+  /** Implements execution conventions for RecursiveTask. */
+  @Override
+  protected final boolean exec() {
+    result = compute();
+    return true;
+  }
+}
@@ -0,0 +1,32 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package java.util.concurrent;
+
+import org.jspecify.annotations.NullMarked;
+
+/** A handler for tasks that cannot be executed by a {@link ThreadPoolExecutor}. */
+@NullMarked
+public interface RejectedExecutionHandler {
+  /**
+   * Invoked by {@link ThreadPoolExecutor#execute} when a task cannot be accepted, either because
+   * the executor has been shut down or because its queue and pool are both saturated.
+   *
+   * @throws RejectedExecutionException if there is no remedy
+   */
+  void rejectedExecution(Runnable r, ThreadPoolExecutor executor);
+}
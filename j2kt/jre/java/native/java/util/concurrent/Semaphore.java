@@ -0,0 +1,388 @@
+/*
+ * Written by Doug Lea with assistance from members of JCP JSR-166
+ * Expert Group and released to the public domain, as explained at
+ * http://creativecommons.org/publicdomain/zero/1.0/
+ */
+
+package java.util.concurrent;
+
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.concurrent.locks.AbstractQueuedSynchronizer;
+import org.jspecify.annotations.NullMarked;
+
+// J2kt-native: based on the JDK 8 version. J2KT threads cannot be interrupted, so the
+// interruptible acquire methods behave like their uninterruptible counterparts. Serialization
+// support is omitted.
+
+/**
+ * A counting semaphore. Conceptually, a semaphore maintains a set of permits. Each {@link
+ * #acquire} blocks if necessary until a permit is available, and then takes it. Each {@link
+ * #release} adds a permit, potentially releasing a blocking acquirer. However, no actual permit
+ * objects are used; the {@code Semaphore} just keeps a count of the number available and acts
+ * accordingly.
+ *
+ * <p>The constructor for this class optionally accepts a <em>fairness</em> parameter. When set
+ * false, this class makes no guarantees about the order in which threads acquire permits. In
+ * particular, <em>barging</em> is permitted, that is, a thread invoking {@link #acquire} can be
+ * allocated a permit ahead of a thread that has been waiting. When fairness is set true, the
+ * semaphore guarantees that threads invoking any of the {@link #acquire() acquire} methods are
+ * selected to obtain permits in the order in which their invocation of those methods was
+ * processed (first-in-first-out; FIFO). Note that the untimed {@link #tryAcquire() tryAcquire}
+ * methods do not honor the fairness setting, but will take any permits that are available.
+ *
+ * <p>Generally, semaphores used to control resource access should be initialized as fair, to
+ * ensure that no thread is starved out from accessing a resource. When using semaphores for other
+ * kinds of synchronization control, the throughput advantages of non-fair ordering often outweigh
+ * fairness considerations.
+ *
+ * @since 1.5
+ * @author Doug Lea
+ */
+@NullMarked
+public class Semaphore implements Serializable {
+  /** All mechanics via AbstractQueuedSynchronizer subclass */
+  private final Sync sync;
+
+  /**
+   * Synchronization implementation for semaphore. Uses AQS state to represent permits. Subclassed
+   * into fair and nonfair versions.
+   */
+  abstract static class Sync extends AbstractQueuedSynchronizer {
+    Sync(int permits) {
+      setState(permits);
+    }
+
+    final int getPermits() {
+      return getState();
+    }
+
+    final int nonfairTryAcquireShared(int acquires) {
+      for (; ; ) {
+        int available = getState();
+        int remaining = available - acquires;
+        if (remaining < 0 || compareAndSetState(available, remaining)) {
+          return remaining;
+        }
+      }
+    }
+
+    @Override
+    protected final boolean tryReleaseShared(int releases) {
+      for (; ; ) {
+        int current = getState();
+        int next = current + releases;
+        if (next < current) { // overflow
+          throw new Error("Maximum permit count exceeded");
+        }
+        if (compareAndSetState(current, next)) {
+          return true;
+        }
+      }
+    }
+
+    final void reducePermits(int reductions) {
+      for (; ; ) {
+        int current = getState();
+        int next = current - reductions;
+        if (next > current) { // underflow
+          throw new Error("Permit count underflow");
+        }
+        if (compareAndSetState(current, next)) {
+          return;
+        }
+      }
+    }
+
+    final int drainPermits() {
+      for (; ; ) {
+        int current = getState();
+        if (current == 0 || compareAndSetState(current, 0)) {
+          return current;
+        }
+      }
+    }
+  }
+
+  /** NonFair version */
+  static final class NonfairSync extends Sync {
+    NonfairSync(int permits) {
+      super(permits);
+    }
+
+    @Override
+    protected int tryAcquireShared(int acquires) {
+      return nonfairTryAcquireShared(acquires);
+    }
+  }
+
+  /** Fair version */
+  static final class FairSync extends Sync {
+    FairSync(int permits) {
+      super(permits);
+    }
+
+    @Override
+    protected int tryAcquireShared(int acquires) {
+      for (; ; ) {
+        if (hasQueuedPredecessors()) {
+          return -1;
+        }
+        int available = getState();
+        int remaining = available - acquires;
+        if (remaining < 0 || compareAndSetState(available, remaining)) {
+          return remaining;
+        }
+      }
+    }
+  }
+
+  /**
+   * Creates a {@code Semaphore} with the given number of permits and nonfair fairness setting.
+   *
+   * @param permits the initial number of permits available. This value may be negative, in which
+   *     case releases must occur before any acquires will be granted.
+   */
+  public Semaphore(int permits) {
+    sync = new NonfairSync(permits);
+  }
+
+  /**
+   * Creates a {@code Semaphore} with the given number of permits and the given fairness setting.
+   *
+   * @param permits the initial number of permits available. This value may be negative, in which
+   *     case releases must occur before any acquires will be granted.
+   * @param fair {@code true} if this semaphore will guarantee first-in first-out granting of
+   *     permits under contention, else {@code false}
+   */
+  public Semaphore(int permits, boolean fair) {
+    sync = fair ? new FairSync(permits) : new NonfairSync(permits);
+  }
+
+  /**
+   * Acquires a permit from this semaphore, blocking until one is available.
+   *
+   * <p>Acquires a permit, if one is available and returns immediately, reducing the number of
+   * available permits by one.
+   *
+   * @throws InterruptedException never thrown; J2KT threads cannot be interrupted
+   */
+  public void acquire() throws InterruptedException {
+    sync.acquireSharedInterruptibly(1);
+  }
+
+  /**
+   * Acquires a permit from this semaphore, blocking until one is available.
+   *
+   * <p>Acquires a permit, if one is available and returns immediately, reducing the number of
+   * available permits by one.
+   */
+  public void acquireUninterruptibly() {
+    sync.acquireShared(1);
+  }
+
+  /**
+   * Acquires a permit from this semaphore, only if one is available at the time of invocation.
+   *
+   * <p>Even when this semaphore has been set to use a fair ordering policy, a call to {@code
+   * tryAcquire()} <em>will</em> immediately acquire a permit if one is available, whether or not
+   * other threads are currently waiting. If you want to honor the fairness setting, then use
+   * {@link #tryAcquire(long, TimeUnit) tryAcquire(0, TimeUnit.SECONDS)}.
+   *
+   * @return {@code true} if a permit was acquired and {@code false} otherwise
+   */
+  public boolean tryAcquire() {
+    return sync.nonfairTryAcquireShared(1) >= 0;
+  }
+
+  /**
+   * Acquires a permit from this semaphore, if one becomes available within the given waiting time.
+   *
+   * @param timeout the maximum time to wait for a permit
+   * @param unit the time unit of the {@code timeout} argument
+   * @return {@code true} if a permit was acquired and {@code false} if the waiting time elapsed
+   *     before a permit was acquired
+   * @throws InterruptedException never thrown; J2KT threads cannot be interrupted
+   */
+  public boolean tryAcquire(long timeout, TimeUnit unit) throws InterruptedException {
+    return sync.tryAcquireSharedNanos(1, unit.toNanos(timeout));
+  }
+
+  /**
+   * Releases a permit, returning it to the semaphore.
+   *
+   * <p>There is no requirement that a thread that releases a permit must have acquired that permit
+   * by calling {@link #acquire}. Correct usage of a semaphore is established by programming
+   * convention in the application.
+   */
+  public void release() {
+    sync.releaseShared(1);
+  }
+
+  /**
+   * Acquires the given number of permits from this semaphore, blocking until all are available.
+   *
+   * @param permits the number of permits to acquire
+   * @throws InterruptedException never thrown; J2KT threads cannot be interrupted
+   * @throws IllegalArgumentException if {@code permits} is negative
+   */
+  public void acquire(int permits) throws InterruptedException {
+    if (permits < 0) {
+      throw new IllegalArgumentException();
+    }
+    sync.acquireSharedInterruptibly(permits);
+  }
+
+  /**
+   * Acquires the given number of permits from this semaphore, blocking until all are available.
+   *
+   * @param permits the number of permits to acquire
+   * @throws IllegalArgumentException if {@code permits} is negative
+   */
+  public void acquireUninterruptibly(int permits) {
+    if (permits < 0) {
+      throw new IllegalArgumentException();
+    }
+    sync.acquireShared(permits);
+  }
+
+  /**
+   * Acquires the given number of permits from this semaphore, only if all are available at the
+   * time of invocation. Like {@link #tryAcquire()}, this does not honor the fairness setting.
+   *
+   * @param permits the number of permits to acquire
+   * @return {@code true} if the permits were acquired and {@code false} otherwise
+   * @throws IllegalArgumentException if {@code permits} is negative
+   */
+  public boolean tryAcquire(int permits) {
+    if (permits < 0) {
+      throw new IllegalArgumentException();
+    }
+    return sync.nonfairTryAcquireShared(permits) >= 0;
+  }
+
+  /**
+   * Acquires the given number of permits from this semaphore, if all become available within the
+   * given waiting time.
+   *
+   * @param permits the number of permits to acquire
+   * @param timeout the maximum time to wait for the permits
+   * @param unit the time unit of the {@code timeout} argument
+   * @return {@code true} if all permits were acquired and {@code false} if the waiting time elapsed
+   *     before all permits were acquired
+   * @throws InterruptedException never thrown; J2KT threads cannot be interrupted
+   * @throws IllegalArgumentException if {@code permits} is negative
+   */
+  public boolean tryAcquire(int permits, long timeout, TimeUnit unit)
+      throws InterruptedException {
+    if (permits < 0) {
+      throw new IllegalArgumentException();
+    }
+    return sync.tryAcquireSharedNanos(permits, unit.toNanos(timeout));
+  }
+
+  /**
+   * Releases the given number of permits, returning them to the semaphore.
+   *
+   * @param permits the number of permits to release
+   * @throws IllegalArgumentException if {@code permits} is negative
+   */
+  public void release(int permits) {
+    if (permits < 0) {
+      throw new IllegalArgumentException();
+    }
+    sync.releaseShared(permits);
+  }
+
+  /**
+   * Returns the current number of permits available in this semaphore.
+   *
+   * <p>This method is typically used for debugging and testing purposes.
+   *
+   * @return the number of permits available in this semaphore
+   */
+  public int availablePermits() {
+    return sync.getPermits();
+  }
+
+  /**
+   * Acquires and returns all permits that are immediately available, or if negative permits are
+   * available, releases them. Upon return, zero permits are available.
+   *
+   * @return the number of permits acquired or, if negative, the number released
+   */
+  public int drainPermits() {
+    return sync.drainPermits();
+  }
+
+  /**
+   * Shrinks the number of available permits by the indicated reduction. This method can be useful
+   * in subclasses that use semaphores to track resources that become unavailable. This method
+   * differs from {@code acquire} in that it does not block waiting for permits to become
+   * available.
+   *
+   * @param reduction the number of permits to remove
+   * @throws IllegalArgumentException if {@code reduction} is negative
+   */
+  protected void reducePermits(int reduction) {
+    if (reduction < 0) {
+      throw new IllegalArgumentException();
+    }
+    sync.reducePermits(reduction);
+  }
+
+  /**
+   * Returns {@code true} if this semaphore has fairness set true.
+   *
+   * @return {@code true} if this semaphore has fairness set true
+   */
+  public boolean isFair() {
+    return sync instanceof FairSync;
+  }
+
+  /**
+   * Queries whether any threads are waiting to acquire. Note that because cancellations may occur
+   * at any time, a {@code true} return does not guarantee that any other thread will ever acquire.
+   * This method is designed primarily for use in monitoring of the system state.
+   *
+   * @return {@code true} if there may be other threads waiting to acquire the lock
+   */
+  public final boolean hasQueuedThreads() {
+    return sync.hasQueuedThreads();
+  }
+
+  /**
+   * Returns an estimate of the number of threads waiting to acquire. The value is only an estimate
+   * because the number of threads may change dynamically while this method traverses internal data
+   * structures. This method is designed for use in monitoring system state, not for
+   * synchronization control.
+   *
+   * @return the estimated number of threads waiting for this lock
+   */
+  public final int getQueueLength() {
+    return sync.getQueueLength();
+  }
+
+  /**
+   * Returns a collection containing threads that may be waiting to acquire. Because the actual set
+   * of threads may change dynamically while constructing this result, the returned collection is
+   * only a best-effort estimate. The elements of the returned collection are in no particular
+   * order.
+   *
+   * @return the collection of threads
+   */
+  protected Collection<Thread> getQueuedThreads() {
+    return sync.getQueuedThreads();
+  }
+
+  /**
+   * Returns a string identifying this semaphore, as well as its state. The state, in brackets,
+   * includes the String {@code "Permits ="} followed by the number of permits.
+   *
+   * @return a string identifying this semaphore, as well as its state
+   */
+  @Override
+  public String toString() {
+    return super.toString() + "[Permits = " + sync.getPermits() + "]";
+  }
+}
@@ -0,0 +1,181 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package java.util.concurrent;
+
+import java.util.AbstractQueue;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * A {@linkplain BlockingQueue blocking queue} in which each insert operation must wait for a
+ * corresponding remove operation by another thread, and vice versa. A synchronous queue does not
+ * have any internal capacity: {@link #offer(Object)} only succeeds if a consumer is already waiting
+ * to receive the element, and {@link #poll()} only succeeds if a producer is waiting to hand one
+ * over.
+ *
+ * <p>Hand-offs go through the lock-free dual queue of a {@link LinkedTransferQueue}: producers use
+ * its transfer operations, which never leave an element behind, and consumers its take and poll
+ * operations. Waiting producers and consumers are both served in FIFO order.
+ *
+ * @param <E> the type of elements held in this queue
+ */
+@NullMarked
+public class SynchronousQueue<E> extends AbstractQueue<E> implements BlockingQueue<E> {
+
+  /** Matches producers and consumers. Never holds an element that nobody waits to hand over. */
+  private final LinkedTransferQueue<E> transferer = new LinkedTransferQueue<>();
+
+  public SynchronousQueue() {}
+
+  /**
+   * Creates a {@code SynchronousQueue}. Waiting threads are always served in FIFO order, so {@code
+   * fair} is ignored.
+   */
+  public SynchronousQueue(boolean fair) {}
+
+  /**
+   * Adds the specified element to this queue, waiting if necessary for another thread to receive
+   * it.
+   */
+  @Override
+  public void put(E e) throws InterruptedException {
+    transferer.transfer(e);
+  }
+
+  /**
+   * Inserts the specified element into this queue, waiting if necessary up to the specified wait
+   * time for another thread to receive it.
+   *
+   * @return {@code true} if successful, or {@code false} if the specified waiting time elapses
+   *     before a consumer appears
+   */
+  @Override
+  public boolean offer(E e, long timeout, TimeUnit unit) throws InterruptedException {
+    return transferer.tryTransfer(e, timeout, unit);
+  }
+
+  /**
+   * Inserts the specified element into this queue, if another thread is waiting to receive it.
+   *
+   * @return {@code true} if the element was added to this queue, else {@code false}
+   */
+  @Override
+  public boolean offer(E e) {
+    return transferer.tryTransfer(e);
+  }
+
+  /**
+   * Retrieves and removes the head of this queue, waiting if necessary for another thread to insert
+   * it.
+   */
+  @Override
+  public E take() throws InterruptedException {
+    return transferer.take();
+  }
+
+  /**
+   * Retrieves and removes the head of this queue, waiting if necessary up to the specified wait
+   * time, for another thread to insert it.
+   *
+   * @return the head of this queue, or {@code null} if the specified waiting time elapses before an
+   *     element is present
+   */
+  @Override
+  public @Nullable E poll(long timeout, TimeUnit unit) throws InterruptedException {
+    return transferer.poll(timeout, unit);
+  }
+
+  /**
+   * Retrieves and removes the head of this queue, if another thread is currently making an element
+   * available.
+   *
+   * @return the head of this queue, or {@code null} if no element is available
+   */
+  @Override
+  public @Nullable E poll() {
+    return transferer.poll();
+  }
+
+  /** Always returns {@code true}. A {@code SynchronousQueue} has no internal capacity. */
+  @Override
+  public boolean isEmpty() {
+    return true;
+  }
+
+  /** Always returns zero. A {@code SynchronousQueue} has no internal capacity. */
+  @Override
+  public int size() {
+    return 0;
+  }
+
+  /** Always returns zero. A {@code SynchronousQueue} has no internal capacity. */
+  @Override
+  public int remainingCapacity() {
+    return 0;
+  }
+
+  /** Does nothing. A {@code SynchronousQueue} has no internal capacity. */
+  @Override
+  public void clear() {}
+
+  /** Always returns {@code false}. A {@code SynchronousQueue} has no internal capacity. */
+  @Override
+  public boolean contains(@Nullable Object o) {
+    return false;
+  }
+
+  /** Always returns {@code false}. A {@code SynchronousQueue} has no internal capacity. */
+  @Override
+  public boolean remove(@Nullable Object o) {
+    return false;
+  }
+
+  /**
+   * Always returns {@code null}. A {@code SynchronousQueue} does not return elements unless
+   * actively waited on.
+   */
+  @Override
+  public @Nullable E peek() {
+    return null;
+  }
+
+  /** Returns an empty iterator. */
+  @Override
+  public Iterator<E> iterator() {
+    return Collections.emptyIterator();
+  }
+
+  @Override
+  public String toString() {
+    return "[]";
+  }
+
+  @Override
+  public int drainTo(Collection<? super E> c) {
+    return drainTo(c, Integer.MAX_VALUE);
+  }
+
+  @Override
+  public int drainTo(Collection<? super E> c, int maxElements) {
+    if (c == this) throw new IllegalArgumentException();
+    return transferer.drainTo(c, maxElements);
+  }
+}
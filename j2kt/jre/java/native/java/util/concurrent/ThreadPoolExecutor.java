@@ -0,0 +1,732 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package java.util.concurrent;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * An {@link ExecutorService} that executes each submitted task using one of a bounded number of
+ * pooled workers, queueing tasks in a caller-provided {@link BlockingQueue}.
+ *
+ * <p>New tasks start a new worker while fewer than {@link #getCorePoolSize} workers are running.
+ * Otherwise they are offered to the queue, and only if the queue refuses them is another worker
+ * started, up to {@link #getMaximumPoolSize}. Tasks that can be neither queued nor given to a new
+ * worker are passed to the {@link RejectedExecutionHandler}, which makes a bounded queue a source
+ * of backpressure rather than of unbounded memory growth. Workers beyond the core size, and core
+ * workers if {@link #allowCoreThreadTimeOut} is set, exit after having been idle for the keep-alive
+ * time.
+ *
+ * <p>Workers run on an elastic view of the coroutine IO dispatcher behind {@link KotlinExecutor},
+ * so a worker blocked on the queue does not hold back other work. As threads cannot be
+ * interrupted, running tasks are not interrupted by {@link #shutdownNow}, and idle workers wait on
+ * the queue for at most 50 milliseconds at a time, after which they notice a shutdown, a reduced
+ * pool size or a changed keep-alive time. Constructors taking a {@code ThreadFactory} are not
+ * supported.
+ */
+@NullMarked
+public class ThreadPoolExecutor extends AbstractExecutorService {
+
+  /*
+   * The pool control state packs the run state into the high 3 bits and the worker count into the
+   * remaining bits, so that both can be updated with a single CAS, as in the JDK implementation.
+   */
+  private static final int COUNT_BITS = Integer.SIZE - 3;
+  private static final int COUNT_MASK = (1 << COUNT_BITS) - 1;
+
+  private static final int RUNNING = -1 << COUNT_BITS;
+  private static final int SHUTDOWN = 0 << COUNT_BITS;
+  private static final int STOP = 1 << COUNT_BITS;
+  private static final int TIDYING = 2 << COUNT_BITS;
+  private static final int TERMINATED = 3 << COUNT_BITS;
+
+  private static final RejectedExecutionHandler defaultHandler = new AbortPolicy();
+
+  /**
+   * Upper bound for a single wait of an idle worker on the queue, after which it re-checks the pool
+   * state. Workers cannot be interrupted, and waking them through the queue would expose internal
+   * objects to users of {@link #getQueue} and use up capacity of bounded queues.
+   */
+  private static final long IDLE_RECHECK_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+
+  private final AtomicInteger ctl = new AtomicInteger(RUNNING);
+
+  private final BlockingQueue<Runnable> workQueue;
+
+  private final ExecutorService workerExecutor = KotlinExecutor.createBlockingExecutor();
+
+  private final ReentrantLock mainLock = new ReentrantLock();
+  private final Condition termination = mainLock.newCondition();
+
+  private final AtomicInteger activeCount = new AtomicInteger();
+  private final AtomicInteger largestPoolSize = new AtomicInteger();
+  private final AtomicLong completedTaskCount = new AtomicLong();
+
+  private volatile RejectedExecutionHandler handler;
+  private volatile long keepAliveTime;
+  private volatile boolean allowCoreThreadTimeOut;
+  private volatile int corePoolSize;
+  private volatile int maximumPoolSize;
+
+  /**
+   * Creates a new {@code ThreadPoolExecutor} with the given initial parameters and the default
+   * rejected execution handler, which throws {@link RejectedExecutionException}.
+   *
+   * @throws IllegalArgumentException if {@code corePoolSize < 0}, {@code keepAliveTime < 0},
+   *     {@code maximumPoolSize <= 0} or {@code maximumPoolSize < corePoolSize}
+   */
+  public ThreadPoolExecutor(
+      int corePoolSize,
+      int maximumPoolSize,
+      long keepAliveTime,
+      TimeUnit unit,
+      BlockingQueue<Runnable> workQueue) {
+    this(corePoolSize, maximumPoolSize, keepAliveTime, unit, workQueue, defaultHandler);
+  }
+
+  /**
+   * Creates a new {@code ThreadPoolExecutor} with the given initial parameters.
+   *
+   * @throws IllegalArgumentException if {@code corePoolSize < 0}, {@code keepAliveTime < 0},
+   *     {@code maximumPoolSize <= 0} or {@code maximumPoolSize < corePoolSize}
+   */
+  public ThreadPoolExecutor(
+      int corePoolSize,
+      int maximumPoolSize,
+      long keepAliveTime,
+      TimeUnit unit,
+      BlockingQueue<Runnable> workQueue,
+      RejectedExecutionHandler handler) {
+    if (corePoolSize < 0
+        || maximumPoolSize <= 0
+        || maximumPoolSize < corePoolSize
+        || keepAliveTime < 0) {
+      throw new IllegalArgumentException();
+    }
+    if (workQueue == null || handler == null) {
+      throw new NullPointerException();
+    }
+    this.corePoolSize = corePoolSize;
+    this.maximumPoolSize = maximumPoolSize;
+    this.workQueue = workQueue;
+    this.keepAliveTime = unit.toNanos(keepAliveTime);
+    this.handler = handler;
+  }
+
+  private static int workerCountOf(int c) {
+    return c & COUNT_MASK;
+  }
+
+  private static boolean runStateLessThan(int c, int s) {
+    return c < s;
+  }
+
+  private static boolean runStateAtLeast(int c, int s) {
+    return c >= s;
+  }
+
+  private static boolean isRunning(int c) {
+    return c < SHUTDOWN;
+  }
+
+  private void decrementWorkerCount() {
+    ctl.addAndGet(-1);
+  }
+
+  /** Transitions the run state to at least {@code targetState}, leaving the worker count alone. */
+  private void advanceRunState(int targetState) {
+    for (; ; ) {
+      int c = ctl.get();
+      if (runStateAtLeast(c, targetState)
+          || ctl.compareAndSet(c, targetState | workerCountOf(c))) {
+        break;
+      }
+    }
+  }
+
+  /**
+   * Executes the given task sometime in the future, either on a new worker or on an existing one.
+   * If the task cannot be accepted, it is handed to the current {@link RejectedExecutionHandler}.
+   *
+   * @throws RejectedExecutionException at the discretion of the {@code RejectedExecutionHandler}
+   * @throws NullPointerException if {@code command} is null
+   */
+  @Override
+  public void execute(Runnable command) {
+    if (command == null) {
+      throw new NullPointerException();
+    }
+    int c = ctl.get();
+    if (workerCountOf(c) < corePoolSize) {
+      if (addWorker(command, true)) {
+        return;
+      }
+      c = ctl.get();
+    }
+    if (isRunning(c) && workQueue.offer(command)) {
+      int recheck = ctl.get();
+      if (!isRunning(recheck) && remove(command)) {
+        reject(command);
+      } else if (workerCountOf(recheck) == 0) {
+        addWorker(null, false);
+      }
+    } else if (!addWorker(command, false)) {
+      reject(command);
+    }
+  }
+
+  private void reject(Runnable command) {
+    handler.rejectedExecution(command, this);
+  }
+
+  /**
+   * Starts a new worker running {@code firstTask} if the pool state and the given bound allow it.
+   *
+   * @param core if true use {@link #corePoolSize} as bound, else {@link #maximumPoolSize}
+   * @return true if the worker was started
+   */
+  private boolean addWorker(@Nullable Runnable firstTask, boolean core) {
+    for (int c = ctl.get(); ; ) {
+      if (runStateAtLeast(c, SHUTDOWN)
+          && (runStateAtLeast(c, STOP) || firstTask != null || workQueue.isEmpty())) {
+        return false;
+      }
+      if (workerCountOf(c) >= ((core ? corePoolSize : maximumPoolSize) & COUNT_MASK)) {
+        return false;
+      }
+      if (ctl.compareAndSet(c, c + 1)) {
+        updateLargestPoolSize(workerCountOf(c) + 1);
+        break;
+      }
+      c = ctl.get();
+    }
+    try {
+      workerExecutor.execute(new Worker(firstTask));
+    } catch (RejectedExecutionException e) {
+      decrementWorkerCount();
+      tryTerminate();
+      return false;
+    }
+    return true;
+  }
+
+  private void updateLargestPoolSize(int size) {
+    for (int largest = largestPoolSize.get(); size > largest; largest = largestPoolSize.get()) {
+      if (largestPoolSize.compareAndSet(largest, size)) {
+        break;
+      }
+    }
+  }
+
+  /** Runs tasks until {@link #getTask} tells the worker to exit. */
+  private void runWorker(Worker w) {
+    Runnable task = w.firstTask;
+    w.firstTask = null;
+    boolean completedAbruptly = true;
+    try {
+      while (task != null || (task = getTask()) != null) {
+        activeCount.incrementAndGet();
+        try {
+          beforeExecute(Thread.currentThread(), task);
+          try {
+            task.run();
+            afterExecute(task, null);
+          } catch (Throwable ex) {
+            afterExecute(task, ex);
+            throw ex;
+          }
+        } finally {
+          task = null;
+          completedTaskCount.incrementAndGet();
+          activeCount.decrementAndGet();
+        }
+      }
+      completedAbruptly = false;
+    } finally {
+      processWorkerExit(completedAbruptly);
+    }
+  }
+
+  /**
+   * Blocks for the next task, or returns null if the worker must exit, in which case the worker
+   * count has already been decremented. A worker exits if the pool is stopping, if the pool is shut
+   * down and the queue is empty, if there are more than {@link #maximumPoolSize} workers, or if it
+   * timed out waiting for a task while subject to the keep-alive time.
+   */
+  private @Nullable Runnable getTask() {
+    boolean timedOut = false;
+    long idleNanos = 0L;
+    for (; ; ) {
+      int c = ctl.get();
+      if (runStateAtLeast(c, STOP)) {
+        decrementWorkerCount();
+        return null;
+      }
+      int wc = workerCountOf(c);
+      boolean timed = allowCoreThreadTimeOut || wc > corePoolSize;
+      if ((wc > maximumPoolSize || (timed && timedOut)) && (wc > 1 || workQueue.isEmpty())) {
+        if (ctl.compareAndSet(c, c - 1)) {
+          return null;
+        }
+        continue;
+      }
+
+      Runnable r;
+      if (runStateAtLeast(c, SHUTDOWN)) {
+        // No new tasks are accepted anymore, so there is no point in waiting for any.
+        r = workQueue.poll();
+        if (r == null) {
+          decrementWorkerCount();
+          return null;
+        }
+      } else {
+        long wait =
+            timed ? Math.min(keepAliveTime - idleNanos, IDLE_RECHECK_NANOS) : IDLE_RECHECK_NANOS;
+        long start = System.nanoTime();
+        try {
+          r = workQueue.poll(wait, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException retry) {
+          r = null;
+        }
+        if (r == null) {
+          idleNanos += System.nanoTime() - start;
+          timedOut = timed && idleNanos >= keepAliveTime;
+        }
+      }
+      if (r != null) {
+        return r;
+      }
+    }
+  }
+
+  private void processWorkerExit(boolean completedAbruptly) {
+    if (completedAbruptly) {
+      decrementWorkerCount();
+    }
+    tryTerminate();
+
+    int c = ctl.get();
+    if (runStateLessThan(c, STOP)) {
+      if (!completedAbruptly) {
+        int min = allowCoreThreadTimeOut ? 0 : corePoolSize;
+        if (min == 0 && !workQueue.isEmpty()) {
+          min = 1;
+        }
+        if (workerCountOf(c) >= min) {
+          return;
+        }
+      }
+      // Replace a worker that died with an exception, or keep enough workers for the queue.
+      addWorker(null, false);
+    }
+  }
+
+  /**
+   * Transitions to TERMINATED if the pool is shut down with no workers left and an empty queue, or
+   * stopped with no workers left.
+   */
+  final void tryTerminate() {
+    for (; ; ) {
+      int c = ctl.get();
+      if (isRunning(c)
+          || runStateAtLeast(c, TIDYING)
+          || (runStateLessThan(c, STOP) && !workQueue.isEmpty())) {
+        return;
+      }
+      if (workerCountOf(c) != 0) {
+        return;
+      }
+      if (ctl.compareAndSet(c, TIDYING)) {
+        try {
+          terminated();
+        } finally {
+          ctl.set(TERMINATED);
+          workerExecutor.shutdown();
+          mainLock.lock();
+          try {
+            termination.signalAll();
+          } finally {
+            mainLock.unlock();
+          }
+        }
+        return;
+      }
+    }
+  }
+
+  /**
+   * Initiates an orderly shutdown in which previously submitted tasks are executed, but no new
+   * tasks will be accepted.
+   */
+  @Override
+  public void shutdown() {
+    advanceRunState(SHUTDOWN);
+    tryTerminate();
+  }
+
+  /**
+   * Attempts to stop all actively executing tasks, halts the processing of waiting tasks, and
+   * returns a list of the tasks that were awaiting execution. Tasks that are already running are
+   * not interrupted and run to completion.
+   */
+  @Override
+  public List<Runnable> shutdownNow() {
+    advanceRunState(STOP);
+    List<Runnable> tasks = drainQueue();
+    tryTerminate();
+    return tasks;
+  }
+
+  private List<Runnable> drainQueue() {
+    List<Runnable> tasks = new ArrayList<>();
+    workQueue.drainTo(tasks);
+    return tasks;
+  }
+
+  @Override
+  public boolean isShutdown() {
+    return runStateAtLeast(ctl.get(), SHUTDOWN);
+  }
+
+  /**
+   * Returns true if this executor is in the process of terminating after {@link #shutdown} or
+   * {@link #shutdownNow} but has not completely terminated.
+   */
+  public boolean isTerminating() {
+    int c = ctl.get();
+    return runStateAtLeast(c, SHUTDOWN) && runStateLessThan(c, TERMINATED);
+  }
+
+  @Override
+  public boolean isTerminated() {
+    return runStateAtLeast(ctl.get(), TERMINATED);
+  }
+
+  @Override
+  public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+    long nanos = unit.toNanos(timeout);
+    mainLock.lock();
+    try {
+      while (runStateLessThan(ctl.get(), TERMINATED)) {
+        if (nanos <= 0L) {
+          return false;
+        }
+        nanos = termination.awaitNanos(nanos);
+      }
+      return true;
+    } finally {
+      mainLock.unlock();
+    }
+  }
+
+  /** Sets a new handler for unexecutable tasks. */
+  public void setRejectedExecutionHandler(RejectedExecutionHandler handler) {
+    if (handler == null) {
+      throw new NullPointerException();
+    }
+    this.handler = handler;
+  }
+
+  /** Returns the current handler for unexecutable tasks. */
+  public RejectedExecutionHandler getRejectedExecutionHandler() {
+    return handler;
+  }
+
+  /**
+   * Sets the core number of workers. If the new value is larger, new workers are started to
+   * execute any queued tasks.
+   *
+   * @throws IllegalArgumentException if {@code corePoolSize < 0} or {@code corePoolSize} is greater
+   *     than the {@linkplain #getMaximumPoolSize() maximum pool size}
+   */
+  public void setCorePoolSize(int corePoolSize) {
+    if (corePoolSize < 0 || maximumPoolSize < corePoolSize) {
+      throw new IllegalArgumentException();
+    }
+    int delta = corePoolSize - this.corePoolSize;
+    this.corePoolSize = corePoolSize;
+    if (delta > 0) {
+      // Start as many workers as there are queued tasks, but no more than the delta.
+      int k = Math.min(delta, workQueue.size());
+      while (k-- > 0 && addWorker(null, true)) {
+        if (workQueue.isEmpty()) {
+          break;
+        }
+      }
+    }
+  }
+
+  /** Returns the core number of workers. */
+  public int getCorePoolSize() {
+    return corePoolSize;
+  }
+
+  /**
+   * Starts a core worker, causing it to idly wait for work. This overrides the default policy of
+   * starting core workers only when new tasks are executed.
+   *
+   * @return {@code true} if a worker was started
+   */
+  public boolean prestartCoreThread() {
+    return workerCountOf(ctl.get()) < corePoolSize && addWorker(null, true);
+  }
+
+  /**
+   * Starts all core workers, causing them to idly wait for work.
+   *
+   * @return the number of workers started
+   */
+  public int prestartAllCoreThreads() {
+    int n = 0;
+    while (addWorker(null, true)) {
+      ++n;
+    }
+    return n;
+  }
+
+  /**
+   * Returns true if core workers may time out and exit if no tasks arrive within the keep-alive
+   * time.
+   */
+  public boolean allowsCoreThreadTimeOut() {
+    return allowCoreThreadTimeOut;
+  }
+
+  /**
+   * Sets the policy governing whether core workers may time out and exit if no tasks arrive within
+   * the keep-alive time.
+   *
+   * @throws IllegalArgumentException if value is {@code true} and the current keep-alive time is
+   *     not greater than zero
+   */
+  public void allowCoreThreadTimeOut(boolean value) {
+    if (value && keepAliveTime <= 0) {
+      throw new IllegalArgumentException("Core threads must have nonzero keep alive times");
+    }
+    allowCoreThreadTimeOut = value;
+  }
+
+  /**
+   * Sets the maximum allowed number of workers. Excess workers exit when they next become idle.
+   *
+   * @throws IllegalArgumentException if the new maximum is less than or equal to zero, or less than
+   *     the {@linkplain #getCorePoolSize core pool size}
+   */
+  public void setMaximumPoolSize(int maximumPoolSize) {
+    if (maximumPoolSize <= 0 || maximumPoolSize < corePoolSize) {
+      throw new IllegalArgumentException();
+    }
+    this.maximumPoolSize = maximumPoolSize;
+  }
+
+  /** Returns the maximum allowed number of workers. */
+  public int getMaximumPoolSize() {
+    return maximumPoolSize;
+  }
+
+  /**
+   * Sets the time limit for which workers may remain idle before exiting.
+   *
+   * @throws IllegalArgumentException if {@code time} less than zero or if {@code time} is zero and
+   *     {@code allowsCoreThreadTimeOut}
+   */
+  public void setKeepAliveTime(long time, TimeUnit unit) {
+    if (time < 0) {
+      throw new IllegalArgumentException();
+    }
+    if (time == 0 && allowsCoreThreadTimeOut()) {
+      throw new IllegalArgumentException("Core threads must have nonzero keep alive times");
+    }
+    this.keepAliveTime = unit.toNanos(time);
+  }
+
+  /** Returns the keep-alive time in the given unit. */
+  public long getKeepAliveTime(TimeUnit unit) {
+    return unit.convert(keepAliveTime, TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * Returns the task queue used by this executor. Access to the task queue is intended primarily
+   * for debugging and monitoring.
+   */
+  public BlockingQueue<Runnable> getQueue() {
+    return workQueue;
+  }
+
+  /**
+   * Removes this task from the executor's internal queue if it is present, thus causing it not to
+   * be run if it has not already started.
+   *
+   * @return {@code true} if the task was removed
+   */
+  public boolean remove(Runnable task) {
+    boolean removed = workQueue.remove(task);
+    tryTerminate();
+    return removed;
+  }
+
+  /** Tries to remove from the work queue all {@link Future} tasks that have been cancelled. */
+  public void purge() {
+    Iterator<Runnable> it = workQueue.iterator();
+    while (it.hasNext()) {
+      Runnable r = it.next();
+      if (r instanceof Future<?> && ((Future<?>) r).isCancelled()) {
+        it.remove();
+      }
+    }
+    tryTerminate();
+  }
+
+  /** Returns the current number of workers in the pool. */
+  public int getPoolSize() {
+    int c = ctl.get();
+    return runStateAtLeast(c, TIDYING) ? 0 : workerCountOf(c);
+  }
+
+  /** Returns the approximate number of workers that are actively executing tasks. */
+  public int getActiveCount() {
+    return activeCount.get();
+  }
+
+  /** Returns the largest number of workers that have ever simultaneously been in the pool. */
+  public int getLargestPoolSize() {
+    return largestPoolSize.get();
+  }
+
+  /**
+   * Returns the approximate total number of tasks that have ever been scheduled for execution,
+   * counting completed, running and queued tasks.
+   */
+  public long getTaskCount() {
+    return completedTaskCount.get() + activeCount.get() + workQueue.size();
+  }
+
+  /** Returns the approximate total number of tasks that have completed execution. */
+  public long getCompletedTaskCount() {
+    return completedTaskCount.get();
+  }
+
+  @Override
+  public String toString() {
+    int c = ctl.get();
+    String runState =
+        isRunning(c)
+            ? "Running"
+            : runStateAtLeast(c, TERMINATED) ? "Terminated" : "Shutting down";
+    return super.toString()
+        + "["
+        + runState
+        + ", pool size = "
+        + getPoolSize()
+        + ", active threads = "
+        + getActiveCount()
+        + ", queued tasks = "
+        + workQueue.size()
+        + ", completed tasks = "
+        + getCompletedTaskCount()
+        + "]";
+  }
+
+  /**
+   * Method invoked prior to executing the given task on the given thread. This implementation does
+   * nothing. Subclasses should generally invoke {@code super.beforeExecute} at the end of this
+   * method.
+   */
+  protected void beforeExecute(Thread t, Runnable r) {}
+
+  /**
+   * Method invoked upon completion of execution of the given task, with the exception that caused
+   * it to terminate, if any. This implementation does nothing. Subclasses should generally invoke
+   * {@code super.afterExecute} at the beginning of this method.
+   */
+  protected void afterExecute(Runnable r, @Nullable Throwable t) {}
+
+  /** Method invoked when the executor has terminated. This implementation does nothing. */
+  protected void terminated() {}
+
+  /** A worker loop, run on the worker executor. */
+  private final class Worker implements Runnable {
+    @Nullable Runnable firstTask;
+
+    Worker(@Nullable Runnable firstTask) {
+      this.firstTask = firstTask;
+    }
+
+    @Override
+    public void run() {
+      runWorker(this);
+    }
+  }
+
+  /**
+   * A handler for rejected tasks that runs the rejected task directly in the calling thread of the
+   * {@code execute} method, unless the executor has been shut down, in which case the task is
+   * discarded. This slows down submitters to the rate at which the pool can make progress.
+   */
+  public static class CallerRunsPolicy implements RejectedExecutionHandler {
+    public CallerRunsPolicy() {}
+
+    @Override
+    public void rejectedExecution(Runnable r, ThreadPoolExecutor e) {
+      if (!e.isShutdown()) {
+        r.run();
+      }
+    }
+  }
+
+  /** A handler for rejected tasks that throws a {@link RejectedExecutionException}. */
+  public static class AbortPolicy implements RejectedExecutionHandler {
+    public AbortPolicy() {}
+
+    @Override
+    public void rejectedExecution(Runnable r, ThreadPoolExecutor e) {
+      throw new RejectedExecutionException("Task " + r + " rejected from " + e);
+    }
+  }
+
+  /** A handler for rejected tasks that silently discards the rejected task. */
+  public static class DiscardPolicy implements RejectedExecutionHandler {
+    public DiscardPolicy() {}
+
+    @Override
+    public void rejectedExecution(Runnable r, ThreadPoolExecutor e) {}
+  }
+
+  /**
+   * A handler for rejected tasks that discards the oldest unhandled request and then retries
+   * {@code execute}, unless the executor is shut down, in which case the task is discarded.
+   */
+  public static class DiscardOldestPolicy implements RejectedExecutionHandler {
+    public DiscardOldestPolicy() {}
+
+    @Override
+    public void rejectedExecution(Runnable r, ThreadPoolExecutor e) {
+      if (!e.isShutdown()) {
+        e.getQueue().poll();
+        e.execute(r);
+      }
+    }
+  }
+}
@@ -0,0 +1,235 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package java.util.concurrent
+
+import javaemul.lang.J2ktMonitor
+
+/**
+ * A hierarchical timing wheel of entries that become due at a deadline, in milliseconds.
+ *
+ * The lowest level has [WHEEL_SIZE] buckets of one millisecond each. Each higher level has buckets
+ * that span a whole revolution of the level below, and is created when an entry is too far in the
+ * future for the existing levels. When the clock reaches a bucket of a higher level, its entries
+ * move down to a finer level, until they are due.
+ *
+ * Adding and removing an entry takes constant time. Buckets that hold entries are also kept in a
+ * heap ordered by their expiration, so that the clock can jump to the next bucket instead of
+ * ticking through empty ones. A bucket only enters the heap when it is filled for a new expiration.
+ * The heap holds at most [WHEEL_SIZE] buckets per level.
+ *
+ * All methods are thread-safe.
+ */
+internal class TimingWheel {
+
+  /** An entry in the wheel. Entries are linked directly into their bucket. */
+  internal open class Entry {
+    internal var deadline = 0L
+    internal var bucket: Bucket? = null
+    internal var previous: Entry? = null
+    internal var next: Entry? = null
+  }
+
+  /** The result of [add]. */
+  enum class AddResult {
+    /** The entry is already due and was not added. */
+    DUE,
+    /** The entry was added. */
+    QUEUED,
+    /** The entry was added and made the next expiration earlier. */
+    QUEUED_FIRST,
+  }
+
+  /** A doubly linked list of entries that expire together. */
+  internal class Bucket {
+    internal var expiration = NO_EXPIRATION
+    private var head: Entry? = null
+
+    fun add(entry: Entry) {
+      val head = head
+      entry.bucket = this
+      entry.next = head
+      head?.previous = entry
+      this.head = entry
+    }
+
+    fun remove(entry: Entry) {
+      val previous = entry.previous
+      val next = entry.next
+      if (previous == null) {
+        head = next
+      } else {
+        previous.next = next
+      }
+      next?.previous = previous
+      entry.bucket = null
+      entry.previous = null
+      entry.next = null
+    }
+
+    /** Removes all entries and passes them to [action]. */
+    fun flush(action: (Entry) -> Unit) {
+      var entry = head
+      head = null
+      expiration = NO_EXPIRATION
+      while (entry != null) {
+        val next = entry.next
+        entry.bucket = null
+        entry.previous = null
+        entry.next = null
+        action(entry)
+        entry = next
+      }
+    }
+  }
+
+  private inner class Level(private val tickMillis: Long, startMillis: Long) {
+    private val interval = tickMillis * WHEEL_SIZE
+    private val buckets = Array(WHEEL_SIZE) { Bucket() }
+    private var currentTime = startMillis - startMillis % tickMillis
+    private var overflow: Level? = null
+
+    /** Adds [entry] to this level or a coarser one. Returns false if it is already due. */
+    fun add(entry: Entry): Boolean {
+      val deadline = entry.deadline
+      if (deadline < currentTime + tickMillis) {
+        return false
+      }
+      if (deadline < currentTime + interval) {
+        val virtualId = deadline / tickMillis
+        val bucket = buckets[(virtualId % WHEEL_SIZE).toInt()]
+        bucket.add(entry)
+        val expiration = virtualId * tickMillis
+        if (bucket.expiration != expiration) {
+          bucket.expiration = expiration
+          offer(bucket)
+        }
+        return true
+      }
+      val overflow = overflow ?: Level(interval, currentTime).also { this.overflow = it }
+      return overflow.add(entry)
+    }
+
+    fun advanceClock(timeMillis: Long) {
+      if (timeMillis >= currentTime + tickMillis) {
+        currentTime = timeMillis - timeMillis % tickMillis
+        overflow?.advanceClock(currentTime)
+      }
+    }
+  }
+
+  private val lock = J2ktMonitor()
+  private val wheel = Level(tickMillis = 1, startMillis = 0)
+  private var heap = arrayOfNulls<Bucket>(WHEEL_SIZE)
+  private var heapSize = 0
+
+  /**
+   * Adds [entry] to the wheel, or returns [AddResult.DUE] without adding it if its deadline is not
+   * after [nowMillis].
+   */
+  fun add(entry: Entry, nowMillis: Long): AddResult =
+    synchronized(lock) {
+      if (heapSize == 0) {
+        // Nothing is waiting, so the clock can catch up without skipping any bucket.
+        wheel.advanceClock(nowMillis)
+      }
+      val previousFirst = if (heapSize == 0) NO_EXPIRATION else heap[0]!!.expiration
+      entry.deadline = minOf(entry.deadline, MAX_DEADLINE)
+      when {
+        !wheel.add(entry) -> AddResult.DUE
+        previousFirst == NO_EXPIRATION || heap[0]!!.expiration < previousFirst ->
+          AddResult.QUEUED_FIRST
+        else -> AddResult.QUEUED
+      }
+    }
+
+  /** Removes [entry] from the wheel if it is still waiting. */
+  fun remove(entry: Entry) {
+    synchronized(lock) { entry.bucket?.remove(entry) }
+  }
+
+  /**
+   * Advances the clock to [nowMillis] and moves the entries that are due to [due]. Returns the
+   * time at which the next bucket expires, or [Long.MAX_VALUE] if the wheel is empty.
+   */
+  fun poll(nowMillis: Long, due: MutableList<Entry>): Long =
+    synchronized(lock) {
+      while (heapSize > 0) {
+        val bucket = heap[0]!!
+        if (bucket.expiration > nowMillis) {
+          return@synchronized bucket.expiration
+        }
+        removeFirst()
+        wheel.advanceClock(bucket.expiration)
+        bucket.flush { if (!wheel.add(it)) due.add(it) }
+      }
+      wheel.advanceClock(nowMillis)
+      Long.MAX_VALUE
+    }
+
+  private fun offer(bucket: Bucket) {
+    if (heapSize == heap.size) {
+      heap = heap.copyOf(2 * heapSize)
+    }
+    var index = heapSize++
+    while (index > 0) {
+      val parentIndex = (index - 1) / 2
+      val parent = heap[parentIndex]!!
+      if (parent.expiration <= bucket.expiration) {
+        break
+      }
+      heap[index] = parent
+      index = parentIndex
+    }
+    heap[index] = bucket
+  }
+
+  private fun removeFirst() {
+    val last = heap[--heapSize]!!
+    heap[heapSize] = null
+    if (heapSize == 0) {
+      return
+    }
+    var index = 0
+    while (true) {
+      var childIndex = 2 * index + 1
+      if (childIndex >= heapSize) {
+        break
+      }
+      if (
+        childIndex + 1 < heapSize &&
+          heap[childIndex + 1]!!.expiration < heap[childIndex]!!.expiration
+      ) {
+        childIndex++
+      }
+      val child = heap[childIndex]!!
+      if (last.expiration <= child.expiration) {
+        break
+      }
+      heap[index] = child
+      index = childIndex
+    }
+    heap[index] = last
+  }
+
+  private companion object {
+    const val WHEEL_SIZE = 64
+
+    const val NO_EXPIRATION = -1L
+
+    // Keeps the intervals of all levels from overflowing. This is still millions of years away.
+    const val MAX_DEADLINE = 1L shl 59
+  }
+}
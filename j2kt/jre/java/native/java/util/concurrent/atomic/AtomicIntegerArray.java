@@ -30,6 +30,12 @@ public final class AtomicIntegerArray {
 
   public native int get(int i);
 
+  public native int getPlain(int i);
+
+  public native int getOpaque(int i);
+
+  public native int getAcquire(int i);
+
   public native int getAndAccumulate(int i, int x, IntBinaryOperator accumulatorFunction);
 
   public native int getAndAdd(int i, int delta);
@@ -54,10 +60,22 @@ public final class AtomicIntegerArray {
 
   public native boolean compareAndSet(int i, int expect, int update);
 
+  public native int compareAndExchange(int i, int expect, int update);
+
   public native boolean weakCompareAndSet(int i, int expect, int update);
 
+  public native boolean weakCompareAndSetPlain(int i, int expect, int update);
+
+  public native boolean weakCompareAndSetVolatile(int i, int expect, int update);
+
   public native void set(int i, int newValue);
 
+  public native void setPlain(int i, int newValue);
+
+  public native void setOpaque(int i, int newValue);
+
+  public native void setRelease(int i, int newValue);
+
   public native void lazySet(int i, int newValue);
 
   public native int length();
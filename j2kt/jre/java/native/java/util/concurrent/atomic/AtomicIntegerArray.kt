@@ -1,3 +1,5 @@
+@file:OptIn(ExperimentalStdlibApi::class)
+
 /*
  * Copyright 2025 Google Inc.
  *
@@ -17,62 +19,109 @@ package java.util.concurrent.atomic
 
 import java.util.function.IntBinaryOperator
 import java.util.function.IntUnaryOperator
-import kotlin.collections.contentToString
-import kotlinx.atomicfu.atomic
-import kotlinx.atomicfu.getAndUpdate
-import kotlinx.atomicfu.updateAndGet
 
-class AtomicIntegerArray private constructor(private val array: Array<kotlinx.atomicfu.AtomicInt>) {
+/**
+ * J2KT Native emulated version of `AtomicIntegerArray`, backed by a flat
+ * [kotlin.concurrent.AtomicIntArray] instead of one atomic box per element.
+ *
+ * Kotlin/Native atomics are always sequentially consistent, so the plain, opaque, acquire and
+ * release access modes are implemented with volatile accesses.
+ */
+class AtomicIntegerArray private constructor(private val array: kotlin.concurrent.AtomicIntArray) {
 
-  constructor(
-    array: IntArray
-  ) : this(Array<kotlinx.atomicfu.AtomicInt>(array.size) { kotlinx.atomicfu.atomic(array[it]) })
+  constructor(array: IntArray) : this(kotlin.concurrent.AtomicIntArray(array.size) { array[it] })
 
-  constructor(
-    length: Int
-  ) : this(Array<kotlinx.atomicfu.AtomicInt>(length) { kotlinx.atomicfu.atomic(0) })
+  constructor(length: Int) : this(kotlin.concurrent.AtomicIntArray(length))
 
-  fun get(i: Int): Int = array[i].value
+  fun get(i: Int): Int = array[i]
 
-  fun getAndAccumulate(i: Int, x: Int, accumulatorFunction: IntBinaryOperator): Int =
-    array[i].getAndUpdate { accumulatorFunction.applyAsInt(x, it) }
+  fun getPlain(i: Int): Int = array[i]
 
-  fun getAndAdd(i: Int, delta: Int): Int = array[i].getAndAdd(delta)
+  fun getOpaque(i: Int): Int = array[i]
 
-  fun getAndIncrement(i: Int): Int = array[i].getAndIncrement()
+  fun getAcquire(i: Int): Int = array[i]
 
-  fun getAndDecrement(i: Int): Int = array[i].getAndDecrement()
+  fun getAndAccumulate(i: Int, x: Int, accumulatorFunction: IntBinaryOperator): Int {
+    while (true) {
+      val prev = array[i]
+      if (array.compareAndSet(i, prev, accumulatorFunction.applyAsInt(prev, x))) return prev
+    }
+  }
 
-  fun getAndSet(i: Int, newValue: Int): Int = array[i].getAndSet(newValue)
+  fun getAndAdd(i: Int, delta: Int): Int = array.getAndAdd(i, delta)
 
-  fun getAndUpdate(i: Int, updateFunction: IntUnaryOperator): Int =
-    array[i].getAndUpdate { updateFunction.applyAsInt(it) }
+  fun getAndIncrement(i: Int): Int = array.getAndIncrement(i)
 
-  fun accumulateAndGet(i: Int, x: Int, accumulatorFunction: IntBinaryOperator): Int =
-    array[i].updateAndGet { accumulatorFunction.applyAsInt(x, it) }
+  fun getAndDecrement(i: Int): Int = array.getAndDecrement(i)
 
-  fun addAndGet(i: Int, delta: Int): Int = array[i].addAndGet(delta)
+  fun getAndSet(i: Int, newValue: Int): Int = array.getAndSet(i, newValue)
 
-  fun incrementAndGet(i: Int): Int = array[i].incrementAndGet()
+  fun getAndUpdate(i: Int, updateFunction: IntUnaryOperator): Int {
+    while (true) {
+      val prev = array[i]
+      if (array.compareAndSet(i, prev, updateFunction.applyAsInt(prev))) return prev
+    }
+  }
 
-  fun decrementAndGet(i: Int): Int = array[i].decrementAndGet()
+  fun accumulateAndGet(i: Int, x: Int, accumulatorFunction: IntBinaryOperator): Int {
+    while (true) {
+      val prev = array[i]
+      val next = accumulatorFunction.applyAsInt(prev, x)
+      if (array.compareAndSet(i, prev, next)) return next
+    }
+  }
 
-  fun updateAndGet(i: Int, updateFunction: IntUnaryOperator): Int =
-    array[i].updateAndGet { updateFunction.applyAsInt(it) }
+  fun addAndGet(i: Int, delta: Int): Int = array.addAndGet(i, delta)
+
+  fun incrementAndGet(i: Int): Int = array.incrementAndGet(i)
+
+  fun decrementAndGet(i: Int): Int = array.decrementAndGet(i)
+
+  fun updateAndGet(i: Int, updateFunction: IntUnaryOperator): Int {
+    while (true) {
+      val prev = array[i]
+      val next = updateFunction.applyAsInt(prev)
+      if (array.compareAndSet(i, prev, next)) return next
+    }
+  }
 
   fun compareAndSet(i: Int, expect: Int, update: Int): Boolean =
-    array[i].compareAndSet(expect, update)
+    array.compareAndSet(i, expect, update)
+
+  fun compareAndExchange(i: Int, expect: Int, update: Int): Int =
+    array.compareAndExchange(i, expect, update)
 
   fun weakCompareAndSet(i: Int, expect: Int, update: Int): Boolean =
     compareAndSet(i, expect, update)
 
+  fun weakCompareAndSetPlain(i: Int, expect: Int, update: Int): Boolean =
+    compareAndSet(i, expect, update)
+
+  fun weakCompareAndSetVolatile(i: Int, expect: Int, update: Int): Boolean =
+    compareAndSet(i, expect, update)
+
   fun set(i: Int, newValue: Int) {
-    array[i].value = newValue
+    array[i] = newValue
+  }
+
+  fun setPlain(i: Int, newValue: Int) {
+    array[i] = newValue
   }
 
-  fun lazySet(i: Int, newValue: Int) = array[i].lazySet(newValue)
+  fun setOpaque(i: Int, newValue: Int) {
+    array[i] = newValue
+  }
+
+  fun setRelease(i: Int, newValue: Int) {
+    array[i] = newValue
+  }
+
+  fun lazySet(i: Int, newValue: Int) {
+    array[i] = newValue
+  }
 
   fun length(): Int = array.size
 
-  override fun toString(): String = array.contentToString()
+  override fun toString(): String =
+    (0 until array.size).joinToString(", ", "[", "]") { array[it].toString() }
 }
@@ -30,6 +30,12 @@ public final class AtomicLongArray {
 
   public native long get(int i);
 
+  public native long getPlain(int i);
+
+  public native long getOpaque(int i);
+
+  public native long getAcquire(int i);
+
   public native long getAndAccumulate(int i, long x, LongBinaryOperator accumulatorFunction);
 
   public native long getAndAdd(int i, long delta);
@@ -54,10 +60,22 @@ public final class AtomicLongArray {
 
   public native boolean compareAndSet(int i, long expect, long update);
 
+  public native long compareAndExchange(int i, long expect, long update);
+
   public native boolean weakCompareAndSet(int i, long expect, long update);
 
+  public native boolean weakCompareAndSetPlain(int i, long expect, long update);
+
+  public native boolean weakCompareAndSetVolatile(int i, long expect, long update);
+
   public native void set(int i, long newValue);
 
+  public native void setPlain(int i, long newValue);
+
+  public native void setOpaque(int i, long newValue);
+
+  public native void setRelease(int i, long newValue);
+
   public native void lazySet(int i, long newValue);
 
   public native int length();
@@ -1,3 +1,5 @@
+@file:OptIn(ExperimentalStdlibApi::class)
+
 /*
  * Copyright 2025 Google Inc.
  *
@@ -17,62 +19,109 @@ package java.util.concurrent.atomic
 
 import java.util.function.LongBinaryOperator
 import java.util.function.LongUnaryOperator
-import kotlin.collections.contentToString
-import kotlinx.atomicfu.atomic
-import kotlinx.atomicfu.getAndUpdate
-import kotlinx.atomicfu.updateAndGet
 
-class AtomicLongArray private constructor(private val array: Array<kotlinx.atomicfu.AtomicLong>) {
+/**
+ * J2KT Native emulated version of `AtomicLongArray`, backed by a flat
+ * [kotlin.concurrent.AtomicLongArray] instead of one atomic box per element.
+ *
+ * Kotlin/Native atomics are always sequentially consistent, so the plain, opaque, acquire and
+ * release access modes are implemented with volatile accesses.
+ */
+class AtomicLongArray private constructor(private val array: kotlin.concurrent.AtomicLongArray) {
 
-  constructor(
-    array: LongArray
-  ) : this(Array<kotlinx.atomicfu.AtomicLong>(array.size) { kotlinx.atomicfu.atomic(array[it]) })
+  constructor(array: LongArray) : this(kotlin.concurrent.AtomicLongArray(array.size) { array[it] })
 
-  constructor(
-    length: Int
-  ) : this(Array<kotlinx.atomicfu.AtomicLong>(length) { kotlinx.atomicfu.atomic(0L) })
+  constructor(length: Int) : this(kotlin.concurrent.AtomicLongArray(length))
 
-  fun get(i: Int): Long = array[i].value
+  fun get(i: Int): Long = array[i]
 
-  fun getAndAccumulate(i: Int, x: Long, accumulatorFunction: LongBinaryOperator): Long =
-    array[i].getAndUpdate { accumulatorFunction.applyAsLong(x, it) }
+  fun getPlain(i: Int): Long = array[i]
 
-  fun getAndAdd(i: Int, delta: Long): Long = array[i].getAndAdd(delta)
+  fun getOpaque(i: Int): Long = array[i]
 
-  fun getAndIncrement(i: Int): Long = array[i].getAndIncrement()
+  fun getAcquire(i: Int): Long = array[i]
 
-  fun getAndDecrement(i: Int): Long = array[i].getAndDecrement()
+  fun getAndAccumulate(i: Int, x: Long, accumulatorFunction: LongBinaryOperator): Long {
+    while (true) {
+      val prev = array[i]
+      if (array.compareAndSet(i, prev, accumulatorFunction.applyAsLong(prev, x))) return prev
+    }
+  }
 
-  fun getAndSet(i: Int, newValue: Long): Long = array[i].getAndSet(newValue)
+  fun getAndAdd(i: Int, delta: Long): Long = array.getAndAdd(i, delta)
 
-  fun getAndUpdate(i: Int, updateFunction: LongUnaryOperator): Long =
-    array[i].getAndUpdate { updateFunction.applyAsLong(it) }
+  fun getAndIncrement(i: Int): Long = array.getAndIncrement(i)
 
-  fun accumulateAndGet(i: Int, x: Long, accumulatorFunction: LongBinaryOperator): Long =
-    array[i].updateAndGet { accumulatorFunction.applyAsLong(x, it) }
+  fun getAndDecrement(i: Int): Long = array.getAndDecrement(i)
 
-  fun addAndGet(i: Int, delta: Long): Long = array[i].addAndGet(delta)
+  fun getAndSet(i: Int, newValue: Long): Long = array.getAndSet(i, newValue)
 
-  fun incrementAndGet(i: Int): Long = array[i].incrementAndGet()
+  fun getAndUpdate(i: Int, updateFunction: LongUnaryOperator): Long {
+    while (true) {
+      val prev = array[i]
+      if (array.compareAndSet(i, prev, updateFunction.applyAsLong(prev))) return prev
+    }
+  }
 
-  fun decrementAndGet(i: Int): Long = array[i].decrementAndGet()
+  fun accumulateAndGet(i: Int, x: Long, accumulatorFunction: LongBinaryOperator): Long {
+    while (true) {
+      val prev = array[i]
+      val next = accumulatorFunction.applyAsLong(prev, x)
+      if (array.compareAndSet(i, prev, next)) return next
+    }
+  }
 
-  fun updateAndGet(i: Int, updateFunction: LongUnaryOperator): Long =
-    array[i].updateAndGet { updateFunction.applyAsLong(it) }
+  fun addAndGet(i: Int, delta: Long): Long = array.addAndGet(i, delta)
+
+  fun incrementAndGet(i: Int): Long = array.incrementAndGet(i)
+
+  fun decrementAndGet(i: Int): Long = array.decrementAndGet(i)
+
+  fun updateAndGet(i: Int, updateFunction: LongUnaryOperator): Long {
+    while (true) {
+      val prev = array[i]
+      val next = updateFunction.applyAsLong(prev)
+      if (array.compareAndSet(i, prev, next)) return next
+    }
+  }
 
   fun compareAndSet(i: Int, expect: Long, update: Long): Boolean =
-    array[i].compareAndSet(expect, update)
+    array.compareAndSet(i, expect, update)
+
+  fun compareAndExchange(i: Int, expect: Long, update: Long): Long =
+    array.compareAndExchange(i, expect, update)
 
   fun weakCompareAndSet(i: Int, expect: Long, update: Long): Boolean =
     compareAndSet(i, expect, update)
 
+  fun weakCompareAndSetPlain(i: Int, expect: Long, update: Long): Boolean =
+    compareAndSet(i, expect, update)
+
+  fun weakCompareAndSetVolatile(i: Int, expect: Long, update: Long): Boolean =
+    compareAndSet(i, expect, update)
+
   fun set(i: Int, newValue: Long) {
-    array[i].value = newValue
+    array[i] = newValue
+  }
+
+  fun setPlain(i: Int, newValue: Long) {
+    array[i] = newValue
   }
 
-  fun lazySet(i: Int, newValue: Long) = array[i].lazySet(newValue)
+  fun setOpaque(i: Int, newValue: Long) {
+    array[i] = newValue
+  }
+
+  fun setRelease(i: Int, newValue: Long) {
+    array[i] = newValue
+  }
+
+  fun lazySet(i: Int, newValue: Long) {
+    array[i] = newValue
+  }
 
   fun length(): Int = array.size
 
-  override fun toString(): String = array.contentToString()
+  override fun toString(): String =
+    (0 until array.size).joinToString(", ", "[", "]") { array[it].toString() }
 }
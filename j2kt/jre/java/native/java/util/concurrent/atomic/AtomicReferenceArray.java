@@ -37,8 +37,16 @@ public class AtomicReferenceArray<V extends @Nullable Object> {
 
   public native boolean compareAndSet(int i, V expect, V update);
 
+  public native V compareAndExchange(int i, V expect, V update);
+
   public native V get(int i);
 
+  public native V getPlain(int i);
+
+  public native V getOpaque(int i);
+
+  public native V getAcquire(int i);
+
   public native V getAndSet(int i, V x);
 
   public native void lazySet(int i, V x);
@@ -47,8 +55,18 @@ public class AtomicReferenceArray<V extends @Nullable Object> {
 
   public native void set(int i, V x);
 
+  public native void setPlain(int i, V x);
+
+  public native void setOpaque(int i, V x);
+
+  public native void setRelease(int i, V x);
+
   public native boolean weakCompareAndSet(int i, V expect, V update);
 
+  public native boolean weakCompareAndSetPlain(int i, V expect, V update);
+
+  public native boolean weakCompareAndSetVolatile(int i, V expect, V update);
+
   @Override
   public native String toString();
 }
@@ -1,3 +1,5 @@
+@file:OptIn(ExperimentalStdlibApi::class)
+
 // CHECKSTYLE_OFF: Copyrighted to Guava Authors.
 /*
  * Copyright (C) 2015 The Guava Authors
@@ -17,38 +19,72 @@
 // CHECKSTYLE_ON
 package java.util.concurrent.atomic
 
-import kotlinx.atomicfu.AtomicRef
-import kotlinx.atomicfu.atomic
+import kotlin.concurrent.AtomicArray
+import kotlin.concurrent.atomicArrayOfNulls
 
 /**
- * J2KT Native emulated version of `AtomicReferenceArray`.
+ * J2KT Native emulated version of `AtomicReferenceArray`, backed by a flat [AtomicArray] instead
+ * of one atomic box per element.
+ *
+ * Kotlin/Native atomics are always sequentially consistent, so the plain, opaque, acquire and
+ * release access modes are implemented with volatile accesses.
  *
  * @param V the element type.
  */
-class AtomicReferenceArray<V> private constructor(private val array: Array<AtomicRef<V>>) {
+class AtomicReferenceArray<V> private constructor(private val array: AtomicArray<V>) {
+
+  constructor(array: Array<V>) : this(AtomicArray(array.size) { array[it] })
+
+  fun compareAndSet(i: Int, expect: V, update: V) = array.compareAndSet(i, expect, update)
 
-  constructor(array: Array<V>) : this(Array(array.size) { atomic<V>(array[it]) })
+  fun compareAndExchange(i: Int, expect: V, update: V): V =
+    array.compareAndExchange(i, expect, update)
 
-  fun compareAndSet(i: Int, expect: V, update: V) = array[i].compareAndSet(expect, update)
+  fun get(i: Int): V = array[i]
 
-  fun get(i: Int) = array[i].value
+  fun getPlain(i: Int): V = array[i]
 
-  fun getAndSet(i: Int, x: V) = array[i].getAndSet(x)
+  fun getOpaque(i: Int): V = array[i]
 
-  fun lazySet(i: Int, x: V) = array[i].lazySet(x)
+  fun getAcquire(i: Int): V = array[i]
+
+  fun getAndSet(i: Int, x: V): V = array.getAndSet(i, x)
+
+  fun lazySet(i: Int, x: V) {
+    array[i] = x
+  }
 
   fun length(): Int = array.size
 
   fun set(i: Int, x: V) {
-    array[i].value = x
+    array[i] = x
+  }
+
+  fun setPlain(i: Int, x: V) {
+    array[i] = x
+  }
+
+  fun setOpaque(i: Int, x: V) {
+    array[i] = x
+  }
+
+  fun setRelease(i: Int, x: V) {
+    array[i] = x
   }
 
   fun weakCompareAndSet(i: Int, expect: V, update: V): Boolean = compareAndSet(i, expect, update)
 
-  override fun toString(): String = array.toString()
+  fun weakCompareAndSetPlain(i: Int, expect: V, update: V): Boolean =
+    compareAndSet(i, expect, update)
+
+  fun weakCompareAndSetVolatile(i: Int, expect: V, update: V): Boolean =
+    compareAndSet(i, expect, update)
+
+  override fun toString(): String =
+    (0 until array.size).joinToString(", ", "[", "]") { array[it].toString() }
 
   companion object {
     operator fun <V> invoke(length: Int): AtomicReferenceArray<V?> =
-      AtomicReferenceArray<V?>(Array(length) { atomic<V?>(null) })
+      AtomicReferenceArray<V?>(atomicArrayOfNulls<V>(length))
   }
 }
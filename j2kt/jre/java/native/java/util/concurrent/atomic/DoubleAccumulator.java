@@ -0,0 +1,189 @@
+/*
+ * Written by Doug Lea with assistance from members of JCP JSR-166
+ * Expert Group and released to the public domain, as explained at
+ * http://creativecommons.org/publicdomain/zero/1.0/
+ */
+
+package java.util.concurrent.atomic;
+
+import java.io.Serializable;
+import java.util.function.DoubleBinaryOperator;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+// J2kt-native: (de)serialization proxy removed.
+
+/**
+ * One or more variables that together maintain a running {@code double} value updated using a
+ * supplied function. When updates (method {@link #accumulate}) are contended across threads, the
+ * set of variables may grow dynamically to reduce contention. Method {@link #get} (or,
+ * equivalently, {@link #doubleValue}) returns the current value across the variables maintaining
+ * updates.
+ *
+ * <p>This class is usually preferable to alternatives when multiple threads update a common value
+ * that is used for purposes such as summary statistics that are frequently updated but less
+ * frequently read.
+ *
+ * <p>The supplied accumulator function should be side-effect-free, since it may be re-applied when
+ * attempted updates fail due to contention among threads. The function is applied with the current
+ * value as its first argument, and the given update as the second argument. For example, to
+ * maintain a running maximum value, you could supply {@code Double::max} along with {@code
+ * Double.NEGATIVE_INFINITY} as the identity. The order of accumulation within or across threads is
+ * not guaranteed. Thus, this class may not be applicable if numerical stability is required,
+ * especially when combining values of substantially different orders of magnitude.
+ *
+ * <p>Class {@link DoubleAdder} provides analogs of the functionality of this class for the common
+ * special case of maintaining sums. The call {@code new DoubleAdder()} is equivalent to {@code new
+ * DoubleAccumulator((x, y) -> x + y, 0.0)}.
+ *
+ * <p>This class extends {@link Number}, but does <em>not</em> define methods such as {@code
+ * equals}, {@code hashCode} and {@code compareTo} because instances are expected to be mutated,
+ * and so are not useful as collection keys.
+ *
+ * @since 1.8
+ * @author Doug Lea
+ */
+@NullMarked
+public class DoubleAccumulator extends Striped64 implements Serializable {
+
+  private final DoubleBinaryOperator function;
+  private final long identity; // use long representation
+
+  /**
+   * Creates a new instance using the given accumulator function and identity element.
+   *
+   * @param accumulatorFunction a side-effect-free function of two arguments
+   * @param identity identity (initial value) for the accumulator function
+   */
+  public DoubleAccumulator(DoubleBinaryOperator accumulatorFunction, double identity) {
+    this.function = accumulatorFunction;
+    this.identity = Double.doubleToRawLongBits(identity);
+    base.set(this.identity);
+  }
+
+  /**
+   * Updates with the given value.
+   *
+   * @param x the value
+   */
+  public void accumulate(double x) {
+    @Nullable Cell @Nullable [] as = cells;
+    long b;
+    long r;
+    if (as != null || ((r = apply(b = base.get(), x)) != b && !casBase(b, r))) {
+      boolean uncontended = true;
+      int m;
+      @Nullable Cell a;
+      long v;
+      if (as == null
+          || (m = as.length - 1) < 0
+          || (a = as[getProbe() & m]) == null
+          || !(uncontended = (r = apply(v = a.value.get(), x)) == v || a.cas(v, r))) {
+        doubleAccumulate(x, function, uncontended);
+      }
+    }
+  }
+
+  /** Applies the function to the double with bits {@code v} and {@code x}, returning bits. */
+  private long apply(long v, double x) {
+    return Double.doubleToRawLongBits(function.applyAsDouble(Double.longBitsToDouble(v), x));
+  }
+
+  /**
+   * Returns the current value. The returned value is <em>NOT</em> an atomic snapshot; invocation in
+   * the absence of concurrent updates returns an accurate result, but concurrent updates that occur
+   * while the value is being calculated might not be incorporated.
+   *
+   * @return the current value
+   */
+  public double get() {
+    @Nullable Cell @Nullable [] as = cells;
+    double result = Double.longBitsToDouble(base.get());
+    if (as != null) {
+      for (@Nullable Cell a : as) {
+        if (a != null) {
+          result = function.applyAsDouble(result, Double.longBitsToDouble(a.value.get()));
+        }
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Resets variables maintaining updates to the identity value. This method may be a useful
+   * alternative to creating a new updater, but is only effective if there are no concurrent
+   * updates. Because this method is intrinsically racy, it should only be used when it is known
+   * that no threads are concurrently updating.
+   */
+  public void reset() {
+    @Nullable Cell @Nullable [] as = cells;
+    base.set(identity);
+    if (as != null) {
+      for (@Nullable Cell a : as) {
+        if (a != null) {
+          a.value.set(identity);
+        }
+      }
+    }
+  }
+
+  /**
+   * Equivalent in effect to {@link #get} followed by {@link #reset}. This method may apply for
+   * example during quiescent points between multithreaded computations. If there are updates
+   * concurrent with this method, the returned value is <em>not</em> guaranteed to be the final
+   * value occurring before the reset.
+   *
+   * @return the value before reset
+   */
+  public double getThenReset() {
+    @Nullable Cell @Nullable [] as = cells;
+    double result = Double.longBitsToDouble(base.getAndSet(identity));
+    if (as != null) {
+      for (@Nullable Cell a : as) {
+        if (a != null) {
+          double v = Double.longBitsToDouble(a.value.getAndSet(identity));
+          result = function.applyAsDouble(result, v);
+        }
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Returns the String representation of the current value.
+   *
+   * @return the String representation of the current value
+   */
+  @Override
+  public String toString() {
+    return Double.toString(get());
+  }
+
+  /**
+   * Equivalent to {@link #get}.
+   *
+   * @return the current value
+   */
+  @Override
+  public double doubleValue() {
+    return get();
+  }
+
+  /** Returns the current value as a {@code long} after a narrowing primitive conversion. */
+  @Override
+  public long longValue() {
+    return (long) get();
+  }
+
+  /** Returns the current value as an {@code int} after a narrowing primitive conversion. */
+  @Override
+  public int intValue() {
+    return (int) get();
+  }
+
+  /** Returns the current value as a {@code float} after a narrowing primitive conversion. */
+  @Override
+  public float floatValue() {
+    return (float) get();
+  }
+}
@@ -0,0 +1,170 @@
+/*
+ * Written by Doug Lea with assistance from members of JCP JSR-166
+ * Expert Group and released to the public domain, as explained at
+ * http://creativecommons.org/publicdomain/zero/1.0/
+ */
+
+package java.util.concurrent.atomic;
+
+import java.io.Serializable;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+// J2kt-native: (de)serialization proxy removed.
+
+/**
+ * One or more variables that together maintain an initially zero {@code double} sum. When updates
+ * (method {@link #add}) are contended across threads, the set of variables may grow dynamically to
+ * reduce contention. Method {@link #sum} (or, equivalently {@link #doubleValue}) returns the
+ * current total combined across the variables maintaining the sum. The order of accumulation
+ * within or across threads is not guaranteed. Thus, this class may not be applicable if numerical
+ * stability is required, especially when combining values of substantially different orders of
+ * magnitude.
+ *
+ * <p>This class extends {@link Number}, but does <em>not</em> define methods such as {@code
+ * equals}, {@code hashCode} and {@code compareTo} because instances are expected to be mutated,
+ * and so are not useful as collection keys.
+ *
+ * @since 1.8
+ * @author Doug Lea
+ */
+@NullMarked
+public class DoubleAdder extends Striped64 implements Serializable {
+
+  /*
+   * Note that we must use "long" for underlying representations, because there is no compareAndSet
+   * for double, due to the fact that the bitwise equals used in any CAS implementation is not the
+   * same as double-precision equals. However, we use CAS only to detect and alleviate contention,
+   * for which bitwise equals works best anyway. In principle, the long/double conversions used here
+   * should be essentially free on most platforms since they just re-interpret bits.
+   */
+
+  /** Creates a new adder with initial sum of zero. */
+  public DoubleAdder() {}
+
+  /**
+   * Adds the given value.
+   *
+   * @param x the value to add
+   */
+  public void add(double x) {
+    @Nullable Cell @Nullable [] as = cells;
+    long b;
+    if (as != null
+        || !casBase(
+            b = base.get(), Double.doubleToRawLongBits(Double.longBitsToDouble(b) + x))) {
+      boolean uncontended = true;
+      int m;
+      @Nullable Cell a;
+      long v;
+      if (as == null
+          || (m = as.length - 1) < 0
+          || (a = as[getProbe() & m]) == null
+          || !(uncontended =
+              a.cas(
+                  v = a.value.get(),
+                  Double.doubleToRawLongBits(Double.longBitsToDouble(v) + x)))) {
+        doubleAccumulate(x, null, uncontended);
+      }
+    }
+  }
+
+  /**
+   * Returns the current sum. The returned value is <em>NOT</em> an atomic snapshot; invocation in
+   * the absence of concurrent updates returns an accurate result, but concurrent updates that occur
+   * while the sum is being calculated might not be incorporated. Also, because floating-point
+   * arithmetic is not strictly associative, the returned result need not be identical to the value
+   * that would be obtained in a sequential series of updates to a single variable.
+   *
+   * @return the sum
+   */
+  public double sum() {
+    @Nullable Cell @Nullable [] as = cells;
+    double sum = Double.longBitsToDouble(base.get());
+    if (as != null) {
+      for (@Nullable Cell a : as) {
+        if (a != null) {
+          sum += Double.longBitsToDouble(a.value.get());
+        }
+      }
+    }
+    return sum;
+  }
+
+  /**
+   * Resets variables maintaining the sum to zero. This method may be a useful alternative to
+   * creating a new adder, but is only effective if there are no concurrent updates. Because this
+   * method is intrinsically racy, it should only be used when it is known that no threads are
+   * concurrently updating.
+   */
+  public void reset() {
+    @Nullable Cell @Nullable [] as = cells;
+    base.set(0L); // relies on fact that double 0 must have same rep as long
+    if (as != null) {
+      for (@Nullable Cell a : as) {
+        if (a != null) {
+          a.value.set(0L);
+        }
+      }
+    }
+  }
+
+  /**
+   * Equivalent in effect to {@link #sum} followed by {@link #reset}. This method may apply for
+   * example during quiescent points between multithreaded computations. If there are updates
+   * concurrent with this method, the returned value is <em>not</em> guaranteed to be the final
+   * value occurring before the reset.
+   *
+   * @return the sum
+   */
+  public double sumThenReset() {
+    @Nullable Cell @Nullable [] as = cells;
+    double sum = Double.longBitsToDouble(base.getAndSet(0L));
+    if (as != null) {
+      for (@Nullable Cell a : as) {
+        if (a != null) {
+          sum += Double.longBitsToDouble(a.value.getAndSet(0L));
+        }
+      }
+    }
+    return sum;
+  }
+
+  /**
+   * Returns the String representation of the {@link #sum}.
+   *
+   * @return the String representation of the {@link #sum}
+   */
+  @Override
+  public String toString() {
+    return Double.toString(sum());
+  }
+
+  /**
+   * Equivalent to {@link #sum}.
+   *
+   * @return the sum
+   */
+  @Override
+  public double doubleValue() {
+    return sum();
+  }
+
+  /** Returns the {@link #sum} as a {@code long} after a narrowing primitive conversion. */
+  @Override
+  public long longValue() {
+    return (long) sum();
+  }
+
+  /** Returns the {@link #sum} as an {@code int} after a narrowing primitive conversion. */
+  @Override
+  public int intValue() {
+    return (int) sum();
+  }
+
+  /** Returns the {@link #sum} as a {@code float} after a narrowing primitive conversion. */
+  @Override
+  public float floatValue() {
+    return (float) sum();
+  }
+}
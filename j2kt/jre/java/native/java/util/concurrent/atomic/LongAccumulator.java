@@ -0,0 +1,186 @@
+/*
+ * Written by Doug Lea with assistance from members of JCP JSR-166
+ * Expert Group and released to the public domain, as explained at
+ * http://creativecommons.org/publicdomain/zero/1.0/
+ */
+
+package java.util.concurrent.atomic;
+
+import java.io.Serializable;
+import java.util.function.LongBinaryOperator;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+// J2kt-native: (de)serialization proxy removed.
+
+/**
+ * One or more variables that together maintain a running {@code long} value updated using a
+ * supplied function. When updates (method {@link #accumulate}) are contended across threads, the
+ * set of variables may grow dynamically to reduce contention. Method {@link #get} (or,
+ * equivalently, {@link #longValue}) returns the current value across the variables maintaining
+ * updates.
+ *
+ * <p>This class is usually preferable to {@link AtomicLong} when multiple threads update a common
+ * value that is used for purposes such as collecting statistics, not for fine-grained
+ * synchronization control. Under low update contention, the two classes have similar
+ * characteristics. But under high contention, expected throughput of this class is significantly
+ * higher, at the expense of higher space consumption.
+ *
+ * <p>The order of accumulation within or across threads is not guaranteed and cannot be depended
+ * upon, so this class is only applicable to functions for which the order of accumulation does not
+ * matter. The supplied accumulator function should be side-effect-free, since it may be re-applied
+ * when attempted updates fail due to contention among threads. The function is applied with the
+ * current value as its first argument, and the given update as the second argument. For example,
+ * to maintain a running maximum value, you could supply {@code Long::max} along with {@code
+ * Long.MIN_VALUE} as the identity.
+ *
+ * <p>Class {@link LongAdder} provides analogs of the functionality of this class for the common
+ * special case of maintaining counts and sums. The call {@code new LongAdder()} is equivalent to
+ * {@code new LongAccumulator((x, y) -> x + y, 0L)}.
+ *
+ * <p>This class extends {@link Number}, but does <em>not</em> define methods such as {@code
+ * equals}, {@code hashCode} and {@code compareTo} because instances are expected to be mutated,
+ * and so are not useful as collection keys.
+ *
+ * @since 1.8
+ * @author Doug Lea
+ */
+@NullMarked
+public class LongAccumulator extends Striped64 implements Serializable {
+
+  private final LongBinaryOperator function;
+  private final long identity;
+
+  /**
+   * Creates a new instance using the given accumulator function and identity element.
+   *
+   * @param accumulatorFunction a side-effect-free function of two arguments
+   * @param identity identity (initial value) for the accumulator function
+   */
+  public LongAccumulator(LongBinaryOperator accumulatorFunction, long identity) {
+    this.function = accumulatorFunction;
+    this.identity = identity;
+    base.set(identity);
+  }
+
+  /**
+   * Updates with the given value.
+   *
+   * @param x the value
+   */
+  public void accumulate(long x) {
+    @Nullable Cell @Nullable [] as = cells;
+    long b;
+    long r;
+    if (as != null || ((r = function.applyAsLong(b = base.get(), x)) != b && !casBase(b, r))) {
+      boolean uncontended = true;
+      int m;
+      @Nullable Cell a;
+      long v;
+      if (as == null
+          || (m = as.length - 1) < 0
+          || (a = as[getProbe() & m]) == null
+          || !(uncontended =
+              (r = function.applyAsLong(v = a.value.get(), x)) == v || a.cas(v, r))) {
+        longAccumulate(x, function, uncontended);
+      }
+    }
+  }
+
+  /**
+   * Returns the current value. The returned value is <em>NOT</em> an atomic snapshot; invocation in
+   * the absence of concurrent updates returns an accurate result, but concurrent updates that occur
+   * while the value is being calculated might not be incorporated.
+   *
+   * @return the current value
+   */
+  public long get() {
+    @Nullable Cell @Nullable [] as = cells;
+    long result = base.get();
+    if (as != null) {
+      for (@Nullable Cell a : as) {
+        if (a != null) {
+          result = function.applyAsLong(result, a.value.get());
+        }
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Resets variables maintaining updates to the identity value. This method may be a useful
+   * alternative to creating a new updater, but is only effective if there are no concurrent
+   * updates. Because this method is intrinsically racy, it should only be used when it is known
+   * that no threads are concurrently updating.
+   */
+  public void reset() {
+    @Nullable Cell @Nullable [] as = cells;
+    base.set(identity);
+    if (as != null) {
+      for (@Nullable Cell a : as) {
+        if (a != null) {
+          a.value.set(identity);
+        }
+      }
+    }
+  }
+
+  /**
+   * Equivalent in effect to {@link #get} followed by {@link #reset}. This method may apply for
+   * example during quiescent points between multithreaded computations. If there are updates
+   * concurrent with this method, the returned value is <em>not</em> guaranteed to be the final
+   * value occurring before the reset.
+   *
+   * @return the value before reset
+   */
+  public long getThenReset() {
+    @Nullable Cell @Nullable [] as = cells;
+    long result = base.getAndSet(identity);
+    if (as != null) {
+      for (@Nullable Cell a : as) {
+        if (a != null) {
+          result = function.applyAsLong(result, a.value.getAndSet(identity));
+        }
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Returns the String representation of the current value.
+   *
+   * @return the String representation of the current value
+   */
+  @Override
+  public String toString() {
+    return Long.toString(get());
+  }
+
+  /**
+   * Equivalent to {@link #get}.
+   *
+   * @return the current value
+   */
+  @Override
+  public long longValue() {
+    return get();
+  }
+
+  /** Returns the current value as an {@code int} after a narrowing primitive conversion. */
+  @Override
+  public int intValue() {
+    return (int) get();
+  }
+
+  /** Returns the current value as a {@code float} after a widening primitive conversion. */
+  @Override
+  public float floatValue() {
+    return (float) get();
+  }
+
+  /** Returns the current value as a {@code double} after a widening primitive conversion. */
+  @Override
+  public double doubleValue() {
+    return (double) get();
+  }
+}
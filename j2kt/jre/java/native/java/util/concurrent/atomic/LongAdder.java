@@ -0,0 +1,167 @@
+/*
+ * Written by Doug Lea with assistance from members of JCP JSR-166
+ * Expert Group and released to the public domain, as explained at
+ * http://creativecommons.org/publicdomain/zero/1.0/
+ */
+
+package java.util.concurrent.atomic;
+
+import java.io.Serializable;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+// J2kt-native: (de)serialization proxy removed.
+
+/**
+ * One or more variables that together maintain an initially zero {@code long} sum. When updates
+ * (method {@link #add}) are contended across threads, the set of variables may grow dynamically to
+ * reduce contention. Method {@link #sum} (or, equivalently, {@link #longValue}) returns the current
+ * total combined across the variables maintaining the sum.
+ *
+ * <p>This class is usually preferable to {@link AtomicLong} when multiple threads update a common
+ * sum that is used for purposes such as collecting statistics, not for fine-grained
+ * synchronization control. Under low update contention, the two classes have similar
+ * characteristics. But under high contention, expected throughput of this class is significantly
+ * higher, at the expense of higher space consumption.
+ *
+ * <p>This class does not define methods {@code equals}, {@code hashCode} and {@code compareTo}
+ * because instances are expected to be mutated, and so are not useful as collection keys.
+ *
+ * @since 1.8
+ * @author Doug Lea
+ */
+@NullMarked
+public class LongAdder extends Striped64 implements Serializable {
+
+  /** Creates a new adder with initial sum of zero. */
+  public LongAdder() {}
+
+  /**
+   * Adds the given value.
+   *
+   * @param x the value to add
+   */
+  public void add(long x) {
+    @Nullable Cell @Nullable [] as = cells;
+    long b;
+    if (as != null || !casBase(b = base.get(), b + x)) {
+      boolean uncontended = true;
+      int m;
+      @Nullable Cell a;
+      long v;
+      if (as == null
+          || (m = as.length - 1) < 0
+          || (a = as[getProbe() & m]) == null
+          || !(uncontended = a.cas(v = a.value.get(), v + x))) {
+        longAccumulate(x, null, uncontended);
+      }
+    }
+  }
+
+  /** Equivalent to {@code add(1)}. */
+  public void increment() {
+    add(1L);
+  }
+
+  /** Equivalent to {@code add(-1)}. */
+  public void decrement() {
+    add(-1L);
+  }
+
+  /**
+   * Returns the current sum. The returned value is <em>NOT</em> an atomic snapshot; invocation in
+   * the absence of concurrent updates returns an accurate result, but concurrent updates that occur
+   * while the sum is being calculated might not be incorporated.
+   *
+   * @return the sum
+   */
+  public long sum() {
+    @Nullable Cell @Nullable [] as = cells;
+    long sum = base.get();
+    if (as != null) {
+      for (@Nullable Cell a : as) {
+        if (a != null) {
+          sum += a.value.get();
+        }
+      }
+    }
+    return sum;
+  }
+
+  /**
+   * Resets variables maintaining the sum to zero. This method may be a useful alternative to
+   * creating a new adder, but is only effective if there are no concurrent updates. Because this
+   * method is intrinsically racy, it should only be used when it is known that no threads are
+   * concurrently updating.
+   */
+  public void reset() {
+    @Nullable Cell @Nullable [] as = cells;
+    base.set(0L);
+    if (as != null) {
+      for (@Nullable Cell a : as) {
+        if (a != null) {
+          a.value.set(0L);
+        }
+      }
+    }
+  }
+
+  /**
+   * Equivalent in effect to {@link #sum} followed by {@link #reset}. This method may apply for
+   * example during quiescent points between multithreaded computations. If there are updates
+   * concurrent with this method, the returned value is <em>not</em> guaranteed to be the final
+   * value occurring before the reset.
+   *
+   * @return the sum
+   */
+  public long sumThenReset() {
+    @Nullable Cell @Nullable [] as = cells;
+    long sum = base.getAndSet(0L);
+    if (as != null) {
+      for (@Nullable Cell a : as) {
+        if (a != null) {
+          sum += a.value.getAndSet(0L);
+        }
+      }
+    }
+    return sum;
+  }
+
+  /**
+   * Returns the String representation of the {@link #sum}.
+   *
+   * @return the String representation of the {@link #sum}
+   */
+  @Override
+  public String toString() {
+    return Long.toString(sum());
+  }
+
+  /**
+   * Equivalent to {@link #sum}.
+   *
+   * @return the sum
+   */
+  @Override
+  public long longValue() {
+    return sum();
+  }
+
+  /** Returns the {@link #sum} as an {@code int} after a narrowing primitive conversion. */
+  @Override
+  public int intValue() {
+    return (int) sum();
+  }
+
+  /** Returns the {@link #sum} as a {@code float} after a widening primitive conversion. */
+  @Override
+  public float floatValue() {
+    return (float) sum();
+  }
+
+  /** Returns the {@link #sum} as a {@code double} after a widening primitive conversion. */
+  @Override
+  public double doubleValue() {
+    return (double) sum();
+  }
+}
@@ -0,0 +1,306 @@
+/*
+ * Written by Doug Lea with assistance from members of JCP JSR-166
+ * Expert Group and released to the public domain, as explained at
+ * http://creativecommons.org/publicdomain/zero/1.0/
+ */
+
+package java.util.concurrent.atomic;
+
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.LongBinaryOperator;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+// J2kt-native: based on the JDK 8 version. Cells hold an AtomicLong and are padded like the
+// CounterCells of ConcurrentHashMap. The per-thread probe is a Kotlin thread-local variable
+// (Striped64Probe.kt) instead of a field of Thread.
+
+/**
+ * A package-local class holding common representation and mechanics for classes supporting dynamic
+ * striping on 64bit values. The class extends Number so that concrete subclasses must publicly do
+ * so.
+ */
+@NullMarked
+@SuppressWarnings("serial")
+abstract class Striped64 extends Number {
+  /*
+   * This class maintains a lazily-initialized table of atomically updated variables, plus an extra
+   * "base" field. The table size is a power of two. Indexing uses masked per-thread hash codes.
+   *
+   * Table entries are of class Cell; a variant of AtomicLong padded to reduce cache contention.
+   * Padding is overkill for most Atomics because they are usually irregularly scattered in memory
+   * and thus don't interfere much with each other. But Atomic objects residing in arrays will tend
+   * to be placed adjacent to each other, and so will most often share cache lines (with a huge
+   * negative performance impact) without this precaution.
+   *
+   * In part because Cells are relatively large, we avoid creating them until they are needed. When
+   * there is no contention, all updates are made to the base field. Upon first contention (a
+   * failed CAS on base update), the table is initialized to size 2. The table size is doubled upon
+   * further contention until reaching the nearest power of two greater than or equal to the number
+   * of CPUS. Table slots remain empty (null) until they are needed.
+   *
+   * A single spinlock ("cellsBusy") is used for initializing and resizing the table, as well as
+   * populating slots with new Cells. There is no need for a blocking lock; when the lock is not
+   * available, threads try other slots (or the base). During these retries, there is increased
+   * contention and reduced locality, which is still better than alternatives.
+   *
+   * The Thread probe fields, maintained in Striped64Probe, serve as per-thread hash codes. We let
+   * them remain uninitialized as zero (if they come in this way) until they contend at slot 0. They
+   * are then initialized to values that typically do not often conflict with others. Contention
+   * and/or table collisions are indicated by failed CASes when performing an update operation. Upon
+   * a collision, if the table size is less than the capacity, it is doubled in size unless some
+   * other thread holds the lock. If a hashed slot is empty, and lock is available, a new Cell is
+   * created. Otherwise, if the slot exists, a CAS is tried. Retries proceed by "double hashing",
+   * using a secondary hash (Marsaglia XorShift) to try to find a free slot.
+   *
+   * The table size is capped because, when there are more threads than CPUs, supposing that each
+   * thread were bound to a CPU, there would exist a perfect hash function mapping threads to slots
+   * that eliminates collisions. When we reach capacity, we search for this mapping by randomly
+   * varying the hash codes of colliding threads. Because search is random, and collisions only
+   * become known via CAS failures, convergence can be slow, and because threads are typically not
+   * bound to CPUS forever, may not occur at all. However, despite these limitations, observed
+   * contention rates are typically low in these cases.
+   *
+   * It is possible for a Cell to become unused when threads that once hashed to it terminate, as
+   * well as in the case where doubling the table causes no thread to hash to it under expanded
+   * mask. We do not try to detect or remove such cells, under the assumption that for long-running
+   * instances, observed contention levels will recur, so the cells will eventually be needed again;
+   * and for short-lived ones, it does not matter.
+   */
+
+  /** Padded variant of AtomicLong. */
+  static final class Cell {
+    volatile long p0, p1, p2, p3, p4, p5, p6;
+    final AtomicLong value;
+    volatile long q0, q1, q2, q3, q4, q5, q6;
+
+    Cell(long x) {
+      value = new AtomicLong(x);
+    }
+
+    boolean cas(long cmp, long val) {
+      return value.compareAndSet(cmp, val);
+    }
+  }
+
+  /** Number of CPUS, to place bound on table size */
+  static final int NCPU = Runtime.getRuntime().availableProcessors();
+
+  /** Table of cells. When non-null, size is a power of 2. */
+  transient volatile @Nullable Cell @Nullable [] cells;
+
+  /**
+   * Base value, used mainly when there is no contention, but also as a fallback during table
+   * initialization races.
+   */
+  final AtomicLong base = new AtomicLong();
+
+  /** Spinlock (locked via CAS) used when resizing and/or creating Cells. */
+  final AtomicInteger cellsBusy = new AtomicInteger();
+
+  /** Package-private default constructor */
+  Striped64() {}
+
+  /** CASes the base field. */
+  final boolean casBase(long cmp, long val) {
+    return base.compareAndSet(cmp, val);
+  }
+
+  /** CASes the cellsBusy field from 0 to 1 to acquire lock. */
+  final boolean casCellsBusy() {
+    return cellsBusy.compareAndSet(0, 1);
+  }
+
+  /** Returns the probe value for the current thread. */
+  static final int getProbe() {
+    return Striped64Probe.getProbe();
+  }
+
+  /** Pseudo-randomly advances and records the given probe value for the current thread. */
+  static final int advanceProbe(int probe) {
+    return Striped64Probe.advanceProbe(probe);
+  }
+
+  /**
+   * Handles cases of updates involving initialization, resizing, creating new Cells, and/or
+   * contention. See above for explanation. This method suffers the usual non-modularity problems
+   * of optimistic retry code, relying on rechecked sets of reads.
+   *
+   * @param x the value
+   * @param fn the update function, or null for add (this convention avoids the need for an extra
+   *     field or function in LongAdder).
+   * @param wasUncontended false if CAS failed before call
+   */
+  final void longAccumulate(long x, @Nullable LongBinaryOperator fn, boolean wasUncontended) {
+    int h = getProbe();
+    if (h == 0) {
+      h = Striped64Probe.initializeProbe(); // force initialization
+      wasUncontended = true;
+    }
+    boolean collide = false; // True if last slot nonempty
+    for (; ; ) {
+      @Nullable Cell @Nullable [] as = cells;
+      int n;
+      if (as != null && (n = as.length) > 0) {
+        @Nullable Cell a = as[(n - 1) & h];
+        if (a == null) {
+          if (cellsBusy.get() == 0) { // Try to attach new Cell
+            Cell r = new Cell(x); // Optimistically create
+            if (cellsBusy.get() == 0 && casCellsBusy()) {
+              if (attach(r, h)) {
+                break;
+              }
+              continue; // Slot is now non-empty
+            }
+          }
+          collide = false;
+        } else if (!wasUncontended) { // CAS already known to fail
+          wasUncontended = true; // Continue after rehash
+        } else {
+          long v = a.value.get();
+          if (a.cas(v, (fn == null) ? v + x : fn.applyAsLong(v, x))) {
+            break;
+          } else if (n >= NCPU || cells != as) {
+            collide = false; // At max size or stale
+          } else if (!collide) {
+            collide = true;
+          } else if (cellsBusy.get() == 0 && casCellsBusy()) {
+            expand(as);
+            collide = false;
+            continue; // Retry with expanded table
+          }
+        }
+        h = advanceProbe(h);
+      } else if (cellsBusy.get() == 0 && cells == as && casCellsBusy()) {
+        if (initialize(as, h, x)) {
+          break;
+        }
+      } else {
+        long v = base.get();
+        if (casBase(v, (fn == null) ? v + x : fn.applyAsLong(v, x))) {
+          break; // Fall back on using base
+        }
+      }
+    }
+  }
+
+  /**
+   * Same as longAccumulate, but injecting long/double conversions in too many places to sensibly
+   * merge with long version, given the low-overhead requirements of this class. So must instead be
+   * maintained by copy/paste/adapt.
+   */
+  final void doubleAccumulate(double x, @Nullable DoubleBinaryOperator fn, boolean wasUncontended) {
+    int h = getProbe();
+    if (h == 0) {
+      h = Striped64Probe.initializeProbe(); // force initialization
+      wasUncontended = true;
+    }
+    boolean collide = false; // True if last slot nonempty
+    for (; ; ) {
+      @Nullable Cell @Nullable [] as = cells;
+      int n;
+      if (as != null && (n = as.length) > 0) {
+        @Nullable Cell a = as[(n - 1) & h];
+        if (a == null) {
+          if (cellsBusy.get() == 0) { // Try to attach new Cell
+            Cell r = new Cell(Double.doubleToRawLongBits(x));
+            if (cellsBusy.get() == 0 && casCellsBusy()) {
+              if (attach(r, h)) {
+                break;
+              }
+              continue; // Slot is now non-empty
+            }
+          }
+          collide = false;
+        } else if (!wasUncontended) { // CAS already known to fail
+          wasUncontended = true; // Continue after rehash
+        } else {
+          long v = a.value.get();
+          if (a.cas(v, applyAsDoubleBits(v, x, fn))) {
+            break;
+          } else if (n >= NCPU || cells != as) {
+            collide = false; // At max size or stale
+          } else if (!collide) {
+            collide = true;
+          } else if (cellsBusy.get() == 0 && casCellsBusy()) {
+            expand(as);
+            collide = false;
+            continue; // Retry with expanded table
+          }
+        }
+        h = advanceProbe(h);
+      } else if (cellsBusy.get() == 0 && cells == as && casCellsBusy()) {
+        if (initialize(as, h, Double.doubleToRawLongBits(x))) {
+          break;
+        }
+      } else {
+        long v = base.get();
+        if (casBase(v, applyAsDoubleBits(v, x, fn))) {
+          break; // Fall back on using base
+        }
+      }
+    }
+  }
+
+  /** Applies {@code fn}, or addition if null, to the double with bits {@code v} and {@code x}. */
+  private static long applyAsDoubleBits(long v, double x, @Nullable DoubleBinaryOperator fn) {
+    double d = Double.longBitsToDouble(v);
+    return Double.doubleToRawLongBits((fn == null) ? d + x : fn.applyAsDouble(d, x));
+  }
+
+  /**
+   * Stores {@code r} into the empty slot for probe {@code h}, if it is still empty. Must be called
+   * holding cellsBusy, which it releases.
+   *
+   * @return true if the cell was attached
+   */
+  private boolean attach(Cell r, int h) {
+    try { // Recheck under lock
+      @Nullable Cell @Nullable [] rs = cells;
+      int m;
+      if (rs != null && (m = rs.length) > 0 && rs[(m - 1) & h] == null) {
+        rs[(m - 1) & h] = r;
+        return true;
+      }
+      return false;
+    } finally {
+      cellsBusy.set(0);
+    }
+  }
+
+  /**
+   * Doubles the table unless it is no longer {@code as}. Must be called holding cellsBusy, which it
+   * releases.
+   */
+  private void expand(@Nullable Cell[] as) {
+    try {
+      if (cells == as) { // Expand table unless stale
+        @Nullable Cell[] rs = new Cell[as.length << 1];
+        System.arraycopy(as, 0, rs, 0, as.length);
+        cells = rs;
+      }
+    } finally {
+      cellsBusy.set(0);
+    }
+  }
+
+  /**
+   * Creates the initial table holding a cell with {@code bits} for probe {@code h}, unless the
+   * table is no longer {@code as}. Must be called holding cellsBusy, which it releases.
+   *
+   * @return true if the table was created
+   */
+  private boolean initialize(@Nullable Cell @Nullable [] as, int h, long bits) {
+    try { // Initialize table
+      if (cells == as) {
+        @Nullable Cell[] rs = new Cell[2];
+        rs[h & 1] = new Cell(bits);
+        cells = rs;
+        return true;
+      }
+      return false;
+    } finally {
+      cellsBusy.set(0);
+    }
+  }
+}
@@ -0,0 +1,33 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package java.util.concurrent.atomic;
+
+import javaemul.internal.annotations.KtNative;
+import org.jspecify.annotations.NullMarked;
+
+/** Stub for the per-thread probe hash of {@link Striped64}; see Striped64Probe.kt. */
+@NullMarked
+@KtNative
+final class Striped64Probe {
+
+  static native int getProbe();
+
+  static native int initializeProbe();
+
+  static native int advanceProbe(int probe);
+}
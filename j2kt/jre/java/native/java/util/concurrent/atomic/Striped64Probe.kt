@@ -0,0 +1,55 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package java.util.concurrent.atomic
+
+import kotlin.concurrent.AtomicInt
+
+/** Probe hash of the current thread, or 0 if it has not been initialized yet. */
+@kotlin.native.concurrent.ThreadLocal private var threadProbe: Int = 0
+
+/** Source of the initial probe of each thread. */
+private val probeGenerator = AtomicInt(0)
+
+/**
+ * Per-thread hash codes that [Striped64] uses to pick a cell. The JDK keeps this probe on Thread
+ * and seeds it through ThreadLocalRandom; here it is a plain thread-local variable, so reading it
+ * on every update does not involve a map lookup.
+ */
+internal class Striped64Probe {
+  companion object {
+    /** Spreads consecutive initial probes, see [java.lang.ThreadLocal] in the JDK. */
+    private const val PROBE_INCREMENT = 0x9e3779b9.toInt()
+
+    fun getProbe(): Int = threadProbe
+
+    /** Assigns the current thread a new non-zero probe and returns it. */
+    fun initializeProbe(): Int {
+      val probe = probeGenerator.addAndGet(PROBE_INCREMENT)
+      threadProbe = if (probe == 0) 1 else probe
+      return threadProbe
+    }
+
+    /** Pseudo-randomly advances and records the probe of the current thread after a collision. */
+    fun advanceProbe(probe: Int): Int {
+      var h = probe
+      h = h xor (h shl 13)
+      h = h xor (h ushr 17)
+      h = h xor (h shl 5)
+      threadProbe = h
+      return h
+    }
+  }
+}
@@ -0,0 +1,1513 @@
+/*
+ * Written by Doug Lea with assistance from members of JCP JSR-166
+ * Expert Group and released to the public domain, as explained at
+ * http://creativecommons.org/publicdomain/zero/1.0/
+ */
+
+package java.util.concurrent.locks;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+// J2kt-native: based on the JDK 8 version. Fields updated with Unsafe in the JDK are atomics here,
+// and threads are blocked with LockSupport. J2KT threads cannot be interrupted, so the
+// interruptible acquire methods behave like their uninterruptible counterparts. Serialization
+// support and awaitUntil(Date) are omitted.
+
+/**
+ * Provides a framework for implementing blocking locks and related synchronizers (semaphores,
+ * events, etc) that rely on first-in-first-out (FIFO) wait queues. This class is designed to be a
+ * useful basis for most kinds of synchronizers that rely on a single atomic {@code int} value to
+ * represent state. Subclasses must define the protected methods that change this state, and which
+ * define what that state means in terms of this object being acquired or released. Given these,
+ * the other methods in this class carry out all queuing and blocking mechanics. Subclasses can
+ * maintain other state fields, but only the atomically updated {@code int} value manipulated using
+ * methods {@link #getState}, {@link #setState} and {@link #compareAndSetState} is tracked with
+ * respect to synchronization.
+ *
+ * <p>Subclasses should be defined as non-public internal helper classes that are used to implement
+ * the synchronization properties of their enclosing class.
+ *
+ * <p>This class supports either or both a default <em>exclusive</em> mode and a <em>shared</em>
+ * mode. When acquired in exclusive mode, attempted acquires by other threads cannot succeed.
+ * Shared mode acquires by multiple threads may (but need not) succeed. Threads waiting in the
+ * different modes share the same FIFO queue.
+ *
+ * <p>This class defines a nested {@link ConditionObject} class that can be used as a {@link
+ * Condition} implementation by subclasses supporting exclusive mode for which method {@link
+ * #isHeldExclusively} reports whether synchronization is exclusively held with respect to the
+ * current thread.
+ *
+ * <p>To use this class as the basis of a synchronizer, redefine the following methods, as
+ * applicable, by inspecting and/or modifying the synchronization state:
+ *
+ * <ul>
+ *   <li>{@link #tryAcquire}
+ *   <li>{@link #tryRelease}
+ *   <li>{@link #tryAcquireShared}
+ *   <li>{@link #tryReleaseShared}
+ *   <li>{@link #isHeldExclusively}
+ * </ul>
+ *
+ * Each of these methods by default throws {@link UnsupportedOperationException}. Implementations of
+ * these methods must be internally thread-safe, and should in general be short and not block.
+ *
+ * <p>Even though this class is based on an internal FIFO queue, it does not automatically enforce
+ * FIFO acquisition policies. Because checks in acquire are invoked before enqueuing, a newly
+ * acquiring thread may <em>barge</em> ahead of others that are blocked and queued. Fair
+ * synchronizers can define {@link #tryAcquire} and/or {@link #tryAcquireShared} to return failure
+ * if {@link #hasQueuedPredecessors} returns {@code true}.
+ *
+ * @since 1.5
+ * @author Doug Lea
+ */
+@NullMarked
+public abstract class AbstractQueuedSynchronizer extends AbstractOwnableSynchronizer {
+
+  /**
+   * Creates a new {@code AbstractQueuedSynchronizer} instance with initial synchronization state of
+   * zero.
+   */
+  protected AbstractQueuedSynchronizer() {}
+
+  /**
+   * Wait queue node class.
+   *
+   * <p>The wait queue is a variant of a "CLH" (Craig, Landin, and Hagersten) lock queue. A "status"
+   * field in each node keeps track of whether a thread should block. A node is signalled when its
+   * predecessor releases. Each node of the queue otherwise serves as a specific-notification-style
+   * monitor holding a single waiting thread.
+   *
+   * <p>To enqueue into a CLH lock, you atomically splice it in as new tail. To dequeue, you just
+   * set the head field. The "prev" links are mainly needed to handle cancellation: if a node is
+   * cancelled, its successor is (normally) relinked to a non-cancelled predecessor. The "next"
+   * links are used to implement blocking mechanics. The thread id for each node is kept in its own
+   * node, so a predecessor signals the next node to wake up by traversing next link to determine
+   * which thread it is. Determination of successor must avoid races with newly queued nodes to set
+   * the "next" fields of their predecessors. This is solved when necessary by checking backwards
+   * from the atomically updated "tail" when a node's successor appears to be null.
+   *
+   * <p>CLH queues need a dummy header node to get started. It is created lazily on first
+   * contention.
+   *
+   * <p>Threads waiting on Conditions use the same nodes, but use an additional link. Conditions
+   * only need to link nodes in simple (non-concurrent) linked queues because they are only
+   * accessed when exclusively held. Upon await, a node is inserted into a condition queue. Upon
+   * signal, the node is transferred to the main queue. A special value of status field is used to
+   * mark which queue a node is on.
+   */
+  static final class Node {
+    /** Marker to indicate a node is waiting in shared mode */
+    static final Node SHARED = new Node();
+
+    /** Marker to indicate a node is waiting in exclusive mode */
+    static final @Nullable Node EXCLUSIVE = null;
+
+    /** waitStatus value to indicate thread has cancelled */
+    static final int CANCELLED = 1;
+
+    /** waitStatus value to indicate successor's thread needs unparking */
+    static final int SIGNAL = -1;
+
+    /** waitStatus value to indicate thread is waiting on condition */
+    static final int CONDITION = -2;
+
+    /** waitStatus value to indicate the next acquireShared should unconditionally propagate */
+    static final int PROPAGATE = -3;
+
+    /**
+     * Status field, taking on only the values SIGNAL, CANCELLED, CONDITION, PROPAGATE or 0. The
+     * values are arranged numerically to simplify use: non-negative values mean that a node doesn't
+     * need to signal, so most code doesn't need to check for particular values, just for sign.
+     */
+    final AtomicInteger waitStatus = new AtomicInteger();
+
+    /**
+     * Link to predecessor node that current node/thread relies on for checking waitStatus. Assigned
+     * during enqueuing, and nulled out only upon dequeuing.
+     */
+    volatile @Nullable Node prev;
+
+    /**
+     * Link to the successor node that the current node/thread unparks upon release. A null next
+     * field does not necessarily mean that node is at end of queue; it is double-checked from the
+     * tail in that case. The next field of cancelled nodes is set to point to the node itself.
+     */
+    final AtomicReference<@Nullable Node> next = new AtomicReference<>();
+
+    /** The thread that enqueued this node. Nulled out after use. */
+    volatile @Nullable Thread thread;
+
+    /**
+     * Link to next node waiting on condition, or the special value SHARED. Because condition queues
+     * are accessed only when holding in exclusive mode, we just need a simple linked queue to hold
+     * nodes while they are waiting on conditions.
+     */
+    @Nullable Node nextWaiter;
+
+    /** Returns true if node is waiting in shared mode. */
+    final boolean isShared() {
+      return nextWaiter == SHARED;
+    }
+
+    /**
+     * Returns previous node, or throws NullPointerException if null. Use when predecessor cannot
+     * be null.
+     */
+    final Node predecessor() {
+      Node p = prev;
+      if (p == null) {
+        throw new NullPointerException();
+      }
+      return p;
+    }
+
+    /** Used to establish initial head or SHARED marker. */
+    Node() {}
+
+    /** Used by addWaiter. */
+    Node(Thread thread, @Nullable Node mode) {
+      this.nextWaiter = mode;
+      this.thread = thread;
+    }
+
+    /** Used by Condition. */
+    Node(Thread thread, int waitStatus) {
+      this.waitStatus.set(waitStatus);
+      this.thread = thread;
+    }
+  }
+
+  /**
+   * Head of the wait queue, lazily initialized. Except for initialization, it is modified only via
+   * method setHead. Note: If head exists, its waitStatus is guaranteed not to be CANCELLED.
+   */
+  private final AtomicReference<@Nullable Node> head = new AtomicReference<>();
+
+  /**
+   * Tail of the wait queue, lazily initialized. Modified only via method enq to add new wait node.
+   */
+  private final AtomicReference<@Nullable Node> tail = new AtomicReference<>();
+
+  /** The synchronization state. */
+  private final AtomicInteger state = new AtomicInteger();
+
+  /**
+   * Returns the current value of synchronization state. This operation has memory semantics of a
+   * {@code volatile} read.
+   *
+   * @return current state value
+   */
+  protected final int getState() {
+    return state.get();
+  }
+
+  /**
+   * Sets the value of synchronization state. This operation has memory semantics of a {@code
+   * volatile} write.
+   *
+   * @param newState the new state value
+   */
+  protected final void setState(int newState) {
+    state.set(newState);
+  }
+
+  /**
+   * Atomically sets synchronization state to the given updated value if the current state value
+   * equals the expected value. This operation has memory semantics of a {@code volatile} read and
+   * write.
+   *
+   * @param expect the expected value
+   * @param update the new value
+   * @return {@code true} if successful. False return indicates that the actual value was not equal
+   *     to the expected value.
+   */
+  protected final boolean compareAndSetState(int expect, int update) {
+    return state.compareAndSet(expect, update);
+  }
+
+  // Queuing utilities
+
+  /**
+   * The number of nanoseconds for which it is faster to spin rather than to use timed park. A rough
+   * estimate suffices to improve responsiveness with very short timeouts.
+   */
+  static final long spinForTimeoutThreshold = 1000L;
+
+  /**
+   * Inserts node into queue, initializing if necessary.
+   *
+   * @param node the node to insert
+   * @return node's predecessor
+   */
+  private Node enq(final Node node) {
+    for (; ; ) {
+      Node t = tail.get();
+      if (t == null) { // Must initialize
+        Node h = new Node();
+        if (head.compareAndSet(null, h)) {
+          tail.set(h);
+        }
+      } else {
+        node.prev = t;
+        if (tail.compareAndSet(t, node)) {
+          t.next.set(node);
+          return t;
+        }
+      }
+    }
+  }
+
+  /**
+   * Creates and enqueues node for current thread and given mode.
+   *
+   * @param mode Node.EXCLUSIVE for exclusive, Node.SHARED for shared
+   * @return the new node
+   */
+  private Node addWaiter(@Nullable Node mode) {
+    Node node = new Node(Thread.currentThread(), mode);
+    // Try the fast path of enq; backup to full enq on failure
+    Node pred = tail.get();
+    if (pred != null) {
+      node.prev = pred;
+      if (tail.compareAndSet(pred, node)) {
+        pred.next.set(node);
+        return node;
+      }
+    }
+    enq(node);
+    return node;
+  }
+
+  /**
+   * Sets head of queue to be node, thus dequeuing. Called only by acquire methods. Also nulls out
+   * unused fields for sake of GC and to suppress unnecessary signals and traversals.
+   *
+   * @param node the node
+   */
+  private void setHead(Node node) {
+    head.set(node);
+    node.thread = null;
+    node.prev = null;
+  }
+
+  /**
+   * Wakes up node's successor, if one exists.
+   *
+   * @param node the node
+   */
+  private void unparkSuccessor(Node node) {
+    /*
+     * If status is negative (i.e., possibly needing signal) try to clear in anticipation of
+     * signalling. It is OK if this fails or if status is changed by waiting thread.
+     */
+    int ws = node.waitStatus.get();
+    if (ws < 0) {
+      node.waitStatus.compareAndSet(ws, 0);
+    }
+
+    /*
+     * Thread to unpark is held in successor, which is normally just the next node. But if cancelled
+     * or apparently null, traverse backwards from tail to find the actual non-cancelled successor.
+     */
+    Node s = node.next.get();
+    if (s == null || s.waitStatus.get() > 0) {
+      s = null;
+      for (Node t = tail.get(); t != null && t != node; t = t.prev) {
+        if (t.waitStatus.get() <= 0) {
+          s = t;
+        }
+      }
+    }
+    if (s != null) {
+      LockSupport.unpark(s.thread);
+    }
+  }
+
+  /**
+   * Release action for shared mode -- signals successor and ensures propagation. (Note: For
+   * exclusive mode, release just amounts to calling unparkSuccessor of head if it needs signal.)
+   */
+  private void doReleaseShared() {
+    /*
+     * Ensure that a release propagates, even if there are other in-progress acquires/releases. This
+     * proceeds in the usual way of trying to unparkSuccessor of head if it needs signal. But if it
+     * does not, status is set to PROPAGATE to ensure that upon release, propagation continues.
+     * Additionally, we must loop in case a new node is added while we are doing this.
+     */
+    for (; ; ) {
+      Node h = head.get();
+      if (h != null && h != tail.get()) {
+        int ws = h.waitStatus.get();
+        if (ws == Node.SIGNAL) {
+          if (!h.waitStatus.compareAndSet(Node.SIGNAL, 0)) {
+            continue; // loop to recheck cases
+          }
+          unparkSuccessor(h);
+        } else if (ws == 0 && !h.waitStatus.compareAndSet(0, Node.PROPAGATE)) {
+          continue; // loop on failed CAS
+        }
+      }
+      if (h == head.get()) { // loop if head changed
+        break;
+      }
+    }
+  }
+
+  /**
+   * Sets head of queue, and checks if successor may be waiting in shared mode, if so propagating if
+   * either propagate > 0 or PROPAGATE status was set.
+   *
+   * @param node the node
+   * @param propagate the return value from a tryAcquireShared
+   */
+  private void setHeadAndPropagate(Node node, int propagate) {
+    Node h = head.get(); // Record old head for check below
+    setHead(node);
+    /*
+     * Try to signal next queued node if propagation was indicated by caller, or was recorded (as
+     * h.waitStatus either before or after setHead) by a previous operation, and the next node is
+     * waiting in shared mode, or we don't know, because it appears null.
+     */
+    if (propagate > 0
+        || h == null
+        || h.waitStatus.get() < 0
+        || (h = head.get()) == null
+        || h.waitStatus.get() < 0) {
+      Node s = node.next.get();
+      if (s == null || s.isShared()) {
+        doReleaseShared();
+      }
+    }
+  }
+
+  // Utilities for various versions of acquire
+
+  /**
+   * Cancels an ongoing attempt to acquire.
+   *
+   * @param node the node
+   */
+  private void cancelAcquire(Node node) {
+    node.thread = null;
+
+    // Skip cancelled predecessors
+    Node pred = node.predecessor();
+    while (pred.waitStatus.get() > 0) {
+      pred = pred.predecessor();
+      node.prev = pred;
+    }
+
+    // predNext is the apparent node to unsplice. CASes below will fail if not, in which case, we
+    // lost race vs another cancel or signal, so no further action is necessary.
+    Node predNext = pred.next.get();
+
+    // Can use unconditional write instead of CAS here. After this atomic step, other Nodes can skip
+    // past us. Before, we are free of interference from other threads.
+    node.waitStatus.set(Node.CANCELLED);
+
+    // If we are the tail, remove ourselves.
+    if (node == tail.get() && tail.compareAndSet(node, pred)) {
+      pred.next.compareAndSet(predNext, null);
+    } else {
+      // If successor needs signal, try to set pred's next-link so it will get one. Otherwise wake
+      // it up to propagate.
+      int ws;
+      if (pred != head.get()
+          && ((ws = pred.waitStatus.get()) == Node.SIGNAL
+              || (ws <= 0 && pred.waitStatus.compareAndSet(ws, Node.SIGNAL)))
+          && pred.thread != null) {
+        Node next = node.next.get();
+        if (next != null && next.waitStatus.get() <= 0) {
+          pred.next.compareAndSet(predNext, next);
+        }
+      } else {
+        unparkSuccessor(node);
+      }
+
+      node.next.set(node); // help GC
+    }
+  }
+
+  /**
+   * Checks and updates status for a node that failed to acquire. Returns true if thread should
+   * block. This is the main signal control in all acquire loops. Requires that pred == node.prev.
+   *
+   * @param pred node's predecessor holding status
+   * @param node the node
+   * @return {@code true} if thread should block
+   */
+  private static boolean shouldParkAfterFailedAcquire(Node pred, Node node) {
+    int ws = pred.waitStatus.get();
+    if (ws == Node.SIGNAL) {
+      // This node has already set status asking a release to signal it, so it can safely park.
+      return true;
+    }
+    if (ws > 0) {
+      // Predecessor was cancelled. Skip over predecessors and indicate retry.
+      do {
+        pred = pred.predecessor();
+        node.prev = pred;
+      } while (pred.waitStatus.get() > 0);
+      pred.next.set(node);
+    } else {
+      // waitStatus must be 0 or PROPAGATE. Indicate that we need a signal, but don't park yet.
+      // Caller will need to retry to make sure it cannot acquire before parking.
+      pred.waitStatus.compareAndSet(ws, Node.SIGNAL);
+    }
+    return false;
+  }
+
+  /** Parks the current thread until it is unparked by a release. */
+  private void parkCurrentThread() {
+    LockSupport.park(this);
+  }
+
+  /*
+   * Various flavors of acquire, varying in exclusive/shared and timed modes. Each is mostly the
+   * same, but annoyingly different. Only a little bit of factoring is possible due to interactions
+   * of exception mechanics (including ensuring that we cancel if tryAcquire throws exception) and
+   * other control, at least not without hurting performance too much.
+   */
+
+  /**
+   * Acquires in exclusive uninterruptible mode for thread already in queue. Used by condition wait
+   * methods as well as acquire.
+   *
+   * @param node the node
+   * @param arg the acquire argument
+   */
+  final void acquireQueued(final Node node, int arg) {
+    boolean failed = true;
+    try {
+      for (; ; ) {
+        final Node p = node.predecessor();
+        if (p == head.get() && tryAcquire(arg)) {
+          setHead(node);
+          p.next.set(null); // help GC
+          failed = false;
+          return;
+        }
+        if (shouldParkAfterFailedAcquire(p, node)) {
+          parkCurrentThread();
+        }
+      }
+    } finally {
+      if (failed) {
+        cancelAcquire(node);
+      }
+    }
+  }
+
+  /**
+   * Acquires in exclusive timed mode.
+   *
+   * @param arg the acquire argument
+   * @param nanosTimeout max wait time
+   * @return {@code true} if acquired
+   */
+  private boolean doAcquireNanos(int arg, long nanosTimeout) {
+    if (nanosTimeout <= 0L) {
+      return false;
+    }
+    final long deadline = System.nanoTime() + nanosTimeout;
+    final Node node = addWaiter(Node.EXCLUSIVE);
+    boolean failed = true;
+    try {
+      for (; ; ) {
+        final Node p = node.predecessor();
+        if (p == head.get() && tryAcquire(arg)) {
+          setHead(node);
+          p.next.set(null); // help GC
+          failed = false;
+          return true;
+        }
+        nanosTimeout = deadline - System.nanoTime();
+        if (nanosTimeout <= 0L) {
+          return false;
+        }
+        if (shouldParkAfterFailedAcquire(p, node) && nanosTimeout > spinForTimeoutThreshold) {
+          LockSupport.parkNanos(this, nanosTimeout);
+        }
+      }
+    } finally {
+      if (failed) {
+        cancelAcquire(node);
+      }
+    }
+  }
+
+  /**
+   * Acquires in shared uninterruptible mode.
+   *
+   * @param arg the acquire argument
+   */
+  private void doAcquireShared(int arg) {
+    final Node node = addWaiter(Node.SHARED);
+    boolean failed = true;
+    try {
+      for (; ; ) {
+        final Node p = node.predecessor();
+        if (p == head.get()) {
+          int r = tryAcquireShared(arg);
+          if (r >= 0) {
+            setHeadAndPropagate(node, r);
+            p.next.set(null); // help GC
+            failed = false;
+            return;
+          }
+        }
+        if (shouldParkAfterFailedAcquire(p, node)) {
+          parkCurrentThread();
+        }
+      }
+    } finally {
+      if (failed) {
+        cancelAcquire(node);
+      }
+    }
+  }
+
+  /**
+   * Acquires in shared timed mode.
+   *
+   * @param arg the acquire argument
+   * @param nanosTimeout max wait time
+   * @return {@code true} if acquired
+   */
+  private boolean doAcquireSharedNanos(int arg, long nanosTimeout) {
+    if (nanosTimeout <= 0L) {
+      return false;
+    }
+    final long deadline = System.nanoTime() + nanosTimeout;
+    final Node node = addWaiter(Node.SHARED);
+    boolean failed = true;
+    try {
+      for (; ; ) {
+        final Node p = node.predecessor();
+        if (p == head.get()) {
+          int r = tryAcquireShared(arg);
+          if (r >= 0) {
+            setHeadAndPropagate(node, r);
+            p.next.set(null); // help GC
+            failed = false;
+            return true;
+          }
+        }
+        nanosTimeout = deadline - System.nanoTime();
+        if (nanosTimeout <= 0L) {
+          return false;
+        }
+        if (shouldParkAfterFailedAcquire(p, node) && nanosTimeout > spinForTimeoutThreshold) {
+          LockSupport.parkNanos(this, nanosTimeout);
+        }
+      }
+    } finally {
+      if (failed) {
+        cancelAcquire(node);
+      }
+    }
+  }
+
+  // Main exported methods
+
+  /**
+   * Attempts to acquire in exclusive mode. This method should query if the state of the object
+   * permits it to be acquired in the exclusive mode, and if so to acquire it.
+   *
+   * <p>This method is always invoked by the thread performing acquire. If this method reports
+   * failure, the acquire method may queue the thread, if it is not already queued, until it is
+   * signalled by a release from some other thread.
+   *
+   * @param arg the acquire argument
+   * @return {@code true} if successful. Upon success, this object has been acquired.
+   * @throws IllegalMonitorStateException if acquiring would place this synchronizer in an illegal
+   *     state
+   * @throws UnsupportedOperationException if exclusive mode is not supported
+   */
+  protected boolean tryAcquire(int arg) {
+    throw new UnsupportedOperationException();
+  }
+
+  /**
+   * Attempts to set the state to reflect a release in exclusive mode.
+   *
+   * <p>This method is always invoked by the thread performing release.
+   *
+   * @param arg the release argument
+   * @return {@code true} if this object is now in a fully released state, so that any waiting
+   *     threads may attempt to acquire; and {@code false} otherwise.
+   * @throws IllegalMonitorStateException if releasing would place this synchronizer in an illegal
+   *     state
+   * @throws UnsupportedOperationException if exclusive mode is not supported
+   */
+  protected boolean tryRelease(int arg) {
+    throw new UnsupportedOperationException();
+  }
+
+  /**
+   * Attempts to acquire in shared mode. This method should query if the state of the object
+   * permits it to be acquired in the shared mode, and if so to acquire it.
+   *
+   * @param arg the acquire argument
+   * @return a negative value on failure; zero if acquisition in shared mode succeeded but no
+   *     subsequent shared-mode acquire can succeed; and a positive value if acquisition in shared
+   *     mode succeeded and subsequent shared-mode acquires might also succeed, in which case a
+   *     subsequent waiting thread must check availability.
+   * @throws IllegalMonitorStateException if acquiring would place this synchronizer in an illegal
+   *     state
+   * @throws UnsupportedOperationException if shared mode is not supported
+   */
+  protected int tryAcquireShared(int arg) {
+    throw new UnsupportedOperationException();
+  }
+
+  /**
+   * Attempts to set the state to reflect a release in shared mode.
+   *
+   * @param arg the release argument
+   * @return {@code true} if this release of shared mode may permit a waiting acquire (shared or
+   *     exclusive) to succeed; and {@code false} otherwise
+   * @throws IllegalMonitorStateException if releasing would place this synchronizer in an illegal
+   *     state
+   * @throws UnsupportedOperationException if shared mode is not supported
+   */
+  protected boolean tryReleaseShared(int arg) {
+    throw new UnsupportedOperationException();
+  }
+
+  /**
+   * Returns {@code true} if synchronization is held exclusively with respect to the current
+   * (calling) thread. This method is invoked upon each call to a non-waiting {@link
+   * ConditionObject} method.
+   *
+   * @return {@code true} if synchronization is held exclusively; {@code false} otherwise
+   * @throws UnsupportedOperationException if conditions are not supported
+   */
+  protected boolean isHeldExclusively() {
+    throw new UnsupportedOperationException();
+  }
+
+  /**
+   * Acquires in exclusive mode, ignoring interrupts. Implemented by first invoking at least once
+   * {@link #tryAcquire}, returning on success. Otherwise the thread is queued, possibly repeatedly
+   * blocking and unblocking, invoking {@link #tryAcquire} until success.
+   *
+   * @param arg the acquire argument
+   */
+  public final void acquire(int arg) {
+    if (!tryAcquire(arg)) {
+      acquireQueued(addWaiter(Node.EXCLUSIVE), arg);
+    }
+  }
+
+  /**
+   * Acquires in exclusive mode. Threads cannot be interrupted on J2KT, so this is equivalent to
+   * {@link #acquire}.
+   *
+   * @param arg the acquire argument
+   * @throws InterruptedException never thrown on J2KT
+   */
+  public final void acquireInterruptibly(int arg) throws InterruptedException {
+    acquire(arg);
+  }
+
+  /**
+   * Attempts to acquire in exclusive mode, failing if the given timeout elapses. Implemented by
+   * first invoking at least once {@link #tryAcquire}, returning on success. Otherwise, the thread
+   * is queued, possibly repeatedly blocking and unblocking, invoking {@link #tryAcquire} until
+   * success or the timeout elapses.
+   *
+   * @param arg the acquire argument
+   * @param nanosTimeout the maximum number of nanoseconds to wait
+   * @return {@code true} if acquired; {@code false} if timed out
+   * @throws InterruptedException never thrown on J2KT
+   */
+  public final boolean tryAcquireNanos(int arg, long nanosTimeout) throws InterruptedException {
+    return tryAcquire(arg) || doAcquireNanos(arg, nanosTimeout);
+  }
+
+  /**
+   * Releases in exclusive mode. Implemented by unblocking one or more threads if {@link
+   * #tryRelease} returns true.
+   *
+   * @param arg the release argument
+   * @return the value returned from {@link #tryRelease}
+   */
+  public final boolean release(int arg) {
+    if (tryRelease(arg)) {
+      Node h = head.get();
+      if (h != null && h.waitStatus.get() != 0) {
+        unparkSuccessor(h);
+      }
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * Acquires in shared mode, ignoring interrupts. Implemented by first invoking at least once
+   * {@link #tryAcquireShared}, returning on success. Otherwise the thread is queued, possibly
+   * repeatedly blocking and unblocking, invoking {@link #tryAcquireShared} until success.
+   *
+   * @param arg the acquire argument
+   */
+  public final void acquireShared(int arg) {
+    if (tryAcquireShared(arg) < 0) {
+      doAcquireShared(arg);
+    }
+  }
+
+  /**
+   * Acquires in shared mode. Threads cannot be interrupted on J2KT, so this is equivalent to
+   * {@link #acquireShared}.
+   *
+   * @param arg the acquire argument
+   * @throws InterruptedException never thrown on J2KT
+   */
+  public final void acquireSharedInterruptibly(int arg) throws InterruptedException {
+    acquireShared(arg);
+  }
+
+  /**
+   * Attempts to acquire in shared mode, failing if the given timeout elapses. Implemented by first
+   * invoking at least once {@link #tryAcquireShared}, returning on success. Otherwise, the thread
+   * is queued, possibly repeatedly blocking and unblocking, invoking {@link #tryAcquireShared}
+   * until success or the timeout elapses.
+   *
+   * @param arg the acquire argument
+   * @param nanosTimeout the maximum number of nanoseconds to wait
+   * @return {@code true} if acquired; {@code false} if timed out
+   * @throws InterruptedException never thrown on J2KT
+   */
+  public final boolean tryAcquireSharedNanos(int arg, long nanosTimeout)
+      throws InterruptedException {
+    return tryAcquireShared(arg) >= 0 || doAcquireSharedNanos(arg, nanosTimeout);
+  }
+
+  /**
+   * Releases in shared mode. Implemented by unblocking one or more threads if {@link
+   * #tryReleaseShared} returns true.
+   *
+   * @param arg the release argument
+   * @return the value returned from {@link #tryReleaseShared}
+   */
+  public final boolean releaseShared(int arg) {
+    if (tryReleaseShared(arg)) {
+      doReleaseShared();
+      return true;
+    }
+    return false;
+  }
+
+  // Queue inspection methods
+
+  /**
+   * Queries whether any threads are waiting to acquire. Note that because cancellations due to
+   * timeouts may occur at any time, a {@code true} return does not guarantee that any other thread
+   * will ever acquire.
+   *
+   * @return {@code true} if there may be other threads waiting to acquire
+   */
+  public final boolean hasQueuedThreads() {
+    return head.get() != tail.get();
+  }
+
+  /**
+   * Queries whether any threads have ever contended to acquire this synchronizer; that is, if an
+   * acquire method has ever blocked.
+   *
+   * @return {@code true} if there has ever been contention
+   */
+  public final boolean hasContended() {
+    return head.get() != null;
+  }
+
+  /**
+   * Returns the first (longest-waiting) thread in the queue, or {@code null} if no threads are
+   * currently queued.
+   *
+   * @return the first (longest-waiting) thread in the queue, or {@code null} if no threads are
+   *     currently queued
+   */
+  public final @Nullable Thread getFirstQueuedThread() {
+    // handle only fast path, else relay
+    return (head.get() == tail.get()) ? null : fullGetFirstQueuedThread();
+  }
+
+  /** Version of getFirstQueuedThread called when fastpath fails. */
+  private @Nullable Thread fullGetFirstQueuedThread() {
+    /*
+     * The first node is normally head.next. Try to get its thread field, ensuring consistent reads:
+     * If thread field is nulled out or s.prev is no longer head, then some other thread(s)
+     * concurrently performed setHead in between some of our reads. We try this twice before
+     * resorting to traversal.
+     */
+    for (int attempt = 0; attempt < 2; attempt++) {
+      Node h = head.get();
+      Node s;
+      Thread st;
+      if (h != null
+          && (s = h.next.get()) != null
+          && s.prev == head.get()
+          && (st = s.thread) != null) {
+        return st;
+      }
+    }
+
+    /*
+     * Head's next field might not have been set yet, or may have been unset after setHead. So we
+     * must check to see if tail is actually first node. If not, we continue on, safely traversing
+     * from tail back to head to find first, guaranteeing termination.
+     */
+    Node t = tail.get();
+    Thread firstThread = null;
+    while (t != null && t != head.get()) {
+      Thread tt = t.thread;
+      if (tt != null) {
+        firstThread = tt;
+      }
+      t = t.prev;
+    }
+    return firstThread;
+  }
+
+  /**
+   * Returns true if the given thread is currently queued.
+   *
+   * @param thread the thread
+   * @return {@code true} if the given thread is on the queue
+   * @throws NullPointerException if the thread is null
+   */
+  public final boolean isQueued(Thread thread) {
+    if (thread == null) {
+      throw new NullPointerException();
+    }
+    for (Node p = tail.get(); p != null; p = p.prev) {
+      if (p.thread == thread) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Returns {@code true} if the apparent first queued thread, if one exists, is waiting in
+   * exclusive mode. If this method returns {@code true}, and the current thread is attempting to
+   * acquire in shared mode (that is, this method is invoked from {@link #tryAcquireShared}) then it
+   * is guaranteed that the current thread is not the first queued thread. Used only as a heuristic
+   * in ReentrantReadWriteLock.
+   */
+  final boolean apparentlyFirstQueuedIsExclusive() {
+    Node h = head.get();
+    Node s;
+    return h != null && (s = h.next.get()) != null && !s.isShared() && s.thread != null;
+  }
+
+  /**
+   * Queries whether any threads have been waiting to acquire longer than the current thread.
+   *
+   * <p>This method is designed to be used by a fair synchronizer to avoid barging. Such a
+   * synchronizer's {@link #tryAcquire} method should return {@code false}, and its {@link
+   * #tryAcquireShared} method should return a negative value, if this method returns {@code true}
+   * (unless this is a reentrant acquire).
+   *
+   * @return {@code true} if there is a queued thread preceding the current thread, and {@code
+   *     false} if the current thread is at the head of the queue or the queue is empty
+   */
+  public final boolean hasQueuedPredecessors() {
+    // The correctness of this depends on head being initialized before tail and on head.next being
+    // accurate if the current thread is first in queue.
+    Node t = tail.get(); // Read fields in reverse initialization order
+    Node h = head.get();
+    Node s;
+    return h != t
+        && ((s = h.next.get()) == null || s.thread != Thread.currentThread());
+  }
+
+  // Instrumentation and monitoring methods
+
+  /**
+   * Returns an estimate of the number of threads waiting to acquire. The value is only an estimate
+   * because the number of threads may change dynamically while this method traverses internal data
+   * structures. This method is designed for use in monitoring system state, not for synchronization
+   * control.
+   *
+   * @return the estimated number of threads waiting to acquire
+   */
+  public final int getQueueLength() {
+    int n = 0;
+    for (Node p = tail.get(); p != null; p = p.prev) {
+      if (p.thread != null) {
+        ++n;
+      }
+    }
+    return n;
+  }
+
+  /**
+   * Returns a collection containing threads that may be waiting to acquire. Because the actual set
+   * of threads may change dynamically while constructing this result, the returned collection is
+   * only a best-effort estimate. The elements of the returned collection are in no particular
+   * order.
+   *
+   * @return the collection of threads
+   */
+  public final Collection<Thread> getQueuedThreads() {
+    ArrayList<Thread> list = new ArrayList<Thread>();
+    for (Node p = tail.get(); p != null; p = p.prev) {
+      Thread t = p.thread;
+      if (t != null) {
+        list.add(t);
+      }
+    }
+    return list;
+  }
+
+  /**
+   * Returns a collection containing threads that may be waiting to acquire in exclusive mode. This
+   * has the same properties as {@link #getQueuedThreads} except that it only returns those threads
+   * waiting due to an exclusive acquire.
+   *
+   * @return the collection of threads
+   */
+  public final Collection<Thread> getExclusiveQueuedThreads() {
+    ArrayList<Thread> list = new ArrayList<Thread>();
+    for (Node p = tail.get(); p != null; p = p.prev) {
+      if (!p.isShared()) {
+        Thread t = p.thread;
+        if (t != null) {
+          list.add(t);
+        }
+      }
+    }
+    return list;
+  }
+
+  /**
+   * Returns a collection containing threads that may be waiting to acquire in shared mode. This has
+   * the same properties as {@link #getQueuedThreads} except that it only returns those threads
+   * waiting due to a shared acquire.
+   *
+   * @return the collection of threads
+   */
+  public final Collection<Thread> getSharedQueuedThreads() {
+    ArrayList<Thread> list = new ArrayList<Thread>();
+    for (Node p = tail.get(); p != null; p = p.prev) {
+      if (p.isShared()) {
+        Thread t = p.thread;
+        if (t != null) {
+          list.add(t);
+        }
+      }
+    }
+    return list;
+  }
+
+  /**
+   * Returns a string identifying this synchronizer, as well as its state. The state, in brackets,
+   * includes the String {@code "State ="} followed by the current value of {@link #getState}, and
+   * either {@code "nonempty"} or {@code "empty"} depending on whether the queue is empty.
+   *
+   * @return a string identifying this synchronizer, as well as its state
+   */
+  @Override
+  public String toString() {
+    int s = getState();
+    String q = hasQueuedThreads() ? "non" : "";
+    return super.toString() + "[State = " + s + ", " + q + "empty queue]";
+  }
+
+  // Internal support methods for Conditions
+
+  /**
+   * Returns true if a node, always one that was initially placed on a condition queue, is now
+   * waiting to reacquire on sync queue.
+   *
+   * @param node the node
+   * @return true if is reacquiring
+   */
+  final boolean isOnSyncQueue(Node node) {
+    if (node.waitStatus.get() == Node.CONDITION || node.prev == null) {
+      return false;
+    }
+    if (node.next.get() != null) { // If has successor, it must be on queue
+      return true;
+    }
+    /*
+     * node.prev can be non-null, but not yet on queue because the CAS to place it on queue can
+     * fail. So we have to traverse from tail to make sure it actually made it. It will always be
+     * near the tail in calls to this method, and unless the CAS failed (which is unlikely), it will
+     * be there, so we hardly ever traverse much.
+     */
+    return findNodeFromTail(node);
+  }
+
+  /**
+   * Returns true if node is on sync queue by searching backwards from tail. Called only when
+   * needed by isOnSyncQueue.
+   *
+   * @return true if present
+   */
+  private boolean findNodeFromTail(Node node) {
+    for (Node t = tail.get(); t != null; t = t.prev) {
+      if (t == node) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Transfers a node from a condition queue onto sync queue. Returns true if successful.
+   *
+   * @param node the node
+   * @return true if successfully transferred (else the node was cancelled before signal)
+   */
+  final boolean transferForSignal(Node node) {
+    // If cannot change waitStatus, the node has been cancelled.
+    if (!node.waitStatus.compareAndSet(Node.CONDITION, 0)) {
+      return false;
+    }
+
+    /*
+     * Splice onto queue and try to set waitStatus of predecessor to indicate that thread is
+     * (probably) waiting. If cancelled or attempt to set waitStatus fails, wake up to resync (in
+     * which case the waitStatus can be transiently and harmlessly wrong).
+     */
+    Node p = enq(node);
+    int ws = p.waitStatus.get();
+    if (ws > 0 || !p.waitStatus.compareAndSet(ws, Node.SIGNAL)) {
+      LockSupport.unpark(node.thread);
+    }
+    return true;
+  }
+
+  /**
+   * Transfers node, if necessary, to sync queue after a cancelled wait. Returns true if thread was
+   * cancelled before being signalled.
+   *
+   * @param node the node
+   * @return true if cancelled before the node was signalled
+   */
+  final boolean transferAfterCancelledWait(Node node) {
+    if (node.waitStatus.compareAndSet(Node.CONDITION, 0)) {
+      enq(node);
+      return true;
+    }
+    /*
+     * If we lost out to a signal(), then we can't proceed until it finishes its enq(). Cancelling
+     * during an incomplete transfer is both rare and transient, so just spin.
+     */
+    while (!isOnSyncQueue(node)) {
+      Thread.yield();
+    }
+    return false;
+  }
+
+  /**
+   * Invokes release with current state value; returns saved state. Cancels node and throws
+   * exception on failure.
+   *
+   * @param node the condition node for this wait
+   * @return previous sync state
+   */
+  final int fullyRelease(Node node) {
+    boolean failed = true;
+    try {
+      int savedState = getState();
+      if (release(savedState)) {
+        failed = false;
+        return savedState;
+      } else {
+        throw new IllegalMonitorStateException();
+      }
+    } finally {
+      if (failed) {
+        node.waitStatus.set(Node.CANCELLED);
+      }
+    }
+  }
+
+  // Instrumentation methods for conditions
+
+  /**
+   * Queries whether the given ConditionObject uses this synchronizer as its lock.
+   *
+   * @param condition the condition
+   * @return {@code true} if owned
+   * @throws NullPointerException if the condition is null
+   */
+  public final boolean owns(ConditionObject condition) {
+    return condition.isOwnedBy(this);
+  }
+
+  /**
+   * Queries whether any threads are waiting on the given condition associated with this
+   * synchronizer. Note that because timeouts may occur at any time, a {@code true} return does not
+   * guarantee that a future {@code signal} will awaken any threads.
+   *
+   * @param condition the condition
+   * @return {@code true} if there are any waiting threads
+   * @throws IllegalMonitorStateException if exclusive synchronization is not held
+   * @throws IllegalArgumentException if the given condition is not associated with this
+   *     synchronizer
+   * @throws NullPointerException if the condition is null
+   */
+  public final boolean hasWaiters(ConditionObject condition) {
+    if (!owns(condition)) {
+      throw new IllegalArgumentException("Not owner");
+    }
+    return condition.hasWaiters();
+  }
+
+  /**
+   * Returns an estimate of the number of threads waiting on the given condition associated with
+   * this synchronizer.
+   *
+   * @param condition the condition
+   * @return the estimated number of waiting threads
+   * @throws IllegalMonitorStateException if exclusive synchronization is not held
+   * @throws IllegalArgumentException if the given condition is not associated with this
+   *     synchronizer
+   * @throws NullPointerException if the condition is null
+   */
+  public final int getWaitQueueLength(ConditionObject condition) {
+    if (!owns(condition)) {
+      throw new IllegalArgumentException("Not owner");
+    }
+    return condition.getWaitQueueLength();
+  }
+
+  /**
+   * Returns a collection containing those threads that may be waiting on the given condition
+   * associated with this synchronizer.
+   *
+   * @param condition the condition
+   * @return the collection of threads
+   * @throws IllegalMonitorStateException if exclusive synchronization is not held
+   * @throws IllegalArgumentException if the given condition is not associated with this
+   *     synchronizer
+   * @throws NullPointerException if the condition is null
+   */
+  public final Collection<Thread> getWaitingThreads(ConditionObject condition) {
+    if (!owns(condition)) {
+      throw new IllegalArgumentException("Not owner");
+    }
+    return condition.getWaitingThreads();
+  }
+
+  /**
+   * Condition implementation for a {@link AbstractQueuedSynchronizer} serving as the basis of a
+   * {@link Lock} implementation.
+   *
+   * <p>This class is not serializable on J2KT.
+   */
+  public class ConditionObject implements Condition {
+    /** First node of condition queue. */
+    private @Nullable Node firstWaiter;
+
+    /** Last node of condition queue. */
+    private @Nullable Node lastWaiter;
+
+    /** Creates a new {@code ConditionObject} instance. */
+    public ConditionObject() {}
+
+    // Internal methods
+
+    /**
+     * Adds a new waiter to wait queue.
+     *
+     * @return its new wait node
+     */
+    private Node addConditionWaiter() {
+      Node t = lastWaiter;
+      // If lastWaiter is cancelled, clean out.
+      if (t != null && t.waitStatus.get() != Node.CONDITION) {
+        unlinkCancelledWaiters();
+        t = lastWaiter;
+      }
+      Node node = new Node(Thread.currentThread(), Node.CONDITION);
+      if (t == null) {
+        firstWaiter = node;
+      } else {
+        t.nextWaiter = node;
+      }
+      lastWaiter = node;
+      return node;
+    }
+
+    /**
+     * Removes and transfers nodes until hit non-cancelled one or null. Split out from signal in
+     * part to encourage compilers to inline the case of no waiters.
+     *
+     * @param first (non-null) the first node on condition queue
+     */
+    private void doSignal(Node first) {
+      Node node = first;
+      do {
+        if ((firstWaiter = node.nextWaiter) == null) {
+          lastWaiter = null;
+        }
+        node.nextWaiter = null;
+      } while (!transferForSignal(node) && (node = firstWaiter) != null);
+    }
+
+    /**
+     * Removes and transfers all nodes.
+     *
+     * @param first (non-null) the first node on condition queue
+     */
+    private void doSignalAll(Node first) {
+      lastWaiter = firstWaiter = null;
+      Node node = first;
+      do {
+        Node next = node.nextWaiter;
+        node.nextWaiter = null;
+        transferForSignal(node);
+        node = next;
+      } while (node != null);
+    }
+
+    /**
+     * Unlinks cancelled waiter nodes from condition queue. Called only while holding lock. This is
+     * called when cancellation occurred during condition wait, and upon insertion of a new waiter
+     * when lastWaiter is seen to have been cancelled.
+     */
+    private void unlinkCancelledWaiters() {
+      Node t = firstWaiter;
+      Node trail = null;
+      while (t != null) {
+        Node next = t.nextWaiter;
+        if (t.waitStatus.get() != Node.CONDITION) {
+          t.nextWaiter = null;
+          if (trail == null) {
+            firstWaiter = next;
+          } else {
+            trail.nextWaiter = next;
+          }
+          if (next == null) {
+            lastWaiter = trail;
+          }
+        } else {
+          trail = t;
+        }
+        t = next;
+      }
+    }
+
+    // public methods
+
+    /**
+     * Moves the longest-waiting thread, if one exists, from the wait queue for this condition to
+     * the wait queue for the owning lock.
+     *
+     * @throws IllegalMonitorStateException if {@link #isHeldExclusively} returns {@code false}
+     */
+    @Override
+    public final void signal() {
+      if (!isHeldExclusively()) {
+        throw new IllegalMonitorStateException();
+      }
+      Node first = firstWaiter;
+      if (first != null) {
+        doSignal(first);
+      }
+    }
+
+    /**
+     * Moves all threads from the wait queue for this condition to the wait queue for the owning
+     * lock.
+     *
+     * @throws IllegalMonitorStateException if {@link #isHeldExclusively} returns {@code false}
+     */
+    @Override
+    public final void signalAll() {
+      if (!isHeldExclusively()) {
+        throw new IllegalMonitorStateException();
+      }
+      Node first = firstWaiter;
+      if (first != null) {
+        doSignalAll(first);
+      }
+    }
+
+    /**
+     * Implements uninterruptible condition wait.
+     *
+     * <ol>
+     *   <li>Save lock state returned by {@link #getState}.
+     *   <li>Invoke {@link #release} with saved state as argument, throwing
+     *       IllegalMonitorStateException if it fails.
+     *   <li>Block until signalled.
+     *   <li>Reacquire by invoking specialized version of {@link #acquire} with saved state as
+     *       argument.
+     * </ol>
+     */
+    public final void awaitUninterruptibly() {
+      Node node = addConditionWaiter();
+      int savedState = fullyRelease(node);
+      while (!isOnSyncQueue(node)) {
+        LockSupport.park(this);
+      }
+      acquireQueued(node, savedState);
+    }
+
+    /**
+     * Implements condition wait. Threads cannot be interrupted on J2KT, so this is equivalent to
+     * {@link #awaitUninterruptibly}.
+     */
+    @Override
+    public final void await() throws InterruptedException {
+      awaitUninterruptibly();
+    }
+
+    /**
+     * Implements timed condition wait.
+     *
+     * <ol>
+     *   <li>Save lock state returned by {@link #getState}.
+     *   <li>Invoke {@link #release} with saved state as argument, throwing
+     *       IllegalMonitorStateException if it fails.
+     *   <li>Block until signalled or timed out.
+     *   <li>Reacquire by invoking specialized version of {@link #acquire} with saved state as
+     *       argument.
+     * </ol>
+     */
+    @Override
+    public final long awaitNanos(long nanosTimeout) throws InterruptedException {
+      Node node = addConditionWaiter();
+      int savedState = fullyRelease(node);
+      final long deadline = System.nanoTime() + nanosTimeout;
+      while (!isOnSyncQueue(node)) {
+        if (nanosTimeout <= 0L) {
+          transferAfterCancelledWait(node);
+          break;
+        }
+        if (nanosTimeout >= spinForTimeoutThreshold) {
+          LockSupport.parkNanos(this, nanosTimeout);
+        }
+        nanosTimeout = deadline - System.nanoTime();
+      }
+      acquireQueued(node, savedState);
+      if (node.nextWaiter != null) {
+        unlinkCancelledWaiters();
+      }
+      return deadline - System.nanoTime();
+    }
+
+    /**
+     * Implements timed condition wait.
+     *
+     * <ol>
+     *   <li>Save lock state returned by {@link #getState}.
+     *   <li>Invoke {@link #release} with saved state as argument, throwing
+     *       IllegalMonitorStateException if it fails.
+     *   <li>Block until signalled or timed out.
+     *   <li>Reacquire by invoking specialized version of {@link #acquire} with saved state as
+     *       argument.
+     *   <li>If timed out while blocked in step 3, return false, else true.
+     * </ol>
+     */
+    public final boolean await(long time, TimeUnit unit) throws InterruptedException {
+      long nanosTimeout = unit.toNanos(time);
+      Node node = addConditionWaiter();
+      int savedState = fullyRelease(node);
+      final long deadline = System.nanoTime() + nanosTimeout;
+      boolean timedout = false;
+      while (!isOnSyncQueue(node)) {
+        if (nanosTimeout <= 0L) {
+          timedout = transferAfterCancelledWait(node);
+          break;
+        }
+        if (nanosTimeout >= spinForTimeoutThreshold) {
+          LockSupport.parkNanos(this, nanosTimeout);
+        }
+        nanosTimeout = deadline - System.nanoTime();
+      }
+      acquireQueued(node, savedState);
+      if (node.nextWaiter != null) {
+        unlinkCancelledWaiters();
+      }
+      return !timedout;
+    }
+
+    //  support for instrumentation
+
+    /**
+     * Returns true if this condition was created by the given synchronization object.
+     *
+     * @return {@code true} if owned
+     */
+    final boolean isOwnedBy(AbstractQueuedSynchronizer sync) {
+      return sync == AbstractQueuedSynchronizer.this;
+    }
+
+    /**
+     * Queries whether any threads are waiting on this condition. Implements {@link
+     * AbstractQueuedSynchronizer#hasWaiters(ConditionObject)}.
+     *
+     * @return {@code true} if there are any waiting threads
+     * @throws IllegalMonitorStateException if {@link #isHeldExclusively} returns {@code false}
+     */
+    protected final boolean hasWaiters() {
+      if (!isHeldExclusively()) {
+        throw new IllegalMonitorStateException();
+      }
+      for (Node w = firstWaiter; w != null; w = w.nextWaiter) {
+        if (w.waitStatus.get() == Node.CONDITION) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    /**
+     * Returns an estimate of the number of threads waiting on this condition. Implements {@link
+     * AbstractQueuedSynchronizer#getWaitQueueLength(ConditionObject)}.
+     *
+     * @return the estimated number of waiting threads
+     * @throws IllegalMonitorStateException if {@link #isHeldExclusively} returns {@code false}
+     */
+    protected final int getWaitQueueLength() {
+      if (!isHeldExclusively()) {
+        throw new IllegalMonitorStateException();
+      }
+      int n = 0;
+      for (Node w = firstWaiter; w != null; w = w.nextWaiter) {
+        if (w.waitStatus.get() == Node.CONDITION) {
+          ++n;
+        }
+      }
+      return n;
+    }
+
+    /**
+     * Returns a collection containing those threads that may be waiting on this Condition.
+     * Implements {@link AbstractQueuedSynchronizer#getWaitingThreads(ConditionObject)}.
+     *
+     * @return the collection of threads
+     * @throws IllegalMonitorStateException if {@link #isHeldExclusively} returns {@code false}
+     */
+    protected final Collection<Thread> getWaitingThreads() {
+      if (!isHeldExclusively()) {
+        throw new IllegalMonitorStateException();
+      }
+      ArrayList<Thread> list = new ArrayList<Thread>();
+      for (Node w = firstWaiter; w != null; w = w.nextWaiter) {
+        if (w.waitStatus.get() == Node.CONDITION) {
+          Thread t = w.thread;
+          if (t != null) {
+            list.add(t);
+          }
+        }
+      }
+      return list;
+    }
+  }
+}
@@ -0,0 +1,43 @@
+/*
+ * Written by Doug Lea with assistance from members of JCP JSR-166
+ * Expert Group and released to the public domain, as explained at
+ * http://creativecommons.org/publicdomain/zero/1.0/
+ */
+
+package java.util.concurrent.locks;
+
+import org.jspecify.annotations.NullMarked;
+
+/**
+ * A {@code ReadWriteLock} maintains a pair of associated {@link Lock locks}, one for read-only
+ * operations and one for writing. The {@linkplain #readLock read lock} may be held simultaneously
+ * by multiple reader threads, so long as there are no writers. The {@linkplain #writeLock write
+ * lock} is exclusive.
+ *
+ * <p>A read-write lock allows for a greater level of concurrency in accessing shared data than that
+ * permitted by a mutual exclusion lock. Whether or not it improves performance over a mutual
+ * exclusion lock depends on the frequency that the data is read compared to being modified, the
+ * duration of the read and write operations, and the contention for the data.
+ *
+ * @see ReentrantReadWriteLock
+ * @see Lock
+ * @see ReentrantLock
+ * @since 1.5
+ * @author Doug Lea
+ */
+@NullMarked
+public interface ReadWriteLock {
+  /**
+   * Returns the lock used for reading.
+   *
+   * @return the lock used for reading
+   */
+  Lock readLock();
+
+  /**
+   * Returns the lock used for writing.
+   *
+   * @return the lock used for writing
+   */
+  Lock writeLock();
+}
@@ -0,0 +1,932 @@
+/*
+ * Written by Doug Lea with assistance from members of JCP JSR-166
+ * Expert Group and released to the public domain, as explained at
+ * http://creativecommons.org/publicdomain/zero/1.0/
+ */
+
+package java.util.concurrent.locks;
+
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+// J2kt-native: based on the JDK 8 version. Per-thread read hold counts use java.lang.ThreadLocal
+// without an initial value, and tryLock() is not part of our Lock interface, so the tryLock methods
+// of the read and write locks are not overrides. Serialization support is omitted.
+
+/**
+ * An implementation of {@link ReadWriteLock} supporting similar semantics to {@link ReentrantLock}.
+ *
+ * <p>This class has the following properties:
+ *
+ * <ul>
+ *   <li><b>Acquisition order</b>
+ *       <p>This class does not impose a reader or writer preference ordering for lock access.
+ *       However, it does support an optional <em>fairness</em> policy.
+ *       <dl>
+ *         <dt><b><i>Non-fair mode (default)</i></b>
+ *         <dd>When constructed as non-fair (the default), the order of entry to the read and write
+ *             lock is unspecified, subject to reentrancy constraints. A nonfair lock that is
+ *             continuously contended may indefinitely postpone one or more reader or writer
+ *             threads, but will normally have higher throughput than a fair lock.
+ *         <dt><b><i>Fair mode</i></b>
+ *         <dd>When constructed as fair, threads contend for entry using an approximately
+ *             arrival-order policy. When the currently held lock is released, either the
+ *             longest-waiting single writer thread will be assigned the write lock, or if there is
+ *             a group of reader threads waiting longer than all waiting writer threads, that group
+ *             will be assigned the read lock.
+ *       </dl>
+ *   <li><b>Reentrancy</b>
+ *       <p>This lock allows both readers and writers to reacquire read or write locks in the style
+ *       of a {@link ReentrantLock}. Additionally, a writer can acquire the read lock, but not
+ *       vice-versa.
+ *   <li><b>Lock downgrading</b>
+ *       <p>Reentrancy also allows downgrading from the write lock to a read lock, by acquiring the
+ *       write lock, then the read lock and then releasing the write lock. However, upgrading from
+ *       a read lock to the write lock is <b>not</b> possible.
+ *   <li><b>{@link Condition} support</b>
+ *       <p>The write lock provides a {@link Condition} implementation that behaves in the same way,
+ *       with respect to the write lock, as the {@link Condition} implementation provided by {@link
+ *       ReentrantLock#newCondition} does for {@link ReentrantLock}. The read lock does not support
+ *       a {@link Condition}.
+ * </ul>
+ *
+ * <p>This lock supports a maximum of 65535 recursive write locks and 65535 read locks. Attempts to
+ * exceed these limits result in {@link Error} throws from locking methods.
+ *
+ * @since 1.5
+ * @author Doug Lea
+ */
+@NullMarked
+public class ReentrantReadWriteLock implements ReadWriteLock, Serializable {
+  /** Inner class providing readlock */
+  private final ReentrantReadWriteLock.ReadLock readerLock;
+
+  /** Inner class providing writelock */
+  private final ReentrantReadWriteLock.WriteLock writerLock;
+
+  /** Performs all synchronization mechanics */
+  final Sync sync;
+
+  /** Creates a new {@code ReentrantReadWriteLock} with default (nonfair) ordering properties. */
+  public ReentrantReadWriteLock() {
+    this(false);
+  }
+
+  /**
+   * Creates a new {@code ReentrantReadWriteLock} with the given fairness policy.
+   *
+   * @param fair {@code true} if this lock should use a fair ordering policy
+   */
+  public ReentrantReadWriteLock(boolean fair) {
+    sync = fair ? new FairSync() : new NonfairSync();
+    readerLock = new ReadLock(this);
+    writerLock = new WriteLock(this);
+  }
+
+  @Override
+  public ReentrantReadWriteLock.WriteLock writeLock() {
+    return writerLock;
+  }
+
+  @Override
+  public ReentrantReadWriteLock.ReadLock readLock() {
+    return readerLock;
+  }
+
+  /**
+   * Synchronization implementation for ReentrantReadWriteLock. Subclassed into fair and nonfair
+   * versions.
+   */
+  abstract static class Sync extends AbstractQueuedSynchronizer {
+    /*
+     * Read vs write count extraction constants and functions. Lock state is logically divided into
+     * two unsigned shorts: The lower one representing the exclusive (writer) lock hold count, and
+     * the upper the shared (reader) hold count.
+     */
+
+    static final int SHARED_SHIFT = 16;
+    static final int SHARED_UNIT = (1 << SHARED_SHIFT);
+    static final int MAX_COUNT = (1 << SHARED_SHIFT) - 1;
+    static final int EXCLUSIVE_MASK = (1 << SHARED_SHIFT) - 1;
+
+    /** Returns the number of shared holds represented in count */
+    static int sharedCount(int c) {
+      return c >>> SHARED_SHIFT;
+    }
+
+    /** Returns the number of exclusive holds represented in count */
+    static int exclusiveCount(int c) {
+      return c & EXCLUSIVE_MASK;
+    }
+
+    /**
+     * A counter for per-thread read hold counts. Maintained as a ThreadLocal; cached in
+     * cachedHoldCounter
+     */
+    static final class HoldCounter {
+      int count = 0;
+      // Use id, not reference, to avoid garbage retention
+      final long tid = Thread.currentThread().getId();
+    }
+
+    /**
+     * The number of reentrant read locks held by current thread. Removed whenever a thread's read
+     * hold count drops to 0.
+     */
+    private final ThreadLocal<HoldCounter> readHolds = new ThreadLocal<HoldCounter>();
+
+    /**
+     * The hold count of the last thread to successfully acquire readLock. This saves ThreadLocal
+     * lookup in the common case where the next thread to release is the last one to acquire. This
+     * is non-volatile since it is just used as a heuristic, and would be great for threads to
+     * cache.
+     */
+    private @Nullable HoldCounter cachedHoldCounter;
+
+    /**
+     * firstReader is the first thread to have acquired the read lock. firstReaderHoldCount is
+     * firstReader's hold count.
+     *
+     * <p>More precisely, firstReader is the unique thread that last changed the shared count from
+     * 0 to 1, and has not released the read lock since then; null if there is no such thread.
+     *
+     * <p>This allows tracking of read holds for uncontended read locks to be very cheap.
+     */
+    private @Nullable Thread firstReader = null;
+
+    private int firstReaderHoldCount;
+
+    Sync() {}
+
+    /** Returns the current thread's read hold counter, creating it on first use. */
+    private HoldCounter readHoldCounter() {
+      HoldCounter rh = readHolds.get();
+      if (rh == null) {
+        rh = new HoldCounter();
+        readHolds.set(rh);
+      }
+      return rh;
+    }
+
+    /*
+     * Acquires and releases use the same code for fair and nonfair locks, but differ in
+     * whether/how they allow barging when queues are non-empty.
+     */
+
+    /**
+     * Returns true if the current thread, when trying to acquire the read lock, and otherwise
+     * eligible to do so, should block because of policy for overtaking other waiting threads.
+     */
+    abstract boolean readerShouldBlock();
+
+    /**
+     * Returns true if the current thread, when trying to acquire the write lock, and otherwise
+     * eligible to do so, should block because of policy for overtaking other waiting threads.
+     */
+    abstract boolean writerShouldBlock();
+
+    /*
+     * Note that tryRelease and tryAcquire can be called by Conditions. So it is possible that
+     * their arguments contain both read and write holds that are all released during a condition
+     * wait and re-established in tryAcquire.
+     */
+
+    @Override
+    protected final boolean tryRelease(int releases) {
+      if (!isHeldExclusively()) {
+        throw new IllegalMonitorStateException();
+      }
+      int nextc = getState() - releases;
+      boolean free = exclusiveCount(nextc) == 0;
+      if (free) {
+        setExclusiveOwnerThread(null);
+      }
+      setState(nextc);
+      return free;
+    }
+
+    @Override
+    protected final boolean tryAcquire(int acquires) {
+      /*
+       * Walkthrough:
+       * 1. If read count nonzero or write count nonzero and owner is a different thread, fail.
+       * 2. If count would saturate, fail. (This can only happen if count is already nonzero.)
+       * 3. Otherwise, this thread is eligible for lock if it is either a reentrant acquire or
+       *    queue policy allows it. If so, update state and set owner.
+       */
+      Thread current = Thread.currentThread();
+      int c = getState();
+      int w = exclusiveCount(c);
+      if (c != 0) {
+        // (Note: if c != 0 and w == 0 then shared count != 0)
+        if (w == 0 || current != getExclusiveOwnerThread()) {
+          return false;
+        }
+        if (w + exclusiveCount(acquires) > MAX_COUNT) {
+          throw new Error("Maximum lock count exceeded");
+        }
+        // Reentrant acquire
+        setState(c + acquires);
+        return true;
+      }
+      if (writerShouldBlock() || !compareAndSetState(c, c + acquires)) {
+        return false;
+      }
+      setExclusiveOwnerThread(current);
+      return true;
+    }
+
+    @Override
+    protected final boolean tryReleaseShared(int unused) {
+      Thread current = Thread.currentThread();
+      if (firstReader == current) {
+        if (firstReaderHoldCount == 1) {
+          firstReader = null;
+        } else {
+          firstReaderHoldCount--;
+        }
+      } else {
+        HoldCounter rh = cachedHoldCounter;
+        if (rh == null || rh.tid != current.getId()) {
+          rh = readHoldCounter();
+        }
+        int count = rh.count;
+        if (count <= 1) {
+          readHolds.remove();
+          if (count <= 0) {
+            throw unmatchedUnlockException();
+          }
+        }
+        --rh.count;
+      }
+      for (; ; ) {
+        int c = getState();
+        int nextc = c - SHARED_UNIT;
+        if (compareAndSetState(c, nextc)) {
+          // Releasing the read lock has no effect on readers, but it may allow waiting writers to
+          // proceed if both read and write locks are now free.
+          return nextc == 0;
+        }
+      }
+    }
+
+    private static IllegalMonitorStateException unmatchedUnlockException() {
+      return new IllegalMonitorStateException(
+          "attempt to unlock read lock, not locked by current thread");
+    }
+
+    @Override
+    protected final int tryAcquireShared(int unused) {
+      /*
+       * Walkthrough:
+       * 1. If write lock held by another thread, fail.
+       * 2. Otherwise, this thread is eligible for lock wrt state, so ask if it should block
+       *    because of queue policy. If not, try to grant by CASing state and updating count.
+       * 3. If step 2 fails either because thread apparently not eligible or CAS fails or count
+       *    saturated, chain to version with full retry loop.
+       */
+      Thread current = Thread.currentThread();
+      int c = getState();
+      if (exclusiveCount(c) != 0 && getExclusiveOwnerThread() != current) {
+        return -1;
+      }
+      int r = sharedCount(c);
+      if (!readerShouldBlock() && r < MAX_COUNT && compareAndSetState(c, c + SHARED_UNIT)) {
+        if (r == 0) {
+          firstReader = current;
+          firstReaderHoldCount = 1;
+        } else if (firstReader == current) {
+          firstReaderHoldCount++;
+        } else {
+          HoldCounter rh = cachedHoldCounter;
+          if (rh == null || rh.tid != current.getId()) {
+            cachedHoldCounter = rh = readHoldCounter();
+          } else if (rh.count == 0) {
+            readHolds.set(rh);
+          }
+          rh.count++;
+        }
+        return 1;
+      }
+      return fullTryAcquireShared(current);
+    }
+
+    /**
+     * Full version of acquire for reads, that handles CAS misses and reentrant reads not dealt with
+     * in tryAcquireShared.
+     */
+    final int fullTryAcquireShared(Thread current) {
+      HoldCounter rh = null;
+      for (; ; ) {
+        int c = getState();
+        if (exclusiveCount(c) != 0) {
+          if (getExclusiveOwnerThread() != current) {
+            return -1;
+          }
+          // else we hold the exclusive lock; blocking here would cause deadlock.
+        } else if (readerShouldBlock()) {
+          // Make sure we're not acquiring read lock reentrantly
+          if (firstReader != current) {
+            if (rh == null) {
+              rh = cachedHoldCounter;
+              if (rh == null || rh.tid != current.getId()) {
+                rh = readHoldCounter();
+                if (rh.count == 0) {
+                  readHolds.remove();
+                }
+              }
+            }
+            if (rh.count == 0) {
+              return -1;
+            }
+          }
+        }
+        if (sharedCount(c) == MAX_COUNT) {
+          throw new Error("Maximum lock count exceeded");
+        }
+        if (compareAndSetState(c, c + SHARED_UNIT)) {
+          if (sharedCount(c) == 0) {
+            firstReader = current;
+            firstReaderHoldCount = 1;
+          } else if (firstReader == current) {
+            firstReaderHoldCount++;
+          } else {
+            if (rh == null) {
+              rh = cachedHoldCounter;
+            }
+            if (rh == null || rh.tid != current.getId()) {
+              rh = readHoldCounter();
+            } else if (rh.count == 0) {
+              readHolds.set(rh);
+            }
+            rh.count++;
+            cachedHoldCounter = rh; // cache for release
+          }
+          return 1;
+        }
+      }
+    }
+
+    /**
+     * Performs tryLock for write, enabling barging in both modes. This is identical in effect to
+     * tryAcquire except for lack of calls to writerShouldBlock.
+     */
+    final boolean tryWriteLock() {
+      Thread current = Thread.currentThread();
+      int c = getState();
+      if (c != 0) {
+        int w = exclusiveCount(c);
+        if (w == 0 || current != getExclusiveOwnerThread()) {
+          return false;
+        }
+        if (w == MAX_COUNT) {
+          throw new Error("Maximum lock count exceeded");
+        }
+      }
+      if (!compareAndSetState(c, c + 1)) {
+        return false;
+      }
+      setExclusiveOwnerThread(current);
+      return true;
+    }
+
+    /**
+     * Performs tryLock for read, enabling barging in both modes. This is identical in effect to
+     * tryAcquireShared except for lack of calls to readerShouldBlock.
+     */
+    final boolean tryReadLock() {
+      Thread current = Thread.currentThread();
+      for (; ; ) {
+        int c = getState();
+        if (exclusiveCount(c) != 0 && getExclusiveOwnerThread() != current) {
+          return false;
+        }
+        int r = sharedCount(c);
+        if (r == MAX_COUNT) {
+          throw new Error("Maximum lock count exceeded");
+        }
+        if (compareAndSetState(c, c + SHARED_UNIT)) {
+          if (r == 0) {
+            firstReader = current;
+            firstReaderHoldCount = 1;
+          } else if (firstReader == current) {
+            firstReaderHoldCount++;
+          } else {
+            HoldCounter rh = cachedHoldCounter;
+            if (rh == null || rh.tid != current.getId()) {
+              cachedHoldCounter = rh = readHoldCounter();
+            } else if (rh.count == 0) {
+              readHolds.set(rh);
+            }
+            rh.count++;
+          }
+          return true;
+        }
+      }
+    }
+
+    @Override
+    protected final boolean isHeldExclusively() {
+      // While we must in general read state before owner, we don't need to do so to check if
+      // current thread is owner
+      return getExclusiveOwnerThread() == Thread.currentThread();
+    }
+
+    // Methods relayed to outer class
+
+    final ConditionObject newCondition() {
+      return new ConditionObject();
+    }
+
+    final @Nullable Thread getOwner() {
+      // Must read state before owner to ensure memory consistency
+      return ((exclusiveCount(getState()) == 0) ? null : getExclusiveOwnerThread());
+    }
+
+    final int getReadLockCount() {
+      return sharedCount(getState());
+    }
+
+    final boolean isWriteLocked() {
+      return exclusiveCount(getState()) != 0;
+    }
+
+    final int getWriteHoldCount() {
+      return isHeldExclusively() ? exclusiveCount(getState()) : 0;
+    }
+
+    final int getReadHoldCount() {
+      if (getReadLockCount() == 0) {
+        return 0;
+      }
+
+      Thread current = Thread.currentThread();
+      if (firstReader == current) {
+        return firstReaderHoldCount;
+      }
+
+      HoldCounter rh = cachedHoldCounter;
+      if (rh != null && rh.tid == current.getId()) {
+        return rh.count;
+      }
+
+      HoldCounter own = readHolds.get();
+      return (own == null) ? 0 : own.count;
+    }
+
+    final int getCount() {
+      return getState();
+    }
+  }
+
+  /** Nonfair version of Sync */
+  static final class NonfairSync extends Sync {
+    @Override
+    final boolean writerShouldBlock() {
+      return false; // writers can always barge
+    }
+
+    @Override
+    final boolean readerShouldBlock() {
+      /* As a heuristic to avoid indefinite writer starvation, block if the thread that momentarily
+       * appears to be head of queue, if one exists, is a waiting writer. This is only a
+       * probabilistic effect since a new reader will not block if there is a waiting writer behind
+       * other enabled readers that have not yet drained from the queue.
+       */
+      return apparentlyFirstQueuedIsExclusive();
+    }
+  }
+
+  /** Fair version of Sync */
+  static final class FairSync extends Sync {
+    @Override
+    final boolean writerShouldBlock() {
+      return hasQueuedPredecessors();
+    }
+
+    @Override
+    final boolean readerShouldBlock() {
+      return hasQueuedPredecessors();
+    }
+  }
+
+  /** The lock returned by method {@link ReentrantReadWriteLock#readLock}. */
+  public static class ReadLock implements Lock, Serializable {
+    private final Sync sync;
+
+    /**
+     * Constructor for use by subclasses
+     *
+     * @param lock the outer lock object
+     * @throws NullPointerException if the lock is null
+     */
+    protected ReadLock(ReentrantReadWriteLock lock) {
+      sync = lock.sync;
+    }
+
+    /**
+     * Acquires the read lock.
+     *
+     * <p>Acquires the read lock if the write lock is not held by another thread and returns
+     * immediately.
+     *
+     * <p>If the write lock is held by another thread then the current thread becomes disabled for
+     * thread scheduling purposes and lies dormant until the read lock has been acquired.
+     */
+    @Override
+    public void lock() {
+      sync.acquireShared(1);
+    }
+
+    /**
+     * Note that this falls back to lock(), as we generally don't support interrupting threads for
+     * j2kt-native. This is consistent with the API contract.
+     */
+    @Override
+    public void lockInterruptibly() {
+      sync.acquireShared(1);
+    }
+
+    /**
+     * Acquires the read lock only if the write lock is not held by another thread at the time of
+     * invocation. This method barges even if the lock is fair.
+     *
+     * @return {@code true} if the read lock was acquired
+     */
+    public boolean tryLock() {
+      return sync.tryReadLock();
+    }
+
+    /**
+     * Acquires the read lock if the write lock is not held by another thread within the given
+     * waiting time.
+     *
+     * @param timeout the time to wait for the read lock
+     * @param unit the time unit of the timeout argument
+     * @return {@code true} if the read lock was acquired
+     * @throws InterruptedException never thrown on J2KT
+     */
+    public boolean tryLock(long timeout, TimeUnit unit) throws InterruptedException {
+      return sync.tryAcquireSharedNanos(1, unit.toNanos(timeout));
+    }
+
+    /**
+     * Attempts to release this lock.
+     *
+     * <p>If the number of readers is now zero then the lock is made available for write lock
+     * attempts. If the current thread does not hold this lock then {@link
+     * IllegalMonitorStateException} is thrown.
+     *
+     * @throws IllegalMonitorStateException if the current thread does not hold this lock
+     */
+    @Override
+    public void unlock() {
+      sync.releaseShared(1);
+    }
+
+    /**
+     * Throws {@code UnsupportedOperationException} because {@code ReadLocks} do not support
+     * conditions.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public Condition newCondition() {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public String toString() {
+      int r = sync.getReadLockCount();
+      return super.toString() + "[Read locks = " + r + "]";
+    }
+  }
+
+  /** The lock returned by method {@link ReentrantReadWriteLock#writeLock}. */
+  public static class WriteLock implements Lock, Serializable {
+    private final Sync sync;
+
+    /**
+     * Constructor for use by subclasses
+     *
+     * @param lock the outer lock object
+     * @throws NullPointerException if the lock is null
+     */
+    protected WriteLock(ReentrantReadWriteLock lock) {
+      sync = lock.sync;
+    }
+
+    /**
+     * Acquires the write lock.
+     *
+     * <p>Acquires the write lock if neither the read nor write lock are held by another thread and
+     * returns immediately, setting the write lock hold count to one.
+     *
+     * <p>If the current thread already holds the write lock then the hold count is incremented by
+     * one and the method returns immediately.
+     *
+     * <p>If the lock is held by another thread then the current thread becomes disabled for thread
+     * scheduling purposes and lies dormant until the write lock has been acquired.
+     */
+    @Override
+    public void lock() {
+      sync.acquire(1);
+    }
+
+    /**
+     * Note that this falls back to lock(), as we generally don't support interrupting threads for
+     * j2kt-native. This is consistent with the API contract.
+     */
+    @Override
+    public void lockInterruptibly() {
+      sync.acquire(1);
+    }
+
+    /**
+     * Acquires the write lock only if it is not held by another thread at the time of invocation.
+     * This method barges even if the lock is fair.
+     *
+     * @return {@code true} if the lock was free and was acquired by the current thread, or the
+     *     write lock was already held by the current thread; and {@code false} otherwise.
+     */
+    public boolean tryLock() {
+      return sync.tryWriteLock();
+    }
+
+    /**
+     * Acquires the write lock if it is not held by another thread within the given waiting time.
+     *
+     * @param timeout the time to wait for the write lock
+     * @param unit the time unit of the timeout argument
+     * @return {@code true} if the lock was free and was acquired by the current thread, or the
+     *     write lock was already held by the current thread; and {@code false} if the waiting time
+     *     elapsed before the lock could be acquired.
+     * @throws InterruptedException never thrown on J2KT
+     */
+    public boolean tryLock(long timeout, TimeUnit unit) throws InterruptedException {
+      return sync.tryAcquireNanos(1, unit.toNanos(timeout));
+    }
+
+    /**
+     * Attempts to release this lock.
+     *
+     * <p>If the current thread is the holder of this lock then the hold count is decremented. If
+     * the hold count is now zero then the lock is released. If the current thread is not the
+     * holder of this lock then {@link IllegalMonitorStateException} is thrown.
+     *
+     * @throws IllegalMonitorStateException if the current thread does not hold this lock
+     */
+    @Override
+    public void unlock() {
+      sync.release(1);
+    }
+
+    /**
+     * Returns a {@link Condition} instance for use with this {@link Lock} instance.
+     *
+     * <p>The returned {@link Condition} instance supports the same usages as do the {@link
+     * Object} monitor methods when used with the built-in monitor lock. When the condition
+     * {@linkplain Condition#await() waiting} methods are called the write lock is released and,
+     * before they return, the write lock is reacquired and the lock hold count restored to what it
+     * was when the method was called.
+     *
+     * @return the Condition object
+     */
+    @Override
+    public Condition newCondition() {
+      return sync.newCondition();
+    }
+
+    @Override
+    public String toString() {
+      Thread o = sync.getOwner();
+      return super.toString()
+          + ((o == null) ? "[Unlocked]" : "[Locked by thread " + o.getName() + "]");
+    }
+
+    /**
+     * Queries if this write lock is held by the current thread. Identical in effect to {@link
+     * ReentrantReadWriteLock#isWriteLockedByCurrentThread}.
+     *
+     * @return {@code true} if the current thread holds this lock and {@code false} otherwise
+     */
+    public boolean isHeldByCurrentThread() {
+      return sync.isHeldExclusively();
+    }
+
+    /**
+     * Queries the number of holds on this write lock by the current thread. Identical in effect to
+     * {@link ReentrantReadWriteLock#getWriteHoldCount}.
+     *
+     * @return the number of holds on this lock by the current thread, or zero if this lock is not
+     *     held by the current thread
+     */
+    public int getHoldCount() {
+      return sync.getWriteHoldCount();
+    }
+  }
+
+  // Instrumentation and status
+
+  /**
+   * Returns {@code true} if this lock has fairness set true.
+   *
+   * @return {@code true} if this lock has fairness set true
+   */
+  public final boolean isFair() {
+    return sync instanceof FairSync;
+  }
+
+  /**
+   * Returns the thread that currently owns the write lock, or {@code null} if not owned.
+   *
+   * @return the owner, or {@code null} if not owned
+   */
+  protected @Nullable Thread getOwner() {
+    return sync.getOwner();
+  }
+
+  /**
+   * Queries the number of read locks held for this lock. This method is designed for use in
+   * monitoring system state, not for synchronization control.
+   *
+   * @return the number of read locks held
+   */
+  public int getReadLockCount() {
+    return sync.getReadLockCount();
+  }
+
+  /**
+   * Queries if the write lock is held by any thread. This method is designed for use in monitoring
+   * system state, not for synchronization control.
+   *
+   * @return {@code true} if any thread holds the write lock and {@code false} otherwise
+   */
+  public boolean isWriteLocked() {
+    return sync.isWriteLocked();
+  }
+
+  /**
+   * Queries if the write lock is held by the current thread.
+   *
+   * @return {@code true} if the current thread holds the write lock and {@code false} otherwise
+   */
+  public boolean isWriteLockedByCurrentThread() {
+    return sync.isHeldExclusively();
+  }
+
+  /**
+   * Queries the number of reentrant write holds on this lock by the current thread.
+   *
+   * @return the number of holds on the write lock by the current thread, or zero if the write lock
+   *     is not held by the current thread
+   */
+  public int getWriteHoldCount() {
+    return sync.getWriteHoldCount();
+  }
+
+  /**
+   * Queries the number of reentrant read holds on this lock by the current thread.
+   *
+   * @return the number of holds on the read lock by the current thread, or zero if the read lock is
+   *     not held by the current thread
+   */
+  public int getReadHoldCount() {
+    return sync.getReadHoldCount();
+  }
+
+  /**
+   * Returns a collection containing threads that may be waiting to acquire the write lock.
+   *
+   * @return the collection of threads
+   */
+  protected Collection<Thread> getQueuedWriterThreads() {
+    return sync.getExclusiveQueuedThreads();
+  }
+
+  /**
+   * Returns a collection containing threads that may be waiting to acquire the read lock.
+   *
+   * @return the collection of threads
+   */
+  protected Collection<Thread> getQueuedReaderThreads() {
+    return sync.getSharedQueuedThreads();
+  }
+
+  /**
+   * Queries whether any threads are waiting to acquire the read or write lock.
+   *
+   * @return {@code true} if there may be other threads waiting to acquire the lock
+   */
+  public final boolean hasQueuedThreads() {
+    return sync.hasQueuedThreads();
+  }
+
+  /**
+   * Queries whether the given thread is waiting to acquire either the read or write lock.
+   *
+   * @param thread the thread
+   * @return {@code true} if the given thread is queued waiting for this lock
+   * @throws NullPointerException if the thread is null
+   */
+  public final boolean hasQueuedThread(Thread thread) {
+    return sync.isQueued(thread);
+  }
+
+  /**
+   * Returns an estimate of the number of threads waiting to acquire either the read or write lock.
+   *
+   * @return the estimated number of threads waiting for this lock
+   */
+  public final int getQueueLength() {
+    return sync.getQueueLength();
+  }
+
+  /**
+   * Returns a collection containing threads that may be waiting to acquire either the read or
+   * write lock.
+   *
+   * @return the collection of threads
+   */
+  protected Collection<Thread> getQueuedThreads() {
+    return sync.getQueuedThreads();
+  }
+
+  /**
+   * Queries whether any threads are waiting on the given condition associated with the write lock.
+   *
+   * @param condition the condition
+   * @return {@code true} if there are any waiting threads
+   * @throws IllegalMonitorStateException if this lock is not held
+   * @throws IllegalArgumentException if the given condition is not associated with this lock
+   * @throws NullPointerException if the condition is null
+   */
+  public boolean hasWaiters(Condition condition) {
+    if (condition == null) {
+      throw new NullPointerException();
+    }
+    if (!(condition instanceof AbstractQueuedSynchronizer.ConditionObject)) {
+      throw new IllegalArgumentException("not owner");
+    }
+    return sync.hasWaiters((AbstractQueuedSynchronizer.ConditionObject) condition);
+  }
+
+  /**
+   * Returns an estimate of the number of threads waiting on the given condition associated with
+   * the write lock.
+   *
+   * @param condition the condition
+   * @return the estimated number of waiting threads
+   * @throws IllegalMonitorStateException if this lock is not held
+   * @throws IllegalArgumentException if the given condition is not associated with this lock
+   * @throws NullPointerException if the condition is null
+   */
+  public int getWaitQueueLength(Condition condition) {
+    if (condition == null) {
+      throw new NullPointerException();
+    }
+    if (!(condition instanceof AbstractQueuedSynchronizer.ConditionObject)) {
+      throw new IllegalArgumentException("not owner");
+    }
+    return sync.getWaitQueueLength((AbstractQueuedSynchronizer.ConditionObject) condition);
+  }
+
+  /**
+   * Returns a collection containing those threads that may be waiting on the given condition
+   * associated with the write lock.
+   *
+   * @param condition the condition
+   * @return the collection of threads
+   * @throws IllegalMonitorStateException if this lock is not held
+   * @throws IllegalArgumentException if the given condition is not associated with this lock
+   * @throws NullPointerException if the condition is null
+   */
+  protected Collection<Thread> getWaitingThreads(Condition condition) {
+    if (condition == null) {
+      throw new NullPointerException();
+    }
+    if (!(condition instanceof AbstractQueuedSynchronizer.ConditionObject)) {
+      throw new IllegalArgumentException("not owner");
+    }
+    return sync.getWaitingThreads((AbstractQueuedSynchronizer.ConditionObject) condition);
+  }
+
+  /**
+   * Returns a string identifying this lock, as well as its lock state. The state, in brackets,
+   * includes the String {@code "Write locks ="} followed by the number of reentrantly held write
+   * locks, and the String {@code "Read locks ="} followed by the number of held read locks.
+   *
+   * @return a string identifying this lock, as well as its lock state
+   */
+  @Override
+  public String toString() {
+    int c = sync.getCount();
+    int w = Sync.exclusiveCount(c);
+    int r = Sync.sharedCount(c);
+
+    return super.toString() + "[Write locks = " + w + ", Read locks = " + r + "]";
+  }
+}
@@ -0,0 +1,1263 @@
+/*
+ * Written by Doug Lea with assistance from members of JCP JSR-166
+ * Expert Group and released to the public domain, as explained at
+ * http://creativecommons.org/publicdomain/zero/1.0/
+ */
+
+package java.util.concurrent.locks;
+
+import java.io.Serializable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+// J2kt-native: based on the JDK 8 version. Fields updated with Unsafe in the JDK are atomics here,
+// and threads are blocked with LockSupport. Spin loops decrement their counters unconditionally
+// instead of on a random half of the iterations. Kotlin/Native has no standalone load fence, so
+// validate() only rereads the state; fields read in optimistic mode should be volatile so that
+// their reads cannot be reordered past the validation. Threads cannot be interrupted, so the
+// interruptible methods behave like their uninterruptible counterparts. Serialization support is
+// omitted.
+
+/**
+ * A capability-based lock with three modes for controlling read/write access. The state of a
+ * StampedLock consists of a version and mode. Lock acquisition methods return a stamp that
+ * represents and controls access with respect to a lock state; "try" versions of these methods may
+ * instead return the special value zero to represent failure to acquire access. Lock release and
+ * conversion methods require stamps as arguments, and fail if they do not match the state of the
+ * lock. The three modes are:
+ *
+ * <ul>
+ *   <li><b>Writing.</b> Method {@link #writeLock} possibly blocks waiting for exclusive access,
+ *       returning a stamp that can be used in method {@link #unlockWrite} to release the lock.
+ *       Untimed and timed versions of {@code tryWriteLock} are also provided. When the lock is
+ *       held in write mode, no read locks may be obtained, and all optimistic read validations
+ *       will fail.
+ *   <li><b>Reading.</b> Method {@link #readLock} possibly blocks waiting for non-exclusive access,
+ *       returning a stamp that can be used in method {@link #unlockRead} to release the lock.
+ *       Untimed and timed versions of {@code tryReadLock} are also provided.
+ *   <li><b>Optimistic Reading.</b> Method {@link #tryOptimisticRead} returns a non-zero stamp only
+ *       if the lock is not currently held in write mode. Method {@link #validate} returns true if
+ *       the lock has not been acquired in write mode since obtaining a given stamp. This mode can
+ *       be thought of as an extremely weak version of a read-lock, that can be broken by a writer
+ *       at any time. Neither method writes to shared memory, so optimistic readers do not contend
+ *       with each other. The use of optimistic mode for short read-only code segments often
+ *       reduces contention and improves throughput. However, its use is inherently fragile.
+ *       Optimistic read sections should only read fields and hold them in local variables for
+ *       later use after validation.
+ * </ul>
+ *
+ * <p>This class also supports methods that conditionally provide conversions across the three
+ * modes. For example, method {@link #tryConvertToWriteLock} attempts to "upgrade" a mode, returning
+ * a valid write stamp if (1) already in writing mode (2) in reading mode and there are no other
+ * readers or (3) in optimistic mode and the lock is available.
+ *
+ * <p>StampedLocks are designed for use as internal utilities in the development of thread-safe
+ * components. Their use relies on knowledge of the internal properties of the data, objects, and
+ * methods they are protecting. They are not reentrant, so locked bodies should not call other
+ * unknown methods that may try to re-acquire locks.
+ *
+ * <p>The scheduling policy of StampedLock does not consistently prefer readers over writers or
+ * vice versa. All "try" methods are best-effort and do not necessarily conform to any scheduling
+ * or fairness policy.
+ *
+ * <p>Because it supports coordinated usage across multiple lock modes, this class does not
+ * directly implement the {@link Lock} or {@link ReadWriteLock} interfaces. However, a StampedLock
+ * may be viewed {@link #asReadLock()}, {@link #asWriteLock()}, or {@link #asReadWriteLock()} in
+ * applications requiring only the associated set of functionality.
+ *
+ * @since 1.8
+ * @author Doug Lea
+ */
+@NullMarked
+public class StampedLock implements Serializable {
+  /*
+   * Algorithmic notes:
+   *
+   * The design employs elements of Sequence locks (as used in linux kernels), and Ordered RW locks.
+   *
+   * Conceptually, the primary state of the lock includes a sequence number that is odd when
+   * write-locked and even otherwise. However, this is offset by a reader count that is non-zero
+   * when read-locked. The read count is ignored when validating "optimistic" seqlock-reader-style
+   * stamps. Because we must use a small finite number of bits (currently 7) for readers, a
+   * supplementary reader overflow word is used when the number of readers exceeds the count field.
+   * We do this by treating the max reader count value (RBITS) as a spinlock protecting overflow
+   * updates.
+   *
+   * Waiters use a modified form of CLH lock used in AbstractQueuedSynchronizer, where each node is
+   * tagged (field mode) as either a reader or writer. Sets of waiting readers are grouped (linked)
+   * under a common node (field cowait) so act as a single node with respect to most CLH mechanics.
+   * By virtue of the queue structure, wait nodes need not actually carry sequence numbers; we know
+   * each is greater than its predecessor. This simplifies the scheduling policy to a mainly-FIFO
+   * scheme that incorporates elements of Phase-Fair locks. In particular, we use the phase-fair
+   * anti-barging rule: If an incoming reader arrives while read lock is held but there is a queued
+   * writer, this incoming reader is queued.
+   *
+   * These rules apply to threads actually queued. All tryLock forms opportunistically try to
+   * acquire locks regardless of preference rules, and so may "barge" their way in. Spinning is
+   * used in the acquire methods to reduce (increasingly expensive) context switching while also
+   * avoiding sustained memory thrashing among many threads. We limit spins to the head of queue. A
+   * thread spin-waits up to SPINS times (where each iteration decreases spin count) before
+   * blocking. If, upon wakening it fails to obtain lock, and is still (or becomes) the first
+   * waiting thread (which indicates that some other thread barged and obtained lock), it escalates
+   * spins (up to MAX_HEAD_SPINS) to reduce the likelihood of continually losing to barging threads.
+   *
+   * Nearly all of these mechanics are carried out in methods acquireWrite and acquireRead, that,
+   * as typical of such code, sprawl out because actions and retries rely on consistent sets of
+   * locally cached reads.
+   */
+
+  /** Number of processors, for spin control */
+  private static final int NCPU = Runtime.getRuntime().availableProcessors();
+
+  /** Maximum number of retries before enqueuing on acquisition */
+  private static final int SPINS = (NCPU > 1) ? 1 << 6 : 0;
+
+  /** Maximum number of retries before blocking at head on acquisition */
+  private static final int HEAD_SPINS = (NCPU > 1) ? 1 << 10 : 0;
+
+  /** Maximum number of retries before re-blocking */
+  private static final int MAX_HEAD_SPINS = (NCPU > 1) ? 1 << 16 : 0;
+
+  /** The number of bits to use for reader count before overflowing */
+  private static final int LG_READERS = 7;
+
+  // Values for lock state and stamp operations
+  private static final long RUNIT = 1L;
+  private static final long WBIT = 1L << LG_READERS;
+  private static final long RBITS = WBIT - 1L;
+  private static final long RFULL = RBITS - 1L;
+  private static final long ABITS = RBITS | WBIT;
+  private static final long SBITS = ~RBITS; // note overlap with ABITS
+
+  // Initial value for lock state; avoid failure value zero
+  private static final long ORIGIN = WBIT << 1;
+
+  // Values for node status; order matters
+  private static final int WAITING = -1;
+  private static final int CANCELLED = 1;
+
+  // Modes (int not boolean to allow arithmetic)
+  private static final int RMODE = 0;
+  private static final int WMODE = 1;
+
+  /** Wait nodes */
+  static final class WNode {
+    volatile @Nullable WNode prev;
+    final AtomicReference<@Nullable WNode> next = new AtomicReference<>();
+    // list of linked readers
+    final AtomicReference<@Nullable WNode> cowait = new AtomicReference<>();
+    volatile @Nullable Thread thread; // non-null while possibly parked
+    final AtomicInteger status = new AtomicInteger(); // 0, WAITING, or CANCELLED
+    final int mode; // RMODE or WMODE
+
+    WNode(int m, @Nullable WNode p) {
+      mode = m;
+      prev = p;
+    }
+  }
+
+  /** Head of CLH queue */
+  private final AtomicReference<@Nullable WNode> whead = new AtomicReference<>();
+
+  /** Tail (last) of CLH queue */
+  private final AtomicReference<@Nullable WNode> wtail = new AtomicReference<>();
+
+  // views
+  transient @Nullable ReadLockView readLockView;
+  transient @Nullable WriteLockView writeLockView;
+  transient @Nullable ReadWriteLockView readWriteLockView;
+
+  /** Lock sequence/state */
+  private final AtomicLong state = new AtomicLong(ORIGIN);
+
+  /** extra reader count when state read count saturated */
+  private int readerOverflow;
+
+  /** Creates a new lock, initially in unlocked state. */
+  public StampedLock() {}
+
+  /**
+   * Exclusively acquires the lock, blocking if necessary until available.
+   *
+   * @return a stamp that can be used to unlock or convert mode
+   */
+  public long writeLock() {
+    long s;
+    long next; // bypass acquireWrite in fully unlocked case only
+    return ((((s = state.get()) & ABITS) == 0L && state.compareAndSet(s, next = s + WBIT))
+        ? next
+        : acquireWrite(0L));
+  }
+
+  /**
+   * Exclusively acquires the lock if it is immediately available.
+   *
+   * @return a stamp that can be used to unlock or convert mode, or zero if the lock is not
+   *     available
+   */
+  public long tryWriteLock() {
+    long s;
+    long next;
+    return ((((s = state.get()) & ABITS) == 0L && state.compareAndSet(s, next = s + WBIT))
+        ? next
+        : 0L);
+  }
+
+  /**
+   * Exclusively acquires the lock if it is available within the given time.
+   *
+   * @param time the maximum time to wait for the lock
+   * @param unit the time unit of the {@code time} argument
+   * @return a stamp that can be used to unlock or convert mode, or zero if the lock is not
+   *     available
+   * @throws InterruptedException never thrown on J2KT
+   */
+  public long tryWriteLock(long time, TimeUnit unit) throws InterruptedException {
+    long nanos = unit.toNanos(time);
+    long next;
+    long deadline;
+    if ((next = tryWriteLock()) != 0L) {
+      return next;
+    }
+    if (nanos <= 0L) {
+      return 0L;
+    }
+    if ((deadline = System.nanoTime() + nanos) == 0L) {
+      deadline = 1L;
+    }
+    return acquireWrite(deadline);
+  }
+
+  /**
+   * Exclusively acquires the lock, blocking if necessary until available. Threads cannot be
+   * interrupted on J2KT, so this is equivalent to {@link #writeLock}.
+   *
+   * @return a stamp that can be used to unlock or convert mode
+   * @throws InterruptedException never thrown on J2KT
+   */
+  public long writeLockInterruptibly() throws InterruptedException {
+    return writeLock();
+  }
+
+  /**
+   * Non-exclusively acquires the lock, blocking if necessary until available.
+   *
+   * @return a stamp that can be used to unlock or convert mode
+   */
+  public long readLock() {
+    long s = state.get();
+    long next; // bypass acquireRead on common uncontended case
+    return ((whead.get() == wtail.get()
+            && (s & ABITS) < RFULL
+            && state.compareAndSet(s, next = s + RUNIT))
+        ? next
+        : acquireRead(0L));
+  }
+
+  /**
+   * Non-exclusively acquires the lock if it is immediately available.
+   *
+   * @return a stamp that can be used to unlock or convert mode, or zero if the lock is not
+   *     available
+   */
+  public long tryReadLock() {
+    for (; ; ) {
+      long s;
+      long m;
+      long next;
+      if ((m = (s = state.get()) & ABITS) == WBIT) {
+        return 0L;
+      } else if (m < RFULL) {
+        if (state.compareAndSet(s, next = s + RUNIT)) {
+          return next;
+        }
+      } else if ((next = tryIncReaderOverflow(s)) != 0L) {
+        return next;
+      }
+    }
+  }
+
+  /**
+   * Non-exclusively acquires the lock if it is available within the given time.
+   *
+   * @param time the maximum time to wait for the lock
+   * @param unit the time unit of the {@code time} argument
+   * @return a stamp that can be used to unlock or convert mode, or zero if the lock is not
+   *     available
+   * @throws InterruptedException never thrown on J2KT
+   */
+  public long tryReadLock(long time, TimeUnit unit) throws InterruptedException {
+    long s;
+    long m;
+    long next;
+    long deadline;
+    long nanos = unit.toNanos(time);
+    if ((m = (s = state.get()) & ABITS) != WBIT) {
+      if (m < RFULL) {
+        if (state.compareAndSet(s, next = s + RUNIT)) {
+          return next;
+        }
+      } else if ((next = tryIncReaderOverflow(s)) != 0L) {
+        return next;
+      }
+    }
+    if (nanos <= 0L) {
+      return 0L;
+    }
+    if ((deadline = System.nanoTime() + nanos) == 0L) {
+      deadline = 1L;
+    }
+    return acquireRead(deadline);
+  }
+
+  /**
+   * Non-exclusively acquires the lock, blocking if necessary until available. Threads cannot be
+   * interrupted on J2KT, so this is equivalent to {@link #readLock}.
+   *
+   * @return a stamp that can be used to unlock or convert mode
+   * @throws InterruptedException never thrown on J2KT
+   */
+  public long readLockInterruptibly() throws InterruptedException {
+    return readLock();
+  }
+
+  /**
+   * Returns a stamp that can later be validated, or zero if exclusively locked. This only reads
+   * the lock state and does not write to shared memory.
+   *
+   * @return a stamp, or zero if exclusively locked
+   */
+  public long tryOptimisticRead() {
+    long s;
+    return (((s = state.get()) & WBIT) == 0L) ? (s & SBITS) : 0L;
+  }
+
+  /**
+   * Returns true if the lock has not been exclusively acquired since issuance of the given stamp.
+   * Always returns false if the stamp is zero. Always returns true if the stamp represents a
+   * currently held lock. Invoking this method with a value not obtained from {@link
+   * #tryOptimisticRead} or a locking method for this lock has no defined effect or result.
+   *
+   * @param stamp a stamp
+   * @return {@code true} if the lock has not been exclusively acquired since issuance of the given
+   *     stamp; else false
+   */
+  public boolean validate(long stamp) {
+    return (stamp & SBITS) == (state.get() & SBITS);
+  }
+
+  /**
+   * If the lock state matches the given stamp, releases the exclusive lock.
+   *
+   * @param stamp a stamp returned by a write-lock operation
+   * @throws IllegalMonitorStateException if the stamp does not match the current state of this
+   *     lock
+   */
+  public void unlockWrite(long stamp) {
+    WNode h;
+    if (state.get() != stamp || (stamp & WBIT) == 0L) {
+      throw new IllegalMonitorStateException();
+    }
+    state.set((stamp += WBIT) == 0L ? ORIGIN : stamp);
+    if ((h = whead.get()) != null && h.status.get() != 0) {
+      release(h);
+    }
+  }
+
+  /**
+   * If the lock state matches the given stamp, releases the non-exclusive lock.
+   *
+   * @param stamp a stamp returned by a read-lock operation
+   * @throws IllegalMonitorStateException if the stamp does not match the current state of this
+   *     lock
+   */
+  public void unlockRead(long stamp) {
+    long s;
+    long m;
+    WNode h;
+    for (; ; ) {
+      if (((s = state.get()) & SBITS) != (stamp & SBITS)
+          || (stamp & ABITS) == 0L
+          || (m = s & ABITS) == 0L
+          || m == WBIT) {
+        throw new IllegalMonitorStateException();
+      }
+      if (m < RFULL) {
+        if (state.compareAndSet(s, s - RUNIT)) {
+          if (m == RUNIT && (h = whead.get()) != null && h.status.get() != 0) {
+            release(h);
+          }
+          break;
+        }
+      } else if (tryDecReaderOverflow(s) != 0L) {
+        break;
+      }
+    }
+  }
+
+  /**
+   * If the lock state matches the given stamp, releases the corresponding mode of the lock.
+   *
+   * @param stamp a stamp returned by a lock operation
+   * @throws IllegalMonitorStateException if the stamp does not match the current state of this
+   *     lock
+   */
+  public void unlock(long stamp) {
+    long a = stamp & ABITS;
+    long m;
+    long s;
+    WNode h;
+    while (((s = state.get()) & SBITS) == (stamp & SBITS)) {
+      if ((m = s & ABITS) == 0L) {
+        break;
+      } else if (m == WBIT) {
+        if (a != m) {
+          break;
+        }
+        state.set((s += WBIT) == 0L ? ORIGIN : s);
+        if ((h = whead.get()) != null && h.status.get() != 0) {
+          release(h);
+        }
+        return;
+      } else if (a == 0L || a >= WBIT) {
+        break;
+      } else if (m < RFULL) {
+        if (state.compareAndSet(s, s - RUNIT)) {
+          if (m == RUNIT && (h = whead.get()) != null && h.status.get() != 0) {
+            release(h);
+          }
+          return;
+        }
+      } else if (tryDecReaderOverflow(s) != 0L) {
+        return;
+      }
+    }
+    throw new IllegalMonitorStateException();
+  }
+
+  /**
+   * If the lock state matches the given stamp, performs one of the following actions. If the stamp
+   * represents holding a write lock, returns it. Or, if a read lock, if the write lock is
+   * available, releases the read lock and returns a write stamp. Or, if an optimistic read, returns
+   * a write stamp only if immediately available. This method returns zero in all other cases.
+   *
+   * @param stamp a stamp
+   * @return a valid write stamp, or zero on failure
+   */
+  public long tryConvertToWriteLock(long stamp) {
+    long a = stamp & ABITS;
+    long m;
+    long s;
+    long next;
+    while (((s = state.get()) & SBITS) == (stamp & SBITS)) {
+      if ((m = s & ABITS) == 0L) {
+        if (a != 0L) {
+          break;
+        }
+        if (state.compareAndSet(s, next = s + WBIT)) {
+          return next;
+        }
+      } else if (m == WBIT) {
+        if (a != m) {
+          break;
+        }
+        return stamp;
+      } else if (m == RUNIT && a != 0L) {
+        if (state.compareAndSet(s, next = s - RUNIT + WBIT)) {
+          return next;
+        }
+      } else {
+        break;
+      }
+    }
+    return 0L;
+  }
+
+  /**
+   * If the lock state matches the given stamp, performs one of the following actions. If the stamp
+   * represents holding a write lock, releases it and obtains a read lock. Or, if a read lock,
+   * returns it. Or, if an optimistic read, acquires a read lock and returns a read stamp only if
+   * immediately available. This method returns zero in all other cases.
+   *
+   * @param stamp a stamp
+   * @return a valid read stamp, or zero on failure
+   */
+  public long tryConvertToReadLock(long stamp) {
+    long a = stamp & ABITS;
+    long m;
+    long s;
+    long next;
+    WNode h;
+    while (((s = state.get()) & SBITS) == (stamp & SBITS)) {
+      if ((m = s & ABITS) == 0L) {
+        if (a != 0L) {
+          break;
+        } else if (m < RFULL) {
+          if (state.compareAndSet(s, next = s + RUNIT)) {
+            return next;
+          }
+        } else if ((next = tryIncReaderOverflow(s)) != 0L) {
+          return next;
+        }
+      } else if (m == WBIT) {
+        if (a != m) {
+          break;
+        }
+        state.set(next = s + (WBIT + RUNIT));
+        if ((h = whead.get()) != null && h.status.get() != 0) {
+          release(h);
+        }
+        return next;
+      } else if (a != 0L && a < WBIT) {
+        return stamp;
+      } else {
+        break;
+      }
+    }
+    return 0L;
+  }
+
+  /**
+   * If the lock state matches the given stamp then, if the stamp represents holding a lock,
+   * releases it and returns an observation stamp. Or, if an optimistic read, returns it if
+   * validated. This method returns zero in all other cases, and so may be useful as a form of
+   * "tryUnlock".
+   *
+   * @param stamp a stamp
+   * @return a valid optimistic read stamp, or zero on failure
+   */
+  public long tryConvertToOptimisticRead(long stamp) {
+    long a = stamp & ABITS;
+    long m;
+    long s;
+    long next;
+    WNode h;
+    for (; ; ) {
+      if (((s = state.get()) & SBITS) != (stamp & SBITS)) {
+        break;
+      }
+      if ((m = s & ABITS) == 0L) {
+        if (a != 0L) {
+          break;
+        }
+        return s;
+      } else if (m == WBIT) {
+        if (a != m) {
+          break;
+        }
+        state.set(next = (s += WBIT) == 0L ? ORIGIN : s);
+        if ((h = whead.get()) != null && h.status.get() != 0) {
+          release(h);
+        }
+        return next;
+      } else if (a == 0L || a >= WBIT) {
+        break;
+      } else if (m < RFULL) {
+        if (state.compareAndSet(s, next = s - RUNIT)) {
+          if (m == RUNIT && (h = whead.get()) != null && h.status.get() != 0) {
+            release(h);
+          }
+          return next & SBITS;
+        }
+      } else if ((next = tryDecReaderOverflow(s)) != 0L) {
+        return next & SBITS;
+      }
+    }
+    return 0L;
+  }
+
+  /**
+   * Releases the write lock if it is held, without requiring a stamp value. This method may be
+   * useful for recovery after errors.
+   *
+   * @return {@code true} if the lock was held, else false
+   */
+  public boolean tryUnlockWrite() {
+    long s;
+    WNode h;
+    if (((s = state.get()) & WBIT) != 0L) {
+      state.set((s += WBIT) == 0L ? ORIGIN : s);
+      if ((h = whead.get()) != null && h.status.get() != 0) {
+        release(h);
+      }
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * Releases one hold of the read lock if it is held, without requiring a stamp value. This method
+   * may be useful for recovery after errors.
+   *
+   * @return {@code true} if the read lock was held, else false
+   */
+  public boolean tryUnlockRead() {
+    long s;
+    long m;
+    WNode h;
+    while ((m = (s = state.get()) & ABITS) != 0L && m < WBIT) {
+      if (m < RFULL) {
+        if (state.compareAndSet(s, s - RUNIT)) {
+          if (m == RUNIT && (h = whead.get()) != null && h.status.get() != 0) {
+            release(h);
+          }
+          return true;
+        }
+      } else if (tryDecReaderOverflow(s) != 0L) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  // status monitoring methods
+
+  /**
+   * Returns combined state-held and overflow read count for given state s.
+   */
+  private int getReadLockCount(long s) {
+    long readers;
+    if ((readers = s & RBITS) >= RFULL) {
+      readers = RFULL + readerOverflow;
+    }
+    return (int) readers;
+  }
+
+  /**
+   * Returns {@code true} if the lock is currently held exclusively.
+   *
+   * @return {@code true} if the lock is currently held exclusively
+   */
+  public boolean isWriteLocked() {
+    return (state.get() & WBIT) != 0L;
+  }
+
+  /**
+   * Returns {@code true} if the lock is currently held non-exclusively.
+   *
+   * @return {@code true} if the lock is currently held non-exclusively
+   */
+  public boolean isReadLocked() {
+    return (state.get() & RBITS) != 0L;
+  }
+
+  /**
+   * Queries the number of read locks held for this lock. This method is designed for use in
+   * monitoring system state, not for synchronization control.
+   *
+   * @return the number of read locks held
+   */
+  public int getReadLockCount() {
+    return getReadLockCount(state.get());
+  }
+
+  /**
+   * Returns a string identifying this lock, as well as its lock state. The state, in brackets,
+   * includes the String {@code "Unlocked"} or the String {@code "Write-locked"} or the String
+   * {@code "Read-locks:"} followed by the current number of read-locks held.
+   *
+   * @return a string identifying this lock, as well as its lock state
+   */
+  @Override
+  public String toString() {
+    long s = state.get();
+    return super.toString()
+        + ((s & ABITS) == 0L
+            ? "[Unlocked]"
+            : (s & ABITS) == WBIT ? "[Write-locked]" : "[Read-locks:" + getReadLockCount(s) + "]");
+  }
+
+  // views
+
+  /**
+   * Returns a plain {@link Lock} view of this StampedLock in which the {@link Lock#lock} method is
+   * mapped to {@link #readLock}, and similarly for other methods. The returned Lock does not
+   * support a {@link Condition}; method {@link Lock#newCondition()} throws {@code
+   * UnsupportedOperationException}.
+   *
+   * @return the lock
+   */
+  public Lock asReadLock() {
+    ReadLockView v;
+    return ((v = readLockView) != null ? v : (readLockView = new ReadLockView()));
+  }
+
+  /**
+   * Returns a plain {@link Lock} view of this StampedLock in which the {@link Lock#lock} method is
+   * mapped to {@link #writeLock}, and similarly for other methods. The returned Lock does not
+   * support a {@link Condition}; method {@link Lock#newCondition()} throws {@code
+   * UnsupportedOperationException}.
+   *
+   * @return the lock
+   */
+  public Lock asWriteLock() {
+    WriteLockView v;
+    return ((v = writeLockView) != null ? v : (writeLockView = new WriteLockView()));
+  }
+
+  /**
+   * Returns a {@link ReadWriteLock} view of this StampedLock in which the {@link
+   * ReadWriteLock#readLock()} method is mapped to {@link #asReadLock()}, and {@link
+   * ReadWriteLock#writeLock()} to {@link #asWriteLock()}.
+   *
+   * @return the lock
+   */
+  public ReadWriteLock asReadWriteLock() {
+    ReadWriteLockView v;
+    return ((v = readWriteLockView) != null ? v : (readWriteLockView = new ReadWriteLockView()));
+  }
+
+  // view classes
+
+  final class ReadLockView implements Lock {
+    @Override
+    public void lock() {
+      readLock();
+    }
+
+    @Override
+    public void lockInterruptibly() {
+      readLock();
+    }
+
+    public boolean tryLock() {
+      return tryReadLock() != 0L;
+    }
+
+    public boolean tryLock(long time, TimeUnit unit) throws InterruptedException {
+      return tryReadLock(time, unit) != 0L;
+    }
+
+    @Override
+    public void unlock() {
+      unstampedUnlockRead();
+    }
+
+    @Override
+    public Condition newCondition() {
+      throw new UnsupportedOperationException();
+    }
+  }
+
+  final class WriteLockView implements Lock {
+    @Override
+    public void lock() {
+      writeLock();
+    }
+
+    @Override
+    public void lockInterruptibly() {
+      writeLock();
+    }
+
+    public boolean tryLock() {
+      return tryWriteLock() != 0L;
+    }
+
+    public boolean tryLock(long time, TimeUnit unit) throws InterruptedException {
+      return tryWriteLock(time, unit) != 0L;
+    }
+
+    @Override
+    public void unlock() {
+      unstampedUnlockWrite();
+    }
+
+    @Override
+    public Condition newCondition() {
+      throw new UnsupportedOperationException();
+    }
+  }
+
+  final class ReadWriteLockView implements ReadWriteLock {
+    @Override
+    public Lock readLock() {
+      return asReadLock();
+    }
+
+    @Override
+    public Lock writeLock() {
+      return asWriteLock();
+    }
+  }
+
+  // Unlock methods without stamp argument checks for view classes.
+  // Needed because view-class lock methods throw away stamps.
+
+  final void unstampedUnlockWrite() {
+    WNode h;
+    long s;
+    if (((s = state.get()) & WBIT) == 0L) {
+      throw new IllegalMonitorStateException();
+    }
+    state.set((s += WBIT) == 0L ? ORIGIN : s);
+    if ((h = whead.get()) != null && h.status.get() != 0) {
+      release(h);
+    }
+  }
+
+  final void unstampedUnlockRead() {
+    for (; ; ) {
+      long s;
+      long m;
+      WNode h;
+      if ((m = (s = state.get()) & ABITS) == 0L || m >= WBIT) {
+        throw new IllegalMonitorStateException();
+      } else if (m < RFULL) {
+        if (state.compareAndSet(s, s - RUNIT)) {
+          if (m == RUNIT && (h = whead.get()) != null && h.status.get() != 0) {
+            release(h);
+          }
+          break;
+        }
+      } else if (tryDecReaderOverflow(s) != 0L) {
+        break;
+      }
+    }
+  }
+
+  // internals
+
+  /**
+   * Tries to increment readerOverflow by first setting state access bits value to RBITS,
+   * indicating hold of spinlock, then updating, then releasing.
+   *
+   * @param s a reader overflow stamp: (s & ABITS) >= RFULL
+   * @return new stamp on success, else zero
+   */
+  private long tryIncReaderOverflow(long s) {
+    // assert (s & ABITS) >= RFULL;
+    if ((s & ABITS) == RFULL) {
+      if (state.compareAndSet(s, s | RBITS)) {
+        ++readerOverflow;
+        state.set(s);
+        return s;
+      }
+    } else {
+      Thread.yield();
+    }
+    return 0L;
+  }
+
+  /**
+   * Tries to decrement readerOverflow.
+   *
+   * @param s a reader overflow stamp: (s & ABITS) >= RFULL
+   * @return new stamp on success, else zero
+   */
+  private long tryDecReaderOverflow(long s) {
+    // assert (s & ABITS) >= RFULL;
+    if ((s & ABITS) == RFULL) {
+      if (state.compareAndSet(s, s | RBITS)) {
+        int r;
+        long next;
+        if ((r = readerOverflow) > 0) {
+          readerOverflow = r - 1;
+          next = s;
+        } else {
+          next = s - RUNIT;
+        }
+        state.set(next);
+        return next;
+      }
+    } else {
+      Thread.yield();
+    }
+    return 0L;
+  }
+
+  /**
+   * Wakes up the successor of h (normally whead). This is normally just h.next, but may require
+   * traversal from wtail if next pointers are lagging. This may fail to wake up an acquiring thread
+   * when one or more have been cancelled, but the cancel methods themselves provide extra
+   * safeguards to ensure liveness.
+   */
+  private void release(WNode h) {
+    WNode q;
+    Thread w;
+    h.status.compareAndSet(WAITING, 0);
+    if ((q = h.next.get()) == null || q.status.get() == CANCELLED) {
+      for (WNode t = wtail.get(); t != null && t != h; t = t.prev) {
+        if (t.status.get() <= 0) {
+          q = t;
+        }
+      }
+    }
+    if (q != null && (w = q.thread) != null) {
+      LockSupport.unpark(w);
+    }
+  }
+
+  /** Parks the current thread for at most {@code nanos}, or until unparked if it is zero. */
+  private void parkWaiter(long nanos) {
+    if (nanos == 0L) {
+      LockSupport.park(this);
+    } else {
+      LockSupport.parkNanos(this, nanos);
+    }
+  }
+
+  /**
+   * See above for explanation.
+   *
+   * @param deadline if nonzero, the System.nanoTime value to timeout at (and return zero)
+   * @return next state, or zero on timeout
+   */
+  private long acquireWrite(long deadline) {
+    WNode node = null;
+    WNode p;
+    for (int spins = -1; ; ) { // spin while enqueuing
+      long m;
+      long s;
+      long ns;
+      if ((m = (s = state.get()) & ABITS) == 0L) {
+        if (state.compareAndSet(s, ns = s + WBIT)) {
+          return ns;
+        }
+      } else if (spins < 0) {
+        spins = (m == WBIT && wtail.get() == whead.get()) ? SPINS : 0;
+      } else if (spins > 0) {
+        --spins;
+      } else if ((p = wtail.get()) == null) { // initialize queue
+        WNode hd = new WNode(WMODE, null);
+        if (whead.compareAndSet(null, hd)) {
+          wtail.set(hd);
+        }
+      } else if (node == null) {
+        node = new WNode(WMODE, p);
+      } else if (node.prev != p) {
+        node.prev = p;
+      } else if (wtail.compareAndSet(p, node)) {
+        p.next.set(node);
+        break;
+      }
+    }
+
+    for (int spins = -1; ; ) {
+      WNode h;
+      WNode np;
+      WNode pp;
+      int ps;
+      if ((h = whead.get()) == p) {
+        if (spins < 0) {
+          spins = HEAD_SPINS;
+        } else if (spins < MAX_HEAD_SPINS) {
+          spins <<= 1;
+        }
+        for (int k = spins; ; ) { // spin at head
+          long s;
+          long ns;
+          if (((s = state.get()) & ABITS) == 0L) {
+            if (state.compareAndSet(s, ns = s + WBIT)) {
+              whead.set(node);
+              node.prev = null;
+              return ns;
+            }
+          } else if (--k <= 0) {
+            break;
+          }
+        }
+      } else if (h != null) { // help release stale waiters
+        WNode c;
+        Thread w;
+        while ((c = h.cowait.get()) != null) {
+          if (h.cowait.compareAndSet(c, c.cowait.get()) && (w = c.thread) != null) {
+            LockSupport.unpark(w);
+          }
+        }
+      }
+      if (whead.get() == h) {
+        if ((np = node.prev) != p) {
+          if (np != null) {
+            (p = np).next.set(node); // stale
+          }
+        } else if ((ps = p.status.get()) == 0) {
+          p.status.compareAndSet(0, WAITING);
+        } else if (ps == CANCELLED) {
+          if ((pp = p.prev) != null) {
+            node.prev = pp;
+            pp.next.set(node);
+          }
+        } else {
+          long time; // 0 argument to park means no timeout
+          if (deadline == 0L) {
+            time = 0L;
+          } else if ((time = deadline - System.nanoTime()) <= 0L) {
+            return cancelWaiter(node, node);
+          }
+          node.thread = Thread.currentThread();
+          if (p.status.get() < 0
+              && (p != h || (state.get() & ABITS) != 0L)
+              && whead.get() == h
+              && node.prev == p) {
+            parkWaiter(time);
+          }
+          node.thread = null;
+        }
+      }
+    }
+  }
+
+  /**
+   * See above for explanation.
+   *
+   * @param deadline if nonzero, the System.nanoTime value to timeout at (and return zero)
+   * @return next state, or zero on timeout
+   */
+  private long acquireRead(long deadline) {
+    WNode node = null;
+    WNode p;
+    for (int spins = -1; ; ) {
+      WNode h;
+      if ((h = whead.get()) == (p = wtail.get())) {
+        for (long m, s, ns; ; ) {
+          if ((m = (s = state.get()) & ABITS) < RFULL
+              ? state.compareAndSet(s, ns = s + RUNIT)
+              : (m < WBIT && (ns = tryIncReaderOverflow(s)) != 0L)) {
+            return ns;
+          } else if (m >= WBIT) {
+            if (spins > 0) {
+              --spins;
+            } else {
+              if (spins == 0) {
+                WNode nh = whead.get();
+                WNode np = wtail.get();
+                if ((nh == h && np == p) || (h = nh) != (p = np)) {
+                  break;
+                }
+              }
+              spins = SPINS;
+            }
+          }
+        }
+      }
+      if (p == null) { // initialize queue
+        WNode hd = new WNode(WMODE, null);
+        if (whead.compareAndSet(null, hd)) {
+          wtail.set(hd);
+        }
+      } else if (node == null) {
+        node = new WNode(RMODE, p);
+      } else if (h == p || p.mode != RMODE) {
+        if (node.prev != p) {
+          node.prev = p;
+        } else if (wtail.compareAndSet(p, node)) {
+          p.next.set(node);
+          break;
+        }
+      } else {
+        WNode pc = p.cowait.get();
+        node.cowait.set(pc);
+        if (!p.cowait.compareAndSet(pc, node)) {
+          node.cowait.set(null);
+        } else {
+          for (; ; ) {
+            WNode pp;
+            WNode c;
+            Thread w;
+            if ((h = whead.get()) != null
+                && (c = h.cowait.get()) != null
+                && h.cowait.compareAndSet(c, c.cowait.get())
+                && (w = c.thread) != null) { // help release
+              LockSupport.unpark(w);
+            }
+            if (h == (pp = p.prev) || h == p || pp == null) {
+              long m;
+              long s;
+              long ns;
+              do {
+                if ((m = (s = state.get()) & ABITS) < RFULL
+                    ? state.compareAndSet(s, ns = s + RUNIT)
+                    : (m < WBIT && (ns = tryIncReaderOverflow(s)) != 0L)) {
+                  return ns;
+                }
+              } while (m < WBIT);
+            }
+            if (whead.get() == h && p.prev == pp) {
+              long time;
+              if (pp == null || h == p || p.status.get() > 0) {
+                node = null; // throw away
+                break;
+              }
+              if (deadline == 0L) {
+                time = 0L;
+              } else if ((time = deadline - System.nanoTime()) <= 0L) {
+                return cancelWaiter(node, p);
+              }
+              node.thread = Thread.currentThread();
+              if ((h != pp || (state.get() & ABITS) == WBIT)
+                  && whead.get() == h
+                  && p.prev == pp) {
+                parkWaiter(time);
+              }
+              node.thread = null;
+            }
+          }
+        }
+      }
+    }
+
+    for (int spins = -1; ; ) {
+      WNode h;
+      WNode np;
+      WNode pp;
+      int ps;
+      if ((h = whead.get()) == p) {
+        if (spins < 0) {
+          spins = HEAD_SPINS;
+        } else if (spins < MAX_HEAD_SPINS) {
+          spins <<= 1;
+        }
+        for (int k = spins; ; ) { // spin at head
+          long m;
+          long s;
+          long ns;
+          if ((m = (s = state.get()) & ABITS) < RFULL
+              ? state.compareAndSet(s, ns = s + RUNIT)
+              : (m < WBIT && (ns = tryIncReaderOverflow(s)) != 0L)) {
+            WNode c;
+            Thread w;
+            whead.set(node);
+            node.prev = null;
+            while ((c = node.cowait.get()) != null) {
+              if (node.cowait.compareAndSet(c, c.cowait.get()) && (w = c.thread) != null) {
+                LockSupport.unpark(w);
+              }
+            }
+            return ns;
+          } else if (m >= WBIT && --k <= 0) {
+            break;
+          }
+        }
+      } else if (h != null) {
+        WNode c;
+        Thread w;
+        while ((c = h.cowait.get()) != null) {
+          if (h.cowait.compareAndSet(c, c.cowait.get()) && (w = c.thread) != null) {
+            LockSupport.unpark(w);
+          }
+        }
+      }
+      if (whead.get() == h) {
+        if ((np = node.prev) != p) {
+          if (np != null) {
+            (p = np).next.set(node); // stale
+          }
+        } else if ((ps = p.status.get()) == 0) {
+          p.status.compareAndSet(0, WAITING);
+        } else if (ps == CANCELLED) {
+          if ((pp = p.prev) != null) {
+            node.prev = pp;
+            pp.next.set(node);
+          }
+        } else {
+          long time;
+          if (deadline == 0L) {
+            time = 0L;
+          } else if ((time = deadline - System.nanoTime()) <= 0L) {
+            return cancelWaiter(node, node);
+          }
+          node.thread = Thread.currentThread();
+          if (p.status.get() < 0
+              && (p != h || (state.get() & ABITS) == WBIT)
+              && whead.get() == h
+              && node.prev == p) {
+            parkWaiter(time);
+          }
+          node.thread = null;
+        }
+      }
+    }
+  }
+
+  /**
+   * If node non-null, forces cancel status and unsplices it from queue if possible and wakes up
+   * any cowaiters (of the node, or group, as applicable), and in any case helps release current
+   * first waiter if lock is free. (Calling with null arguments serves as a conditional form of
+   * release, which is not currently needed but may be needed under possible future cancellation
+   * policies). This is a variant of cancellation methods in AbstractQueuedSynchronizer (see its
+   * detailed explanation in AQS internal documentation).
+   *
+   * @param node if nonnull, the waiter
+   * @param group either node or the group node is cowaiting with
+   * @return zero, as the wait timed out
+   */
+  private long cancelWaiter(WNode node, WNode group) {
+    Thread w;
+    node.status.set(CANCELLED);
+    // unsplice cancelled nodes from group
+    for (WNode p = group, q; (q = p.cowait.get()) != null; ) {
+      if (q.status.get() == CANCELLED) {
+        p.cowait.compareAndSet(q, q.cowait.get());
+        p = group; // restart
+      } else {
+        p = q;
+      }
+    }
+    if (group == node) {
+      for (WNode r = group.cowait.get(); r != null; r = r.cowait.get()) {
+        if ((w = r.thread) != null) {
+          LockSupport.unpark(w); // wake up uncancelled co-waiters
+        }
+      }
+      for (WNode pred = node.prev; pred != null; ) { // unsplice
+        WNode succ;
+        WNode pp; // find valid successor
+        while ((succ = node.next.get()) == null || succ.status.get() == CANCELLED) {
+          WNode q = null; // find successor the slow way
+          for (WNode t = wtail.get(); t != null && t != node; t = t.prev) {
+            if (t.status.get() != CANCELLED) {
+              q = t; // don't link if succ cancelled
+            }
+          }
+          if (succ == q || node.next.compareAndSet(succ, q)) { // ensure accurate successor
+            succ = q;
+            if (succ == null && node == wtail.get()) {
+              wtail.compareAndSet(node, pred); // try to unlink tail
+            }
+            break;
+          }
+        }
+        if (pred.next.get() == node) { // unsplice pred link
+          pred.next.compareAndSet(node, succ);
+        }
+        if (succ != null && (w = succ.thread) != null) {
+          succ.thread = null;
+          LockSupport.unpark(w); // wake up succ to observe new pred
+        }
+        if (pred.status.get() != CANCELLED || (pp = pred.prev) == null) {
+          break;
+        }
+        node.prev = pp; // repeat if new pred wrong/cancelled
+        pp.next.compareAndSet(pred, succ);
+        pred = pp;
+      }
+    }
+    WNode h; // Possibly release first waiter
+    while ((h = whead.get()) != null) {
+      long s;
+      WNode q; // similar to release() but check eligibility
+      if ((q = h.next.get()) == null || q.status.get() == CANCELLED) {
+        for (WNode t = wtail.get(); t != null && t != h; t = t.prev) {
+          if (t.status.get() <= 0) {
+            q = t;
+          }
+        }
+      }
+      if (h == whead.get()) {
+        if (q != null
+            && h.status.get() == 0
+            && ((s = state.get()) & ABITS) != WBIT // waiter is eligible
+            && (s == 0L || q.mode == RMODE)) {
+          release(h);
+        }
+        break;
+      }
+    }
+    return 0L;
+  }
+}
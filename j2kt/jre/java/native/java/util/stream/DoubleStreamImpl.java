@@ -18,14 +18,16 @@ package java.util.stream;
 import static javaemul.internal.InternalPreconditions.checkNotNull;
 import static javaemul.internal.InternalPreconditions.checkState;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.DoubleSummaryStatistics;
 import java.util.HashSet;
+import java.util.List;
 import java.util.OptionalDouble;
 import java.util.PrimitiveIterator;
 import java.util.Spliterator;
 import java.util.Spliterators;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import java.util.function.DoubleBinaryOperator;
@@ -237,12 +239,14 @@ final class DoubleStreamImpl extends TerminatableStream<DoubleStreamImpl> implem
     @Override
     public DoubleStream sequential() {
       throwIfTerminated();
+      setEvaluatesInParallel(false);
       return this;
     }
 
     @Override
     public DoubleStream parallel() {
       throwIfTerminated();
+      setEvaluatesInParallel(true);
       return this;
     }
 
@@ -260,7 +264,7 @@ final class DoubleStreamImpl extends TerminatableStream<DoubleStreamImpl> implem
     @Override
     public boolean isParallel() {
       throwIfTerminated();
-      return false;
+      return evaluatesInParallel();
     }
 
     @Override
@@ -290,6 +294,17 @@ final class DoubleStreamImpl extends TerminatableStream<DoubleStreamImpl> implem
     public boolean tryAdvance(final IntConsumer action) {
       return original.tryAdvance((double u) -> action.accept(map.applyAsInt(u)));
     }
+
+    @Override
+    public long estimateSize() {
+      return original.estimateSize();
+    }
+
+    @Override
+    public Spliterator.@Nullable OfInt trySplit() {
+      Spliterator.OfDouble prefix = original.trySplit();
+      return prefix == null ? null : new MapToIntSpliterator(map, prefix);
+    }
   }
 
   /**
@@ -315,6 +330,17 @@ final class DoubleStreamImpl extends TerminatableStream<DoubleStreamImpl> implem
     public boolean tryAdvance(final Consumer<? super T> action) {
       return original.tryAdvance((double u) -> action.accept(map.apply(u)));
     }
+
+    @Override
+    public long estimateSize() {
+      return original.estimateSize();
+    }
+
+    @Override
+    public @Nullable Spliterator<T> trySplit() {
+      Spliterator.OfDouble prefix = original.trySplit();
+      return prefix == null ? null : new MapToObjSpliterator<>(map, prefix);
+    }
   }
 
   /**
@@ -337,6 +363,17 @@ final class DoubleStreamImpl extends TerminatableStream<DoubleStreamImpl> implem
     public boolean tryAdvance(final LongConsumer action) {
       return original.tryAdvance((double u) -> action.accept(map.applyAsLong(u)));
     }
+
+    @Override
+    public long estimateSize() {
+      return original.estimateSize();
+    }
+
+    @Override
+    public Spliterator.@Nullable OfLong trySplit() {
+      Spliterator.OfDouble prefix = original.trySplit();
+      return prefix == null ? null : new MapToLongSpliterator(map, prefix);
+    }
   }
 
   /**
@@ -359,6 +396,17 @@ final class DoubleStreamImpl extends TerminatableStream<DoubleStreamImpl> implem
     public boolean tryAdvance(final DoubleConsumer action) {
       return original.tryAdvance((double u) -> action.accept(map.applyAsDouble(u)));
     }
+
+    @Override
+    public long estimateSize() {
+      return original.estimateSize();
+    }
+
+    @Override
+    public Spliterator.@Nullable OfDouble trySplit() {
+      Spliterator.OfDouble prefix = original.trySplit();
+      return prefix == null ? null : new MapToDoubleSpliterator(map, prefix);
+    }
   }
 
   /**
@@ -367,16 +415,41 @@ final class DoubleStreamImpl extends TerminatableStream<DoubleStreamImpl> implem
   private static final class FilterSpliterator extends Spliterators.AbstractDoubleSpliterator {
     private final DoublePredicate filter;
     private final Spliterator.OfDouble original;
+    private final boolean stateless;
 
     private boolean found;
 
     public FilterSpliterator(DoublePredicate filter, Spliterator.OfDouble original) {
+      this(filter, original, true);
+    }
+
+    /**
+     * @param stateless whether {@code filter} may test different parts of the source concurrently
+     */
+    public FilterSpliterator(
+        DoublePredicate filter, Spliterator.OfDouble original, boolean stateless) {
       super(
           original.estimateSize(),
           original.characteristics() & ~(Spliterator.SIZED | Spliterator.SUBSIZED));
       checkNotNull(filter);
       this.filter = filter;
       this.original = original;
+      this.stateless = stateless;
+    }
+
+    @Override
+    public long estimateSize() {
+      return stateless ? original.estimateSize() : super.estimateSize();
+    }
+
+    @Override
+    public Spliterator.@Nullable OfDouble trySplit() {
+      if (!stateless) {
+        // buffers a prefix, testing elements in encounter order
+        return super.trySplit();
+      }
+      Spliterator.OfDouble prefix = original.trySplit();
+      return prefix == null ? null : new FilterSpliterator(filter, prefix);
     }
 
     @Override
@@ -402,6 +475,41 @@ final class DoubleStreamImpl extends TerminatableStream<DoubleStreamImpl> implem
     }
   }
 
+  /**
+   * Double peek spliterator.
+   */
+  private static final class PeekSpliterator extends Spliterators.AbstractDoubleSpliterator {
+    private final DoubleConsumer action;
+    private final Spliterator.OfDouble original;
+
+    public PeekSpliterator(DoubleConsumer action, Spliterator.OfDouble original) {
+      super(original.estimateSize(), original.characteristics());
+      this.action = checkNotNull(action);
+      this.original = original;
+    }
+
+    @Override
+    public long estimateSize() {
+      return original.estimateSize();
+    }
+
+    @Override
+    public @Nullable Comparator<? super Double> getComparator() {
+      return original.getComparator();
+    }
+
+    @Override
+    public boolean tryAdvance(final DoubleConsumer innerAction) {
+      return original.tryAdvance(action.andThen(innerAction));
+    }
+
+    @Override
+    public Spliterator.@Nullable OfDouble trySplit() {
+      Spliterator.OfDouble prefix = original.trySplit();
+      return prefix == null ? null : new PeekSpliterator(action, prefix);
+    }
+  }
+
   /**
    * Double skip spliterator.
    */
@@ -471,6 +579,24 @@ final class DoubleStreamImpl extends TerminatableStream<DoubleStreamImpl> implem
     }
   }
 
+  /** Growable array for collecting the elements of a stream. */
+  private static final class ArrayBuilder implements DoubleConsumer {
+    private double[] array = new double[16];
+    private int size;
+
+    @Override
+    public void accept(double value) {
+      if (size == array.length) {
+        array = Arrays.copyOf(array, size * 2);
+      }
+      array[size++] = value;
+    }
+
+    double[] build() {
+      return size == array.length ? array : Arrays.copyOf(array, size);
+    }
+  }
+
   /**
    * Value holder for various stream operations.
    */
@@ -494,7 +620,12 @@ final class DoubleStreamImpl extends TerminatableStream<DoubleStreamImpl> implem
 
   @Override
   public void forEach(DoubleConsumer action) {
-    forEachOrdered(action);
+    if (!evaluatesInParallel()) {
+      forEachOrdered(action);
+      return;
+    }
+    terminate();
+    ParallelEvaluation.run(spliterator, s -> s.forEachRemaining(action));
   }
 
   @Override
@@ -506,18 +637,44 @@ final class DoubleStreamImpl extends TerminatableStream<DoubleStreamImpl> implem
   @Override
   public double[] toArray() {
     terminate();
-    ArrayList<Double> entries = new ArrayList<>();
-    spliterator.forEachRemaining((double value) -> entries.add(value));
-    double[] array = new double[entries.size()];
-    for (int i = 0; i < entries.size(); i++) {
-      array[i] = entries.get(i);
+    return collectToArray();
+  }
+
+  private double[] collectToArray() {
+    if (!evaluatesInParallel()) {
+      return toArrayRemaining(spliterator);
+    }
+    List<double[]> parts = ParallelEvaluation.map(spliterator, DoubleStreamImpl::toArrayRemaining);
+    int length = 0;
+    for (double[] part : parts) {
+      length += part.length;
+    }
+    double[] array = new double[length];
+    int offset = 0;
+    for (double[] part : parts) {
+      System.arraycopy(part, 0, array, offset, part.length);
+      offset += part.length;
     }
     return array;
   }
 
+  private static double[] toArrayRemaining(Spliterator.OfDouble spliterator) {
+    ArrayBuilder builder = new ArrayBuilder();
+    spliterator.forEachRemaining(builder);
+    return builder.build();
+  }
+
   @Override
   public double reduce(double identity, DoubleBinaryOperator op) {
     terminate();
+    return evaluatesInParallel()
+        ? ParallelEvaluation.evaluate(
+            spliterator, s -> reduceRemaining(s, identity, op), op::applyAsDouble)
+        : reduceRemaining(spliterator, identity, op);
+  }
+
+  private static double reduceRemaining(
+      Spliterator.OfDouble spliterator, double identity, DoubleBinaryOperator op) {
     ValueConsumer holder = new ValueConsumer();
     holder.value = identity;
     spliterator.forEachRemaining(
@@ -529,18 +686,49 @@ final class DoubleStreamImpl extends TerminatableStream<DoubleStreamImpl> implem
 
   @Override
   public OptionalDouble reduce(DoubleBinaryOperator op) {
+    terminate();
+    if (!evaluatesInParallel()) {
+      return reduceRemaining(spliterator, op);
+    }
+    return ParallelEvaluation.evaluate(
+        spliterator,
+        s -> reduceRemaining(s, op),
+        (a, b) ->
+            !a.isPresent()
+                ? b
+                : !b.isPresent()
+                    ? a
+                    : OptionalDouble.of(op.applyAsDouble(a.getAsDouble(), b.getAsDouble())));
+  }
+
+  private static OptionalDouble reduceRemaining(
+      Spliterator.OfDouble spliterator, DoubleBinaryOperator op) {
     ValueConsumer holder = new ValueConsumer();
     if (spliterator.tryAdvance(holder)) {
-      return OptionalDouble.of(reduce(holder.value, op));
+      return OptionalDouble.of(reduceRemaining(spliterator, holder.value, op));
     }
-    terminate();
     return OptionalDouble.empty();
   }
 
   @Override
   public <R extends @Nullable Object> R collect(
-      Supplier<R> supplier, ObjDoubleConsumer<R> accumulator, BiConsumer<R, R> combiner) {
+      Supplier<R> supplier, final ObjDoubleConsumer<R> accumulator, BiConsumer<R, R> combiner) {
     terminate();
+    if (!evaluatesInParallel()) {
+      return accumulate(spliterator, supplier, accumulator);
+    }
+    // each leaf accumulates into a container of its own
+    return ParallelEvaluation.evaluate(
+        spliterator,
+        s -> accumulate(s, supplier, accumulator),
+        (a, b) -> {
+          combiner.accept(a, b);
+          return a;
+        });
+  }
+
+  private static <R extends @Nullable Object> R accumulate(
+      Spliterator.OfDouble spliterator, Supplier<R> supplier, ObjDoubleConsumer<R> accumulator) {
     final R acc = supplier.get();
     spliterator.forEachRemaining((double value) -> accumulator.accept(acc, value));
     return acc;
@@ -572,6 +760,12 @@ final class DoubleStreamImpl extends TerminatableStream<DoubleStreamImpl> implem
   @Override
   public long count() {
     terminate();
+    return evaluatesInParallel()
+        ? ParallelEvaluation.evaluate(spliterator, DoubleStreamImpl::countRemaining, Long::sum)
+        : countRemaining(spliterator);
+  }
+
+  private static long countRemaining(Spliterator.OfDouble spliterator) {
     long count = 0;
     while (spliterator.tryAdvance((double value) -> { })) {
       count++;
@@ -599,7 +793,25 @@ final class DoubleStreamImpl extends TerminatableStream<DoubleStreamImpl> implem
 
   @Override
   public boolean anyMatch(DoublePredicate predicate) {
-    return filter(predicate).findFirst().isPresent();
+    if (!evaluatesInParallel()) {
+      return filter(predicate).findFirst().isPresent();
+    }
+    terminate();
+    AtomicBoolean found = new AtomicBoolean();
+    ParallelEvaluation.run(
+        spliterator,
+        s -> {
+          while (!found.get()
+              && s.tryAdvance(
+                  (double item) -> {
+                    if (predicate.test(item)) {
+                      found.set(true);
+                    }
+                  })) {
+            // do nothing, work is done in tryAdvance
+          }
+        });
+    return found.get();
   }
 
   @Override
@@ -723,7 +935,7 @@ final class DoubleStreamImpl extends TerminatableStream<DoubleStreamImpl> implem
   public DoubleStream distinct() {
     throwIfTerminated();
     HashSet<Double> seen = new HashSet<>();
-    return filter(seen::add);
+    return new DoubleStreamImpl(this, new FilterSpliterator(seen::add, spliterator, false));
   }
 
   @Override
@@ -733,22 +945,35 @@ final class DoubleStreamImpl extends TerminatableStream<DoubleStreamImpl> implem
     Spliterator.OfDouble sortingSpliterator =
         new Spliterators.AbstractDoubleSpliterator(
             spliterator.estimateSize(), spliterator.characteristics() | Spliterator.SORTED) {
-          @Nullable Spliterator<Double> ordered = null;
+          Spliterator.@Nullable OfDouble ordered = null;
 
           @Override
           public @Nullable Comparator<? super Double> getComparator() {
             return null;
           }
 
+          @Override
+          public long estimateSize() {
+            return ordered == null ? super.estimateSize() : ordered.estimateSize();
+          }
+
           @Override
           public boolean tryAdvance(DoubleConsumer action) {
+            return sort().tryAdvance(action);
+          }
+
+          @Override
+          public Spliterator.@Nullable OfDouble trySplit() {
+            return sort().trySplit();
+          }
+
+          private Spliterator.OfDouble sort() {
             if (ordered == null) {
-              ArrayList<Double> list = new ArrayList<>();
-              spliterator.forEachRemaining((double value) -> list.add(value));
-              list.sort(null);
-              ordered = list.spliterator();
+              double[] array = collectToArray();
+              Arrays.sort(array);
+              ordered = Spliterators.spliterator(array, Spliterator.ORDERED);
             }
-            return ordered.tryAdvance((Double d) -> action.accept(d));
+            return ordered;
           }
         };
 
@@ -759,17 +984,7 @@ final class DoubleStreamImpl extends TerminatableStream<DoubleStreamImpl> implem
   public DoubleStream peek(DoubleConsumer action) {
     checkNotNull(action);
     throwIfTerminated();
-
-    Spliterator.OfDouble peekSpliterator =
-        new Spliterators.AbstractDoubleSpliterator(
-            spliterator.estimateSize(), spliterator.characteristics()) {
-          @Override
-          public boolean tryAdvance(final DoubleConsumer innerAction) {
-            return spliterator.tryAdvance(action.andThen(innerAction));
-          }
-        };
-
-    return new DoubleStreamImpl(this, peekSpliterator);
+    return new DoubleStreamImpl(this, new PeekSpliterator(action, spliterator));
   }
 
   @Override
@@ -797,19 +1012,21 @@ final class DoubleStreamImpl extends TerminatableStream<DoubleStreamImpl> implem
   @Override
   public DoubleStream sequential() {
     throwIfTerminated();
+    setEvaluatesInParallel(false);
     return this;
   }
 
   @Override
   public DoubleStream parallel() {
     throwIfTerminated();
+    setEvaluatesInParallel(true);
     return this;
   }
 
   @Override
   public boolean isParallel() {
     throwIfTerminated();
-    return false;
+    return evaluatesInParallel();
   }
 
   @Override
@@ -18,16 +18,18 @@ package java.util.stream;
 import static javaemul.internal.InternalPreconditions.checkNotNull;
 import static javaemul.internal.InternalPreconditions.checkState;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.HashSet;
 import java.util.IntSummaryStatistics;
+import java.util.List;
 import java.util.OptionalDouble;
 import java.util.OptionalInt;
 import java.util.PrimitiveIterator;
 import java.util.Spliterator;
 import java.util.Spliterators;
 import java.util.Spliterators.AbstractIntSpliterator;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import java.util.function.DoubleConsumer;
@@ -250,12 +252,14 @@ final class IntStreamImpl extends TerminatableStream<IntStreamImpl> implements I
     @Override
     public IntStream sequential() {
       throwIfTerminated();
+      setEvaluatesInParallel(false);
       return this;
     }
 
     @Override
     public IntStream parallel() {
       throwIfTerminated();
+      setEvaluatesInParallel(true);
       return this;
     }
 
@@ -273,7 +277,7 @@ final class IntStreamImpl extends TerminatableStream<IntStreamImpl> implements I
     @Override
     public boolean isParallel() {
       throwIfTerminated();
-      return false;
+      return evaluatesInParallel();
     }
 
     @Override
@@ -303,6 +307,17 @@ final class IntStreamImpl extends TerminatableStream<IntStreamImpl> implements I
     public boolean tryAdvance(final IntConsumer action) {
       return original.tryAdvance((int u) -> action.accept(map.applyAsInt(u)));
     }
+
+    @Override
+    public long estimateSize() {
+      return original.estimateSize();
+    }
+
+    @Override
+    public Spliterator.@Nullable OfInt trySplit() {
+      Spliterator.OfInt prefix = original.trySplit();
+      return prefix == null ? null : new MapToIntSpliterator(map, prefix);
+    }
   }
 
   /**
@@ -328,6 +343,17 @@ final class IntStreamImpl extends TerminatableStream<IntStreamImpl> implements I
     public boolean tryAdvance(final Consumer<? super T> action) {
       return original.tryAdvance((int u) -> action.accept(map.apply(u)));
     }
+
+    @Override
+    public long estimateSize() {
+      return original.estimateSize();
+    }
+
+    @Override
+    public @Nullable Spliterator<T> trySplit() {
+      Spliterator.OfInt prefix = original.trySplit();
+      return prefix == null ? null : new MapToObjSpliterator<>(map, prefix);
+    }
   }
 
   /**
@@ -350,6 +376,17 @@ final class IntStreamImpl extends TerminatableStream<IntStreamImpl> implements I
     public boolean tryAdvance(final LongConsumer action) {
       return original.tryAdvance((int u) -> action.accept(map.applyAsLong(u)));
     }
+
+    @Override
+    public long estimateSize() {
+      return original.estimateSize();
+    }
+
+    @Override
+    public Spliterator.@Nullable OfLong trySplit() {
+      Spliterator.OfInt prefix = original.trySplit();
+      return prefix == null ? null : new MapToLongSpliterator(map, prefix);
+    }
   }
 
   /**
@@ -372,6 +409,17 @@ final class IntStreamImpl extends TerminatableStream<IntStreamImpl> implements I
     public boolean tryAdvance(final DoubleConsumer action) {
       return original.tryAdvance((int u) -> action.accept(map.applyAsDouble(u)));
     }
+
+    @Override
+    public long estimateSize() {
+      return original.estimateSize();
+    }
+
+    @Override
+    public Spliterator.@Nullable OfDouble trySplit() {
+      Spliterator.OfInt prefix = original.trySplit();
+      return prefix == null ? null : new MapToDoubleSpliterator(map, prefix);
+    }
   }
 
   /**
@@ -380,16 +428,40 @@ final class IntStreamImpl extends TerminatableStream<IntStreamImpl> implements I
   private static final class FilterSpliterator extends Spliterators.AbstractIntSpliterator {
     private final IntPredicate filter;
     private final Spliterator.OfInt original;
+    private final boolean stateless;
 
     private boolean found;
 
     public FilterSpliterator(IntPredicate filter, Spliterator.OfInt original) {
+      this(filter, original, true);
+    }
+
+    /**
+     * @param stateless whether {@code filter} may test different parts of the source concurrently
+     */
+    public FilterSpliterator(IntPredicate filter, Spliterator.OfInt original, boolean stateless) {
       super(
           original.estimateSize(),
           original.characteristics() & ~(Spliterator.SIZED | Spliterator.SUBSIZED));
       checkNotNull(filter);
       this.filter = filter;
       this.original = original;
+      this.stateless = stateless;
+    }
+
+    @Override
+    public long estimateSize() {
+      return stateless ? original.estimateSize() : super.estimateSize();
+    }
+
+    @Override
+    public Spliterator.@Nullable OfInt trySplit() {
+      if (!stateless) {
+        // buffers a prefix, testing elements in encounter order
+        return super.trySplit();
+      }
+      Spliterator.OfInt prefix = original.trySplit();
+      return prefix == null ? null : new FilterSpliterator(filter, prefix);
     }
 
     @Override
@@ -415,6 +487,41 @@ final class IntStreamImpl extends TerminatableStream<IntStreamImpl> implements I
     }
   }
 
+  /**
+   * Int peek spliterator.
+   */
+  private static final class PeekSpliterator extends Spliterators.AbstractIntSpliterator {
+    private final IntConsumer action;
+    private final Spliterator.OfInt original;
+
+    public PeekSpliterator(IntConsumer action, Spliterator.OfInt original) {
+      super(original.estimateSize(), original.characteristics());
+      this.action = checkNotNull(action);
+      this.original = original;
+    }
+
+    @Override
+    public long estimateSize() {
+      return original.estimateSize();
+    }
+
+    @Override
+    public @Nullable Comparator<? super Integer> getComparator() {
+      return original.getComparator();
+    }
+
+    @Override
+    public boolean tryAdvance(final IntConsumer innerAction) {
+      return original.tryAdvance(action.andThen(innerAction));
+    }
+
+    @Override
+    public Spliterator.@Nullable OfInt trySplit() {
+      Spliterator.OfInt prefix = original.trySplit();
+      return prefix == null ? null : new PeekSpliterator(action, prefix);
+    }
+  }
+
   /**
    * Int skip spliterator.
    */
@@ -483,6 +590,24 @@ final class IntStreamImpl extends TerminatableStream<IntStreamImpl> implements I
     }
   }
 
+  /** Growable array for collecting the elements of a stream. */
+  private static final class ArrayBuilder implements IntConsumer {
+    private int[] array = new int[16];
+    private int size;
+
+    @Override
+    public void accept(int value) {
+      if (size == array.length) {
+        array = Arrays.copyOf(array, size * 2);
+      }
+      array[size++] = value;
+    }
+
+    int[] build() {
+      return size == array.length ? array : Arrays.copyOf(array, size);
+    }
+  }
+
   /**
    * Value holder for various stream operations.
    */
@@ -541,7 +666,25 @@ final class IntStreamImpl extends TerminatableStream<IntStreamImpl> implements I
 
   @Override
   public boolean anyMatch(IntPredicate predicate) {
-    return filter(predicate).findFirst().isPresent();
+    if (!evaluatesInParallel()) {
+      return filter(predicate).findFirst().isPresent();
+    }
+    terminate();
+    AtomicBoolean found = new AtomicBoolean();
+    ParallelEvaluation.run(
+        spliterator,
+        s -> {
+          while (!found.get()
+              && s.tryAdvance(
+                  (int item) -> {
+                    if (predicate.test(item)) {
+                      found.set(true);
+                    }
+                  })) {
+            // do nothing, work is done in tryAdvance
+          }
+        });
+    return found.get();
   }
 
   @Override
@@ -565,6 +708,12 @@ final class IntStreamImpl extends TerminatableStream<IntStreamImpl> implements I
   @Override
   public long count() {
     terminate();
+    return evaluatesInParallel()
+        ? ParallelEvaluation.evaluate(spliterator, IntStreamImpl::countRemaining, Long::sum)
+        : countRemaining(spliterator);
+  }
+
+  private static long countRemaining(Spliterator.OfInt spliterator) {
     long count = 0;
     while (spliterator.tryAdvance((int value) -> { })) {
       count++;
@@ -599,6 +748,21 @@ final class IntStreamImpl extends TerminatableStream<IntStreamImpl> implements I
   public <R extends @Nullable Object> R collect(
       Supplier<R> supplier, final ObjIntConsumer<R> accumulator, BiConsumer<R, R> combiner) {
     terminate();
+    if (!evaluatesInParallel()) {
+      return accumulate(spliterator, supplier, accumulator);
+    }
+    // each leaf accumulates into a container of its own
+    return ParallelEvaluation.evaluate(
+        spliterator,
+        s -> accumulate(s, supplier, accumulator),
+        (a, b) -> {
+          combiner.accept(a, b);
+          return a;
+        });
+  }
+
+  private static <R extends @Nullable Object> R accumulate(
+      Spliterator.OfInt spliterator, Supplier<R> supplier, ObjIntConsumer<R> accumulator) {
     final R acc = supplier.get();
     spliterator.forEachRemaining((int value) -> accumulator.accept(acc, value));
     return acc;
@@ -606,17 +770,40 @@ final class IntStreamImpl extends TerminatableStream<IntStreamImpl> implements I
 
   @Override
   public OptionalInt reduce(IntBinaryOperator op) {
+    terminate();
+    if (!evaluatesInParallel()) {
+      return reduceRemaining(spliterator, op);
+    }
+    return ParallelEvaluation.evaluate(
+        spliterator,
+        s -> reduceRemaining(s, op),
+        (a, b) ->
+            !a.isPresent()
+                ? b
+                : !b.isPresent()
+                    ? a
+                    : OptionalInt.of(op.applyAsInt(a.getAsInt(), b.getAsInt())));
+  }
+
+  private static OptionalInt reduceRemaining(Spliterator.OfInt spliterator, IntBinaryOperator op) {
     ValueConsumer holder = new ValueConsumer();
     if (spliterator.tryAdvance(holder)) {
-      return OptionalInt.of(reduce(holder.value, op));
+      return OptionalInt.of(reduceRemaining(spliterator, holder.value, op));
     }
-    terminate();
     return OptionalInt.empty();
   }
 
   @Override
   public int reduce(int identity, IntBinaryOperator op) {
     terminate();
+    return evaluatesInParallel()
+        ? ParallelEvaluation.evaluate(
+            spliterator, s -> reduceRemaining(s, identity, op), op::applyAsInt)
+        : reduceRemaining(spliterator, identity, op);
+  }
+
+  private static int reduceRemaining(
+      Spliterator.OfInt spliterator, int identity, IntBinaryOperator op) {
     ValueConsumer holder = new ValueConsumer();
     holder.value = identity;
     spliterator.forEachRemaining(
@@ -629,15 +816,33 @@ final class IntStreamImpl extends TerminatableStream<IntStreamImpl> implements I
   @Override
   public int[] toArray() {
     terminate();
-    ArrayList<Integer> entries = new ArrayList<>();
-    spliterator.forEachRemaining((int value) -> entries.add(value));
-    int[] array = new int[entries.size()];
-    for (int i = 0; i < entries.size(); i++) {
-      array[i] = entries.get(i);
+    return collectToArray();
+  }
+
+  private int[] collectToArray() {
+    if (!evaluatesInParallel()) {
+      return toArrayRemaining(spliterator);
+    }
+    List<int[]> parts = ParallelEvaluation.map(spliterator, IntStreamImpl::toArrayRemaining);
+    int length = 0;
+    for (int[] part : parts) {
+      length += part.length;
+    }
+    int[] array = new int[length];
+    int offset = 0;
+    for (int[] part : parts) {
+      System.arraycopy(part, 0, array, offset, part.length);
+      offset += part.length;
     }
     return array;
   }
 
+  private static int[] toArrayRemaining(Spliterator.OfInt spliterator) {
+    ArrayBuilder builder = new ArrayBuilder();
+    spliterator.forEachRemaining(builder);
+    return builder.build();
+  }
+
   @Override
   public void forEachOrdered(IntConsumer action) {
     terminate();
@@ -646,7 +851,12 @@ final class IntStreamImpl extends TerminatableStream<IntStreamImpl> implements I
 
   @Override
   public void forEach(IntConsumer action) {
-    forEachOrdered(action);
+    if (!evaluatesInParallel()) {
+      forEachOrdered(action);
+      return;
+    }
+    terminate();
+    ParallelEvaluation.run(spliterator, s -> s.forEachRemaining(action));
   }
   // end terminals
 
@@ -733,7 +943,7 @@ final class IntStreamImpl extends TerminatableStream<IntStreamImpl> implements I
   public IntStream distinct() {
     throwIfTerminated();
     HashSet<Integer> seen = new HashSet<>();
-    return filter(seen::add);
+    return new IntStreamImpl(this, new FilterSpliterator(seen::add, spliterator, false));
   }
 
   @Override
@@ -743,22 +953,35 @@ final class IntStreamImpl extends TerminatableStream<IntStreamImpl> implements I
     AbstractIntSpliterator sortedSpliterator =
         new Spliterators.AbstractIntSpliterator(
             spliterator.estimateSize(), spliterator.characteristics() | Spliterator.SORTED) {
-          @Nullable Spliterator<Integer> ordered = null;
+          Spliterator.@Nullable OfInt ordered = null;
 
           @Override
           public @Nullable Comparator<? super Integer> getComparator() {
             return null;
           }
 
+          @Override
+          public long estimateSize() {
+            return ordered == null ? super.estimateSize() : ordered.estimateSize();
+          }
+
           @Override
           public boolean tryAdvance(IntConsumer action) {
+            return sort().tryAdvance(action);
+          }
+
+          @Override
+          public Spliterator.@Nullable OfInt trySplit() {
+            return sort().trySplit();
+          }
+
+          private Spliterator.OfInt sort() {
             if (ordered == null) {
-              ArrayList<Integer> list = new ArrayList<>();
-              spliterator.forEachRemaining((int value) -> list.add(value));
-              list.sort(null);
-              ordered = list.spliterator();
+              int[] array = collectToArray();
+              Arrays.sort(array);
+              ordered = Spliterators.spliterator(array, Spliterator.ORDERED);
             }
-            return ordered.tryAdvance((Integer i) -> action.accept(i));
+            return ordered;
           }
         };
 
@@ -769,17 +992,7 @@ final class IntStreamImpl extends TerminatableStream<IntStreamImpl> implements I
   public IntStream peek(IntConsumer action) {
     checkNotNull(action);
     throwIfTerminated();
-
-    AbstractIntSpliterator peekSpliterator =
-        new Spliterators.AbstractIntSpliterator(
-            spliterator.estimateSize(), spliterator.characteristics()) {
-          @Override
-          public boolean tryAdvance(final IntConsumer innerAction) {
-            return spliterator.tryAdvance(action.andThen(innerAction));
-          }
-        };
-
-    return new IntStreamImpl(this, peekSpliterator);
+    return new IntStreamImpl(this, new PeekSpliterator(action, spliterator));
   }
 
   @Override
@@ -817,19 +1030,21 @@ final class IntStreamImpl extends TerminatableStream<IntStreamImpl> implements I
   @Override
   public IntStream sequential() {
     throwIfTerminated();
+    setEvaluatesInParallel(false);
     return this;
   }
 
   @Override
   public IntStream parallel() {
     throwIfTerminated();
+    setEvaluatesInParallel(true);
     return this;
   }
 
   @Override
   public boolean isParallel() {
     throwIfTerminated();
-    return false;
+    return evaluatesInParallel();
   }
 
   @Override
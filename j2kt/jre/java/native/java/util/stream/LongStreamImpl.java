@@ -18,9 +18,10 @@ package java.util.stream;
 import static javaemul.internal.InternalPreconditions.checkNotNull;
 import static javaemul.internal.InternalPreconditions.checkState;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.HashSet;
+import java.util.List;
 import java.util.LongSummaryStatistics;
 import java.util.OptionalDouble;
 import java.util.OptionalLong;
@@ -28,6 +29,7 @@ import java.util.PrimitiveIterator;
 import java.util.Spliterator;
 import java.util.Spliterators;
 import java.util.Spliterators.AbstractLongSpliterator;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import java.util.function.DoubleConsumer;
@@ -242,12 +244,14 @@ final class LongStreamImpl extends TerminatableStream<LongStreamImpl> implements
     @Override
     public LongStream sequential() {
       throwIfTerminated();
+      setEvaluatesInParallel(false);
       return this;
     }
 
     @Override
     public LongStream parallel() {
       throwIfTerminated();
+      setEvaluatesInParallel(true);
       return this;
     }
 
@@ -265,7 +269,7 @@ final class LongStreamImpl extends TerminatableStream<LongStreamImpl> implements
     @Override
     public boolean isParallel() {
       throwIfTerminated();
-      return false;
+      return evaluatesInParallel();
     }
 
     @Override
@@ -295,6 +299,17 @@ final class LongStreamImpl extends TerminatableStream<LongStreamImpl> implements
     public boolean tryAdvance(final IntConsumer action) {
       return original.tryAdvance((long u) -> action.accept(map.applyAsInt(u)));
     }
+
+    @Override
+    public long estimateSize() {
+      return original.estimateSize();
+    }
+
+    @Override
+    public Spliterator.@Nullable OfInt trySplit() {
+      Spliterator.OfLong prefix = original.trySplit();
+      return prefix == null ? null : new MapToIntSpliterator(map, prefix);
+    }
   }
 
   /**
@@ -320,6 +335,17 @@ final class LongStreamImpl extends TerminatableStream<LongStreamImpl> implements
     public boolean tryAdvance(final Consumer<? super T> action) {
       return original.tryAdvance((long u) -> action.accept(map.apply(u)));
     }
+
+    @Override
+    public long estimateSize() {
+      return original.estimateSize();
+    }
+
+    @Override
+    public @Nullable Spliterator<T> trySplit() {
+      Spliterator.OfLong prefix = original.trySplit();
+      return prefix == null ? null : new MapToObjSpliterator<>(map, prefix);
+    }
   }
 
   /**
@@ -342,6 +368,17 @@ final class LongStreamImpl extends TerminatableStream<LongStreamImpl> implements
     public boolean tryAdvance(final LongConsumer action) {
       return original.tryAdvance((long u) -> action.accept(map.applyAsLong(u)));
     }
+
+    @Override
+    public long estimateSize() {
+      return original.estimateSize();
+    }
+
+    @Override
+    public Spliterator.@Nullable OfLong trySplit() {
+      Spliterator.OfLong prefix = original.trySplit();
+      return prefix == null ? null : new MapToLongSpliterator(map, prefix);
+    }
   }
 
   /**
@@ -364,6 +401,17 @@ final class LongStreamImpl extends TerminatableStream<LongStreamImpl> implements
     public boolean tryAdvance(final DoubleConsumer action) {
       return original.tryAdvance((long u) -> action.accept(map.applyAsDouble(u)));
     }
+
+    @Override
+    public long estimateSize() {
+      return original.estimateSize();
+    }
+
+    @Override
+    public Spliterator.@Nullable OfDouble trySplit() {
+      Spliterator.OfLong prefix = original.trySplit();
+      return prefix == null ? null : new MapToDoubleSpliterator(map, prefix);
+    }
   }
 
   /**
@@ -372,16 +420,40 @@ final class LongStreamImpl extends TerminatableStream<LongStreamImpl> implements
   private static final class FilterSpliterator extends Spliterators.AbstractLongSpliterator {
     private final LongPredicate filter;
     private final Spliterator.OfLong original;
+    private final boolean stateless;
 
     private boolean found;
 
     public FilterSpliterator(LongPredicate filter, Spliterator.OfLong original) {
+      this(filter, original, true);
+    }
+
+    /**
+     * @param stateless whether {@code filter} may test different parts of the source concurrently
+     */
+    public FilterSpliterator(LongPredicate filter, Spliterator.OfLong original, boolean stateless) {
       super(
           original.estimateSize(),
           original.characteristics() & ~(Spliterator.SIZED | Spliterator.SUBSIZED));
       checkNotNull(filter);
       this.filter = filter;
       this.original = original;
+      this.stateless = stateless;
+    }
+
+    @Override
+    public long estimateSize() {
+      return stateless ? original.estimateSize() : super.estimateSize();
+    }
+
+    @Override
+    public Spliterator.@Nullable OfLong trySplit() {
+      if (!stateless) {
+        // buffers a prefix, testing elements in encounter order
+        return super.trySplit();
+      }
+      Spliterator.OfLong prefix = original.trySplit();
+      return prefix == null ? null : new FilterSpliterator(filter, prefix);
     }
 
     @Override
@@ -407,6 +479,41 @@ final class LongStreamImpl extends TerminatableStream<LongStreamImpl> implements
     }
   }
 
+  /**
+   * Long peek spliterator.
+   */
+  private static final class PeekSpliterator extends Spliterators.AbstractLongSpliterator {
+    private final LongConsumer action;
+    private final Spliterator.OfLong original;
+
+    public PeekSpliterator(LongConsumer action, Spliterator.OfLong original) {
+      super(original.estimateSize(), original.characteristics());
+      this.action = checkNotNull(action);
+      this.original = original;
+    }
+
+    @Override
+    public long estimateSize() {
+      return original.estimateSize();
+    }
+
+    @Override
+    public @Nullable Comparator<? super Long> getComparator() {
+      return original.getComparator();
+    }
+
+    @Override
+    public boolean tryAdvance(final LongConsumer innerAction) {
+      return original.tryAdvance(action.andThen(innerAction));
+    }
+
+    @Override
+    public Spliterator.@Nullable OfLong trySplit() {
+      Spliterator.OfLong prefix = original.trySplit();
+      return prefix == null ? null : new PeekSpliterator(action, prefix);
+    }
+  }
+
   /**
    * Long skip spliterator.
    */
@@ -475,6 +582,24 @@ final class LongStreamImpl extends TerminatableStream<LongStreamImpl> implements
     }
   }
 
+  /** Growable array for collecting the elements of a stream. */
+  private static final class ArrayBuilder implements LongConsumer {
+    private long[] array = new long[16];
+    private int size;
+
+    @Override
+    public void accept(long value) {
+      if (size == array.length) {
+        array = Arrays.copyOf(array, size * 2);
+      }
+      array[size++] = value;
+    }
+
+    long[] build() {
+      return size == array.length ? array : Arrays.copyOf(array, size);
+    }
+  }
+
   /**
    * Value holder for various stream operations.
    */
@@ -498,7 +623,12 @@ final class LongStreamImpl extends TerminatableStream<LongStreamImpl> implements
 
   @Override
   public void forEach(LongConsumer action) {
-    forEachOrdered(action);
+    if (!evaluatesInParallel()) {
+      forEachOrdered(action);
+      return;
+    }
+    terminate();
+    ParallelEvaluation.run(spliterator, s -> s.forEachRemaining(action));
   }
 
   @Override
@@ -510,18 +640,44 @@ final class LongStreamImpl extends TerminatableStream<LongStreamImpl> implements
   @Override
   public long[] toArray() {
     terminate();
-    ArrayList<Long> entries = new ArrayList<>();
-    spliterator.forEachRemaining((long value) -> entries.add(value));
-    long[] array = new long[entries.size()];
-    for (int i = 0; i < entries.size(); i++) {
-      array[i] = entries.get(i);
+    return collectToArray();
+  }
+
+  private long[] collectToArray() {
+    if (!evaluatesInParallel()) {
+      return toArrayRemaining(spliterator);
+    }
+    List<long[]> parts = ParallelEvaluation.map(spliterator, LongStreamImpl::toArrayRemaining);
+    int length = 0;
+    for (long[] part : parts) {
+      length += part.length;
+    }
+    long[] array = new long[length];
+    int offset = 0;
+    for (long[] part : parts) {
+      System.arraycopy(part, 0, array, offset, part.length);
+      offset += part.length;
     }
     return array;
   }
 
+  private static long[] toArrayRemaining(Spliterator.OfLong spliterator) {
+    ArrayBuilder builder = new ArrayBuilder();
+    spliterator.forEachRemaining(builder);
+    return builder.build();
+  }
+
   @Override
   public long reduce(long identity, LongBinaryOperator op) {
     terminate();
+    return evaluatesInParallel()
+        ? ParallelEvaluation.evaluate(
+            spliterator, s -> reduceRemaining(s, identity, op), op::applyAsLong)
+        : reduceRemaining(spliterator, identity, op);
+  }
+
+  private static long reduceRemaining(
+      Spliterator.OfLong spliterator, long identity, LongBinaryOperator op) {
     ValueConsumer holder = new ValueConsumer();
     holder.value = identity;
     spliterator.forEachRemaining(
@@ -533,18 +689,49 @@ final class LongStreamImpl extends TerminatableStream<LongStreamImpl> implements
 
   @Override
   public OptionalLong reduce(LongBinaryOperator op) {
+    terminate();
+    if (!evaluatesInParallel()) {
+      return reduceRemaining(spliterator, op);
+    }
+    return ParallelEvaluation.evaluate(
+        spliterator,
+        s -> reduceRemaining(s, op),
+        (a, b) ->
+            !a.isPresent()
+                ? b
+                : !b.isPresent()
+                    ? a
+                    : OptionalLong.of(op.applyAsLong(a.getAsLong(), b.getAsLong())));
+  }
+
+  private static OptionalLong reduceRemaining(
+      Spliterator.OfLong spliterator, LongBinaryOperator op) {
     ValueConsumer holder = new ValueConsumer();
     if (spliterator.tryAdvance(holder)) {
-      return OptionalLong.of(reduce(holder.value, op));
+      return OptionalLong.of(reduceRemaining(spliterator, holder.value, op));
     }
-    terminate();
     return OptionalLong.empty();
   }
 
   @Override
   public <R extends @Nullable Object> R collect(
-      Supplier<R> supplier, ObjLongConsumer<R> accumulator, BiConsumer<R, R> combiner) {
+      Supplier<R> supplier, final ObjLongConsumer<R> accumulator, BiConsumer<R, R> combiner) {
     terminate();
+    if (!evaluatesInParallel()) {
+      return accumulate(spliterator, supplier, accumulator);
+    }
+    // each leaf accumulates into a container of its own
+    return ParallelEvaluation.evaluate(
+        spliterator,
+        s -> accumulate(s, supplier, accumulator),
+        (a, b) -> {
+          combiner.accept(a, b);
+          return a;
+        });
+  }
+
+  private static <R extends @Nullable Object> R accumulate(
+      Spliterator.OfLong spliterator, Supplier<R> supplier, ObjLongConsumer<R> accumulator) {
     final R acc = supplier.get();
     spliterator.forEachRemaining((long value) -> accumulator.accept(acc, value));
     return acc;
@@ -576,6 +763,12 @@ final class LongStreamImpl extends TerminatableStream<LongStreamImpl> implements
   @Override
   public long count() {
     terminate();
+    return evaluatesInParallel()
+        ? ParallelEvaluation.evaluate(spliterator, LongStreamImpl::countRemaining, Long::sum)
+        : countRemaining(spliterator);
+  }
+
+  private static long countRemaining(Spliterator.OfLong spliterator) {
     long count = 0;
     while (spliterator.tryAdvance((long value) -> { })) {
       count++;
@@ -603,7 +796,25 @@ final class LongStreamImpl extends TerminatableStream<LongStreamImpl> implements
 
   @Override
   public boolean anyMatch(LongPredicate predicate) {
-    return filter(predicate).findFirst().isPresent();
+    if (!evaluatesInParallel()) {
+      return filter(predicate).findFirst().isPresent();
+    }
+    terminate();
+    AtomicBoolean found = new AtomicBoolean();
+    ParallelEvaluation.run(
+        spliterator,
+        s -> {
+          while (!found.get()
+              && s.tryAdvance(
+                  (long item) -> {
+                    if (predicate.test(item)) {
+                      found.set(true);
+                    }
+                  })) {
+            // do nothing, work is done in tryAdvance
+          }
+        });
+    return found.get();
   }
 
   @Override
@@ -725,7 +936,7 @@ final class LongStreamImpl extends TerminatableStream<LongStreamImpl> implements
   public LongStream distinct() {
     throwIfTerminated();
     HashSet<Long> seen = new HashSet<>();
-    return filter(seen::add);
+    return new LongStreamImpl(this, new FilterSpliterator(seen::add, spliterator, false));
   }
 
   @Override
@@ -735,22 +946,35 @@ final class LongStreamImpl extends TerminatableStream<LongStreamImpl> implements
     AbstractLongSpliterator sortedSpliterator =
         new Spliterators.AbstractLongSpliterator(
             spliterator.estimateSize(), spliterator.characteristics() | Spliterator.SORTED) {
-          @Nullable Spliterator<Long> ordered = null;
+          Spliterator.@Nullable OfLong ordered = null;
 
           @Override
           public @Nullable Comparator<? super Long> getComparator() {
             return null;
           }
 
+          @Override
+          public long estimateSize() {
+            return ordered == null ? super.estimateSize() : ordered.estimateSize();
+          }
+
           @Override
           public boolean tryAdvance(LongConsumer action) {
+            return sort().tryAdvance(action);
+          }
+
+          @Override
+          public Spliterator.@Nullable OfLong trySplit() {
+            return sort().trySplit();
+          }
+
+          private Spliterator.OfLong sort() {
             if (ordered == null) {
-              ArrayList<Long> list = new ArrayList<>();
-              spliterator.forEachRemaining((long value) -> list.add(value));
-              list.sort(null);
-              ordered = list.spliterator();
+              long[] array = collectToArray();
+              Arrays.sort(array);
+              ordered = Spliterators.spliterator(array, Spliterator.ORDERED);
             }
-            return ordered.tryAdvance((Long l) -> action.accept(l));
+            return ordered;
           }
         };
 
@@ -761,17 +985,7 @@ final class LongStreamImpl extends TerminatableStream<LongStreamImpl> implements
   public LongStream peek(LongConsumer action) {
     checkNotNull(action);
     throwIfTerminated();
-
-    AbstractLongSpliterator peekSpliterator =
-        new Spliterators.AbstractLongSpliterator(
-            spliterator.estimateSize(), spliterator.characteristics()) {
-          @Override
-          public boolean tryAdvance(final LongConsumer innerAction) {
-            return spliterator.tryAdvance(action.andThen(innerAction));
-          }
-        };
-
-    return new LongStreamImpl(this, peekSpliterator);
+    return new LongStreamImpl(this, new PeekSpliterator(action, spliterator));
   }
 
   @Override
@@ -804,19 +1018,21 @@ final class LongStreamImpl extends TerminatableStream<LongStreamImpl> implements
   @Override
   public LongStream sequential() {
     throwIfTerminated();
+    setEvaluatesInParallel(false);
     return this;
   }
 
   @Override
   public LongStream parallel() {
     throwIfTerminated();
+    setEvaluatesInParallel(true);
     return this;
   }
 
   @Override
   public boolean isParallel() {
     throwIfTerminated();
-    return false;
+    return evaluatesInParallel();
   }
 
   @Override
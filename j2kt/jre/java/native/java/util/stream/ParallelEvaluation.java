@@ -0,0 +1,114 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package java.util.stream;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import javaemul.internal.ParallelTasks;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Evaluates terminal operations of parallel streams.
+ *
+ * <p>The spliterator of the stream is split into leaves with {@link Spliterator#trySplit}.
+ * Stateless stages split together with their source, so each leaf runs the whole pipeline for its
+ * part of the source. Leaves run concurrently with {@link ParallelTasks}, and their results are
+ * combined in encounter order, so that ordered reductions produce the same result as sequential
+ * evaluation.
+ */
+// package protected, as not part of jre
+@NullMarked
+final class ParallelEvaluation {
+
+  /** Number of leaves per available processor, to balance leaves that take longer than others. */
+  private static final int LEAVES_PER_PROCESSOR = 4;
+
+  /** Runs {@code leaf} on each part of {@code spliterator} and combines the results in order. */
+  static <S extends Spliterator<?>, R extends @Nullable Object> R evaluate(
+      S spliterator, Function<? super S, R> leaf, BinaryOperator<R> combiner) {
+    List<R> results = map(spliterator, leaf);
+    R result = results.get(0);
+    for (int i = 1; i < results.size(); i++) {
+      result = combiner.apply(result, results.get(i));
+    }
+    return result;
+  }
+
+  /** Runs {@code leaf} on each part of {@code spliterator}, in no particular order. */
+  static <S extends Spliterator<?>> void run(S spliterator, Consumer<? super S> leaf) {
+    map(
+        spliterator,
+        s -> {
+          leaf.accept(s);
+          return null;
+        });
+  }
+
+  /** Runs {@code leaf} on each part of {@code spliterator} and returns the results in order. */
+  static <S extends Spliterator<?>, R extends @Nullable Object> List<R> map(
+      S spliterator, Function<? super S, R> leaf) {
+    List<S> leaves = split(spliterator);
+    int count = leaves.size();
+    List<R> results = new ArrayList<>(count);
+    if (count == 1) {
+      results.add(leaf.apply(spliterator));
+      return results;
+    }
+    AtomicReferenceArray<R> leafResults = new AtomicReferenceArray<>(count);
+    ParallelTasks.run(count, i -> leafResults.set(i, leaf.apply(leaves.get(i))));
+    for (int i = 0; i < count; i++) {
+      results.add(leafResults.get(i));
+    }
+    return results;
+  }
+
+  /** Splits {@code spliterator} into leaves in encounter order. */
+  @SuppressWarnings("unchecked")
+  private static <S extends Spliterator<?>> List<S> split(S spliterator) {
+    int targetLeaves = ParallelTasks.parallelism() * LEAVES_PER_PROCESSOR;
+    long size = spliterator.estimateSize();
+    long minLeafSize = size == Long.MAX_VALUE ? 1 : Math.max(1, size / targetLeaves);
+
+    List<S> leaves = new ArrayList<>();
+    leaves.add(spliterator);
+    boolean didSplit = true;
+    while (didSplit && leaves.size() < targetLeaves) {
+      didSplit = false;
+      for (int i = 0; i < leaves.size() && leaves.size() < targetLeaves; i++) {
+        S leaf = leaves.get(i);
+        if (leaf.estimateSize() <= minLeafSize) {
+          continue;
+        }
+        S prefix = (S) leaf.trySplit();
+        if (prefix != null) {
+          // The prefix precedes the remainder of the leaf in encounter order.
+          leaves.add(i++, prefix);
+          didSplit = true;
+        }
+      }
+    }
+    return leaves;
+  }
+
+  private ParallelEvaluation() {}
+}
@@ -31,6 +31,7 @@ import java.util.Spliterators.AbstractDoubleSpliterator;
 import java.util.Spliterators.AbstractIntSpliterator;
 import java.util.Spliterators.AbstractLongSpliterator;
 import java.util.Spliterators.AbstractSpliterator;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.BiConsumer;
 import java.util.function.BiFunction;
 import java.util.function.BinaryOperator;
@@ -277,18 +278,20 @@ final class StreamImpl<T extends @Nullable Object> extends TerminatableStream<St
     @Override
     public boolean isParallel() {
       throwIfTerminated();
-      return false;
+      return evaluatesInParallel();
     }
 
     @Override
     public Stream<T> sequential() {
       throwIfTerminated();
+      setEvaluatesInParallel(false);
       return this;
     }
 
     @Override
     public Stream<T> parallel() {
       throwIfTerminated();
+      setEvaluatesInParallel(true);
       return this;
     }
 
@@ -324,6 +327,17 @@ final class StreamImpl<T extends @Nullable Object> extends TerminatableStream<St
     public boolean tryAdvance(final Consumer<? super T> action) {
       return original.tryAdvance(u -> action.accept(map.apply(u)));
     }
+
+    @Override
+    public long estimateSize() {
+      return original.estimateSize();
+    }
+
+    @Override
+    public @Nullable Spliterator<T> trySplit() {
+      Spliterator<U> prefix = original.trySplit();
+      return prefix == null ? null : new MapToObjSpliterator<>(map, prefix);
+    }
   }
 
   /**
@@ -349,6 +363,17 @@ final class StreamImpl<T extends @Nullable Object> extends TerminatableStream<St
     public boolean tryAdvance(final IntConsumer action) {
       return original.tryAdvance(u -> action.accept(map.applyAsInt(u)));
     }
+
+    @Override
+    public long estimateSize() {
+      return original.estimateSize();
+    }
+
+    @Override
+    public Spliterator.@Nullable OfInt trySplit() {
+      Spliterator<T> prefix = original.trySplit();
+      return prefix == null ? null : new MapToIntSpliterator<>(map, prefix);
+    }
   }
 
   /**
@@ -374,6 +399,17 @@ final class StreamImpl<T extends @Nullable Object> extends TerminatableStream<St
     public boolean tryAdvance(final LongConsumer action) {
       return original.tryAdvance(u -> action.accept(map.applyAsLong(u)));
     }
+
+    @Override
+    public long estimateSize() {
+      return original.estimateSize();
+    }
+
+    @Override
+    public Spliterator.@Nullable OfLong trySplit() {
+      Spliterator<T> prefix = original.trySplit();
+      return prefix == null ? null : new MapToLongSpliterator<>(map, prefix);
+    }
   }
 
   /**
@@ -399,6 +435,17 @@ final class StreamImpl<T extends @Nullable Object> extends TerminatableStream<St
     public boolean tryAdvance(final DoubleConsumer action) {
       return original.tryAdvance(u -> action.accept(map.applyAsDouble(u)));
     }
+
+    @Override
+    public long estimateSize() {
+      return original.estimateSize();
+    }
+
+    @Override
+    public Spliterator.@Nullable OfDouble trySplit() {
+      Spliterator<T> prefix = original.trySplit();
+      return prefix == null ? null : new MapToDoubleSpliterator<>(map, prefix);
+    }
   }
 
   /**
@@ -410,16 +457,41 @@ final class StreamImpl<T extends @Nullable Object> extends TerminatableStream<St
       extends Spliterators.AbstractSpliterator<T> {
     private final Predicate<? super T> filter;
     private final Spliterator<T> original;
+    private final boolean stateless;
 
     private boolean found;
 
     public FilterSpliterator(Predicate<? super T> filter, Spliterator<T> original) {
+      this(filter, original, true);
+    }
+
+    /**
+     * @param stateless whether {@code filter} may test different parts of the source concurrently
+     */
+    public FilterSpliterator(
+        Predicate<? super T> filter, Spliterator<T> original, boolean stateless) {
       super(
           original.estimateSize(),
           original.characteristics() & ~(Spliterator.SIZED | Spliterator.SUBSIZED));
       checkNotNull(filter);
       this.filter = filter;
       this.original = original;
+      this.stateless = stateless;
+    }
+
+    @Override
+    public long estimateSize() {
+      return stateless ? original.estimateSize() : super.estimateSize();
+    }
+
+    @Override
+    public @Nullable Spliterator<T> trySplit() {
+      if (!stateless) {
+        // buffers a prefix, testing elements in encounter order
+        return super.trySplit();
+      }
+      Spliterator<T> prefix = original.trySplit();
+      return prefix == null ? null : new FilterSpliterator<>(filter, prefix);
     }
 
     @Override
@@ -445,6 +517,48 @@ final class StreamImpl<T extends @Nullable Object> extends TerminatableStream<St
     }
   }
 
+  /**
+   * Object peek spliterator.
+   *
+   * @param <T> the type of data to iterate over
+   */
+  private static final class PeekSpliterator<T extends @Nullable Object>
+      extends Spliterators.AbstractSpliterator<T> {
+    private final Consumer<? super T> action;
+    private final Spliterator<T> original;
+
+    public PeekSpliterator(Consumer<? super T> action, Spliterator<T> original) {
+      super(original.estimateSize(), original.characteristics());
+      this.action = checkNotNull(action);
+      this.original = original;
+    }
+
+    @Override
+    public long estimateSize() {
+      return original.estimateSize();
+    }
+
+    @Override
+    public @Nullable Comparator<? super T> getComparator() {
+      return original.getComparator();
+    }
+
+    @Override
+    public boolean tryAdvance(final Consumer<? super T> innerAction) {
+      return original.tryAdvance(
+          item -> {
+            action.accept(item);
+            innerAction.accept(item);
+          });
+    }
+
+    @Override
+    public @Nullable Spliterator<T> trySplit() {
+      Spliterator<T> prefix = original.trySplit();
+      return prefix == null ? null : new PeekSpliterator<>(action, prefix);
+    }
+  }
+
   /**
    * Object skip spliterator.
    *
@@ -551,6 +665,12 @@ final class StreamImpl<T extends @Nullable Object> extends TerminatableStream<St
   @Override
   public long count() {
     terminate();
+    return evaluatesInParallel()
+        ? ParallelEvaluation.evaluate(spliterator, StreamImpl::countRemaining, Long::sum)
+        : countRemaining(spliterator);
+  }
+
+  private static long countRemaining(Spliterator<?> spliterator) {
     long count = 0;
     while (spliterator.tryAdvance(a -> { })) {
       count++;
@@ -560,7 +680,12 @@ final class StreamImpl<T extends @Nullable Object> extends TerminatableStream<St
 
   @Override
   public void forEach(Consumer<? super T> action) {
-    forEachOrdered(action);
+    if (!evaluatesInParallel()) {
+      forEachOrdered(action);
+      return;
+    }
+    terminate();
+    ParallelEvaluation.run(spliterator, s -> s.forEachRemaining(action));
   }
 
   @Override
@@ -596,16 +721,22 @@ final class StreamImpl<T extends @Nullable Object> extends TerminatableStream<St
   @Override
   public <R extends @Nullable Object, A extends @Nullable Object> R collect(
       final Collector<? super T, A, R> collector) {
-    return collector
-        .finisher()
-        .apply(
-            reduce(
-                collector.supplier().get(),
-                (a, t) -> {
-                  collector.accumulator().accept(a, t);
-                  return a;
-                },
-                collector.combiner()));
+    terminate();
+    // each leaf of a parallel evaluation accumulates into a container of its own
+    A container =
+        evaluatesInParallel()
+            ? ParallelEvaluation.evaluate(
+                spliterator, s -> accumulate(s, collector), collector.combiner())
+            : accumulate(spliterator, collector);
+    return collector.finisher().apply(container);
+  }
+
+  private static <T extends @Nullable Object, A extends @Nullable Object> A accumulate(
+      Spliterator<T> spliterator, Collector<? super T, A, ?> collector) {
+    A container = collector.supplier().get();
+    BiConsumer<A, ? super T> accumulator = collector.accumulator();
+    spliterator.forEachRemaining(item -> accumulator.accept(container, item));
+    return container;
   }
 
   @Override
@@ -627,7 +758,25 @@ final class StreamImpl<T extends @Nullable Object> extends TerminatableStream<St
 
   @Override
   public boolean anyMatch(Predicate<? super T> predicate) {
-    return filter(predicate).spliterator().tryAdvance(NULL_CONSUMER);
+    if (!evaluatesInParallel()) {
+      return filter(predicate).spliterator().tryAdvance(NULL_CONSUMER);
+    }
+    terminate();
+    AtomicBoolean found = new AtomicBoolean();
+    ParallelEvaluation.run(
+        spliterator,
+        s -> {
+          while (!found.get()
+              && s.tryAdvance(
+                  item -> {
+                    if (predicate.test(item)) {
+                      found.set(true);
+                    }
+                  })) {
+            // do nothing, work is done in tryAdvance
+          }
+        });
+    return found.get();
   }
 
   @Override
@@ -657,19 +806,41 @@ final class StreamImpl<T extends @Nullable Object> extends TerminatableStream<St
 
   @Override
   public Optional<@NonNull T> reduce(BinaryOperator<T> accumulator) {
+    terminate();
+    if (!evaluatesInParallel()) {
+      return reduceRemaining(spliterator, accumulator);
+    }
+    return ParallelEvaluation.evaluate(
+        spliterator,
+        s -> reduceRemaining(s, accumulator),
+        (a, b) ->
+            !a.isPresent()
+                ? b
+                : !b.isPresent() ? a : Optional.of(accumulator.apply(a.get(), b.get())));
+  }
+
+  private static <T extends @Nullable Object> Optional<@NonNull T> reduceRemaining(
+      Spliterator<T> spliterator, BinaryOperator<T> accumulator) {
     ValueConsumer<T> consumer = new ValueConsumer<T>();
     if (!spliterator.tryAdvance(consumer)) {
-      terminate();
       return Optional.empty();
     }
-    return Optional.of(reduce(consumer.value, accumulator));
+    return Optional.of(reduceRemaining(spliterator, consumer.value, accumulator));
   }
 
-  // combiner is ignored, since we don't parallelize
+  // the combiner is only used to combine the results of parallel leaves, in encounter order
   @Override
   public <U extends @Nullable Object> U reduce(
       U identity, BiFunction<U, ? super T, U> accumulator, BinaryOperator<U> combiner) {
     terminate();
+    return evaluatesInParallel()
+        ? ParallelEvaluation.evaluate(
+            spliterator, s -> reduceRemaining(s, identity, accumulator), combiner)
+        : reduceRemaining(spliterator, identity, accumulator);
+  }
+
+  private static <T extends @Nullable Object, U extends @Nullable Object> U reduceRemaining(
+      Spliterator<T> spliterator, U identity, BiFunction<U, ? super T, U> accumulator) {
     final ValueConsumer<U> consumer = new ValueConsumer<U>();
     consumer.value = identity;
     spliterator.forEachRemaining(
@@ -678,6 +849,17 @@ final class StreamImpl<T extends @Nullable Object> extends TerminatableStream<St
         });
     return consumer.value;
   }
+
+  private static <T extends @Nullable Object> List<T> collectToList(Spliterator<T> spliterator) {
+    List<T> list = new ArrayList<>();
+    spliterator.forEachRemaining(list::add);
+    return list;
+  }
+
+  private static <T extends @Nullable Object> List<T> concat(List<T> first, List<T> second) {
+    first.addAll(second);
+    return first;
+  }
   // end terminal
 
   // intermediate
@@ -904,7 +1086,7 @@ final class StreamImpl<T extends @Nullable Object> extends TerminatableStream<St
   public Stream<T> distinct() {
     throwIfTerminated();
     HashSet<T> seen = new HashSet<>();
-    return filter(seen::add);
+    return new StreamImpl<>(this, new FilterSpliterator<>(seen::add, spliterator, false));
   }
 
   @Override
@@ -929,15 +1111,32 @@ final class StreamImpl<T extends @Nullable Object> extends TerminatableStream<St
             return comparator == Comparator.<Comparable>naturalOrder() ? null : comparator;
           }
 
+          @Override
+          public long estimateSize() {
+            return ordered == null ? super.estimateSize() : ordered.estimateSize();
+          }
+
           @Override
           public boolean tryAdvance(Consumer<? super T> action) {
+            return sort().tryAdvance(action);
+          }
+
+          @Override
+          public @Nullable Spliterator<T> trySplit() {
+            return sort().trySplit();
+          }
+
+          private Spliterator<T> sort() {
             if (ordered == null) {
-              List<T> list = new ArrayList<>();
-              spliterator.forEachRemaining(list::add);
+              List<T> list =
+                  evaluatesInParallel()
+                      ? ParallelEvaluation.evaluate(
+                          spliterator, StreamImpl::collectToList, StreamImpl::concat)
+                      : collectToList(spliterator);
               Collections.sort(list, comparator);
               ordered = list.spliterator();
             }
-            return ordered.tryAdvance(action);
+            return ordered;
           }
         };
 
@@ -948,21 +1147,7 @@ final class StreamImpl<T extends @Nullable Object> extends TerminatableStream<St
   public Stream<T> peek(final Consumer<? super T> action) {
     checkNotNull(action);
     throwIfTerminated();
-
-    AbstractSpliterator<T> peekSpliterator =
-        new Spliterators.AbstractSpliterator<T>(
-            spliterator.estimateSize(), spliterator.characteristics()) {
-          @Override
-          public boolean tryAdvance(final Consumer<? super T> innerAction) {
-            return spliterator.tryAdvance(
-                item -> {
-                  action.accept(item);
-                  innerAction.accept(item);
-                });
-          }
-        };
-
-    return new StreamImpl<>(this, peekSpliterator);
+    return new StreamImpl<>(this, new PeekSpliterator<>(action, spliterator));
   }
 
   @Override
@@ -985,19 +1170,20 @@ final class StreamImpl<T extends @Nullable Object> extends TerminatableStream<St
   @Override
   public boolean isParallel() {
     throwIfTerminated();
-    return false;
+    return evaluatesInParallel();
   }
 
   @Override
   public Stream<T> sequential() {
     throwIfTerminated();
+    setEvaluatesInParallel(false);
     return this;
   }
 
   @Override
   public Stream<T> parallel() {
     throwIfTerminated();
-    // do nothing, no such thing as gwt+parallel
+    setEvaluatesInParallel(true);
     return this;
   }
 
@@ -28,7 +28,8 @@ import org.jspecify.annotations.Nullable;
 public final class StreamSupport {
 
   public static DoubleStream doubleStream(Spliterator.OfDouble spliterator, boolean parallel) {
-    return new DoubleStreamImpl(null, spliterator);
+    DoubleStream stream = new DoubleStreamImpl(null, spliterator);
+    return parallel ? stream.parallel() : stream;
   }
 
   public static DoubleStream doubleStream(
@@ -43,7 +44,8 @@ public final class StreamSupport {
   }
 
   public static IntStream intStream(Spliterator.OfInt spliterator, boolean parallel) {
-    return new IntStreamImpl(null, spliterator);
+    IntStream stream = new IntStreamImpl(null, spliterator);
+    return parallel ? stream.parallel() : stream;
   }
 
   public static IntStream intStream(
@@ -58,7 +60,8 @@ public final class StreamSupport {
   }
 
   public static LongStream longStream(Spliterator.OfLong spliterator, boolean parallel) {
-    return new LongStreamImpl(null, spliterator);
+    LongStream stream = new LongStreamImpl(null, spliterator);
+    return parallel ? stream.parallel() : stream;
   }
 
   public static LongStream longStream(
@@ -76,7 +79,8 @@ public final class StreamSupport {
 
   public static <T extends @Nullable Object> Stream<T> stream(
       Spliterator<T> spliterator, boolean parallel) {
-    return new StreamImpl<T>(null, spliterator);
+    Stream<T> stream = new StreamImpl<T>(null, spliterator);
+    return parallel ? stream.parallel() : stream;
   }
 
   public static <T extends @Nullable Object> Stream<T> stream(
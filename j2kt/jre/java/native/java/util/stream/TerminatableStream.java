@@ -28,6 +28,7 @@ import org.jspecify.annotations.Nullable;
 class TerminatableStream<T extends TerminatableStream<T>> implements AutoCloseable {
   // root-only fields, ignored for non-root instances
   private boolean terminated = false;
+  private boolean parallel = false;
   private final @Nullable List<Runnable> onClose;
 
   private final @Nullable TerminatableStream root;
@@ -63,6 +64,20 @@ class TerminatableStream<T extends TerminatableStream<T>> implements AutoCloseab
     }
   }
 
+  /** Returns whether terminal operations evaluate the pipeline with {@link ParallelEvaluation}. */
+  boolean evaluatesInParallel() {
+    return root != null ? root.evaluatesInParallel() : parallel;
+  }
+
+  // like the JDK, the last call to parallel() or sequential() applies to the whole pipeline
+  void setEvaluatesInParallel(boolean parallel) {
+    if (root == null) {
+      this.parallel = parallel;
+    } else {
+      root.setEvaluatesInParallel(parallel);
+    }
+  }
+
   @SuppressWarnings("unchecked")
   public T onClose(Runnable closeHandler) {
     if (root == null) {
@@ -0,0 +1,38 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package javaemul.internal;
+
+import java.util.function.IntConsumer;
+import javaemul.internal.annotations.KtNative;
+import org.jspecify.annotations.NullMarked;
+
+/** Runs indexed tasks on the common ForkJoinPool, for parallel streams and bulk operations. */
+@KtNative
+@NullMarked
+public final class ParallelTasks {
+
+  /** Returns the number of tasks that can usefully run at the same time. */
+  public static native int parallelism();
+
+  /**
+   * Runs {@code task} for each index in {@code [0, count)} and returns once all of them completed.
+   * The calling thread runs tasks as well. If a task throws, remaining tasks are skipped and the
+   * first exception is rethrown.
+   */
+  public static native void run(int count, IntConsumer task);
+
+  private ParallelTasks() {}
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package javaemul.internal
+
+import java.lang.Runnable
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.ForkJoinPool
+import java.util.function.IntConsumer
+import kotlin.concurrent.AtomicInt
+import kotlin.concurrent.AtomicReference
+
+/**
+ * Runs batches of indexed tasks for parallel streams and the bulk operations of
+ * ConcurrentHashMap. Helpers run on [ForkJoinPool.commonPool], as upstream, so that all parallel
+ * work of the process shares one set of threads.
+ */
+object ParallelTasks {
+  fun parallelism(): Int = ForkJoinPool.getCommonPoolParallelism()
+
+  fun run(count: Int, task: IntConsumer) {
+    if (count <= 1) {
+      if (count == 1) task.accept(0)
+      return
+    }
+    val batch = Batch(count, task)
+    val pool = ForkJoinPool.commonPool()
+    repeat(minOf(count, parallelism()) - 1) { pool.execute(batch) }
+    batch.run()
+    batch.join()
+  }
+
+  /**
+   * Tasks are claimed through [next], so that a helper which starts late, or never starts because
+   * the pool is busy with the caller's own tasks, does not hold up the batch.
+   */
+  private class Batch(private val count: Int, private val task: IntConsumer) : Runnable {
+    private val next = AtomicInt(0)
+    private val failure = AtomicReference<Throwable?>(null)
+    private val done = CountDownLatch(count)
+
+    override fun run() {
+      while (true) {
+        val index = next.getAndIncrement()
+        if (index >= count) return
+        try {
+          if (failure.value == null) task.accept(index)
+        } catch (e: Throwable) {
+          failure.compareAndSet(null, e)
+        } finally {
+          done.countDown()
+        }
+      }
+    }
+
+    fun join() {
+      done.await()
+      failure.value?.let { throw it }
+    }
+  }
+}
@@ -18,7 +18,9 @@
 package javaemul.lang
 
 import java.lang.IllegalMonitorStateException
+import java.lang.Thread
 import java.util.concurrent.locks.Condition
+import kotlin.concurrent.Volatile
 import kotlin.contracts.ExperimentalContracts
 import kotlin.contracts.InvocationKind
 import kotlin.contracts.contract
@@ -26,6 +28,7 @@ import kotlin.experimental.ExperimentalObjCName
 import kotlin.experimental.ExperimentalObjCRefinement
 import kotlin.native.ref.Cleaner
 import kotlin.native.ref.createCleaner
+import kotlinx.atomicfu.atomic
 import kotlinx.cinterop.alloc
 import kotlinx.cinterop.free
 import kotlinx.cinterop.memScoped
@@ -37,6 +40,7 @@ import platform.posix.clock_gettime
 import platform.posix.pthread_cond_broadcast
 import platform.posix.pthread_cond_destroy
 import platform.posix.pthread_cond_init
+import platform.posix.pthread_cond_signal
 import platform.posix.pthread_cond_t
 import platform.posix.pthread_cond_timedwait
 import platform.posix.pthread_cond_wait
@@ -45,23 +49,27 @@ import platform.posix.pthread_mutex_init
 import platform.posix.pthread_mutex_lock
 import platform.posix.pthread_mutex_t
 import platform.posix.pthread_mutex_unlock
-import platform.posix.pthread_mutexattr_init
-import platform.posix.pthread_mutexattr_settype
-import platform.posix.pthread_mutexattr_t
 import platform.posix.timespec
 
-/** Native monitor using pthread mutex. */
+/**
+ * Native monitor implemented as a thin lock.
+ *
+ * Uncontended locking only touches an atomic owner word and a recursion count that is private to
+ * the owning thread. Native resources (a pthread mutex and condition variables) are only allocated
+ * once a thread fails to acquire the lock after spinning, or when [newCondition] is called, so
+ * monitors that are never contended stay a plain Kotlin object.
+ */
 @OptIn(ExperimentalObjCRefinement::class)
 open class J2ktMonitor {
 
-  private val mutex: pthread_mutex_t =
-    nativeHeap.alloc { pthread_mutex_init(ptr, RECURSIVE_ATTR.ptr) }
+  /** Id of the owning thread, or [NO_OWNER] if the monitor is not locked. */
+  private val owner = atomic(NO_OWNER)
 
-  private val cleaner: Cleaner =
-    createCleaner(mutex) {
-      pthread_mutex_destroy(it.ptr)
-      nativeHeap.free(it)
-    }
+  /** Number of reentrant acquisitions beyond the first one. Only accessed by the owner. */
+  private var recursions = 0
+
+  /** Native fallback used for blocking; allocated on first contention or condition use. */
+  private val inflated = atomic<InflatedMonitor?>(null)
 
   @OptIn(ExperimentalContracts::class)
   @HiddenFromObjC
@@ -76,77 +84,211 @@ open class J2ktMonitor {
   }
 
   fun lock() {
-    pthread_mutex_lock(mutex.ptr)
+    val self = currentThreadId()
+    if (owner.compareAndSet(NO_OWNER, self)) {
+      return
+    }
+    if (owner.value == self) {
+      recursions++
+      return
+    }
+    lockContended(self)
   }
 
   fun unlock() {
-    pthread_mutex_unlock(mutex.ptr)
+    if (owner.value != currentThreadId()) {
+      throw IllegalMonitorStateException()
+    }
+    if (recursions > 0) {
+      recursions--
+      return
+    }
+    owner.value = NO_OWNER
+    // Waiters register before their final acquisition attempt, so either they observe the release
+    // above or we observe them here.
+    val monitor = inflated.value
+    if (monitor != null && monitor.waiters > 0) {
+      monitor.lock()
+      monitor.signalLockReleased()
+      monitor.unlock()
+    }
   }
 
-  fun newCondition(): Condition =
-    object : Condition {
-      private val cond: pthread_cond_t = nativeHeap.alloc { pthread_cond_init(ptr, null) }
+  fun newCondition(): Condition = MonitorCondition(inflate())
 
-      @Suppress("unused") // The returned Cleaner must be assigned to a property
-      @ExperimentalStdlibApi
-      private val cleaner: Cleaner =
-        createCleaner(cond) {
-          pthread_cond_destroy(it.ptr)
-          nativeHeap.free(it)
-        }
+  /** Spins for a bounded number of attempts, then blocks on the inflated native monitor. */
+  private fun lockContended(self: Long) {
+    repeat(SPIN_LIMIT) {
+      if (owner.value == NO_OWNER && owner.compareAndSet(NO_OWNER, self)) {
+        return
+      }
+    }
+    val monitor = inflate()
+    monitor.lock()
+    monitor.waiters++
+    try {
+      while (!owner.compareAndSet(NO_OWNER, self)) {
+        monitor.awaitLockReleased()
+      }
+    } finally {
+      monitor.waiters--
+      monitor.unlock()
+    }
+  }
 
-      override fun await() {
-        val errorCode = pthread_cond_wait(cond.ptr, mutex.ptr)
-        if (errorCode != 0) {
-          throw IllegalMonitorStateException("pthread_cond_wait error code $errorCode")
-        }
+  /**
+   * Fully releases the thin lock on behalf of a condition wait and returns the recursion count to
+   * restore. Must be called while holding the inflated monitor's mutex.
+   */
+  private fun releaseForWait(monitor: InflatedMonitor): Int {
+    val savedRecursions = recursions
+    recursions = 0
+    owner.value = NO_OWNER
+    if (monitor.waiters > 0) {
+      monitor.signalLockReleased()
+    }
+    return savedRecursions
+  }
+
+  private fun reacquireAfterWait(savedRecursions: Int) {
+    lock()
+    recursions = savedRecursions
+  }
+
+  private fun checkOwner() {
+    if (owner.value != currentThreadId()) {
+      throw IllegalMonitorStateException()
+    }
+  }
+
+  private fun inflate(): InflatedMonitor {
+    inflated.value?.let {
+      return it
+    }
+    val monitor = InflatedMonitor()
+    return if (inflated.compareAndSet(null, monitor)) monitor else inflated.value!!
+  }
+
+  private inner class MonitorCondition(private val monitor: InflatedMonitor) : Condition {
+    private val cond: pthread_cond_t = nativeHeap.alloc { pthread_cond_init(ptr, null) }
+
+    @Suppress("unused") // The returned Cleaner must be assigned to a property
+    @ExperimentalStdlibApi
+    private val cleaner: Cleaner =
+      createCleaner(cond) {
+        pthread_cond_destroy(it.ptr)
+        nativeHeap.free(it)
       }
 
-      override fun awaitNanos(nanos: Long): Long {
-        if (nanos <= 0) {
-          return nanos
-        }
-        memScoped {
-          val ts = alloc<timespec>()
-
-          clock_gettime(CLOCK_REALTIME.toUInt(), ts.ptr)
-          val startSec = ts.tv_sec
-          val startNsec = ts.tv_nsec
-
-          val targetNanos = nanos % 1_000_000_000L + ts.tv_nsec
-
-          ts.tv_nsec = targetNanos % 1_000_000_000L
-          ts.tv_sec += targetNanos / 1_000_000_000L + nanos / 1_000_000_000L
-          val errorCode = pthread_cond_timedwait(cond.ptr, mutex.ptr, ts.ptr)
-          if (errorCode != 0 && errorCode != ETIMEDOUT) {
-            throw IllegalMonitorStateException("pthread_cond_timedwait error code $errorCode")
-          }
-          clock_gettime(CLOCK_REALTIME.toUInt(), ts.ptr)
-          val elapsed = (ts.tv_sec - startSec) * 1_000_000_000L + (ts.tv_nsec) - startNsec
-          return nanos - elapsed
-        }
+    override fun await() {
+      checkOwner()
+      monitor.lock()
+      val savedRecursions = releaseForWait(monitor)
+      val errorCode = pthread_cond_wait(cond.ptr, monitor.mutex.ptr)
+      monitor.unlock()
+      reacquireAfterWait(savedRecursions)
+      if (errorCode != 0) {
+        throw IllegalMonitorStateException("pthread_cond_wait error code $errorCode")
       }
+    }
 
-      override fun signal() {
-        val errorCode = pthread_cond_broadcast(cond.ptr)
-        if (errorCode != 0) {
-          throw IllegalMonitorStateException("pthread_cond_broadcast error code $errorCode")
-        }
+    override fun awaitNanos(nanos: Long): Long {
+      if (nanos <= 0) {
+        return nanos
       }
+      checkOwner()
+      memScoped {
+        val ts = alloc<timespec>()
+
+        clock_gettime(CLOCK_REALTIME.toUInt(), ts.ptr)
+        val startSec = ts.tv_sec
+        val startNsec = ts.tv_nsec
 
-      override fun signalAll() {
-        val errorCode = pthread_cond_broadcast(cond.ptr)
-        if (errorCode != 0) {
-          throw IllegalMonitorStateException("pthread_cond_broadcast error code $errorCode")
+        val targetNanos = nanos % 1_000_000_000L + ts.tv_nsec
+
+        ts.tv_nsec = targetNanos % 1_000_000_000L
+        ts.tv_sec += targetNanos / 1_000_000_000L + nanos / 1_000_000_000L
+        monitor.lock()
+        val savedRecursions = releaseForWait(monitor)
+        val errorCode = pthread_cond_timedwait(cond.ptr, monitor.mutex.ptr, ts.ptr)
+        monitor.unlock()
+        reacquireAfterWait(savedRecursions)
+        if (errorCode != 0 && errorCode != ETIMEDOUT) {
+          throw IllegalMonitorStateException("pthread_cond_timedwait error code $errorCode")
         }
+        clock_gettime(CLOCK_REALTIME.toUInt(), ts.ptr)
+        val elapsed = (ts.tv_sec - startSec) * 1_000_000_000L + (ts.tv_nsec) - startNsec
+        return nanos - elapsed
       }
     }
 
-  private companion object {
-    private val RECURSIVE_ATTR: pthread_mutexattr_t =
-      nativeHeap.alloc {
-        pthread_mutexattr_init(ptr)
-        pthread_mutexattr_settype(ptr, platform.posix.PTHREAD_MUTEX_RECURSIVE)
+    override fun signal() {
+      signalAll()
+    }
+
+    override fun signalAll() {
+      // Waiters release the thin lock and start waiting while holding the native mutex, so taking
+      // it here guarantees that no waiter can miss this signal.
+      monitor.lock()
+      val errorCode = pthread_cond_broadcast(cond.ptr)
+      monitor.unlock()
+      if (errorCode != 0) {
+        throw IllegalMonitorStateException("pthread_cond_broadcast error code $errorCode")
+      }
+    }
+  }
+
+  /**
+   * Native mutex plus a condition signalled whenever the thin lock is released while threads are
+   * blocked on it. [waiters] is only modified while holding [mutex].
+   */
+  private class InflatedMonitor {
+    val mutex: pthread_mutex_t = nativeHeap.alloc { pthread_mutex_init(ptr, null) }
+    private val lockReleased: pthread_cond_t = nativeHeap.alloc { pthread_cond_init(ptr, null) }
+
+    @Volatile var waiters = 0
+
+    @Suppress("unused") // The returned Cleaner must be assigned to a property
+    private val mutexCleaner: Cleaner =
+      createCleaner(mutex) {
+        pthread_mutex_destroy(it.ptr)
+        nativeHeap.free(it)
+      }
+
+    @Suppress("unused") // The returned Cleaner must be assigned to a property
+    private val condCleaner: Cleaner =
+      createCleaner(lockReleased) {
+        pthread_cond_destroy(it.ptr)
+        nativeHeap.free(it)
+      }
+
+    fun lock() {
+      pthread_mutex_lock(mutex.ptr)
+    }
+
+    fun unlock() {
+      pthread_mutex_unlock(mutex.ptr)
+    }
+
+    fun awaitLockReleased() {
+      val errorCode = pthread_cond_wait(lockReleased.ptr, mutex.ptr)
+      if (errorCode != 0) {
+        throw IllegalMonitorStateException("pthread_cond_wait error code $errorCode")
       }
+    }
+
+    fun signalLockReleased() {
+      pthread_cond_signal(lockReleased.ptr)
+    }
+  }
+
+  private companion object {
+    /** Thread ids start at 1, so 0 never identifies a thread. */
+    private const val NO_OWNER = 0L
+
+    /** Number of acquisition attempts before a contended lock blocks. */
+    private const val SPIN_LIMIT = 64
+
+    private fun currentThreadId(): Long = Thread.currentThread().getId()
   }
 }
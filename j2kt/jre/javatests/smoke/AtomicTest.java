@@ -17,11 +17,22 @@ package smoke;
 
 import static org.junit.Assert.assertEquals;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.DoubleAccumulator;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
 import org.jspecify.annotations.Nullable;
 import org.junit.Test;
 
@@ -70,6 +81,34 @@ public class AtomicTest {
     nullableArray.set(0, "Hello world!");
     @Nullable String nullableResult = nullableArray.get(0);
     assertEquals("Hello world!", nullableResult);
+
+    assertEquals("Hello world!", nullableArray.compareAndExchange(0, "Hello world!", "Bye"));
+    assertEquals("Bye", nullableArray.getAcquire(0));
+    nullableArray.setRelease(0, null);
+    assertEquals("[null]", nullableArray.toString());
+  }
+
+  @Test
+  public void testIntegerArray() {
+    AtomicIntegerArray array = new AtomicIntegerArray(new int[] {1, 2, 3});
+    assertEquals(3, array.length());
+    assertEquals(2, array.getAndIncrement(1));
+    assertEquals(6, array.accumulateAndGet(2, 2, (prev, x) -> prev * x));
+    assertEquals(1, array.compareAndExchange(0, 1, 10));
+    assertEquals(10, array.compareAndExchange(0, 1, 20));
+    array.setRelease(1, 7);
+    assertEquals(7, array.getAcquire(1));
+    assertEquals("[10, 7, 6]", array.toString());
+  }
+
+  @Test
+  public void testLongArray() {
+    AtomicLongArray array = new AtomicLongArray(2);
+    assertEquals(0L, array.getAndAdd(0, 5L));
+    assertEquals(4L, array.updateAndGet(1, v -> v + 4L));
+    assertEquals(true, array.compareAndSet(0, 5L, Long.MAX_VALUE));
+    assertEquals(Long.MAX_VALUE, array.getPlain(0));
+    assertEquals("[" + Long.MAX_VALUE + ", 4]", array.toString());
   }
 
   @Test
@@ -80,6 +119,67 @@ public class AtomicTest {
     assertEquals(true, atomicBoolean.get());
   }
 
+  @Test
+  public void testLongAdder() throws Exception {
+    LongAdder adder = new LongAdder();
+    testNumber(adder, 0);
+    adder.add(1234L);
+    testNumber(adder, 1234);
+
+    adder.reset();
+    ExecutorService executor = Executors.newScheduledThreadPool(4);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int t = 0; t < 4; t++) {
+        futures.add(
+            executor.submit(
+                () -> {
+                  for (int i = 0; i < 10_000; i++) {
+                    adder.increment();
+                  }
+                }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdown();
+    }
+    assertEquals(40_000L, adder.sum());
+    assertEquals(40_000L, adder.sumThenReset());
+    assertEquals(0L, adder.sum());
+  }
+
+  @Test
+  public void testDoubleAdder() {
+    DoubleAdder adder = new DoubleAdder();
+    adder.add(1.5);
+    adder.add(2.25);
+    assertEquals(3.75, adder.sum(), 0.0);
+    assertEquals("3.75", adder.toString());
+    assertEquals(3, adder.intValue());
+    adder.reset();
+    assertEquals(0.0, adder.sum(), 0.0);
+  }
+
+  @Test
+  public void testAccumulators() {
+    LongAccumulator max = new LongAccumulator(Long::max, Long.MIN_VALUE);
+    max.accumulate(3L);
+    max.accumulate(42L);
+    max.accumulate(7L);
+    assertEquals(42L, max.get());
+    assertEquals(42L, max.getThenReset());
+    assertEquals(Long.MIN_VALUE, max.get());
+
+    DoubleAccumulator product = new DoubleAccumulator((x, y) -> x * y, 1.0);
+    product.accumulate(2.0);
+    product.accumulate(0.25);
+    assertEquals(0.5, product.get(), 0.0);
+    product.reset();
+    assertEquals(1.0, product.doubleValue(), 0.0);
+  }
+
   /**
    * Tests compilation and implementation of {@code Number} abstract class and some methods we
    * override in our implementation (e.g. {@code toString()})
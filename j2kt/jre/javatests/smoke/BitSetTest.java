@@ -16,6 +16,9 @@
 
 package smoke;
 
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 import java.util.BitSet;
@@ -35,4 +38,67 @@ public final class BitSetTest {
 
     assertTrue(bitset instanceof Cloneable);
   }
+
+  @Test
+  public void testRanges() {
+    BitSet bitset = new BitSet();
+    bitset.set(60, 130);
+    assertEquals(70, bitset.cardinality());
+    assertEquals(130, bitset.length());
+    assertEquals(60, bitset.nextSetBit(0));
+    assertEquals(130, bitset.nextClearBit(60));
+    assertEquals(129, bitset.previousSetBit(1000));
+    assertEquals(59, bitset.previousClearBit(129));
+
+    bitset.clear(64, 128);
+    assertEquals("{60, 61, 62, 63, 128, 129}", bitset.toString());
+    assertEquals(128, bitset.nextSetBit(64));
+    assertEquals(63, bitset.previousSetBit(127));
+
+    bitset.flip(0, 192);
+    assertEquals(186, bitset.cardinality());
+    assertFalse(bitset.get(60));
+    assertTrue(bitset.get(191));
+
+    BitSet slice = bitset.get(62, 130);
+    assertEquals("{2, 3, 4, 5", slice.toString().substring(0, 11));
+    assertEquals(64, slice.cardinality());
+  }
+
+  @Test
+  public void testLogicalOperations() {
+    BitSet a = BitSet.valueOf(new long[] {0b1100L, -1L});
+    BitSet b = BitSet.valueOf(new long[] {0b1010L});
+
+    BitSet and = (BitSet) a.clone();
+    and.and(b);
+    assertArrayEquals(new long[] {0b1000L}, and.toLongArray());
+
+    BitSet or = (BitSet) b.clone();
+    or.or(a);
+    assertEquals(a.cardinality() + 1, or.cardinality());
+
+    BitSet xor = (BitSet) a.clone();
+    xor.xor(b);
+    assertArrayEquals(new long[] {0b0110L, -1L}, xor.toLongArray());
+
+    BitSet andNot = (BitSet) a.clone();
+    andNot.andNot(a);
+    assertTrue(andNot.isEmpty());
+
+    assertTrue(a.intersects(b));
+    assertFalse(xor.intersects(and));
+    assertEquals(a, BitSet.valueOf(a.toByteArray()));
+    assertEquals(a.hashCode(), BitSet.valueOf(a.toLongArray()).hashCode());
+  }
+
+  @Test
+  public void testStream() {
+    BitSet bitset = new BitSet();
+    bitset.set(3);
+    bitset.set(64);
+    bitset.set(200);
+    assertArrayEquals(new int[] {3, 64, 200}, bitset.stream().toArray());
+    assertEquals(0, new BitSet().stream().count());
+  }
 }
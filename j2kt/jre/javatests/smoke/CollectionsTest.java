@@ -32,12 +32,15 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
 import java.util.EnumMap;
 import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.IdentityHashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.NavigableMap;
@@ -50,13 +53,17 @@ import java.util.Stack;
 import java.util.TreeMap;
 import java.util.TreeSet;
 import java.util.Vector;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.BiConsumer;
 import java.util.function.BiFunction;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
+import javaemul.lang.EnumConstants;
 import org.jspecify.annotations.NonNull;
 import org.jspecify.annotations.Nullable;
 import org.junit.Test;
@@ -306,6 +313,98 @@ public class CollectionsTest {
     assertEquals(1, map.size());
   }
 
+  @Test
+  public void testHashMap_computeMethods() {
+    Map<String, List<Integer>> multimap = new HashMap<>();
+    for (int i = 0; i < 10; i++) {
+      multimap.computeIfAbsent(i % 2 == 0 ? "even" : "odd", k -> new ArrayList<>()).add(i);
+    }
+    assertEquals(Arrays.asList(0, 2, 4, 6, 8), multimap.get("even"));
+    assertEquals(Arrays.asList(1, 3, 5, 7, 9), multimap.get("odd"));
+    assertNull(multimap.computeIfAbsent("none", k -> null));
+    assertFalse(multimap.containsKey("none"));
+
+    Map<String, Integer> map = new HashMap<>();
+    assertEquals(Integer.valueOf(1), map.compute("a", (k, v) -> v == null ? 1 : v + 1));
+    assertEquals(Integer.valueOf(2), map.compute("a", (k, v) -> v == null ? 1 : v + 1));
+    assertEquals(Integer.valueOf(12), map.computeIfPresent("a", (k, v) -> v + 10));
+    assertNull(map.computeIfPresent("b", (k, v) -> v + 10));
+    assertNull(map.compute("a", (k, v) -> null));
+    assertTrue(map.isEmpty());
+    assertEquals(Integer.valueOf(7), map.getOrDefault("a", 7));
+
+    // Mapping functions must not modify the map.
+    assertThrows(
+        ConcurrentModificationException.class,
+        () -> map.computeIfAbsent("a", k -> map.put("b", 1)));
+  }
+
+  @Test
+  public void testHashMap_manyEntries() {
+    Map<@Nullable Integer, Integer> map = new HashMap<>(4);
+    for (int i = 0; i < 1000; i++) {
+      map.put(i, i * i);
+    }
+    map.put(null, -1);
+    assertEquals(1001, map.size());
+    assertEquals(Integer.valueOf(-1), map.get(null));
+    for (int i = 0; i < 1000; i += 2) {
+      assertEquals(Integer.valueOf(i * i), map.remove(i));
+    }
+    assertEquals(501, map.size());
+
+    long keySum = 0;
+    Iterator<@Nullable Integer> iterator = map.keySet().iterator();
+    while (iterator.hasNext()) {
+      Integer key = iterator.next();
+      if (key == null) {
+        iterator.remove();
+      } else {
+        keySum += key;
+      }
+    }
+    assertEquals(500 * 500, keySum);
+    assertFalse(map.containsKey(null));
+    assertTrue(map.containsValue(999 * 999));
+    assertFalse(map.containsValue(998 * 998));
+  }
+
+  @Test
+  public void testHashMap_clone() {
+    HashMap<String, Integer> map = new HashMap<>();
+    for (int i = 0; i < 100; i++) {
+      map.put("key" + i, i);
+    }
+    @SuppressWarnings("unchecked")
+    HashMap<String, Integer> clone = (HashMap<String, Integer>) map.clone();
+    assertEquals(map, clone);
+    assertEquals(map.hashCode(), clone.hashCode());
+
+    clone.put("key0", -1);
+    clone.put("new", 100);
+    assertEquals(Integer.valueOf(0), map.get("key0"));
+    assertFalse(map.containsKey("new"));
+    assertEquals(101, clone.size());
+  }
+
+  @Test
+  public void testHashSet() {
+    HashSet<@Nullable String> set = new HashSet<>(Arrays.asList("a", "b", "a"));
+    assertEquals(2, set.size());
+    assertTrue(set.add(null));
+    assertFalse(set.add("a"));
+    assertTrue(set.contains(null));
+    assertTrue(set.remove("b"));
+    assertFalse(set.remove("b"));
+    assertEquals(new HashSet<>(Arrays.asList(null, "a")), set);
+
+    @SuppressWarnings("unchecked")
+    HashSet<@Nullable String> clone = (HashSet<@Nullable String>) set.clone();
+    clone.add("c");
+    assertEquals(2, set.size());
+    assertEquals(3, clone.size());
+  }
+
   private static class TestMap<K extends @Nullable Object, V extends @Nullable Object>
       extends AbstractMap<K, V> implements Map<K, V> {
 
@@ -628,6 +727,85 @@ public class CollectionsTest {
     assertEquals(2, testList.parallelStreamCalls);
   }
 
+  @Test
+  public void testParallelStream_preservesEncounterOrder() {
+    List<Integer> list = new ArrayList<>();
+    for (int i = 0; i < 10000; i++) {
+      list.add(i);
+    }
+
+    Stream<Integer> stream = list.parallelStream();
+    assertTrue(stream.isParallel());
+    assertFalse(stream.sequential().isParallel());
+
+    assertEquals(list, list.parallelStream().collect(Collectors.toList()));
+    assertArrayEquals(list.toArray(), list.parallelStream().toArray());
+    assertEquals(
+        list.stream().map(String::valueOf).collect(Collectors.joining(",")),
+        list.parallelStream().map(String::valueOf).collect(Collectors.joining(",")));
+    assertEquals(
+        list.subList(0, 100),
+        list.parallelStream()
+            .map(i -> 9999 - i)
+            .sorted()
+            .limit(100)
+            .collect(Collectors.toList()));
+    assertEquals(5000, list.parallelStream().filter(i -> i % 2 == 0).distinct().count());
+    assertEquals(Integer.valueOf(49995000), list.parallelStream().reduce(0, Integer::sum));
+    assertEquals(Integer.valueOf(9999), list.parallelStream().max(Integer::compare).get());
+    assertTrue(list.parallelStream().anyMatch(i -> i == 9999));
+    assertFalse(list.parallelStream().anyMatch(i -> i < 0));
+
+    AtomicInteger visited = new AtomicInteger();
+    list.parallelStream().forEach(i -> visited.incrementAndGet());
+    assertEquals(10000, visited.get());
+  }
+
+  @Test
+  public void testParallelStream_primitives() {
+    int[] values = IntStream.range(0, 10000).toArray();
+    assertEquals(49995000L, Arrays.stream(values).parallel().asLongStream().sum());
+    assertEquals(49995000, IntStream.of(values).parallel().reduce(0, Integer::sum));
+    assertArrayEquals(
+        values, IntStream.of(values).parallel().map(i -> 9999 - i).sorted().toArray());
+    assertEquals(5000, IntStream.of(values).parallel().filter(i -> i % 2 == 1).toArray().length);
+  }
+
+  @Test
+  public void testParallelStream_propagatesException() {
+    List<Integer> list = new ArrayList<>();
+    for (int i = 0; i < 10000; i++) {
+      list.add(i);
+    }
+    assertThrows(
+        IllegalStateException.class,
+        () ->
+            list.parallelStream()
+                .forEach(
+                    i -> {
+                      if (i == 5000) {
+                        throw new IllegalStateException();
+                      }
+                    }));
+  }
+
+  @Test
+  public void testListSpliterator_split() {
+    List<Integer> list = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      list.add(i);
+    }
+    Spliterator<Integer> suffix = list.spliterator();
+    Spliterator<Integer> prefix = suffix.trySplit();
+    assertEquals(50, prefix.estimateSize());
+    assertEquals(50, suffix.estimateSize());
+
+    List<Integer> traversed = new ArrayList<>();
+    prefix.forEachRemaining(traversed::add);
+    suffix.forEachRemaining(traversed::add);
+    assertEquals(list, traversed);
+  }
+
   @Test
   public void testListGetFirstLast() {
     List<String> list = new ArrayList<>();
@@ -744,7 +922,8 @@ public class CollectionsTest {
 
   enum Fruit {
     APPLE,
-    ORANGE
+    ORANGE,
+    PEAR
   }
 
   @Test
@@ -762,6 +941,173 @@ public class CollectionsTest {
     assertEquals(enumMap.get(Fruit.ORANGE), null);
   }
 
+  @Test
+  public void testEnumSet_ordinalOrder() {
+    EnumSet<Fruit> enumSet = EnumSet.of(Fruit.PEAR, Fruit.APPLE);
+    assertFalse(enumSet.add(Fruit.PEAR));
+    assertTrue(enumSet.add(Fruit.ORANGE));
+    assertArrayEquals(new Fruit[] {Fruit.APPLE, Fruit.ORANGE, Fruit.PEAR}, enumSet.toArray());
+
+    Iterator<Fruit> it = enumSet.iterator();
+    it.next();
+    it.remove();
+    assertEquals(2, enumSet.size());
+    assertFalse(enumSet.contains(Fruit.APPLE));
+    assertFalse(enumSet.remove("ORANGE"));
+
+    EnumSet<Fruit> copy = EnumSet.copyOf(enumSet);
+    assertTrue(copy.remove(Fruit.ORANGE));
+    assertEquals(2, enumSet.size());
+    assertTrue(enumSet.containsAll(copy));
+    assertTrue(enumSet.retainAll(copy));
+    assertEquals(copy, enumSet);
+
+    enumSet.clear();
+    assertTrue(enumSet.isEmpty());
+    assertFalse(enumSet.iterator().hasNext());
+  }
+
+  enum Vegetable {
+    BEAN,
+    CARROT,
+    LEEK,
+    PEA;
+
+    static {
+      EnumConstants.register(Vegetable.class, values());
+    }
+  }
+
+  @Test
+  public void testEnumSet_registeredConstants() {
+    EnumSet<Vegetable> all = EnumSet.allOf(Vegetable.class);
+    assertArrayEquals(Vegetable.values(), all.toArray());
+
+    EnumSet<Vegetable> range = EnumSet.range(Vegetable.CARROT, Vegetable.LEEK);
+    assertArrayEquals(new Vegetable[] {Vegetable.CARROT, Vegetable.LEEK}, range.toArray());
+
+    EnumSet<Vegetable> complement = EnumSet.complementOf(range);
+    assertArrayEquals(new Vegetable[] {Vegetable.BEAN, Vegetable.PEA}, complement.toArray());
+
+    EnumSet<Vegetable> none = EnumSet.noneOf(Vegetable.class);
+    assertTrue(none.addAll(range));
+    assertTrue(all.containsAll(none));
+    assertTrue(all.removeAll(complement));
+    assertEquals(range, all);
+    assertFalse(all.retainAll(none));
+  }
+
+  @Test
+  public void testEnumMap_ordinalOrder() {
+    EnumMap<Fruit, @Nullable String> enumMap = new EnumMap<>(Fruit.class);
+    enumMap.put(Fruit.PEAR, "pear");
+    enumMap.put(Fruit.APPLE, null);
+    assertTrue(enumMap.containsKey(Fruit.APPLE));
+    assertTrue(enumMap.containsValue(null));
+    assertFalse(enumMap.containsKey(Fruit.ORANGE));
+    assertEquals(2, enumMap.size());
+    assertArrayEquals(new Fruit[] {Fruit.APPLE, Fruit.PEAR}, enumMap.keySet().toArray());
+    assertEquals("{APPLE=null, PEAR=pear}", enumMap.toString());
+
+    for (Map.Entry<Fruit, @Nullable String> entry : enumMap.entrySet()) {
+      entry.setValue(entry.getKey().name());
+    }
+    assertEquals("APPLE", enumMap.get(Fruit.APPLE));
+
+    EnumMap<Fruit, @Nullable String> copy = new EnumMap<>(enumMap);
+    enumMap.values().remove("APPLE");
+    assertNull(enumMap.remove(Fruit.APPLE));
+    assertEquals(1, enumMap.size());
+    assertEquals(2, copy.size());
+    assertEquals("PEAR", copy.remove(Fruit.PEAR));
+  }
+
+  @Test
+  public void testLinkedHashMap_insertionOrder() {
+    Map<String, Integer> map = new LinkedHashMap<>();
+    map.put("c", 1);
+    map.put("a", 2);
+    map.put("b", 3);
+    map.put("a", 4);
+    assertEquals(Integer.valueOf(1), map.get("c"));
+    assertArrayEquals(new String[] {"c", "a", "b"}, map.keySet().toArray());
+    assertArrayEquals(new Integer[] {1, 4, 3}, map.values().toArray());
+
+    map.remove("a");
+    map.put("a", 5);
+    assertArrayEquals(new String[] {"c", "b", "a"}, map.keySet().toArray());
+    assertEquals(Map.of("a", 5, "b", 3, "c", 1), map);
+    assertEquals(Map.of("a", 5, "b", 3, "c", 1).hashCode(), map.hashCode());
+    assertEquals("{c=1, b=3, a=5}", map.toString());
+  }
+
+  @Test
+  public void testLinkedHashMap_accessOrder() {
+    Map<String, Integer> map = new LinkedHashMap<>(16, 0.75f, true);
+    map.put("a", 1);
+    map.put("b", 2);
+    map.put("c", 3);
+    map.get("a");
+    map.put("b", 4);
+    assertArrayEquals(new String[] {"c", "a", "b"}, map.keySet().toArray());
+    map.getOrDefault("c", 0);
+    assertArrayEquals(new String[] {"a", "b", "c"}, map.keySet().toArray());
+
+    // Lookups reorder the entries, so they are not allowed while iterating.
+    Iterator<String> iterator = map.keySet().iterator();
+    iterator.next();
+    map.get("a");
+    assertThrows(ConcurrentModificationException.class, iterator::next);
+  }
+
+  @Test
+  public void testLinkedHashMap_removeEldestEntry() {
+    Map<Integer, Integer> cache =
+        new LinkedHashMap<Integer, Integer>(16, 0.75f, true) {
+          @Override
+          protected boolean removeEldestEntry(Map.Entry<Integer, Integer> eldest) {
+            return size() > 3;
+          }
+        };
+    for (int i = 0; i < 3; i++) {
+      cache.put(i, i);
+    }
+    cache.get(0);
+    cache.put(3, 3);
+    assertArrayEquals(new Integer[] {2, 0, 3}, cache.keySet().toArray());
+    cache.put(4, 4);
+    assertArrayEquals(new Integer[] {0, 3, 4}, cache.keySet().toArray());
+
+    Iterator<Map.Entry<Integer, Integer>> iterator = cache.entrySet().iterator();
+    iterator.next();
+    iterator.remove();
+    assertArrayEquals(new Integer[] {3, 4}, cache.keySet().toArray());
+  }
+
+  @Test
+  public void testLinkedHashMap_clone() {
+    LinkedHashMap<Integer, Integer> map = new LinkedHashMap<>(4, 0.5f, true);
+    for (int i = 99; i >= 0; i--) {
+      map.put(i, i * i);
+    }
+    map.get(50);
+    @SuppressWarnings("unchecked")
+    LinkedHashMap<Integer, Integer> clone = (LinkedHashMap<Integer, Integer>) map.clone();
+    assertEquals(map, clone);
+    assertArrayEquals(map.keySet().toArray(), clone.keySet().toArray());
+
+    // The clone keeps the access order and is independent of the original.
+    clone.get(99);
+    clone.remove(0);
+    clone.put(100, 0);
+    Object[] keys = clone.keySet().toArray();
+    assertEquals(98, keys[0]);
+    assertArrayEquals(new Integer[] {50, 99, 100}, Arrays.copyOfRange(keys, 97, 100));
+    assertEquals(99, map.keySet().iterator().next().intValue());
+    assertEquals(100, map.size());
+    assertTrue(map.containsKey(0));
+  }
+
   @Test
   public void testTreeMap() {
     NavigableMap<String, String> map = new TreeMap<>();
@@ -783,6 +1129,78 @@ public class CollectionsTest {
     assertEquals(new Integer[] {1, 3, 4, 5}, set.toArray());
   }
 
+  @Test
+  public void testTreeMap_fromSortedMap() {
+    Comparator<Integer> order = reverseOrder();
+    TreeMap<Integer, String> source = new TreeMap<>(order);
+    for (int i = 0; i < 1000; i++) {
+      source.put(i, "v" + i);
+    }
+    TreeMap<Integer, String> copy = new TreeMap<>(source);
+    assertEquals(source, copy);
+    assertEquals(order, copy.comparator());
+    assertEquals(999, (int) copy.firstKey());
+    assertEquals(500, (int) copy.ceilingKey(500));
+    for (int i = 0; i < 1000; i += 2) {
+      copy.remove(i);
+    }
+    copy.put(-1, "v-1");
+    assertEquals(501, copy.size());
+    assertEquals(-1, (int) copy.lastKey());
+  }
+
+  @Test
+  public void testTreeMap_putAllSortedMap() {
+    TreeMap<Integer, String> map = new TreeMap<>();
+    for (int i = 0; i < 100; i += 2) {
+      map.put(i, "even");
+    }
+    Map.Entry<Integer, String> entry = map.firstEntry();
+    Map.Entry<Integer, String> node = map.entrySet().iterator().next();
+
+    TreeMap<Integer, String> odd = new TreeMap<>();
+    for (int i = 1; i < 100; i += 2) {
+      odd.put(i, "odd");
+    }
+    odd.put(0, "zero");
+    map.putAll(odd);
+
+    assertEquals(100, map.size());
+    assertEquals("zero", map.get(0));
+    assertEquals("odd", map.get(99));
+    assertEquals("even", map.get(98));
+    assertEquals(49, (int) map.lowerKey(50));
+    assertEquals("even", entry.getValue());
+    node.setValue("changed");
+    assertEquals("changed", map.get(0));
+  }
+
+  @Test
+  public void testTreeSet_fromSortedCollection() {
+    List<Integer> sorted = new ArrayList<>();
+    for (int i = 0; i < 1000; i++) {
+      sorted.add(i);
+    }
+    TreeSet<Integer> set = new TreeSet<>(sorted);
+    assertEquals(1000, set.size());
+    assertEquals(0, (int) set.first());
+    assertEquals(999, (int) set.last());
+    assertEquals(new TreeSet<>(set), set);
+
+    set.removeIf(i -> i % 3 != 0);
+    assertEquals(334, set.size());
+    assertEquals(3, (int) set.higher(0));
+  }
+
+  @Test
+  public void testTreeSet_fromUnsortedCollection() {
+    TreeSet<Integer> set = new TreeSet<>(Arrays.asList(1, 2, 5, 3, 5, 4, 0));
+    assertEquals(new Integer[] {0, 1, 2, 3, 4, 5}, set.toArray());
+    assertFalse(set.addAll(Arrays.asList(1, 2)));
+    assertTrue(set.addAll(Arrays.asList(6, 7)));
+    assertEquals(8, set.size());
+  }
+
   @Test
   public void testIterator_customForEachRemaining() {
     CustomIterator customIterator = new CustomIterator();
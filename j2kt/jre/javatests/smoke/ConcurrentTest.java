@@ -15,15 +15,65 @@
  */
 package smoke;
 
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
 import static org.junit.Assert.assertTrue;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CountedCompleter;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.Future;
 import java.util.concurrent.FutureTask;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.LinkedTransferQueue;
+import java.util.concurrent.Phaser;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.LockSupport;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.locks.StampedLock;
+import org.jspecify.annotations.Nullable;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -60,6 +110,568 @@ public final class ConcurrentTest {
     assertTrue(true);
   }
 
+  @Test
+  public void reentrantLock_unlockWithoutOwning_throws() {
+    Lock lock = new ReentrantLock();
+    assertThrows(IllegalMonitorStateException.class, lock::unlock);
+  }
+
+  @Test
+  public void reentrantLock_contended_isMutuallyExclusive() throws Exception {
+    Lock lock = new ReentrantLock();
+    int[] counter = new int[1];
+    runConcurrently(
+        4,
+        thread -> {
+          for (int i = 0; i < 10_000; i++) {
+            lock.lock();
+            try {
+              counter[0]++;
+            } finally {
+              lock.unlock();
+            }
+          }
+        });
+    assertEquals(40_000, counter[0]);
+  }
+
+  @Test
+  public void condition_awaitNanos_restoresReentrantHold() throws Exception {
+    Lock lock = new ReentrantLock();
+    Condition condition = lock.newCondition();
+    lock.lock();
+    lock.lock();
+    assertTrue(condition.awaitNanos(1_000_000) <= 0);
+    lock.unlock();
+    lock.unlock();
+    assertThrows(IllegalMonitorStateException.class, lock::unlock);
+  }
+
+  @Test
+  public void reentrantReadWriteLock_readersShareAndWriterDowngrades() {
+    ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    lock.readLock().lock();
+    lock.readLock().lock();
+    assertEquals(2, lock.getReadLockCount());
+    assertEquals(2, lock.getReadHoldCount());
+    assertFalse(lock.writeLock().tryLock());
+    lock.readLock().unlock();
+    lock.readLock().unlock();
+
+    assertTrue(lock.writeLock().tryLock());
+    assertTrue(lock.isWriteLockedByCurrentThread());
+    // Downgrade by acquiring the read lock before releasing the write lock.
+    lock.readLock().lock();
+    lock.writeLock().unlock();
+    assertFalse(lock.isWriteLocked());
+    assertEquals(1, lock.getReadHoldCount());
+    lock.readLock().unlock();
+    assertThrows(IllegalMonitorStateException.class, () -> lock.readLock().unlock());
+    assertThrows(IllegalMonitorStateException.class, () -> lock.writeLock().unlock());
+  }
+
+  @Test
+  public void reentrantReadWriteLock_contended_readersSeeConsistentState() throws Exception {
+    for (boolean fair : new boolean[] {false, true}) {
+      ReentrantReadWriteLock lock = new ReentrantReadWriteLock(fair);
+      assertEquals(fair, lock.isFair());
+      int[] pair = new int[2];
+      runConcurrently(
+          4,
+          thread -> {
+            for (int i = 0; i < 5_000; i++) {
+              if (i % 10 == 0) {
+                lock.writeLock().lock();
+                try {
+                  pair[0]++;
+                  pair[1]++;
+                } finally {
+                  lock.writeLock().unlock();
+                }
+              } else {
+                lock.readLock().lock();
+                try {
+                  assertEquals(pair[0], pair[1]);
+                } finally {
+                  lock.readLock().unlock();
+                }
+              }
+            }
+          });
+      assertEquals(2_000, pair[0]);
+      assertFalse(lock.hasQueuedThreads());
+    }
+  }
+
+  @Test
+  public void reentrantReadWriteLock_condition_awaitNanos_restoresWriteHold() throws Exception {
+    ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    Condition condition = lock.writeLock().newCondition();
+    lock.writeLock().lock();
+    lock.writeLock().lock();
+    assertTrue(condition.awaitNanos(1_000_000) <= 0);
+    assertEquals(2, lock.getWriteHoldCount());
+    lock.writeLock().unlock();
+    lock.writeLock().unlock();
+    assertThrows(UnsupportedOperationException.class, () -> lock.readLock().newCondition());
+  }
+
+  @Test
+  public void readWriteLocks_timedTryLock_timesOutWhileWriteLocked() throws Exception {
+    ReentrantReadWriteLock readWriteLock = new ReentrantReadWriteLock();
+    StampedLock stampedLock = new StampedLock();
+    readWriteLock.writeLock().lock();
+    long stamp = stampedLock.writeLock();
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      assertFalse(
+          executor
+              .submit(() -> readWriteLock.readLock().tryLock(10, TimeUnit.MILLISECONDS))
+              .get());
+      assertFalse(
+          executor
+              .submit(() -> readWriteLock.writeLock().tryLock(10, TimeUnit.MILLISECONDS))
+              .get());
+      assertEquals(
+          0L,
+          (long) executor.submit(() -> stampedLock.tryReadLock(10, TimeUnit.MILLISECONDS)).get());
+      assertEquals(
+          0L,
+          (long) executor.submit(() -> stampedLock.tryWriteLock(10, TimeUnit.MILLISECONDS)).get());
+    } finally {
+      executor.shutdown();
+    }
+    readWriteLock.writeLock().unlock();
+    stampedLock.unlockWrite(stamp);
+    assertFalse(readWriteLock.hasQueuedThreads());
+    assertFalse(stampedLock.isWriteLocked());
+  }
+
+  @Test
+  public void stampedLock_optimisticReadAndConversions() {
+    StampedLock lock = new StampedLock();
+    long optimistic = lock.tryOptimisticRead();
+    assertTrue(optimistic != 0L);
+    assertTrue(lock.validate(optimistic));
+
+    long write = lock.writeLock();
+    assertFalse(lock.validate(optimistic));
+    assertEquals(0L, lock.tryOptimisticRead());
+    assertEquals(0L, lock.tryReadLock());
+    lock.unlockWrite(write);
+    assertFalse(lock.validate(optimistic));
+
+    long read = lock.readLock();
+    assertTrue(lock.isReadLocked());
+    assertTrue(lock.validate(read));
+    assertEquals(0L, lock.tryWriteLock());
+    long upgraded = lock.tryConvertToWriteLock(read);
+    assertTrue(upgraded != 0L);
+    assertTrue(lock.isWriteLocked());
+    long downgraded = lock.tryConvertToReadLock(upgraded);
+    assertTrue(downgraded != 0L);
+    assertEquals(1, lock.getReadLockCount());
+    lock.unlockRead(downgraded);
+    assertThrows(IllegalMonitorStateException.class, () -> lock.unlockRead(downgraded));
+  }
+
+  @Test
+  public void stampedLock_contended_optimisticReadersRetryOnWrite() throws Exception {
+    StampedLock lock = new StampedLock();
+    int[] pair = new int[2];
+    runConcurrently(
+        4,
+        thread -> {
+          for (int i = 0; i < 5_000; i++) {
+            if (i % 10 == 0) {
+              long stamp = lock.writeLock();
+              try {
+                pair[0]++;
+                pair[1]++;
+              } finally {
+                lock.unlockWrite(stamp);
+              }
+            } else if (i % 2 == 0) {
+              long stamp = lock.readLock();
+              try {
+                assertEquals(pair[0], pair[1]);
+              } finally {
+                lock.unlockRead(stamp);
+              }
+            } else {
+              long stamp = lock.tryOptimisticRead();
+              int first = pair[0];
+              int second = pair[1];
+              if (!lock.validate(stamp)) {
+                // A writer intervened, fall back to a read lock.
+                stamp = lock.readLock();
+                try {
+                  first = pair[0];
+                  second = pair[1];
+                } finally {
+                  lock.unlockRead(stamp);
+                }
+                assertEquals(first, second);
+              }
+            }
+          }
+        });
+    assertEquals(2_000, pair[0]);
+    assertFalse(lock.isWriteLocked());
+    assertFalse(lock.isReadLocked());
+  }
+
+  @Test
+  public void countDownLatch_countDown_stopsAtZero() throws Exception {
+    CountDownLatch latch = new CountDownLatch(2);
+    assertFalse(latch.await(0, TimeUnit.NANOSECONDS));
+    latch.countDown();
+    assertEquals(1, latch.getCount());
+    latch.countDown();
+    latch.countDown();
+    assertEquals(0, latch.getCount());
+    assertTrue(latch.await(0, TimeUnit.NANOSECONDS));
+    latch.await();
+  }
+
+  @Test
+  public void countDownLatch_contended_releasesWaitersAtZero() throws Exception {
+    CountDownLatch latch = new CountDownLatch(4 * 1_000);
+    runConcurrently(
+        5,
+        thread -> {
+          if (thread == 0) {
+            assertTrue(latch.await(10, TimeUnit.SECONDS));
+          } else {
+            for (int i = 0; i < 1_000; i++) {
+              latch.countDown();
+            }
+          }
+        });
+    assertEquals(0, latch.getCount());
+  }
+
+  @Test
+  public void semaphore_contended_limitsConcurrentHolders() throws Exception {
+    for (boolean fair : new boolean[] {false, true}) {
+      Semaphore semaphore = new Semaphore(2, fair);
+      assertEquals(fair, semaphore.isFair());
+      AtomicInteger holders = new AtomicInteger();
+      runConcurrently(
+          4,
+          thread -> {
+            for (int i = 0; i < 2_000; i++) {
+              semaphore.acquireUninterruptibly();
+              try {
+                assertTrue(holders.incrementAndGet() <= 2);
+                holders.decrementAndGet();
+              } finally {
+                semaphore.release();
+              }
+            }
+          });
+      assertEquals(2, semaphore.availablePermits());
+      assertFalse(semaphore.hasQueuedThreads());
+    }
+  }
+
+  @Test
+  public void semaphore_timedTryAcquire_timesOutWithoutPermits() throws Exception {
+    Semaphore semaphore = new Semaphore(1, true);
+    assertTrue(semaphore.tryAcquire());
+    assertFalse(semaphore.tryAcquire());
+    assertFalse(semaphore.tryAcquire(10, TimeUnit.MILLISECONDS));
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      Future<Boolean> acquired = executor.submit(() -> semaphore.tryAcquire(10, TimeUnit.SECONDS));
+      semaphore.release();
+      assertTrue(acquired.get());
+    } finally {
+      executor.shutdown();
+    }
+    assertEquals(0, semaphore.availablePermits());
+    semaphore.release(3);
+    assertEquals(3, semaphore.drainPermits());
+    assertEquals(0, semaphore.availablePermits());
+  }
+
+  @Test
+  public void cyclicBarrier_runsActionOncePerGeneration() throws Exception {
+    AtomicInteger trips = new AtomicInteger();
+    CyclicBarrier barrier = new CyclicBarrier(4, trips::incrementAndGet);
+    runConcurrently(
+        4,
+        thread -> {
+          for (int i = 0; i < 100; i++) {
+            barrier.await();
+          }
+        });
+    assertEquals(100, trips.get());
+    assertEquals(0, barrier.getNumberWaiting());
+    assertFalse(barrier.isBroken());
+  }
+
+  @Test
+  public void cyclicBarrier_timeout_breaksBarrier() throws Exception {
+    CyclicBarrier barrier = new CyclicBarrier(2);
+    assertThrows(TimeoutException.class, () -> barrier.await(10, TimeUnit.MILLISECONDS));
+    assertTrue(barrier.isBroken());
+    assertThrows(BrokenBarrierException.class, barrier::await);
+    barrier.reset();
+    assertFalse(barrier.isBroken());
+    assertEquals(2, barrier.getParties());
+  }
+
+  @Test
+  public void phaser_arriveAndAwaitAdvance_advancesOncePerPhase() throws Exception {
+    Phaser phaser = new Phaser(1);
+    Phaser child = new Phaser(phaser, 0);
+    for (int t = 0; t < 4; t++) {
+      ((t % 2 == 0) ? phaser : child).register();
+    }
+    runConcurrently(
+        5,
+        thread -> {
+          if (thread == 4) {
+            for (int i = 0; i < 50; i++) {
+              assertEquals(i, phaser.arrive());
+              assertEquals(i + 1, phaser.awaitAdvance(i));
+            }
+            return;
+          }
+          Phaser target = (thread % 2 == 0) ? phaser : child;
+          for (int i = 0; i < 50; i++) {
+            assertEquals(i + 1, target.arriveAndAwaitAdvance());
+          }
+          target.arriveAndDeregister();
+        });
+    assertEquals(0, child.getRegisteredParties());
+    assertEquals(1, phaser.getRegisteredParties());
+    assertThrows(
+        TimeoutException.class,
+        () -> phaser.awaitAdvanceInterruptibly(phaser.getPhase(), 10, TimeUnit.MILLISECONDS));
+    assertEquals(50, phaser.arriveAndDeregister());
+    assertTrue(phaser.isTerminated());
+    assertTrue(phaser.register() < 0);
+  }
+
+  @Test
+  public void arrayBlockingQueue_ringBuffer_wrapsAround() {
+    ArrayBlockingQueue<String> queue = new ArrayBlockingQueue<>(3);
+    assertTrue(queue.offer("a"));
+    assertTrue(queue.offer("b"));
+    assertTrue(queue.offer("c"));
+    assertFalse(queue.offer("d"));
+    assertThrows(IllegalStateException.class, () -> queue.add("d"));
+    assertEquals("a", queue.poll());
+    assertTrue(queue.offer("d"));
+    assertEquals(Arrays.asList("b", "c", "d"), new ArrayList<>(queue));
+    assertTrue(queue.remove("c"));
+    assertEquals("[b, d]", queue.toString());
+    assertEquals(1, queue.remainingCapacity());
+    Iterator<String> iterator = queue.iterator();
+    assertEquals("b", iterator.next());
+    iterator.remove();
+    assertEquals("d", iterator.next());
+    assertFalse(iterator.hasNext());
+    assertEquals(Arrays.asList("d"), Arrays.asList(queue.toArray(new String[0])));
+    queue.clear();
+    assertTrue(queue.isEmpty());
+    assertEquals(null, queue.peek());
+  }
+
+  @Test
+  public void blockingQueues_addAllAndDrainTo_transferWholeBatches() {
+    List<BlockingQueue<Integer>> queues = new ArrayList<>();
+    queues.add(new ArrayBlockingQueue<>(4));
+    queues.add(new LinkedBlockingQueue<>(4));
+    for (BlockingQueue<Integer> queue : queues) {
+      assertTrue(queue.addAll(Arrays.asList(1, 2, 3)));
+      List<Integer> drained = new ArrayList<>();
+      assertEquals(2, queue.drainTo(drained, 2));
+      assertEquals(Arrays.asList(1, 2), drained);
+      assertThrows(IllegalStateException.class, () -> queue.addAll(Arrays.asList(4, 5, 6, 7)));
+      assertEquals(4, queue.size());
+      assertThrows(NullPointerException.class, () -> queue.addAll(Arrays.asList((Integer) null)));
+      drained.clear();
+      assertEquals(4, queue.drainTo(drained));
+      assertEquals(Arrays.asList(3, 4, 5, 6), drained);
+      assertEquals(0, queue.drainTo(drained, 2));
+      assertEquals(4, queue.remainingCapacity());
+    }
+  }
+
+  @Test
+  public void blockingQueues_contended_batchedProducersAndConsumers() throws Exception {
+    List<BlockingQueue<Integer>> queues = new ArrayList<>();
+    queues.add(new ArrayBlockingQueue<>(16));
+    queues.add(new LinkedBlockingQueue<>(16));
+    queues.add(new LinkedTransferQueue<>());
+    for (BlockingQueue<Integer> queue : queues) {
+      AtomicLong sum = new AtomicLong();
+      // Threads 0 and 1 consume, threads 2 and 3 produce.
+      runConcurrently(
+          4,
+          thread -> {
+            if (thread >= 2) {
+              for (int i = 1; i <= 5_000; i++) {
+                queue.put(i);
+              }
+              return;
+            }
+            List<Integer> batch = new ArrayList<>();
+            for (int received = 0; received < 5_000; ) {
+              if (queue.drainTo(batch, Math.min(8, 5_000 - received)) == 0) {
+                batch.add(queue.take());
+              }
+              for (int e : batch) {
+                sum.addAndGet(e);
+              }
+              received += batch.size();
+              batch.clear();
+            }
+          });
+      assertEquals(2 * (5_000L * 5_001 / 2), sum.get());
+      assertTrue(queue.isEmpty());
+    }
+  }
+
+  @Test
+  public void linkedTransferQueue_transfer_waitsForConsumer() throws Exception {
+    LinkedTransferQueue<String> queue = new LinkedTransferQueue<>();
+    assertFalse(queue.tryTransfer("a"));
+    assertTrue(queue.isEmpty());
+    assertFalse(queue.tryTransfer("a", 10, TimeUnit.MILLISECONDS));
+    assertTrue(queue.isEmpty());
+    queue.put("b");
+    assertEquals(1, queue.size());
+    assertEquals("b", queue.peek());
+    assertTrue(queue.remove("b"));
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      Future<String> consumer = executor.submit(queue::take);
+      queue.transfer("c");
+      assertEquals("c", consumer.get());
+      assertFalse(queue.hasWaitingConsumer());
+      assertEquals(null, queue.poll(10, TimeUnit.MILLISECONDS));
+    } finally {
+      executor.shutdown();
+    }
+    assertEquals(0, queue.getWaitingConsumerCount());
+  }
+
+  @Test
+  public void synchronousQueue_handsOffOnlyToWaitingThreads() throws Exception {
+    SynchronousQueue<String> queue = new SynchronousQueue<>();
+    assertFalse(queue.offer("a"));
+    assertEquals(null, queue.poll());
+    assertFalse(queue.offer("a", 10, TimeUnit.MILLISECONDS));
+    assertEquals(null, queue.poll(10, TimeUnit.MILLISECONDS));
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      Future<String> consumer = executor.submit(queue::take);
+      queue.put("b");
+      assertEquals("b", consumer.get());
+      Future<?> producer =
+          executor.submit(
+              () -> {
+                queue.put("c");
+                return null;
+              });
+      assertEquals("c", queue.poll(10, TimeUnit.SECONDS));
+      producer.get();
+    } finally {
+      executor.shutdown();
+    }
+    assertTrue(queue.isEmpty());
+  }
+
+  @Test
+  public void copyOnWriteArrayList_iterator_isSnapshot() {
+    CopyOnWriteArrayList<String> list = new CopyOnWriteArrayList<>(Arrays.asList("a", "b"));
+    Iterator<String> iterator = list.iterator();
+    list.add("c");
+    list.set(0, "z");
+    assertEquals("a", iterator.next());
+    assertEquals("b", iterator.next());
+    assertFalse(iterator.hasNext());
+    assertThrows(UnsupportedOperationException.class, iterator::remove);
+    assertEquals(Arrays.asList("z", "b", "c"), list);
+    assertEquals(Arrays.asList("z", "b", "c").hashCode(), list.hashCode());
+    assertEquals("[z, b, c]", list.toString());
+  }
+
+  @Test
+  public void copyOnWriteArrayList_mutators() {
+    CopyOnWriteArrayList<@Nullable String> list = new CopyOnWriteArrayList<>();
+    assertTrue(list.addIfAbsent("a"));
+    assertFalse(list.addIfAbsent("a"));
+    assertEquals(2, list.addAllAbsent(Arrays.asList("a", "b", null, "b")));
+    assertEquals(Arrays.asList("a", "b", null), list);
+    list.add(1, "c");
+    assertEquals(3, list.indexOf(null));
+    assertTrue(list.remove(null));
+    assertEquals("c", list.remove(1));
+    assertTrue(list.addAll(1, Arrays.asList("d", "e")));
+    assertEquals(Arrays.asList("a", "d", "e", "b"), list);
+    assertTrue(list.removeIf("d"::equals));
+    assertFalse(list.removeAll(Arrays.asList("x")));
+    assertTrue(list.retainAll(Arrays.asList("b", "e")));
+    assertEquals(Arrays.asList("e", "b"), list);
+    list.sort(null);
+    assertEquals(Arrays.asList("b", "e"), list);
+    list.replaceAll(e -> e + e);
+    assertEquals(Arrays.asList("bb", "ee"), list);
+
+    List<@Nullable String> subList = list.subList(1, 2);
+    subList.add("ff");
+    assertEquals(Arrays.asList("bb", "ee", "ff"), list);
+    subList.clear();
+    assertEquals(Arrays.asList("bb"), list);
+    list.add("gg");
+    assertThrows(ConcurrentModificationException.class, subList::size);
+  }
+
+  @Test
+  public void copyOnWriteArraySet_rejectsDuplicates() {
+    CopyOnWriteArraySet<Integer> set = new CopyOnWriteArraySet<>(Arrays.asList(3, 1, 3, 2));
+    assertEquals(Arrays.asList(3, 1, 2), new ArrayList<>(set));
+    assertFalse(set.add(1));
+    assertTrue(set.add(4));
+    assertFalse(set.addAll(Arrays.asList(1, 2)));
+    assertTrue(set.remove(3));
+    assertEquals(new HashSet<>(Arrays.asList(1, 2, 4)), set);
+    assertEquals(set, new HashSet<>(Arrays.asList(4, 2, 1)));
+    assertTrue(set.containsAll(new HashSet<>(Arrays.asList(1, 4))));
+    assertFalse(set.containsAll(Arrays.asList(1, 5)));
+  }
+
+  @Test
+  public void copyOnWriteArrayList_contended_keepsEveryAdd() throws Exception {
+    CopyOnWriteArrayList<Integer> list = new CopyOnWriteArrayList<>();
+    CopyOnWriteArraySet<Integer> set = new CopyOnWriteArraySet<>();
+    runConcurrently(
+        4,
+        thread -> {
+          for (int i = 0; i < 250; i++) {
+            list.add(thread);
+            set.add(i);
+            int sum = 0;
+            for (int e : list) {
+              sum += e;
+            }
+            assertTrue(sum >= 0);
+          }
+        });
+    assertEquals(1_000, list.size());
+    assertEquals(250, set.size());
+    int[] counts = new int[4];
+    for (int e : list) {
+      counts[e]++;
+    }
+    assertArrayEquals(new int[] {250, 250, 250, 250}, counts);
+  }
+
   @Test
   public void linkedBlockingQueue_smoke() {
     LinkedBlockingQueue<String> queue = new LinkedBlockingQueue<>();
@@ -76,6 +688,300 @@ public final class ConcurrentTest {
     Assert.assertTrue(queue.isEmpty());
   }
 
+  @Test
+  public void concurrentLinkedQueue_smoke() {
+    ConcurrentLinkedQueue<String> queue = new ConcurrentLinkedQueue<>();
+    assertTrue(queue.isEmpty());
+    assertTrue(queue.offer("a"));
+    queue.addAll(Arrays.asList("b", "c", "d"));
+    assertEquals(4, queue.size());
+    assertEquals("a", queue.peek());
+    assertTrue(queue.remove("c"));
+    assertFalse(queue.contains("c"));
+    assertEquals(Arrays.asList("a", "b", "d"), new ArrayList<>(queue));
+
+    Iterator<String> it = queue.iterator();
+    assertEquals("a", it.next());
+    // Weakly consistent: elements added during iteration may be seen, removals do not throw.
+    queue.poll();
+    queue.offer("e");
+    it.remove();
+    List<String> rest = new ArrayList<>();
+    it.forEachRemaining(rest::add);
+    assertEquals(Arrays.asList("b", "d", "e"), rest);
+
+    assertEquals("b", queue.poll());
+    assertEquals("d", queue.poll());
+    assertEquals("e", queue.poll());
+    assertEquals(null, queue.poll());
+  }
+
+  @Test
+  public void concurrentLinkedDeque_smoke() {
+    ConcurrentLinkedDeque<Integer> deque = new ConcurrentLinkedDeque<>();
+    assertTrue(deque.isEmpty());
+    deque.offerLast(2);
+    deque.offerFirst(1);
+    deque.addLast(3);
+    deque.push(0);
+    assertEquals(Arrays.asList(0, 1, 2, 3), new ArrayList<>(deque));
+    assertEquals(4, deque.size());
+    assertEquals(Integer.valueOf(0), deque.peekFirst());
+    assertEquals(Integer.valueOf(3), deque.peekLast());
+
+    List<Integer> descending = new ArrayList<>();
+    deque.descendingIterator().forEachRemaining(descending::add);
+    assertEquals(Arrays.asList(3, 2, 1, 0), descending);
+
+    assertTrue(deque.removeLastOccurrence(2));
+    assertEquals(Integer.valueOf(3), deque.pollLast());
+    assertEquals(Integer.valueOf(0), deque.pop());
+    assertEquals(Integer.valueOf(1), deque.removeFirst());
+    assertTrue(deque.isEmpty());
+    assertEquals(null, deque.pollFirst());
+    assertThrows(NoSuchElementException.class, deque::getLast);
+  }
+
+  @Test
+  public void concurrentLinkedQueueAndDeque_concurrentOfferPoll_transfersAllElements()
+      throws Exception {
+    ConcurrentLinkedQueue<Integer> queue = new ConcurrentLinkedQueue<>();
+    ConcurrentLinkedDeque<Integer> deque = new ConcurrentLinkedDeque<>();
+    AtomicInteger queueSum = new AtomicInteger();
+    AtomicInteger dequeSum = new AtomicInteger();
+    runConcurrently(
+        4,
+        thread -> {
+          boolean fromFront = thread % 2 == 0;
+          for (int i = 1; i <= 10_000; i++) {
+            queue.offer(i);
+            queueSum.addAndGet(Objects.requireNonNull(queue.poll()));
+            if (fromFront) {
+              deque.offerFirst(i);
+              dequeSum.addAndGet(Objects.requireNonNull(deque.pollFirst()));
+            } else {
+              deque.offerLast(i);
+              dequeSum.addAndGet(Objects.requireNonNull(deque.pollLast()));
+            }
+          }
+        });
+    assertEquals(4 * 50_005_000, queueSum.get());
+    assertEquals(4 * 50_005_000, dequeSum.get());
+    assertTrue(queue.isEmpty());
+    assertTrue(deque.isEmpty());
+  }
+
+  @Test
+  public void concurrentSkipListMap_navigation() {
+    ConcurrentSkipListMap<Integer, String> map = new ConcurrentSkipListMap<>();
+    for (int i = 0; i < 100; i += 10) {
+      map.put(i, "v" + i);
+    }
+    assertEquals(10, map.size());
+    assertEquals(0, (int) map.firstKey());
+    assertEquals(90, (int) map.lastKey());
+    assertEquals(20, (int) Objects.requireNonNull(map.ceilingEntry(15)).getKey());
+    assertEquals(20, (int) Objects.requireNonNull(map.ceilingKey(20)));
+    assertEquals(10, (int) Objects.requireNonNull(map.floorKey(15)));
+    assertEquals(30, (int) Objects.requireNonNull(map.higherKey(20)));
+    assertEquals(10, (int) Objects.requireNonNull(map.lowerKey(20)));
+    assertEquals(null, map.lowerKey(0));
+    assertEquals(null, map.higherKey(90));
+
+    ConcurrentNavigableMap<Integer, String> sub = map.subMap(20, true, 50, false);
+    assertEquals(Arrays.asList(20, 30, 40), new ArrayList<>(sub.navigableKeySet()));
+    assertEquals(Arrays.asList(40, 30, 20), new ArrayList<>(sub.descendingKeySet()));
+    assertEquals(Arrays.asList(0, 10), new ArrayList<>(map.headMap(20).keySet()));
+    assertEquals(Arrays.asList(80, 90), new ArrayList<>(map.tailMap(80).keySet()));
+    assertEquals(30, (int) Objects.requireNonNull(map.descendingMap().higherKey(40)));
+    assertThrows(IllegalArgumentException.class, () -> sub.put(60, "v60"));
+    sub.put(25, "v25");
+    assertEquals("v25", map.get(25));
+    sub.clear();
+    assertEquals(Arrays.asList(0, 10, 50, 60, 70, 80, 90), new ArrayList<>(map.keySet()));
+
+    assertEquals(0, (int) Objects.requireNonNull(map.pollFirstEntry()).getKey());
+    assertEquals(90, (int) Objects.requireNonNull(map.pollLastEntry()).getKey());
+    assertEquals(5, map.size());
+    assertEquals("v10", map.putIfAbsent(10, "other"));
+    assertTrue(map.replace(10, "v10", "new"));
+    assertEquals("new", map.get(10));
+    assertTrue(map.remove(10, "new"));
+    assertFalse(map.containsKey(10));
+    map.clear();
+    assertTrue(map.isEmpty());
+    assertEquals(null, map.pollFirstEntry());
+    assertThrows(NoSuchElementException.class, map::firstKey);
+  }
+
+  @Test
+  public void concurrentSkipListSet_smoke() {
+    ConcurrentSkipListSet<String> set = new ConcurrentSkipListSet<>(Arrays.asList("c", "a", "b"));
+    assertEquals(Arrays.asList("a", "b", "c"), new ArrayList<>(set));
+    assertFalse(set.add("a"));
+    assertTrue(set.add("d"));
+    assertEquals("b", set.ceiling("aa"));
+    assertEquals(Arrays.asList("d", "c", "b", "a"), new ArrayList<>(set.descendingSet()));
+    assertEquals(Arrays.asList("b", "c"), new ArrayList<>(set.subSet("b", "d")));
+    assertTrue(set.remove("b"));
+    assertEquals("a", set.pollFirst());
+    assertEquals("d", set.pollLast());
+    assertEquals(Arrays.asList("c"), new ArrayList<>(set));
+  }
+
+  @Test
+  public void concurrentSkipListMap_concurrentPutAndRemove_keepsOrder() throws Exception {
+    ConcurrentSkipListMap<Integer, Integer> map = new ConcurrentSkipListMap<>();
+    runConcurrently(
+        4,
+        thread -> {
+          // Each thread inserts the keys congruent to its index, then removes the odd ones.
+          for (int i = thread; i < 4_000; i += 4) {
+            map.put(i, i);
+          }
+          for (int i = thread; i < 4_000; i += 4) {
+            if (i % 2 == 1) {
+              assertEquals(i, (int) Objects.requireNonNull(map.remove(i)));
+            }
+          }
+        });
+    assertEquals(2_000, map.size());
+    int expected = 0;
+    for (int key : map.keySet()) {
+      assertEquals(expected, key);
+      expected += 2;
+    }
+    assertEquals(4_000, expected);
+  }
+
+  @Test
+  public void concurrentHashMap_concurrentUpdates_keepsAllEntries() throws Exception {
+    ConcurrentHashMap<Integer, Integer> map = new ConcurrentHashMap<>();
+    runConcurrently(
+        4,
+        offset -> {
+          // Interleaved keys make all threads update the same bins and resize together.
+          for (int i = offset; i < 20_000; i += 4) {
+            map.put(i, i);
+            map.put(i, -i);
+          }
+          for (int i = offset; i < 20_000; i += 8) {
+            map.remove(i);
+          }
+        });
+    assertEquals(10_000, map.size());
+    for (int i = 0; i < 20_000; i++) {
+      assertEquals(i % 8 < 4 ? null : Integer.valueOf(-i), map.get(i));
+    }
+  }
+
+  @Test
+  public void concurrentHashMap_concurrentComputeIfAbsent_appliesFunctionOncePerKey()
+      throws Exception {
+    ConcurrentHashMap<Integer, AtomicInteger> map = new ConcurrentHashMap<>();
+    AtomicInteger calls = new AtomicInteger();
+    runConcurrently(
+        4,
+        thread -> {
+          for (int i = 0; i < 5_000; i++) {
+            map.computeIfAbsent(
+                    i,
+                    k -> {
+                      calls.incrementAndGet();
+                      return new AtomicInteger();
+                    })
+                .incrementAndGet();
+          }
+        });
+    assertEquals(5_000, calls.get());
+    for (int i = 0; i < 5_000; i++) {
+      assertEquals(4, map.get(i).get());
+    }
+  }
+
+  @Test
+  public void concurrentHashMap_concurrentMergeAndCompute_countsAllUpdates() throws Exception {
+    ConcurrentHashMap<Integer, Integer> map = new ConcurrentHashMap<>();
+    runConcurrently(
+        4,
+        thread -> {
+          for (int i = 0; i < 10_000; i++) {
+            map.merge(i % 64, 1, Integer::sum);
+            map.compute(64 + i % 64, (k, v) -> v == null ? 1 : v + 1);
+            map.computeIfPresent(i % 64, (k, v) -> v);
+          }
+        });
+    assertEquals(128, map.size());
+    for (int i = 0; i < 128; i++) {
+      // Of the 10_000 updates per thread, keys below 16 modulo 64 get one more than the others.
+      assertEquals(Integer.valueOf(i % 64 < 16 ? 628 : 624), map.get(i));
+    }
+  }
+
+  @Test
+  public void concurrentHashMap_computeAndMerge_removeOnNull() {
+    ConcurrentHashMap<String, Integer> map = new ConcurrentHashMap<>();
+    assertEquals(Integer.valueOf(1), map.merge("a", 1, Integer::sum));
+    assertEquals(Integer.valueOf(3), map.merge("a", 2, Integer::sum));
+    assertEquals(null, map.computeIfAbsent("b", k -> null));
+    assertEquals(null, map.computeIfPresent("b", (k, v) -> v + 1));
+    assertEquals(Integer.valueOf(4), map.computeIfPresent("a", (k, v) -> v + 1));
+    assertEquals(null, map.compute("a", (k, v) -> null));
+    assertEquals(Integer.valueOf(1), map.merge("c", 1, (a, b) -> null));
+    assertEquals(null, map.merge("c", 1, (a, b) -> null));
+    assertTrue(map.isEmpty());
+    assertEquals(Integer.valueOf(7), map.getOrDefault("a", 7));
+  }
+
+  @Test
+  public void concurrentHashMap_recursiveComputeIfAbsent_throws() {
+    ConcurrentHashMap<Integer, Integer> map = new ConcurrentHashMap<>();
+    assertThrows(
+        IllegalStateException.class,
+        () -> map.computeIfAbsent(1, k -> map.computeIfAbsent(1, k2 -> 2)));
+    assertTrue(map.isEmpty());
+  }
+
+  @Test
+  public void concurrentHashMap_bulkOperations_visitEveryMappingOnce() {
+    ConcurrentHashMap<Integer, Long> map = new ConcurrentHashMap<>();
+    for (int i = 0; i < 100_000; i++) {
+      map.put(i, (long) i);
+    }
+    long expectedSum = 99_999L * 100_000L / 2;
+    // A threshold of 1 splits the table as much as possible, Long.MAX_VALUE runs sequentially.
+    for (long threshold : new long[] {1, 10_000, Long.MAX_VALUE}) {
+      assertEquals(expectedSum, map.reduceValuesToLong(threshold, v -> v, 0L, Long::sum));
+      assertEquals(expectedSum, map.reduceKeysToLong(threshold, k -> k, 0L, Long::sum));
+      assertEquals(Long.valueOf(expectedSum), map.reduceValues(threshold, Long::sum));
+      assertEquals(Integer.valueOf(99_999), map.reduceKeys(threshold, (a, b) -> a > b ? a : b));
+      assertEquals(Integer.valueOf(4_242), map.search(threshold, (k, v) -> v == 4_242L ? k : null));
+      assertNull(map.searchValues(threshold, v -> v < 0 ? v : null));
+
+      AtomicInteger visited = new AtomicInteger();
+      map.forEach(threshold, (k, v) -> visited.incrementAndGet());
+      assertEquals(100_000, visited.get());
+    }
+  }
+
+  @Test
+  public void concurrentHashMap_bulkOperations_rethrowFailure() {
+    ConcurrentHashMap<Integer, Integer> map = new ConcurrentHashMap<>();
+    for (int i = 0; i < 10_000; i++) {
+      map.put(i, i);
+    }
+    assertThrows(
+        IllegalArgumentException.class,
+        () ->
+            map.forEachValue(
+                1,
+                v -> {
+                  if (v == 5_000) {
+                    throw new IllegalArgumentException();
+                  }
+                }));
+  }
+
   @Test
   public void concurrentHashMap_concurrentIteration() {
     ConcurrentHashMap<String, Integer> map = new ConcurrentHashMap<>();
@@ -93,4 +999,411 @@ public final class ConcurrentTest {
     assertTrue(keyIterator.hasNext());
     keyIterator.next();
   }
+
+  @Test
+  public void forkJoinPool_recursiveTask_computesFibonacci() {
+    ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      assertEquals(Integer.valueOf(6_765), pool.invoke(new FibonacciTask(20)));
+    } finally {
+      pool.shutdown();
+    }
+    assertEquals(Integer.valueOf(832_040), new FibonacciTask(30).invoke());
+    assertTrue(ForkJoinPool.commonPool().getParallelism() >= 1);
+  }
+
+  @Test
+  public void forkJoinPool_invokeAll_runsEveryAction() throws Exception {
+    int[] counts = new int[1_000];
+    ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      pool.invoke(new IncrementAction(counts, 0, counts.length));
+      pool.shutdown();
+      assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+    } finally {
+      pool.shutdownNow();
+    }
+    for (int count : counts) {
+      assertEquals(1, count);
+    }
+    assertTrue(pool.isTerminated());
+  }
+
+  @Test
+  public void forkJoinPool_submit_completesFuture() throws Exception {
+    ForkJoinTask<String> task = ForkJoinPool.commonPool().submit(() -> "Hello World");
+    assertEquals("Hello World", task.get());
+    assertTrue(task.isCompletedNormally());
+  }
+
+  @Test
+  public void forkJoinTask_exception_propagatesToJoin() {
+    ForkJoinTask<Integer> failing =
+        ForkJoinTask.adapt(
+            () -> {
+              throw new IllegalStateException();
+            });
+    assertThrows(
+        IllegalStateException.class,
+        () -> ForkJoinTask.invokeAll(new FibonacciTask(10), failing));
+    assertTrue(failing.isCompletedAbnormally());
+    assertTrue(failing.getException() instanceof IllegalStateException);
+    assertThrows(ExecutionException.class, failing::get);
+  }
+
+  @Test
+  public void countedCompleter_completesRootWhenAllChildrenComplete() {
+    AtomicInteger sum = new AtomicInteger();
+    new SumCompleter(null, sum, 0, 10_000).invoke();
+    assertEquals(10_000 * 9_999 / 2, sum.get());
+  }
+
+  @Test
+  public void completableFuture_composesWithoutBlocking() throws Exception {
+    CompletableFuture<Integer> source = new CompletableFuture<>();
+    CompletableFuture<String> result =
+        source
+            .thenApply(v -> v * 2)
+            .thenCompose(v -> CompletableFuture.supplyAsync(() -> v + 1))
+            .thenCombine(CompletableFuture.completedFuture("!"), (v, s) -> v + s);
+    assertFalse(result.isDone());
+    assertEquals(1, source.getNumberOfDependents());
+    source.complete(20);
+    assertEquals("41!", result.get(10, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void completableFuture_allOfAndAnyOf() {
+    ExecutorService executor = Executors.newScheduledThreadPool(4);
+    try {
+      List<CompletableFuture<Integer>> futures = new ArrayList<>();
+      for (int i = 0; i < 100; i++) {
+        int value = i;
+        futures.add(CompletableFuture.supplyAsync(() -> value, executor));
+      }
+      CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+      int sum = 0;
+      for (CompletableFuture<Integer> future : futures) {
+        sum += future.join();
+      }
+      assertEquals(4_950, sum);
+
+      CompletableFuture<Integer> never = new CompletableFuture<>();
+      assertEquals(
+          Integer.valueOf(7),
+          CompletableFuture.anyOf(never, CompletableFuture.completedFuture(7)).join());
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void completableFuture_exceptionPropagation() {
+    CompletableFuture<Integer> failed =
+        CompletableFuture.<Integer>supplyAsync(
+                () -> {
+                  throw new IllegalStateException();
+                })
+            .thenApply(v -> v + 1);
+    CompletionException e = assertThrows(CompletionException.class, failed::join);
+    assertTrue(e.getCause() instanceof IllegalStateException);
+    ExecutionException ee = assertThrows(ExecutionException.class, failed::get);
+    assertTrue(ee.getCause() instanceof IllegalStateException);
+    assertTrue(failed.isCompletedExceptionally());
+
+    assertEquals(Integer.valueOf(-1), failed.exceptionally(t -> -1).join());
+    assertEquals("failed", failed.handle((v, t) -> t != null ? "failed" : "ok").join());
+
+    CompletableFuture<Integer> cancelled = new CompletableFuture<>();
+    assertTrue(cancelled.cancel(false));
+    assertThrows(CancellationException.class, cancelled::join);
+  }
+
+  @Test
+  public void completableFuture_timeouts() {
+    CompletableFuture<String> timedOut =
+        new CompletableFuture<String>().orTimeout(10, TimeUnit.MILLISECONDS);
+    CompletionException e =
+        assertThrows(CompletionException.class, () -> timedOut.thenApply(s -> s).join());
+    assertTrue(e.getCause() instanceof TimeoutException);
+
+    CompletableFuture<String> defaulted =
+        new CompletableFuture<String>().completeOnTimeout("default", 10, TimeUnit.MILLISECONDS);
+    assertEquals("default", defaulted.join());
+
+    CompletableFuture<String> completed =
+        CompletableFuture.completedFuture("value").orTimeout(10, TimeUnit.MILLISECONDS);
+    assertEquals("value", completed.join());
+  }
+
+  @Test
+  public void completableFuture_longChain_completesWithoutStackOverflow() {
+    int length = 200_000;
+    CompletableFuture<Integer> source = new CompletableFuture<>();
+    CompletableFuture<Integer> applied = source;
+    CompletableFuture<Integer> relayed = source;
+    for (int i = 0; i < length; i++) {
+      applied = applied.thenApply(v -> v + 1);
+      relayed = relayed.whenComplete((v, t) -> {});
+    }
+    source.complete(0);
+    assertEquals(Integer.valueOf(length), applied.join());
+    assertEquals(Integer.valueOf(0), relayed.join());
+
+    CompletableFuture<Integer> failing = new CompletableFuture<>();
+    CompletableFuture<Integer> failed = failing;
+    for (int i = 0; i < length; i++) {
+      failed = failed.thenApply(v -> v + 1);
+    }
+    failing.completeExceptionally(new IllegalStateException());
+    CompletionException e = assertThrows(CompletionException.class, failed::join);
+    assertTrue(e.getCause() instanceof IllegalStateException);
+  }
+
+  @Test
+  public void threadPoolExecutor_boundedQueue_rejectsWhenSaturated() throws Exception {
+    ThreadPoolExecutor executor =
+        new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(1));
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    executor.execute(
+        () -> {
+          started.countDown();
+          try {
+            release.await();
+          } catch (InterruptedException e) {
+            throw new AssertionError(e);
+          }
+        });
+    started.await();
+    executor.execute(() -> {});
+
+    assertThrows(RejectedExecutionException.class, () -> executor.execute(() -> {}));
+    assertEquals(1, executor.getPoolSize());
+    assertEquals(1, executor.getActiveCount());
+    assertEquals(1, executor.getQueue().size());
+
+    release.countDown();
+    executor.shutdown();
+    assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+    assertEquals(2, executor.getCompletedTaskCount());
+    assertEquals(1, executor.getLargestPoolSize());
+    assertThrows(RejectedExecutionException.class, () -> executor.execute(() -> {}));
+  }
+
+  @Test
+  public void threadPoolExecutor_callerRunsPolicy_runsRejectedTaskInCaller() throws Exception {
+    ThreadPoolExecutor executor =
+        new ThreadPoolExecutor(
+            1,
+            1,
+            0,
+            TimeUnit.MILLISECONDS,
+            new LinkedBlockingQueue<>(1),
+            new ThreadPoolExecutor.CallerRunsPolicy());
+    CountDownLatch release = new CountDownLatch(1);
+    executor.execute(
+        () -> {
+          try {
+            release.await();
+          } catch (InterruptedException e) {
+            throw new AssertionError(e);
+          }
+        });
+    executor.execute(() -> {});
+    AtomicInteger callerRuns = new AtomicInteger();
+    Thread caller = Thread.currentThread();
+    executor.execute(
+        () -> {
+          if (Thread.currentThread() == caller) {
+            callerRuns.incrementAndGet();
+          }
+        });
+    executor.execute(
+        () -> {
+          if (Thread.currentThread() == caller) {
+            callerRuns.incrementAndGet();
+          }
+        });
+    assertEquals(2, callerRuns.get());
+
+    release.countDown();
+    executor.shutdown();
+    assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void executors_threadPools_runAllTasks() throws Exception {
+    for (ExecutorService executor :
+        new ExecutorService[] {
+          Executors.newFixedThreadPool(4),
+          Executors.newCachedThreadPool(),
+          Executors.newWorkStealingPool()
+        }) {
+      AtomicInteger counter = new AtomicInteger();
+      List<Future<?>> futures = new ArrayList<>();
+      for (int i = 0; i < 100; i++) {
+        futures.add(executor.submit(counter::incrementAndGet));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+      assertEquals(100, counter.get());
+
+      executor.shutdown();
+      assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+      assertTrue(executor.isTerminated());
+    }
+  }
+
+  @Test
+  public void threadPoolExecutor_shutdownNow_returnsQueuedTasks() throws Exception {
+    ThreadPoolExecutor executor =
+        new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>());
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    executor.execute(
+        () -> {
+          started.countDown();
+          // Keep running when shutdownNow() interrupts, so that the executor stays terminating.
+          while (release.getCount() > 0) {
+            try {
+              release.await();
+            } catch (InterruptedException expected) {
+            }
+          }
+        });
+    started.await();
+    for (int i = 0; i < 3; i++) {
+      executor.execute(() -> {});
+    }
+
+    assertEquals(3, executor.shutdownNow().size());
+    assertTrue(executor.isTerminating());
+    release.countDown();
+    assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+    assertEquals(1, executor.getCompletedTaskCount());
+  }
+
+  @Test
+  public void threadPoolExecutor_shutdown_terminatesIdleWorkersWithoutTouchingQueue()
+      throws Exception {
+    ThreadPoolExecutor direct =
+        new ThreadPoolExecutor(2, 2, 0, TimeUnit.MILLISECONDS, new SynchronousQueue<>());
+    assertEquals(2, direct.prestartAllCoreThreads());
+    direct.shutdown();
+    assertTrue(direct.awaitTermination(5, TimeUnit.SECONDS));
+
+    BlockingQueue<Runnable> queue = new ArrayBlockingQueue<>(1);
+    ThreadPoolExecutor bounded = new ThreadPoolExecutor(2, 2, 0, TimeUnit.MILLISECONDS, queue);
+    assertEquals(2, bounded.prestartAllCoreThreads());
+    bounded.shutdown();
+    assertTrue(queue.isEmpty());
+    assertEquals(1, queue.remainingCapacity());
+    assertTrue(bounded.awaitTermination(5, TimeUnit.SECONDS));
+    assertEquals(0, bounded.getTaskCount());
+  }
+
+  /** A task run by {@link #runConcurrently}, given the index of the thread that runs it. */
+  private interface ConcurrentTask {
+    void run(int thread) throws Exception;
+  }
+
+  /**
+   * Runs {@code task} on {@code threads} threads at the same time, passing each its index, and
+   * waits for all of them. A failure of any thread fails the calling test.
+   */
+  private static void runConcurrently(int threads, ConcurrentTask task) throws Exception {
+    ExecutorService executor = Executors.newScheduledThreadPool(threads);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int t = 0; t < threads; t++) {
+        int thread = t;
+        futures.add(
+            executor.submit(
+                () -> {
+                  task.run(thread);
+                  return null;
+                }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  private static final class FibonacciTask extends RecursiveTask<Integer> {
+    private final int n;
+
+    FibonacciTask(int n) {
+      this.n = n;
+    }
+
+    @Override
+    protected Integer compute() {
+      if (n <= 1) {
+        return n;
+      }
+      FibonacciTask f1 = new FibonacciTask(n - 1);
+      f1.fork();
+      return new FibonacciTask(n - 2).compute() + f1.join();
+    }
+  }
+
+  private static final class IncrementAction extends RecursiveAction {
+    private final int[] counts;
+    private final int from;
+    private final int to;
+
+    IncrementAction(int[] counts, int from, int to) {
+      this.counts = counts;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from <= 10) {
+        for (int i = from; i < to; i++) {
+          counts[i]++;
+        }
+        return;
+      }
+      int mid = (from + to) >>> 1;
+      invokeAll(new IncrementAction(counts, from, mid), new IncrementAction(counts, mid, to));
+    }
+  }
+
+  private static final class SumCompleter extends CountedCompleter<@Nullable Void> {
+    private final AtomicInteger sum;
+    private final int from;
+    private final int to;
+
+    SumCompleter(@Nullable CountedCompleter<?> parent, AtomicInteger sum, int from, int to) {
+      super(parent);
+      this.sum = sum;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    public void compute() {
+      int lo = from;
+      int hi = to;
+      while (hi - lo > 100) {
+        int mid = (lo + hi) >>> 1;
+        addToPendingCount(1);
+        new SumCompleter(this, sum, mid, hi).fork();
+        hi = mid;
+      }
+      int localSum = 0;
+      for (int i = lo; i < hi; i++) {
+        localSum += i;
+      }
+      sum.addAndGet(localSum);
+      tryComplete();
+    }
+  }
 }
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package smoke
+
+import java.lang.Class
+import java.util.EnumMap
+import java.util.EnumSet
+import kotlin.jvm.javaObjectType
+import kotlin.test.Test
+import kotlin.test.assertContentEquals
+import kotlin.test.assertEquals
+import kotlin.test.assertFailsWith
+import kotlin.test.assertFalse
+import kotlin.test.assertNull
+import kotlin.test.assertTrue
+
+enum class Suit {
+  CLUBS,
+  DIAMONDS,
+  HEARTS,
+  SPADES,
+}
+
+enum class Unregistered {
+  ONE,
+  TWO,
+}
+
+enum class Wide {
+  B0, B1, B2, B3, B4, B5, B6, B7, B8, B9, B10, B11, B12, B13, B14, B15, B16, B17, B18, B19, B20,
+  B21, B22, B23, B24, B25, B26, B27, B28, B29, B30, B31, B32, B33, B34, B35, B36, B37, B38, B39,
+  B40, B41, B42, B43, B44, B45, B46, B47, B48, B49, B50, B51, B52, B53, B54, B55, B56, B57, B58,
+  B59, B60, B61, B62, B63, B64, B65, B66, B67, B68, B69,
+}
+
+class EnumConstantsTest {
+  init {
+    Class.registerEnumConstants<Suit>()
+    Class.registerEnumConstants<Wide>()
+  }
+
+  @Test
+  fun getEnumConstants_registered() {
+    assertContentEquals(Suit.entries.toTypedArray(), Suit::class.javaObjectType.getEnumConstants())
+  }
+
+  @Test
+  fun getEnumConstants_unregistered_returnsNull() {
+    assertNull(Unregistered::class.javaObjectType.getEnumConstants())
+    assertFailsWith<UnsupportedOperationException> {
+      EnumSet.allOf(Unregistered::class.javaObjectType)
+    }
+  }
+
+  @Test
+  fun enumSet_universeOperations() {
+    val all = EnumSet.allOf(Suit::class.javaObjectType)
+    assertEquals(Suit.entries, all.toList())
+
+    val red = EnumSet.range(Suit.DIAMONDS, Suit.HEARTS)
+    assertEquals(listOf(Suit.DIAMONDS, Suit.HEARTS), red.toList())
+
+    val black = EnumSet.complementOf(red)
+    assertEquals(listOf(Suit.CLUBS, Suit.SPADES), black.toList())
+    assertTrue(all.removeAll(black))
+    assertEquals(red, all)
+  }
+
+  @Test
+  fun enumSet_multipleWords() {
+    val all = EnumSet.allOf(Wide::class.javaObjectType)
+    assertEquals(70, all.size)
+    assertEquals(Wide.entries, all.toList())
+
+    val tail = EnumSet.range(Wide.B60, Wide.B69)
+    assertEquals(10, tail.size)
+    val head = EnumSet.complementOf(tail)
+    assertEquals(60, head.size)
+    assertFalse(head.contains(Wide.B64))
+    assertTrue(head.add(Wide.B64))
+    assertEquals(listOf(Wide.B62, Wide.B63, Wide.B64), EnumSet.range(Wide.B62, Wide.B64).toList())
+    assertEquals(Wide.B64, head.last())
+  }
+
+  @Test
+  fun enumMap_registered() {
+    val map = EnumMap<Wide, String>(Wide::class.javaObjectType)
+    map.put(Wide.B69, "last")
+    map.put(Wide.B0, "first")
+    assertEquals(listOf(Wide.B0, Wide.B69), map.keys.toList())
+    assertEquals("last", map.get(Wide.B69))
+    assertNull(map.get(Wide.B1))
+  }
+}
@@ -31,6 +31,8 @@ import kotlin.concurrent.AtomicReference
 import kotlin.test.Test
 import kotlin.test.assertFailsWith
 import kotlin.test.fail
+import kotlin.time.Duration.Companion.milliseconds
+import kotlin.time.TestTimeSource
 import kotlinx.coroutines.Dispatchers
 import kotlinx.coroutines.delay
 import kotlinx.coroutines.runBlocking
@@ -467,6 +469,129 @@ class KotlinExecutorTest {
     assertThat(future.isDone()).isFalse()
   }
 
+  @Test
+  fun schedule_runsTasksAtTheirDeadlines() = runTest {
+    val start = scheduler.timeSource.markNow()
+    val delays = listOf(300_000L, 5L, 4_100L, 70L, 64L, 1L, 4_096L, 5L)
+    val runTimes: AtomicReference<List<Long>> = AtomicReference(emptyList())
+
+    delays.forEach {
+      executor.schedule(
+        { runTimes.value = runTimes.value + start.elapsedNow().inWholeMilliseconds },
+        it,
+        TimeUnit.MILLISECONDS,
+      )
+    }
+    scheduler.advanceTimeBy(300_000L)
+    scheduler.runCurrent()
+
+    assertThat(runTimes.value).isEqualTo(delays.sorted())
+  }
+
+  @Test
+  fun schedule_cancel_removesTask() = runTest {
+    val runCount: AtomicInt = AtomicInt(0)
+
+    val futures =
+      (1..1000).map {
+        executor.schedule({ runCount.getAndIncrement() }, it.toLong(), TimeUnit.MILLISECONDS)
+      }
+    futures.filterIndexed { index, _ -> index % 2 == 0 }.forEach { it.cancel(true) }
+    scheduler.advanceTimeBy(2000L)
+
+    assertThat(runCount.value).isEqualTo(500)
+    assertThat(futures.all { it.isDone() }).isTrue()
+    executor.shutdown()
+    scheduler.advanceUntilIdle()
+    assertThat(executor.isTerminated()).isTrue()
+  }
+
+  @Test
+  fun scheduleAtFixedRate_catchesUpAfterLongExecution() = runTest {
+    val runCount: AtomicInt = AtomicInt(0)
+
+    val future: ScheduledFuture<*> =
+      executor.scheduleAtFixedRate(
+        {
+          if (runCount.incrementAndGet() == 1) {
+            // Simulate a first execution that overruns two periods.
+            scheduler.advanceTimeBy(2500L)
+          }
+        },
+        1000L,
+        1000L,
+        TimeUnit.MILLISECONDS,
+      )
+
+    scheduler.advanceTimeBy(1000L)
+    scheduler.runCurrent()
+    assertThat(runCount.value).isEqualTo(1)
+
+    // The executions due at 2000 and 3000 run back to back, then the task is back on schedule.
+    scheduler.runCurrent()
+    assertThat(runCount.value).isEqualTo(3)
+    assertThat(future.getDelay(TimeUnit.MILLISECONDS)).isEqualTo(500L)
+
+    scheduler.advanceTimeBy(500L)
+    scheduler.runCurrent()
+    assertThat(runCount.value).isEqualTo(4)
+  }
+
+  @Test
+  fun stats_notInstrumented_isNull() {
+    assertThat(executor.stats()).isNull()
+  }
+
+  @Test
+  fun stats_recordsTasks() = runTest {
+    val timeSource = TestTimeSource()
+    val executor =
+      KotlinExecutor(StandardTestDispatcher(scheduler), timeSource, instrumented = true)
+
+    executor.execute { timeSource += 2500.milliseconds }
+    executor.submit(Callable<Int> { throw IllegalStateException() })
+    val canceled = executor.submit {}
+    canceled.cancel(true)
+    // The canceled task only completes once the dispatcher gets to it.
+    assertThat(executor.stats()!!.queued).isEqualTo(3)
+    scheduler.advanceUntilIdle()
+    executor.shutdown()
+    assertFailsWith<RejectedExecutionException> { executor.execute {} }
+
+    val stats = executor.stats()!!
+    assertThat(stats.submitted).isEqualTo(3)
+    assertThat(stats.completed).isEqualTo(1)
+    assertThat(stats.failed).isEqualTo(1)
+    assertThat(stats.cancelled).isEqualTo(1)
+    assertThat(stats.rejected).isEqualTo(1)
+    assertThat(stats.queued).isEqualTo(0)
+    assertThat(stats.running).isEqualTo(0)
+    assertThat(stats.queueDepth.max).isEqualTo(3)
+    // The failing task waited for the first one, which ran for 2.5 seconds.
+    assertThat(stats.runTimeNanos.count).isEqualTo(2)
+    assertThat(stats.runTimeNanos.max).isEqualTo(2_500_000_000L)
+    assertThat(stats.queueWaitNanos.count).isEqualTo(2)
+    assertThat(stats.queueWaitNanos.valueAtQuantile(0.5)).isEqualTo(0L)
+    assertThat(stats.queueWaitNanos.valueAtQuantile(1.0)).isEqualTo(2_500_000_000L)
+  }
+
+  @Test
+  fun stats_histogramBuckets() = runTest {
+    val executor = KotlinExecutor(StandardTestDispatcher(scheduler), instrumented = true)
+
+    repeat(100) { executor.execute {} }
+
+    // The queue depth is sampled at each submission, from 1 to 100.
+    val queueDepth = executor.stats()!!.queueDepth
+    assertThat(queueDepth.count).isEqualTo(100)
+    assertThat(queueDepth.sum).isEqualTo(5050)
+    assertThat(queueDepth.bucketCount(1)).isEqualTo(1)
+    assertThat(queueDepth.bucketCount(7)).isEqualTo(100 - 63)
+    assertThat(queueDepth.valueAtQuantile(0.5)).isEqualTo(63)
+    assertThat(queueDepth.valueAtQuantile(0.9)).isEqualTo(100)
+    scheduler.advanceUntilIdle()
+  }
+
   @Test
   fun shutdown_rejectsNewTasks() = runTest {
     val runCount: AtomicInt = AtomicInt(0)
@@ -606,4 +731,33 @@ class KotlinExecutorTest {
     assertWithMessage("Future is cancelled").that(future.isCancelled()).isTrue()
     assertWithMessage("Task was executed").that(didRun.value).isFalse()
   }
+
+  @Test
+  fun get_parksUntilCompleted() {
+    val futures = (0 until 1000).map { i -> realTimeExecutor.submit(Callable { i }) }
+    var sum = 0
+    futures.forEach { sum += it.get() }
+    assertThat(sum).isEqualTo(999 * 1000 / 2)
+    assertThat(futures.last().get(1, TimeUnit.SECONDS)).isEqualTo(999)
+  }
+
+  @Test
+  fun get_withTimeout_throwsTimeoutException() {
+    val future =
+      realTimeExecutor.submit(
+        Callable {
+          runBlocking { delay(1000) }
+          true
+        }
+      )
+    assertFailsWith<TimeoutException> { future.get(10, TimeUnit.MILLISECONDS) }
+    future.cancel(true)
+  }
+
+  @Test
+  fun get_afterFailure_throws() {
+    val future = realTimeExecutor.submit(Callable<Boolean> { throw IllegalStateException() })
+    assertFailsWith<IllegalStateException> { future.get() }
+    assertFailsWith<IllegalStateException> { future.get(1, TimeUnit.SECONDS) }
+  }
 }
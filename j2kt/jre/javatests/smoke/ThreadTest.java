@@ -21,6 +21,13 @@ import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.jspecify.annotations.Nullable;
 import org.junit.Test;
 
 public final class ThreadTest {
@@ -50,6 +57,67 @@ public final class ThreadTest {
     assertEquals("Initial", withInitial.get());
   }
 
+  @Test
+  public void testThreadLocal_nullValueIsNotReinitialized() {
+    AtomicInteger initialized = new AtomicInteger();
+    ThreadLocal<@Nullable String> threadLocal =
+        ThreadLocal.withInitial(
+            () -> {
+              initialized.incrementAndGet();
+              return "Initial";
+            });
+    threadLocal.set(null);
+    assertNull(threadLocal.get());
+    assertEquals(0, initialized.get());
+    threadLocal.remove();
+    assertEquals("Initial", threadLocal.get());
+    assertEquals("Initial", threadLocal.get());
+    assertEquals(1, initialized.get());
+  }
+
+  @Test
+  public void testThreadLocal_manyInstances() {
+    List<ThreadLocal<Integer>> threadLocals = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      int value = i;
+      threadLocals.add(
+          ThreadLocal.withInitial(
+              () -> {
+                // Setting a newer ThreadLocal may grow this thread's slots during initialValue().
+                new ThreadLocal<Integer>().set(value);
+                return value;
+              }));
+    }
+    for (int i = 0; i < 100; i++) {
+      assertEquals(i, (int) threadLocals.get(i).get());
+    }
+    threadLocals.get(42).set(-1);
+    assertEquals(-1, (int) threadLocals.get(42).get());
+    assertEquals(41, (int) threadLocals.get(41).get());
+    assertEquals(43, (int) threadLocals.get(43).get());
+  }
+
+  @Test
+  public void testThreadLocal_valuesArePerThread() throws Exception {
+    ThreadLocal<String> threadLocal = ThreadLocal.withInitial(() -> "Initial");
+    threadLocal.set("Main");
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      // Tasks of the executor are not pinned to one thread, so set and get within the same task.
+      Future<String> other =
+          executor.submit(
+              () -> {
+                String initial = threadLocal.get();
+                threadLocal.set("Other");
+                return initial + "," + threadLocal.get();
+              });
+      assertEquals("Initial,Other", other.get());
+    } finally {
+      executor.shutdown();
+    }
+    assertEquals("Main", threadLocal.get());
+  }
+
   @Test
   public void testSleep() throws InterruptedException {
     long t0 = System.currentTimeMillis();
@@ -16,12 +16,72 @@
 
 package com.google.j2cl.benchmarks;
 
+import static com.google.j2cl.benchmarks.collections.BitSetBenchmark.Kind.BLOOM_FILTER;
+import static com.google.j2cl.benchmarks.collections.BitSetBenchmark.Kind.BULK_LOGIC;
+import static com.google.j2cl.benchmarks.collections.BitSetBenchmark.Kind.CARDINALITY;
+import static com.google.j2cl.benchmarks.collections.BitSetBenchmark.Kind.NEXT_SET_BIT;
+import static com.google.j2cl.benchmarks.collections.BitSetBenchmark.Kind.PREVIOUS_SET_BIT;
+import static com.google.j2cl.benchmarks.collections.BitSetBenchmark.Kind.STREAM;
+import static com.google.j2cl.benchmarks.collections.EnumCollectionsBenchmark.Kind.ENUM_MAP;
+import static com.google.j2cl.benchmarks.collections.EnumCollectionsBenchmark.Kind.ENUM_SET;
+import static com.google.j2cl.benchmarks.collections.HashMapBuildBenchmark.Kind.MULTIMAP;
+import static com.google.j2cl.benchmarks.collections.HashMapBuildBenchmark.Kind.WORD_COUNT;
+import static com.google.j2cl.benchmarks.collections.LruCacheBenchmark.Kind.HIT;
+import static com.google.j2cl.benchmarks.collections.LruCacheBenchmark.Kind.MIXED;
+import static com.google.j2cl.benchmarks.collections.TreeBuildBenchmark.Kind.MAP_COPY;
+import static com.google.j2cl.benchmarks.collections.TreeBuildBenchmark.Kind.MAP_MERGE;
+import static com.google.j2cl.benchmarks.collections.TreeBuildBenchmark.Kind.SET_FROM_LIST;
+import static com.google.j2cl.benchmarks.concurrent.CounterIncrementBenchmark.Kind.ATOMIC_LONG;
+import static com.google.j2cl.benchmarks.concurrent.CounterIncrementBenchmark.Kind.LONG_ADDER;
+import static com.google.j2cl.benchmarks.concurrent.ListenerIterationBenchmark.Kind.COPY_ON_WRITE;
+import static com.google.j2cl.benchmarks.concurrent.ListenerIterationBenchmark.Kind.LOCKED_LIST;
+import static com.google.j2cl.benchmarks.concurrent.ProducerConsumerBenchmark.Kind.ARRAY_QUEUE;
+import static com.google.j2cl.benchmarks.concurrent.ProducerConsumerBenchmark.Kind.LINKED_QUEUE;
+import static com.google.j2cl.benchmarks.concurrent.ProducerConsumerBenchmark.Kind.TRANSFER_QUEUE;
+import static com.google.j2cl.benchmarks.concurrent.QueueOfferPollBenchmark.Kind.CONCURRENT_LINKED_DEQUE;
+import static com.google.j2cl.benchmarks.concurrent.QueueOfferPollBenchmark.Kind.CONCURRENT_LINKED_QUEUE;
+import static com.google.j2cl.benchmarks.concurrent.QueueOfferPollBenchmark.Kind.LINKED_BLOCKING_QUEUE;
+import static com.google.j2cl.benchmarks.concurrent.ReadMostlyLockBenchmark.Kind.READ_WRITE_LOCK;
+import static com.google.j2cl.benchmarks.concurrent.ReadMostlyLockBenchmark.Kind.REENTRANT_LOCK;
+import static com.google.j2cl.benchmarks.concurrent.ReadMostlyLockBenchmark.Kind.STAMPED_LOCK;
+import static com.google.j2cl.benchmarks.concurrent.SortedMapBenchmark.Kind.LOCKED_TREE_MAP;
+import static com.google.j2cl.benchmarks.concurrent.SortedMapBenchmark.Kind.SKIP_LIST;
+import static com.google.j2cl.benchmarks.concurrent.SynchronizerBenchmark.Kind.COUNT_DOWN_LATCH;
+import static com.google.j2cl.benchmarks.concurrent.SynchronizerBenchmark.Kind.CYCLIC_BARRIER;
+import static com.google.j2cl.benchmarks.concurrent.SynchronizerBenchmark.Kind.PHASER;
+import static com.google.j2cl.benchmarks.concurrent.SynchronizerBenchmark.Kind.SEMAPHORE;
+
 import com.google.j2cl.benchmarking.framework.AbstractBenchmark;
+import com.google.j2cl.benchmarks.collections.BitSetBenchmark;
+import com.google.j2cl.benchmarks.collections.EnumCollectionsBenchmark;
+import com.google.j2cl.benchmarks.collections.HashMapBuildBenchmark;
+import com.google.j2cl.benchmarks.collections.LruCacheBenchmark;
+import com.google.j2cl.benchmarks.collections.TreeBuildBenchmark;
+import com.google.j2cl.benchmarks.concurrent.AtomicArrayAllocationBenchmark;
+import com.google.j2cl.benchmarks.concurrent.AtomicArrayCasBenchmark;
+import com.google.j2cl.benchmarks.concurrent.ConcurrentHashMapComputeBenchmark;
+import com.google.j2cl.benchmarks.concurrent.ConcurrentHashMapFillBenchmark;
+import com.google.j2cl.benchmarks.concurrent.ConcurrentHashMapReduceBenchmark;
+import com.google.j2cl.benchmarks.concurrent.ConcurrentHashMapSmallBenchmark;
+import com.google.j2cl.benchmarks.concurrent.ContendedLockBenchmark;
+import com.google.j2cl.benchmarks.concurrent.CounterIncrementBenchmark;
+import com.google.j2cl.benchmarks.concurrent.ListenerIterationBenchmark;
+import com.google.j2cl.benchmarks.concurrent.ProducerConsumerBenchmark;
+import com.google.j2cl.benchmarks.concurrent.QueueOfferPollBenchmark;
+import com.google.j2cl.benchmarks.concurrent.ReadMostlyLockBenchmark;
+import com.google.j2cl.benchmarks.concurrent.SortedMapBenchmark;
+import com.google.j2cl.benchmarks.concurrent.SynchronizerBenchmark;
+import com.google.j2cl.benchmarks.concurrent.ThreadLocalGetBenchmark;
+import com.google.j2cl.benchmarks.concurrent.UncontendedLockBenchmark;
 import com.google.j2cl.benchmarks.octane.DeltaBlueBenchmark;
 import com.google.j2cl.benchmarks.octane.NavierStokesBenchmark;
 import com.google.j2cl.benchmarks.octane.RayTraceBenchmark;
 import com.google.j2cl.benchmarks.octane.RichardsBenchmark;
 import com.google.j2cl.benchmarks.simple.Fibonacci;
+import com.google.j2cl.benchmarks.simple.ForkJoinFibonacci;
+import com.google.j2cl.benchmarks.simple.ParallelMergeSort;
+import com.google.j2cl.benchmarks.stream.ParallelStreamBenchmark;
+import com.google.j2cl.benchmarks.stream.SequentialStreamBenchmark;
 import java.util.LinkedHashMap;
 import java.util.Map;
 
@@ -31,11 +91,113 @@ public final class AllBenchmarks {
   public static final Map<String, AbstractBenchmark> map = new LinkedHashMap<>();
 
   static {
+    map.put("atomic_array_alloc", new AtomicArrayAllocationBenchmark());
+    map.put("atomic_array_cas", new AtomicArrayCasBenchmark());
+    map.put("bitset_bloom", new BitSetBenchmark(BLOOM_FILTER));
+    map.put("bitset_bulk", new BitSetBenchmark(BULK_LOGIC));
+    map.put("bitset_cardinality", new BitSetBenchmark(CARDINALITY));
+    map.put("bitset_next", new BitSetBenchmark(NEXT_SET_BIT));
+    map.put("bitset_previous", new BitSetBenchmark(PREVIOUS_SET_BIT));
+    map.put("bitset_stream", new BitSetBenchmark(STREAM));
+    map.put("chm_compute", new ConcurrentHashMapComputeBenchmark());
+    map.put("chm_fill", new ConcurrentHashMapFillBenchmark());
+    map.put("chm_reduce", new ConcurrentHashMapReduceBenchmark());
+    map.put("chm_small", new ConcurrentHashMapSmallBenchmark());
+    map.put("counter_atomiclong_1", new CounterIncrementBenchmark(ATOMIC_LONG, 1));
+    map.put("counter_atomiclong_2", new CounterIncrementBenchmark(ATOMIC_LONG, 2));
+    map.put("counter_atomiclong_4", new CounterIncrementBenchmark(ATOMIC_LONG, 4));
+    map.put("counter_atomiclong_8", new CounterIncrementBenchmark(ATOMIC_LONG, 8));
+    map.put("counter_longadder_1", new CounterIncrementBenchmark(LONG_ADDER, 1));
+    map.put("counter_longadder_2", new CounterIncrementBenchmark(LONG_ADDER, 2));
+    map.put("counter_longadder_4", new CounterIncrementBenchmark(LONG_ADDER, 4));
+    map.put("counter_longadder_8", new CounterIncrementBenchmark(LONG_ADDER, 8));
     map.put("deltablue", new DeltaBlueBenchmark());
+    map.put("enummap", new EnumCollectionsBenchmark(ENUM_MAP));
+    map.put("enumset", new EnumCollectionsBenchmark(ENUM_SET));
     map.put("fibonacci", new Fibonacci());
+    map.put("fibonacci_forkjoin", new ForkJoinFibonacci());
+    map.put("hashmap_multimap", new HashMapBuildBenchmark(MULTIMAP));
+    map.put("hashmap_wordcount", new HashMapBuildBenchmark(WORD_COUNT));
+    map.put("listeners_copyonwrite_1", new ListenerIterationBenchmark(COPY_ON_WRITE, 1));
+    map.put("listeners_copyonwrite_2", new ListenerIterationBenchmark(COPY_ON_WRITE, 2));
+    map.put("listeners_copyonwrite_4", new ListenerIterationBenchmark(COPY_ON_WRITE, 4));
+    map.put("listeners_copyonwrite_8", new ListenerIterationBenchmark(COPY_ON_WRITE, 8));
+    map.put("listeners_lockedlist_1", new ListenerIterationBenchmark(LOCKED_LIST, 1));
+    map.put("listeners_lockedlist_2", new ListenerIterationBenchmark(LOCKED_LIST, 2));
+    map.put("listeners_lockedlist_4", new ListenerIterationBenchmark(LOCKED_LIST, 4));
+    map.put("listeners_lockedlist_8", new ListenerIterationBenchmark(LOCKED_LIST, 8));
+    map.put("lock_contended", new ContendedLockBenchmark());
+    map.put("lock_uncontended", new UncontendedLockBenchmark());
+    map.put("lrucache_hit", new LruCacheBenchmark(HIT));
+    map.put("lrucache_mixed", new LruCacheBenchmark(MIXED));
+    map.put("mergesort_parallel", new ParallelMergeSort());
     map.put("navierstokes", new NavierStokesBenchmark());
+    map.put("producerconsumer_array_1", new ProducerConsumerBenchmark(ARRAY_QUEUE, 1));
+    map.put("producerconsumer_array_16", new ProducerConsumerBenchmark(ARRAY_QUEUE, 16));
+    map.put("producerconsumer_array_256", new ProducerConsumerBenchmark(ARRAY_QUEUE, 256));
+    map.put("producerconsumer_linked_1", new ProducerConsumerBenchmark(LINKED_QUEUE, 1));
+    map.put("producerconsumer_linked_16", new ProducerConsumerBenchmark(LINKED_QUEUE, 16));
+    map.put("producerconsumer_linked_256", new ProducerConsumerBenchmark(LINKED_QUEUE, 256));
+    map.put("producerconsumer_transfer_1", new ProducerConsumerBenchmark(TRANSFER_QUEUE, 1));
+    map.put("producerconsumer_transfer_16", new ProducerConsumerBenchmark(TRANSFER_QUEUE, 16));
+    map.put("producerconsumer_transfer_256", new ProducerConsumerBenchmark(TRANSFER_QUEUE, 256));
+    map.put("queue_cld_1", new QueueOfferPollBenchmark(CONCURRENT_LINKED_DEQUE, 1));
+    map.put("queue_cld_2", new QueueOfferPollBenchmark(CONCURRENT_LINKED_DEQUE, 2));
+    map.put("queue_cld_4", new QueueOfferPollBenchmark(CONCURRENT_LINKED_DEQUE, 4));
+    map.put("queue_cld_8", new QueueOfferPollBenchmark(CONCURRENT_LINKED_DEQUE, 8));
+    map.put("queue_clq_1", new QueueOfferPollBenchmark(CONCURRENT_LINKED_QUEUE, 1));
+    map.put("queue_clq_2", new QueueOfferPollBenchmark(CONCURRENT_LINKED_QUEUE, 2));
+    map.put("queue_clq_4", new QueueOfferPollBenchmark(CONCURRENT_LINKED_QUEUE, 4));
+    map.put("queue_clq_8", new QueueOfferPollBenchmark(CONCURRENT_LINKED_QUEUE, 8));
+    map.put("queue_lbq_1", new QueueOfferPollBenchmark(LINKED_BLOCKING_QUEUE, 1));
+    map.put("queue_lbq_2", new QueueOfferPollBenchmark(LINKED_BLOCKING_QUEUE, 2));
+    map.put("queue_lbq_4", new QueueOfferPollBenchmark(LINKED_BLOCKING_QUEUE, 4));
+    map.put("queue_lbq_8", new QueueOfferPollBenchmark(LINKED_BLOCKING_QUEUE, 8));
     map.put("raytrace", new RayTraceBenchmark());
+    map.put("readmostly_readwritelock_1", new ReadMostlyLockBenchmark(READ_WRITE_LOCK, 1));
+    map.put("readmostly_readwritelock_2", new ReadMostlyLockBenchmark(READ_WRITE_LOCK, 2));
+    map.put("readmostly_readwritelock_4", new ReadMostlyLockBenchmark(READ_WRITE_LOCK, 4));
+    map.put("readmostly_readwritelock_8", new ReadMostlyLockBenchmark(READ_WRITE_LOCK, 8));
+    map.put("readmostly_reentrantlock_1", new ReadMostlyLockBenchmark(REENTRANT_LOCK, 1));
+    map.put("readmostly_reentrantlock_2", new ReadMostlyLockBenchmark(REENTRANT_LOCK, 2));
+    map.put("readmostly_reentrantlock_4", new ReadMostlyLockBenchmark(REENTRANT_LOCK, 4));
+    map.put("readmostly_reentrantlock_8", new ReadMostlyLockBenchmark(REENTRANT_LOCK, 8));
+    map.put("readmostly_stampedlock_1", new ReadMostlyLockBenchmark(STAMPED_LOCK, 1));
+    map.put("readmostly_stampedlock_2", new ReadMostlyLockBenchmark(STAMPED_LOCK, 2));
+    map.put("readmostly_stampedlock_4", new ReadMostlyLockBenchmark(STAMPED_LOCK, 4));
+    map.put("readmostly_stampedlock_8", new ReadMostlyLockBenchmark(STAMPED_LOCK, 8));
     map.put("richards", new RichardsBenchmark());
+    map.put("sortedmap_csl_1", new SortedMapBenchmark(SKIP_LIST, 1));
+    map.put("sortedmap_csl_2", new SortedMapBenchmark(SKIP_LIST, 2));
+    map.put("sortedmap_csl_4", new SortedMapBenchmark(SKIP_LIST, 4));
+    map.put("sortedmap_csl_8", new SortedMapBenchmark(SKIP_LIST, 8));
+    map.put("sortedmap_locked_treemap_1", new SortedMapBenchmark(LOCKED_TREE_MAP, 1));
+    map.put("sortedmap_locked_treemap_2", new SortedMapBenchmark(LOCKED_TREE_MAP, 2));
+    map.put("sortedmap_locked_treemap_4", new SortedMapBenchmark(LOCKED_TREE_MAP, 4));
+    map.put("sortedmap_locked_treemap_8", new SortedMapBenchmark(LOCKED_TREE_MAP, 8));
+    map.put("stream_parallel", new ParallelStreamBenchmark());
+    map.put("stream_sequential", new SequentialStreamBenchmark());
+    map.put("synchronizer_countdownlatch_1", new SynchronizerBenchmark(COUNT_DOWN_LATCH, 1));
+    map.put("synchronizer_countdownlatch_2", new SynchronizerBenchmark(COUNT_DOWN_LATCH, 2));
+    map.put("synchronizer_countdownlatch_4", new SynchronizerBenchmark(COUNT_DOWN_LATCH, 4));
+    map.put("synchronizer_countdownlatch_8", new SynchronizerBenchmark(COUNT_DOWN_LATCH, 8));
+    map.put("synchronizer_cyclicbarrier_1", new SynchronizerBenchmark(CYCLIC_BARRIER, 1));
+    map.put("synchronizer_cyclicbarrier_2", new SynchronizerBenchmark(CYCLIC_BARRIER, 2));
+    map.put("synchronizer_cyclicbarrier_4", new SynchronizerBenchmark(CYCLIC_BARRIER, 4));
+    map.put("synchronizer_cyclicbarrier_8", new SynchronizerBenchmark(CYCLIC_BARRIER, 8));
+    map.put("synchronizer_phaser_1", new SynchronizerBenchmark(PHASER, 1));
+    map.put("synchronizer_phaser_2", new SynchronizerBenchmark(PHASER, 2));
+    map.put("synchronizer_phaser_4", new SynchronizerBenchmark(PHASER, 4));
+    map.put("synchronizer_phaser_8", new SynchronizerBenchmark(PHASER, 8));
+    map.put("synchronizer_semaphore_1", new SynchronizerBenchmark(SEMAPHORE, 1));
+    map.put("synchronizer_semaphore_2", new SynchronizerBenchmark(SEMAPHORE, 2));
+    map.put("synchronizer_semaphore_4", new SynchronizerBenchmark(SEMAPHORE, 4));
+    map.put("synchronizer_semaphore_8", new SynchronizerBenchmark(SEMAPHORE, 8));
+    map.put("threadlocal_get_1", new ThreadLocalGetBenchmark(1));
+    map.put("threadlocal_get_64", new ThreadLocalGetBenchmark(64));
+    map.put("treemap_copy", new TreeBuildBenchmark(MAP_COPY));
+    map.put("treemap_merge", new TreeBuildBenchmark(MAP_MERGE));
+    map.put("treeset_from_list", new TreeBuildBenchmark(SET_FROM_LIST));
   }
 
   private AllBenchmarks() {}
@@ -0,0 +1,181 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package com.google.j2cl.benchmarks.collections;
+
+import com.google.j2cl.benchmarking.framework.AbstractBenchmark;
+import java.util.BitSet;
+
+/** Exercises the {@link BitSet} operations used by bloom filters and feature masks. */
+public class BitSetBenchmark extends AbstractBenchmark {
+
+  /** The operation being measured. */
+  public enum Kind {
+    /** Sets and tests hashed bits, as a bloom filter does. */
+    BLOOM_FILTER,
+    /** Combines masks with and, or, xor and andNot. */
+    BULK_LOGIC,
+    /** Counts the set bits of a mask. */
+    CARDINALITY,
+    /** Visits the set bits of a sparse mask with nextSetBit. */
+    NEXT_SET_BIT,
+    /** Visits the set bits of a sparse mask with previousSetBit. */
+    PREVIOUS_SET_BIT,
+    /** Sums the set bits of a sparse mask through stream(). */
+    STREAM
+  }
+
+  private static final int BITS = 1 << 16;
+  private static final int HASHES = 4;
+
+  private final Kind kind;
+  private BitSet dense;
+  private BitSet sparse;
+  private int[] keys;
+
+  public BitSetBenchmark(Kind kind) {
+    this.kind = kind;
+  }
+
+  @Override
+  public void setupOneTime() {
+    dense = new BitSet(BITS);
+    sparse = new BitSet(BITS);
+    keys = new int[4096];
+    int seed = 1;
+    for (int i = 0; i < BITS; i++) {
+      seed = nextRandom(seed);
+      if ((seed & 1) == 0) {
+        dense.set(i);
+      }
+      if ((seed & 63) == 0) {
+        sparse.set(i);
+      }
+    }
+    for (int i = 0; i < keys.length; i++) {
+      seed = nextRandom(seed);
+      keys[i] = seed;
+    }
+  }
+
+  private static int nextRandom(int seed) {
+    seed ^= seed << 13;
+    seed ^= seed >>> 17;
+    seed ^= seed << 5;
+    return seed;
+  }
+
+  @Override
+  public Object run() {
+    switch (kind) {
+      case BLOOM_FILTER:
+        return runBloomFilter();
+      case BULK_LOGIC:
+        return runBulkLogic();
+      case CARDINALITY:
+        return runCardinality();
+      case NEXT_SET_BIT:
+        return runNextSetBit();
+      case PREVIOUS_SET_BIT:
+        return runPreviousSetBit();
+      case STREAM:
+        return runStream();
+    }
+    throw new AssertionError(kind);
+  }
+
+  private int runBloomFilter() {
+    BitSet filter = new BitSet(BITS);
+    int hits = 0;
+    for (int round = 0; round < 20; round++) {
+      filter.clear();
+      for (int key : keys) {
+        for (int i = 0; i < HASHES; i++) {
+          filter.set(((key + i * (key >>> 16)) & Integer.MAX_VALUE) % BITS);
+        }
+      }
+      for (int key : keys) {
+        boolean present = true;
+        int probe = ~key;
+        for (int i = 0; i < HASHES && present; i++) {
+          present = filter.get(((probe + i * (probe >>> 16)) & Integer.MAX_VALUE) % BITS);
+        }
+        if (present) {
+          hits++;
+        }
+      }
+    }
+    return hits;
+  }
+
+  private int runBulkLogic() {
+    BitSet result = new BitSet(BITS);
+    int sum = 0;
+    for (int round = 0; round < 500; round++) {
+      result.clear();
+      result.or(dense);
+      result.and(sparse);
+      result.xor(dense);
+      result.andNot(sparse);
+      sum += result.length();
+    }
+    return sum;
+  }
+
+  private int runCardinality() {
+    int sum = 0;
+    for (int round = 0; round < 2000; round++) {
+      sum += dense.cardinality() + sparse.cardinality();
+    }
+    return sum;
+  }
+
+  private long runNextSetBit() {
+    long sum = 0;
+    for (int round = 0; round < 500; round++) {
+      for (int i = sparse.nextSetBit(0); i >= 0; i = sparse.nextSetBit(i + 1)) {
+        sum += i;
+      }
+    }
+    return sum;
+  }
+
+  private long runPreviousSetBit() {
+    long sum = 0;
+    for (int round = 0; round < 500; round++) {
+      for (int i = sparse.previousSetBit(BITS - 1); i >= 0; i = sparse.previousSetBit(i - 1)) {
+        sum += i;
+      }
+    }
+    return sum;
+  }
+
+  private long runStream() {
+    long sum = 0;
+    for (int round = 0; round < 100; round++) {
+      sum += sparse.stream().asLongStream().sum();
+    }
+    return sum;
+  }
+
+  @Override
+  public void tearDownOneTime() {
+    dense = null;
+    sparse = null;
+    keys = null;
+  }
+}
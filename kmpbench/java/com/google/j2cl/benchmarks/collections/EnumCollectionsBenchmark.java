@@ -0,0 +1,112 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package com.google.j2cl.benchmarks.collections;
+
+import com.google.j2cl.benchmarking.framework.AbstractBenchmark;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+
+/** Builds and scans small {@link EnumSet}s and {@link EnumMap}s, as flag-heavy code does. */
+public class EnumCollectionsBenchmark extends AbstractBenchmark {
+
+  /** The collection being exercised. */
+  public enum Kind {
+    /** Adds, tests and iterates the flags of an {@link EnumSet}. */
+    ENUM_SET,
+    /** Puts, gets and iterates the entries of an {@link EnumMap}. */
+    ENUM_MAP
+  }
+
+  /** A typical set of flags. */
+  enum Flag {
+    VISIBLE,
+    ENABLED,
+    FOCUSED,
+    SELECTED,
+    PRESSED,
+    HOVERED,
+    CHECKED,
+    EXPANDED,
+    DISABLED,
+    HIDDEN,
+    DIRTY,
+    PINNED
+  }
+
+  private static final int ITERATIONS = 200_000;
+
+  private final Kind kind;
+  private Flag[] flags;
+
+  public EnumCollectionsBenchmark(Kind kind) {
+    this.kind = kind;
+  }
+
+  @Override
+  public void setupOneTime() {
+    flags = Flag.values();
+  }
+
+  @Override
+  public Object run() {
+    return kind == Kind.ENUM_SET ? runEnumSet() : runEnumMap();
+  }
+
+  private long runEnumSet() {
+    long sum = 0;
+    EnumSet<Flag> set = EnumSet.noneOf(Flag.class);
+    for (int i = 0; i < ITERATIONS; i++) {
+      set.clear();
+      for (int j = i % 3; j < flags.length; j += 2) {
+        set.add(flags[j]);
+      }
+      if (set.contains(flags[i % flags.length])) {
+        sum++;
+      }
+      for (Flag flag : set) {
+        sum += flag.ordinal();
+      }
+    }
+    return sum;
+  }
+
+  private long runEnumMap() {
+    long sum = 0;
+    EnumMap<Flag, Integer> map = new EnumMap<>(Flag.class);
+    for (int i = 0; i < ITERATIONS; i++) {
+      for (int j = i % 3; j < flags.length; j += 2) {
+        map.put(flags[j], j);
+      }
+      Integer value = map.get(flags[i % flags.length]);
+      if (value != null) {
+        sum += value;
+      }
+      for (Map.Entry<Flag, Integer> entry : map.entrySet()) {
+        sum += entry.getKey().ordinal() + entry.getValue();
+      }
+      map.remove(flags[i % flags.length]);
+    }
+    return sum;
+  }
+
+  @Override
+  public void tearDownOneTime() {
+    flags = null;
+  }
+}
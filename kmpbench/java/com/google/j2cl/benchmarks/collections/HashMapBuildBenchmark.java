@@ -0,0 +1,88 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package com.google.j2cl.benchmarks.collections;
+
+import com.google.j2cl.benchmarking.framework.AbstractBenchmark;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds {@link HashMap}s from a stream of words with the {@code Map} default methods, which used
+ * to look up each key several times.
+ */
+public class HashMapBuildBenchmark extends AbstractBenchmark {
+
+  /** The map being built. */
+  public enum Kind {
+    /** Counts the occurrences of each word with {@code merge}. */
+    WORD_COUNT,
+    /** Indexes the positions of each word with {@code computeIfAbsent}. */
+    MULTIMAP
+  }
+
+  private static final int WORDS = 200_000;
+  private static final int DISTINCT_WORDS = 10_000;
+
+  private final Kind kind;
+  private String[] words;
+
+  public HashMapBuildBenchmark(Kind kind) {
+    this.kind = kind;
+  }
+
+  @Override
+  public void setupOneTime() {
+    String[] vocabulary = new String[DISTINCT_WORDS];
+    for (int i = 0; i < DISTINCT_WORDS; i++) {
+      vocabulary[i] = "word" + i;
+    }
+    words = new String[WORDS];
+    int seed = 1;
+    for (int i = 0; i < WORDS; i++) {
+      seed ^= seed << 13;
+      seed ^= seed >>> 17;
+      seed ^= seed << 5;
+      // Skew the distribution towards the first words, like in natural text.
+      int rank = (seed >>> 1) % DISTINCT_WORDS;
+      words[i] = vocabulary[rank * rank / DISTINCT_WORDS];
+    }
+  }
+
+  @Override
+  public Object run() {
+    if (kind == Kind.WORD_COUNT) {
+      Map<String, Integer> counts = new HashMap<>();
+      for (String word : words) {
+        counts.merge(word, 1, Integer::sum);
+      }
+      return counts.size();
+    }
+    Map<String, List<Integer>> positions = new HashMap<>();
+    for (int i = 0; i < WORDS; i++) {
+      positions.computeIfAbsent(words[i], word -> new ArrayList<>()).add(i);
+    }
+    return positions.size();
+  }
+
+  @Override
+  public void tearDownOneTime() {
+    words = null;
+  }
+}
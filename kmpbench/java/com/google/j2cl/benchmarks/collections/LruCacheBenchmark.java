@@ -0,0 +1,98 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package com.google.j2cl.benchmarks.collections;
+
+import com.google.j2cl.benchmarking.framework.AbstractBenchmark;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * An LRU cache built on an access-ordered {@link LinkedHashMap} that evicts its eldest entry once
+ * it holds {@link #CAPACITY} entries.
+ */
+public class LruCacheBenchmark extends AbstractBenchmark {
+
+  /** The lookup pattern. */
+  public enum Kind {
+    /** Every lookup hits, measuring the get and move-to-tail path. */
+    HIT,
+    /**
+     * Lookups range over twice the capacity, so about half of them miss and insert a new entry,
+     * evicting the eldest one. The cache must stay at its capacity in this steady state.
+     */
+    MIXED
+  }
+
+  private static final int CAPACITY = 1024;
+  private static final int ITERATIONS = 1_000_000;
+
+  private final Kind kind;
+  private Integer[] keys;
+  private Map<Integer, Integer> cache;
+
+  public LruCacheBenchmark(Kind kind) {
+    this.kind = kind;
+  }
+
+  @Override
+  public void setupOneTime() {
+    int keyCount = kind == Kind.HIT ? CAPACITY : 2 * CAPACITY;
+    keys = new Integer[keyCount];
+    for (int i = 0; i < keyCount; i++) {
+      keys[i] = i;
+    }
+    cache =
+        new LinkedHashMap<Integer, Integer>(2 * CAPACITY, 0.75f, true) {
+          @Override
+          protected boolean removeEldestEntry(Map.Entry<Integer, Integer> eldest) {
+            return size() > CAPACITY;
+          }
+        };
+    for (int i = 0; i < CAPACITY; i++) {
+      cache.put(keys[i], keys[i]);
+    }
+  }
+
+  @Override
+  public Object run() {
+    long sum = 0;
+    int seed = 1;
+    for (int i = 0; i < ITERATIONS; i++) {
+      seed ^= seed << 13;
+      seed ^= seed >>> 17;
+      seed ^= seed << 5;
+      Integer key = keys[(seed >>> 1) % keys.length];
+      Integer value = cache.get(key);
+      if (value == null) {
+        cache.put(key, key);
+      } else {
+        sum += value;
+      }
+    }
+    if (cache.size() != CAPACITY) {
+      throw new IllegalStateException("Cache is not bounded: " + cache.size());
+    }
+    return sum;
+  }
+
+  @Override
+  public void tearDownOneTime() {
+    keys = null;
+    cache = null;
+  }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package com.google.j2cl.benchmarks.collections;
+
+import com.google.j2cl.benchmarking.framework.AbstractBenchmark;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/** Builds sorted maps and sets from input that is already sorted. */
+public class TreeBuildBenchmark extends AbstractBenchmark {
+
+  /** The sorted source. */
+  public enum Kind {
+    /** Copies a {@link TreeMap} with the copy constructor. */
+    MAP_COPY,
+    /** Merges a sorted map of the same size into a {@link TreeMap} with putAll. */
+    MAP_MERGE,
+    /** Builds a {@link TreeSet} from a sorted {@link List}. */
+    SET_FROM_LIST
+  }
+
+  private static final int SIZE = 10_000;
+  private static final int ROUNDS = 20;
+
+  private final Kind kind;
+  private List<String> sortedKeys;
+  private TreeMap<String, Integer> evens;
+  private TreeMap<String, Integer> odds;
+
+  public TreeBuildBenchmark(Kind kind) {
+    this.kind = kind;
+  }
+
+  @Override
+  public void setupOneTime() {
+    sortedKeys = new ArrayList<>(SIZE);
+    evens = new TreeMap<>();
+    odds = new TreeMap<>();
+    for (int i = 0; i < SIZE; i++) {
+      String key = String.valueOf(1_000_000 + i);
+      sortedKeys.add(key);
+      (i % 2 == 0 ? evens : odds).put(key, i);
+    }
+  }
+
+  @Override
+  public Object run() {
+    int sum = 0;
+    for (int round = 0; round < ROUNDS; round++) {
+      switch (kind) {
+        case MAP_COPY:
+          sum += new TreeMap<>(evens).size();
+          break;
+        case MAP_MERGE:
+          TreeMap<String, Integer> merged = new TreeMap<>(evens);
+          merged.putAll(odds);
+          sum += merged.size();
+          break;
+        case SET_FROM_LIST:
+          sum += new TreeSet<>(sortedKeys).size();
+          break;
+      }
+    }
+    return sum;
+  }
+
+  @Override
+  public void tearDownOneTime() {
+    sortedKeys = null;
+    evens = null;
+    odds = null;
+  }
+}
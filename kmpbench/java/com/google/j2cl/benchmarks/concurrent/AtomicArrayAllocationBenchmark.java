@@ -0,0 +1,36 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.j2cl.benchmarks.concurrent;
+
+import com.google.j2cl.benchmarking.framework.AbstractBenchmark;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/** Allocates atomic arrays with one million slots, as a table resize of a large map does. */
+public class AtomicArrayAllocationBenchmark extends AbstractBenchmark {
+
+  private static final int SLOTS = 1_000_000;
+
+  @Override
+  public Object run() {
+    AtomicReferenceArray<Object> references = new AtomicReferenceArray<>(SLOTS);
+    AtomicLongArray longs = new AtomicLongArray(SLOTS);
+    AtomicIntegerArray ints = new AtomicIntegerArray(SLOTS);
+    return references.length() + longs.length() + ints.length();
+  }
+}
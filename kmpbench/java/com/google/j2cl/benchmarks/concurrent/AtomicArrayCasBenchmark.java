@@ -0,0 +1,58 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.j2cl.benchmarks.concurrent;
+
+import com.google.j2cl.benchmarking.framework.AbstractBenchmark;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/** Updates every slot of one million slot atomic arrays with compare-and-set. */
+public class AtomicArrayCasBenchmark extends AbstractBenchmark {
+
+  private static final int SLOTS = 1_000_000;
+
+  private AtomicLongArray counters;
+  private AtomicReferenceArray<Object> references;
+  private Object marker;
+
+  @Override
+  public void setupOneTime() {
+    counters = new AtomicLongArray(SLOTS);
+    references = new AtomicReferenceArray<>(SLOTS);
+    marker = new Object();
+  }
+
+  @Override
+  public Object run() {
+    long sum = 0;
+    for (int i = 0; i < SLOTS; i++) {
+      long value = counters.get(i);
+      counters.compareAndSet(i, value, value + i);
+      Object current = references.get(i);
+      references.compareAndSet(i, current, current == null ? marker : null);
+      sum += counters.getPlain(i);
+    }
+    return sum;
+  }
+
+  @Override
+  public void tearDownOneTime() {
+    counters = null;
+    references = null;
+    marker = null;
+  }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.j2cl.benchmarks.concurrent;
+
+import com.google.j2cl.benchmarking.framework.AbstractBenchmark;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Several threads counting words into a shared {@link ConcurrentHashMap} with {@code merge}, and
+ * memoizing a derived value per key with {@code computeIfAbsent}.
+ */
+public class ConcurrentHashMapComputeBenchmark extends AbstractBenchmark {
+
+  private static final int THREADS = 4;
+  private static final int KEYS = 4_096;
+  private static final int ITERATIONS_PER_THREAD = 50_000;
+
+  private ExecutorService executor;
+  private Integer[] keys;
+
+  @Override
+  public void setupOneTime() {
+    executor = Executors.newScheduledThreadPool(THREADS);
+    keys = new Integer[KEYS];
+    for (int i = 0; i < KEYS; i++) {
+      keys[i] = i;
+    }
+  }
+
+  @Override
+  public Object run() {
+    ConcurrentHashMap<Integer, Integer> counts = new ConcurrentHashMap<>();
+    ConcurrentHashMap<Integer, String> memo = new ConcurrentHashMap<>();
+    Parallel.run(
+        executor,
+        THREADS,
+        index -> {
+          int k = index;
+          for (int i = 0; i < ITERATIONS_PER_THREAD; i++) {
+            // A cheap LCG step spreads the threads over all keys in different orders.
+            k = (k * 1_103_515_245 + 12_345) & (KEYS - 1);
+            Integer key = keys[k];
+            counts.merge(key, 1, Integer::sum);
+            memo.computeIfAbsent(key, String::valueOf);
+          }
+        });
+    return counts;
+  }
+
+  @Override
+  public void tearDownOneTime() {
+    executor.shutdown();
+    executor = null;
+    keys = null;
+  }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.j2cl.benchmarks.concurrent;
+
+import com.google.j2cl.benchmarking.framework.AbstractBenchmark;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Fills a {@link ConcurrentHashMap} with one million entries, including a round of colliding
+ * updates and removals that take bin locks.
+ *
+ * <p>The run time is dominated by per-entry allocation, so this also serves as a footprint
+ * benchmark: heap profiles taken while it runs show the retained bytes per entry.
+ */
+public class ConcurrentHashMapFillBenchmark extends AbstractBenchmark {
+
+  private static final int ENTRIES = 1_000_000;
+
+  private Integer[] keys;
+
+  @Override
+  public void setupOneTime() {
+    keys = new Integer[ENTRIES];
+    for (int i = 0; i < ENTRIES; i++) {
+      keys[i] = i;
+    }
+  }
+
+  @Override
+  public Object run() {
+    ConcurrentHashMap<Integer, Integer> map = new ConcurrentHashMap<>();
+    for (Integer key : keys) {
+      map.put(key, key);
+    }
+    for (int i = 0; i < ENTRIES; i += 2) {
+      map.put(keys[i], keys[i + 1]);
+    }
+    for (int i = 1; i < ENTRIES; i += 4) {
+      map.remove(keys[i]);
+    }
+    return map;
+  }
+
+  @Override
+  public void tearDownOneTime() {
+    keys = null;
+  }
+}
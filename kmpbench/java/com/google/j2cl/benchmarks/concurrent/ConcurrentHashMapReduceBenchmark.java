@@ -0,0 +1,53 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.j2cl.benchmarks.concurrent;
+
+import com.google.j2cl.benchmarking.framework.AbstractBenchmark;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Aggregates the values of a {@link ConcurrentHashMap} with one million entries using the parallel
+ * bulk operations, which split the table across worker threads.
+ */
+public class ConcurrentHashMapReduceBenchmark extends AbstractBenchmark {
+
+  private static final int ENTRIES = 1_000_000;
+  private static final long PARALLELISM_THRESHOLD = 10_000;
+
+  private ConcurrentHashMap<Integer, Long> map;
+
+  @Override
+  public void setupOneTime() {
+    map = new ConcurrentHashMap<>(ENTRIES);
+    for (int i = 0; i < ENTRIES; i++) {
+      map.put(i, (long) i);
+    }
+  }
+
+  @Override
+  public Object run() {
+    long sum = map.reduceValuesToLong(PARALLELISM_THRESHOLD, v -> v, 0L, Long::sum);
+    Long max = map.reduceValues(PARALLELISM_THRESHOLD, (a, b) -> a > b ? a : b);
+    Integer found = map.search(PARALLELISM_THRESHOLD, (k, v) -> v == ENTRIES - 1 ? k : null);
+    return sum + max + found;
+  }
+
+  @Override
+  public void tearDownOneTime() {
+    map = null;
+  }
+}
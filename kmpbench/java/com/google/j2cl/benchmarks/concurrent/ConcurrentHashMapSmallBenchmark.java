@@ -0,0 +1,60 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.j2cl.benchmarks.concurrent;
+
+import com.google.j2cl.benchmarking.framework.AbstractBenchmark;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Creates one hundred thousand {@link ConcurrentHashMap}s holding one to four entries each, the
+ * common case next to the single large map of {@link ConcurrentHashMapFillBenchmark}.
+ *
+ * <p>Small maps are dominated by their fixed per-map cost, including the bin locks. Heap profiles
+ * taken while this runs show the retained bytes per map.
+ */
+public class ConcurrentHashMapSmallBenchmark extends AbstractBenchmark {
+
+  private static final int MAPS = 100_000;
+
+  private Integer[] keys;
+
+  @Override
+  public void setupOneTime() {
+    keys = new Integer[4];
+    for (int i = 0; i < keys.length; i++) {
+      keys[i] = i;
+    }
+  }
+
+  @Override
+  public Object run() {
+    Object[] maps = new Object[MAPS];
+    for (int i = 0; i < MAPS; i++) {
+      ConcurrentHashMap<Integer, Integer> map = new ConcurrentHashMap<>();
+      for (int j = 0; j <= i % keys.length; j++) {
+        map.put(keys[j], keys[j]);
+      }
+      maps[i] = map;
+    }
+    return maps;
+  }
+
+  @Override
+  public void tearDownOneTime() {
+    keys = null;
+  }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.j2cl.benchmarks.concurrent;
+
+import com.google.j2cl.benchmarking.framework.AbstractBenchmark;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReentrantLock;
+
+/** Several threads repeatedly locking the same monitor around a tiny critical section. */
+public class ContendedLockBenchmark extends AbstractBenchmark {
+
+  private static final int THREADS = 4;
+  private static final int ITERATIONS_PER_THREAD = 10_000;
+
+  private final ReentrantLock lock = new ReentrantLock();
+  private ExecutorService executor;
+  private int counter;
+
+  @Override
+  public void setupOneTime() {
+    executor = Executors.newScheduledThreadPool(THREADS);
+  }
+
+  @Override
+  public Object run() {
+    Parallel.run(
+        executor,
+        THREADS,
+        index -> {
+          for (int i = 0; i < ITERATIONS_PER_THREAD; i++) {
+            lock.lock();
+            try {
+              counter++;
+            } finally {
+              lock.unlock();
+            }
+          }
+        });
+    return counter;
+  }
+
+  @Override
+  public void tearDownOneTime() {
+    executor.shutdown();
+    executor = null;
+  }
+}
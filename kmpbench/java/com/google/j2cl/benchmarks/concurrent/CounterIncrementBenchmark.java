@@ -0,0 +1,85 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.j2cl.benchmarks.concurrent;
+
+import com.google.j2cl.benchmarking.framework.AbstractBenchmark;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/** Several threads incrementing one shared counter as fast as they can. */
+public class CounterIncrementBenchmark extends AbstractBenchmark {
+
+  /** The counter implementation under test. */
+  public enum Kind {
+    ATOMIC_LONG,
+    LONG_ADDER
+  }
+
+  private static final int INCREMENTS = 1_000_000;
+
+  private final Kind kind;
+  private final int threads;
+  private ExecutorService executor;
+
+  public CounterIncrementBenchmark(Kind kind, int threads) {
+    this.kind = kind;
+    this.threads = threads;
+  }
+
+  @Override
+  public void setupOneTime() {
+    executor = Executors.newScheduledThreadPool(threads);
+  }
+
+  @Override
+  public Object run() {
+    int incrementsPerThread = INCREMENTS / threads;
+    switch (kind) {
+      case ATOMIC_LONG:
+        AtomicLong atomicLong = new AtomicLong();
+        Parallel.run(
+            executor,
+            threads,
+            index -> {
+              for (int i = 0; i < incrementsPerThread; i++) {
+                atomicLong.incrementAndGet();
+              }
+            });
+        return atomicLong.get();
+      case LONG_ADDER:
+        LongAdder longAdder = new LongAdder();
+        Parallel.run(
+            executor,
+            threads,
+            index -> {
+              for (int i = 0; i < incrementsPerThread; i++) {
+                longAdder.increment();
+              }
+            });
+        return longAdder.sum();
+    }
+    throw new AssertionError(kind);
+  }
+
+  @Override
+  public void tearDownOneTime() {
+    executor.shutdown();
+    executor = null;
+  }
+}
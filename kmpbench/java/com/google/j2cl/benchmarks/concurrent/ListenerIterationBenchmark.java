@@ -0,0 +1,127 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.j2cl.benchmarks.concurrent;
+
+import com.google.j2cl.benchmarking.framework.AbstractBenchmark;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Several threads iterating a small list of listeners that is occasionally modified. One operation
+ * in 1024 replaces a listener, so the results show the cost of guarding traversals.
+ */
+public class ListenerIterationBenchmark extends AbstractBenchmark {
+
+  /** How the listener list is shared between threads. */
+  public enum Kind {
+    /** A {@link CopyOnWriteArrayList}, iterated without locking. */
+    COPY_ON_WRITE,
+    /** An {@link ArrayList} that is iterated and modified while holding a {@link ReentrantLock}. */
+    LOCKED_LIST
+  }
+
+  private static final int OPERATIONS = 1_000_000;
+  private static final int LISTENERS = 16;
+
+  private final Kind kind;
+  private final int threads;
+  private final ReentrantLock lock = new ReentrantLock();
+  private List<Integer> listeners;
+  private ExecutorService executor;
+
+  public ListenerIterationBenchmark(Kind kind, int threads) {
+    this.kind = kind;
+    this.threads = threads;
+  }
+
+  @Override
+  public void setupOneTime() {
+    List<Integer> initial = new ArrayList<>();
+    for (int i = 0; i < LISTENERS; i++) {
+      initial.add(i);
+    }
+    listeners =
+        kind == Kind.COPY_ON_WRITE ? new CopyOnWriteArrayList<>(initial) : new ArrayList<>(initial);
+    executor = Executors.newScheduledThreadPool(threads);
+  }
+
+  @Override
+  public Object run() {
+    AtomicLong sum = new AtomicLong();
+    int operationsPerThread = OPERATIONS / threads;
+    Parallel.run(
+        executor,
+        threads,
+        index -> {
+          long localSum = 0;
+          for (int i = 0; i < operationsPerThread; i++) {
+            if ((i & 1023) == index) {
+              replace(i % LISTENERS, i);
+            } else {
+              localSum += fire(i);
+            }
+          }
+          sum.addAndGet(localSum);
+        });
+    return sum.get();
+  }
+
+  private long fire(int event) {
+    if (kind == Kind.COPY_ON_WRITE) {
+      return dispatch(event);
+    }
+    lock.lock();
+    try {
+      return dispatch(event);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private long dispatch(int event) {
+    long result = 0;
+    for (int listener : listeners) {
+      result += listener ^ event;
+    }
+    return result;
+  }
+
+  private void replace(int position, int listener) {
+    if (kind == Kind.COPY_ON_WRITE) {
+      listeners.set(position, listener);
+      return;
+    }
+    lock.lock();
+    try {
+      listeners.set(position, listener);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public void tearDownOneTime() {
+    executor.shutdown();
+    executor = null;
+    listeners = null;
+  }
+}
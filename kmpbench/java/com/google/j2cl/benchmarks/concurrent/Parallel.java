@@ -0,0 +1,58 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.j2cl.benchmarks.concurrent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/** Helpers for benchmarks that run the same work on several threads. */
+public final class Parallel {
+
+  /**
+   * Runs {@code task} once per thread on {@code executor}, passing the thread index, and waits for
+   * all of them to complete.
+   */
+  public static void run(ExecutorService executor, int threads, IndexedTask task) {
+    List<Future<?>> futures = new ArrayList<>(threads);
+    for (int i = 0; i < threads; i++) {
+      int index = i;
+      futures.add(executor.submit(() -> task.run(index)));
+    }
+    awaitAll(futures);
+  }
+
+  /** Waits for all futures, rethrowing any task failure as an unchecked exception. */
+  public static void awaitAll(List<? extends Future<?>> futures) {
+    for (Future<?> future : futures) {
+      try {
+        future.get();
+      } catch (InterruptedException | ExecutionException e) {
+        throw new IllegalStateException(e);
+      }
+    }
+  }
+
+  /** A unit of work that is told which of the parallel threads it is running on. */
+  public interface IndexedTask {
+    void run(int index);
+  }
+
+  private Parallel() {}
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package com.google.j2cl.benchmarks.concurrent;
+
+import com.google.j2cl.benchmarking.framework.AbstractBenchmark;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.LinkedTransferQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * One producer thread handing elements over to one consumer thread through a blocking queue. With
+ * a batch size above one, the producer adds whole batches with {@code addAll} while they fit and
+ * the consumer removes them with {@code drainTo}, so the results show how much batching saves on
+ * locking and signalling.
+ */
+public class ProducerConsumerBenchmark extends AbstractBenchmark {
+
+  /** The queue implementation under test. */
+  public enum Kind {
+    /** An {@link ArrayBlockingQueue} with a capacity of {@link #CAPACITY}. */
+    ARRAY_QUEUE,
+    /** A {@link LinkedBlockingQueue} with a capacity of {@link #CAPACITY}. */
+    LINKED_QUEUE,
+    /** An unbounded {@link LinkedTransferQueue}. */
+    TRANSFER_QUEUE
+  }
+
+  private static final int ELEMENTS = 1 << 20;
+  private static final int CAPACITY = 1024;
+
+  private final Kind kind;
+  private final int batchSize;
+  private ExecutorService executor;
+  private BlockingQueue<Integer> queue;
+
+  public ProducerConsumerBenchmark(Kind kind, int batchSize) {
+    this.kind = kind;
+    this.batchSize = batchSize;
+  }
+
+  @Override
+  public void setupOneTime() {
+    executor = Executors.newScheduledThreadPool(2);
+    switch (kind) {
+      case ARRAY_QUEUE:
+        queue = new ArrayBlockingQueue<>(CAPACITY);
+        break;
+      case LINKED_QUEUE:
+        queue = new LinkedBlockingQueue<>(CAPACITY);
+        break;
+      case TRANSFER_QUEUE:
+        queue = new LinkedTransferQueue<>();
+        break;
+    }
+  }
+
+  @Override
+  public Object run() {
+    AtomicLong sum = new AtomicLong();
+    Parallel.run(
+        executor,
+        2,
+        index -> {
+          try {
+            if (index == 0) {
+              produce();
+            } else {
+              sum.set(consume());
+            }
+          } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+          }
+        });
+    return sum.get();
+  }
+
+  private void produce() throws InterruptedException {
+    List<Integer> batch = new ArrayList<>(batchSize);
+    for (int i = 0; i < ELEMENTS; i += batchSize) {
+      if (batchSize == 1) {
+        queue.put(i);
+        continue;
+      }
+      batch.clear();
+      for (int j = i; j < i + batchSize; j++) {
+        batch.add(j);
+      }
+      // Only this thread adds, so the space cannot shrink before addAll.
+      if (queue.remainingCapacity() >= batchSize) {
+        queue.addAll(batch);
+      } else {
+        for (Integer e : batch) {
+          queue.put(e);
+        }
+      }
+    }
+  }
+
+  private long consume() throws InterruptedException {
+    long sum = 0;
+    List<Integer> batch = new ArrayList<>(batchSize);
+    for (int received = 0; received < ELEMENTS; ) {
+      if (batchSize == 1 || queue.drainTo(batch, batchSize) == 0) {
+        batch.add(queue.take());
+      }
+      for (Integer e : batch) {
+        sum += e;
+      }
+      received += batch.size();
+      batch.clear();
+    }
+    return sum;
+  }
+
+  @Override
+  public void tearDownOneTime() {
+    executor.shutdown();
+    executor = null;
+    queue = null;
+  }
+}
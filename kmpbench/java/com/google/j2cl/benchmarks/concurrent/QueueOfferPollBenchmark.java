@@ -0,0 +1,94 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package com.google.j2cl.benchmarks.concurrent;
+
+import com.google.j2cl.benchmarking.framework.AbstractBenchmark;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Several threads sharing one queue, each repeatedly offering an element and polling one. Every
+ * thread polls only after its own offer, so polls never find the queue empty.
+ */
+public class QueueOfferPollBenchmark extends AbstractBenchmark {
+
+  /** The queue implementation under test. */
+  public enum Kind {
+    CONCURRENT_LINKED_QUEUE,
+    CONCURRENT_LINKED_DEQUE,
+    LINKED_BLOCKING_QUEUE
+  }
+
+  private static final int OPERATIONS = 100_000;
+
+  private final Kind kind;
+  private final int threads;
+  private ExecutorService executor;
+  private Queue<Integer> queue;
+
+  public QueueOfferPollBenchmark(Kind kind, int threads) {
+    this.kind = kind;
+    this.threads = threads;
+  }
+
+  @Override
+  public void setupOneTime() {
+    executor = Executors.newScheduledThreadPool(threads);
+    switch (kind) {
+      case CONCURRENT_LINKED_QUEUE:
+        queue = new ConcurrentLinkedQueue<>();
+        break;
+      case CONCURRENT_LINKED_DEQUE:
+        queue = new ConcurrentLinkedDeque<>();
+        break;
+      case LINKED_BLOCKING_QUEUE:
+        queue = new LinkedBlockingQueue<>();
+        break;
+    }
+  }
+
+  @Override
+  public Object run() {
+    AtomicLong sum = new AtomicLong();
+    int operationsPerThread = OPERATIONS / threads;
+    Parallel.run(
+        executor,
+        threads,
+        index -> {
+          long localSum = 0;
+          for (int i = 0; i < operationsPerThread; i++) {
+            queue.offer(i);
+            localSum += queue.poll();
+          }
+          sum.addAndGet(localSum);
+        });
+    return sum.get();
+  }
+
+  @Override
+  public void tearDownOneTime() {
+    executor.shutdown();
+    executor = null;
+    queue = null;
+  }
+}
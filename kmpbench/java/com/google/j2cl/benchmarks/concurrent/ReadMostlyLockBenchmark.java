@@ -0,0 +1,157 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.j2cl.benchmarks.concurrent;
+
+import com.google.j2cl.benchmarking.framework.AbstractBenchmark;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Several threads reading a pair of fields that is occasionally updated, guarded by different
+ * kinds of locks. One operation in 64 is a write, so the results show how well readers scale with
+ * the number of threads.
+ */
+public class ReadMostlyLockBenchmark extends AbstractBenchmark {
+
+  /** The lock guarding the fields. */
+  public enum Kind {
+    /** A {@link ReentrantLock}, which serializes readers. */
+    REENTRANT_LOCK,
+    /** A non-fair {@link ReentrantReadWriteLock}. */
+    READ_WRITE_LOCK,
+    /** A {@link StampedLock} using optimistic reads, falling back to a read lock on conflict. */
+    STAMPED_LOCK
+  }
+
+  private static final int OPERATIONS = 1_000_000;
+
+  private final Kind kind;
+  private final int threads;
+  private final ReentrantLock reentrantLock = new ReentrantLock();
+  private final ReentrantReadWriteLock readWriteLock = new ReentrantReadWriteLock();
+  private final StampedLock stampedLock = new StampedLock();
+  private ExecutorService executor;
+
+  // Volatile so that optimistic reads are not reordered past StampedLock.validate().
+  private volatile long first;
+  private volatile long second;
+
+  public ReadMostlyLockBenchmark(Kind kind, int threads) {
+    this.kind = kind;
+    this.threads = threads;
+  }
+
+  @Override
+  public void setupOneTime() {
+    executor = Executors.newScheduledThreadPool(threads);
+  }
+
+  @Override
+  public Object run() {
+    AtomicLong sum = new AtomicLong();
+    int operationsPerThread = OPERATIONS / threads;
+    Parallel.run(
+        executor,
+        threads,
+        index -> {
+          long localSum = 0;
+          for (int i = 0; i < operationsPerThread; i++) {
+            if ((i & 63) == index) {
+              write();
+            } else {
+              localSum += read();
+            }
+          }
+          sum.addAndGet(localSum);
+        });
+    return sum.get();
+  }
+
+  private long read() {
+    switch (kind) {
+      case REENTRANT_LOCK:
+        reentrantLock.lock();
+        try {
+          return first + second;
+        } finally {
+          reentrantLock.unlock();
+        }
+      case READ_WRITE_LOCK:
+        readWriteLock.readLock().lock();
+        try {
+          return first + second;
+        } finally {
+          readWriteLock.readLock().unlock();
+        }
+      case STAMPED_LOCK:
+        long stamp = stampedLock.tryOptimisticRead();
+        long result = first + second;
+        if (stampedLock.validate(stamp)) {
+          return result;
+        }
+        stamp = stampedLock.readLock();
+        try {
+          return first + second;
+        } finally {
+          stampedLock.unlockRead(stamp);
+        }
+    }
+    throw new AssertionError(kind);
+  }
+
+  private void write() {
+    switch (kind) {
+      case REENTRANT_LOCK:
+        reentrantLock.lock();
+        try {
+          first++;
+          second--;
+        } finally {
+          reentrantLock.unlock();
+        }
+        return;
+      case READ_WRITE_LOCK:
+        readWriteLock.writeLock().lock();
+        try {
+          first++;
+          second--;
+        } finally {
+          readWriteLock.writeLock().unlock();
+        }
+        return;
+      case STAMPED_LOCK:
+        long stamp = stampedLock.writeLock();
+        try {
+          first++;
+          second--;
+        } finally {
+          stampedLock.unlockWrite(stamp);
+        }
+        return;
+    }
+  }
+
+  @Override
+  public void tearDownOneTime() {
+    executor.shutdown();
+    executor = null;
+  }
+}
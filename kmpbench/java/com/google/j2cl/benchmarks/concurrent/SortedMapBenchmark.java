@@ -0,0 +1,121 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.j2cl.benchmarks.concurrent;
+
+import com.google.j2cl.benchmarking.framework.AbstractBenchmark;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Several threads sharing one sorted map, doing a read-mostly mix of lookups, ceiling queries,
+ * insertions and removals over a fixed key range.
+ */
+public class SortedMapBenchmark extends AbstractBenchmark {
+
+  /** The sorted map implementation under test. */
+  public enum Kind {
+    /** A {@link ConcurrentSkipListMap}. */
+    SKIP_LIST,
+    /** A {@link TreeMap} guarded by a single lock, the usual alternative. */
+    LOCKED_TREE_MAP
+  }
+
+  private static final int KEYS = 10_000;
+  private static final int OPERATIONS = 200_000;
+
+  private final Kind kind;
+  private final int threads;
+  private final ReentrantLock lock = new ReentrantLock();
+  private ExecutorService executor;
+  private NavigableMap<Integer, Integer> map;
+
+  public SortedMapBenchmark(Kind kind, int threads) {
+    this.kind = kind;
+    this.threads = threads;
+  }
+
+  @Override
+  public void setupOneTime() {
+    executor = Executors.newScheduledThreadPool(threads);
+    map = kind == Kind.SKIP_LIST ? new ConcurrentSkipListMap<>() : new TreeMap<>();
+    for (int i = 0; i < KEYS; i += 2) {
+      map.put(i, i);
+    }
+  }
+
+  @Override
+  public Object run() {
+    AtomicLong sum = new AtomicLong();
+    int operationsPerThread = OPERATIONS / threads;
+    Parallel.run(
+        executor,
+        threads,
+        index -> {
+          long localSum = 0;
+          int seed = index * 0x9E3779B9 + 1;
+          for (int i = 0; i < operationsPerThread; i++) {
+            seed ^= seed << 13;
+            seed ^= seed >>> 17;
+            seed ^= seed << 5;
+            int key = (seed >>> 1) % KEYS;
+            localSum += operate(i & 15, key);
+          }
+          sum.addAndGet(localSum);
+        });
+    return sum.get();
+  }
+
+  /** One operation of the mix: 12/16 lookups, 2/16 ceiling queries, 1/16 puts, 1/16 removes. */
+  private int operate(int op, Integer key) {
+    if (kind == Kind.LOCKED_TREE_MAP) {
+      lock.lock();
+      try {
+        return operateUnlocked(op, key);
+      } finally {
+        lock.unlock();
+      }
+    }
+    return operateUnlocked(op, key);
+  }
+
+  private int operateUnlocked(int op, Integer key) {
+    if (op < 12) {
+      Integer value = map.get(key);
+      return value == null ? 0 : 1;
+    } else if (op < 14) {
+      Integer ceiling = map.ceilingKey(key);
+      return ceiling == null ? 0 : ceiling;
+    } else if (op == 14) {
+      map.put(key, key);
+      return 1;
+    } else {
+      return map.remove(key) == null ? 0 : 1;
+    }
+  }
+
+  @Override
+  public void tearDownOneTime() {
+    executor.shutdown();
+    executor = null;
+    map = null;
+  }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package com.google.j2cl.benchmarks.concurrent;
+
+import com.google.j2cl.benchmarking.framework.AbstractBenchmark;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Phaser;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Several threads hammering a single synchronizer. The latch and semaphore kinds measure the cost
+ * of releasing and acquiring shared state, the barrier kinds measure how quickly all threads can
+ * repeatedly meet.
+ */
+public class SynchronizerBenchmark extends AbstractBenchmark {
+
+  /** The synchronizer being exercised. */
+  public enum Kind {
+    /** Every thread counts down its share of a {@link CountDownLatch}, then awaits it. */
+    COUNT_DOWN_LATCH,
+    /** Threads acquire and release a {@link Semaphore} with half as many permits as threads. */
+    SEMAPHORE,
+    /** Threads repeatedly await a {@link CyclicBarrier}. */
+    CYCLIC_BARRIER,
+    /** Threads repeatedly arrive and await advance on a {@link Phaser}. */
+    PHASER
+  }
+
+  private static final int OPERATIONS = 1_000_000;
+  private static final int ROUNDS = 10_000;
+
+  private final Kind kind;
+  private final int threads;
+  private ExecutorService executor;
+
+  public SynchronizerBenchmark(Kind kind, int threads) {
+    this.kind = kind;
+    this.threads = threads;
+  }
+
+  @Override
+  public void setupOneTime() {
+    executor = Executors.newScheduledThreadPool(threads);
+  }
+
+  @Override
+  public Object run() {
+    int operationsPerThread = OPERATIONS / threads;
+    switch (kind) {
+      case COUNT_DOWN_LATCH:
+        CountDownLatch latch = new CountDownLatch(operationsPerThread * threads);
+        Parallel.run(
+            executor,
+            threads,
+            index -> {
+              for (int i = 0; i < operationsPerThread; i++) {
+                latch.countDown();
+              }
+              try {
+                latch.await();
+              } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+              }
+            });
+        return latch.getCount();
+      case SEMAPHORE:
+        Semaphore semaphore = new Semaphore(Math.max(1, threads / 2));
+        Parallel.run(
+            executor,
+            threads,
+            index -> {
+              for (int i = 0; i < operationsPerThread; i++) {
+                semaphore.acquireUninterruptibly();
+                semaphore.release();
+              }
+            });
+        return semaphore.availablePermits();
+      case CYCLIC_BARRIER:
+        CyclicBarrier barrier = new CyclicBarrier(threads);
+        Parallel.run(
+            executor,
+            threads,
+            index -> {
+              try {
+                for (int i = 0; i < ROUNDS; i++) {
+                  barrier.await();
+                }
+              } catch (InterruptedException | BrokenBarrierException e) {
+                throw new IllegalStateException(e);
+              }
+            });
+        return barrier.getNumberWaiting();
+      case PHASER:
+        Phaser phaser = new Phaser(threads);
+        Parallel.run(
+            executor,
+            threads,
+            index -> {
+              for (int i = 0; i < ROUNDS; i++) {
+                phaser.arriveAndAwaitAdvance();
+              }
+            });
+        return phaser.getPhase();
+    }
+    throw new AssertionError(kind);
+  }
+
+  @Override
+  public void tearDownOneTime() {
+    executor.shutdown();
+    executor = null;
+  }
+}
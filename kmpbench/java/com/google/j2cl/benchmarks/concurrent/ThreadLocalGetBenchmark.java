@@ -0,0 +1,62 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.j2cl.benchmarks.concurrent;
+
+import com.google.j2cl.benchmarking.framework.AbstractBenchmark;
+
+/**
+ * Reads initialized {@link ThreadLocal} values on a single thread. The number of live thread
+ * locals is a parameter, since lookups may slow down as a thread accumulates values.
+ */
+public class ThreadLocalGetBenchmark extends AbstractBenchmark {
+
+  private static final int ITERATIONS = 1_000_000;
+
+  private final int count;
+  private ThreadLocal<Integer>[] threadLocals;
+
+  public ThreadLocalGetBenchmark(int count) {
+    this.count = count;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public void setupOneTime() {
+    threadLocals = new ThreadLocal[count];
+    for (int i = 0; i < count; i++) {
+      threadLocals[i] = new ThreadLocal<>();
+      threadLocals[i].set(i);
+    }
+  }
+
+  @Override
+  public Object run() {
+    long sum = 0;
+    for (int i = 0; i < ITERATIONS; i++) {
+      sum += threadLocals[i % count].get();
+    }
+    return sum;
+  }
+
+  @Override
+  public void tearDownOneTime() {
+    for (ThreadLocal<Integer> threadLocal : threadLocals) {
+      threadLocal.remove();
+    }
+    threadLocals = null;
+  }
+}
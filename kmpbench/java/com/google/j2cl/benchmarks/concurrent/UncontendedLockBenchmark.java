@@ -0,0 +1,53 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.j2cl.benchmarks.concurrent;
+
+import com.google.j2cl.benchmarking.framework.AbstractBenchmark;
+import java.util.concurrent.locks.ReentrantLock;
+
+/** Locks and unlocks monitors that are only ever used by a single thread. */
+public class UncontendedLockBenchmark extends AbstractBenchmark {
+
+  private static final int ITERATIONS = 100_000;
+  private static final int FRESH_MONITORS = 1_000;
+
+  private final ReentrantLock lock = new ReentrantLock();
+  private int counter;
+
+  @Override
+  public Object run() {
+    for (int i = 0; i < ITERATIONS; i++) {
+      lock.lock();
+      try {
+        counter++;
+      } finally {
+        lock.unlock();
+      }
+    }
+    // Monitors are typically created per object and locked only a few times.
+    for (int i = 0; i < FRESH_MONITORS; i++) {
+      ReentrantLock fresh = new ReentrantLock();
+      fresh.lock();
+      try {
+        counter++;
+      } finally {
+        fresh.unlock();
+      }
+    }
+    return counter;
+  }
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.j2cl.benchmarks.simple;
+
+import com.google.j2cl.benchmarking.framework.AbstractBenchmark;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Computes the same Fibonacci number as {@link Fibonacci}, forking the recursion into tasks on the
+ * common {@link ForkJoinPool} down to a sequential threshold.
+ */
+public class ForkJoinFibonacci extends AbstractBenchmark {
+
+  /** Below this, subproblems are too small to be worth a task. */
+  private static final int SEQUENTIAL_THRESHOLD = 20;
+
+  private static final class FibonacciTask extends RecursiveTask<Integer> {
+    private final int n;
+
+    FibonacciTask(int n) {
+      this.n = n;
+    }
+
+    @Override
+    protected Integer compute() {
+      if (n <= SEQUENTIAL_THRESHOLD) {
+        return Fibonacci.fib(n);
+      }
+      FibonacciTask f1 = new FibonacciTask(n - 1);
+      f1.fork();
+      return new FibonacciTask(n - 2).compute() + f1.join();
+    }
+  }
+
+  @Override
+  public Object run() {
+    return ForkJoinPool.commonPool().invoke(new FibonacciTask(Fibonacci.TEST_VALUE));
+  }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.j2cl.benchmarks.simple;
+
+import com.google.j2cl.benchmarking.framework.AbstractBenchmark;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Sorts one million pseudo-random ints with a merge sort whose halves are sorted in parallel on
+ * the common {@link ForkJoinPool}.
+ */
+public class ParallelMergeSort extends AbstractBenchmark {
+
+  private static final int ELEMENTS = 1_000_000;
+
+  /** Ranges smaller than this are sorted sequentially. */
+  private static final int SEQUENTIAL_THRESHOLD = 1 << 13;
+
+  private int[] input;
+  private int[] values;
+  private int[] buffer;
+
+  private static final class SortTask extends RecursiveAction {
+    private final int[] values;
+    private final int[] buffer;
+    private final int from;
+    private final int to;
+
+    SortTask(int[] values, int[] buffer, int from, int to) {
+      this.values = values;
+      this.buffer = buffer;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from <= SEQUENTIAL_THRESHOLD) {
+        Arrays.sort(values, from, to);
+        return;
+      }
+      int mid = (from + to) >>> 1;
+      invokeAll(new SortTask(values, buffer, from, mid), new SortTask(values, buffer, mid, to));
+      merge(mid);
+    }
+
+    private void merge(int mid) {
+      System.arraycopy(values, from, buffer, from, to - from);
+      int i = from;
+      int j = mid;
+      int k = from;
+      while (i < mid && j < to) {
+        values[k++] = buffer[i] <= buffer[j] ? buffer[i++] : buffer[j++];
+      }
+      while (i < mid) {
+        values[k++] = buffer[i++];
+      }
+      while (j < to) {
+        values[k++] = buffer[j++];
+      }
+    }
+  }
+
+  @Override
+  public void setupOneTime() {
+    Random random = new Random(42);
+    input = new int[ELEMENTS];
+    for (int i = 0; i < ELEMENTS; i++) {
+      input[i] = random.nextInt();
+    }
+    values = new int[ELEMENTS];
+    buffer = new int[ELEMENTS];
+  }
+
+  @Override
+  public Object run() {
+    System.arraycopy(input, 0, values, 0, ELEMENTS);
+    ForkJoinPool.commonPool().invoke(new SortTask(values, buffer, 0, ELEMENTS));
+    return values[ELEMENTS / 2];
+  }
+
+  @Override
+  public void tearDownOneTime() {
+    input = null;
+    values = null;
+    buffer = null;
+  }
+}
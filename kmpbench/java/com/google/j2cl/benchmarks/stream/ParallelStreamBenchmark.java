@@ -0,0 +1,69 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.j2cl.benchmarks.stream;
+
+import com.google.j2cl.benchmarking.framework.AbstractBenchmark;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Runs a map/filter/reduce pipeline and a collecting pipeline over one million elements with
+ * parallel streams, which split the source across worker threads. Compare with {@link
+ * SequentialStreamBenchmark}.
+ */
+public class ParallelStreamBenchmark extends AbstractBenchmark {
+
+  private static final int ELEMENTS = 1_000_000;
+
+  private int[] values;
+  private List<Integer> list;
+
+  @Override
+  public void setupOneTime() {
+    values = new int[ELEMENTS];
+    list = new ArrayList<>(ELEMENTS);
+    for (int i = 0; i < ELEMENTS; i++) {
+      values[i] = i;
+      list.add(i);
+    }
+  }
+
+  @Override
+  public Object run() {
+    long sum =
+        Arrays.stream(values)
+            .parallel()
+            .map(v -> (v * 31 + 7) % 1009)
+            .filter(v -> v % 3 != 0)
+            .asLongStream()
+            .sum();
+    List<String> strings =
+        list.parallelStream()
+            .filter(i -> i % 7 == 0)
+            .map(String::valueOf)
+            .collect(Collectors.toList());
+    return sum + strings.size();
+  }
+
+  @Override
+  public void tearDownOneTime() {
+    values = null;
+    list = null;
+  }
+}
@@ -16,19 +16,183 @@
 
 package com.google.j2cl.benchmarks
 
+import com.google.j2cl.benchmarks.collections.BitSetBenchmark
+import com.google.j2cl.benchmarks.collections.BitSetBenchmark.Kind.BLOOM_FILTER
+import com.google.j2cl.benchmarks.collections.BitSetBenchmark.Kind.BULK_LOGIC
+import com.google.j2cl.benchmarks.collections.BitSetBenchmark.Kind.CARDINALITY
+import com.google.j2cl.benchmarks.collections.BitSetBenchmark.Kind.NEXT_SET_BIT
+import com.google.j2cl.benchmarks.collections.BitSetBenchmark.Kind.PREVIOUS_SET_BIT
+import com.google.j2cl.benchmarks.collections.BitSetBenchmark.Kind.STREAM
+import com.google.j2cl.benchmarks.collections.EnumCollectionsBenchmark
+import com.google.j2cl.benchmarks.collections.EnumCollectionsBenchmark.Kind.ENUM_MAP
+import com.google.j2cl.benchmarks.collections.EnumCollectionsBenchmark.Kind.ENUM_SET
+import com.google.j2cl.benchmarks.collections.HashMapBuildBenchmark
+import com.google.j2cl.benchmarks.collections.HashMapBuildBenchmark.Kind.MULTIMAP
+import com.google.j2cl.benchmarks.collections.HashMapBuildBenchmark.Kind.WORD_COUNT
+import com.google.j2cl.benchmarks.collections.LruCacheBenchmark
+import com.google.j2cl.benchmarks.collections.LruCacheBenchmark.Kind.HIT
+import com.google.j2cl.benchmarks.collections.LruCacheBenchmark.Kind.MIXED
+import com.google.j2cl.benchmarks.collections.TreeBuildBenchmark
+import com.google.j2cl.benchmarks.collections.TreeBuildBenchmark.Kind.MAP_COPY
+import com.google.j2cl.benchmarks.collections.TreeBuildBenchmark.Kind.MAP_MERGE
+import com.google.j2cl.benchmarks.collections.TreeBuildBenchmark.Kind.SET_FROM_LIST
+import com.google.j2cl.benchmarks.concurrent.AtomicArrayAllocationBenchmark
+import com.google.j2cl.benchmarks.concurrent.AtomicArrayCasBenchmark
+import com.google.j2cl.benchmarks.concurrent.ConcurrentHashMapComputeBenchmark
+import com.google.j2cl.benchmarks.concurrent.ConcurrentHashMapFillBenchmark
+import com.google.j2cl.benchmarks.concurrent.ConcurrentHashMapReduceBenchmark
+import com.google.j2cl.benchmarks.concurrent.ConcurrentHashMapSmallBenchmark
+import com.google.j2cl.benchmarks.concurrent.ContendedLockBenchmark
+import com.google.j2cl.benchmarks.concurrent.CounterIncrementBenchmark
+import com.google.j2cl.benchmarks.concurrent.CounterIncrementBenchmark.Kind.ATOMIC_LONG
+import com.google.j2cl.benchmarks.concurrent.CounterIncrementBenchmark.Kind.LONG_ADDER
+import com.google.j2cl.benchmarks.concurrent.FutureGetBenchmark
+import com.google.j2cl.benchmarks.concurrent.ListenerIterationBenchmark
+import com.google.j2cl.benchmarks.concurrent.ListenerIterationBenchmark.Kind.COPY_ON_WRITE
+import com.google.j2cl.benchmarks.concurrent.ListenerIterationBenchmark.Kind.LOCKED_LIST
+import com.google.j2cl.benchmarks.concurrent.ProducerConsumerBenchmark
+import com.google.j2cl.benchmarks.concurrent.ProducerConsumerBenchmark.Kind.ARRAY_QUEUE
+import com.google.j2cl.benchmarks.concurrent.ProducerConsumerBenchmark.Kind.LINKED_QUEUE
+import com.google.j2cl.benchmarks.concurrent.ProducerConsumerBenchmark.Kind.TRANSFER_QUEUE
+import com.google.j2cl.benchmarks.concurrent.QueueOfferPollBenchmark
+import com.google.j2cl.benchmarks.concurrent.QueueOfferPollBenchmark.Kind.CONCURRENT_LINKED_DEQUE
+import com.google.j2cl.benchmarks.concurrent.QueueOfferPollBenchmark.Kind.CONCURRENT_LINKED_QUEUE
+import com.google.j2cl.benchmarks.concurrent.QueueOfferPollBenchmark.Kind.LINKED_BLOCKING_QUEUE
+import com.google.j2cl.benchmarks.concurrent.ReadMostlyLockBenchmark
+import com.google.j2cl.benchmarks.concurrent.ReadMostlyLockBenchmark.Kind.READ_WRITE_LOCK
+import com.google.j2cl.benchmarks.concurrent.ReadMostlyLockBenchmark.Kind.REENTRANT_LOCK
+import com.google.j2cl.benchmarks.concurrent.ReadMostlyLockBenchmark.Kind.STAMPED_LOCK
+import com.google.j2cl.benchmarks.concurrent.SortedMapBenchmark
+import com.google.j2cl.benchmarks.concurrent.SortedMapBenchmark.Kind.LOCKED_TREE_MAP
+import com.google.j2cl.benchmarks.concurrent.SortedMapBenchmark.Kind.SKIP_LIST
+import com.google.j2cl.benchmarks.concurrent.SynchronizerBenchmark
+import com.google.j2cl.benchmarks.concurrent.SynchronizerBenchmark.Kind.COUNT_DOWN_LATCH
+import com.google.j2cl.benchmarks.concurrent.SynchronizerBenchmark.Kind.CYCLIC_BARRIER
+import com.google.j2cl.benchmarks.concurrent.SynchronizerBenchmark.Kind.PHASER
+import com.google.j2cl.benchmarks.concurrent.SynchronizerBenchmark.Kind.SEMAPHORE
+import com.google.j2cl.benchmarks.concurrent.ThreadLocalGetBenchmark
+import com.google.j2cl.benchmarks.concurrent.UncontendedLockBenchmark
 import com.google.j2cl.benchmarks.octane.DeltaBlueBenchmark
 import com.google.j2cl.benchmarks.octane.NavierStokesBenchmark
 import com.google.j2cl.benchmarks.octane.RayTraceBenchmark
 import com.google.j2cl.benchmarks.octane.RichardsBenchmark
 import com.google.j2cl.benchmarks.simple.Fibonacci
+import com.google.j2cl.benchmarks.simple.ForkJoinFibonacci
+import com.google.j2cl.benchmarks.simple.ParallelMergeSort
+import com.google.j2cl.benchmarks.stream.ParallelStreamBenchmark
+import com.google.j2cl.benchmarks.stream.SequentialStreamBenchmark
 
 object AllBenchmarks {
   val map =
     mapOf(
+      "atomic_array_alloc" to AtomicArrayAllocationBenchmark(),
+      "atomic_array_cas" to AtomicArrayCasBenchmark(),
+      "bitset_bloom" to BitSetBenchmark(BLOOM_FILTER),
+      "bitset_bulk" to BitSetBenchmark(BULK_LOGIC),
+      "bitset_cardinality" to BitSetBenchmark(CARDINALITY),
+      "bitset_next" to BitSetBenchmark(NEXT_SET_BIT),
+      "bitset_previous" to BitSetBenchmark(PREVIOUS_SET_BIT),
+      "bitset_stream" to BitSetBenchmark(STREAM),
+      "chm_compute" to ConcurrentHashMapComputeBenchmark(),
+      "chm_fill" to ConcurrentHashMapFillBenchmark(),
+      "chm_reduce" to ConcurrentHashMapReduceBenchmark(),
+      "chm_small" to ConcurrentHashMapSmallBenchmark(),
+      "counter_atomiclong_1" to CounterIncrementBenchmark(ATOMIC_LONG, 1),
+      "counter_atomiclong_2" to CounterIncrementBenchmark(ATOMIC_LONG, 2),
+      "counter_atomiclong_4" to CounterIncrementBenchmark(ATOMIC_LONG, 4),
+      "counter_atomiclong_8" to CounterIncrementBenchmark(ATOMIC_LONG, 8),
+      "counter_longadder_1" to CounterIncrementBenchmark(LONG_ADDER, 1),
+      "counter_longadder_2" to CounterIncrementBenchmark(LONG_ADDER, 2),
+      "counter_longadder_4" to CounterIncrementBenchmark(LONG_ADDER, 4),
+      "counter_longadder_8" to CounterIncrementBenchmark(LONG_ADDER, 8),
       "deltablue" to DeltaBlueBenchmark(),
+      "enummap" to EnumCollectionsBenchmark(ENUM_MAP),
+      "enumset" to EnumCollectionsBenchmark(ENUM_SET),
       "fibonacci" to Fibonacci(),
+      "fibonacci_forkjoin" to ForkJoinFibonacci(),
+      "future_get_park" to FutureGetBenchmark(parked = true),
+      "future_get_runblocking" to FutureGetBenchmark(parked = false),
+      "hashmap_multimap" to HashMapBuildBenchmark(MULTIMAP),
+      "hashmap_wordcount" to HashMapBuildBenchmark(WORD_COUNT),
+      "listeners_copyonwrite_1" to ListenerIterationBenchmark(COPY_ON_WRITE, 1),
+      "listeners_copyonwrite_2" to ListenerIterationBenchmark(COPY_ON_WRITE, 2),
+      "listeners_copyonwrite_4" to ListenerIterationBenchmark(COPY_ON_WRITE, 4),
+      "listeners_copyonwrite_8" to ListenerIterationBenchmark(COPY_ON_WRITE, 8),
+      "listeners_lockedlist_1" to ListenerIterationBenchmark(LOCKED_LIST, 1),
+      "listeners_lockedlist_2" to ListenerIterationBenchmark(LOCKED_LIST, 2),
+      "listeners_lockedlist_4" to ListenerIterationBenchmark(LOCKED_LIST, 4),
+      "listeners_lockedlist_8" to ListenerIterationBenchmark(LOCKED_LIST, 8),
+      "lock_contended" to ContendedLockBenchmark(),
+      "lock_uncontended" to UncontendedLockBenchmark(),
+      "lrucache_hit" to LruCacheBenchmark(HIT),
+      "lrucache_mixed" to LruCacheBenchmark(MIXED),
+      "mergesort_parallel" to ParallelMergeSort(),
       "navierstokes" to NavierStokesBenchmark(),
+      "producerconsumer_array_1" to ProducerConsumerBenchmark(ARRAY_QUEUE, 1),
+      "producerconsumer_array_16" to ProducerConsumerBenchmark(ARRAY_QUEUE, 16),
+      "producerconsumer_array_256" to ProducerConsumerBenchmark(ARRAY_QUEUE, 256),
+      "producerconsumer_linked_1" to ProducerConsumerBenchmark(LINKED_QUEUE, 1),
+      "producerconsumer_linked_16" to ProducerConsumerBenchmark(LINKED_QUEUE, 16),
+      "producerconsumer_linked_256" to ProducerConsumerBenchmark(LINKED_QUEUE, 256),
+      "producerconsumer_transfer_1" to ProducerConsumerBenchmark(TRANSFER_QUEUE, 1),
+      "producerconsumer_transfer_16" to ProducerConsumerBenchmark(TRANSFER_QUEUE, 16),
+      "producerconsumer_transfer_256" to ProducerConsumerBenchmark(TRANSFER_QUEUE, 256),
+      "queue_cld_1" to QueueOfferPollBenchmark(CONCURRENT_LINKED_DEQUE, 1),
+      "queue_cld_2" to QueueOfferPollBenchmark(CONCURRENT_LINKED_DEQUE, 2),
+      "queue_cld_4" to QueueOfferPollBenchmark(CONCURRENT_LINKED_DEQUE, 4),
+      "queue_cld_8" to QueueOfferPollBenchmark(CONCURRENT_LINKED_DEQUE, 8),
+      "queue_clq_1" to QueueOfferPollBenchmark(CONCURRENT_LINKED_QUEUE, 1),
+      "queue_clq_2" to QueueOfferPollBenchmark(CONCURRENT_LINKED_QUEUE, 2),
+      "queue_clq_4" to QueueOfferPollBenchmark(CONCURRENT_LINKED_QUEUE, 4),
+      "queue_clq_8" to QueueOfferPollBenchmark(CONCURRENT_LINKED_QUEUE, 8),
+      "queue_lbq_1" to QueueOfferPollBenchmark(LINKED_BLOCKING_QUEUE, 1),
+      "queue_lbq_2" to QueueOfferPollBenchmark(LINKED_BLOCKING_QUEUE, 2),
+      "queue_lbq_4" to QueueOfferPollBenchmark(LINKED_BLOCKING_QUEUE, 4),
+      "queue_lbq_8" to QueueOfferPollBenchmark(LINKED_BLOCKING_QUEUE, 8),
       "raytrace" to RayTraceBenchmark(),
+      "readmostly_readwritelock_1" to ReadMostlyLockBenchmark(READ_WRITE_LOCK, 1),
+      "readmostly_readwritelock_2" to ReadMostlyLockBenchmark(READ_WRITE_LOCK, 2),
+      "readmostly_readwritelock_4" to ReadMostlyLockBenchmark(READ_WRITE_LOCK, 4),
+      "readmostly_readwritelock_8" to ReadMostlyLockBenchmark(READ_WRITE_LOCK, 8),
+      "readmostly_reentrantlock_1" to ReadMostlyLockBenchmark(REENTRANT_LOCK, 1),
+      "readmostly_reentrantlock_2" to ReadMostlyLockBenchmark(REENTRANT_LOCK, 2),
+      "readmostly_reentrantlock_4" to ReadMostlyLockBenchmark(REENTRANT_LOCK, 4),
+      "readmostly_reentrantlock_8" to ReadMostlyLockBenchmark(REENTRANT_LOCK, 8),
+      "readmostly_stampedlock_1" to ReadMostlyLockBenchmark(STAMPED_LOCK, 1),
+      "readmostly_stampedlock_2" to ReadMostlyLockBenchmark(STAMPED_LOCK, 2),
+      "readmostly_stampedlock_4" to ReadMostlyLockBenchmark(STAMPED_LOCK, 4),
+      "readmostly_stampedlock_8" to ReadMostlyLockBenchmark(STAMPED_LOCK, 8),
       "richards" to RichardsBenchmark(),
+      "sortedmap_csl_1" to SortedMapBenchmark(SKIP_LIST, 1),
+      "sortedmap_csl_2" to SortedMapBenchmark(SKIP_LIST, 2),
+      "sortedmap_csl_4" to SortedMapBenchmark(SKIP_LIST, 4),
+      "sortedmap_csl_8" to SortedMapBenchmark(SKIP_LIST, 8),
+      "sortedmap_locked_treemap_1" to SortedMapBenchmark(LOCKED_TREE_MAP, 1),
+      "sortedmap_locked_treemap_2" to SortedMapBenchmark(LOCKED_TREE_MAP, 2),
+      "sortedmap_locked_treemap_4" to SortedMapBenchmark(LOCKED_TREE_MAP, 4),
+      "sortedmap_locked_treemap_8" to SortedMapBenchmark(LOCKED_TREE_MAP, 8),
+      "stream_parallel" to ParallelStreamBenchmark(),
+      "stream_sequential" to SequentialStreamBenchmark(),
+      "synchronizer_countdownlatch_1" to SynchronizerBenchmark(COUNT_DOWN_LATCH, 1),
+      "synchronizer_countdownlatch_2" to SynchronizerBenchmark(COUNT_DOWN_LATCH, 2),
+      "synchronizer_countdownlatch_4" to SynchronizerBenchmark(COUNT_DOWN_LATCH, 4),
+      "synchronizer_countdownlatch_8" to SynchronizerBenchmark(COUNT_DOWN_LATCH, 8),
+      "synchronizer_cyclicbarrier_1" to SynchronizerBenchmark(CYCLIC_BARRIER, 1),
+      "synchronizer_cyclicbarrier_2" to SynchronizerBenchmark(CYCLIC_BARRIER, 2),
+      "synchronizer_cyclicbarrier_4" to SynchronizerBenchmark(CYCLIC_BARRIER, 4),
+      "synchronizer_cyclicbarrier_8" to SynchronizerBenchmark(CYCLIC_BARRIER, 8),
+      "synchronizer_phaser_1" to SynchronizerBenchmark(PHASER, 1),
+      "synchronizer_phaser_2" to SynchronizerBenchmark(PHASER, 2),
+      "synchronizer_phaser_4" to SynchronizerBenchmark(PHASER, 4),
+      "synchronizer_phaser_8" to SynchronizerBenchmark(PHASER, 8),
+      "synchronizer_semaphore_1" to SynchronizerBenchmark(SEMAPHORE, 1),
+      "synchronizer_semaphore_2" to SynchronizerBenchmark(SEMAPHORE, 2),
+      "synchronizer_semaphore_4" to SynchronizerBenchmark(SEMAPHORE, 4),
+      "synchronizer_semaphore_8" to SynchronizerBenchmark(SEMAPHORE, 8),
+      "threadlocal_get_1" to ThreadLocalGetBenchmark(1),
+      "threadlocal_get_64" to ThreadLocalGetBenchmark(64),
+      "treemap_copy" to TreeBuildBenchmark(MAP_COPY),
+      "treemap_merge" to TreeBuildBenchmark(MAP_MERGE),
+      "treeset_from_list" to TreeBuildBenchmark(SET_FROM_LIST),
     )
 }
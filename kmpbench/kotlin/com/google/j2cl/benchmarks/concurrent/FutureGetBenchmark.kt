@@ -0,0 +1,76 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.j2cl.benchmarks.concurrent
+
+import com.google.j2cl.benchmarking.framework.AbstractBenchmark
+import java.util.concurrent.Callable
+import java.util.concurrent.Executors
+import java.util.concurrent.ScheduledExecutorService
+import kotlinx.coroutines.CoroutineScope
+import kotlinx.coroutines.Deferred
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.SupervisorJob
+import kotlinx.coroutines.async
+import kotlinx.coroutines.cancel
+import kotlinx.coroutines.runBlocking
+
+/**
+ * Awaits many small tasks one by one, either through `Future.get()` of the emulated executors,
+ * which parks the waiting thread until a completion handler unparks it, or by starting a
+ * `runBlocking` event loop per task to await its `Deferred`, which is what `Future.get()` used to
+ * do. Both variants run the tasks on two threads of the default dispatcher.
+ */
+class FutureGetBenchmark(private val parked: Boolean) : AbstractBenchmark() {
+
+  private lateinit var executor: ScheduledExecutorService
+  private lateinit var scope: CoroutineScope
+
+  override fun setupOneTime() {
+    executor = Executors.newScheduledThreadPool(THREADS)
+    scope = CoroutineScope(SupervisorJob() + Dispatchers.Default.limitedParallelism(THREADS))
+  }
+
+  override fun run(): Any = if (parked) awaitParked() else awaitRunBlocking()
+
+  private fun awaitParked(): Long {
+    val futures = List(TASKS) { i -> executor.submit(Callable { i }) }
+    var sum = 0L
+    for (future in futures) {
+      sum += future.get()
+    }
+    return sum
+  }
+
+  private fun awaitRunBlocking(): Long {
+    val deferreds: List<Deferred<Int>> = List(TASKS) { i -> scope.async { i } }
+    var sum = 0L
+    for (deferred in deferreds) {
+      sum += runBlocking { deferred.await() }
+    }
+    return sum
+  }
+
+  override fun tearDownOneTime() {
+    executor.shutdown()
+    scope.cancel()
+  }
+
+  private companion object {
+    const val TASKS = 1_000
+    const val THREADS = 2
+  }
+}